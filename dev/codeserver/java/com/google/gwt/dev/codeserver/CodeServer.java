@@ -133,7 +133,8 @@ public class CodeServer {
         makeOutboxes(options, startupLogger, unitCache, minimalRebuildCacheManager);
 
     JobEventTable eventTable = new JobEventTable();
-    JobRunner runner = new JobRunner(eventTable, minimalRebuildCacheManager);
+    JobRunner runner =
+        new JobRunner(eventTable, minimalRebuildCacheManager, options.getCompileThreads());
 
     JsonExporter exporter = new JsonExporter(options, outboxes);
 
@@ -343,4 +343,9 @@ class CompilerOptionsImpl extends UnmodifiableCompilerOptions {
   public boolean isClosureCompilerFormatEnabled() {
     return closureFormattedOutput;
   }
+
+  @Override
+  public boolean isSafeLongsEnabled() {
+    return false;
+  }
 }
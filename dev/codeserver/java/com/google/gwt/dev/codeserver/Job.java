@@ -21,6 +21,7 @@ import com.google.gwt.dev.cfg.ModuleDef;
 import com.google.gwt.dev.codeserver.JobEvent.CompileStrategy;
 import com.google.gwt.dev.codeserver.JobEvent.Status;
 import com.google.gwt.dev.util.log.AbstractTreeLogger;
+import com.google.gwt.dev.util.log.MetricName;
 import com.google.gwt.thirdparty.guava.common.base.Preconditions;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
@@ -33,6 +34,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -80,6 +82,9 @@ class Job {
    */
   private int compileId = -1; // non-negative after the compile has started
 
+  private long submittedNanos; // set when submitted
+  private long startedNanos; // non-zero after the compile has started
+
   private CompileDir compileDir; // non-null after the compile has started
   private CompileStrategy compileStrategy; // non-null after the compile has started
   private String outputModuleName; // non-null after successful compile
@@ -197,6 +202,7 @@ class Job {
       throw new IllegalStateException("compile job has already started: " + id);
     }
     this.table = table;
+    this.submittedNanos = System.nanoTime();
     table.publish(makeEvent(Status.WAITING), getLogger());
   }
 
@@ -209,6 +215,9 @@ class Job {
     }
     this.compileId = compileId;
     this.compileDir = compileDir;
+    this.startedNanos = System.nanoTime();
+    MetricName.QUEUE_WAIT_MILLIS.setAmount(getLogger(),
+        TimeUnit.NANOSECONDS.toMillis(startedNanos - submittedNanos));
 
     try {
       recompileListener.startedCompile(inputModuleName, compileId, compileDir);
@@ -248,6 +257,11 @@ class Job {
       throw new IllegalStateException("compile job is not active: " + id);
     }
 
+    if (startedNanos != 0) {
+      MetricName.COMPILE_MILLIS.setAmount(getLogger(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+    }
+
     // Report that we finished unless the listener messed up already.
     if (listenerFailure == null) {
       try {
@@ -267,6 +281,21 @@ class Job {
     }
   }
 
+  /**
+   * Reports that this job will never be compiled because a newer job for the same outbox and
+   * binding properties replaced it while it was waiting. The newer job's result becomes the
+   * result of this job, so that anyone waiting for this job gets the newer output.
+   * @throws IllegalStateException if the job is not waiting.
+   */
+  synchronized void onSuperseded(Job newerJob, Result newerResult) {
+    if (table == null || table.getPublishedEvent(this).getStatus() != Status.WAITING) {
+      throw new IllegalStateException("superseded a job that isn't waiting: " + id);
+    }
+    result.set(newerResult);
+    outputModuleName = newerResult.outputModuleName;
+    publish(makeEvent(Status.GONE, "Superseded by job " + newerJob.getId()));
+  }
+
   /**
    * Reports that this job's output is no longer available.
    */
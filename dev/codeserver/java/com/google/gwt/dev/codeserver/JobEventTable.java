@@ -18,6 +18,7 @@ package com.google.gwt.dev.codeserver;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.dev.codeserver.JobEvent.Status;
+import com.google.gwt.dev.util.log.MetricName;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 
@@ -43,11 +44,19 @@ class JobEventTable {
   private final Set<String> activeJobIds = new LinkedHashSet<String>();
 
   /**
-   * The set of compiling job ids. Since compiling is single-threaded, this set should
-   * contain zero or one entries.
+   * The set of compiling job ids, in the order they started. Jobs for different outboxes
+   * may compile at the same time.
    */
   private final Set<String> compilingJobIds = new LinkedHashSet<String>();
 
+  // Totals over all jobs that started compiling, from their metrics.
+
+  private int startedJobCount;
+  private long totalQueueWaitMillis;
+  private long maxQueueWaitMillis;
+  private int finishedJobCount;
+  private long totalCompileMillis;
+
   /**
    * Returns the event that's currently published for the given job.
    */
@@ -61,7 +70,8 @@ class JobEventTable {
   synchronized void publish(JobEvent event, TreeLogger logger) {
     String id = event.getJobId();
 
-    eventsByJobId.put(id, event);
+    JobEvent previous = eventsByJobId.put(id, event);
+    updateTotals(previous == null ? null : previous.getStatus(), event);
 
     // Update indexes
 
@@ -73,7 +83,6 @@ class JobEventTable {
 
     if (event.getStatus() == Status.COMPILING) {
       compilingJobIds.add(id);
-      assert compilingJobIds.size() <= 1;
     } else {
       compilingJobIds.remove(id);
     }
@@ -81,6 +90,25 @@ class JobEventTable {
     logger.log(Type.TRACE, "job's progress set to " + event.getStatus() + ": " + id);
   }
 
+  private void updateTotals(Status previousStatus, JobEvent event) {
+    Status status = event.getStatus();
+    if (status == Status.COMPILING && previousStatus != Status.COMPILING) {
+      long queueWaitMillis = getMetric(event, MetricName.QUEUE_WAIT_MILLIS);
+      startedJobCount++;
+      totalQueueWaitMillis += queueWaitMillis;
+      maxQueueWaitMillis = Math.max(maxQueueWaitMillis, queueWaitMillis);
+    } else if (previousStatus == Status.COMPILING
+        && (status == Status.SERVING || status == Status.ERROR)) {
+      finishedJobCount++;
+      totalCompileMillis += getMetric(event, MetricName.COMPILE_MILLIS);
+    }
+  }
+
+  private static long getMetric(JobEvent event, MetricName name) {
+    Long amount = event.getMetricMap().get(name.getKey());
+    return amount == null ? 0 : amount;
+  }
+
   private static boolean isActive(Status status) {
     return status == Status.WAITING || status == Status.COMPILING || status == Status.SERVING;
   }
@@ -97,8 +125,43 @@ class JobEventTable {
   }
 
   /**
-   * Returns an event indicating the current status of the job that's currently being compiled,
-   * or null if idle.
+   * Returns the number of jobs that started compiling.
+   */
+  synchronized int getStartedJobCount() {
+    return startedJobCount;
+  }
+
+  /**
+   * Returns the total time that jobs waited before they started compiling.
+   */
+  synchronized long getTotalQueueWaitMillis() {
+    return totalQueueWaitMillis;
+  }
+
+  /**
+   * Returns the longest time that a job waited before it started compiling.
+   */
+  synchronized long getMaxQueueWaitMillis() {
+    return maxQueueWaitMillis;
+  }
+
+  /**
+   * Returns the number of jobs that finished compiling, successfully or not.
+   */
+  synchronized int getFinishedJobCount() {
+    return finishedJobCount;
+  }
+
+  /**
+   * Returns the total time that finished jobs spent compiling.
+   */
+  synchronized long getTotalCompileMillis() {
+    return totalCompileMillis;
+  }
+
+  /**
+   * Returns an event indicating the current status of the job that has been compiling the
+   * longest, or null if idle.
    */
   synchronized JobEvent getCompilingJobEvent() {
     if (compilingJobIds.isEmpty()) {
@@ -20,29 +20,69 @@ import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.MinimalRebuildCacheManager;
 import com.google.gwt.dev.javac.UnitCacheSingleton;
+import com.google.gwt.thirdparty.guava.common.collect.ArrayListMultimap;
+import com.google.gwt.thirdparty.guava.common.collect.ListMultimap;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Futures;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Executes requests to compile modules using Super Dev Mode.
  *
- * <p>Guarantees that only one thread invokes the GWT compiler at a time and reports
- * progress on waiting jobs.
+ * <p>Guarantees that only one thread invokes the GWT compiler at a time for each outbox,
+ * and that at most a fixed number of outboxes compile at the same time. (By default, one.)
+ * Jobs for the same outbox run in the order they were submitted, except that a waiting job
+ * is superseded by a newer job with the same binding properties; it then finishes with the
+ * newer job's result.
  *
  * <p>JobRunners are thread-safe.
  */
 public class JobRunner {
 
+  /**
+   * The jobs of one outbox that haven't started yet.
+   */
+  private static class OutboxQueue {
+    final Deque<Job> waiting = new ArrayDeque<Job>();
+    boolean running; // true while a job of this outbox is scheduled or compiling
+  }
+
   private final JobEventTable table;
   private final MinimalRebuildCacheManager minimalRebuildCacheManager;
-  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final ExecutorService executor;
+
+  /**
+   * Compiles share the caches; cleaning them needs exclusive access.
+   */
+  private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+
+  // Guarded by this.
+  private final Map<Outbox, OutboxQueue> queuesByOutbox = Maps.newHashMap();
+  private final ListMultimap<Job, Job> supersededJobsByJob = ArrayListMultimap.create();
 
   JobRunner(JobEventTable table, MinimalRebuildCacheManager minimalRebuildCacheManager) {
+    this(table, minimalRebuildCacheManager, 1);
+  }
+
+  /**
+   * @param compileThreads the maximum number of outboxes that may compile at the same time
+   */
+  JobRunner(JobEventTable table, MinimalRebuildCacheManager minimalRebuildCacheManager,
+      int compileThreads) {
     this.table = table;
     this.minimalRebuildCacheManager = minimalRebuildCacheManager;
+    this.executor = Executors.newFixedThreadPool(Math.max(1, compileThreads));
   }
 
   /**
@@ -83,29 +123,97 @@ public class JobRunner {
       throw new IllegalStateException("job already submitted: " + job.getId());
     }
     job.onSubmitted(table);
+
+    OutboxQueue queue = queuesByOutbox.get(job.getOutbox());
+    if (queue == null) {
+      queue = new OutboxQueue();
+      queuesByOutbox.put(job.getOutbox(), queue);
+    }
+    supersedeWaitingJobs(queue, job);
+    queue.waiting.add(job);
+    job.getLogger().log(Type.TRACE, "added job to queue");
+
+    if (!queue.running) {
+      scheduleNext(queue);
+    }
+  }
+
+  /**
+   * Removes the waiting jobs that would compile the same thing as the given job.
+   * They will finish when it does.
+   */
+  private void supersedeWaitingJobs(OutboxQueue queue, Job job) {
+    for (Iterator<Job> it = queue.waiting.iterator(); it.hasNext(); ) {
+      Job waiting = it.next();
+      if (waiting.getBindingProperties().equals(job.getBindingProperties())) {
+        it.remove();
+        supersededJobsByJob.put(job, waiting);
+        supersededJobsByJob.putAll(job, supersededJobsByJob.removeAll(waiting));
+        waiting.getLogger().log(Type.TRACE, "superseded by job " + job.getId());
+      }
+    }
+  }
+
+  /**
+   * Starts the next job of an outbox, if any. Each job is scheduled separately so that
+   * the outboxes take turns when there are more of them than threads.
+   */
+  private synchronized void scheduleNext(final OutboxQueue queue) {
+    final Job job = queue.waiting.poll();
+    if (job == null) {
+      queue.running = false;
+      return;
+    }
+    queue.running = true;
     executor.submit(new Runnable() {
       @Override
       public void run() {
         try {
-          recompile(job);
-        } catch (Throwable t) {
-          // Try to release the job so the HTTP request will return an error.
-          // (But this might not work if the same exception is thrown while
-          // sending the finished event.)
-          if (!job.isDone()) {
-            try {
-              job.onFinished(new Job.Result(null, null, t));
-              return;
-            } catch (Throwable t2) {
-              // fall through and log original exception
-            }
-          }
-          // Assume everything is broken. Last-ditch attempt to report the error.
-          t.printStackTrace();
+          runJob(job);
+        } finally {
+          scheduleNext(queue);
         }
       }
     });
-    job.getLogger().log(Type.TRACE, "added job to queue");
+  }
+
+  private void runJob(Job job) {
+    cacheLock.readLock().lock();
+    try {
+      recompile(job);
+    } catch (Throwable t) {
+      // Try to release the job so the HTTP request will return an error.
+      // (But this might not work if the same exception is thrown while
+      // sending the finished event.)
+      if (!job.isDone()) {
+        try {
+          job.onFinished(new Job.Result(null, null, t));
+          return;
+        } catch (Throwable t2) {
+          // fall through and log original exception
+        }
+      }
+      // Assume everything is broken. Last-ditch attempt to report the error.
+      t.printStackTrace();
+    } finally {
+      cacheLock.readLock().unlock();
+      finishSupersededJobs(job);
+    }
+  }
+
+  private void finishSupersededJobs(Job job) {
+    List<Job> supersededJobs;
+    synchronized (this) {
+      supersededJobs = supersededJobsByJob.removeAll(job);
+    }
+    if (supersededJobs.isEmpty()) {
+      return;
+    }
+    Job.Result result = job.isDone() ? Futures.getUnchecked(job.getFutureResult())
+        : new Job.Result(null, null, new IllegalStateException("job failed: " + job.getId()));
+    for (Job superseded : supersededJobs) {
+      superseded.onSuperseded(job, result);
+    }
   }
 
   private static void recompile(Job job) {
@@ -116,8 +224,7 @@ public class JobRunner {
   /**
    * A callable for clearing both unit and minimalRebuild caches.
    * <p>
-   * By packaging it as a callable and running it in the ExecutorService any danger of clearing
-   * caches at the same time as an active compile job is avoided.
+   * It waits for active compile jobs to finish, so caches are never cleared while in use.
    */
   private class CleanerJob implements Callable<Void> {
 
@@ -130,8 +237,13 @@ public class JobRunner {
     @Override
     public Void call() throws UnableToCompleteException {
       long beforeMs = System.nanoTime() / 1000000L;
-      minimalRebuildCacheManager.deleteCaches();
-      UnitCacheSingleton.clearCache();
+      cacheLock.writeLock().lock();
+      try {
+        minimalRebuildCacheManager.deleteCaches();
+        UnitCacheSingleton.clearCache();
+      } finally {
+        cacheLock.writeLock().unlock();
+      }
       long afterMs = System.nanoTime() / 1000000L;
       logger.log(TreeLogger.INFO, String.format("Cleaned in %sms.", (afterMs - beforeMs)));
       return null;
@@ -84,6 +84,7 @@ public class Options {
   private boolean failOnError = false;
   private boolean strictResources = false;
   private int compileTestRecompiles = 0;
+  private int compileThreads = 1;
   private OptionJsInteropMode.Mode jsInteropMode = OptionJsInteropMode.Mode.NONE;
   private OptionMethodNameDisplayMode.Mode methodNameDisplayMode =
       OptionMethodNameDisplayMode.Mode.NONE;
@@ -271,6 +272,13 @@ public class Options {
     return compileTestRecompiles;
   }
 
+  /**
+   * The maximum number of modules to compile at the same time.
+   */
+  int getCompileThreads() {
+    return compileThreads;
+  }
+
   /**
    * The hostname to put in a URL pointing to the code server.
    */
@@ -323,6 +331,7 @@ public class Options {
       registerHandler(new BindAddressFlag());
       registerHandler(new CompileTestFlag());
       registerHandler(new CompileTestRecompilesFlag());
+      registerHandler(new CompileThreadsFlag());
       registerHandler(new FailOnErrorFlag());
       registerHandler(new ModuleNameArgument());
       registerHandler(new NoPrecompileFlag());
@@ -489,6 +498,29 @@ public class Options {
     }
   }
 
+  private class CompileThreadsFlag extends ArgHandlerInt {
+
+    @Override
+    public String getTag() {
+      return "-compileThreads";
+    }
+
+    @Override
+    public String[] getTagArgs() {
+      return new String[] { "count" };
+    }
+
+    @Override
+    public String getPurpose() {
+      return "The maximum number of modules to compile at the same time. Defaults to 1.";
+    }
+
+    @Override
+    public void setInt(int value) {
+      compileThreads = value;
+    }
+  }
+
   private class BindAddressFlag extends ArgHandlerString {
 
     @Override
@@ -310,4 +310,9 @@ abstract class UnmodifiableCompilerOptions implements CompilerOptions {
   public void setClosureCompilerFormatEnabled(boolean enabled) {
     throw new UnsupportedOperationException();
   }
+
+  @Override
+  public void setSafeLongsEnabled(boolean enabled) {
+    throw new UnsupportedOperationException();
+  }
 }
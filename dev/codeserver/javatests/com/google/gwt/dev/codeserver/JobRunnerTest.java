@@ -0,0 +1,195 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.codeserver.Job.Result;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.io.Files;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link JobRunner}.
+ */
+public class JobRunnerTest extends TestCase {
+
+  private static final Map<String, String> SAFARI = ImmutableMap.of("user.agent", "safari");
+
+  /**
+   * Pretends to compile by waiting at a barrier, so that tests control when compiles finish.
+   */
+  private static class FakeRecompiler extends Recompiler {
+    private final File dir;
+    private final String moduleName;
+    private final CyclicBarrier barrier;
+    private final AtomicInteger running;
+    private final AtomicInteger maxRunning;
+    private final List<String> compiledJobIds;
+    private int compileId;
+
+    FakeRecompiler(File dir, String moduleName, Options options, CyclicBarrier barrier,
+        AtomicInteger running, AtomicInteger maxRunning, List<String> compiledJobIds)
+        throws Exception {
+      super(OutboxDir.create(dir, TreeLogger.NULL), null, moduleName, options, null, null);
+      this.dir = dir;
+      this.moduleName = moduleName;
+      this.barrier = barrier;
+      this.running = running;
+      this.maxRunning = maxRunning;
+      this.compiledJobIds = compiledJobIds;
+    }
+
+    @Override
+    synchronized Result initWithoutPrecompile(TreeLogger logger) {
+      return new Result(new CompileDir(dir), moduleName, null);
+    }
+
+    @Override
+    synchronized Result recompile(Job job) {
+      Result result;
+      job.onStarted(++compileId, new CompileDir(dir));
+      int nowRunning = running.incrementAndGet();
+      synchronized (maxRunning) {
+        maxRunning.set(Math.max(maxRunning.get(), nowRunning));
+      }
+      try {
+        barrier.await(10, TimeUnit.SECONDS);
+        compiledJobIds.add(job.getId());
+        result = new Result(new CompileDir(dir), moduleName, null);
+      } catch (Exception e) {
+        result = new Result(null, null, e);
+      } finally {
+        running.decrementAndGet();
+      }
+      job.onFinished(result);
+      return result;
+    }
+  }
+
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxRunning = new AtomicInteger();
+  private final List<String> compiledJobIds = Collections.synchronizedList(
+      Lists.<String>newArrayList());
+  private File workDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    workDir = Files.createTempDir();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Util.recursiveDelete(workDir, false);
+    super.tearDown();
+  }
+
+  public void testModulesCompileConcurrently() throws Exception {
+    Options options = makeOptions("2");
+    // Each compile waits until the other one has started.
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    Outbox first = makeOutbox("com.foo.First", options, barrier);
+    Outbox second = makeOutbox("com.foo.Second", options, barrier);
+
+    JobEventTable table = new JobEventTable();
+    JobRunner runner = new JobRunner(table, null, options.getCompileThreads());
+    Job firstJob = first.makeJob(SAFARI, TreeLogger.NULL);
+    Job secondJob = second.makeJob(SAFARI, TreeLogger.NULL);
+    runner.submit(firstJob);
+    runner.submit(secondJob);
+
+    assertTrue(firstJob.waitForResult().isOk());
+    assertTrue(secondJob.waitForResult().isOk());
+    assertEquals(2, maxRunning.get());
+    assertEquals(2, table.getStartedJobCount());
+    assertEquals(2, table.getFinishedJobCount());
+  }
+
+  public void testOutboxCompilesOneJobAtATime() throws Exception {
+    Options options = makeOptions("2");
+    final CountDownLatch firstStarted = new CountDownLatch(1);
+    final CountDownLatch releaseFirst = new CountDownLatch(1);
+    CyclicBarrier barrier = new CyclicBarrier(1, new Runnable() {
+      @Override
+      public void run() {
+        if (firstStarted.getCount() > 0) {
+          firstStarted.countDown();
+          try {
+            releaseFirst.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      }
+    });
+    Outbox box = makeOutbox("com.foo.Only", options, barrier);
+
+    JobEventTable table = new JobEventTable();
+    JobRunner runner = new JobRunner(table, null, options.getCompileThreads());
+    Job compiling = box.makeJob(SAFARI, TreeLogger.NULL);
+    runner.submit(compiling);
+    assertTrue(firstStarted.await(10, TimeUnit.SECONDS));
+
+    // While the first job compiles, a newer job supersedes a waiting one with the same
+    // properties, but not one with different properties.
+    Job superseded = box.makeJob(SAFARI, TreeLogger.NULL);
+    Job other = box.makeJob(ImmutableMap.of("user.agent", "gecko1_8"), TreeLogger.NULL);
+    Job newest = box.makeJob(SAFARI, TreeLogger.NULL);
+    runner.submit(superseded);
+    runner.submit(other);
+    runner.submit(newest);
+    releaseFirst.countDown();
+
+    Result newestResult = newest.waitForResult();
+    assertTrue(newestResult.isOk());
+    assertSame(newestResult, superseded.waitForResult());
+    assertTrue(other.waitForResult().isOk());
+    assertTrue(compiling.waitForResult().isOk());
+
+    assertEquals(Lists.newArrayList(compiling.getId(), other.getId(), newest.getId()),
+        compiledJobIds);
+    assertEquals(1, maxRunning.get());
+    assertEquals(JobEvent.Status.GONE, table.getPublishedEvent(superseded).getStatus());
+    assertEquals(3, table.getStartedJobCount());
+    assertEquals(3, table.getFinishedJobCount());
+  }
+
+  private Options makeOptions(String compileThreads) {
+    Options options = new Options();
+    assertTrue(options.parseArgs(new String[] {
+        "-compileThreads", compileThreads, "com.foo.First", "com.foo.Second"}));
+    return options;
+  }
+
+  private Outbox makeOutbox(String moduleName, Options options, CyclicBarrier barrier)
+      throws Exception {
+    FakeRecompiler recompiler = new FakeRecompiler(new File(workDir, moduleName), moduleName,
+        options, barrier, running, maxRunning, compiledJobIds);
+    return new Outbox(moduleName.replace('.', '_'), recompiler, options, TreeLogger.NULL);
+  }
+}
@@ -22,6 +22,7 @@ import com.google.gwt.core.ext.linker.AbstractLinker;
 import com.google.gwt.core.ext.linker.Artifact;
 import com.google.gwt.core.ext.linker.ArtifactSet;
 import com.google.gwt.core.ext.linker.CompilationResult;
+import com.google.gwt.core.ext.linker.ConfigurationProperty;
 import com.google.gwt.core.ext.linker.EmittedArtifact;
 import com.google.gwt.core.ext.linker.EmittedArtifact.Visibility;
 import com.google.gwt.core.ext.linker.LinkerOrder;
@@ -40,6 +41,8 @@ import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapGeneratorV3;
 import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapGeneratorV3.ExtensionMergeAction;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
@@ -47,6 +50,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 /**
@@ -60,6 +64,13 @@ public class SymbolMapsLinker extends AbstractLinker {
 
   public static final String MAKE_SYMBOL_MAPS = "compiler.useSymbolMaps";
 
+  /**
+   * Configuration property that makes the linker also write a binary, sorted index of each symbol
+   * map, which {@code com.google.gwt.core.server.StackTraceDeobfuscator} can search without
+   * loading the whole map.
+   */
+  public static final String MAKE_SYMBOL_MAP_INDEX = "compiler.symbolMapIndex";
+
   /**
    * Artifact to record insertions or deletions made to Javascript fragments.
    */
@@ -215,6 +226,23 @@ public class SymbolMapsLinker extends AbstractLinker {
    */
   public static final String STRONG_NAME_SUFFIX = ".symbolMap";
 
+  /**
+   * This value is appended to the strong name of the CompilationResult to form the symbol map
+   * index's filename.
+   */
+  public static final String INDEX_STRONG_NAME_SUFFIX = ".symbolIndex";
+
+  /**
+   * The first int of a symbol map index; {@code com.google.gwt.core.server.SymbolMapIndex} reads
+   * the format.
+   */
+  public static final int INDEX_MAGIC = 0x47535849;
+
+  /**
+   * The version of the symbol map index format, following {@link #INDEX_MAGIC}.
+   */
+  public static final int INDEX_VERSION = 1;
+
   public static String propertyMapToString(
       Map<SelectionProperty, String> propertyMap) {
     StringWriter writer = new StringWriter();
@@ -265,6 +293,13 @@ public class SymbolMapsLinker extends AbstractLinker {
       artifacts = new ArtifactSet(artifacts);
       Map<Integer, String> permMap = new HashMap<Integer, String>();
 
+      boolean makeSymbolMapIndex = false;
+      for (ConfigurationProperty prop : context.getConfigurationProperties()) {
+        if (prop.getName().equals(MAKE_SYMBOL_MAP_INDEX)) {
+          makeSymbolMapIndex = Boolean.valueOf(prop.getValues().get(0));
+        }
+      }
+
       Event writeSymbolMapsEvent =
           SpeedTracerLogger.start(CompilerEventType.WRITE_SYMBOL_MAPS);
       ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -289,6 +324,10 @@ public class SymbolMapsLinker extends AbstractLinker {
 
           doEmitSymbolMap(logger, artifacts, result, out);
           out.reset();
+
+          if (makeSymbolMapIndex) {
+            doEmitSymbolMapIndex(logger, artifacts, result);
+          }
         }
       }
       writeSymbolMapsEvent.end();
@@ -366,6 +405,53 @@ public class SymbolMapsLinker extends AbstractLinker {
     artifacts.add(symbolMapArtifact);
   }
 
+  /**
+   * Emits the symbol map index of a compilation result. The index maps each symbol name to the
+   * rest of its line in the default symbol map format, sorted by symbol name. See
+   * {@code com.google.gwt.core.server.SymbolMapIndex} for the file format.
+   */
+  protected void doEmitSymbolMapIndex(TreeLogger logger, ArtifactSet artifacts,
+      CompilationResult result) throws UnableToCompleteException {
+    SortedMap<String, String> symbols = new TreeMap<String, String>();
+    StringBuilder sb = new StringBuilder();
+    for (SymbolData symbol : result.getSymbolMap()) {
+      appendSymbolData(sb, symbol);
+      symbols.put(symbol.getSymbolName(), sb.toString());
+      sb.setLength(0);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(INDEX_MAGIC);
+      out.writeInt(INDEX_VERSION);
+      out.writeInt(symbols.size());
+      int offset = 12 + 4 * symbols.size();
+      List<byte[]> encoded = new ArrayList<byte[]>(2 * symbols.size());
+      for (Map.Entry<String, String> entry : symbols.entrySet()) {
+        byte[] name = Util.getBytes(entry.getKey());
+        byte[] data = Util.getBytes(entry.getValue());
+        encoded.add(name);
+        encoded.add(data);
+        out.writeInt(offset);
+        offset += 8 + name.length + data.length;
+      }
+      for (byte[] chunk : encoded) {
+        out.writeInt(chunk.length);
+        out.write(chunk);
+      }
+      out.close();
+    } catch (IOException e) {
+      // Can't happen when writing to memory.
+      throw new RuntimeException(e);
+    }
+
+    EmittedArtifact indexArtifact = emitBytes(logger, bytes.toByteArray(),
+        result.getStrongName() + INDEX_STRONG_NAME_SUFFIX);
+    indexArtifact.setVisibility(Visibility.LegacyDeploy);
+    artifacts.add(indexArtifact);
+  }
+
   /**
    * Override to change the format of the symbol map.
    *
@@ -389,28 +475,8 @@ public class SymbolMapsLinker extends AbstractLinker {
     char[] buf = new char[1024];
     for (SymbolData symbol : result.getSymbolMap()) {
       sb.append(symbol.getSymbolName());
-
-      sb.append(',');
-      String jsniIdent = symbol.getJsniIdent();
-      if (jsniIdent != null) {
-        sb.append(jsniIdent);
-      }
-      sb.append(',');
-      sb.append(symbol.getClassName());
-      sb.append(',');
-      String memberName = symbol.getMemberName();
-      if (memberName != null) {
-        sb.append(memberName);
-      }
-      sb.append(',');
-      String sourceUri = symbol.getSourceUri();
-      if (sourceUri != null) {
-        sb.append(sourceUri);
-      }
       sb.append(',');
-      sb.append(symbol.getSourceLine());
-      sb.append(',');
-      sb.append(symbol.getFragmentNumber());
+      appendSymbolData(sb, symbol);
       sb.append('\n');
 
       int sbLen = sb.length();
@@ -427,6 +493,32 @@ public class SymbolMapsLinker extends AbstractLinker {
     }
   }
 
+  /**
+   * Appends everything that follows the symbol name on a symbol map line.
+   */
+  private static void appendSymbolData(StringBuilder sb, SymbolData symbol) {
+    String jsniIdent = symbol.getJsniIdent();
+    if (jsniIdent != null) {
+      sb.append(jsniIdent);
+    }
+    sb.append(',');
+    sb.append(symbol.getClassName());
+    sb.append(',');
+    String memberName = symbol.getMemberName();
+    if (memberName != null) {
+      sb.append(memberName);
+    }
+    sb.append(',');
+    String sourceUri = symbol.getSourceUri();
+    if (sourceUri != null) {
+      sb.append(sourceUri);
+    }
+    sb.append(',');
+    sb.append(symbol.getSourceLine());
+    sb.append(',');
+    sb.append(symbol.getFragmentNumber());
+  }
+
   protected SyntheticArtifact emitSourceMapString(TreeLogger logger, String contents,
       String partialPath) throws UnableToCompleteException {
     SyntheticArtifact emArt = emitString(logger, contents, partialPath);
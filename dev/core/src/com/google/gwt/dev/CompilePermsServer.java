@@ -26,20 +26,35 @@ import com.google.gwt.dev.util.StringInterningObjectInputStream;
 import com.google.gwt.dev.util.arg.ArgHandlerLogLevel;
 import com.google.gwt.dev.util.arg.OptionLogLevel;
 import com.google.gwt.dev.util.log.PrintWriterTreeLogger;
+import com.google.gwt.util.tools.ArgHandlerDir;
 import com.google.gwt.util.tools.ArgHandlerString;
+import com.google.gwt.util.tools.shared.StringUtils;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.security.SecureRandom;
 
 /**
  * An out-of-process implementation of CompilePerms that will connect back to an
  * existing compiler host. This class is intended to be launched by
  * {@link ExternalPermutationWorkerFactory} and not by users directly.
+ * <p>
+ * If a daemon directory is given, the server does not exit after the host that
+ * launched it is done. Instead it registers itself in that directory and waits
+ * for later compiles to connect to it, keeping its JVM warm and the most
+ * recently loaded AST in memory, until it has been idle for a while.
  */
 public class CompilePermsServer {
   /**
@@ -52,11 +67,77 @@ public class CompilePermsServer {
 
     String getCookie();
 
+    /**
+     * Returns the directory in which to register as a daemon after the first
+     * compile, or null to exit after it.
+     */
+    File getDaemonDir();
+
+    /**
+     * Returns the number of seconds after which an idle daemon exits.
+     */
+    int getDaemonIdleSeconds();
+
     void setCompileHost(String host);
 
     void setCompilePort(int port);
 
     void setCookie(String cookie);
+
+    void setDaemonDir(File dir);
+
+    void setDaemonIdleSeconds(int seconds);
+  }
+
+  /**
+   * The prefix of the file in which a daemon registers its port and cookie.
+   */
+  static final String DAEMON_FILE_PREFIX = "worker-";
+
+  /**
+   * The prefix of the file a daemon writes its registration to before
+   * renaming it into place. It must not start with {@link #DAEMON_FILE_PREFIX},
+   * so that compiles never try to lease a half-written registration.
+   */
+  static final String DAEMON_TEMP_FILE_PREFIX = ".tmp-";
+
+  /**
+   * A daemon exits after loading this many different ASTs, since the disk
+   * space that {@link UnifiedAst} uses is not reclaimed until the JVM exits.
+   */
+  private static final int MAX_DAEMON_ASTS = 16;
+
+  /**
+   * Holds the most recently loaded AST so that it can be reused if the same
+   * AST is sent again.
+   */
+  private static class LoadedAst {
+    private UnifiedAst ast;
+    private String hash;
+    private int loadCount;
+
+    /**
+     * Returns the AST in the given file, reading it unless it has the same
+     * hash as the last one read.
+     */
+    UnifiedAst get(File astFile, String astHash) throws IOException,
+        ClassNotFoundException {
+      if (ast != null && astHash.equals(hash)) {
+        return ast;
+      }
+      ast = null;
+      ObjectInputStream astIn = new StringInterningObjectInputStream(
+          new BufferedInputStream(new FileInputStream(astFile)));
+      try {
+        ast = (UnifiedAst) astIn.readObject();
+      } finally {
+        astIn.close();
+      }
+      ast.prepare();
+      hash = astHash;
+      loadCount++;
+      return ast;
+    }
   }
 
   static final class ArgHandlerCompileHost extends ArgHandlerString {
@@ -166,12 +247,78 @@ public class CompilePermsServer {
     }
   }
 
+  static final class ArgHandlerDaemonDir extends ArgHandlerDir {
+
+    private final CompileServerOptions options;
+
+    public ArgHandlerDaemonDir(CompileServerOptions option) {
+      this.options = option;
+    }
+
+    @Override
+    public String getPurpose() {
+      return "Keeps running after the first compile, registered in the given directory";
+    }
+
+    @Override
+    public String getTag() {
+      return "-daemonDir";
+    }
+
+    @Override
+    public void setDir(File dir) {
+      options.setDaemonDir(dir);
+    }
+  }
+
+  static final class ArgHandlerDaemonIdleSeconds extends ArgHandlerString {
+
+    private final CompileServerOptions options;
+
+    public ArgHandlerDaemonIdleSeconds(CompileServerOptions option) {
+      this.options = option;
+    }
+
+    @Override
+    public String getPurpose() {
+      return "The number of idle seconds after which a daemon exits";
+    }
+
+    @Override
+    public String getTag() {
+      return "-daemonIdleSeconds";
+    }
+
+    @Override
+    public String[] getTagArgs() {
+      return new String[] {"seconds"};
+    }
+
+    @Override
+    public boolean setString(String str) {
+      int seconds;
+      try {
+        seconds = Integer.parseInt(str);
+      } catch (NumberFormatException e) {
+        seconds = -1;
+      }
+      if (seconds <= 0) {
+        System.err.println(getTag() + " must be followed by a positive number of seconds");
+        return false;
+      }
+      options.setDaemonIdleSeconds(seconds);
+      return true;
+    }
+  }
+
   static class ArgProcessor extends ArgProcessorBase {
     public ArgProcessor(CompileServerOptions options) {
       registerHandler(new ArgHandlerLogLevel(options));
       registerHandler(new ArgHandlerCompileHost(options));
       registerHandler(new ArgHandlerCompilePort(options));
       registerHandler(new ArgHandlerCookie(options));
+      registerHandler(new ArgHandlerDaemonDir(options));
+      registerHandler(new ArgHandlerDaemonIdleSeconds(options));
     }
 
     @Override
@@ -185,12 +332,16 @@ public class CompilePermsServer {
     private String compileHost;
     private int compilePort;
     private String cookie;
+    private File daemonDir;
+    private int daemonIdleSeconds = 600;
     private Type logLevel;
 
     public void copyFrom(CompileServerOptions other) {
       setCompileHost(other.getCompileHost());
       setCompilePort(other.getCompilePort());
       setCookie(other.getCookie());
+      setDaemonDir(other.getDaemonDir());
+      setDaemonIdleSeconds(other.getDaemonIdleSeconds());
       setLogLevel(other.getLogLevel());
     }
 
@@ -209,6 +360,16 @@ public class CompilePermsServer {
       return cookie;
     }
 
+    @Override
+    public File getDaemonDir() {
+      return daemonDir;
+    }
+
+    @Override
+    public int getDaemonIdleSeconds() {
+      return daemonIdleSeconds;
+    }
+
     @Override
     public Type getLogLevel() {
       return logLevel;
@@ -231,6 +392,17 @@ public class CompilePermsServer {
       this.cookie = cookie;
     }
 
+    @Override
+    public void setDaemonDir(File dir) {
+      daemonDir = dir;
+    }
+
+    @Override
+    public void setDaemonIdleSeconds(int seconds) {
+      assert seconds > 0;
+      daemonIdleSeconds = seconds;
+    }
+
     @Override
     public void setLogLevel(Type logLevel) {
       this.logLevel = logLevel;
@@ -264,28 +436,12 @@ public class CompilePermsServer {
       out.writeUTF(options.getCookie());
       out.flush();
 
-      // Read the File that contains the serialized UnifiedAst
-      File astFile = (File) in.readObject();
-      ObjectInputStream astIn = new StringInterningObjectInputStream(new FileInputStream(
-          astFile));
-      UnifiedAst ast = (UnifiedAst) astIn.readObject();
-      ast.prepare();
-      logger.log(TreeLogger.SPAM, "Created new UnifiedAst instance");
-
-      // Report on the amount of memory we think we're using
-      long estimatedMemory = Runtime.getRuntime().totalMemory()
-          - Runtime.getRuntime().freeMemory();
-      out.writeLong(estimatedMemory);
-      out.flush();
-
-      boolean keepGoing = in.readBoolean();
-      while (keepGoing) {
-        compilePermutation(logger, ast, in, out);
+      LoadedAst loadedAst = new LoadedAst();
+      runSession(logger, loadedAst, in, out);
+      s.close();
 
-        keepGoing = in.readBoolean();
-        if (logger.isLoggable(TreeLogger.SPAM)) {
-          logger.log(TreeLogger.SPAM, "keepGoing = " + keepGoing);
-        }
+      if (options.getDaemonDir() != null) {
+        runDaemon(options, logger, loadedAst);
       }
 
       logger.log(TreeLogger.DEBUG, "Successfully terminating");
@@ -302,6 +458,109 @@ public class CompilePermsServer {
     return false;
   }
 
+  /**
+   * Compiles permutations for one compiler host until it is done.
+   */
+  static void runSession(TreeLogger logger, LoadedAst loadedAst, ObjectInputStream in,
+      ObjectOutputStream out) throws IOException, ClassNotFoundException {
+    // Read the File that contains the serialized UnifiedAst, and its hash
+    File astFile = (File) in.readObject();
+    String astHash = in.readUTF();
+    long beforeLoadNanos = System.nanoTime();
+    UnifiedAst ast = loadedAst.get(astFile, astHash);
+    long astLoadNanos = System.nanoTime() - beforeLoadNanos;
+    logger.log(TreeLogger.SPAM, "Loaded UnifiedAst instance");
+
+    // Report on the amount of memory we think we're using
+    long estimatedMemory = Runtime.getRuntime().totalMemory()
+        - Runtime.getRuntime().freeMemory();
+    out.writeLong(estimatedMemory);
+    out.writeLong(astLoadNanos);
+    out.flush();
+
+    boolean keepGoing = in.readBoolean();
+    while (keepGoing) {
+      compilePermutation(logger, ast, in, out);
+
+      keepGoing = in.readBoolean();
+      if (logger.isLoggable(TreeLogger.SPAM)) {
+        logger.log(TreeLogger.SPAM, "keepGoing = " + keepGoing);
+      }
+    }
+  }
+
+  /**
+   * Serves compiler hosts that connect to this process until it has been idle
+   * for too long. Each host must send the cookie that was registered in the
+   * daemon directory.
+   */
+  private static void runDaemon(CompileServerOptions options, TreeLogger logger,
+      LoadedAst loadedAst) throws IOException {
+    ServerSocket serverSocket = new ServerSocket(0, 0, InetAddress.getByName("localhost"));
+    serverSocket.setSoTimeout(options.getDaemonIdleSeconds() * 1000);
+    byte[] cookieBytes = new byte[16];
+    new SecureRandom().nextBytes(cookieBytes);
+    String cookie = StringUtils.toHexString(cookieBytes);
+    File registration = register(options.getDaemonDir(), serverSocket.getLocalPort(), cookie);
+    logger.log(TreeLogger.DEBUG, "Registered as a daemon in " + registration);
+
+    try {
+      while (loadedAst.loadCount < MAX_DAEMON_ASTS) {
+        Socket s;
+        try {
+          s = serverSocket.accept();
+        } catch (SocketTimeoutException e) {
+          logger.log(TreeLogger.DEBUG, "Idle for too long");
+          break;
+        }
+        try {
+          ObjectOutputStream out = new ObjectOutputStream(s.getOutputStream());
+          out.flush();
+          ObjectInputStream in = new StringInterningObjectInputStream(s.getInputStream());
+          if (!cookie.equals(in.readUTF())) {
+            logger.log(TreeLogger.WARN, "Received unknown cookie");
+            continue;
+          }
+          runSession(logger, loadedAst, in, out);
+        } catch (IOException e) {
+          logger.log(TreeLogger.WARN, "Lost communication with compiler host", e);
+        } catch (ClassNotFoundException e) {
+          logger.log(TreeLogger.WARN, "Probable client/server mismatch", e);
+        } finally {
+          s.close();
+        }
+      }
+    } finally {
+      registration.delete();
+      serverSocket.close();
+    }
+  }
+
+  /**
+   * Writes the port and cookie of this daemon to a file that only the current
+   * user can read, and returns the file.
+   */
+  static File register(File daemonDir, int port, String cookie) throws IOException {
+    if (!daemonDir.isDirectory() && !daemonDir.mkdirs()) {
+      throw new IOException("Unable to create " + daemonDir);
+    }
+    File registration = new File(daemonDir, DAEMON_FILE_PREFIX + port);
+    File temp = File.createTempFile(DAEMON_TEMP_FILE_PREFIX, ".tmp", daemonDir);
+    temp.setReadable(false, false);
+    temp.setReadable(true, true);
+    Writer writer = new OutputStreamWriter(new FileOutputStream(temp), "UTF-8");
+    try {
+      writer.write(port + " " + cookie);
+    } finally {
+      writer.close();
+    }
+    if (!temp.renameTo(registration)) {
+      temp.delete();
+      throw new IOException("Unable to create " + registration);
+    }
+    return registration;
+  }
+
   static void compilePermutation(TreeLogger logger, UnifiedAst ast,
       ObjectInputStream in, ObjectOutputStream out)
       throws ClassNotFoundException, IOException {
@@ -310,6 +569,7 @@ public class CompilePermsServer {
     Permutation permutation = (Permutation) in.readObject();
     logger.log(TreeLogger.SPAM, "Permutation read");
 
+    long beforeCompileNanos = System.nanoTime();
     Throwable caught = null;
     try {
       TreeLogger branch = logger.branch(TreeLogger.DEBUG, "Compiling");
@@ -329,6 +589,7 @@ public class CompilePermsServer {
 
     // Might send a placeholder null indicating no Throwable.
     out.writeObject(caught);
+    out.writeLong(System.nanoTime() - beforeCompileNanos);
     out.flush();
     logger.log(TreeLogger.SPAM, "Sent result");
   }
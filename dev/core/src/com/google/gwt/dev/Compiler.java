@@ -25,6 +25,7 @@ import com.google.gwt.dev.cfg.ModuleDef;
 import com.google.gwt.dev.cfg.ModuleDefLoader;
 import com.google.gwt.dev.javac.UnitCache;
 import com.google.gwt.dev.javac.UnitCacheSingleton;
+import com.google.gwt.dev.jjs.JJSOptions;
 import com.google.gwt.dev.jjs.JsOutputOption;
 import com.google.gwt.dev.jjs.PermutationResult;
 import com.google.gwt.dev.js.JsNamespaceOption;
@@ -46,14 +47,19 @@ import com.google.gwt.dev.util.arg.OptionOptimize;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.base.Joiner;
 import com.google.gwt.thirdparty.guava.common.collect.ListMultimap;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 import com.google.gwt.util.tools.Utility;
+import com.google.gwt.util.tools.shared.Md5Utils;
+import com.google.gwt.util.tools.shared.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.FutureTask;
 
@@ -90,13 +96,20 @@ public class Compiler {
    * Locates the unit cache dir relative to the war dir and returns a UnitCache instance.
    */
   public static UnitCache getOrCreateUnitCache(TreeLogger logger, CompilerOptions options) {
-    File persistentUnitCacheDir = null;
-    if (options.getWarDir() != null && options.getWarDir().isDirectory()) {
-      persistentUnitCacheDir = new File(options.getWarDir(), "../");
-    }
     // TODO: returns the same UnitCache even if the passed directory changes. Make this less
     // surprising.
-    return UnitCacheSingleton.get(logger, null, persistentUnitCacheDir);
+    return UnitCacheSingleton.get(logger, null, getPersistentCacheDir(options));
+  }
+
+  /**
+   * Returns the folder in which caches that outlive a single compile are kept, or null if there is
+   * none.
+   */
+  private static File getPersistentCacheDir(CompilerOptions options) {
+    if (options.getWarDir() != null && options.getWarDir().isDirectory()) {
+      return new File(options.getWarDir(), "../");
+    }
+    return null;
   }
 
   public static void main(String[] args) {
@@ -139,18 +152,77 @@ public class Compiler {
     // Exit w/ non-success code.
     System.exit(1);
   }
+
+  /**
+   * Returns a key that summarizes the options that affect the JavaScript output of each type. Every
+   * code generation option is listed by name, so the key only changes when one of their values
+   * does; reporting options such as SOYC are left out.
+   */
+  private static String computeOptionsKey(JJSOptions options) {
+    Map<String, Object> values = Maps.newTreeMap();
+    values.put("addRuntimeChecks", options.shouldAddRuntimeChecks());
+    values.put("castCheckingDisabled", options.isCastCheckingDisabled());
+    values.put("classMetadataDisabled", options.isClassMetadataDisabled());
+    values.put("closureCompilerEnabled", options.isClosureCompilerEnabled());
+    values.put("closureCompilerFormatEnabled", options.isClosureCompilerFormatEnabled());
+    values.put("clusterSimilarFunctions", options.shouldClusterSimilarFunctions());
+    values.put("enableAssertions", options.isEnableAssertions());
+    values.put("fragmentCount", options.getFragmentCount());
+    values.put("fragmentsMerge", options.getFragmentsMerge());
+    values.put("inlineLiteralParameters", options.shouldInlineLiteralParameters());
+    values.put("jsInteropMode", options.getJsInteropMode());
+    values.put("methodNameDisplayMode", options.getMethodNameDisplayMode());
+    values.put("namespace", options.getNamespace());
+    values.put("optimizationLevel", options.getOptimizationLevel());
+    values.put("optimizeDataflow", options.shouldOptimizeDataflow());
+    values.put("ordinalizeEnums", options.shouldOrdinalizeEnums());
+    values.put("output", options.getOutput());
+    values.put("removeDuplicateFunctions", options.shouldRemoveDuplicateFunctions());
+    values.put("runAsyncEnabled", options.isRunAsyncEnabled());
+    values.put("safeLongsEnabled", options.isSafeLongsEnabled());
+    values.put("sourceLevel", options.getSourceLevel());
+    values.put("useDetailedTypeIds", options.useDetailedTypeIds());
+    String key = Joiner.on(',').withKeyValueSeparator("=").join(values);
+    return StringUtils.toHexString(Md5Utils.getMd5Digest(Util.getBytes(key)));
+  }
+
+  /**
+   * Returns the binding property values of the single permutation of an incremental compile, in a
+   * stable order.
+   */
+  private static Map<String, String> getBindingProperties(ModuleDef module) {
+    Map<String, String> bindingProperties = Maps.newTreeMap();
+    for (BindingProperty bindingProperty : module.getProperties().getBindingProperties()) {
+      bindingProperties.put(bindingProperty.getName(), Joiner.on(',').join(
+          bindingProperty.getAllowedValues(bindingProperty.getRootCondition())));
+    }
+    return bindingProperties;
+  }
+
   private CompilerContext compilerContext;
   private final CompilerContext.Builder compilerContextBuilder;
 
   private final CompilerOptionsImpl options;
 
+  /**
+   * Whether the MinimalRebuildCache was created here rather than supplied by the caller, in which
+   * case it is loaded from and persisted to disk across incremental compiles.
+   */
+  private final boolean ownsMinimalRebuildCache;
+
   public Compiler(CompilerOptions compilerOptions) {
     this(compilerOptions, compilerOptions.isIncrementalCompileEnabled() ? new MinimalRebuildCache()
-        : new NullRebuildCache());
+        : new NullRebuildCache(), true);
   }
 
   public Compiler(CompilerOptions compilerOptions, MinimalRebuildCache minimalRebuildCache) {
+    this(compilerOptions, minimalRebuildCache, false);
+  }
+
+  private Compiler(CompilerOptions compilerOptions, MinimalRebuildCache minimalRebuildCache,
+      boolean ownsMinimalRebuildCache) {
     this.options = new CompilerOptionsImpl(compilerOptions);
+    this.ownsMinimalRebuildCache = ownsMinimalRebuildCache;
     this.compilerContextBuilder = new CompilerContext.Builder();
     this.compilerContext = compilerContextBuilder.options(options)
         .minimalRebuildCache(minimalRebuildCache).build();
@@ -201,9 +273,27 @@ public class Compiler {
       compilerContext =
           compilerContextBuilder.unitCache(getOrCreateUnitCache(logger, options)).build();
 
+      MinimalRebuildCacheManager minimalRebuildCacheManager = null;
+      if (options.isIncrementalCompileEnabled() && ownsMinimalRebuildCache
+          && !options.isValidateOnly()) {
+        minimalRebuildCacheManager = createMinimalRebuildCacheManager(logger);
+      }
+
       for (ModuleDef module : modules) {
         compilerContext = compilerContextBuilder.module(module).build();
         String moduleName = module.getCanonicalName();
+        Map<String, String> bindingProperties = null;
+        if (minimalRebuildCacheManager != null) {
+          bindingProperties = getBindingProperties(module);
+          MinimalRebuildCache minimalRebuildCache =
+              minimalRebuildCacheManager.getCache(moduleName, bindingProperties);
+          if (minimalRebuildCache.isPopulated()) {
+            logger.log(TreeLogger.INFO, "Reusing the JavaScript of unchanged types from a "
+                + "previous compile of " + moduleName);
+          }
+          compilerContext =
+              compilerContextBuilder.minimalRebuildCache(minimalRebuildCache).build();
+        }
         if (options.isValidateOnly()) {
           if (!Precompile.validate(logger, compilerContext)) {
             return false;
@@ -262,6 +352,11 @@ public class Compiler {
           long afterLinkMs = System.currentTimeMillis();
           double linkSeconds = (afterLinkMs - beforeLinkMs) / 1000d;
           branch.log(TreeLogger.INFO, String.format("Linking succeeded -- %.3fs", linkSeconds));
+
+          if (minimalRebuildCacheManager != null) {
+            minimalRebuildCacheManager.putCache(moduleName, bindingProperties,
+                compilerContext.getMinimalRebuildCache());
+          }
         }
       }
 
@@ -315,4 +410,20 @@ public class Compiler {
     }
     return true;
   }
+
+  /**
+   * Creates a manager for the MinimalRebuildCache of incremental production compiles, kept in the
+   * folder named by the gwt.rebuildCacheDir system property or else next to the persistent unit
+   * cache. Caches are separated by the options that affect the JavaScript output of each type.
+   */
+  private MinimalRebuildCacheManager createMinimalRebuildCacheManager(TreeLogger logger)
+      throws IOException {
+    String rebuildCacheDirName = System.getProperty("gwt.rebuildCacheDir");
+    File rebuildCacheDir = rebuildCacheDirName != null ? new File(rebuildCacheDirName)
+        : getPersistentCacheDir(options);
+    if (rebuildCacheDir != null) {
+      rebuildCacheDir.mkdirs();
+    }
+    return new MinimalRebuildCacheManager(logger, rebuildCacheDir, computeOptionsKey(options));
+  }
 }
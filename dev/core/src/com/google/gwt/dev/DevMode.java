@@ -390,6 +390,15 @@ public class DevMode extends DevModeBase implements RestartServerCallback {
     @Override
     public void setClosureCompilerFormatEnabled(boolean enabled) {
     }
+
+    @Override
+    public boolean isSafeLongsEnabled() {
+      return false;
+    }
+
+    @Override
+    public void setSafeLongsEnabled(boolean enabled) {
+    }
   }
 
   /**
@@ -15,9 +15,11 @@
  */
 package com.google.gwt.dev;
 
+import com.google.gwt.core.ext.PropertyOracle;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.core.ext.linker.ArtifactSet;
+import com.google.gwt.core.ext.linker.GeneratedResource;
 import com.google.gwt.dev.cfg.BindingProperty;
 import com.google.gwt.dev.cfg.BindingProps;
 import com.google.gwt.dev.cfg.ConfigProps;
@@ -26,6 +28,7 @@ import com.google.gwt.dev.cfg.PropertyPermutations;
 import com.google.gwt.dev.cfg.Rules;
 import com.google.gwt.dev.javac.CompilationState;
 import com.google.gwt.dev.javac.StandardGeneratorContext;
+import com.google.gwt.dev.javac.typemodel.TypeOracle;
 import com.google.gwt.dev.jdt.RebindOracle;
 import com.google.gwt.dev.jdt.RebindPermutationOracle;
 import com.google.gwt.dev.shell.StandardRebindOracle;
@@ -34,34 +37,150 @@ import com.google.gwt.dev.util.collect.HashSet;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.base.Throwables;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Implementation of RebindPermutationOracle used by Precompile.
  */
 class DistillerRebindPermutationOracle implements RebindPermutationOracle {
+
+  /**
+   * Rebinds one type for every permutation in a fork of the generator context, on another
+   * thread.
+   */
+  private class ForkedRebind {
+    private final StandardGeneratorContext fork = generatorContext.fork();
+    private Future<String[]> future;
+    private final TreeLogger logger;
+    /**
+     * The types that the generators looked for and didn't find.
+     */
+    private Set<String> missingTypeNames = Collections.emptySet();
+    private final String requestTypeName;
+    /**
+     * The answers, or null if a generator failed.
+     */
+    private String[] resultTypeNames;
+
+    ForkedRebind(TreeLogger logger, String requestTypeName) {
+      this.logger = logger.branch(TreeLogger.DEBUG,
+          "Computing all possible rebind results for '" + requestTypeName + "'");
+      this.requestTypeName = requestTypeName;
+    }
+
+    void await() {
+      try {
+        resultTypeNames = Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+        if (!(e.getCause() instanceof UnableToCompleteException)) {
+          throw Throwables.propagate(e.getCause());
+        }
+      }
+    }
+
+    /**
+     * Returns whether the generators might have done something else had the given types and
+     * resources been generated before they ran.
+     */
+    boolean dependsOn(Set<String> generatedTypeNames, Set<String> generatedResourcePaths) {
+      for (String typeName : missingTypeNames) {
+        // Also match nested types of generated types, which are looked up by source name.
+        while (!generatedTypeNames.contains(typeName)) {
+          int lastDot = typeName.lastIndexOf('.');
+          if (lastDot < 0) {
+            break;
+          }
+          typeName = typeName.substring(0, lastDot);
+        }
+        if (generatedTypeNames.contains(typeName)) {
+          return true;
+        }
+      }
+      return !Collections.disjoint(getResourcePaths(), generatedResourcePaths);
+    }
+
+    Set<String> getResourcePaths() {
+      Set<String> resourcePaths = new HashSet<String>();
+      for (GeneratedResource resource : fork.getArtifacts().find(GeneratedResource.class)) {
+        resourcePaths.add(resource.getPartialPath());
+      }
+      return resourcePaths;
+    }
+
+    void submit(ExecutorService executor) {
+      future = executor.submit(new Callable<String[]>() {
+        @Override
+        public String[] call() throws UnableToCompleteException {
+          TypeOracle typeOracle = compilationState.getTypeOracle();
+          typeOracle.startRecordingMissingTypes();
+          try {
+            String[] resultTypeNames = new String[getPermutationCount()];
+            for (int i = 0; i < getPermutationCount(); ++i) {
+              resultTypeNames[i] = new StandardRebindOracle(propertyOracles[i], rules, fork)
+                  .rebind(logger, requestTypeName);
+            }
+            return resultTypeNames;
+          } finally {
+            missingTypeNames = typeOracle.stopRecordingMissingTypes();
+          }
+        }
+      });
+    }
+  }
+
+  /**
+   * The system property setting the most generators to run at once while preparing rebind
+   * answers, or "auto" for one per available processor. Defaults to 1, which runs each generator
+   * only when its answer is asked for.
+   */
+  public static final String GENERATOR_THREADS_PROPERTY = "gwt.rebind.generatorThreads";
+
   private CompilationState compilationState;
+  private final Set<String> failedRequestTypeNames = new HashSet<String>();
   private StandardGeneratorContext generatorContext;
+  private final int generatorThreads = getGeneratorThreads();
   private final Permutation[] permutations;
+  private final PropertyOracle[] propertyOracles;
   private final RebindOracle[] rebindOracles;
 
+  /**
+   * The answer of each permutation, by the names of the types that have been rebound.
+   */
+  private final Map<String, String[]> resultTypeNamesByRequestTypeName = Maps.newHashMap();
+
+  private final Rules rules;
+
   public DistillerRebindPermutationOracle(CompilerContext compilerContext,
       CompilationState compilationState, ArtifactSet generatorArtifacts,
       PropertyPermutations perms) {
     ModuleDef module = compilerContext.getModule();
     this.compilationState = compilationState;
     permutations = new Permutation[perms.size()];
+    propertyOracles = new PropertyOracle[perms.size()];
     rebindOracles = new RebindOracle[perms.size()];
     generatorContext = new StandardGeneratorContext(
         compilerContext, compilationState, generatorArtifacts, true);
     BindingProperty[] orderedProps = perms.getOrderedProperties();
     ConfigProps config = new ConfigProps(module);
-    Rules rules = module.getRules();
+    rules = module.getRules();
     for (int i = 0; i < rebindOracles.length; ++i) {
       BindingProps props = new BindingProps(orderedProps, perms.getOrderedPropertyValues(i), config);
-      rebindOracles[i] = new StandardRebindOracle(props.toPropertyOracle(), rules,
-          generatorContext);
+      propertyOracles[i] = props.toPropertyOracle();
+      rebindOracles[i] = new StandardRebindOracle(propertyOracles[i], rules, generatorContext);
       permutations[i] = new Permutation(i, props);
     }
   }
@@ -81,19 +200,36 @@ class DistillerRebindPermutationOracle implements RebindPermutationOracle {
         + requestTypeName + "'";
     logger = logger.branch(TreeLogger.DEBUG, msg, null);
 
+    if (failedRequestTypeNames.contains(requestTypeName)) {
+      // The errors were logged when its generators ran ahead of time.
+      throw new UnableToCompleteException();
+    }
+
     Set<String> answers = new HashSet<String>();
     Event getAllRebindsEvent = SpeedTracerLogger.start(CompilerEventType.GET_ALL_REBINDS);
+    String[] resultTypeNames = resultTypeNamesByRequestTypeName.get(requestTypeName);
+    if (resultTypeNames == null) {
+      resultTypeNames = new String[getPermutationCount()];
+      for (int i = 0; i < getPermutationCount(); ++i) {
+        resultTypeNames[i] = rebindOracles[i].rebind(logger, requestTypeName);
+      }
+      resultTypeNamesByRequestTypeName.put(requestTypeName, resultTypeNames);
+    }
     for (int i = 0; i < getPermutationCount(); ++i) {
-      String resultTypeName = rebindOracles[i].rebind(logger, requestTypeName);
-      answers.add(resultTypeName);
+      answers.add(resultTypeNames[i]);
       // Record the correct answer into each permutation.
-      permutations[i].putRebindAnswer(requestTypeName, resultTypeName);
+      permutations[i].putRebindAnswer(requestTypeName, resultTypeNames[i]);
     }
     String[] result = Util.toArray(String.class, answers);
     getAllRebindsEvent.end();
     return result;
   }
 
+  @Override
+  public boolean canPrepareRebindAnswers() {
+    return generatorThreads > 1;
+  }
+
   @Override
   public CompilationState getCompilationState() {
     return compilationState;
@@ -111,4 +247,95 @@ class DistillerRebindPermutationOracle implements RebindPermutationOracle {
   public Permutation[] getPermutations() {
     return permutations;
   }
+
+  /**
+   * Runs the generators of each type that hasn't been rebound yet in a fork of the generator
+   * context of its own, several types at once, and then compiles their units together.
+   * <p>
+   * Run one after the other, each type's generators would see the types and resources generated
+   * for the types requested before it. So the forks are joined in the order of the requests, up
+   * to the first one whose generators looked for a type that an earlier fork generated, or created
+   * a resource that an earlier fork created. That type and the ones after it are left to be
+   * rebound one at a time when their answers are asked for, which gives the same result as if no
+   * generators had run ahead of time.
+   */
+  @Override
+  public void prepareRebindAnswers(TreeLogger logger, Collection<String> requestTypeNames) {
+    Map<String, ForkedRebind> forkedRebindsByRequestTypeName = Maps.newLinkedHashMap();
+    for (String requestTypeName : requestTypeNames) {
+      if (!resultTypeNamesByRequestTypeName.containsKey(requestTypeName)
+          && !failedRequestTypeNames.contains(requestTypeName)) {
+        forkedRebindsByRequestTypeName.put(requestTypeName, null);
+      }
+    }
+    if (forkedRebindsByRequestTypeName.size() < 2) {
+      // Nothing to run alongside; leave it to getAllPossibleRebindAnswers().
+      return;
+    }
+
+    logger = logger.branch(TreeLogger.DEBUG, "Running generators for "
+        + forkedRebindsByRequestTypeName.size() + " types at once");
+    Event prepareRebindsEvent = SpeedTracerLogger.start(CompilerEventType.GET_ALL_REBINDS,
+        "phase", "Prepare Rebind Answers");
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(generatorThreads, forkedRebindsByRequestTypeName.size()),
+        new ThreadFactoryBuilder().setNameFormat("Generator-%d").setDaemon(true).build());
+    try {
+      for (Entry<String, ForkedRebind> entry : forkedRebindsByRequestTypeName.entrySet()) {
+        entry.setValue(new ForkedRebind(logger, entry.getKey()));
+        entry.getValue().submit(executor);
+      }
+      // Let every generator finish before any fork is joined or the compile goes on.
+      for (ForkedRebind forkedRebind : forkedRebindsByRequestTypeName.values()) {
+        forkedRebind.await();
+      }
+
+      Set<String> generatedTypeNames = new HashSet<String>();
+      Set<String> generatedResourcePaths = new HashSet<String>();
+      Set<String> joinedRequestTypeNames = new HashSet<String>();
+      for (Entry<String, ForkedRebind> entry : forkedRebindsByRequestTypeName.entrySet()) {
+        String requestTypeName = entry.getKey();
+        ForkedRebind forkedRebind = entry.getValue();
+        if (forkedRebind.dependsOn(generatedTypeNames, generatedResourcePaths)) {
+          logger.log(TreeLogger.DEBUG, "Generators for '" + requestTypeName
+              + "' may depend on the output of other generators; rebinding it and the types "
+              + "after it one at a time");
+          break;
+        }
+        if (forkedRebind.resultTypeNames == null) {
+          // Already logged; reported again when the answer is asked for.
+          failedRequestTypeNames.add(requestTypeName);
+          continue;
+        }
+        generatedTypeNames.addAll(forkedRebind.fork.getGeneratedUnitMap().keySet());
+        generatedResourcePaths.addAll(forkedRebind.getResourcePaths());
+        generatorContext.join(logger, forkedRebind.fork);
+        resultTypeNamesByRequestTypeName.put(requestTypeName, forkedRebind.resultTypeNames);
+        joinedRequestTypeNames.add(requestTypeName);
+      }
+
+      try {
+        generatorContext.finish(logger);
+      } catch (UnableToCompleteException e) {
+        // The generated units of these types couldn't be added.
+        resultTypeNamesByRequestTypeName.keySet().removeAll(joinedRequestTypeNames);
+        failedRequestTypeNames.addAll(joinedRequestTypeNames);
+      }
+    } finally {
+      executor.shutdownNow();
+      prepareRebindsEvent.end();
+    }
+  }
+
+  private static int getGeneratorThreads() {
+    String generatorThreads = System.getProperty(GENERATOR_THREADS_PROPERTY, "1");
+    if (generatorThreads.equals("auto")) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    try {
+      return Math.max(1, Integer.parseInt(generatorThreads));
+    } catch (NumberFormatException e) {
+      return 1;
+    }
+  }
 }
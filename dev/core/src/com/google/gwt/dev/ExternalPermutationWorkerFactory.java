@@ -22,19 +22,32 @@ import com.google.gwt.dev.jjs.UnifiedAst;
 import com.google.gwt.dev.util.PersistenceBackedObject;
 import com.google.gwt.dev.util.StringInterningObjectInputStream;
 import com.google.gwt.dev.util.Util;
+import com.google.gwt.util.tools.Utility;
+import com.google.gwt.util.tools.shared.Md5Utils;
 import com.google.gwt.util.tools.shared.StringUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.lang.ProcessBuilder.Redirect;
 import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,6 +57,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A PermutationWorkerFactory designed to launch instances of
@@ -51,6 +65,13 @@ import java.util.Set;
  * {@value #JAVA_COMMAND_PROPERTY} can be used to change the command used to
  * launch the JVM. The system property {@link #JVM_ARGS_PROPERTY} can be used to
  * override the JVM args passed to the subprocess.
+ * <p>
+ * If the system property {@value #DAEMON_DIR_PROPERTY} is set, workers keep
+ * running after the compile and register themselves in that directory, and
+ * later compiles with the same JVM command line lease idle workers from it
+ * before launching new ones. A warm worker skips JVM startup, and skips
+ * reading the AST altogether if it is unchanged since the worker's last
+ * compile.
  */
 public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
 
@@ -90,15 +111,23 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
 
   private static class ExternalPermutationWorker implements PermutationWorker {
     private final File astFile;
+    private final String astHash;
     private final Set<String> cookies;
-    private ObjectInputStream in;
-    private ObjectOutputStream out;
+    protected ObjectInputStream in;
+    protected ObjectOutputStream out;
     private final CountedServerSocket serverSocket;
-    private Socket workerSocket;
+    protected Socket workerSocket;
+
+    private TreeLogger statsLogger;
+    private int permutationCount;
+    private long astLoadNanos;
+    private long compileNanos;
+    private long remoteCompileNanos;
 
     public ExternalPermutationWorker(CountedServerSocket sock, File astFile,
-        Set<String> cookies) {
+        String astHash, Set<String> cookies) {
       this.astFile = astFile;
+      this.astHash = astHash;
       this.cookies = cookies;
       this.serverSocket = sock;
     }
@@ -111,26 +140,15 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
       // If we've just started, we need to get a connection from a subprocess
       if (workerSocket == null) {
         try {
-          /*
-           * We've set SO_TIMEOUT, so this may fail if the remote process never
-           * connects back.
-           */
-          workerSocket = serverSocket.accept();
-
-          in = new StringInterningObjectInputStream(workerSocket.getInputStream());
-          out = new ObjectOutputStream(workerSocket.getOutputStream());
-
-          // Verify we're talking to the right worker
-          String c = in.readUTF();
-          if (!cookies.contains(c)) {
-            throw new TransientWorkerException("Received unknown cookie " + c,
-                null);
-          }
+          connect();
 
           out.writeObject(astFile);
+          out.writeUTF(astHash);
+          out.flush();
 
           // Get the remote worker's estimate of memory use
           long memoryUse = in.readLong();
+          astLoadNanos = in.readLong();
           if (logger.isLoggable(TreeLogger.SPAM)) {
             logger.log(TreeLogger.SPAM, "Remote process indicates " + memoryUse
                 + " bytes of memory used");
@@ -146,12 +164,17 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
       }
 
       try {
+        long beforeNanos = System.nanoTime();
         out.writeBoolean(true);
         out.writeObject(resultFile);
         out.writeObject(permutation);
         out.flush();
 
         Throwable t = (Throwable) in.readObject();
+        remoteCompileNanos += in.readLong();
+        compileNanos += System.nanoTime() - beforeNanos;
+        permutationCount++;
+        statsLogger = logger;
         if (t != null) {
           logger.log(TreeLogger.ERROR, "Error from external worker", t);
           throw new UnableToCompleteException();
@@ -200,6 +223,75 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
           // Nothing to do
         }
       }
+
+      if (statsLogger != null && statsLogger.isLoggable(TreeLogger.DEBUG)) {
+        statsLogger.log(TreeLogger.DEBUG, getName() + ": " + permutationCount
+            + " permutations in " + TimeUnit.NANOSECONDS.toMillis(compileNanos) + "ms ("
+            + TimeUnit.NANOSECONDS.toMillis(remoteCompileNanos) + "ms compiling), AST loaded in "
+            + TimeUnit.NANOSECONDS.toMillis(astLoadNanos) + "ms");
+      }
+    }
+
+    /**
+     * Connects to the worker process, initializing {@link #workerSocket},
+     * {@link #in} and {@link #out}.
+     */
+    protected void connect() throws IOException, TransientWorkerException {
+      /*
+       * We've set SO_TIMEOUT, so this may fail if the remote process never
+       * connects back.
+       */
+      workerSocket = serverSocket.accept();
+
+      in = new StringInterningObjectInputStream(workerSocket.getInputStream());
+      out = new ObjectOutputStream(workerSocket.getOutputStream());
+
+      // Verify we're talking to the right worker
+      String c = in.readUTF();
+      if (!cookies.contains(c)) {
+        throw new TransientWorkerException("Received unknown cookie " + c,
+            null);
+      }
+    }
+  }
+
+  /**
+   * A worker that was left running by an earlier compile. It holds a lock on
+   * the worker's registration file until it is shut down, so that no other
+   * compile uses the same worker at the same time.
+   */
+  private static class DaemonPermutationWorker extends ExternalPermutationWorker {
+    private final Socket socket;
+    private final ObjectInputStream daemonIn;
+    private final ObjectOutputStream daemonOut;
+    private final RandomAccessFile registration;
+
+    public DaemonPermutationWorker(File astFile, String astHash, Socket socket,
+        ObjectInputStream in, ObjectOutputStream out, RandomAccessFile registration) {
+      super(null, astFile, astHash, null);
+      this.socket = socket;
+      this.daemonIn = in;
+      this.daemonOut = out;
+      this.registration = registration;
+    }
+
+    @Override
+    public String getName() {
+      return "Warm external worker " + socket.getRemoteSocketAddress();
+    }
+
+    @Override
+    public void shutdown() {
+      super.shutdown();
+      // Also releases the lock
+      Utility.close(registration);
+    }
+
+    @Override
+    protected void connect() {
+      workerSocket = socket;
+      in = daemonIn;
+      out = daemonOut;
     }
   }
 
@@ -215,18 +307,33 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
    */
   public static final String JVM_ARGS_PROPERTY = "gwt.jjs.javaArgs";
 
+  /**
+   * A system property that can be used to keep workers running after a
+   * compile, registered in the given directory, so that later compiles can
+   * reuse them.
+   */
+  public static final String DAEMON_DIR_PROPERTY = "gwt.jjs.workerDaemonDir";
+
+  /**
+   * The file in the daemon directory that the output of worker daemons goes to.
+   */
+  static final String DAEMON_LOG_NAME = "workers.log";
+
+  /**
+   * The size past which the daemon log is rotated.
+   */
+  static final long MAX_DAEMON_LOG_BYTES = 10 * 1024 * 1024;
+
   /**
    * Random number generator used for keys to worker threads.
    */
   private static Random random = new Random();
 
   /**
-   * Launches an external worker and returns the cookie that worker should
-   * return via the network connection.
+   * Returns the command line that starts a worker, up to and including the
+   * name of the main class.
    */
-  private static String launchExternalWorker(TreeLogger logger, int port)
-      throws UnableToCompleteException {
-
+  private static List<String> getWorkerCommand(TreeLogger logger) {
     String javaCommand = System.getProperty(JAVA_COMMAND_PROPERTY,
         System.getProperty("java.home") + File.separator + "bin"
             + File.separator + "java");
@@ -246,6 +353,29 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
       args.addAll(Arrays.asList(userJvmArgs.split(" ")));
     }
 
+    args.addAll(Arrays.asList("-classpath",
+        ManagementFactory.getRuntimeMXBean().getClassPath(),
+        CompilePermsServer.class.getName()));
+
+    // Filter undesirable arguments
+    for (Iterator<String> iter = args.iterator(); iter.hasNext();) {
+      String arg = iter.next();
+      if (arg.startsWith("-agentlib")) {
+        iter.remove();
+      }
+    }
+    return args;
+  }
+
+  /**
+   * Launches an external worker and returns the cookie that worker should
+   * return via the network connection. If {@code daemonDir} is not null, the
+   * worker registers itself there once it is done with this compile.
+   */
+  private static String launchExternalWorker(TreeLogger logger, List<String> command,
+      int port, File daemonDir) throws UnableToCompleteException {
+    List<String> args = new ArrayList<String>(command);
+
     // Determine the logLevel for the external program
     TreeLogger.Type logLevel = TreeLogger.ERROR;
     for (TreeLogger.Type t : TreeLogger.Type.values()) {
@@ -260,22 +390,35 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
     random.nextBytes(cookieBytes);
     String cookie = StringUtils.toHexString(cookieBytes);
 
-    // Cook up the classpath, main class, and extra args
-    args.addAll(Arrays.asList("-classpath",
-        ManagementFactory.getRuntimeMXBean().getClassPath(),
-        CompilePermsServer.class.getName(), "-host", "localhost", "-port",
+    // Cook up the extra args
+    args.addAll(Arrays.asList("-host", "localhost", "-port",
         String.valueOf(port), "-logLevel", logLevel.toString(), "-cookie",
         cookie));
 
-    // Filter undesirable arguments
-    for (Iterator<String> iter = args.iterator(); iter.hasNext();) {
-      String arg = iter.next();
-      if (arg.startsWith("-agentlib")) {
-        iter.remove();
+    ProcessBuilder builder = new ProcessBuilder();
+
+    if (daemonDir != null) {
+      args.addAll(Arrays.asList("-daemonDir", daemonDir.getAbsolutePath()));
+      builder.command(args);
+
+      // The daemon outlives this JVM, so its output can't go to the logger
+      daemonDir.mkdirs();
+      File log = new File(daemonDir, DAEMON_LOG_NAME);
+      rotateLog(log);
+      builder.redirectErrorStream(true);
+      builder.redirectOutput(Redirect.appendTo(log));
+      try {
+        builder.start();
+        if (logger.isLoggable(TreeLogger.TRACE)) {
+          logger.log(TreeLogger.TRACE, "Started worker daemon; its output goes to " + log);
+        }
+        return cookie;
+      } catch (IOException e) {
+        logger.log(TreeLogger.ERROR, "Unable to start external process", e);
+        throw new UnableToCompleteException();
       }
     }
 
-    ProcessBuilder builder = new ProcessBuilder();
     builder.command(args);
 
     try {
@@ -347,6 +490,144 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
     }
   }
 
+  /**
+   * Moves the daemon log aside once it has grown past
+   * {@value #MAX_DAEMON_LOG_BYTES} bytes, replacing the previous one, so that
+   * at most two logs are kept. Daemons that are still running keep writing to
+   * the log they were started with.
+   */
+  static void rotateLog(File log) {
+    if (log.length() > MAX_DAEMON_LOG_BYTES) {
+      File previous = new File(log.getParentFile(), log.getName() + ".1");
+      previous.delete();
+      log.renameTo(previous);
+    }
+  }
+
+  /**
+   * Returns the directory in which workers launched with the given command
+   * register as daemons, or null if daemons are disabled. Workers started
+   * with a different command line, for example a different classpath, are
+   * kept apart.
+   */
+  private static File getDaemonDir(List<String> command) {
+    String dir = System.getProperty(DAEMON_DIR_PROPERTY);
+    if (dir == null) {
+      return null;
+    }
+    StringBuilder key = new StringBuilder();
+    for (String arg : command) {
+      key.append(arg).append('\n');
+    }
+    return new File(dir, StringUtils.toHexString(Md5Utils.getMd5Digest(key.toString())));
+  }
+
+  /**
+   * Leases up to {@code max} idle worker daemons registered in the given
+   * directory. Registrations that are still being written are ignored, and
+   * stale ones are deleted.
+   */
+  static List<PermutationWorker> leaseDaemons(TreeLogger logger, File daemonDir, int max,
+      File astFile, String astHash) {
+    List<PermutationWorker> workers = new ArrayList<PermutationWorker>();
+    File[] registrations = daemonDir.listFiles();
+    if (registrations == null) {
+      return workers;
+    }
+    for (File registration : registrations) {
+      if (workers.size() == max) {
+        break;
+      }
+      String name = registration.getName();
+      if (name.startsWith(CompilePermsServer.DAEMON_FILE_PREFIX) && !name.endsWith(".tmp")) {
+        DaemonPermutationWorker worker = leaseDaemon(logger, registration, astFile, astHash);
+        if (worker != null) {
+          workers.add(worker);
+        }
+      }
+    }
+    return workers;
+  }
+
+  /**
+   * Tries to lease the worker daemon registered in the given file. Returns
+   * null if the daemon is busy. A registration that can't be connected to is
+   * deleted.
+   */
+  private static DaemonPermutationWorker leaseDaemon(TreeLogger logger, File registration,
+      File astFile, String astHash) {
+    RandomAccessFile file;
+    try {
+      file = new RandomAccessFile(registration, "rw");
+    } catch (FileNotFoundException e) {
+      // The daemon just exited
+      return null;
+    }
+    Socket socket = null;
+    try {
+      FileLock lock = file.getChannel().tryLock();
+      if (lock == null) {
+        Utility.close(file);
+        return null;
+      }
+      String line = file.readLine();
+      String[] portAndCookie = line == null ? new String[0] : line.split(" ");
+      if (portAndCookie.length != 2) {
+        throw new IOException("Malformed registration " + registration);
+      }
+      socket = new Socket();
+      socket.connect(new InetSocketAddress("localhost", Integer.parseInt(portAndCookie[0])),
+          1000);
+      // The daemon is waiting to accept, so it should answer promptly
+      socket.setSoTimeout(10000);
+      ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+      out.writeUTF(portAndCookie[1]);
+      out.flush();
+      ObjectInputStream in = new StringInterningObjectInputStream(socket.getInputStream());
+      socket.setSoTimeout(0);
+      return new DaemonPermutationWorker(astFile, astHash, socket, in, out, file);
+    } catch (OverlappingFileLockException e) {
+      // Leased by another compile in this JVM
+      Utility.close(file);
+      return null;
+    } catch (IOException e) {
+      logger.log(TreeLogger.DEBUG, "Removing stale worker registration " + registration, e);
+    } catch (NumberFormatException e) {
+      logger.log(TreeLogger.DEBUG, "Removing stale worker registration " + registration, e);
+    }
+    Utility.close(socket);
+    Utility.close(file);
+    registration.delete();
+    return null;
+  }
+
+  /**
+   * Serializes the AST to the given file and returns the MD5 hash of the
+   * serialized form.
+   */
+  private static String writeAst(TreeLogger logger, File astFile, UnifiedAst unifiedAst)
+      throws UnableToCompleteException {
+    MessageDigest md5;
+    try {
+      md5 = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("Error initializing MD5", e);
+    }
+    DigestOutputStream stream = null;
+    try {
+      stream = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(astFile)),
+          md5);
+      Util.writeObjectToStream(stream, unifiedAst);
+    } catch (IOException e) {
+      logger.log(TreeLogger.ERROR, "Unable to write file: "
+          + astFile.getAbsolutePath(), e);
+      throw new UnableToCompleteException();
+    } finally {
+      Utility.close(stream);
+    }
+    return StringUtils.toHexString(md5.digest());
+  }
+
   private ServerSocket sock;
 
   @Override
@@ -356,23 +637,38 @@ public class ExternalPermutationWorkerFactory extends PermutationWorkerFactory {
     try {
       astFile = File.createTempFile("externalPermutationWorkerFactory", ".ser");
       astFile.deleteOnExit();
-      Util.writeObjectAsFile(logger, astFile, unifiedAst);
     } catch (IOException e) {
       logger.log(TreeLogger.ERROR, "Unable to create temporary file", e);
       throw new UnableToCompleteException();
     }
+    String astHash = writeAst(logger, astFile, unifiedAst);
 
-    Set<String> cookies = Collections.synchronizedSet(new HashSet<String>(
-        numWorkers));
-    CountedServerSocket countedSock = new CountedServerSocket(sock, numWorkers);
+    List<String> command = getWorkerCommand(logger);
+    File daemonDir = getDaemonDir(command);
     List<PermutationWorker> toReturn = new ArrayList<PermutationWorker>(
         numWorkers);
 
+    // Prefer workers left running by earlier compiles
+    if (daemonDir != null) {
+      toReturn.addAll(leaseDaemons(logger, daemonDir, numWorkers, astFile, astHash));
+      if (logger.isLoggable(TreeLogger.TRACE)) {
+        logger.log(TreeLogger.TRACE, "Leased " + toReturn.size() + " warm workers");
+      }
+    }
+
+    int numToLaunch = numWorkers - toReturn.size();
+    if (numToLaunch == 0) {
+      return toReturn;
+    }
+    Set<String> cookies = Collections.synchronizedSet(new HashSet<String>(
+        numToLaunch));
+    CountedServerSocket countedSock = new CountedServerSocket(sock, numToLaunch);
+
     // TODO(spoon): clean up already-launched processes if we get an exception?
-    for (int i = 0; i < numWorkers; i++) {
-      String cookie = launchExternalWorker(logger, sock.getLocalPort());
+    for (int i = 0; i < numToLaunch; i++) {
+      String cookie = launchExternalWorker(logger, command, sock.getLocalPort(), daemonDir);
       cookies.add(cookie);
-      toReturn.add(new ExternalPermutationWorker(countedSock, astFile, cookies));
+      toReturn.add(new ExternalPermutationWorker(countedSock, astFile, astHash, cookies));
     }
 
     return toReturn;
@@ -141,10 +141,19 @@ public class MinimalRebuildCache implements Serializable {
     return compilationUnitNames;
   }
 
+  /**
+   * Returns a stamp of the given resource's modification date and length, which changes when either
+   * does; the resource's contents aren't read. Millisecond dates fit in 44 bits, which leaves the
+   * low 20 bits for the length of all but the largest resources.
+   */
+  private static long computeStamp(Resource resource) {
+    return (resource.getLastModified() << 20) ^ resource.getLength();
+  }
+
   private static Map<String, Long> resourcesToModifiedByPath(Collection<Resource> resources) {
     Map<String, Long> modifiedByPath = Maps.newHashMap();
     for (Resource resource : resources) {
-      modifiedByPath.put(resource.getPath(), resource.getLastModified());
+      modifiedByPath.put(resource.getPath(), computeStamp(resource));
     }
     return modifiedByPath;
   }
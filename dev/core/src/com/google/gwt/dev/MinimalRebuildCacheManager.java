@@ -57,9 +57,36 @@ public class MinimalRebuildCacheManager {
   private final File minimalRebuildCacheDir;
   private final Cache<String, MinimalRebuildCache> minimalRebuildCachesByName =
       CacheBuilder.newBuilder().maximumSize(MEMORY_CACHE_COUNT_LIMIT).build();
+  private final String optionsKey;
+  private final String workingDirectory;
 
+  /**
+   * Creates a manager whose caches are keyed by module, binding properties and the current working
+   * directory.
+   */
   public MinimalRebuildCacheManager(TreeLogger logger, File baseCacheDir) {
+    this(logger, baseCacheDir, System.getProperty("user.dir"), "");
+  }
+
+  /**
+   * Creates a manager whose caches are additionally keyed by the given string, which should
+   * summarize any compiler options that affect the output cached per type. Managers created with
+   * different keys never share caches, even when they share a cache folder.
+   * <p>
+   * These caches are not keyed by the working directory, so that a build run from another folder
+   * keeps using them. Resources are still compared by modification date and length, so the types of
+   * resources that differ from the cached ones are compiled again.
+   */
+  public MinimalRebuildCacheManager(TreeLogger logger, File baseCacheDir, String optionsKey) {
+    this(logger, baseCacheDir, "", optionsKey);
+  }
+
+  @VisibleForTesting
+  MinimalRebuildCacheManager(TreeLogger logger, File baseCacheDir, String workingDirectory,
+      String optionsKey) {
     this.logger = logger;
+    this.optionsKey = optionsKey;
+    this.workingDirectory = workingDirectory;
     if (baseCacheDir != null) {
       minimalRebuildCacheDir = new File(baseCacheDir, REBUILD_CACHE_PREFIX);
       minimalRebuildCacheDir.mkdir();
@@ -190,7 +217,7 @@ public class MinimalRebuildCacheManager {
    * Enqueue to asynchronously write the provided MinimalRebuildCache to disk.
    * <p>
    * Persisted caches are uniquely named based on the compiler version, current module name, binding
-   * properties and the location where the JVM was launched.
+   * properties, options key and the location where the JVM was launched.
    * <p>
    * Care is taken to completely and successfully write a new cache (to a different location on
    * disk) before replacing the old cache (at the regular location on disk).
@@ -248,7 +275,7 @@ public class MinimalRebuildCacheManager {
 
   /**
    * Find, read and return the MinimalRebuildCache unique to this module, binding properties and
-   * working directory.
+   * working directory or options key.
    */
   @VisibleForTesting
   synchronized MinimalRebuildCache syncReadDiskCache(String moduleName,
@@ -264,13 +291,12 @@ public class MinimalRebuildCacheManager {
 
   private String computeMinimalRebuildCacheName(String moduleName,
       Map<String, String> bindingProperties) {
-    String currentWorkingDirectory = System.getProperty("user.dir");
     String compilerVersionHash = CompilerVersion.getHash();
     String bindingPropertiesString = bindingProperties.toString();
 
     String consistentHash = StringUtils.toHexString(Md5Utils.getMd5Digest((
-        compilerVersionHash + moduleName + currentWorkingDirectory + bindingPropertiesString)
-        .getBytes()));
+        compilerVersionHash + moduleName + workingDirectory + bindingPropertiesString
+        + optionsKey).getBytes()));
     return REBUILD_CACHE_PREFIX + "-" + consistentHash;
   }
 
@@ -19,18 +19,29 @@ import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.jjs.PermutationResult;
 import com.google.gwt.dev.jjs.UnifiedAst;
+import com.google.gwt.dev.util.PerfLogger;
 import com.google.gwt.dev.util.PersistenceBackedObject;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Represents a factory for implementations of an endpoint that will invoke
@@ -40,9 +51,108 @@ import java.util.concurrent.LinkedBlockingQueue;
  */
 public abstract class PermutationWorkerFactory {
 
+  /**
+   * Limits how many permutations compile at once in this JVM. Every compile
+   * deserializes its own copy of the AST, so a compile is only admitted while
+   * the free heap can hold another copy. At least one compile is always
+   * admitted.
+   */
+  static class HeapBudget {
+
+    /**
+     * Measures how much heap is free for another compile.
+     */
+    interface FreeHeapProbe {
+      long getFreeHeap();
+    }
+
+    /**
+     * Probes the free heap with {@link #getFreeHeap()}.
+     */
+    static final FreeHeapProbe POST_GC_FREE_HEAP = new FreeHeapProbe() {
+      @Override
+      public long getFreeHeap() {
+        return HeapBudget.getFreeHeap();
+      }
+    };
+
+    /**
+     * How often a waiting compile checks the free heap again, since garbage
+     * collection doesn't notify anyone.
+     */
+    private static final long RECHECK_MILLIS = 100;
+
+    /**
+     * Returns the number of bytes of heap that are not held by objects that
+     * survived the last garbage collection of their pool. Garbage that hasn't
+     * been collected yet therefore counts as free, except in pools that were
+     * never collected, which count with their current usage.
+     */
+    static long getFreeHeap() {
+      MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+      long max = heap.getMax() < 0 ? Runtime.getRuntime().maxMemory() : heap.getMax();
+      Set<String> collectedManagers = new HashSet<String>();
+      for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+        if (collector.getCollectionCount() > 0) {
+          collectedManagers.add(collector.getName());
+        }
+      }
+      long live = 0;
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() != MemoryType.HEAP) {
+          continue;
+        }
+        MemoryUsage afterCollection = pool.getCollectionUsage();
+        boolean collected = afterCollection != null && !Collections.disjoint(
+            collectedManagers, Arrays.asList(pool.getMemoryManagerNames()));
+        live += collected ? afterCollection.getUsed() : pool.getUsage().getUsed();
+      }
+      return max - live;
+    }
+
+    private final long bytesPerCompile;
+    private final FreeHeapProbe freeHeap;
+    private final int maxCompiles;
+    private int running;
+
+    HeapBudget(long bytesPerCompile) {
+      this(bytesPerCompile, POST_GC_FREE_HEAP);
+    }
+
+    HeapBudget(long bytesPerCompile, FreeHeapProbe freeHeap) {
+      this.bytesPerCompile = bytesPerCompile;
+      this.freeHeap = freeHeap;
+      this.maxCompiles = bytesPerCompile <= 0 ? Integer.MAX_VALUE
+          : (int) Math.max(1,
+              Math.min(Integer.MAX_VALUE, freeHeap.getFreeHeap() / bytesPerCompile));
+    }
+
+    /**
+     * Waits until another compile fits in the heap.
+     */
+    synchronized void acquire() throws InterruptedException {
+      while (running > 0
+          && (running >= maxCompiles || freeHeap.getFreeHeap() < bytesPerCompile)) {
+        wait(RECHECK_MILLIS);
+      }
+      running++;
+    }
+
+    int getMaxCompiles() {
+      return maxCompiles;
+    }
+
+    synchronized void release() {
+      assert running > 0;
+      running--;
+      notifyAll();
+    }
+  }
+
   /**
    * Coordinates the actions of a set of {@link PermutationWorker}s, running
-   * each in its own thread.
+   * each in its own thread. All workers take permutations from one queue, so
+   * faster workers compile more of them.
    */
   private static class Manager {
 
@@ -55,9 +165,15 @@ public abstract class PermutationWorkerFactory {
      */
     private class WorkerThread implements Runnable {
       private final PermutationWorker worker;
+      private final HeapBudget heapBudget;
 
-      public WorkerThread(PermutationWorker worker) {
+      /**
+       * @param heapBudget the budget that compiles on this worker count
+       *          against, or null if the worker doesn't use this JVM's heap
+       */
+      public WorkerThread(PermutationWorker worker, HeapBudget heapBudget) {
         this.worker = worker;
+        this.heapBudget = heapBudget;
       }
 
       @Override
@@ -65,30 +181,34 @@ public abstract class PermutationWorkerFactory {
         Result threadDeathResult = Result.FAIL;
         try {
           while (true) {
-            Work work = workQueue.take();
-            if (work == POISON_PILL) {
-              return;
+            /*
+             * Wait for heap before taking work, so that other workers can take
+             * the remaining permutations in the meantime.
+             */
+            long waitStartNanos = System.nanoTime();
+            if (heapBudget != null) {
+              heapBudget.acquire();
             }
-            TreeLogger logger = work.getLogger();
+            long admittedNanos = System.nanoTime();
             try {
-              worker.compile(
-                  logger, work.getCompilerContext(), work.getPerm(), work.getResultFile());
-              logger.log(TreeLogger.DEBUG, "Successfully compiled permutation");
-              resultsQueue.put(Result.SUCCESS);
-            } catch (TransientWorkerException e) {
-              logger.log(TreeLogger.DEBUG,
-                  "Worker died, will retry Permutation", e);
-              workQueue.add(work);
-              threadDeathResult = Result.WORKER_DEATH;
-              return;
-            } catch (UnableToCompleteException e) {
-              logger.log(TreeLogger.ERROR,
-                  "Unrecoverable exception, shutting down", e);
-              return;
+              Work work = workQueue.take();
+              if (work == POISON_PILL) {
+                return;
+              }
+              if (!compile(work, admittedNanos - waitStartNanos)) {
+                threadDeathResult = Result.WORKER_DEATH;
+                return;
+              }
+            } finally {
+              if (heapBudget != null) {
+                heapBudget.release();
+              }
             }
           }
         } catch (InterruptedException e) {
           return;
+        } catch (UnableToCompleteException e) {
+          return;
         } finally {
           // Record why I died.
           try {
@@ -97,13 +217,74 @@ public abstract class PermutationWorkerFactory {
           }
         }
       }
+
+      /**
+       * Compiles one permutation, and returns false if this worker died
+       * doing so.
+       */
+      private boolean compile(Work work, long heapWaitNanos)
+          throws InterruptedException, UnableToCompleteException {
+        TreeLogger logger = work.getLogger();
+        long startNanos = System.nanoTime();
+        try {
+          try {
+            worker.compile(
+                logger, work.getCompilerContext(), work.getPerm(), work.getResultFile());
+          } finally {
+            timeline.add(new TimelineEntry(work.getPerm().getId(), worker.getName(),
+                startNanos - managerStartNanos, System.nanoTime() - startNanos, heapWaitNanos));
+          }
+          logger.log(TreeLogger.DEBUG, "Successfully compiled permutation");
+          resultsQueue.put(Result.SUCCESS);
+          return true;
+        } catch (TransientWorkerException e) {
+          logger.log(TreeLogger.DEBUG,
+              "Worker died, will retry Permutation", e);
+          workQueue.add(work);
+          return false;
+        } catch (UnableToCompleteException e) {
+          logger.log(TreeLogger.ERROR,
+              "Unrecoverable exception, shutting down", e);
+          throw e;
+        }
+      }
+    }
+
+    /**
+     * Records when and where a permutation was compiled.
+     */
+    private static class TimelineEntry {
+      private final int permutationId;
+      private final String workerName;
+      private final long startNanos;
+      private final long durationNanos;
+      private final long heapWaitNanos;
+
+      public TimelineEntry(int permutationId, String workerName, long startNanos,
+          long durationNanos, long heapWaitNanos) {
+        this.permutationId = permutationId;
+        this.workerName = workerName;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+        this.heapWaitNanos = heapWaitNanos;
+      }
+
+      @Override
+      public String toString() {
+        return "Permutation " + permutationId + " on " + workerName + ": started at "
+            + TimeUnit.NANOSECONDS.toMillis(startNanos) + "ms, took "
+            + TimeUnit.NANOSECONDS.toMillis(durationNanos) + "ms"
+            + (heapWaitNanos >= TimeUnit.MILLISECONDS.toNanos(1) ? " after waiting "
+                + TimeUnit.NANOSECONDS.toMillis(heapWaitNanos) + "ms for heap" : "");
+      }
     }
 
     private static final Work POISON_PILL = new Work(null, null, null, null);
 
     public static void run(TreeLogger logger, List<Work> work,
-        List<PermutationWorker> workers) throws UnableToCompleteException {
-      new Manager().doRun(logger, work, workers);
+        List<PermutationWorker> workers, Set<PermutationWorker> inProcessWorkers,
+        HeapBudget heapBudget) throws UnableToCompleteException {
+      new Manager().doRun(logger, work, workers, inProcessWorkers, heapBudget);
     }
 
     /**
@@ -116,20 +297,32 @@ public abstract class PermutationWorkerFactory {
      */
     BlockingQueue<Result> resultsQueue;
 
+    /**
+     * The permutations compiled so far.
+     */
+    final List<TimelineEntry> timeline =
+        Collections.synchronizedList(new ArrayList<TimelineEntry>());
+
+    long managerStartNanos;
+
     private Manager() {
     }
 
     private void doRun(TreeLogger logger, List<Work> work,
-        List<PermutationWorker> workers) throws UnableToCompleteException {
+        List<PermutationWorker> workers, Set<PermutationWorker> inProcessWorkers,
+        HeapBudget heapBudget) throws UnableToCompleteException {
 
       // Initialize state.
       workQueue = new LinkedBlockingQueue<Work>(work);
       resultsQueue = new LinkedBlockingQueue<Result>();
+      managerStartNanos = System.nanoTime();
+      PerfLogger.start("Compiling " + work.size() + " permutations");
 
       List<Thread> threads = new ArrayList<Thread>(workers.size());
       try {
         for (PermutationWorker worker : workers) {
-          Thread thread = new Thread(new WorkerThread(worker), worker.getName());
+          Thread thread = new Thread(new WorkerThread(worker,
+              inProcessWorkers.contains(worker) ? heapBudget : null), worker.getName());
           threads.add(thread);
           thread.start();
         }
@@ -174,6 +367,29 @@ public abstract class PermutationWorkerFactory {
         for (Thread thread : threads) {
           thread.interrupt();
         }
+        logTimeline(logger);
+        PerfLogger.end();
+      }
+    }
+
+    private void logTimeline(TreeLogger logger) {
+      List<TimelineEntry> entries;
+      synchronized (timeline) {
+        entries = new ArrayList<TimelineEntry>(timeline);
+      }
+      Collections.sort(entries, new Comparator<TimelineEntry>() {
+        @Override
+        public int compare(TimelineEntry a, TimelineEntry b) {
+          return Long.compare(a.startNanos, b.startNanos);
+        }
+      });
+      TreeLogger branch = logger.isLoggable(TreeLogger.DEBUG)
+          ? logger.branch(TreeLogger.DEBUG, "Permutation timeline") : null;
+      for (TimelineEntry entry : entries) {
+        if (branch != null) {
+          branch.log(TreeLogger.DEBUG, entry.toString());
+        }
+        PerfLogger.log(entry.toString());
       }
     }
   }
@@ -224,6 +440,18 @@ public abstract class PermutationWorkerFactory {
    */
   public static final int WORKERS_AUTO = 0;
 
+  /**
+   * The name of the system property that overrides the estimated number of
+   * bytes of heap needed to compile one permutation in this JVM.
+   */
+  public static final String PERMUTATION_HEAP_PROPERTY = "gwt.jjs.permutationHeapBytes";
+
+  /**
+   * How much larger a deserialized AST and the working state of a permutation
+   * compile are than the serialized AST, as a rough rule.
+   */
+  private static final int HEAP_TO_SERIALIZED_AST_RATIO = 10;
+
   /**
    * Compiles all Permutations in a Precompilation and returns an array of Files
    * that can be consumed by Link using the system-default
@@ -262,12 +490,24 @@ public abstract class PermutationWorkerFactory {
     }
 
     // Create the workers.
+    UnifiedAst unifiedAst = precompilation.getUnifiedAst();
     List<PermutationWorker> workers = new ArrayList<PermutationWorker>();
+    Set<PermutationWorker> inProcessWorkers =
+        Collections.newSetFromMap(new IdentityHashMap<PermutationWorker, Boolean>());
     try {
-      createWorkers(logger, precompilation.getUnifiedAst(), work.size(), localWorkers, workers);
+      createWorkers(logger, unifiedAst, work.size(), localWorkers, workers, inProcessWorkers);
+
+      HeapBudget heapBudget = null;
+      if (inProcessWorkers.size() > 1) {
+        heapBudget = new HeapBudget(estimatePermutationHeap(unifiedAst));
+        if (logger.isLoggable(TreeLogger.DEBUG)) {
+          logger.log(TreeLogger.DEBUG, "Heap allows " + heapBudget.getMaxCompiles()
+              + " in-process permutation compiles at once");
+        }
+      }
 
       // Get it done!
-      Manager.run(logger, work, workers);
+      Manager.run(logger, work, workers, inProcessWorkers, heapBudget);
     } finally {
       Throwable caught = null;
       for (PermutationWorker worker : workers) {
@@ -284,6 +524,27 @@ public abstract class PermutationWorkerFactory {
     }
   }
 
+  /**
+   * Returns an estimate of the number of bytes of heap needed to compile one
+   * permutation of the given AST in this JVM, or 0 if it is unknown.
+   */
+  static long estimatePermutationHeap(UnifiedAst unifiedAst) {
+    Long override = Long.getLong(PERMUTATION_HEAP_PROPERTY);
+    if (override != null) {
+      return override;
+    }
+    return estimatePermutationHeap(unifiedAst.getSerializedAstSize());
+  }
+
+  /**
+   * Returns an estimate of the number of bytes of heap needed to compile one
+   * permutation of an AST that serializes to the given number of bytes, or 0
+   * if the size is unknown (negative).
+   */
+  static long estimatePermutationHeap(long serializedAstSize) {
+    return serializedAstSize < 0 ? 0 : serializedAstSize * HEAP_TO_SERIALIZED_AST_RATIO;
+  }
+
   /**
    * Creates one or more implementations of worker factories. This will treat
    * the value of the {@value #FACTORY_IMPL_PROPERTY} system property as a
@@ -344,8 +605,8 @@ public abstract class PermutationWorkerFactory {
    * Create as many workers as possible to service the Permutations.
    */
   private static void createWorkers(TreeLogger logger, UnifiedAst unifiedAst,
-      int workersNeeded, int localWorkers, List<PermutationWorker> workers)
-      throws UnableToCompleteException {
+      int workersNeeded, int localWorkers, List<PermutationWorker> workers,
+      Set<PermutationWorker> inProcessWorkers) throws UnableToCompleteException {
     if (localWorkers <= WORKERS_AUTO) {
       // TODO: something smarter?
       localWorkers = 1;
@@ -366,6 +627,9 @@ public abstract class PermutationWorkerFactory {
           unifiedAst, wanted);
 
       workers.addAll(newWorkers);
+      if (factory.isInProcess()) {
+        inProcessWorkers.addAll(newWorkers);
+      }
       workersNeeded -= newWorkers.size();
       if (factory.isLocal()) {
         localWorkers -= newWorkers.size();
@@ -394,6 +658,15 @@ public abstract class PermutationWorkerFactory {
    */
   public abstract void init(TreeLogger logger) throws UnableToCompleteException;
 
+  /**
+   * Indicates if the PermutationWorkers created by the factory compile in this
+   * JVM, sharing its heap. Such workers only start a permutation when the heap
+   * has room for it.
+   */
+  public boolean isInProcess() {
+    return false;
+  }
+
   /**
    * Indicates if the PermutationWorkers created by the factory consume
    * computational or memory resources on the local system, as opposed to the
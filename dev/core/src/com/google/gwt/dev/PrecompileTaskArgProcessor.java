@@ -45,6 +45,7 @@ import com.google.gwt.dev.util.arg.ArgHandlerMissingDepsFile;
 import com.google.gwt.dev.util.arg.ArgHandlerNamespace;
 import com.google.gwt.dev.util.arg.ArgHandlerOptimize;
 import com.google.gwt.dev.util.arg.ArgHandlerOverlappingSourceWarnings;
+import com.google.gwt.dev.util.arg.ArgHandlerSafeLongs;
 import com.google.gwt.dev.util.arg.ArgHandlerSaveSource;
 import com.google.gwt.dev.util.arg.ArgHandlerScriptStyle;
 import com.google.gwt.dev.util.arg.ArgHandlerSourceLevel;
@@ -85,6 +86,7 @@ class PrecompileTaskArgProcessor extends CompileArgProcessor {
     registerHandler(new ArgHandlerNamespace(options));
     registerHandler(new ArgHandlerOptimize(options));
     registerHandler(new ArgHandlerOverlappingSourceWarnings(options));
+    registerHandler(new ArgHandlerSafeLongs(options));
     registerHandler(new ArgHandlerSaveSource(options));
     registerHandler(new ArgHandlerScriptStyle(options));
     registerHandler(new ArgHandlerSoyc(options));
@@ -508,4 +508,14 @@ public class PrecompileTaskOptionsImpl extends CompileTaskOptionsImpl
   public void setClosureCompilerFormatEnabled(boolean enabled) {
     jjsOptions.setClosureCompilerFormatEnabled(enabled);
   }
+
+  @Override
+  public boolean isSafeLongsEnabled() {
+    return jjsOptions.isSafeLongsEnabled();
+  }
+
+  @Override
+  public void setSafeLongsEnabled(boolean enabled) {
+    jjsOptions.setSafeLongsEnabled(enabled);
+  }
 }
@@ -30,6 +30,10 @@ import java.util.List;
  * Create a single in-process PermutationWorker. This WorkerFactory is intended
  * to be used as a fall-back in case the other PermutationWorkers are unable to
  * complete.
+ * <p>
+ * More threads can be used by setting {@value #MAX_THREADS_PROPERTY} to a
+ * number, or to {@value #AUTO_THREADS} to use as many threads as there are
+ * processors and as the free heap can hold copies of the AST.
  */
 public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
 
@@ -78,13 +82,50 @@ public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
    */
   public static final String MAX_THREADS_PROPERTY = "gwt.jjs.maxThreads";
 
+  /**
+   * The value of {@value #MAX_THREADS_PROPERTY} that chooses the number of
+   * threads from the number of processors and the free heap.
+   */
+  public static final String AUTO_THREADS = "auto";
+
+  /**
+   * Returns the maximum number of in-process threads to use.
+   */
+  private static int getMaxThreads(TreeLogger logger, UnifiedAst unifiedAst) {
+    if (!AUTO_THREADS.equals(System.getProperty(MAX_THREADS_PROPERTY))) {
+      return Integer.getInteger(MAX_THREADS_PROPERTY, 1);
+    }
+    long heapPerPermutation = estimatePermutationHeap(unifiedAst);
+    int maxThreads = getAutoThreads(Runtime.getRuntime().availableProcessors(),
+        heapPerPermutation, heapPerPermutation > 0 ? HeapBudget.getFreeHeap() : 0);
+    if (logger.isLoggable(TreeLogger.SPAM)) {
+      logger.log(TreeLogger.SPAM, "Using up to " + maxThreads + " threads, estimating "
+          + heapPerPermutation + " bytes of heap per permutation");
+    }
+    return maxThreads;
+  }
+
+  /**
+   * Returns the number of threads that {@value #AUTO_THREADS} chooses: one
+   * per processor, but no more than the free heap can hold copies of the AST,
+   * and at least one.
+   *
+   * @param heapPerPermutation the estimated heap needed by one compile, or 0
+   *          if it is unknown
+   */
+  static int getAutoThreads(int processors, long heapPerPermutation, long freeHeap) {
+    if (heapPerPermutation <= 0) {
+      return processors;
+    }
+    return (int) Math.min(processors, Math.max(1, freeHeap / heapPerPermutation));
+  }
+
   @Override
   public Collection<PermutationWorker> getWorkers(TreeLogger logger,
       UnifiedAst unifiedAst, int numWorkers) throws UnableToCompleteException {
     logger.log(TreeLogger.SPAM, "Creating ThreadedPermutationWorkers");
 
-    numWorkers = Math.min(numWorkers, Integer.getInteger(MAX_THREADS_PROPERTY,
-        1));
+    numWorkers = Math.min(numWorkers, getMaxThreads(logger, unifiedAst));
 
     if (numWorkers == 0) {
       return Collections.emptyList();
@@ -104,6 +145,11 @@ public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
     logger.log(TreeLogger.SPAM, "Initializing ThreadedPermutationWorkerFactory");
   }
 
+  @Override
+  public boolean isInProcess() {
+    return true;
+  }
+
   @Override
   public boolean isLocal() {
     return true;
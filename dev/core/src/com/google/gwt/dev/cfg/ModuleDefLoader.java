@@ -35,7 +35,6 @@ import java.io.File;
 import java.io.Reader;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -66,9 +65,11 @@ public class ModuleDefLoader {
 
   /**
    * A mapping from effective to physical module names.
+   * <p>
+   * Modules may be loaded concurrently, for example by a code server compiling several modules.
    */
   private static final Map<String, String> moduleEffectiveNameToPhysicalName =
-    new HashMap<String, String>();
+    Maps.newConcurrentMap();
 
   public static void clearModuleCache() {
     getModulesCache().clear();
@@ -244,11 +245,11 @@ public class ModuleDefLoader {
     return moduleDef;
   }
 
-  static Map<String, ModuleDef> getModulesCache() {
+  static synchronized Map<String, ModuleDef> getModulesCache() {
     ClassLoader keyClassLoader = Thread.currentThread().getContextClassLoader();
     Map<String, ModuleDef> cache = loadedModulesCaches.get(keyClassLoader);
     if (cache == null) {
-      cache = Maps.newHashMap();
+      cache = Maps.newConcurrentMap();
       loadedModulesCaches.put(keyClassLoader, cache);
     }
     return cache;
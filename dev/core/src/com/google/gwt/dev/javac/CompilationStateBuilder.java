@@ -35,12 +35,16 @@ import com.google.gwt.dev.util.log.speedtracer.DevModeEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.EventType;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.base.Throwables;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
 import com.google.gwt.thirdparty.guava.common.collect.Interner;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
 
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
@@ -55,11 +59,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -75,6 +85,13 @@ public class CompilationStateBuilder {
 
     private final class UnitProcessorImpl implements UnitProcessor {
 
+      private final GwtAstBuilder astBuilder = new GwtAstBuilder();
+
+      /**
+       * The compiler calling this processor.
+       */
+      private JdtCompiler compiler;
+
       /**
        * A callback after the JDT compiler has compiled a .java file and created a matching
        * CompilationUnitDeclaration. We take this opportunity to create a matching CompilationUnit.
@@ -203,9 +220,7 @@ public class CompilationStateBuilder {
      * This is used to validate dependencies when reusing previously cached
      * units, to make sure they can be recompiled if necessary.
      */
-    private final Map<String, CompiledClass> allValidClasses = Maps.newHashMap();
-
-    private final GwtAstBuilder astBuilder = new GwtAstBuilder();
+    private final Map<String, CompiledClass> allValidClasses = Maps.newConcurrentMap();
 
     private transient LinkedBlockingQueue<CompilationUnitBuilder> buildQueue;
 
@@ -224,12 +239,20 @@ public class CompilationStateBuilder {
 
     private CompilerContext compilerContext;
 
+    /**
+     * The most threads to compile units with at once. Always 1 with an additional type provider,
+     * since several batches could otherwise compile the units that it provides.
+     */
+    private final int compileThreads;
+
     public CompileMoreLater(
         CompilerContext compilerContext, AdditionalTypeProviderDelegate delegate) {
       this.compilerContext = compilerContext;
-      this.compiler = new JdtCompiler(
-          compilerContext, new UnitProcessorImpl());
+      UnitProcessorImpl processor = new UnitProcessorImpl();
+      this.compiler = new JdtCompiler(compilerContext, processor);
+      processor.compiler = compiler;
       this.suppressErrors = !compilerContext.getOptions().isStrict();
+      this.compileThreads = delegate == null ? getCompileThreads() : 1;
       compiler.setAdditionalTypeProviderDelegate(delegate);
     }
 
@@ -340,7 +363,7 @@ public class CompilationStateBuilder {
         Event jdtCompilerEvent = SpeedTracerLogger.start(eventType);
         long compilationStartNanos = System.nanoTime();
         try {
-          compiler.doCompile(branch, builders);
+          doCompile(branch, builders);
         } finally {
           jdtCompilerEvent.end();
         }
@@ -415,6 +438,67 @@ public class CompilationStateBuilder {
       return resultUnits;
     }
 
+    /**
+     * Compiles the units with the JDT, splitting them into batches of whole packages that are
+     * compiled at the same time if there are enough units to keep several threads busy.
+     */
+    private void doCompile(TreeLogger logger, Collection<CompilationUnitBuilder> builders)
+        throws UnableToCompleteException {
+      int batchCount = Math.min(compileThreads, builders.size() / MIN_UNITS_PER_BATCH);
+      if (batchCount <= 1) {
+        compiler.doCompile(logger, builders);
+        return;
+      }
+
+      List<List<CompilationUnitBuilder>> batches = partitionByPackage(builders, batchCount);
+      if (logger.isLoggable(TreeLogger.TRACE)) {
+        logger.log(TreeLogger.TRACE, "Compiling " + builders.size() + " units in "
+            + batches.size() + " batches at once");
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(batches.size(),
+          new ThreadFactoryBuilder().setNameFormat("JdtCompiler-%d").setDaemon(true).build());
+      try {
+        List<Future<Void>> batchCompiles = Lists.newArrayList();
+        for (final List<CompilationUnitBuilder> batch : batches) {
+          List<CompilationUnitBuilder> otherBatchBuilders = Lists.newArrayList();
+          for (List<CompilationUnitBuilder> otherBatch : batches) {
+            if (otherBatch != batch) {
+              otherBatchBuilders.addAll(otherBatch);
+            }
+          }
+          UnitProcessorImpl processor = new UnitProcessorImpl();
+          processor.compiler = compiler.createBatchCompiler(processor, otherBatchBuilders);
+          final JdtCompiler batchCompiler = processor.compiler;
+          final TreeLogger batchLogger = logger;
+          batchCompiles.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws UnableToCompleteException {
+              batchCompiler.doCompile(batchLogger, batch);
+              return null;
+            }
+          }));
+        }
+
+        boolean aborted = false;
+        for (Future<Void> batchCompile : batchCompiles) {
+          try {
+            Uninterruptibles.getUninterruptibly(batchCompile);
+          } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof UnableToCompleteException)) {
+              throw Throwables.propagate(e.getCause());
+            }
+            // Already logged; wait for the other batches before giving up.
+            aborted = true;
+          }
+        }
+        if (aborted) {
+          throw new UnableToCompleteException();
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
     /**
      * Removes cached units that fail validation with the current set of valid classes; also
      * add the builder of the invalidated unit back for retry later.
@@ -469,6 +553,17 @@ public class CompilationStateBuilder {
     }
   }
 
+  /**
+   * The system property setting the most threads to compile Java source with at once, or "auto"
+   * for one per available processor. Defaults to 1.
+   */
+  public static final String COMPILE_THREADS_PROPERTY = "gwt.jdt.compileThreads";
+
+  /**
+   * The fewest units worth giving a compile thread of their own.
+   */
+  private static final int MIN_UNITS_PER_BATCH = 100;
+
   private static final CompilationStateBuilder instance = new CompilationStateBuilder();
 
   /**
@@ -524,6 +619,62 @@ public class CompilationStateBuilder {
     return instance;
   }
 
+  /**
+   * Splits the units into at most {@code batchCount} batches of similar size, keeping the units of
+   * each package together.
+   */
+  @VisibleForTesting
+  static List<List<CompilationUnitBuilder>> partitionByPackage(
+      Collection<CompilationUnitBuilder> builders, int batchCount) {
+    Map<String, List<CompilationUnitBuilder>> buildersByPackage = Maps.newLinkedHashMap();
+    for (CompilationUnitBuilder builder : builders) {
+      String packageName = Shared.getPackageName(builder.getTypeName());
+      List<CompilationUnitBuilder> packageBuilders = buildersByPackage.get(packageName);
+      if (packageBuilders == null) {
+        packageBuilders = Lists.newArrayList();
+        buildersByPackage.put(packageName, packageBuilders);
+      }
+      packageBuilders.add(builder);
+    }
+
+    // Hand out the largest packages first, each to the smallest batch so far.
+    List<List<CompilationUnitBuilder>> packages =
+        Lists.newArrayList(buildersByPackage.values());
+    Collections.sort(packages, new Comparator<List<CompilationUnitBuilder>>() {
+      @Override
+      public int compare(List<CompilationUnitBuilder> a, List<CompilationUnitBuilder> b) {
+        return b.size() - a.size();
+      }
+    });
+    List<List<CompilationUnitBuilder>> batches = Lists.newArrayList();
+    for (List<CompilationUnitBuilder> packageBuilders : packages) {
+      if (batches.size() < batchCount) {
+        batches.add(Lists.newArrayList(packageBuilders));
+        continue;
+      }
+      List<CompilationUnitBuilder> smallestBatch = batches.get(0);
+      for (List<CompilationUnitBuilder> batch : batches) {
+        if (batch.size() < smallestBatch.size()) {
+          smallestBatch = batch;
+        }
+      }
+      smallestBatch.addAll(packageBuilders);
+    }
+    return batches;
+  }
+
+  private static int getCompileThreads() {
+    String compileThreads = System.getProperty(COMPILE_THREADS_PROPERTY, "1");
+    if (compileThreads.equals("auto")) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    try {
+      return Math.max(1, Integer.parseInt(compileThreads));
+    } catch (NumberFormatException e) {
+      return 1;
+    }
+  }
+
   /**
    * Build a new compilation state from a source oracle. Allow the caller to
    * specify a compiler delegate that will handle undefined names.
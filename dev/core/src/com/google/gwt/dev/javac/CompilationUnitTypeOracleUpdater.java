@@ -88,6 +88,7 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
 
     private final byte[] byteCode;
     private CollectClassData classData;
+    private final CompiledClass compiledClass;
     private final String internalName;
 
     /**
@@ -105,9 +106,24 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
       this.internalName = internalName;
       this.location = location;
       this.byteCode = byteCode;
+      this.compiledClass = null;
       this.lastModifiedTime = lastModifiedTime;
     }
 
+    /**
+     * Reads the bytecode from {@code compiledClass} whenever it is needed, rather than holding on
+     * to it.
+     */
+    private TypeData(CompiledClass compiledClass, String location) {
+      this.packageName = compiledClass.getPackageName();
+      this.sourceName = compiledClass.getSourceName();
+      this.internalName = compiledClass.getInternalName();
+      this.location = location;
+      this.byteCode = null;
+      this.compiledClass = compiledClass;
+      this.lastModifiedTime = compiledClass.getUnit().getLastModified();
+    }
+
     /**
      * Collects data about a class which only needs the bytecode and no TypeOracle data structures.
      * This is used to make the initial shallow identity pass for creating
@@ -115,18 +131,76 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
      */
     synchronized CollectClassData getCollectClassData() {
       if (classData == null) {
-        ClassReader reader = new ClassReader(byteCode);
-        classData = new CollectClassData();
-        ClassVisitor classVisitor = classData;
-        if (TRACE_CLASSES) {
-          classVisitor = new TraceClassVisitor(classVisitor, new PrintWriter(System.out));
-        }
-        reader.accept(classVisitor, 0);
+        classData = readClassData();
+      }
+      return classData;
+    }
+
+    /**
+     * Drops the data collected by {@link #getCollectClassData()}, for instances that are kept
+     * around to resolve members lazily.
+     */
+    synchronized void discardClassData() {
+      classData = null;
+    }
+
+    /**
+     * Reads the bytecode again, without caching the result.
+     */
+    CollectClassData readClassData() {
+      ClassReader reader =
+          new ClassReader(byteCode != null ? byteCode : compiledClass.getBytes());
+      CollectClassData classData = new CollectClassData();
+      ClassVisitor classVisitor = classData;
+      if (TRACE_CLASSES) {
+        classVisitor = new TraceClassVisitor(classVisitor, new PrintWriter(System.out));
       }
+      reader.accept(classVisitor, 0);
       return classData;
     }
   }
 
+  /**
+   * Resolves the members and annotations of one type from its bytecode the first time they are
+   * accessed. Resolution happens under the type oracle's lock, so that it never runs concurrently
+   * with the addition of new types, with the resolution of other types or with the creation of
+   * types and members on demand.
+   */
+  private class LazyMemberResolver implements Runnable {
+    private final MethodArgNamesLookup allMethodArgs;
+    private final TreeLogger logger;
+    private final JRealClassType type;
+    private TypeData typeData;
+
+    LazyMemberResolver(TreeLogger logger, JRealClassType type, TypeData typeData,
+        MethodArgNamesLookup allMethodArgs) {
+      this.logger = logger;
+      this.type = type;
+      this.typeData = typeData;
+      this.allMethodArgs = allMethodArgs;
+    }
+
+    @Override
+    public void run() {
+      synchronized (typeOracle) {
+        if (typeData == null) {
+          // Resolved already, or being resolved further up the stack.
+          return;
+        }
+        CollectClassData classData = typeData.readClassData();
+        typeData = null;
+        Event lazyResolveEvent = SpeedTracerLogger.start(
+            CompilerEventType.TYPE_ORACLE_UPDATER, "phase", "Resolve Members Lazily");
+        TypeParameterLookup typeParamLookup = new TypeParameterLookup();
+        typeParamLookup.pushEnclosingScopes(type);
+        resolveMembers(logger, type, classData, typeParamLookup,
+            new TypeOracleBuildContext(allMethodArgs));
+        setLazyMemberResolver(type, null);
+        lazyResolveEvent.end();
+      }
+    }
+  }
+
   private class CompilationUnitTypeOracleResolver implements Resolver {
 
     private final TypeOracleBuildContext context;
@@ -219,6 +293,11 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
 
     private final Map<JRealClassType, CollectClassData> classDataByType = Maps.newHashMap();
 
+    /**
+     * The types whose members will be resolved lazily, when lazy resolution is enabled.
+     */
+    private final Map<JRealClassType, TypeData> lazyTypeDataByType = Maps.newHashMap();
+
     private final Resolver resolver = new CompilationUnitTypeOracleResolver(this);
 
     protected TypeOracleBuildContext(MethodArgNamesLookup allMethodArgs) {
@@ -242,6 +321,14 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
 
   private static final JTypeParameter[] NO_TYPE_PARAMETERS = new JTypeParameter[0];
 
+  /**
+   * A system property that, when set to true, resolves the methods, fields and annotations of each
+   * type from its bytecode the first time they are accessed instead of when the type is added.
+   * Generators usually look at a small fraction of the types, so this saves time and heap on large
+   * applications.
+   */
+  public static final String LAZY_MEMBERS_PROPERTY = "gwt.typeOracle.lazyMembers";
+
   /**
    * Turn on to trace class processing.
    */
@@ -327,6 +414,7 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
     return type;
   }
 
+  private final boolean resolveMembersLazily;
   private final Set<String> resolvedTypeSourceNames = Sets.newHashSet();
   private final Map<String, JRealClassType> typesByInternalName = Maps.newHashMap();
   /**
@@ -340,7 +428,16 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
           new ThreadFactoryBuilder().setDaemon(true).build());
 
   public CompilationUnitTypeOracleUpdater(TypeOracle typeOracle) {
+    this(typeOracle, Boolean.getBoolean(LAZY_MEMBERS_PROPERTY));
+  }
+
+  /**
+   * @param resolveMembersLazily whether to resolve the methods, fields and annotations of types on
+   *          first access rather than when they are added
+   */
+  public CompilationUnitTypeOracleUpdater(TypeOracle typeOracle, boolean resolveMembersLazily) {
     super(typeOracle);
+    this.resolveMembersLazily = resolveMembersLazily;
   }
 
   /**
@@ -356,6 +453,14 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
    */
   void addNewTypesDontIndex(
       TreeLogger logger, Collection<TypeData> typeDataList, MethodArgNamesLookup argsLookup) {
+    // Shares the type oracle's lock with members that are resolved lazily.
+    synchronized (typeOracle) {
+      addNewTypesDontIndexLocked(logger, typeDataList, argsLookup);
+    }
+  }
+
+  private void addNewTypesDontIndexLocked(
+      TreeLogger logger, Collection<TypeData> typeDataList, MethodArgNamesLookup argsLookup) {
     Event typeOracleUpdaterEvent = SpeedTracerLogger.start(CompilerEventType.TYPE_ORACLE_UPDATER);
 
     // First collect all class data.
@@ -397,6 +502,9 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
         assert Name.isInternalName(typeData.internalName);
         typesByInternalName.put(typeData.internalName, type);
         context.classDataByType.put(type, classData);
+        if (resolveMembersLazily) {
+          context.lazyTypeDataByType.put(type, typeData);
+        }
       }
     }
     identityEvent.end();
@@ -428,6 +536,9 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
     }
     resolveUnresolvedEvent.end();
 
+    for (TypeData lazyTypeData : context.lazyTypeDataByType.values()) {
+      lazyTypeData.discardClassData();
+    }
     // no longer needed
     context = null;
     typeOracleUpdaterEvent.end();
@@ -489,11 +600,7 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
     // loop with the one in prefetchTypeData.
     for (CompilationUnit compilationUnit : compilationUnits) {
       for (CompiledClass compiledClass : compilationUnit.getCompiledClasses()) {
-        TypeData typeData = new TypeData(compiledClass.getPackageName(),
-            compiledClass.getSourceName(), compiledClass.getInternalName(),
-            compilationUnit.getResourceLocation(), compiledClass.getBytes(), 
-            compiledClass.getUnit().getLastModified());
-        typeDataList.add(typeData);
+        typeDataList.add(new TypeData(compiledClass, compilationUnit.getResourceLocation()));
       }
     }
 
@@ -883,11 +990,6 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
       return resolvePackage(logger, unresolvedType, classData.getAnnotations());
     }
 
-    // Resolve annotations
-    Map<Class<? extends Annotation>, Annotation> declaredAnnotations = Maps.newHashMap();
-    resolveAnnotations(logger, classData.getAnnotations(), declaredAnnotations);
-    addAnnotations(unresolvedType, declaredAnnotations);
-
     String signature = classData.getSignature();
 
     /*
@@ -943,6 +1045,26 @@ public class CompilationUnitTypeOracleUpdater extends TypeOracleUpdater {
       assert "java/lang/Object".equals(classData.getInternalName());
     }
 
+    TypeData lazyTypeData = context.lazyTypeDataByType.get(unresolvedType);
+    if (lazyTypeData != null) {
+      setLazyMemberResolver(unresolvedType,
+          new LazyMemberResolver(logger, unresolvedType, lazyTypeData, context.allMethodArgs));
+      return true;
+    }
+    return resolveMembers(logger, unresolvedType, classData, typeParamLookup, context);
+  }
+
+  /**
+   * Resolves the annotations, methods and fields of a type whose supertypes are already resolved.
+   */
+  private boolean resolveMembers(TreeLogger logger, JRealClassType unresolvedType,
+      CollectClassData classData, TypeParameterLookup typeParamLookup,
+      TypeOracleBuildContext context) {
+    // Resolve annotations
+    Map<Class<? extends Annotation>, Annotation> declaredAnnotations = Maps.newHashMap();
+    resolveAnnotations(logger, classData.getAnnotations(), declaredAnnotations);
+    addAnnotations(unresolvedType, declaredAnnotations);
+
     // Process methods
     for (CollectMethodData method : classData.getMethods()) {
       TreeLogger branch = logger.branch(TreeLogger.SPAM, "Resolving method " + method.getName());
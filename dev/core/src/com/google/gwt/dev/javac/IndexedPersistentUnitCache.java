@@ -0,0 +1,527 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.TreeLogger.Type;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.jjs.impl.GwtAstBuilder;
+import com.google.gwt.dev.util.CompilerVersion;
+import com.google.gwt.dev.util.log.speedtracer.DevModeEventType;
+import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
+import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A persistent cache of {@link CompilationUnit} instances stored in
+ * {@link IndexedUnitCacheFile indexed cache files}.
+ * <p>
+ * Unlike {@link PersistentUnitCache}, which deserializes every cached unit on
+ * startup, this cache only reads the index of each cache file when it is
+ * created. Units are deserialized from the memory-mapped files the first time
+ * they are found, so startup cost is proportional to the number of units that
+ * are actually used.
+ * <p>
+ * Newly compiled units are kept in memory and written to a new cache file in a
+ * background thread by {@link #cleanup}. Once there are
+ * {@link #CACHE_FILE_THRESHOLD} cache files, they are compacted in the
+ * background into a single file by copying the still-live entries without
+ * deserializing them.
+ * <p>
+ * Enabled with the system property
+ * {@code gwt.persistentunitcacheformat=indexed} (see
+ * {@link UnitCacheSingleton}).
+ */
+class IndexedPersistentUnitCache extends MemoryUnitCache {
+
+  /**
+   * If there are at least this many files in the cache, compact them.
+   */
+  static final int CACHE_FILE_THRESHOLD = 10;
+
+  static final String CURRENT_VERSION_CACHE_FILE_PREFIX =
+      "gwt-unitIndex-" + CompilerVersion.getHash() + "-";
+
+  private static final String CACHE_FILE_PREFIX = "gwt-unitIndex-";
+
+  /**
+   * Cache files that have been opened, oldest first.
+   */
+  private final List<IndexedUnitCacheFile> cacheFiles = Lists.newArrayList();
+
+  private final File dir;
+
+  /**
+   * Live entries on disk, keyed by resource path. An entry stays here after
+   * its unit has been loaded into memory, so that compaction keeps it.
+   */
+  private final Map<String, IndexedUnitCacheFile.Entry> entriesByPath = Maps.newHashMap();
+
+  private final Map<ContentId, IndexedUnitCacheFile.Entry> entriesByContentId =
+      Maps.newHashMap();
+
+  private final TreeLogger logger;
+
+  private final ExecutorService service = Executors.newSingleThreadExecutor();
+
+  /**
+   * Units compiled in this session that have not been written to disk yet.
+   */
+  private List<CompilationUnit> unsavedUnits = Lists.newArrayList();
+
+  IndexedPersistentUnitCache(TreeLogger logger, File parentDir)
+      throws UnableToCompleteException {
+    this.logger = logger;
+    try {
+      parentDir = parentDir.getCanonicalFile();
+    } catch (IOException e) {
+      logger.log(TreeLogger.WARN, "Can't get canonical directory for "
+          + parentDir.getAbsolutePath(), e);
+      throw new UnableToCompleteException();
+    }
+    this.dir = PersistentUnitCacheDir.chooseCacheDir(parentDir);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      logger.log(TreeLogger.WARN, "Can't create directory: " + dir.getAbsolutePath());
+      throw new UnableToCompleteException();
+    }
+    if (!dir.canRead()) {
+      logger.log(Type.WARN, "Can't read directory: " + dir.getAbsolutePath());
+      throw new UnableToCompleteException();
+    }
+    logger.log(TreeLogger.TRACE, "Indexed unit cache dir set to: " + dir.getAbsolutePath());
+
+    loadIndexes();
+
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        try {
+          // Don't let the shutdown hang more than 5 seconds
+          asyncShutdown().get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          // ignore
+        } catch (RejectedExecutionException e) {
+          // already shutdown, ignore
+        } catch (ExecutionException e) {
+          IndexedPersistentUnitCache.this.logger.log(TreeLogger.ERROR, "Error during shutdown",
+              e);
+        } catch (TimeoutException e) {
+          // ignore
+        } finally {
+          service.shutdownNow();
+        }
+      }
+    });
+  }
+
+  @Override
+  public synchronized void add(CompilationUnit newUnit) {
+    super.add(newUnit);
+    removeEntry(newUnit.getResourcePath());
+    unsavedUnits.add(newUnit);
+  }
+
+  @Override
+  public synchronized void addArchivedUnit(CompilationUnit newUnit) {
+    super.addArchivedUnit(newUnit);
+    removeEntry(newUnit.getResourcePath());
+  }
+
+  /**
+   * Writes the units compiled since the last cleanup to a new cache file and
+   * compacts the cache files if there are too many of them.
+   */
+  @Override
+  public void cleanup(TreeLogger logger) {
+    final List<CompilationUnit> unitsToWrite;
+    synchronized (this) {
+      if (unsavedUnits.isEmpty()) {
+        logger.log(TreeLogger.TRACE, "Skipped IndexedPersistentUnitCache cleanup because no "
+            + "units were added");
+        return;
+      }
+      unitsToWrite = unsavedUnits;
+      unsavedUnits = Lists.newArrayList();
+    }
+    try {
+      service.submit(new Runnable() {
+        @Override
+        public void run() {
+          writeUnits(unitsToWrite);
+          if (getCacheFileCount() >= CACHE_FILE_THRESHOLD) {
+            compact();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      logger.log(TreeLogger.TRACE, "Skipped IndexedPersistentUnitCache cleanup because it's "
+          + "shut down");
+    }
+  }
+
+  @Override
+  public void clear() throws UnableToCompleteException {
+    waitFor(service.submit(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (IndexedPersistentUnitCache.this) {
+          cacheFiles.clear();
+          entriesByPath.clear();
+          entriesByContentId.clear();
+          unsavedUnits.clear();
+          unitMap.clear();
+          unitMapByContentId.clear();
+        }
+        for (File file : listFiles(CACHE_FILE_PREFIX)) {
+          deleteFile(file);
+        }
+      }
+    }));
+  }
+
+  @Override
+  public synchronized CompilationUnit find(ContentId contentId) {
+    CompilationUnit unit = super.find(contentId);
+    if (unit != null) {
+      return unit;
+    }
+    return load(entriesByContentId.get(contentId));
+  }
+
+  @Override
+  public synchronized CompilationUnit find(String resourcePath) {
+    CompilationUnit unit = super.find(resourcePath);
+    if (unit != null) {
+      return unit;
+    }
+    return load(entriesByPath.get(resourcePath));
+  }
+
+  @Override
+  public synchronized void remove(CompilationUnit unit) {
+    super.remove(unit);
+    IndexedUnitCacheFile.Entry entry = entriesByPath.get(unit.getResourcePath());
+    if (entry != null && entry.getContentId().equals(unit.getContentId())) {
+      removeEntry(unit.getResourcePath());
+    }
+  }
+
+  /**
+   * Returns the number of units that have been deserialized from disk.
+   */
+  @VisibleForTesting
+  synchronized int getLoadedUnitCount() {
+    int count = 0;
+    for (UnitCacheEntry entry : unitMap.values()) {
+      if (entry.getOrigin() == UnitOrigin.PERSISTENT) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @VisibleForTesting
+  void shutdown() throws InterruptedException, ExecutionException {
+    try {
+      asyncShutdown().get();
+    } catch (RejectedExecutionException ex) {
+      // background thread is not running - ignore
+    }
+  }
+
+  /**
+   * Blocks until all background work submitted so far is done.
+   */
+  @VisibleForTesting
+  void waitForCleanup() throws UnableToCompleteException {
+    waitFor(service.submit(new Runnable() {
+      @Override
+      public void run() {
+      }
+    }));
+  }
+
+  private Future<?> asyncShutdown() {
+    final List<CompilationUnit> unitsToWrite;
+    synchronized (this) {
+      unitsToWrite = unsavedUnits;
+      unsavedUnits = Lists.newArrayList();
+    }
+    Future<?> status = service.submit(new Runnable() {
+      @Override
+      public void run() {
+        writeUnits(unitsToWrite);
+        logger.log(TreeLogger.TRACE, "Shutting down IndexedPersistentUnitCache thread");
+      }
+    });
+    service.shutdown(); // Don't allow more tasks to be scheduled.
+    return status;
+  }
+
+  /**
+   * Registers the entries of a cache file, replacing older entries for the
+   * same resource path.
+   */
+  private void addEntries(IndexedUnitCacheFile cacheFile) {
+    cacheFiles.add(cacheFile);
+    for (IndexedUnitCacheFile.Entry entry : cacheFile.getEntries()) {
+      IndexedUnitCacheFile.Entry existingEntry = entriesByPath.get(entry.getResourcePath());
+      /*
+       * As in PersistentUnitCache, newer files win ties on the timestamp. If an
+       * entry turns out to be stale, it will be recompiled and the updated unit
+       * will win this test the next time the session starts.
+       */
+      if (existingEntry == null || entry.getLastModified() >= existingEntry.getLastModified()) {
+        removeEntry(entry.getResourcePath());
+        entriesByPath.put(entry.getResourcePath(), entry);
+        entriesByContentId.put(entry.getContentId(), entry);
+      }
+    }
+  }
+
+  /**
+   * Rewrites all live entries into a single new cache file and deletes the old
+   * files. Runs on the background thread.
+   */
+  private void compact() {
+    Event compactEvent = SpeedTracerLogger.start(DevModeEventType.DELETE_CACHE);
+    logger.log(Type.TRACE, "Compacting indexed unit cache files");
+    List<IndexedUnitCacheFile> oldFiles;
+    List<IndexedUnitCacheFile.Entry> liveEntries;
+    synchronized (this) {
+      oldFiles = Lists.newArrayList(cacheFiles);
+      liveEntries = Lists.newArrayList(entriesByPath.values());
+    }
+
+    IndexedUnitCacheFile compactedFile;
+    File file = null;
+    IndexedUnitCacheFile.Writer writer = null;
+    try {
+      file = createEmptyCacheFile();
+      writer = new IndexedUnitCacheFile.Writer(file);
+      for (IndexedUnitCacheFile.Entry entry : liveEntries) {
+        writer.copyEntry(entry);
+      }
+      writer.close();
+      writer = null;
+      compactedFile = IndexedUnitCacheFile.open(file);
+    } catch (IOException e) {
+      logger.log(TreeLogger.WARN, "Unable to compact indexed unit cache", e);
+      discard(file, writer);
+      compactEvent.end();
+      return;
+    }
+
+    synchronized (this) {
+      cacheFiles.removeAll(oldFiles);
+      cacheFiles.add(0, compactedFile);
+      for (IndexedUnitCacheFile.Entry entry : compactedFile.getEntries()) {
+        IndexedUnitCacheFile.Entry current = entriesByPath.get(entry.getResourcePath());
+        // Entries added or removed while compacting stay as they are.
+        if (current != null && current.getContentId().equals(entry.getContentId())
+            && oldFiles.contains(current.getFile())) {
+          entriesByPath.put(entry.getResourcePath(), entry);
+          entriesByContentId.put(entry.getContentId(), entry);
+        }
+      }
+    }
+    for (IndexedUnitCacheFile oldFile : oldFiles) {
+      deleteFile(oldFile.getFile());
+    }
+    logger.log(Type.TRACE, "Compacted " + oldFiles.size() + " cache files into "
+        + compactedFile.getFile().getName());
+    compactEvent.end();
+  }
+
+  private File createEmptyCacheFile() throws IOException {
+    File newFile;
+    long timestamp = System.currentTimeMillis();
+    do {
+      newFile = new File(dir, CURRENT_VERSION_CACHE_FILE_PREFIX
+          + String.format("%016X", timestamp++));
+    } while (!newFile.createNewFile());
+    return newFile;
+  }
+
+  /**
+   * Deletes a partially written cache file.
+   */
+  private void discard(File file, IndexedUnitCacheFile.Writer writer) {
+    if (writer != null) {
+      writer.abandon();
+    }
+    if (file != null) {
+      deleteFile(file);
+    }
+  }
+
+  private void deleteFile(File file) {
+    logger.log(Type.TRACE, "Deleting file: " + file);
+    if (!file.delete()) {
+      logger.log(Type.WARN, "Unable to delete file: " + file);
+    }
+  }
+
+  private synchronized int getCacheFileCount() {
+    return cacheFiles.size();
+  }
+
+  private List<File> listFiles(String prefix) {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return Collections.emptyList();
+    }
+    List<File> out = Lists.newArrayList();
+    for (File file : files) {
+      if (file.getName().startsWith(prefix)) {
+        out.add(file);
+      }
+    }
+    Collections.sort(out);
+    return out;
+  }
+
+  /**
+   * Deserializes the unit at the given entry and moves it into the in-memory
+   * cache. Drops the entry if it can't be read.
+   */
+  private CompilationUnit load(IndexedUnitCacheFile.Entry entry) {
+    if (entry == null) {
+      return null;
+    }
+    CachedCompilationUnit unit;
+    try {
+      unit = entry.readUnit();
+    } catch (IOException e) {
+      logger.log(TreeLogger.TRACE, "Ignoring cached unit " + entry.getResourcePath()
+          + " due to read error.", e);
+      removeEntry(entry.getResourcePath());
+      return null;
+    } catch (ClassNotFoundException e) {
+      logger.log(TreeLogger.TRACE, "Ignoring cached unit " + entry.getResourcePath()
+          + " due to deserialization error.", e);
+      removeEntry(entry.getResourcePath());
+      return null;
+    }
+    if (unit.getTypesSerializedVersion() != GwtAstBuilder.getSerializationVersion()) {
+      removeEntry(entry.getResourcePath());
+      return null;
+    }
+    UnitCacheEntry cacheEntry = new UnitCacheEntry(unit, UnitOrigin.PERSISTENT);
+    unitMap.put(unit.getResourcePath(), cacheEntry);
+    unitMapByContentId.put(unit.getContentId(), cacheEntry);
+    return unit;
+  }
+
+  /**
+   * Reads the index of every cache file written by this compiler version,
+   * deleting the ones that can't be read.
+   */
+  private void loadIndexes() {
+    Event loadEvent = SpeedTracerLogger.start(DevModeEventType.LOAD_PERSISTENT_UNIT_CACHE);
+    for (File file : listFiles(CACHE_FILE_PREFIX)) {
+      if (!file.getName().startsWith(CURRENT_VERSION_CACHE_FILE_PREFIX)) {
+        deleteFile(file);
+        continue;
+      }
+      try {
+        addEntries(IndexedUnitCacheFile.open(file));
+      } catch (IOException e) {
+        logger.log(TreeLogger.TRACE, "Ignoring and deleting cache file "
+            + file.getAbsolutePath() + " due to read error.", e);
+        deleteFile(file);
+      }
+    }
+    logger.log(TreeLogger.TRACE, "Indexed " + entriesByPath.size() + " units in "
+        + cacheFiles.size() + " cache files");
+    loadEvent.end();
+  }
+
+  private void removeEntry(String resourcePath) {
+    IndexedUnitCacheFile.Entry entry = entriesByPath.remove(resourcePath);
+    if (entry != null) {
+      entriesByContentId.remove(entry.getContentId());
+    }
+  }
+
+  private void waitFor(Future<?> status) throws UnableToCompleteException {
+    try {
+      status.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UnableToCompleteException();
+    } catch (ExecutionException e) {
+      logger.log(TreeLogger.ERROR, "Error in IndexedPersistentUnitCache background thread", e);
+      throw new UnableToCompleteException();
+    }
+  }
+
+  /**
+   * Writes the given units to a new cache file and indexes them. Runs on the
+   * background thread.
+   */
+  private void writeUnits(List<CompilationUnit> units) {
+    if (units.isEmpty()) {
+      return;
+    }
+    IndexedUnitCacheFile newFile;
+    File file = null;
+    IndexedUnitCacheFile.Writer writer = null;
+    try {
+      file = createEmptyCacheFile();
+      writer = new IndexedUnitCacheFile.Writer(file);
+      for (CompilationUnit unit : units) {
+        writer.writeUnit(unit);
+      }
+      writer.close();
+      writer = null;
+      newFile = IndexedUnitCacheFile.open(file);
+    } catch (IOException e) {
+      logger.log(TreeLogger.ERROR, "Error saving compilation units to cache", e);
+      discard(file, writer);
+      return;
+    }
+    logger.log(Type.TRACE, "Wrote " + units.size() + " units to cache file: "
+        + newFile.getFile().getName());
+
+    synchronized (this) {
+      cacheFiles.add(newFile);
+      for (IndexedUnitCacheFile.Entry entry : newFile.getEntries()) {
+        // Only index units that are still current; newer ones are still unsaved.
+        CompilationUnit current = super.find(entry.getResourcePath());
+        if (current != null && current.getContentId().equals(entry.getContentId())) {
+          entriesByPath.put(entry.getResourcePath(), entry);
+          entriesByContentId.put(entry.getContentId(), entry);
+        }
+      }
+    }
+  }
+}
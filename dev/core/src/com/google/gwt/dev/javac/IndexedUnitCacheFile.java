@@ -0,0 +1,328 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.dev.jjs.impl.GwtAstBuilder;
+import com.google.gwt.dev.util.StringInterningObjectInputStream;
+import com.google.gwt.dev.util.StringInterner;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.util.tools.Utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * A persistent unit cache file in the indexed format used by
+ * {@link IndexedPersistentUnitCache}.
+ * <p>
+ * Each unit is stored as a standalone Java serialization stream, so it can be
+ * deserialized on its own; an index locates the units by resource path and
+ * {@link ContentId}. Opening a file only reads the index. The file is memory
+ * mapped and units are deserialized one at a time when they are first
+ * requested.
+ *
+ * <pre>
+ *   header: magic (int), format version (int), AST serialization version (long),
+ *           index offset (long)
+ *   units:  one serialized {@link CachedCompilationUnit} per entry
+ *   index:  entry count (int), then for each entry: resource path, source type
+ *           name, content id, last modified (long), offset (long), length (int)
+ * </pre>
+ * Strings in the index are stored as a length (int) followed by UTF-8 bytes.
+ */
+class IndexedUnitCacheFile {
+
+  /**
+   * The location of one unit in a cache file.
+   */
+  static class Entry {
+    private final ContentId contentId;
+    private final IndexedUnitCacheFile file;
+    private final long lastModified;
+    private final int length;
+    private final long offset;
+    private final String resourcePath;
+
+    private Entry(IndexedUnitCacheFile file, String resourcePath, ContentId contentId,
+        long lastModified, long offset, int length) {
+      this.file = file;
+      this.resourcePath = resourcePath;
+      this.contentId = contentId;
+      this.lastModified = lastModified;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    ContentId getContentId() {
+      return contentId;
+    }
+
+    IndexedUnitCacheFile getFile() {
+      return file;
+    }
+
+    long getLastModified() {
+      return lastModified;
+    }
+
+    String getResourcePath() {
+      return resourcePath;
+    }
+
+    /**
+     * Deserializes the unit stored at this entry.
+     */
+    CachedCompilationUnit readUnit() throws IOException, ClassNotFoundException {
+      ObjectInputStream inputStream =
+          new StringInterningObjectInputStream(new ByteBufferInputStream(getBytes()));
+      try {
+        return (CachedCompilationUnit) inputStream.readObject();
+      } finally {
+        Utility.close(inputStream);
+      }
+    }
+
+    private ByteBuffer getBytes() {
+      ByteBuffer bytes = file.buffer.duplicate();
+      bytes.position((int) offset);
+      bytes.limit((int) offset + length);
+      return bytes.slice();
+    }
+  }
+
+  /**
+   * Writes a new cache file. Entries are appended to the file and the index is
+   * written when the writer is closed.
+   * <p>
+   * Not thread safe.
+   */
+  static class Writer {
+    private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+    private final DataOutputStream index;
+    private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+    private int entryCount;
+    private final RandomAccessFile out;
+
+    Writer(File file) throws IOException {
+      this.out = new RandomAccessFile(file, "rw");
+      this.index = new DataOutputStream(indexBytes);
+      out.setLength(0);
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(GwtAstBuilder.getSerializationVersion());
+      // Index offset, filled in by close().
+      out.writeLong(0);
+    }
+
+    /**
+     * Copies an entry from another cache file without deserializing it.
+     */
+    void copyEntry(Entry entry) throws IOException {
+      ByteBuffer bytes = entry.getBytes();
+      byte[] copy = new byte[bytes.remaining()];
+      bytes.get(copy);
+      append(entry.getResourcePath(), entry.getContentId(), entry.getLastModified(), copy);
+    }
+
+    /**
+     * Serializes a unit into the file.
+     */
+    void writeUnit(CompilationUnit unit) throws IOException {
+      entryBytes.reset();
+      ObjectOutputStream stream = new ObjectOutputStream(entryBytes);
+      stream.writeObject(unit);
+      stream.close();
+      append(unit.getResourcePath(), unit.getContentId(), unit.getLastModified(),
+          entryBytes.toByteArray());
+    }
+
+    /**
+     * Writes the index and closes the file.
+     */
+    void close() throws IOException {
+      try {
+        long indexOffset = out.getFilePointer();
+        out.writeInt(entryCount);
+        index.flush();
+        out.write(indexBytes.toByteArray());
+        out.seek(INDEX_OFFSET_POSITION);
+        out.writeLong(indexOffset);
+      } finally {
+        out.close();
+      }
+    }
+
+    /**
+     * Closes the file without writing the index. The file is left unreadable.
+     */
+    void abandon() {
+      Utility.close(out);
+    }
+
+    private void append(String resourcePath, ContentId contentId, long lastModified,
+        byte[] bytes) throws IOException {
+      long offset = out.getFilePointer();
+      out.write(bytes);
+      writeString(index, resourcePath);
+      writeString(index, contentId.getSourceTypeName());
+      writeString(index, contentId.get());
+      index.writeLong(lastModified);
+      index.writeLong(offset);
+      index.writeInt(bytes.length);
+      entryCount++;
+    }
+  }
+
+  /**
+   * Reads the bytes of a {@link ByteBuffer} without copying them.
+   */
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+  }
+
+  private static final int FORMAT_VERSION = 1;
+  private static final long INDEX_OFFSET_POSITION = 16;
+  private static final int MAGIC = 0x47575455; // "GWTU"
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * Opens a cache file and reads its index.
+   *
+   * @throws IOException if the file can't be read, is not a complete cache file
+   *     or was written by an incompatible compiler.
+   */
+  static IndexedUnitCacheFile open(File file) throws IOException {
+    RandomAccessFile in = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = in.getChannel();
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Cache file too large: " + file);
+      }
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new IndexedUnitCacheFile(file, buffer);
+    } finally {
+      Utility.close(in);
+    }
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return StringInterner.get().intern(new String(bytes, UTF8));
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(UTF8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private final ByteBuffer buffer;
+  private final List<Entry> entries;
+  private final File file;
+
+  private IndexedUnitCacheFile(File file, ByteBuffer buffer) throws IOException {
+    this.file = file;
+    this.buffer = buffer;
+    this.entries = readIndex();
+  }
+
+  List<Entry> getEntries() {
+    return entries;
+  }
+
+  File getFile() {
+    return file;
+  }
+
+  private List<Entry> readIndex() throws IOException {
+    ByteBuffer header = buffer.duplicate();
+    try {
+      if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+        throw new IOException("Not an indexed unit cache file: " + file);
+      }
+      if (header.getLong() != GwtAstBuilder.getSerializationVersion()) {
+        throw new IOException("Stale AST serialization version in cache file: " + file);
+      }
+      long indexOffset = header.getLong();
+      if (indexOffset <= INDEX_OFFSET_POSITION || indexOffset >= buffer.limit()) {
+        throw new IOException("Incomplete cache file: " + file);
+      }
+
+      ByteBuffer index = buffer.duplicate();
+      index.position((int) indexOffset);
+      int entryCount = index.getInt();
+      List<Entry> result = Lists.newArrayListWithCapacity(entryCount);
+      for (int i = 0; i < entryCount; i++) {
+        String resourcePath = readString(index);
+        String sourceTypeName = readString(index);
+        String contentId = readString(index);
+        long lastModified = index.getLong();
+        long offset = index.getLong();
+        int length = index.getInt();
+        if (offset < INDEX_OFFSET_POSITION || length < 0 || offset + length > indexOffset
+            || !contentId.startsWith(sourceTypeName + ':')) {
+          throw new IOException("Corrupt index in cache file: " + file);
+        }
+        result.add(new Entry(this, resourcePath,
+            new ContentId(sourceTypeName, contentId.substring(sourceTypeName.length() + 1)),
+            lastModified, offset, length));
+      }
+      return ImmutableList.copyOf(result);
+    } catch (RuntimeException e) {
+      // BufferUnderflowException, NegativeArraySizeException, IllegalArgumentException...
+      throw new IOException("Corrupt cache file: " + file, e);
+    }
+  }
+}
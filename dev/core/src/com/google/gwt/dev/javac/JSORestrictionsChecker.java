@@ -104,7 +104,7 @@ public class JSORestrictionsChecker {
 
     private final Map<String, String> interfacesToJsoImpls = new HashMap<String, String>();
 
-    public void addJsoInterface(TypeDeclaration jsoType,
+    public synchronized void addJsoInterface(TypeDeclaration jsoType,
         CompilationUnitDeclaration cud, ReferenceBinding interf) {
       String intfName = CharOperation.toString(interf.compoundName);
       String alreadyImplementor = interfacesToJsoImpls.get(intfName);
@@ -131,12 +131,12 @@ public class JSORestrictionsChecker {
       return true;
     }
 
-    public String getJsoImplementor(ReferenceBinding binding) {
+    public synchronized String getJsoImplementor(ReferenceBinding binding) {
       String name = CharOperation.toString(binding.compoundName);
       return interfacesToJsoImpls.get(name);
     }
 
-    public boolean isJsoInterface(ReferenceBinding binding) {
+    public synchronized boolean isJsoInterface(ReferenceBinding binding) {
       String name = CharOperation.toString(binding.compoundName);
       return interfacesToJsoImpls.containsKey(name);
     }
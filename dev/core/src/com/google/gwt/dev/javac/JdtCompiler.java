@@ -18,6 +18,7 @@ package com.google.gwt.dev.javac;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.CompilerContext;
+import com.google.gwt.dev.cfg.LibraryGroup;
 import com.google.gwt.dev.jdt.TypeRefVisitor;
 import com.google.gwt.dev.jjs.InternalCompilerException;
 import com.google.gwt.dev.jjs.ast.JDeclaredType;
@@ -91,6 +92,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -205,9 +207,19 @@ public class JdtCompiler {
   private static class Adapter implements ICompilationUnit {
 
     private final CompilationUnitBuilder builder;
+    private final boolean fromOtherBatch;
 
     public Adapter(CompilationUnitBuilder builder) {
+      this(builder, false);
+    }
+
+    /**
+     * @param fromOtherBatch whether the unit is compiled by another batch compiler, so that this
+     *          compiler only needs its declarations
+     */
+    public Adapter(CompilationUnitBuilder builder, boolean fromOtherBatch) {
       this.builder = builder;
+      this.fromOtherBatch = fromOtherBatch;
     }
 
     public CompilationUnitBuilder getBuilder() {
@@ -216,7 +228,8 @@ public class JdtCompiler {
 
     @Override
     public char[] getContents() {
-      return builder.getSource().toCharArray();
+      // The compiler of the other batch may free the cached source at any time.
+      return (fromOtherBatch ? builder.doGetSource() : builder.getSource()).toCharArray();
     }
 
     @Override
@@ -240,6 +253,10 @@ public class JdtCompiler {
       return false;
     }
 
+    public boolean isFromOtherBatch() {
+      return fromOtherBatch;
+    }
+
     @Override
     public String toString() {
       return builder.toString();
@@ -269,9 +286,10 @@ public class JdtCompiler {
     public CompilationUnitDeclaration parse(ICompilationUnit sourceUnit,
         CompilationResult compilationResult) {
       // Never dietParse(), otherwise GwtIncompatible annotations in anonymoous inner classes
-      // would be ignored.
+      // would be ignored. Units of other batches are never compiled here, so only their
+      // declarations matter.
       boolean saveDiet = this.diet;
-      this.diet = false;
+      this.diet = isFromOtherBatch(sourceUnit);
       CompilationUnitDeclaration decl = super.parse(sourceUnit, compilationResult);
       this.diet = saveDiet;
       if (removeGwtIncompatible) {
@@ -341,6 +359,11 @@ public class JdtCompiler {
 
     @Override
     public void process(CompilationUnitDeclaration cud, int i) {
+      if (isFromOtherBatch(cud.compilationResult().compilationUnit)) {
+        // Another batch compiler compiles this unit; it was only read to resolve references.
+        ((ParserImpl) parser).originalImportsByCud.removeAll(cud);
+        return;
+      }
       try {
         super.process(cud, i);
       } catch (AbortCompilation e) {
@@ -443,6 +466,13 @@ public class JdtCompiler {
         return null;
       }
 
+      // Prefer the source of units being compiled by other batches, so that the result doesn't
+      // depend on which batch finishes first.
+      NameEnvironmentAnswer otherBatchAnswer = findTypeInOtherBatches(internalName);
+      if (otherBatchAnswer != null) {
+        return otherBatchAnswer;
+      }
+
       NameEnvironmentAnswer cachedAnswer = findTypeInCache(internalName);
       if (cachedAnswer != null) {
         return cachedAnswer;
@@ -467,13 +497,22 @@ public class JdtCompiler {
       return null;
     }
 
+    private NameEnvironmentAnswer findTypeInOtherBatches(String internalName) {
+      CompilationUnitBuilder builder = otherBatchBuilders.get(internalName);
+      if (builder == null) {
+        return null;
+      }
+      return new NameEnvironmentAnswer(new Adapter(builder, true), null);
+    }
+
     private NameEnvironmentAnswer findTypeInCache(String internalName) {
-      if (!internalTypes.containsKey(internalName)) {
+      CompiledClass compiledClass = internalTypes.get(internalName);
+      if (compiledClass == null) {
         return null;
       }
 
       try {
-        return internalTypes.get(internalName).getNameEnvironmentAnswer();
+        return compiledClass.getNameEnvironmentAnswer();
       } catch (ClassFormatException ex) {
         return null;
       }
@@ -493,8 +532,12 @@ public class JdtCompiler {
     }
 
     private NameEnvironmentAnswer findTypeInLibraryGroup(String internalName) {
-      InputStream classFileStream =
-          compilerContext.getLibraryGroup().getClassFileStream(internalName);
+      InputStream classFileStream;
+      LibraryGroup libraryGroup = compilerContext.getLibraryGroup();
+      // Batch compilers share the library group, which indexes its libraries lazily.
+      synchronized (libraryGroup) {
+        classFileStream = libraryGroup.getClassFileStream(internalName);
+      }
       if (classFileStream == null) {
         return null;
       }
@@ -719,18 +762,24 @@ public class JdtCompiler {
   private AdditionalTypeProviderDelegate additionalTypeProviderDelegate;
 
   /**
-   * Maps internal names to compiled classes.
+   * Maps internal names to compiled classes. Shared with batch compilers.
    */
-  private final Map<String, CompiledClass> internalTypes = new HashMap<String, CompiledClass>();
+  private final Map<String, CompiledClass> internalTypes;
 
   /**
    * Only active during a compile.
    */
   private transient CompilerImpl compilerImpl;
 
-  private final Set<String> notPackages = new HashSet<String>();
+  private final Set<String> notPackages;
 
-  private final Set<String> packages = new HashSet<String>();
+  /**
+   * Maps the internal names of the main types of the units compiled by other batch compilers to
+   * their builders; empty unless this is a batch compiler.
+   */
+  private final Map<String, CompilationUnitBuilder> otherBatchBuilders;
+
+  private final Set<String> packages;
 
   private final UnitProcessor processor;
 
@@ -761,9 +810,21 @@ public class JdtCompiler {
           SourceLevel.JAVA8, ClassFileConstants.JDK1_8);
 
   public JdtCompiler(CompilerContext compilerContext, UnitProcessor processor) {
+    this(compilerContext, processor, new ConcurrentHashMap<String, CompiledClass>(),
+        newConcurrentSet(), newConcurrentSet(),
+        Collections.<String, CompilationUnitBuilder>emptyMap());
+  }
+
+  private JdtCompiler(CompilerContext compilerContext, UnitProcessor processor,
+      Map<String, CompiledClass> internalTypes, Set<String> packages, Set<String> notPackages,
+      Map<String, CompilationUnitBuilder> otherBatchBuilders) {
     this.compilerContext = compilerContext;
     this.processor = processor;
     this.sourceLevel = compilerContext.getOptions().getSourceLevel();
+    this.internalTypes = internalTypes;
+    this.packages = packages;
+    this.notPackages = notPackages;
+    this.otherBatchBuilders = otherBatchBuilders;
   }
 
   public void addCompiledUnit(CompilationUnit unit) {
@@ -771,6 +832,31 @@ public class JdtCompiler {
     addBinaryTypes(unit.getCompiledClasses());
   }
 
+  /**
+   * Returns a compiler for one of several batches of units that are compiled at the same time,
+   * each by its own thread. The batch compiler shares compiled classes and packages with this
+   * compiler. When a unit of its batch references a unit of another batch, it reads the source of
+   * that unit but leaves compiling it to the other batch compiler. Units in the same package must
+   * be compiled in the same batch, since package-private secondary types can't be found by name.
+   *
+   * @param processor the processor for the units of the batch, called on the compiling thread
+   * @param otherBatchBuilders the units of all other batches
+   */
+  JdtCompiler createBatchCompiler(UnitProcessor processor,
+      Collection<CompilationUnitBuilder> otherBatchBuilders) {
+    Map<String, CompilationUnitBuilder> otherBatchBuildersByInternalName =
+        new HashMap<String, CompilationUnitBuilder>();
+    for (CompilationUnitBuilder builder : otherBatchBuilders) {
+      // Register the packages up front, so that no batch concludes that they don't exist.
+      addPackages(Shared.getPackageName(builder.getTypeName()).replace('.', '/'));
+      otherBatchBuildersByInternalName.put(builder.getTypeName().replace('.', '/'), builder);
+    }
+    JdtCompiler batchCompiler = new JdtCompiler(compilerContext, processor, internalTypes,
+        packages, notPackages, otherBatchBuildersByInternalName);
+    batchCompiler.additionalTypeProviderDelegate = additionalTypeProviderDelegate;
+    return batchCompiler;
+  }
+
   public ArrayList<String> collectApiRefs(final CompilationUnitDeclaration cud) {
     final Set<String> apiRefs = new HashSet<String>();
     class DependencyVisitor extends TypeRefVisitor {
@@ -1042,6 +1128,14 @@ public class JdtCompiler {
     }
   }
 
+  private static boolean isFromOtherBatch(ICompilationUnit icu) {
+    return icu instanceof Adapter && ((Adapter) icu).isFromOtherBatch();
+  }
+
+  private static Set<String> newConcurrentSet() {
+    return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  }
+
   private static boolean caseSensitivePathExists(String resourcePath) {
     URL resourceURL = getClassLoader().getResource(resourcePath + '/');
     if (resourceURL == null) {
@@ -31,7 +31,9 @@ public class LibraryCompilationUnitTypeOracleUpdater extends CompilationUnitType
 
   public LibraryCompilationUnitTypeOracleUpdater(TypeOracle typeOracle,
       CompilerContext compilerContext) {
-    super(typeOracle);
+    // Types are already loaded on demand, and loading one while resolving the members of another
+    // would leave it unindexed, so members are always resolved eagerly.
+    super(typeOracle, false);
     this.compilerContext = compilerContext;
   }
 
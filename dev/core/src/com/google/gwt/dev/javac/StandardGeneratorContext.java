@@ -370,6 +370,21 @@ public class StandardGeneratorContext implements GeneratorContext {
     ResourceLocatorImpl.resetClassLoaderLoadWarningCount();
   }
 
+  /**
+   * Creates a context for running generators alongside those of {@code parent}.
+   */
+  private StandardGeneratorContext(StandardGeneratorContext parent) {
+    this.compilerContext = parent.compilerContext;
+    this.compilationState = parent.compilationState;
+    this.genDir = parent.genDir;
+    this.allGeneratedArtifacts = new ArtifactSet(parent.allGeneratedArtifacts);
+    this.isProdMode = parent.isProdMode;
+    this.generatorResultCachingEnabled = parent.generatorResultCachingEnabled;
+
+    this.buildResourceOracle =
+        new RecordingResourceOracle(compilerContext.getBuildResourceOracle());
+  }
+
   /**
    * Adds a generated unit to the context if not already present, but will not
    * overwrite an existing unit.
@@ -552,19 +567,43 @@ public class StandardGeneratorContext implements GeneratorContext {
       }
       return newlyGeneratedArtifacts;
     } finally {
+      warnAboutUncommittedUnits(logger);
+      reset();
+    }
+  }
 
-      // Remind the user if there uncommitted cups.
-      if (!uncommittedGeneratedCupsByPrintWriter.isEmpty()) {
-        String msg =
-            "For the following type(s), generated source was never committed (did you forget to call commit()?)";
-        logger = logger.branch(TreeLogger.WARN, msg, null);
+  /**
+   * Returns a new context in which generators can run on another thread while
+   * generators run in this one or in other forks. The fork sees the types and
+   * artifacts known to this context so far, but keeps the units and artifacts
+   * its generators commit to itself until they are added back to this context
+   * by {@link #join}. It must not be used once it has been joined.
+   * <p>
+   * Generators running in different forks don't see each other's output, so
+   * they may both generate a type or resource that only one of them would have
+   * generated had they run one after the other.
+   */
+  public StandardGeneratorContext fork() {
+    return new StandardGeneratorContext(this);
+  }
 
-        for (Generated unit : uncommittedGeneratedCupsByPrintWriter.values()) {
-          logger.log(TreeLogger.WARN, unit.getTypeName(), null);
-        }
+  /**
+   * Adds the units and artifacts committed in a context returned by
+   * {@link #fork} to this context, as if its generators had run in this one.
+   * Units of types that have already been generated, and resources that have
+   * already been created, are kept rather than replaced, so joining forks in a
+   * fixed order gives the same result however their generators were
+   * scheduled.
+   */
+  public void join(TreeLogger logger, StandardGeneratorContext fork) {
+    fork.abortUncommittedResources(logger);
+    fork.warnAboutUncommittedUnits(logger);
+    addGeneratedUnits(fork.committedGeneratedCups.values());
+    for (Artifact<?> artifact : fork.newlyGeneratedArtifacts) {
+      if (artifact instanceof GeneratedResource && newlyGeneratedArtifacts.contains(artifact)) {
+        continue;
       }
-
-      reset();
+      commitArtifact(logger, artifact);
     }
   }
 
@@ -949,6 +988,21 @@ public class StandardGeneratorContext implements GeneratorContext {
     return true;
   }
 
+  /**
+   * Reminds the user of any uncommitted cups.
+   */
+  private void warnAboutUncommittedUnits(TreeLogger logger) {
+    if (!uncommittedGeneratedCupsByPrintWriter.isEmpty()) {
+      String msg =
+          "For the following type(s), generated source was never committed (did you forget to call commit()?)";
+      logger = logger.branch(TreeLogger.WARN, msg, null);
+
+      for (Generated unit : uncommittedGeneratedCupsByPrintWriter.values()) {
+        logger.log(TreeLogger.WARN, unit.getTypeName(), null);
+      }
+    }
+  }
+
   private void abortUncommittedResources(TreeLogger logger) {
     if (pendingResources.isEmpty()) {
       // Nothing to do.
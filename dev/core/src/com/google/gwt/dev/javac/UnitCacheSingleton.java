@@ -28,6 +28,13 @@ public class UnitCacheSingleton {
   public static final String GWT_PERSISTENTUNITCACHE = "gwt.persistentunitcache";
   private static final String GWT_PERSISTENTUNITCACHEDIR = "gwt.persistentunitcachedir";
 
+  /**
+   * Selects the on-disk format of the persistent cache: "log" (the default)
+   * for {@link PersistentUnitCache} or "indexed" for
+   * {@link IndexedPersistentUnitCache}.
+   */
+  public static final String GWT_PERSISTENTUNITCACHEFORMAT = "gwt.persistentunitcacheformat";
+
   /**
    * The API must be enabled explicitly for persistent caching to be live.
    */
@@ -95,6 +102,9 @@ public class UnitCacheSingleton {
 
         if (actualCacheDir != null) {
           try {
+            if ("indexed".equals(System.getProperty(GWT_PERSISTENTUNITCACHEFORMAT))) {
+              return instance = new IndexedPersistentUnitCache(logger, actualCacheDir);
+            }
             return instance = new PersistentUnitCache(logger, actualCacheDir);
           } catch (UnableToCompleteException ignored) {
           }
@@ -34,14 +34,19 @@ class DelegateMembers extends AbstractMembers {
    * computed as lazily as possible. Many, many more parameterized types, raw
    * types, type bindings, or wilcard types can be created than real classes,
    * and computing anything up front would add runtime overhead and memory.
+   *
+   * The members are created while holding the monitor of the type oracle, so
+   * that threads asking at the same time get the same member objects. Each
+   * member array is published only once it has been filled in.
    */
 
   private final JClassType baseType;
+  private List<JConstructor> constructorsBeingInitialized;
   private Map<String, JField> fieldMap;
-  private JField[] fields;
-  private List<JConstructor> lazyConstructors;
+  private volatile JField[] fields;
+  private volatile List<JConstructor> lazyConstructors;
   private Map<String, Object> methodMap;
-  private JMethod[] methods;
+  private volatile JMethod[] methods;
   private final Substitution substitution;
 
   /**
@@ -102,22 +107,29 @@ class DelegateMembers extends AbstractMembers {
   @Override
   protected List<JConstructor> doGetConstructors() {
     if (lazyConstructors != null) {
-      /*
-       * Return if the constructors are being initialized or have been
-       * initialized.
-       */
       return lazyConstructors;
     }
-    lazyConstructors = new ArrayList<JConstructor>();
+    synchronized (getParentType().getOracle()) {
+      if (lazyConstructors != null) {
+        return lazyConstructors;
+      }
+      if (constructorsBeingInitialized != null) {
+        // Return if the constructors are being initialized by this thread.
+        return constructorsBeingInitialized;
+      }
+      List<JConstructor> constructors = new ArrayList<JConstructor>();
+      constructorsBeingInitialized = constructors;
+
+      JConstructor[] baseCtors = baseType.getConstructors();
+      for (JConstructor baseCtor : baseCtors) {
+        JConstructor newCtor = new JConstructor(getParentType(), baseCtor);
+        initializeParams(baseCtor, newCtor);
+        constructors.add(newCtor);
+      }
 
-    JConstructor[] baseCtors = baseType.getConstructors();
-    for (JConstructor baseCtor : baseCtors) {
-      JConstructor newCtor = new JConstructor(getParentType(), baseCtor);
-      initializeParams(baseCtor, newCtor);
-      lazyConstructors.add(newCtor);
+      constructorsBeingInitialized = null;
+      return lazyConstructors = Lists.normalize(constructors);
     }
-
-    return lazyConstructors = Lists.normalize(lazyConstructors);
   }
 
   @Override
@@ -130,17 +142,23 @@ class DelegateMembers extends AbstractMembers {
     if (fields != null) {
       return;
     }
-    // Transitively sorted.
-    fields = baseType.getFields();
-    fieldMap = new HashMap<String, JField>();
-    for (int i = 0; i < fields.length; ++i) {
-      JField baseField = fields[i];
-      JField newField = new JField(getParentType(), baseField);
-      newField.setType(substitute(baseField.getType()));
-      fields[i] = newField;
-      fieldMap.put(newField.getName(), newField);
+    synchronized (getParentType().getOracle()) {
+      if (fields != null) {
+        return;
+      }
+      // Transitively sorted.
+      JField[] newFields = baseType.getFields();
+      Map<String, JField> newFieldMap = new HashMap<String, JField>();
+      for (int i = 0; i < newFields.length; ++i) {
+        JField baseField = newFields[i];
+        JField newField = new JField(getParentType(), baseField);
+        newField.setType(substitute(baseField.getType()));
+        newFields[i] = newField;
+        newFieldMap.put(newField.getName(), newField);
+      }
+      fieldMap = Maps.normalize(newFieldMap);
+      fields = newFields;
     }
-    fieldMap = Maps.normalize(fieldMap);
   }
 
   private void initializeExceptions(JAbstractMethod srcMethod,
@@ -165,41 +183,47 @@ class DelegateMembers extends AbstractMembers {
     if (methods != null) {
       return;
     }
-    // Transitively sorted.
-    methods = baseType.getMethods();
-    methodMap = new HashMap<String, Object>();
-    for (int i = 0; i < methods.length; ++i) {
-      JMethod baseMethod = methods[i];
-      JMethod newMethod = new JMethod(getParentType(), baseMethod);
-      initializeParams(baseMethod, newMethod);
-      newMethod.setReturnType(substitute(baseMethod.getReturnType()));
-      initializeExceptions(baseMethod, newMethod);
-      methods[i] = newMethod;
-
-      String methodName = newMethod.getName();
-      Object object = methodMap.get(methodName);
-      if (object == null) {
-        methodMap.put(methodName, newMethod);
-      } else if (object instanceof JMethod) {
-        List<JMethod> list = new ArrayList<JMethod>(2);
-        list.add((JMethod) object);
-        list.add(newMethod);
-        methodMap.put(methodName, list);
-      } else {
-        List<JMethod> list = (List<JMethod>) object;
-        list.add(newMethod);
+    synchronized (getParentType().getOracle()) {
+      if (methods != null) {
+        return;
+      }
+      // Transitively sorted.
+      JMethod[] newMethods = baseType.getMethods();
+      Map<String, Object> newMethodMap = new HashMap<String, Object>();
+      for (int i = 0; i < newMethods.length; ++i) {
+        JMethod baseMethod = newMethods[i];
+        JMethod newMethod = new JMethod(getParentType(), baseMethod);
+        initializeParams(baseMethod, newMethod);
+        newMethod.setReturnType(substitute(baseMethod.getReturnType()));
+        initializeExceptions(baseMethod, newMethod);
+        newMethods[i] = newMethod;
+
+        String methodName = newMethod.getName();
+        Object object = newMethodMap.get(methodName);
+        if (object == null) {
+          newMethodMap.put(methodName, newMethod);
+        } else if (object instanceof JMethod) {
+          List<JMethod> list = new ArrayList<JMethod>(2);
+          list.add((JMethod) object);
+          list.add(newMethod);
+          newMethodMap.put(methodName, list);
+        } else {
+          List<JMethod> list = (List<JMethod>) object;
+          list.add(newMethod);
+        }
       }
-    }
 
-    // Replace the ArrayLists with plain arrays.
-    for (String methodName : methodMap.keySet()) {
-      Object object = methodMap.get(methodName);
-      if (object instanceof List) {
-        List<JMethod> list = (List<JMethod>) object;
-        methodMap.put(methodName, list.toArray(TypeOracle.NO_JMETHODS));
+      // Replace the ArrayLists with plain arrays.
+      for (String methodName : newMethodMap.keySet()) {
+        Object object = newMethodMap.get(methodName);
+        if (object instanceof List) {
+          List<JMethod> list = (List<JMethod>) object;
+          newMethodMap.put(methodName, list.toArray(TypeOracle.NO_JMETHODS));
+        }
       }
+      methodMap = Maps.normalize(newMethodMap);
+      methods = newMethods;
     }
-    methodMap = Maps.normalize(methodMap);
   }
 
   private JType substitute(JType type) {
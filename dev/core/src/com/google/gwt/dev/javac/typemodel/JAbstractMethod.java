@@ -39,7 +39,7 @@ public abstract class JAbstractMethod implements
 
   private List<JParameter> params = Lists.create();
 
-  private String[] realParameterNames = null;
+  private volatile String[] realParameterNames = null;
 
   private List<JClassType> thrownTypes = Lists.create();
 
@@ -255,18 +255,19 @@ public abstract class JAbstractMethod implements
 
   // Called only by a JParameter, passing itself as a reference for lookup.
   String getRealParameterName(JParameter parameter) {
-    if (realParameterNames == null) {
-      fetchRealParameterNames();
+    String[] names = realParameterNames;
+    if (names == null) {
+      names = fetchRealParameterNames();
     }
     int n = params.size();
     for (int i = 0; i < n; ++i) {
       // Identity tests are ok since identity is durable within an oracle.
       if (params.get(i) == parameter) {
         String realParameterName;
-        if (realParameterNames == null) {
+        if (names == null) {
           realParameterName = StringInterner.get().intern("arg" + i);
         } else {
-          realParameterName = StringInterner.get().intern(realParameterNames[i]);
+          realParameterName = StringInterner.get().intern(names[i]);
         }
         return realParameterName;
       }
@@ -295,8 +296,9 @@ public abstract class JAbstractMethod implements
     isVarArgs = true;
   }
 
-  private void fetchRealParameterNames() {
-    realParameterNames = getEnclosingType().getOracle().getJavaSourceParser().getArguments(
-        this);
+  private String[] fetchRealParameterNames() {
+    String[] names = getEnclosingType().getOracle().getJavaSourceParser().getArguments(this);
+    realParameterNames = names;
+    return names;
   }
 }
@@ -32,11 +32,11 @@ public class JArrayType extends JClassType implements
 
   private JType componentType;
 
-  private String lazyQualifiedBinaryName;
+  private volatile String lazyQualifiedBinaryName;
 
-  private String lazyQualifiedName;
+  private volatile String lazyQualifiedName;
 
-  private String lazySimpleName;
+  private volatile String lazySimpleName;
 
   private final TypeOracle oracle;
 
@@ -196,19 +196,22 @@ public class JArrayType extends JClassType implements
 
   @Override
   public String getQualifiedBinaryName() {
-    if (lazyQualifiedBinaryName == null) {
-      lazyQualifiedBinaryName = "["
-          + getComponentType().getQualifiedBinaryName();
+    String qualifiedBinaryName = lazyQualifiedBinaryName;
+    if (qualifiedBinaryName == null) {
+      qualifiedBinaryName = "[" + getComponentType().getQualifiedBinaryName();
+      lazyQualifiedBinaryName = qualifiedBinaryName;
     }
-    return lazyQualifiedBinaryName;
+    return qualifiedBinaryName;
   }
 
   @Override
   public String getQualifiedSourceName() {
-    if (lazyQualifiedName == null) {
-      lazyQualifiedName = getComponentType().getQualifiedSourceName() + "[]";
+    String qualifiedName = lazyQualifiedName;
+    if (qualifiedName == null) {
+      qualifiedName = getComponentType().getQualifiedSourceName() + "[]";
+      lazyQualifiedName = qualifiedName;
     }
-    return lazyQualifiedName;
+    return qualifiedName;
   }
 
   @Override
@@ -223,11 +226,12 @@ public class JArrayType extends JClassType implements
 
   @Override
   public String getSimpleSourceName() {
-    if (lazySimpleName == null) {
-      lazySimpleName = StringInterner.get().intern(
-          getComponentType().getSimpleSourceName() + "[]");
+    String simpleName = lazySimpleName;
+    if (simpleName == null) {
+      simpleName = StringInterner.get().intern(getComponentType().getSimpleSourceName() + "[]");
+      lazySimpleName = simpleName;
     }
-    return lazySimpleName;
+    return simpleName;
   }
 
   @Override
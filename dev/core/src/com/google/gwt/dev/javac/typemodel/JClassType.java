@@ -44,10 +44,11 @@ public abstract class JClassType implements
       JClassType type) {
     Set<JClassType> flattened = type.flattenedSupertypes;
     if (flattened == null) {
-      flattened = new LinkedHashSet<JClassType>();
-      getFlattenedSuperTypeHierarchyRecursive(type, flattened);
+      Set<JClassType> supertypes = new LinkedHashSet<JClassType>();
+      getFlattenedSuperTypeHierarchyRecursive(type, supertypes);
       // flattened.size() > 1 for all types other than Object
-      type.flattenedSupertypes = Collections.unmodifiableSet(flattened);
+      flattened = Collections.unmodifiableSet(supertypes);
+      type.flattenedSupertypes = flattened;
     }
     return flattened;
   }
@@ -74,9 +75,10 @@ public abstract class JClassType implements
 
   /**
    * Cached set of supertypes for this type (including itself). If null, the set
-   * has not been calculated yet.
+   * has not been calculated yet. Generators may run concurrently, so the set is
+   * only published once complete; racing threads compute equal sets.
    */
-  private Set<JClassType> flattenedSupertypes;
+  private volatile Set<JClassType> flattenedSupertypes;
 
   /**
    * True if this type may be enhanced with server-only fields. This property is
@@ -23,7 +23,7 @@ import java.util.List;
  */
 public class JEnumType extends JRealClassType implements
     com.google.gwt.core.ext.typeinfo.JEnumType {
-  private JEnumConstant[] lazyEnumConstants;
+  private volatile JEnumConstant[] lazyEnumConstants;
 
   JEnumType(TypeOracle oracle, JPackage declaringPackage,
       String enclosingSimpleName, String simpleName, String location) {
@@ -37,18 +37,20 @@ public class JEnumType extends JRealClassType implements
    */
   @Override
   public JEnumConstant[] getEnumConstants() {
-    if (lazyEnumConstants == null) {
-      List<JEnumConstant> enumConstants = new ArrayList<JEnumConstant>();
+    JEnumConstant[] enumConstants = lazyEnumConstants;
+    if (enumConstants == null) {
+      List<JEnumConstant> constants = new ArrayList<JEnumConstant>();
       for (JField field : getFields()) {
         if (field.isEnumConstant() != null) {
-          enumConstants.add(field.isEnumConstant());
+          constants.add(field.isEnumConstant());
         }
       }
 
-      lazyEnumConstants = enumConstants.toArray(new JEnumConstant[enumConstants.size()]);
+      enumConstants = constants.toArray(new JEnumConstant[constants.size()]);
+      lazyEnumConstants = enumConstants;
     }
 
-    return lazyEnumConstants;
+    return enumConstants;
   }
 
   @Override
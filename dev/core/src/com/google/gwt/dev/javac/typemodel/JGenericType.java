@@ -26,7 +26,7 @@ import java.util.List;
 public class JGenericType extends JRealClassType implements
     com.google.gwt.core.ext.typeinfo.JGenericType {
 
-  private JRawType lazyRawType = null;
+  private volatile JRawType lazyRawType = null;
 
   private List<JTypeParameter> typeParams = Lists.create();
 
@@ -86,7 +86,11 @@ public class JGenericType extends JRealClassType implements
   @Override
   public JRawType getRawType() {
     if (lazyRawType == null) {
-      lazyRawType = new JRawType(this);
+      synchronized (getOracle()) {
+        if (lazyRawType == null) {
+          lazyRawType = new JRawType(this);
+        }
+      }
     }
 
     return lazyRawType;
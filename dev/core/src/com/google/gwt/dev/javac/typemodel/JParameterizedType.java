@@ -72,15 +72,15 @@ public class JParameterizedType extends JMaybeParameterizedType implements
 
   private final JClassType enclosingType;
 
-  private List<JClassType> interfaces;
+  private volatile List<JClassType> interfaces;
 
   /**
    * This map records the JClassType that should be used in place of a given
    * {@link JTypeParameter}.
    */
-  private Map<JTypeParameter, JClassType> lazySubstitutionMap;
+  private volatile Map<JTypeParameter, JClassType> lazySubstitutionMap;
 
-  private JClassType lazySuperclass;
+  private volatile JClassType lazySuperclass;
 
   private final AbstractMembers members;
 
@@ -157,14 +157,16 @@ public class JParameterizedType extends JMaybeParameterizedType implements
 
   @Override
   public JClassType[] getImplementedInterfaces() {
+    List<JClassType> interfaces = this.interfaces;
     if (interfaces == null) {
+      // Built before being published, since other threads may be asking too.
       interfaces = new ArrayList<JClassType>();
       JClassType[] intfs = getBaseType().getImplementedInterfaces();
       for (JClassType intf : intfs) {
         JClassType newIntf = intf.getSubstitutedType(this);
         interfaces.add(newIntf);
       }
-      interfaces = Lists.normalize(interfaces);
+      interfaces = this.interfaces = Lists.normalize(interfaces);
     }
     return interfaces.toArray(TypeOracle.NO_JCLASSES);
   }
@@ -436,7 +438,8 @@ public class JParameterizedType extends JMaybeParameterizedType implements
     if (lazySubstitutionMap != null) {
       return;
     }
-    lazySubstitutionMap = new IdentityHashMap<JTypeParameter, JClassType>();
+    Map<JTypeParameter, JClassType> substitutionMap =
+        new IdentityHashMap<JTypeParameter, JClassType>();
 
     JParameterizedType currentParameterizedType = this;
 
@@ -446,7 +449,7 @@ public class JParameterizedType extends JMaybeParameterizedType implements
       JClassType[] typeArguments = currentParameterizedType.getTypeArgs();
 
       for (JTypeParameter typeParameter : typeParameters) {
-        lazySubstitutionMap.put(typeParameter,
+        substitutionMap.put(typeParameter,
             typeArguments[typeParameter.getOrdinal()]);
       }
 
@@ -461,7 +464,7 @@ public class JParameterizedType extends JMaybeParameterizedType implements
       }
       currentParameterizedType = maybeParameterizedType.isParameterized();
     }
-    lazySubstitutionMap = Maps.normalize(lazySubstitutionMap);
+    lazySubstitutionMap = Maps.normalize(substitutionMap);
   }
 
   void setTypeArguments(JClassType[] typeArgs) {
@@ -34,7 +34,7 @@ public class JRawType extends JMaybeParameterizedType implements
     }
   };
 
-  private List<JClassType> interfaces;
+  private volatile List<JClassType> interfaces;
 
   private final AbstractMembers members;
 
@@ -96,6 +96,7 @@ public class JRawType extends JMaybeParameterizedType implements
 
   @Override
   public JClassType[] getImplementedInterfaces() {
+    List<JClassType> interfaces = this.interfaces;
     if (interfaces == null) {
       interfaces = new ArrayList<JClassType>();
       JClassType[] intfs = getBaseType().getImplementedInterfaces();
@@ -103,6 +104,7 @@ public class JRawType extends JMaybeParameterizedType implements
         JClassType newIntf = intf.getErasedType();
         interfaces.add(newIntf);
       }
+      this.interfaces = interfaces;
     }
     return interfaces.toArray(TypeOracle.NO_JCLASSES);
   }
@@ -48,9 +48,15 @@ public class JRealClassType extends JClassType implements
 
   private final boolean isInterface;
 
-  private String lazyQualifiedBinaryName;
+  private volatile String lazyQualifiedBinaryName;
 
-  private String lazyQualifiedName;
+  private volatile String lazyQualifiedName;
+
+  /**
+   * Resolves the members and declared annotations of this type the first time they are needed, or
+   * null if they have been resolved already.
+   */
+  private volatile Runnable lazyMemberResolver;
 
   private final Members members = new Members(this);
 
@@ -121,16 +127,19 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public JConstructor findConstructor(JType[] paramTypes) {
+    ensureMembersResolved();
     return members.findConstructor(paramTypes);
   }
 
   @Override
   public JField findField(String name) {
+    ensureMembersResolved();
     return members.findField(name);
   }
 
   @Override
   public JMethod findMethod(String name, JType[] paramTypes) {
+    ensureMembersResolved();
     return members.findMethod(name, paramTypes);
   }
 
@@ -141,26 +150,31 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public <T extends Annotation> T getAnnotation(Class<T> annotationClass) {
+    ensureAnnotationsResolved();
     return annotations.getAnnotation(annotationClass);
   }
 
   @Override
   public Annotation[] getAnnotations() {
+    ensureAnnotationsResolved();
     return annotations.getAnnotations();
   }
 
   @Override
   public JConstructor getConstructor(JType[] paramTypes) throws NotFoundException {
+    ensureMembersResolved();
     return members.getConstructor(paramTypes);
   }
 
   @Override
   public JConstructor[] getConstructors() {
+    ensureMembersResolved();
     return members.getConstructors();
   }
 
   @Override
   public Annotation[] getDeclaredAnnotations() {
+    ensureMembersResolved();
     return annotations.getDeclaredAnnotations();
   }
 
@@ -176,11 +190,13 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public JField getField(String name) {
+    ensureMembersResolved();
     return members.getField(name);
   }
 
   @Override
   public JField[] getFields() {
+    ensureMembersResolved();
     return members.getFields();
   }
 
@@ -191,6 +207,7 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public JMethod[] getInheritableMethods() {
+    ensureMembersResolved();
     return members.getInheritableMethods();
   }
 
@@ -216,11 +233,13 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public JMethod getMethod(String name, JType[] paramTypes) throws NotFoundException {
+    ensureMembersResolved();
     return members.getMethod(name, paramTypes);
   }
 
   @Override
   public JMethod[] getMethods() {
+    ensureMembersResolved();
     return members.getMethods();
   }
 
@@ -246,11 +265,13 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public JMethod[] getOverloads(String name) {
+    ensureMembersResolved();
     return members.getOverloads(name);
   }
 
   @Override
   public JMethod[] getOverridableMethods() {
+    ensureMembersResolved();
     return members.getOverridableMethods();
   }
 
@@ -261,29 +282,34 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public String getQualifiedBinaryName() {
-    if (lazyQualifiedBinaryName == null) {
-      lazyQualifiedBinaryName = "";
+    String qualifiedBinaryName = lazyQualifiedBinaryName;
+    if (qualifiedBinaryName == null) {
+      // Built in a local, so that concurrent generators never see a partial name.
+      qualifiedBinaryName = "";
       JPackage pkg = getPackage();
       if (!pkg.isDefault()) {
-        lazyQualifiedBinaryName = pkg.getName() + ".";
+        qualifiedBinaryName = pkg.getName() + ".";
       }
-      lazyQualifiedBinaryName += nestedSourceName.replace('.', '$');
+      qualifiedBinaryName += nestedSourceName.replace('.', '$');
+      lazyQualifiedBinaryName = qualifiedBinaryName;
     }
-    return lazyQualifiedBinaryName;
+    return qualifiedBinaryName;
   }
 
   @Override
   public String getQualifiedSourceName() {
-    if (lazyQualifiedName == null) {
+    String qualifiedName = lazyQualifiedName;
+    if (qualifiedName == null) {
       JPackage pkg = getPackage();
       if (!pkg.isDefault()) {
-        lazyQualifiedName = pkg.getName() + "." + nestedSourceName;
+        qualifiedName = pkg.getName() + "." + nestedSourceName;
       } else {
-        lazyQualifiedName = nestedSourceName;
+        qualifiedName = nestedSourceName;
       }
-      lazyQualifiedName = StringInterner.get().intern(lazyQualifiedName);
+      qualifiedName = StringInterner.get().intern(qualifiedName);
+      lazyQualifiedName = qualifiedName;
     }
-    return lazyQualifiedName;
+    return qualifiedName;
   }
 
   @Override
@@ -308,6 +334,7 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
+    ensureAnnotationsResolved();
     return annotations.isAnnotationPresent(annotationClass);
   }
 
@@ -469,6 +496,7 @@ public class JRealClassType extends JClassType implements
   @Override
   protected void getInheritableMethodsOnSuperclassesAndThisClass(
       Map<String, JMethod> methodsBySignature) {
+    ensureMembersResolved();
     members.getInheritableMethodsOnSuperclassesAndThisClass(methodsBySignature);
   }
 
@@ -483,6 +511,7 @@ public class JRealClassType extends JClassType implements
   @Override
   protected void getInheritableMethodsOnSuperinterfacesAndMaybeThisInterface(
       Map<String, JMethod> methodsBySignature) {
+    ensureMembersResolved();
     members.getInheritableMethodsOnSuperinterfacesAndMaybeThisInterface(methodsBySignature);
   }
 
@@ -546,6 +575,10 @@ public class JRealClassType extends JClassType implements
     removeSubtype(this);
   }
 
+  void setLazyMemberResolver(Runnable lazyMemberResolver) {
+    this.lazyMemberResolver = lazyMemberResolver;
+  }
+
   void setEnclosingType(JClassType enclosingType) {
     assert this.enclosingType == null;
     assert enclosingType != null;
@@ -565,16 +598,35 @@ public class JRealClassType extends JClassType implements
     assert (type != null);
     assert (isInterface() == null);
     this.superclass = type;
-    JRealClassType realSuperType;
+    annotations.setParent(getRealType(type).annotations);
+  }
+
+  private static JRealClassType getRealType(JClassType type) {
     if (type.isParameterized() != null) {
-      realSuperType = type.isParameterized().getBaseType();
+      return type.isParameterized().getBaseType();
     } else if (type.isRawType() != null) {
-      realSuperType = type.isRawType().getGenericType();
+      return type.isRawType().getGenericType();
     } else if (type instanceof JRealClassType) {
-      realSuperType = (JRealClassType) type;
+      return (JRealClassType) type;
     } else {
       throw new IllegalArgumentException("Unknown type for " + type);
     }
-    annotations.setParent(realSuperType.annotations);
+  }
+
+  /**
+   * Annotations are inherited from superclasses, so their members must be resolved too.
+   */
+  private void ensureAnnotationsResolved() {
+    ensureMembersResolved();
+    if (superclass != null) {
+      getRealType(superclass).ensureAnnotationsResolved();
+    }
+  }
+
+  private void ensureMembersResolved() {
+    Runnable resolver = lazyMemberResolver;
+    if (resolver != null) {
+      resolver.run();
+    }
   }
 }
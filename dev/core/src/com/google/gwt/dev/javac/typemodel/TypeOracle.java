@@ -63,7 +63,12 @@ import java.util.Set;
  * </pre>
  *
  * </p>
- *
+ * <p>
+ * Once built, a type oracle may be queried from several threads at once, as
+ * generators running concurrently do. Types and members that are created on
+ * demand are created while holding the monitor of the oracle, which keeps
+ * their identity stable.
+ * </p>
  */
 public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
 
@@ -310,6 +315,12 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
    */
   private final Set<JClassType> jsoDualImpls = Sets.newHashSet();
 
+  /**
+   * The source names of the types that the current thread looked up and didn't
+   * find, while it records them.
+   */
+  private final ThreadLocal<Set<String>> missingTypeNames = new ThreadLocal<Set<String>>();
+
   /**
    * Cached map of all packages thus far encountered.
    */
@@ -370,7 +381,11 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
   @Override
   public JClassType findType(String name) {
     assert Name.isSourceName(name) : name + " is not a source name";
-    return allTypes.get(name);
+    JClassType type = allTypes.get(name);
+    if (type == null) {
+      recordMissingType(name);
+    }
+    return type;
   }
 
   /**
@@ -389,6 +404,7 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
         return type;
       }
     }
+    recordMissingType(pkgName.isEmpty() ? typeName : pkgName + "." + typeName);
     return null;
   }
 
@@ -402,7 +418,7 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
    * @return a type object representing an array of the component type
    */
   @Override
-  public JArrayType getArrayType(JType componentType) {
+  public synchronized JArrayType getArrayType(JType componentType) {
     JArrayType arrayType = arrayTypes.get(componentType);
     if (arrayType == null) {
       arrayType = new JArrayType(componentType, this);
@@ -499,7 +515,7 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
    * @throws NullPointerException if genericType is <code>null</code>
    */
   @Override
-  public JParameterizedType getParameterizedType(
+  public synchronized JParameterizedType getParameterizedType(
       com.google.gwt.core.ext.typeinfo.JGenericType extGenericType,
       com.google.gwt.core.ext.typeinfo.JClassType extEnclosingType,
       com.google.gwt.core.ext.typeinfo.JClassType[] extTypeArgs) {
@@ -650,7 +666,7 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
   }
 
   @Override
-  public JWildcardType getWildcardType(
+  public synchronized JWildcardType getWildcardType(
       com.google.gwt.core.ext.typeinfo.JWildcardType.BoundType boundType,
       com.google.gwt.core.ext.typeinfo.JClassType extTypeBound) {
     // Special case for <? extends Object>
@@ -707,6 +723,26 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
     return parseImpl(type);
   }
 
+  /**
+   * Starts recording the names of the types that the current thread looks up
+   * and doesn't find. Generators that run at the same time use this to tell
+   * whether one of them looked for a type that another one generated.
+   */
+  public void startRecordingMissingTypes() {
+    missingTypeNames.set(Sets.<String>newHashSet());
+  }
+
+  /**
+   * Stops recording on the current thread and returns the source names of the
+   * types it looked up and didn't find since
+   * {@link #startRecordingMissingTypes}.
+   */
+  public Set<String> stopRecordingMissingTypes() {
+    Set<String> typeNames = missingTypeNames.get();
+    missingTypeNames.remove();
+    return typeNames == null ? Collections.<String>emptySet() : typeNames;
+  }
+
   public void addNewType(JRealClassType newType) {
     String fqcn = newType.getQualifiedSourceName();
     assert !allTypes.containsKey(fqcn) : "TypeOracle already contains " + fqcn;
@@ -1019,4 +1055,11 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
     JClassType[] typeArgs = typeArgList.toArray(new JClassType[typeArgList.size()]);
     return typeArgs;
   }
+
+  private void recordMissingType(String name) {
+    Set<String> typeNames = missingTypeNames.get();
+    if (typeNames != null) {
+      typeNames.add(name);
+    }
+  }
 }
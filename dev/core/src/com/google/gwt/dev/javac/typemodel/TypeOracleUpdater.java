@@ -131,6 +131,10 @@ public class TypeOracleUpdater {
     jfield.setType(fieldType);
   }
 
+  protected void setLazyMemberResolver(JRealClassType type, Runnable lazyMemberResolver) {
+    type.setLazyMemberResolver(lazyMemberResolver);
+  }
+
   protected void setReturnType(JAbstractMethod method, JType returnType) {
     ((JMethod) method).setReturnType(returnType);
   }
@@ -20,12 +20,21 @@ import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.javac.CompilationState;
 import com.google.gwt.dev.javac.StandardGeneratorContext;
 
+import java.util.Collection;
+
 /**
  * Abstract the process of determining all of the possible deferred binding
  * answers for a given type.
  */
 public interface RebindPermutationOracle {
 
+  /**
+   * Returns whether {@link #prepareRebindAnswers} runs the generators of
+   * several types at once, which makes it worth finding out ahead of time
+   * which types are going to be rebound.
+   */
+  boolean canPrepareRebindAnswers();
+
   /**
    * Called when the compiler is done with this oracle, so memory can be freed
    * up. After calling this method, the only legal method to call is
@@ -54,4 +63,13 @@ public interface RebindPermutationOracle {
    * Returns the StandardGeneratorContext.
    */
   StandardGeneratorContext getGeneratorContext();
+
+  /**
+   * Rebinds types that {@link #getAllPossibleRebindAnswers} is going to be
+   * asked about, so that their answers are ready by then, and adds the units
+   * their generators create to the compilation state. Types that have been
+   * rebound already are skipped. Failures are reported when the answer is
+   * asked for.
+   */
+  void prepareRebindAnswers(TreeLogger logger, Collection<String> sourceTypeNames);
 }
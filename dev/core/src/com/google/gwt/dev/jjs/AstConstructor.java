@@ -35,6 +35,8 @@ import com.google.gwt.dev.jjs.impl.codesplitter.CodeSplitters;
 import com.google.gwt.dev.jjs.impl.codesplitter.ReplaceRunAsyncs;
 import com.google.gwt.dev.js.ast.JsProgram;
 
+import java.util.Collection;
+
 /**
  * Constructs a full Java AST from source.
  */
@@ -54,6 +56,11 @@ public class AstConstructor {
         .minimalRebuildCache(new NullRebuildCache()).build();
 
     RebindPermutationOracle rpo = new RebindPermutationOracle() {
+      @Override
+      public boolean canPrepareRebindAnswers() {
+        return false;
+      }
+
       @Override
       public void clear() {
       }
@@ -73,6 +80,10 @@ public class AstConstructor {
       public StandardGeneratorContext getGeneratorContext() {
         return null;
       }
+
+      @Override
+      public void prepareRebindAnswers(TreeLogger logger, Collection<String> sourceTypeNames) {
+      }
     };
 
     JProgram jprogram = new JProgram(compilerContext.getMinimalRebuildCache());
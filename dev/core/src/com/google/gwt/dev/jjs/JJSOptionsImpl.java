@@ -60,6 +60,7 @@ public class JJSOptionsImpl implements JJSOptions, Serializable {
   private OptionMethodNameDisplayMode.Mode methodNameDisplayMode =
       OptionMethodNameDisplayMode.Mode.NONE;
   private boolean closureFormatEnabled = false;
+  private boolean safeLongsEnabled = false;
 
   public JJSOptionsImpl() {
   }
@@ -99,6 +100,7 @@ public class JJSOptionsImpl implements JJSOptions, Serializable {
     setUseDetailedTypeIds(other.useDetailedTypeIds());
     setMethodNameDisplayMode(other.getMethodNameDisplayMode());
     setClosureCompilerFormatEnabled(other.isClosureCompilerFormatEnabled());
+    setSafeLongsEnabled(other.isSafeLongsEnabled());
   }
 
   @Override
@@ -419,4 +421,14 @@ public class JJSOptionsImpl implements JJSOptions, Serializable {
   public void setClosureCompilerFormatEnabled(boolean enabled) {
     closureFormatEnabled = enabled;
   }
+
+  @Override
+  public boolean isSafeLongsEnabled() {
+    return safeLongsEnabled;
+  }
+
+  @Override
+  public void setSafeLongsEnabled(boolean enabled) {
+    safeLongsEnabled = enabled;
+  }
 }
@@ -89,6 +89,7 @@ import com.google.gwt.dev.jjs.impl.RecordRebinds;
 import com.google.gwt.dev.jjs.impl.ReplaceDefenderMethodReferences;
 import com.google.gwt.dev.jjs.impl.ResolveRebinds;
 import com.google.gwt.dev.jjs.impl.ResolveRuntimeTypeReferences.TypeMapper;
+import com.google.gwt.dev.jjs.impl.SafeLongNormalizer;
 import com.google.gwt.dev.jjs.impl.SameParameterValueOptimizer;
 import com.google.gwt.dev.jjs.impl.SourceInfoCorrelator;
 import com.google.gwt.dev.jjs.impl.TypeRefDepsChecker;
@@ -229,8 +230,8 @@ public abstract class JavaToJavaScriptCompiler {
     public PermutationResult compilePermutation(UnifiedAst unifiedAst)
         throws UnableToCompleteException {
       Event jjsCompilePermutationEvent = SpeedTracerLogger.start(
-          CompilerEventType.JJS_COMPILE_PERMUTATION, "name", permutation.getProps().prettyPrint()
-      );
+          CompilerEventType.JJS_COMPILE_PERMUTATION, "name", permutation.getProps().prettyPrint(),
+          "id", Integer.toString(permutation.getId()));
       /*
        * Do not introduce any new pass here unless it is logically a part of one of the 9 defined
        * stages and is physically located in that stage.
@@ -796,7 +797,7 @@ public abstract class JavaToJavaScriptCompiler {
         // Save the stats to print out after optimizers finish.
         allOptimizerStats.add(stats);
 
-        optimizeJsEvent.end();
+        optimizeJsEvent.end(stats.toEventData());
         if ((optimizationLevel < OptionOptimize.OPTIMIZE_LEVEL_MAX && counter > optimizationLevel)
             || !stats.didChange()) {
           break;
@@ -975,6 +976,9 @@ public abstract class JavaToJavaScriptCompiler {
         ReplaceDefenderMethodReferences.exec(jprogram);
 
         FixAssignmentsToUnboxOrCast.exec(jprogram);
+        if (options.isSafeLongsEnabled()) {
+          SafeLongNormalizer.exec(jprogram);
+        }
         if (options.isEnableAssertions()) {
           AssertionNormalizer.exec(jprogram);
         } else {
@@ -1528,7 +1532,7 @@ public abstract class JavaToJavaScriptCompiler {
     if (options.shouldOrdinalizeEnums()) {
       stats.add(EnumOrdinalizer.exec(jprogram, optimizerCtx).recordVisits(numNodes));
     }
-    optimizeEvent.end();
+    optimizeEvent.end(stats.toEventData());
     return stats;
   }
 
@@ -19,6 +19,8 @@ import com.google.gwt.dev.jjs.Correlation.Axis;
 import com.google.gwt.dev.jjs.CorrelationFactory.DummyCorrelationFactory;
 import com.google.gwt.dev.util.StringInterner;
 import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.collect.Interner;
+import com.google.gwt.thirdparty.guava.common.collect.Interners;
 
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -61,11 +63,21 @@ public class SourceOrigin implements SourceInfo {
   }
 
   public static final SourceOrigin UNKNOWN = new SourceOrigin("Unknown", 0) {
-    private Object readResolve() {
+    @Override
+    protected Object readResolve() {
       return UNKNOWN;
     }
   };
 
+  /**
+   * Shares deserialized origins between the copies of an AST that are
+   * deserialized for each permutation. Origins are immutable, so every copy
+   * after the first can reuse the origins of the first instead of holding its
+   * own.
+   */
+  private static final Interner<SourceOrigin> DESERIALIZED_SOURCE_ORIGINS =
+      Interners.newWeakInterner();
+
   /**
    * Cache to reuse recently-created origins. This is very useful for JS nodes,
    * since {@link com.google.gwt.dev.js.JsParser} currently only provides line
@@ -126,6 +138,10 @@ public class SourceOrigin implements SourceInfo {
   public void addCorrelation(Correlation c) {
   }
 
+  protected Object readResolve() {
+    return DESERIALIZED_SOURCE_ORIGINS.intern(this);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (!(o instanceof SourceOrigin)) {
@@ -186,6 +186,15 @@ public class UnifiedAst implements Serializable {
     return precompilationMetrics;
   }
 
+  /**
+   * Returns the size in bytes of the serialized AST that each permutation
+   * starts from, or -1 if it was not serialized because there is only one
+   * permutation.
+   */
+  public long getSerializedAstSize() {
+    return serializedAstToken < 0 ? -1 : diskCache.getLength(serializedAstToken);
+  }
+
   /**
    * Returns the set of live rebind requests in the AST.
    */
@@ -50,6 +50,7 @@ public class JMethod extends JNode implements HasEnclosingType, HasName, HasType
   private boolean noExport = false;
   private boolean inliningAllowed = true;
   private boolean hasSideEffects = true;
+  private boolean safeLongs = false;
   private boolean defaultMethod = false;
 
   public boolean isNoExport() {
@@ -119,6 +120,18 @@ public class JMethod extends JNode implements HasEnclosingType, HasName, HasType
     this.hasSideEffects = hasSideEffects;
   }
 
+  /**
+   * Returns whether the long values computed in this method are known to fit in a double, see
+   * {@link com.google.gwt.core.client.SafeLong}.
+   */
+  public boolean hasSafeLongs() {
+    return safeLongs;
+  }
+
+  public void setSafeLongs(boolean safeLongs) {
+    this.safeLongs = safeLongs;
+  }
+
   public void setDefaultMethod() {
     this.defaultMethod = true;
   }
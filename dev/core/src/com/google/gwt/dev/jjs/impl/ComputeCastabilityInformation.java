@@ -124,15 +124,18 @@ public class ComputeCastabilityInformation {
           return;
         }
 
-        // element type being final means the assignment is statically correct
-        if (elementType.isFinal()) {
+        // element type being final means the assignment is statically correct, as long as the
+        // rhs is known to be of that type; otherwise ArrayNormalizer still emits a store check
+        if (elementType.isFinal() && typeOracle.canTriviallyCast(
+            (JReferenceType) x.getRhs().getType(), (JReferenceType) elementType)) {
           return;
         }
 
         /*
          * For every instantiated array type that could -in theory- be the
          * runtime type of the lhs, we must record a cast from the rhs to the
-         * prospective element type of the lhs.
+         * prospective element type of the lhs. The store check queries the
+         * element type at runtime, so even casts that are trivial here are needed.
          */
         JType rhsType = x.getRhs().getType();
         assert (rhsType instanceof JReferenceType);
@@ -141,8 +144,9 @@ public class ComputeCastabilityInformation {
         for (JArrayType arrayType : instantiatedArrayTypes) {
           if (typeOracle.canTheoreticallyCast(arrayType, lhsArrayType)) {
             JType itElementType = arrayType.getElementType();
-            if (itElementType instanceof JReferenceType) {
-              recordCast(itElementType, x.getRhs());
+            if (itElementType instanceof JReferenceType
+                && !typeOracle.isJavaScriptObject(itElementType)) {
+              recordCastInternal((JReferenceType) itElementType, (JReferenceType) rhsType);
             }
           }
         }
@@ -27,6 +27,7 @@ import com.google.gwt.dev.jjs.ast.JCastOperation;
 import com.google.gwt.dev.jjs.ast.JCharLiteral;
 import com.google.gwt.dev.jjs.ast.JClassType;
 import com.google.gwt.dev.jjs.ast.JConditional;
+import com.google.gwt.dev.jjs.ast.JConstructor;
 import com.google.gwt.dev.jjs.ast.JContinueStatement;
 import com.google.gwt.dev.jjs.ast.JDeclarationStatement;
 import com.google.gwt.dev.jjs.ast.JDeclaredType;
@@ -71,8 +72,10 @@ import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.collect.ArrayListMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Multimap;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 
 import java.lang.reflect.Method;
@@ -818,8 +821,7 @@ public class DeadCodeElimination {
       if (lhs instanceof JValueLiteral && rhs instanceof JValueLiteral) {
         Object lhsObj = ((JValueLiteral) lhs).getValueObj();
         Object rhsObj = ((JValueLiteral) rhs).getValueObj();
-        ctx.replaceMe(program.getStringLiteral(info, String.valueOf(lhsObj)
-            + String.valueOf(rhsObj)));
+        ctx.replaceMe(getStringLiteral(info, String.valueOf(lhsObj) + String.valueOf(rhsObj)));
       }
     }
 
@@ -1826,7 +1828,7 @@ public class DeadCodeElimination {
         return;
       }
       if (result instanceof String) {
-        ctx.replaceMe(program.getStringLiteral(x.getSourceInfo(), (String) result));
+        ctx.replaceMe(getStringLiteral(x.getSourceInfo(), (String) result));
       } else if (result instanceof Boolean) {
         ctx.replaceMe(program.getLiteralBoolean(((Boolean) result).booleanValue()));
       } else if (result instanceof Character) {
@@ -1979,9 +1981,22 @@ public class DeadCodeElimination {
    * context).
    */
   public static OptimizerStats exec(JProgram program, OptimizerContext optimizerCtx) {
-    Iterable<JMethod> modifiedMethods =
-        optimizerCtx.getModifiedMethodsSince(optimizerCtx.getLastStepFor(NAME));
-    OptimizerStats stats = new DeadCodeElimination(program).execImpl(modifiedMethods, optimizerCtx);
+    return exec(program, optimizerCtx, ParallelMethodOptimizer.getShared());
+  }
+
+  /**
+   * Apply DeadCodeElimination on the set of newly modified methods, partitioning them across
+   * {@code parallelOptimizer} if it is not {@code null}.
+   */
+  @VisibleForTesting
+  static OptimizerStats exec(JProgram program, OptimizerContext optimizerCtx,
+      ParallelMethodOptimizer parallelOptimizer) {
+    List<JMethod> modifiedMethods = Lists.newArrayList(
+        optimizerCtx.getModifiedMethodsSince(optimizerCtx.getLastStepFor(NAME)));
+    DeadCodeElimination deadCodeElimination = new DeadCodeElimination(program);
+    OptimizerStats stats = parallelOptimizer == null
+        ? deadCodeElimination.execImpl(modifiedMethods, optimizerCtx)
+        : deadCodeElimination.execImplInParallel(modifiedMethods, optimizerCtx, parallelOptimizer);
     optimizerCtx.setLastStepFor(NAME, optimizerCtx.getOptimizationStep());
     optimizerCtx.incOptimizationStep();
     JavaAstVerifier.assertProgramIsConsistent(program);
@@ -1990,6 +2005,11 @@ public class DeadCodeElimination {
 
   private final JProgram program;
 
+  /**
+   * Whether methods are being optimized on several threads, which may share source infos.
+   */
+  private boolean runsInParallel;
+
   private final Map<JType, Class<?>> typeClassMap;
 
   public DeadCodeElimination(JProgram program) {
@@ -2021,5 +2041,67 @@ public class DeadCodeElimination {
     return stats;
   }
 
+  private OptimizerStats execImplInParallel(List<JMethod> methods,
+      OptimizerContext optimizerCtx, ParallelMethodOptimizer parallelOptimizer) {
+    OptimizerStats stats = new OptimizerStats(NAME);
+    Event optimizeEvent = SpeedTracerLogger.start(CompilerEventType.OPTIMIZE, "optimizer", NAME,
+        "parallel", "true");
+    runsInParallel = true;
+
+    int numMods = parallelOptimizer.optimize(methods, findInstantiationDependentMethods(methods),
+        new ParallelMethodOptimizer.MethodOptimization() {
+          @Override
+          public int optimize(JMethod method, OptimizerContext methodOptimizerCtx) {
+            DeadCodeVisitor deadCodeVisitor = new DeadCodeVisitor(methodOptimizerCtx);
+            deadCodeVisitor.accept(method);
+            return deadCodeVisitor.getNumMods();
+          }
+        }, optimizerCtx);
+    stats.recordModified(numMods);
+    optimizeEvent.end("didChange", "" + stats.didChange());
+    return stats;
+  }
+
+  /**
+   * Returns a string literal for a folded expression. {@link JProgram#getStringLiteral} records a
+   * correlation in the source info it is given; in parallel runs that source info may belong to a
+   * node another thread is reading, so the literal gets a child of its own instead.
+   */
+  private JStringLiteral getStringLiteral(SourceInfo info, String value) {
+    return program.getStringLiteral(runsInParallel ? info.makeChild() : info, value);
+  }
+
+  /**
+   * Removing an unused {@code new Foo()} depends on whether the {@code Foo} constructor is empty,
+   * which in turn depends on the bodies of the constructors it delegates to; this pass may be
+   * rewriting any of those at the same time. Returns the methods in {@code methods} that
+   * instantiate a type whose class hierarchy declares a constructor in {@code methods}, together
+   * with those constructors, so that they are processed serially in their original order.
+   */
+  private static Set<JMethod> findInstantiationDependentMethods(List<JMethod> methods) {
+    final Multimap<JDeclaredType, JMethod> constructorsByType = ArrayListMultimap.create();
+    for (JMethod method : methods) {
+      if (method instanceof JConstructor) {
+        constructorsByType.put(method.getEnclosingType(), method);
+      }
+    }
+    final Set<JMethod> dependentMethods = Sets.newHashSet();
+    for (final JMethod method : methods) {
+      new JVisitor() {
+        @Override
+        public void endVisit(JNewInstance x, Context ctx) {
+          for (JClassType type = x.getTarget().getEnclosingType(); type != null;
+              type = type.getSuperClass()) {
+            if (constructorsByType.containsKey(type)) {
+              dependentMethods.add(method);
+              dependentMethods.addAll(constructorsByType.get(type));
+            }
+          }
+        }
+      }.accept(method);
+    }
+    return dependentMethods;
+  }
+
   private enum AnalysisResult { TRUE, FALSE, UNKNOWN }
 }
@@ -3530,19 +3530,23 @@ public class GenerateJavaScriptAST {
 
   /**
    * Java8 Method References such as String::equalsIgnoreCase should produce inner class names
-   * that are a function of the samInterface (e.g. Runnable), the method being referred to,
-   * and the qualifying disposition (this::foo vs Class::foo if foo is an instance method)
+   * that are a function of the class containing the reference, the samInterface (e.g. Runnable),
+   * the method being referred to (including its declaring class), and the qualifying disposition
+   * (this::foo vs Class::foo if foo is an instance method). The containing class keeps the names
+   * unique across compilation units.
    */
-  static String classNameForMethodReference(JInterfaceType samInterface, JMethod referredMethod,
-      boolean haveReceiver) {
+  static String classNameForMethodReference(JDeclaredType enclosingType,
+      JInterfaceType samInterface, JMethod referredMethod, boolean haveReceiver) {
     StringBuilder sb = new StringBuilder();
-    sb.append(samInterface.getPackageName());
-    sb.append('.');
+    sb.append(enclosingType.getName());
+    sb.append('$');
     sb.append(samInterface.getShortName());
     sb.append("$");
     if (!haveReceiver) {
       sb.append("$");
     }
+    sb.append(getNameString(referredMethod.getEnclosingType()));
+    sb.append('_');
     sb.append(getNameString(referredMethod));
     constructManglingSignature(referredMethod, sb);
     return StringInterner.get().intern(sb.toString());
@@ -63,7 +63,6 @@ import org.eclipse.jdt.internal.compiler.ast.FieldReference;
 import org.eclipse.jdt.internal.compiler.ast.FloatLiteral;
 import org.eclipse.jdt.internal.compiler.ast.ForStatement;
 import org.eclipse.jdt.internal.compiler.ast.ForeachStatement;
-import org.eclipse.jdt.internal.compiler.ast.FunctionalExpression;
 import org.eclipse.jdt.internal.compiler.ast.IfStatement;
 import org.eclipse.jdt.internal.compiler.ast.Initializer;
 import org.eclipse.jdt.internal.compiler.ast.InstanceOfExpression;
@@ -128,6 +127,7 @@ import org.eclipse.jdt.internal.compiler.lookup.TypeIds;
 import org.eclipse.jdt.internal.compiler.lookup.VariableBinding;
 import org.eclipse.jdt.internal.compiler.util.Util;
 
+import com.google.gwt.core.client.SafeLong;
 import com.google.gwt.core.client.impl.DoNotInline;
 import com.google.gwt.core.client.impl.HasNoSideEffects;
 import com.google.gwt.core.client.impl.SpecializeMethod;
@@ -1210,7 +1210,8 @@ public class GwtAstBuilder {
       // Create an inner class to implement the interface and SAM method.
       // class lambda$0$Type implements T {}
       JClassType innerLambdaClass = createInnerClass(JdtUtil.asDottedString(x.binding.declaringClass.compoundName) +
-          "$" + new String(x.binding.selector), x, funcType, info);
+          "$" + new String(x.binding.selector),
+          (JDeclaredType) typeMap.get(x.binding.declaringClass), funcType, info);
       JConstructor ctor = new JConstructor(info, innerLambdaClass);
 
       // locals captured by the lambda and saved as fields on the anonymous inner class
@@ -1399,10 +1400,31 @@ public class GwtAstBuilder {
       return outerParam;
     }
 
-    private JClassType createInnerClass(String name, FunctionalExpression x,
+    /**
+     * JDT retargets references to methods inherited from inaccessible classes to the receiver
+     * type (e.g. StringBuilder::toString is bound to StringBuilder instead of the package private
+     * AbstractStringBuilder), find the class that actually declares the method.
+     */
+    private MethodBinding findDeclaredMethod(MethodBinding binding) {
+      MethodBinding original = binding.original();
+      if (original.isConstructor() || original.declaringClass.isInterface()) {
+        return binding;
+      }
+      for (ReferenceBinding type = original.declaringClass; type != null;
+          type = type.superclass()) {
+        for (MethodBinding method : type.getMethods(original.selector)) {
+          if (method.original().areParametersEqual(original)) {
+            return type == original.declaringClass ? binding : method;
+          }
+        }
+      }
+      return binding;
+    }
+
+    private JClassType createInnerClass(String name, JDeclaredType enclosingType,
         JInterfaceType funcType, SourceInfo info) {
       JClassType innerLambdaClass = new JClassType(info, name + "$Type", false, true);
-      innerLambdaClass.setEnclosingType((JDeclaredType) typeMap.get(x.binding.declaringClass));
+      innerLambdaClass.setEnclosingType(enclosingType);
       innerLambdaClass.addImplements(funcType);
       innerLambdaClass.setSuperClass(javaLangObject);
 
@@ -1692,6 +1714,7 @@ public class GwtAstBuilder {
           }
         }
       }
+      referredMethodBinding = findDeclaredMethod(referredMethodBinding);
       JMethod referredMethod = typeMap.get(referredMethodBinding);
       boolean haveReceiver = false;
       try {
@@ -1701,17 +1724,17 @@ public class GwtAstBuilder {
       }
 
       // Constructors and overloading mean we need generate unique names
-      String lambdaName = GenerateJavaScriptAST.classNameForMethodReference(funcType,
-          referredMethod,
-          haveReceiver);
+      String lambdaName = GenerateJavaScriptAST.classNameForMethodReference(curClass.type,
+          funcType, referredMethod, haveReceiver);
 
       // Create an inner class to hold the implementation of the interface
       JClassType innerLambdaClass = lambdaNameToInnerLambdaType.get(lambdaName);
       List<JExpression> enclosingThisRefs = new ArrayList<JExpression>();
 
       if (innerLambdaClass == null) {
-        innerLambdaClass = createInnerClass(lambdaName, x, funcType, info);
+        innerLambdaClass = createInnerClass(lambdaName, curClass.type, funcType, info);
         lambdaNameToInnerLambdaType.put(lambdaName, innerLambdaClass);
+        newTypes.add(innerLambdaClass);
 
         JConstructor ctor = new JConstructor(info, innerLambdaClass);
 
@@ -1724,7 +1747,7 @@ public class GwtAstBuilder {
         if (haveReceiver) {
           // this.$$outer = $$outer
           JField outerField = createAndBindCapturedLambdaParameter(info, OUTER_LAMBDA_PARAM_NAME,
-              innerLambdaClass.getEnclosingType(), ctor, ctorBody);
+              referredMethod.getEnclosingType(), ctor, ctorBody);
           instance = new JFieldRef(info,
               new JThisRef(info, innerLambdaClass), outerField, innerLambdaClass);
         } else if (referredMethod instanceof JConstructor) {
@@ -1875,7 +1898,6 @@ public class GwtAstBuilder {
       }
 
       push(allocLambda);
-      newTypes.add(innerLambdaClass);
     }
 
     private JExpression boxOrUnboxExpression(JExpression expr, TypeBinding fromType,
@@ -3672,6 +3694,7 @@ public class GwtAstBuilder {
     List<JDeclaredType> result = newTypes;
 
     // Clean up.
+    astVisitor.lambdaNameToInnerLambdaType.clear();
     typeMap.clearSource();
     this.jsniRefs = jsniRefs;
     this.jsniMethods = jsniMethods;
@@ -3906,6 +3929,7 @@ public class GwtAstBuilder {
     maybeAddMethodSpecialization(x, method);
     maybeSetDoNotInline(x, method);
     maybeSetHasNoSideEffects(x, method);
+    maybeSetSafeLongs(x, method);
   }
 
   private void maybeSetDoNotInline(AbstractMethodDeclaration x,
@@ -3922,6 +3946,13 @@ public class GwtAstBuilder {
     }
   }
 
+  private void maybeSetSafeLongs(AbstractMethodDeclaration x, JMethod method) {
+    if (JdtUtil.getAnnotation(x.binding, SafeLong.class.getName()) != null
+        || JdtUtil.getAnnotation(x.binding.declaringClass, SafeLong.class.getName()) != null) {
+      method.setSafeLongs(true);
+    }
+  }
+
   private void maybeAddMethodSpecialization(AbstractMethodDeclaration x, JMethod method) {
     AnnotationBinding specializeAnnotation =
         JdtUtil.getAnnotation(x.binding, SpecializeMethod.class.getName());
@@ -159,6 +159,7 @@ public class JjsUtils {
     JMethodCall delegateCall = new JMethodCall(methodToDelegate.getSourceInfo(),
         new JThisRef(methodToDelegate.getSourceInfo(), methodToDelegate.getEnclosingType()),
         methodToDelegate);
+    delegateCall.setStaticDispatchOnly();
     // copy params
     for (JParameter p : delegate.getParams()) {
       delegateCall.addArg(new JParameterRef(p.getSourceInfo(), p));
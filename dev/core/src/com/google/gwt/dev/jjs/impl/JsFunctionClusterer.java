@@ -34,12 +34,37 @@ import java.util.regex.Pattern;
 
 /**
  * Re-orders function declarations according to a given metric and clustering
- * algorithm in order to boost gzip/deflation compression efficiency. This
- * version uses the edit-distance algorithm as a metric, and a semi-greedy
- * strategy for grouping functions together.
+ * algorithm in order to boost gzip/deflation compression efficiency. By
+ * default this uses the edit-distance algorithm as a metric, and a semi-greedy
+ * strategy for grouping functions together. Setting the
+ * {@value #STRATEGY_PROPERTY} system property to "minHash" looks for similar
+ * functions among all of them instead, through a
+ * {@link JsFunctionSimilarityIndex}, which takes time linear in the size of
+ * the code.
  */
 public class JsFunctionClusterer extends JsAbstractTextTransformer {
 
+  /**
+   * How functions similar to the last one placed are found.
+   */
+  public enum Strategy {
+    /**
+     * Edit distance to each of the next few functions in size order.
+     */
+    EDIT_DISTANCE,
+    /**
+     * Sketch similarity to the functions that share a locality-sensitive hash
+     * bucket.
+     */
+    MIN_HASH
+  }
+
+  /**
+   * The system property that selects the default strategy, either
+   * "editDistance" or "minHash".
+   */
+  public static final String STRATEGY_PROPERTY = "gwt.jjs.functionClustering";
+
   /**
    * Used by isFunctionDeclaration to check a statement is a function
    * declaration or not. This should match standard declarations, such as
@@ -80,13 +105,26 @@ public class JsFunctionClusterer extends JsAbstractTextTransformer {
    */
   private int[] reorderedIndices;
 
+  private final Strategy strategy;
+
   public JsFunctionClusterer(JsAbstractTextTransformer xformer) {
+    this(xformer, getDefaultStrategy());
+  }
+
+  public JsFunctionClusterer(JsAbstractTextTransformer xformer, Strategy strategy) {
     super(xformer);
+    this.strategy = strategy;
   }
 
   public JsFunctionClusterer(String js, StatementRanges statementRanges,
       JsSourceMap sourceInfoMap) {
+    this(js, statementRanges, sourceInfoMap, getDefaultStrategy());
+  }
+
+  public JsFunctionClusterer(String js, StatementRanges statementRanges,
+      JsSourceMap sourceInfoMap, Strategy strategy) {
     super(js, statementRanges, sourceInfoMap);
+    this.strategy = strategy;
   }
 
   @Override
@@ -116,6 +154,18 @@ public class JsFunctionClusterer extends JsAbstractTextTransformer {
       }
     });
 
+    int[] clusteredIndices = strategy == Strategy.MIN_HASH
+        ? clusterBySketches(functionIndices) : clusterByEditDistance(functionIndices);
+
+    reorderedIndices = Arrays.copyOf(clusteredIndices, statementRanges.numStatements());
+    recomputeJsAndStatementRanges(clusteredIndices);
+  }
+
+  /**
+   * Places each function after the one placed before it that is closest in
+   * edit distance among the next {@link #SEARCH_LIMIT} in size order.
+   */
+  private int[] clusterByEditDistance(LinkedList<Integer> functionIndices) {
     // used to hold the new output order
     int[] clusteredIndices = new int[functionIndices.size()];
     int currentFunction = 0;
@@ -152,9 +202,42 @@ public class JsFunctionClusterer extends JsAbstractTextTransformer {
       clusteredIndices[currentFunction] = bestFunction;
       functionIndices.remove(bestIndex);
     }
+    return clusteredIndices;
+  }
 
-    reorderedIndices = Arrays.copyOf(clusteredIndices, statementRanges.numStatements());
-    recomputeJsAndStatementRanges(clusteredIndices);
+  /**
+   * Places each function after the one placed before it that is most similar
+   * according to a {@link JsFunctionSimilarityIndex}, or after the next
+   * smallest one if none is known to be similar.
+   */
+  private int[] clusterBySketches(List<Integer> functionIndices) {
+    // functions are identified by their position in size order from here on
+    int[] statementIndices = new int[functionIndices.size()];
+    List<String> functions = Lists.newArrayListWithCapacity(functionIndices.size());
+    for (int functionIndex : functionIndices) {
+      statementIndices[functions.size()] = functionIndex;
+      functions.add(getJsForRange(functionIndex));
+    }
+    JsFunctionSimilarityIndex similarityIndex = new JsFunctionSimilarityIndex(functions);
+
+    int[] clusteredIndices = new int[functions.size()];
+    boolean[] placed = new boolean[functions.size()];
+    int nextBySize = 0;
+    int currentFunction = 0;
+    for (int i = 0; i < clusteredIndices.length; i++) {
+      placed[currentFunction] = true;
+      clusteredIndices[i] = statementIndices[currentFunction];
+      int nextFunction = similarityIndex.findMostSimilar(currentFunction);
+      similarityIndex.remove(currentFunction);
+      if (nextFunction < 0) {
+        while (nextBySize < placed.length && placed[nextBySize]) {
+          nextBySize++;
+        }
+        nextFunction = nextBySize;
+      }
+      currentFunction = nextFunction;
+    }
+    return clusteredIndices;
   }
 
   @Override
@@ -229,4 +312,9 @@ public class JsFunctionClusterer extends JsAbstractTextTransformer {
   private int stmtSize(int index1) {
     return statementRanges.end(index1) - statementRanges.start(index1);
   }
+
+  private static Strategy getDefaultStrategy() {
+    return "minHash".equals(System.getProperty(STRATEGY_PROPERTY))
+        ? Strategy.MIN_HASH : Strategy.EDIT_DISTANCE;
+  }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds functions whose code is similar to that of a given function, in time that doesn't depend
+ * on the number of functions.
+ * <p>
+ * Each function is summarized by a MinHash sketch of the character shingles in its code; the
+ * fraction of sketch entries two functions share estimates how many of their shingles they
+ * share. The sketches are split into bands, and functions are bucketed by the hash of each band,
+ * so functions that share a bucket are likely to be similar (locality-sensitive hashing). Only a
+ * bounded number of them is compared when looking for the most similar one.
+ * <p>
+ * Functions are identified by their position in the list the index was built from, and buckets
+ * list them in that order.
+ */
+class JsFunctionSimilarityIndex {
+
+  /**
+   * Number of characters per shingle. Short enough for the short identifiers of obfuscated code
+   * to make up whole shingles.
+   */
+  private static final int SHINGLE_LENGTH = 5;
+
+  private static final int BANDS = 12;
+
+  private static final int ROWS_PER_BAND = 2;
+
+  private static final int SKETCH_SIZE = BANDS * ROWS_PER_BAND;
+
+  /**
+   * Maximum number of functions compared when looking for the most similar one.
+   */
+  private static final int CANDIDATE_LIMIT = 32;
+
+  /**
+   * Multiplier of the rolling shingle hash.
+   */
+  private static final int SHINGLE_HASH_BASE = 0x01000193;
+
+  /**
+   * Mixes the bits of a hash (the finalizer of MurmurHash3).
+   */
+  private static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  /**
+   * Computes the sketch of some code: for each of {@link #SKETCH_SIZE} hash functions, the
+   * minimum hash of the code's shingles. The hash functions are derived from two base hashes of
+   * each shingle, which keeps the cost per character low.
+   */
+  static int[] sketch(String code) {
+    int[] sketch = new int[SKETCH_SIZE];
+    for (int i = 0; i < SKETCH_SIZE; i++) {
+      sketch[i] = Integer.MAX_VALUE;
+    }
+    int length = code.length();
+    if (length < SHINGLE_LENGTH) {
+      addShingle(sketch, code.hashCode());
+      return sketch;
+    }
+    int outgoingFactor = 1;
+    for (int i = 0; i < SHINGLE_LENGTH; i++) {
+      outgoingFactor *= SHINGLE_HASH_BASE;
+    }
+    int shingleHash = 0;
+    for (int i = 0; i < length; i++) {
+      shingleHash = shingleHash * SHINGLE_HASH_BASE + code.charAt(i);
+      if (i >= SHINGLE_LENGTH) {
+        shingleHash -= code.charAt(i - SHINGLE_LENGTH) * outgoingFactor;
+      }
+      if (i >= SHINGLE_LENGTH - 1) {
+        addShingle(sketch, shingleHash);
+      }
+    }
+    return sketch;
+  }
+
+  private static void addShingle(int[] sketch, int shingleHash) {
+    int h1 = mix(shingleHash);
+    int h2 = mix(shingleHash ^ 0x9e3779b9) | 1;
+    for (int i = 0; i < SKETCH_SIZE; i++) {
+      int h = h1 + i * h2;
+      if (h < sketch[i]) {
+        sketch[i] = h;
+      }
+    }
+  }
+
+  /**
+   * The functions in each bucket that haven't been removed, keyed by band and band hash.
+   */
+  private final Map<Long, LinkedHashSet<Integer>> buckets = Maps.newHashMap();
+
+  private final int[][] sketches;
+
+  /**
+   * Indexes the given function code.
+   */
+  JsFunctionSimilarityIndex(List<String> functions) {
+    sketches = new int[functions.size()][];
+    for (int function = 0; function < sketches.length; function++) {
+      sketches[function] = sketch(functions.get(function));
+      for (int band = 0; band < BANDS; band++) {
+        Long key = bucketKey(function, band);
+        LinkedHashSet<Integer> bucket = buckets.get(key);
+        if (bucket == null) {
+          bucket = new LinkedHashSet<Integer>();
+          buckets.put(key, bucket);
+        }
+        bucket.add(function);
+      }
+    }
+    // A function alone in a bucket is never a candidate for another one.
+    for (Iterator<LinkedHashSet<Integer>> it = buckets.values().iterator(); it.hasNext();) {
+      if (it.next().size() < 2) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns the function that hasn't been removed and is most similar to the given one, or -1 if
+   * none of them is known to be similar. Of equally similar functions the first one is returned.
+   */
+  int findMostSimilar(int function) {
+    int[] sketch = sketches[function];
+    int bestFunction = -1;
+    int bestSimilarity = 0;
+    int candidates = 0;
+    for (int band = 0; band < BANDS && candidates < CANDIDATE_LIMIT; band++) {
+      LinkedHashSet<Integer> bucket = buckets.get(bucketKey(function, band));
+      if (bucket == null) {
+        continue;
+      }
+      for (int candidate : bucket) {
+        if (candidate == function) {
+          continue;
+        }
+        if (candidates++ >= CANDIDATE_LIMIT) {
+          break;
+        }
+        int similarity = similarity(sketch, sketches[candidate]);
+        if (similarity > bestSimilarity
+            || (similarity == bestSimilarity && candidate < bestFunction)) {
+          bestSimilarity = similarity;
+          bestFunction = candidate;
+          if (similarity == SKETCH_SIZE) {
+            // Identical sketches share all buckets, so no earlier candidate can match better.
+            return candidate;
+          }
+        }
+      }
+    }
+    return bestFunction;
+  }
+
+  /**
+   * Stops the given function from being returned by {@link #findMostSimilar}.
+   */
+  void remove(int function) {
+    for (int band = 0; band < BANDS; band++) {
+      Long key = bucketKey(function, band);
+      LinkedHashSet<Integer> bucket = buckets.get(key);
+      if (bucket != null) {
+        bucket.remove(function);
+        if (bucket.size() < 2) {
+          buckets.remove(key);
+        }
+      }
+    }
+  }
+
+  private Long bucketKey(int function, int band) {
+    int[] sketch = sketches[function];
+    int bandHash = 0;
+    for (int row = band * ROWS_PER_BAND; row < (band + 1) * ROWS_PER_BAND; row++) {
+      bandHash = bandHash * 31 + sketch[row];
+    }
+    return ((long) band << 32) | (bandHash & 0xffffffffL);
+  }
+
+  private static int similarity(int[] sketch1, int[] sketch2) {
+    int similarity = 0;
+    for (int i = 0; i < SKETCH_SIZE; i++) {
+      if (sketch1[i] == sketch2[i]) {
+        similarity++;
+      }
+    }
+    return similarity;
+  }
+}
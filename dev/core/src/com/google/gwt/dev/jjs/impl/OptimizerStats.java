@@ -130,6 +130,22 @@ public class OptimizerStats {
     return this;
   }
 
+  /**
+   * Returns the number of modifications, in total and by each child, as name/value pairs for the
+   * data of a {@link com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event}.
+   */
+  public String[] toEventData() {
+    String[] data = new String[2 + children.size() * 2];
+    data[0] = "mods";
+    data[1] = Integer.toString(getNumMods());
+    for (int i = 0; i < children.size(); i++) {
+      OptimizerStats child = children.get(i);
+      data[2 + i * 2] = child.getName();
+      data[3 + i * 2] = Integer.toString(child.getNumMods());
+    }
+    return data;
+  }
+
   private void prettyPrint(StringBuilder builder, int level) {
     int visits = getNumVisits();
     int mods = getNumMods();
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.dev.jjs.ast.JField;
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a method-local optimization over a list of methods on a {@link ForkJoinPool}.
+ * <p>
+ * Methods are partitioned into contiguous batches, each optimized by its own task. Tasks report
+ * their changes to a {@link DeferredOptimizerContext} that answers queries from the real context
+ * but buffers every modification; once all tasks are done the buffered modifications are replayed
+ * into the real context in the original method order. The real context therefore sees exactly the
+ * same sequence of updates as it would on the serial path, and so do all subsequent passes. A task
+ * may also advance the optimization step; the step is advanced in the real context when its
+ * modifications are replayed.
+ * <p>
+ * Methods that read state another method in the same run may be rewriting (e.g. whether a
+ * constructor is empty) must be passed as {@code serialMethods}; they are optimized on the calling
+ * thread, in their original relative order, after the parallel batches have completed.
+ * <p>
+ * Enabled by setting the system property {@value #THREADS_PROPERTY} to a value greater than 1.
+ */
+public class ParallelMethodOptimizer {
+
+  /**
+   * An optimization that only rewrites the body of the method it is given.
+   */
+  public interface MethodOptimization {
+    /**
+     * Optimizes {@code method}, reporting changes to {@code optimizerCtx}, and returns the number of
+     * modifications made.
+     */
+    int optimize(JMethod method, OptimizerContext optimizerCtx);
+  }
+
+  /**
+   * An optimizer context that delegates queries but records modifications for later replay.
+   * <p>
+   * Queries are safe to answer concurrently because the delegate is never modified while tasks are
+   * running; they do not see the recorded modifications. Steps advanced by a task are numbered as
+   * if its method were the first to advance them, and are renumbered on replay after the steps
+   * advanced by the methods before it.
+   */
+  @VisibleForTesting
+  static class DeferredOptimizerContext implements OptimizerContext {
+
+    private abstract static class Change {
+      abstract void applyTo(OptimizerContext optimizerCtx);
+    }
+
+    /**
+     * The step of the delegate when the context was created.
+     */
+    private final int baseStep;
+    private final List<Change> changes = Lists.newArrayList();
+    private final OptimizerContext delegate;
+    private final Map<String, Integer> lastStepByOptimizer = Maps.newHashMap();
+
+    /**
+     * The number of steps advanced through this context.
+     */
+    private int localSteps;
+
+    /**
+     * The number of steps the delegate was advanced by earlier replays, set when replaying.
+     */
+    private int replayOffset;
+
+    DeferredOptimizerContext(OptimizerContext delegate) {
+      this.delegate = delegate;
+      this.baseStep = delegate.getOptimizationStep();
+    }
+
+    @Override
+    public Set<JMethod> getCallees(Collection<JMethod> callerMethods) {
+      return delegate.getCallees(callerMethods);
+    }
+
+    @Override
+    public Set<JMethod> getCallers(Collection<JMethod> calleeMethods) {
+      return delegate.getCallers(calleeMethods);
+    }
+
+    @Override
+    public int getLastStepFor(String optimizerName) {
+      Integer step = lastStepByOptimizer.get(optimizerName);
+      return step != null ? step : delegate.getLastStepFor(optimizerName);
+    }
+
+    @Override
+    public Set<JMethod> getMethodsByReferencedFields(Collection<JField> fields) {
+      return delegate.getMethodsByReferencedFields(fields);
+    }
+
+    @Override
+    public Set<JField> getModifiedFieldsSince(int stepSince) {
+      return delegate.getModifiedFieldsSince(stepSince);
+    }
+
+    @Override
+    public Set<JMethod> getModifiedMethodsSince(int stepSince) {
+      return delegate.getModifiedMethodsSince(stepSince);
+    }
+
+    @Override
+    public int getOptimizationStep() {
+      return baseStep + localSteps;
+    }
+
+    @Override
+    public Set<JField> getReferencedFieldsByMethods(Collection<JMethod> methods) {
+      return delegate.getReferencedFieldsByMethods(methods);
+    }
+
+    @Override
+    public Set<JMethod> getRemovedCalleeMethodsSince(int stepSince) {
+      return delegate.getRemovedCalleeMethodsSince(stepSince);
+    }
+
+    @Override
+    public void incOptimizationStep() {
+      localSteps++;
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.incOptimizationStep();
+        }
+      });
+    }
+
+    @Override
+    public void markModified(final JField modifiedField) {
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.markModified(modifiedField);
+        }
+      });
+    }
+
+    @Override
+    public void markModified(final JMethod modifiedMethod) {
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.markModified(modifiedMethod);
+        }
+      });
+    }
+
+    @Override
+    public void remove(final JField field) {
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.remove(field);
+        }
+      });
+    }
+
+    @Override
+    public void remove(final JMethod method) {
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.remove(method);
+        }
+      });
+    }
+
+    @Override
+    public void removeFields(Collection<JField> fields) {
+      final List<JField> fieldsCopy = ImmutableList.copyOf(fields);
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.removeFields(fieldsCopy);
+        }
+      });
+    }
+
+    @Override
+    public void removeMethods(Collection<JMethod> methods) {
+      final List<JMethod> methodsCopy = ImmutableList.copyOf(methods);
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.removeMethods(methodsCopy);
+        }
+      });
+    }
+
+    @Override
+    public void setLastStepFor(final String optimizerName, final int step) {
+      lastStepByOptimizer.put(optimizerName, step);
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.setLastStepFor(optimizerName, toReplayStep(step));
+        }
+      });
+    }
+
+    @Override
+    public void syncDeletedSubCallGraphsSince(final int step,
+        Collection<JMethod> prunedMethods) {
+      final List<JMethod> prunedMethodsCopy = ImmutableList.copyOf(prunedMethods);
+      changes.add(new Change() {
+        @Override
+        void applyTo(OptimizerContext optimizerCtx) {
+          optimizerCtx.syncDeletedSubCallGraphsSince(toReplayStep(step), prunedMethodsCopy);
+        }
+      });
+    }
+
+    /**
+     * Applies the recorded modifications, in the order they were made, to the delegate.
+     */
+    void replay() {
+      replayOffset = delegate.getOptimizationStep() - baseStep;
+      for (Change change : changes) {
+        change.applyTo(delegate);
+      }
+      changes.clear();
+    }
+
+    private int toReplayStep(int step) {
+      return step < baseStep ? step : step + replayOffset;
+    }
+  }
+
+  public static final String THREADS_PROPERTY = "gwt.jjs.optimizerThreads";
+
+  /**
+   * Number of methods optimized by a single task; keeps the per-task overhead low compared to
+   * the typically small method bodies.
+   */
+  private static final int BATCH_SIZE = 32;
+
+  private static ParallelMethodOptimizer sharedInstance;
+  private static boolean sharedInstanceInitialized;
+
+  /**
+   * Returns the process wide optimizer configured by {@value #THREADS_PROPERTY}, or {@code null}
+   * if optimizations should run serially.
+   */
+  public static synchronized ParallelMethodOptimizer getShared() {
+    if (!sharedInstanceInitialized) {
+      sharedInstanceInitialized = true;
+      int threads = Integer.getInteger(THREADS_PROPERTY, 1);
+      if (threads > 1) {
+        sharedInstance = new ParallelMethodOptimizer(threads);
+      }
+    }
+    return sharedInstance;
+  }
+
+  private final ForkJoinPool pool;
+
+  @VisibleForTesting
+  ParallelMethodOptimizer(int threads) {
+    this.pool = new ForkJoinPool(threads);
+  }
+
+  /**
+   * Applies {@code optimization} to each of {@code methods} and returns the total number of
+   * modifications made. Methods in {@code serialMethods} are optimized on the calling thread.
+   */
+  public int optimize(List<JMethod> methods, Set<JMethod> serialMethods,
+      final MethodOptimization optimization, OptimizerContext optimizerCtx) {
+    final List<DeferredOptimizerContext> deferredContexts =
+        Lists.newArrayListWithCapacity(methods.size());
+    for (int i = 0; i < methods.size(); i++) {
+      deferredContexts.add(new DeferredOptimizerContext(optimizerCtx));
+    }
+
+    List<Callable<Integer>> tasks = Lists.newArrayList();
+    List<Integer> serialIndexes = Lists.newArrayList();
+    List<Integer> batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+    for (int i = 0; i < methods.size(); i++) {
+      if (serialMethods.contains(methods.get(i))) {
+        serialIndexes.add(i);
+        continue;
+      }
+      batch.add(i);
+      if (batch.size() == BATCH_SIZE) {
+        tasks.add(createTask(methods, batch, optimization, deferredContexts));
+        batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+      }
+    }
+    if (!batch.isEmpty()) {
+      tasks.add(createTask(methods, batch, optimization, deferredContexts));
+    }
+
+    int numMods = 0;
+    for (Future<Integer> result : pool.invokeAll(tasks)) {
+      numMods += getResult(result);
+    }
+    for (int i : serialIndexes) {
+      numMods += optimization.optimize(methods.get(i), deferredContexts.get(i));
+    }
+
+    for (DeferredOptimizerContext deferredContext : deferredContexts) {
+      deferredContext.replay();
+    }
+    return numMods;
+  }
+
+  @VisibleForTesting
+  void shutdown() {
+    pool.shutdown();
+  }
+
+  private static Callable<Integer> createTask(final List<JMethod> methods,
+      final List<Integer> indexes, final MethodOptimization optimization,
+      final List<DeferredOptimizerContext> deferredContexts) {
+    return new Callable<Integer>() {
+      @Override
+      public Integer call() {
+        int numMods = 0;
+        for (int i : indexes) {
+          numMods += optimization.optimize(methods.get(i), deferredContexts.get(i));
+        }
+        return numMods;
+      }
+    };
+  }
+
+  private static int getResult(Future<Integer> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+}
@@ -424,6 +424,12 @@ public class Pruner {
       removeFields(notReferencedField, type);
       removeMethods(notReferencedMethod, type);
 
+      // Static (and lambda helper) methods in interfaces have their unread parameters pruned
+      // like any other static method; ControlFlowAnalyzer relies on that.
+      for (JMethod method : type.getMethods()) {
+        accept(method);
+      }
+
       return false;
     }
 
@@ -271,7 +271,9 @@ public class ReplaceDefenderMethodReferences extends JModVisitor {
   @Override
   public void endVisit(JMethodCall x, Context ctx) {
     JMethod targetMethod = x.getTarget();
-    if (targetMethod.isDefaultMethod()) {
+    // Only I.super.m() calls (and the forwarding methods built from them) are bound to the
+    // default implementation; other calls stay polymorphic, as classes may override it.
+    if (targetMethod.isDefaultMethod() && x.isStaticDispatchOnly()) {
       JMethod staticMethod = program.getStaticImpl(targetMethod);
       if (staticMethod == null) {
         maybeRewriteLambdas(targetMethod, ctx);
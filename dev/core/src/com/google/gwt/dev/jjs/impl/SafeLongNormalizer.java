@@ -0,0 +1,414 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.dev.jjs.SourceInfo;
+import com.google.gwt.dev.jjs.ast.Context;
+import com.google.gwt.dev.jjs.ast.JBinaryOperation;
+import com.google.gwt.dev.jjs.ast.JBinaryOperator;
+import com.google.gwt.dev.jjs.ast.JCastOperation;
+import com.google.gwt.dev.jjs.ast.JConditional;
+import com.google.gwt.dev.jjs.ast.JDeclarationStatement;
+import com.google.gwt.dev.jjs.ast.JDeclaredType;
+import com.google.gwt.dev.jjs.ast.JExpression;
+import com.google.gwt.dev.jjs.ast.JLocal;
+import com.google.gwt.dev.jjs.ast.JLocalRef;
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.dev.jjs.ast.JMethodBody;
+import com.google.gwt.dev.jjs.ast.JMethodCall;
+import com.google.gwt.dev.jjs.ast.JModVisitor;
+import com.google.gwt.dev.jjs.ast.JNewArray;
+import com.google.gwt.dev.jjs.ast.JParameter;
+import com.google.gwt.dev.jjs.ast.JPostfixOperation;
+import com.google.gwt.dev.jjs.ast.JPrefixOperation;
+import com.google.gwt.dev.jjs.ast.JPrimitiveType;
+import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.dev.jjs.ast.JReturnStatement;
+import com.google.gwt.dev.jjs.ast.JType;
+import com.google.gwt.dev.jjs.ast.JUnaryOperator;
+import com.google.gwt.dev.jjs.ast.js.JMultiExpression;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents the longs of methods annotated with {@link com.google.gwt.core.client.SafeLong} as
+ * doubles. Such methods promise that their long values stay within 2^53, where a double holds every
+ * integer exactly, so their long locals become double locals and their long arithmetic becomes
+ * double arithmetic, which does not allocate.
+ * <p>
+ * Values are converted with explicit casts where they cross into the rest of the program: reads of
+ * long fields, parameters, array elements and call results, and writes of longs to those places.
+ * The bitwise operators and the shifts have no double counterpart and keep operating on emulated
+ * longs. Runs before the optimizations, so that the inliner only moves rewritten code around;
+ * {@link LongCastNormalizer} and {@link LongEmulationNormalizer} later implement the casts and the
+ * remaining long operations.
+ */
+public class SafeLongNormalizer {
+
+  /**
+   * Rewrites the body of one method whose longs are known to fit in a double.
+   */
+  private class SafeLongVisitor extends JModVisitor {
+
+    /**
+     * Casts whose operand was a long before the rewrite, which narrow by wrapping rather than by
+     * rounding.
+     */
+    private final Set<JCastOperation> castsOfLongs = Sets.newIdentityHashSet();
+
+    /**
+     * Compound assignments whose right hand side is a float or a double rather than a long. Those
+     * to a long truncate the result, and those to an int or narrower saturate it.
+     */
+    private final Set<JBinaryOperation> floatingCompoundAssignments = Sets.newIdentityHashSet();
+
+    private final JMethod method;
+
+    public SafeLongVisitor(JMethod method) {
+      this.method = method;
+    }
+
+    @Override
+    public void endVisit(JBinaryOperation x, Context ctx) {
+      JBinaryOperator op = x.getOp();
+      if (program.isJavaLangString(x.getType())) {
+        // Concats are handled by TypeCoercionNormalizer.
+        return;
+      }
+      if (op.isAssignment()) {
+        endVisitAssignment(x, ctx);
+        return;
+      }
+
+      SourceInfo info = x.getSourceInfo();
+      JExpression lhs = x.getLhs();
+      JExpression rhs = x.getRhs();
+      if (op.isShiftOperator()) {
+        // Only longs in double form can be double operands of a shift.
+        JExpression newLhs = lhs.getType() == doubleType ? toLong(lhs) : lhs;
+        JExpression newRhs = toShiftDistance(rhs);
+        if (newLhs != lhs || newRhs != rhs) {
+          ctx.replaceMe(new JBinaryOperation(info, x.getType(), op, newLhs, newRhs));
+        }
+        return;
+      }
+
+      if (x.getType() == longType) {
+        switch (op) {
+          case ADD:
+          case SUB:
+          case MUL:
+            ctx.replaceMe(
+                new JBinaryOperation(info, doubleType, op, toDouble(lhs), toDouble(rhs)));
+            return;
+          case DIV:
+            ctx.replaceMe(call(info, "LongLib.safeDiv", toDouble(lhs), toDouble(rhs)));
+            return;
+          case MOD:
+            ctx.replaceMe(call(info, "LongLib.safeMod", toDouble(lhs), toDouble(rhs)));
+            return;
+          default:
+            JExpression newLhs = toLong(lhs);
+            JExpression newRhs = toLong(rhs);
+            if (newLhs != lhs || newRhs != rhs) {
+              ctx.replaceMe(new JBinaryOperation(info, longType, op, newLhs, newRhs));
+            }
+            return;
+        }
+      }
+
+      // A comparison between a long in double form and an emulated long compares doubles.
+      if ((lhs.getType() == longType && rhs.getType() == doubleType)
+          || (lhs.getType() == doubleType && rhs.getType() == longType)) {
+        ctx.replaceMe(new JBinaryOperation(info, x.getType(), op, toDouble(lhs), toDouble(rhs)));
+      }
+    }
+
+    @Override
+    public void endVisit(JCastOperation x, Context ctx) {
+      JType castType = x.getCastType();
+      JExpression expr = x.getExpr();
+      if (castType == longType) {
+        if (castsOfLongs.contains(x)) {
+          ctx.replaceMe(toDouble(expr));
+        } else if (isFloatingPoint(expr.getType())) {
+          ctx.replaceMe(call(x.getSourceInfo(), "LongLib.safeFromDouble", expr));
+        } else if (expr.getType() instanceof JPrimitiveType) {
+          ctx.replaceMe(Simplifier.cast(doubleType, expr));
+        }
+        return;
+      }
+
+      if (!castsOfLongs.contains(x) || expr.getType() != doubleType) {
+        return;
+      }
+      if (castType == doubleType) {
+        ctx.replaceMe(expr);
+      } else if (castType == JPrimitiveType.INT || castType == JPrimitiveType.SHORT
+          || castType == JPrimitiveType.CHAR || castType == JPrimitiveType.BYTE) {
+        // Narrowing a long wraps around, as does narrowing an integral double in JavaScript.
+        ctx.replaceMe(call(x.getSourceInfo(), "Cast.narrow_" + castType.getName(), expr));
+      }
+    }
+
+    @Override
+    public void endVisit(JConditional x, Context ctx) {
+      if (x.getType() == longType) {
+        ctx.replaceMe(new JConditional(x.getSourceInfo(), doubleType, x.getIfTest(),
+            toDouble(x.getThenExpr()), toDouble(x.getElseExpr())));
+      }
+    }
+
+    @Override
+    public void endVisit(JDeclarationStatement x, Context ctx) {
+      JExpression init = x.getInitializer();
+      if (init != null && isDoubleLocal(x.getVariableRef()) && init.getType() == longType) {
+        ctx.replaceMe(
+            new JDeclarationStatement(x.getSourceInfo(), x.getVariableRef(), toDouble(init)));
+      }
+    }
+
+    @Override
+    public void endVisit(JMethodCall x, Context ctx) {
+      List<JParameter> params = x.getTarget().getParams();
+      for (int i = 0; i < params.size(); ++i) {
+        JExpression arg = x.getArgs().get(i);
+        if (params.get(i).getType() == longType && arg.getType() == doubleType) {
+          x.setArg(i, toLong(arg));
+          madeChanges();
+        }
+      }
+    }
+
+    @Override
+    public void endVisit(JNewArray x, Context ctx) {
+      List<JExpression> initializers = x.initializers;
+      if (initializers == null || x.getArrayType().getElementType() != longType) {
+        return;
+      }
+      for (int i = 0; i < initializers.size(); ++i) {
+        JExpression initializer = initializers.get(i);
+        if (initializer.getType() == doubleType) {
+          initializers.set(i, toLong(initializer));
+          madeChanges();
+        }
+      }
+    }
+
+    @Override
+    public void endVisit(JPrefixOperation x, Context ctx) {
+      JExpression arg = x.getArg();
+      if (x.getOp() == JUnaryOperator.NEG && arg.getType() == longType) {
+        ctx.replaceMe(new JPrefixOperation(x.getSourceInfo(), JUnaryOperator.NEG, toDouble(arg)));
+      } else if (x.getOp() == JUnaryOperator.BIT_NOT && arg.getType() == doubleType) {
+        ctx.replaceMe(new JPrefixOperation(x.getSourceInfo(), JUnaryOperator.BIT_NOT, toLong(arg)));
+      }
+    }
+
+    @Override
+    public void endVisit(JReturnStatement x, Context ctx) {
+      JExpression expr = x.getExpr();
+      if (expr != null && method.getType() == longType && expr.getType() == doubleType) {
+        ctx.replaceMe(new JReturnStatement(x.getSourceInfo(), toLong(expr)));
+      }
+    }
+
+    @Override
+    public boolean visit(JBinaryOperation x, Context ctx) {
+      // Record what needs the types from before the rewrite.
+      if (x.getOp().isAssignment() && x.getOp() != JBinaryOperator.ASG
+          && isFloatingPoint(x.getRhs().getType()) && !isLongValued(x.getRhs())) {
+        floatingCompoundAssignments.add(x);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean visit(JCastOperation x, Context ctx) {
+      if (isLongValued(x.getExpr())) {
+        castsOfLongs.add(x);
+      }
+      return true;
+    }
+
+    private JMethodCall call(SourceInfo info, String methodName, JExpression... args) {
+      return new JMethodCall(info, null, program.getIndexedMethod(methodName), args);
+    }
+
+    private void endVisitAssignment(JBinaryOperation x, Context ctx) {
+      SourceInfo info = x.getSourceInfo();
+      JBinaryOperator op = x.getOp();
+      JExpression lhs = x.getLhs();
+      JExpression rhs = x.getRhs();
+
+      if (!isDoubleLocal(lhs)) {
+        // Emulated longs keep the emulated operation; only the operand needs converting back. So
+        // do ints and narrower types, which wrap a long operand but saturate a double one.
+        JExpression newRhs = rhs;
+        if (op.isShiftOperator()) {
+          newRhs = toShiftDistance(rhs);
+        } else if (!isFloatingPoint(lhs.getType()) && rhs.getType() == doubleType
+            && !floatingCompoundAssignments.contains(x)) {
+          newRhs = toLong(rhs);
+        }
+        if (newRhs != rhs) {
+          ctx.replaceMe(new JBinaryOperation(info, x.getType(), op, lhs, newRhs));
+        }
+        return;
+      }
+
+      JLocal local = ((JLocalRef) lhs).getLocal();
+      JBinaryOperator nonAssignmentOp = op.getNonAssignmentOf();
+      JExpression value;
+      if (floatingCompoundAssignments.contains(x)) {
+        value = call(info, "LongLib.safeFromDouble",
+            new JBinaryOperation(info, doubleType, nonAssignmentOp, new JLocalRef(info, local),
+                rhs));
+      } else {
+        switch (op) {
+          case ASG:
+          case ASG_ADD:
+          case ASG_SUB:
+          case ASG_MUL:
+            ctx.replaceMe(new JBinaryOperation(info, doubleType, op, lhs, toDouble(rhs)));
+            return;
+          case ASG_DIV:
+            value = call(info, "LongLib.safeDiv", new JLocalRef(info, local), toDouble(rhs));
+            break;
+          case ASG_MOD:
+            value = call(info, "LongLib.safeMod", new JLocalRef(info, local), toDouble(rhs));
+            break;
+          default:
+            JExpression distanceOrOperand =
+                op.isShiftOperator() ? toShiftDistance(rhs) : toLong(rhs);
+            value = toDouble(new JBinaryOperation(info, longType, nonAssignmentOp,
+                toLong(new JLocalRef(info, local)), distanceOrOperand));
+            break;
+        }
+      }
+      ctx.replaceMe(new JBinaryOperation(info, doubleType, JBinaryOperator.ASG, lhs, value));
+    }
+
+    private boolean isDoubleLocal(JExpression x) {
+      return x instanceof JLocalRef && doubleLocals.contains(((JLocalRef) x).getLocal());
+    }
+
+    /**
+     * Returns whether an expression that has not been rewritten yet computes a long.
+     */
+    private boolean isLongValued(JExpression x) {
+      if (x instanceof JPrefixOperation) {
+        return isLongValued(((JPrefixOperation) x).getArg());
+      }
+      if (x instanceof JPostfixOperation) {
+        return isLongValued(((JPostfixOperation) x).getArg());
+      }
+      if (x instanceof JMultiExpression) {
+        List<JExpression> expressions = ((JMultiExpression) x).getExpressions();
+        return !expressions.isEmpty() && isLongValued(expressions.get(expressions.size() - 1));
+      }
+      return x.getType() == longType || isDoubleLocal(x);
+    }
+
+    /**
+     * Converts a shift distance that is a long in double form back to an int.
+     */
+    private JExpression toShiftDistance(JExpression x) {
+      if (x.getType() != doubleType) {
+        return x;
+      }
+      return call(x.getSourceInfo(), "Cast.narrow_int", x);
+    }
+  }
+
+  public static void exec(JProgram program) {
+    new SafeLongNormalizer(program).execImpl();
+  }
+
+  /**
+   * The locals of the method being rewritten that were longs and are now doubles.
+   */
+  private final Set<JLocal> doubleLocals = Sets.newIdentityHashSet();
+
+  private final JPrimitiveType doubleType;
+
+  private final JPrimitiveType longType;
+
+  private final JProgram program;
+
+  private SafeLongNormalizer(JProgram program) {
+    this.program = program;
+    this.doubleType = program.getTypePrimitiveDouble();
+    this.longType = program.getTypePrimitiveLong();
+  }
+
+  private void execImpl() {
+    for (JDeclaredType type : program.getDeclaredTypes()) {
+      for (JMethod method : type.getMethods()) {
+        if (method.hasSafeLongs() && method.getBody() instanceof JMethodBody) {
+          normalize(method);
+        }
+      }
+    }
+  }
+
+  private boolean isFloatingPoint(JType type) {
+    return type == doubleType || type == JPrimitiveType.FLOAT;
+  }
+
+  private void normalize(JMethod method) {
+    doubleLocals.clear();
+    for (JLocal local : ((JMethodBody) method.getBody()).getLocals()) {
+      if (local.getType() == longType) {
+        local.setType(doubleType);
+        doubleLocals.add(local);
+      }
+    }
+    new SafeLongVisitor(method).accept(method);
+  }
+
+  /**
+   * Converts an emulated long to its double form.
+   */
+  private JExpression toDouble(JExpression x) {
+    if (x.getType() != longType) {
+      return x;
+    }
+    return Simplifier.cast(doubleType, x);
+  }
+
+  /**
+   * Converts a long in double form back to an emulated long.
+   */
+  private JExpression toLong(JExpression x) {
+    if (x.getType() == longType) {
+      return x;
+    }
+    if (x instanceof JCastOperation && x.getType() == doubleType) {
+      // Undo a conversion to double form.
+      JExpression expr = ((JCastOperation) x).getExpr();
+      if (expr.getType() == longType) {
+        return expr;
+      }
+      if (expr.getType() instanceof JPrimitiveType && !isFloatingPoint(expr.getType())) {
+        return Simplifier.cast(longType, expr);
+      }
+    }
+    return Simplifier.cast(longType, x);
+  }
+}
@@ -91,6 +91,7 @@ import com.google.gwt.dev.jjs.ast.JThisRef;
 import com.google.gwt.dev.jjs.ast.JTryStatement;
 import com.google.gwt.dev.jjs.ast.JType;
 import com.google.gwt.dev.jjs.ast.JVariable;
+import com.google.gwt.dev.jjs.ast.JVisitor;
 import com.google.gwt.dev.jjs.ast.js.JDebuggerStatement;
 import com.google.gwt.dev.jjs.ast.js.JsniFieldRef;
 import com.google.gwt.dev.jjs.ast.js.JsniMethodBody;
@@ -743,6 +744,7 @@ public class UnifyAst implements UnifyAstView {
   private MinimalRebuildCache minimalRebuildCache;
   private boolean incrementalCompile;
   private boolean isLibraryCompile;
+  private boolean prepareRebindAnswers;
   private boolean jsInteropEnabled;
   private final List<String> rootTypeSourceNames = new ArrayList<String>();
 
@@ -750,6 +752,8 @@ public class UnifyAst implements UnifyAstView {
       JsProgram jsProgram, RebindPermutationOracle rpo) {
     this.incrementalCompile = compilerContext.getOptions().isIncrementalCompileEnabled();
     this.isLibraryCompile = !compilerContext.shouldCompileMonolithic();
+    this.prepareRebindAnswers = !isLibraryCompile && !incrementalCompile
+        && rpo.canPrepareRebindAnswers();
     this.jsInteropEnabled = program.typeOracle.isJsInteropEnabled();
 
     this.logger = logger;
@@ -1623,20 +1627,22 @@ public class UnifyAst implements UnifyAstView {
       overridingMethodsBySignature.removeAll(method.getSignature());
     }
 
-    // what's left are inherited abstract or concrete virtual methods
+    // what's left are inherited abstract, default or concrete virtual methods
     // find methods which have no concrete versions
     nextRef:
     for (Collection<JMethod> notOverriden : overridingMethodsBySignature.asMap().values()) {
       JMethod defenderMethod = null;
       for (JMethod method : notOverriden) {
-        if (!method.isAbstract()) {
+        if (method.isDefaultMethod()) {
+          // a default method in a subinterface overrides the one in its superinterface
+          if (defenderMethod == null
+              || isSuperType(defenderMethod.getEnclosingType(), method.getEnclosingType())) {
+            defenderMethod = method;
+          }
+        } else if (!method.isAbstract()) {
           // concrete implementor found, so no defender needed
           continue nextRef;
         }
-        if (method.isDefaultMethod()) {
-          assert defenderMethod == null; // should be only 1
-          defenderMethod = method;
-        }
       }
 
       if (defenderMethod != null) {
@@ -1647,6 +1653,21 @@ public class UnifyAst implements UnifyAstView {
     }
   }
 
+  private static boolean isSuperType(JDeclaredType superType, JDeclaredType type) {
+    if (type == null) {
+      return false;
+    }
+    if (type == superType || isSuperType(superType, type.getSuperClass())) {
+      return true;
+    }
+    for (JInterfaceType intfType : type.getImplements()) {
+      if (isSuperType(superType, intfType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void collectSelfAndSuperPolymorphicMethods(JDeclaredType type,
       Multimap<String, JMethod> overridingMethodBySignature) {
     collectSelfAndSuperMethods(type, new Predicate<JMethod>() {
@@ -1716,7 +1737,13 @@ public class UnifyAst implements UnifyAstView {
       for (; loop && maxLoop-- > 0;) {
         // Normal behavior for mainLoop()
         while (!todo.isEmpty()) {
-          visitor.accept(todo.poll());
+          if (prepareRebindAnswers) {
+            prepareRebindAnswers(todo);
+          }
+          // Visit the methods queued so far before looking for rebind requests again.
+          for (int i = todo.size(); i > 0; --i) {
+            visitor.accept(todo.poll());
+          }
         }
         loop = false;
         for (UnifyAstListener listener : listeners) {
@@ -1740,6 +1767,36 @@ public class UnifyAst implements UnifyAstView {
 
   }
 
+  /**
+   * Lets the rebind permutation oracle rebind the types that the given methods pass to
+   * GWT.create() all at once, before the methods are visited and ask for the answers one by one.
+   */
+  private void prepareRebindAnswers(Collection<JMethod> methods) {
+    final Set<String> reqTypes = new LinkedHashSet<String>();
+    JVisitor rebindRequestFinder = new JVisitor() {
+      @Override
+      public void endVisit(JMethodCall x, Context ctx) {
+        JMethod target = x.getTarget();
+        if (target.getEnclosingType() == null || x.getArgs().size() != 1
+            || !(x.getArgs().get(0) instanceof JClassLiteral)) {
+          return;
+        }
+        String methodSignature = getMethodTypeSignature(target);
+        JType refType = ((JClassLiteral) x.getArgs().get(0)).getRefType();
+        if ((GWT_CREATE.equals(methodSignature) || OLD_GWT_CREATE.equals(methodSignature))
+            && refType instanceof JDeclaredType) {
+          reqTypes.add(BinaryName.toSourceName(refType.getName()));
+        }
+      }
+    };
+    for (JMethod method : methods) {
+      rebindRequestFinder.accept(method);
+    }
+    if (!reqTypes.isEmpty()) {
+      rpo.prepareRebindAnswers(logger, reqTypes);
+    }
+  }
+
   private void mapApi(JDeclaredType type) {
     assert !type.isExternal();
     for (JField field : type.getFields()) {
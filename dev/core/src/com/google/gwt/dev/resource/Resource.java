@@ -38,6 +38,14 @@ public abstract class Resource {
    */
   public abstract long getLastModified();
 
+  /**
+   * Returns the length of the resource's contents in bytes, or -1 if it can't be told without
+   * reading them.
+   */
+  public long getLength() {
+    return -1;
+  }
+
   /**
    * Returns the URL-like location of the resource. The returned value should
    * generally reflect a unique resource in the system. The returned value will
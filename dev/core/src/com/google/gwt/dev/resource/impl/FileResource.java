@@ -56,6 +56,11 @@ public class FileResource extends AbstractResource {
     return file.lastModified();
   }
 
+  @Override
+  public long getLength() {
+    return file.length();
+  }
+
   @Override
   public String getLocation() {
     return file.toURI().toString();
@@ -25,12 +25,16 @@ import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 import com.google.gwt.dev.util.msg.Message0;
 import com.google.gwt.dev.util.msg.Message1String;
 import com.google.gwt.thirdparty.guava.common.base.Joiner;
+import com.google.gwt.thirdparty.guava.common.base.Throwables;
 import com.google.gwt.thirdparty.guava.common.collect.HashMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.MapMaker;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.collect.Queues;
 import com.google.gwt.thirdparty.guava.common.collect.SetMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 import com.google.gwt.thirdparty.guava.common.io.Files;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
 
 import java.io.File;
 import java.io.IOException;
@@ -49,6 +53,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The normal implementation of {@code ResourceOracle}.
@@ -83,6 +92,11 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
       return resource.getLastModified();
     }
 
+    @Override
+    public long getLength() {
+      return resource.getLength();
+    }
+
     @Override
     public String getLocation() {
       return resource.getLocation();
@@ -158,6 +172,22 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
   private static final Map<ResourceLoader, List<ClassPathEntry>> classPathCache =
       new MapMaker().weakKeys().makeMap();
 
+  /**
+   * Looks into several zip files at once. Directories are always scanned on the calling thread,
+   * since their change listeners aren't thread-safe.
+   */
+  private static final ThreadPoolExecutor zipFileExecutor;
+
+  static {
+    int threads = Runtime.getRuntime().availableProcessors();
+    zipFileExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        Queues.<Runnable>newLinkedBlockingQueue(),
+        // Make sure this executor lets the whole process terminate correctly even if there
+        // are still live threads.
+        new ThreadFactoryBuilder().setDaemon(true).build());
+    zipFileExecutor.allowCoreThreadTimeOut(true);
+  }
+
   /**
    * A mapping from resource paths to the name of the library module that
    * created the PathPrefix (usually because of a <source> entry) that made
@@ -226,13 +256,23 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     Event resourceOracle =
         SpeedTracerLogger.start(CompilerEventType.RESOURCE_ORACLE, "phase", "preload");
     List<ClassPathEntry> entries = getAllClassPathEntries(logger, resources);
+    List<Future<?>> indexings = new ArrayList<Future<?>>();
     for (ClassPathEntry entry : entries) {
       // We only handle pre-indexing jars, the file system could change.
       if (entry instanceof ZipFileClassPathEntry) {
-        ZipFileClassPathEntry zpe = (ZipFileClassPathEntry) entry;
-        zpe.index(logger);
+        final ZipFileClassPathEntry zpe = (ZipFileClassPathEntry) entry;
+        final TreeLogger branch = logger;
+        indexings.add(zipFileExecutor.submit(new Runnable() {
+          @Override
+          public void run() {
+            zpe.index(branch);
+          }
+        }));
       }
     }
+    for (Future<?> indexing : indexings) {
+      getUninterruptibly(indexing);
+    }
     resourceOracle.end();
   }
 
@@ -271,12 +311,36 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     Map<String, ResourceDescription> resourceDescriptionsByPath =
         new LinkedHashMap<String, ResourceDescription>();
 
-    for (ClassPathEntry classPathEntry : classPathEntries) {
-      TreeLogger branchForClassPathEntry =
+    // Look into the zip files in parallel, but merge the results in classpath order below, since
+    // earlier entries shadow later ones.
+    List<TreeLogger> branchesForClassPathEntries = new ArrayList<TreeLogger>();
+    Map<ClassPathEntry, Future<Map<AbstractResource, ResourceResolution>>> zipFileLookups =
+        Maps.newHashMap();
+    for (final ClassPathEntry classPathEntry : classPathEntries) {
+      final TreeLogger branchForClassPathEntry =
           Messages.EXAMINING_PATH_ROOT.branch(refreshBranch, classPathEntry.getLocation(), null);
+      branchesForClassPathEntries.add(branchForClassPathEntry);
+      if (classPathEntry instanceof ZipFileClassPathEntry) {
+        zipFileLookups.put(classPathEntry, zipFileExecutor.submit(
+            new Callable<Map<AbstractResource, ResourceResolution>>() {
+              @Override
+              public Map<AbstractResource, ResourceResolution> call() {
+                return classPathEntry.findApplicableResources(branchForClassPathEntry,
+                    pathPrefixSet);
+              }
+            }));
+      }
+    }
 
-      Map<AbstractResource, ResourceResolution> prefixesByResource =
-          classPathEntry.findApplicableResources(branchForClassPathEntry, pathPrefixSet);
+    for (int i = 0; i < classPathEntries.size(); i++) {
+      ClassPathEntry classPathEntry = classPathEntries.get(i);
+      TreeLogger branchForClassPathEntry = branchesForClassPathEntries.get(i);
+
+      Future<Map<AbstractResource, ResourceResolution>> zipFileLookup =
+          zipFileLookups.get(classPathEntry);
+      Map<AbstractResource, ResourceResolution> prefixesByResource = zipFileLookup != null
+          ? getUninterruptibly(zipFileLookup)
+          : classPathEntry.findApplicableResources(branchForClassPathEntry, pathPrefixSet);
       for (Entry<AbstractResource, ResourceResolution> entry : prefixesByResource.entrySet()) {
         AbstractResource resource = entry.getKey();
         ResourceResolution resourceResolution = entry.getValue();
@@ -329,6 +393,17 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     return resourcePath.replace(".java", "").replace("/", ".");
   }
 
+  /**
+   * Waits for {@code future}, rethrowing anything thrown by its task.
+   */
+  private static <T> T getUninterruptibly(Future<T> future) {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
   private void maybeRecordOverlapWarning(ResourceResolution resourceResolution,
       String resourcePath) {
     // If PathPrefix->Module associations are inaccurate because PathPrefixes have been merged.
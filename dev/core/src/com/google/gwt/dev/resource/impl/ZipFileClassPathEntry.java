@@ -16,19 +16,25 @@
 package com.google.gwt.dev.resource.impl;
 
 import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.util.Util;
 import com.google.gwt.dev.util.collect.IdentityHashMap;
-import com.google.gwt.dev.util.collect.IdentityHashSet;
 import com.google.gwt.dev.util.collect.IdentityMaps;
-import com.google.gwt.dev.util.collect.Sets;
 import com.google.gwt.dev.util.msg.Message1String;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.MapMaker;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -47,6 +53,9 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     static final Message1String EXCLUDING_RESOURCE = new Message1String(
         TreeLogger.DEBUG, "Excluding $0");
 
+    static final Message1String DESCENDING_INTO_DIR = new Message1String(
+        TreeLogger.DEBUG, "Descending into $0");
+
     static final Message1String FINDING_INCLUDED_RESOURCES = new Message1String(
         TreeLogger.DEBUG, "Searching for included resources in $0");
 
@@ -55,6 +64,36 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
 
     static final Message1String READ_ZIP_ENTRY = new Message1String(
         TreeLogger.DEBUG, "$0");
+
+    static final Message1String READ_ZIP_INDEX = new Message1String(
+        TreeLogger.TRACE, "Read zip file index: $0");
+  }
+
+  /**
+   * A directory inside the zip file, holding the resources directly inside it
+   * and its subdirectories.
+   */
+  private static class ZipDirectory {
+    private final Map<String, ZipDirectory> children = Maps.newLinkedHashMap();
+    private final String path;
+    private final List<ZipFileResource> resources = Lists.newArrayList();
+
+    /**
+     * @param path the abstract path of the directory, ending with a slash, or
+     *          the empty string for the root
+     */
+    ZipDirectory(String path) {
+      this.path = path;
+    }
+
+    ZipDirectory getOrCreateChild(String name) {
+      ZipDirectory child = children.get(name);
+      if (child == null) {
+        child = new ZipDirectory(path + name + "/");
+        children.put(name, child);
+      }
+      return child;
+    }
   }
 
   private static class ZipFileSnapshot {
@@ -68,6 +107,20 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     }
   }
 
+  /**
+   * The system property naming a directory in which the entry names of each
+   * zip file are saved, so that later processes can index unchanged zip files
+   * without enumerating their entries. Saved indexes are keyed by the path,
+   * modification time and size of the zip file. Unset by default.
+   */
+  public static final String INDEX_DIR_PROPERTY = "gwt.resource.zipIndexDir";
+
+  /**
+   * Written at the start of saved indexes, to be bumped whenever their format
+   * changes.
+   */
+  private static final int INDEX_VERSION = 1;
+
   /**
    * Memory-sensitive cache of indexed {@link ZipFileClassPathEntry}s. URI of file is most probably
    * not referenced anywhere else, so we use hard reference, and soft reference on
@@ -93,7 +146,11 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     return entry;
   }
 
-  private Set<ZipFileResource> allZipFileResources;
+  /**
+   * The root of the tree of directories in the zip file, or null until the
+   * zip file is indexed.
+   */
+  private ZipDirectory rootDirectory;
 
   /**
    * The lifetime of the {@link PathPrefixSet} pins the life time of the associated
@@ -104,12 +161,14 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
   private final Map<PathPrefixSet, ZipFileSnapshot> cachedSnapshots = new MapMaker().weakKeys().makeMap();
 
   private final long lastModified;
+  private final long length;
   private final String location;
   private final ZipFile zipFile;
 
   private ZipFileClassPathEntry(File zipFile) throws IOException {
     assert zipFile.isAbsolute();
     this.lastModified = zipFile.lastModified();
+    this.length = zipFile.length();
     this.zipFile = new ZipFile(zipFile);
     this.location = zipFile.toURI().toString();
   }
@@ -145,15 +204,43 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
 
   synchronized void index(TreeLogger logger) {
     // Never re-index.
-    if (allZipFileResources == null) {
-      allZipFileResources = buildIndex(logger);
+    if (rootDirectory == null) {
+      rootDirectory = buildIndex(logger);
     }
   }
 
-  private Set<ZipFileResource> buildIndex(TreeLogger logger) {
+  private ZipDirectory buildIndex(TreeLogger logger) {
     logger = Messages.BUILDING_INDEX.branch(logger, zipFile.getName(), null);
 
-    Set<ZipFileResource> results = new IdentityHashSet<ZipFileResource>();
+    File indexFile = getIndexFile();
+    List<String> entryNames = indexFile == null ? null : readIndex(logger, indexFile);
+    if (entryNames == null) {
+      entryNames = readEntryNames(logger);
+      if (indexFile != null) {
+        writeIndex(logger, indexFile, entryNames);
+      }
+    }
+
+    ZipDirectory root = new ZipDirectory("");
+    for (String entryName : entryNames) {
+      ZipFileResource zipResource = new ZipFileResource(this, entryName);
+      ZipDirectory directory = root;
+      String[] pathParts = zipResource.getPathParts();
+      for (int i = 0; i < pathParts.length - 1; i++) {
+        if (pathParts[i].isEmpty()) {
+          // Malformed names aren't valid directory paths; just match them at the root.
+          directory = root;
+          break;
+        }
+        directory = directory.getOrCreateChild(pathParts[i]);
+      }
+      directory.resources.add(zipResource);
+    }
+    return root;
+  }
+
+  private List<String> readEntryNames(TreeLogger logger) {
+    List<String> entryNames = Lists.newArrayList();
     Enumeration<? extends ZipEntry> e = zipFile.entries();
     while (e.hasMoreElements()) {
       ZipEntry zipEntry = e.nextElement();
@@ -165,13 +252,107 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
         // Skip META-INF since classloaders normally make this invisible.
         continue;
       }
-      ZipFileResource zipResource = new ZipFileResource(this, zipEntry.getName());
-      results.add(zipResource);
+      entryNames.add(zipEntry.getName());
       Messages.READ_ZIP_ENTRY.log(logger, zipEntry.getName(), null);
     }
-    return Sets.normalize(results);
+    return entryNames;
   }
 
+  /**
+   * Returns the file holding the saved index of this zip file, or null if
+   * indexes aren't saved.
+   */
+  private File getIndexFile() {
+    String indexDir = System.getProperty(INDEX_DIR_PROPERTY);
+    if (indexDir == null) {
+      return null;
+    }
+    return new File(indexDir, Util.computeStrongName(Util.getBytes(getIndexKey())) + ".idx");
+  }
+
+  private String getIndexKey() {
+    return location + "@" + lastModified + ":" + length;
+  }
+
+  /**
+   * Reads the saved index of this zip file, or returns null if there is no
+   * usable one.
+   */
+  private List<String> readIndex(TreeLogger logger, File indexFile) {
+    if (!indexFile.isFile()) {
+      return null;
+    }
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(
+          new FileInputStream(indexFile)));
+      try {
+        if (in.readInt() != INDEX_VERSION || !in.readUTF().equals(getIndexKey())) {
+          return null;
+        }
+        int count = in.readInt();
+        if (count < 0 || count > zipFile.size()) {
+          // No zip file holds a negative count or more names than it has entries.
+          logger.log(TreeLogger.DEBUG, "Ignoring corrupt zip file index " + indexFile);
+          return null;
+        }
+        List<String> entryNames = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++) {
+          entryNames.add(in.readUTF());
+        }
+        Messages.READ_ZIP_INDEX.log(logger, indexFile.getPath(), null);
+        return entryNames;
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      logger.log(TreeLogger.DEBUG, "Ignoring unreadable zip file index " + indexFile, e);
+      return null;
+    }
+  }
+
+  /**
+   * Saves the index of this zip file. Failures are ignored, since the saved
+   * index is only an optimization.
+   */
+  private void writeIndex(TreeLogger logger, File indexFile, List<String> entryNames) {
+    File parent = indexFile.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+      return;
+    }
+    File temp = null;
+    try {
+      // Write to a temporary file first, so that other processes never see a partial index.
+      temp = File.createTempFile(indexFile.getName(), ".tmp", parent);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          new FileOutputStream(temp)));
+      try {
+        out.writeInt(INDEX_VERSION);
+        out.writeUTF(getIndexKey());
+        out.writeInt(entryNames.size());
+        for (String entryName : entryNames) {
+          out.writeUTF(entryName);
+        }
+      } finally {
+        out.close();
+      }
+      // Another process may have saved the same index; either copy is fine.
+      if (temp.renameTo(indexFile)) {
+        temp = null;
+      }
+    } catch (IOException e) {
+      logger.log(TreeLogger.DEBUG, "Unable to save zip file index " + indexFile, e);
+    } finally {
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  /**
+   * Walks the directory tree, skipping directories that no prefix in the set
+   * can include, so that the cost grows with the matching part of the zip
+   * file rather than with all of its entries.
+   */
   private Map<AbstractResource, ResourceResolution> computeApplicableResources(
       TreeLogger logger, PathPrefixSet pathPrefixSet) {
     logger = Messages.FINDING_INCLUDED_RESOURCES.branch(logger,
@@ -179,7 +360,13 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
 
     Map<AbstractResource, ResourceResolution> results =
         new IdentityHashMap<AbstractResource, ResourceResolution>();
-    for (ZipFileResource r : allZipFileResources) {
+    collectApplicableResources(logger, pathPrefixSet, rootDirectory, results);
+    return IdentityMaps.normalize(results);
+  }
+
+  private void collectApplicableResources(TreeLogger logger, PathPrefixSet pathPrefixSet,
+      ZipDirectory directory, Map<AbstractResource, ResourceResolution> results) {
+    for (ZipFileResource r : directory.resources) {
       String path = r.getPath();
       String[] pathParts = r.getPathParts();
       ResourceResolution resourceResolution = null;
@@ -191,6 +378,11 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
         Messages.EXCLUDING_RESOURCE.log(logger, path, null);
       }
     }
-    return IdentityMaps.normalize(results);
+    for (ZipDirectory child : directory.children.values()) {
+      if (pathPrefixSet.includesDirectory(child.path)) {
+        Messages.DESCENDING_INTO_DIR.log(logger, child.path, null);
+        collectApplicableResources(logger, pathPrefixSet, child, results);
+      }
+    }
   }
 }
@@ -19,6 +19,7 @@ import com.google.gwt.dev.util.StringInterner;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 /**
@@ -67,6 +68,12 @@ public class ZipFileResource extends AbstractResource {
     return lastModified;
   }
 
+  @Override
+  public long getLength() {
+    ZipEntry entry = zipFile.getEntry(entryName);
+    return entry == null ? -1 : entry.getSize();
+  }
+
   @Override
   public String getLocation() {
     return "jar:" + filePath + "!/" + entryName;
@@ -15,36 +15,300 @@
  */
 package com.google.gwt.dev.util;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A nifty class that lets you squirrel away data on the file system. Write
- * once, read many times. Instance of this are thread-safe by way of internal
- * synchronization.
- *
- * Note that in the current implementation, the backing temp file will get
- * arbitrarily large as you continue adding things to it. There is no internal
+ * once, read many times. Instances of this are thread-safe.
+ * <p>
+ * Data is spread across several segment files so that concurrent writers do
+ * not contend on a single file. A writer reserves space in a segment with a
+ * compare-and-set on the segment's end offset and then writes at that
+ * position; readers use positional reads, so there is no shared file pointer.
+ * Reads and writes only share the read side of their segment's lock, which
+ * closing the cache takes exclusively. Reads can optionally be served from
+ * memory mapped chunks of the segment files.
+ * <p>
+ * Note that in the current implementation, the backing temp files will get
+ * arbitrarily large as you continue adding things to them. There is no internal
  * GC or compaction.
+ * <p>
+ * System properties:
+ * <ul>
+ * <li>{@value #SEGMENTS_PROPERTY}: the number of segment files (defaults to the
+ * number of processors, at most {@value #MAX_DEFAULT_SEGMENTS})</li>
+ * <li>{@value #MMAP_PROPERTY}: serve reads from memory mapped chunks</li>
+ * </ul>
  */
 public class DiskCache {
   /**
    * For future thought: if we used Object tokens instead of longs, we could
-   * actually track references and do GC/compaction on the underlying file.
-   *
-   * I considered using memory mapping, but I didn't see any obvious way to make
-   * the map larger after the fact, which kind of defeats the infinite-append
-   * design. At any rate, I measured the current performance of this design to
-   * be so fast relative to what I'm using it for, I didn't pursue this further.
+   * actually track references and do GC/compaction on the underlying files.
+   */
+
+  /**
+   * One of the backing files.
+   */
+  private static class Segment {
+    /**
+     * The value of {@link #end} while a stream of unknown length is being
+     * written to the segment.
+     */
+    private static final long CLAIMED = -1;
+
+    private final FileChannel channel;
+
+    /**
+     * Size of the memory mapped chunks; a read that straddles two chunks falls
+     * back to a positional read.
+     */
+    private final long chunkSize;
+    private final ConcurrentMap<Long, ByteBuffer> chunks;
+
+    /**
+     * Set once the backing file is closed, under the write lock of
+     * {@link #lock}.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Offset of the first unallocated byte, or {@link #CLAIMED}.
+     */
+    private final AtomicLong end = new AtomicLong();
+    private final RandomAccessFile file;
+
+    /**
+     * Held shared by every read and write, and exclusively by {@link #close()}.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    Segment(int mapChunkSize) throws IOException {
+      File temp = File.createTempFile("gwt", "byte-cache");
+      temp.deleteOnExit();
+      file = new RandomAccessFile(temp, "rw");
+      file.setLength(0);
+      channel = file.getChannel();
+      chunkSize = mapChunkSize;
+      chunks = mapChunkSize > 0 ? new ConcurrentHashMap<Long, ByteBuffer>() : null;
+    }
+
+    /**
+     * Reserves {@code length} bytes, returning their offset, or -1 if a stream
+     * is being written to this segment.
+     */
+    long allocate(int length) {
+      while (true) {
+        long position = end.get();
+        if (position == CLAIMED) {
+          return -1;
+        }
+        if (end.compareAndSet(position, position + length)) {
+          return position;
+        }
+      }
+    }
+
+    /**
+     * Claims the end of the segment for a write of unknown length, returning
+     * its offset, or -1 if another stream is already being written.
+     */
+    long claim() {
+      while (true) {
+        long position = end.get();
+        if (position == CLAIMED) {
+          return -1;
+        }
+        if (end.compareAndSet(position, CLAIMED)) {
+          return position;
+        }
+      }
+    }
+
+    /**
+     * Blocks until a stream being written to this segment is released, or the
+     * segment is closed.
+     */
+    synchronized void awaitRelease() throws IOException {
+      try {
+        while (end.get() == CLAIMED && !closed) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for a byte cache segment");
+      }
+    }
+
+    /**
+     * Waits for in-flight reads and writes to finish, then closes the file.
+     * Later reads and writes fail with an {@link IOException}.
+     */
+    void close() throws IOException {
+      lock.writeLock().lock();
+      try {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        if (chunks != null) {
+          chunks.clear();
+        }
+        file.setLength(0);
+        file.close();
+      } finally {
+        lock.writeLock().unlock();
+        // Wake up writers waiting for a stream that will never be released.
+        synchronized (this) {
+          notifyAll();
+        }
+      }
+    }
+
+    /**
+     * Reads exactly {@code buffer.remaining()} bytes at {@code position}.
+     */
+    void read(ByteBuffer buffer, long position) throws IOException {
+      lock.readLock().lock();
+      try {
+        checkOpen();
+        if (chunks != null && readMapped(buffer, position)) {
+          return;
+        }
+        while (buffer.hasRemaining()) {
+          int read = channel.read(buffer, position);
+          if (read < 0) {
+            throw new IOException("Unexpected end of byte cache segment");
+          }
+          position += read;
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Ends a write started by {@link #claim()}.
+     */
+    void release(long newEnd) {
+      end.set(newEnd);
+      synchronized (this) {
+        notifyAll();
+      }
+    }
+
+    /**
+     * Writes all of {@code buffer} at {@code position}.
+     */
+    void write(ByteBuffer buffer, long position) throws IOException {
+      lock.readLock().lock();
+      try {
+        checkOpen();
+        while (buffer.hasRemaining()) {
+          position += channel.write(buffer, position);
+        }
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    private void checkOpen() throws IOException {
+      if (closed) {
+        throw new IOException("Byte cache is closed");
+      }
+    }
+
+    private boolean readMapped(ByteBuffer buffer, long position) throws IOException {
+      long chunkIndex = position / chunkSize;
+      long chunkStart = chunkIndex * chunkSize;
+      if (position + buffer.remaining() > chunkStart + chunkSize) {
+        return false;
+      }
+      ByteBuffer chunk = chunks.get(chunkIndex);
+      if (chunk == null) {
+        // Only map chunks that have been completely allocated and written out.
+        if (channel.size() < chunkStart + chunkSize) {
+          return false;
+        }
+        chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkSize);
+        ByteBuffer existing = chunks.putIfAbsent(chunkIndex, chunk);
+        if (existing != null) {
+          chunk = existing;
+        }
+      }
+      ByteBuffer bytes = chunk.duplicate();
+      bytes.position((int) (position - chunkStart));
+      bytes.limit(bytes.position() + buffer.remaining());
+      buffer.put(bytes);
+      return true;
+    }
+  }
+
+  /**
+   * Reads the bytes written for one token from its segment as they are
+   * consumed.
    */
+  private static class SegmentInputStream extends InputStream {
+    private final Segment segment;
+    private long position;
+    private int remaining;
+
+    SegmentInputStream(Segment segment, long position, int length) {
+      this.segment = segment;
+      this.position = position;
+      this.remaining = length;
+    }
+
+    @Override
+    public int available() {
+      return remaining;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (remaining == 0) {
+        return -1;
+      }
+      int count = Math.min(len, remaining);
+      segment.read(ByteBuffer.wrap(b, off, count), position);
+      position += count;
+      remaining -= count;
+      return count;
+    }
+
+    @Override
+    public long skip(long n) {
+      long count = Math.max(0, Math.min(n, remaining));
+      position += count;
+      remaining -= count;
+      return count;
+    }
+  }
 
   private static class Shutdown implements Runnable {
     @Override
@@ -61,6 +325,21 @@ public class DiskCache {
     }
   }
 
+  public static final String MMAP_PROPERTY = "gwt.diskcache.mmap";
+
+  public static final String SEGMENTS_PROPERTY = "gwt.diskcache.segments";
+
+  /**
+   * Tokens store the segment index in their low bits.
+   */
+  private static final int SEGMENT_BITS = 6;
+
+  private static final int MAX_DEFAULT_SEGMENTS = 8;
+
+  private static final int DEFAULT_MAP_CHUNK_SIZE = 32 * 1024 * 1024;
+
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
   /**
    * A global shared Disk cache.
    */
@@ -68,38 +347,90 @@ public class DiskCache {
 
   private static List<WeakReference<DiskCache>> shutdownList;
 
-  private boolean atEnd = true;
-  private RandomAccessFile file;
+  private static int getDefaultSegmentCount() {
+    return Integer.getInteger(SEGMENTS_PROPERTY,
+        Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_SEGMENTS));
+  }
+
+  private static synchronized void registerForShutdown(DiskCache diskCache) {
+    if (shutdownList == null) {
+      shutdownList = new ArrayList<WeakReference<DiskCache>>();
+      Runtime.getRuntime().addShutdownHook(new Thread(new Shutdown()));
+    }
+    shutdownList.add(new WeakReference<DiskCache>(diskCache));
+  }
+
+  private final Segment[] segments;
 
   DiskCache() {
+    this(getDefaultSegmentCount(),
+        Boolean.getBoolean(MMAP_PROPERTY) ? DEFAULT_MAP_CHUNK_SIZE : 0);
+  }
+
+  /**
+   * @param segmentCount the number of backing files
+   * @param mapChunkSize the size of the memory mapped chunks reads are served
+   *          from, or 0 to read from the files directly
+   */
+  DiskCache(int segmentCount, int mapChunkSize) {
+    if (segmentCount < 1 || segmentCount > 1 << SEGMENT_BITS) {
+      throw new IllegalArgumentException("Invalid segment count: " + segmentCount);
+    }
+    segments = new Segment[segmentCount];
     try {
-      File temp = File.createTempFile("gwt", "byte-cache");
-      temp.deleteOnExit();
-      file = new RandomAccessFile(temp, "rw");
-      file.setLength(0);
-      if (shutdownList == null) {
-        shutdownList = new ArrayList<WeakReference<DiskCache>>();
-        Runtime.getRuntime().addShutdownHook(new Thread(new Shutdown()));
+      for (int i = 0; i < segmentCount; i++) {
+        segments[i] = new Segment(mapChunkSize);
       }
-      shutdownList.add(new WeakReference<DiskCache>(this));
+      registerForShutdown(this);
     } catch (IOException e) {
       throw new RuntimeException("Unable to initialize byte cache", e);
     }
   }
 
+  /**
+   * Returns the number of bytes that were written for a token.
+   *
+   * @param token a previously returned token
+   */
+  public int getLength(long token) {
+    try {
+      return readLength(getSegment(token), getPosition(token));
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to read from byte cache", e);
+    }
+  }
+
+  /**
+   * Returns a stream of the underlying bytes, which are read from disk as the
+   * stream is consumed rather than all at once.
+   *
+   * @param token a previously returned token
+   */
+  public InputStream openStream(long token) {
+    try {
+      Segment segment = getSegment(token);
+      long position = getPosition(token);
+      int length = readLength(segment, position);
+      return new BufferedInputStream(new SegmentInputStream(segment, position + 4, length),
+          STREAM_BUFFER_SIZE);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to read from byte cache", e);
+    }
+  }
+
   /**
    * Retrieve the underlying bytes.
    *
    * @param token a previously returned token
    * @return the bytes that were written
    */
-  public synchronized byte[] readByteArray(long token) {
+  public byte[] readByteArray(long token) {
     try {
-      atEnd = false;
-      file.seek(token);
-      int length = file.readInt();
+      Segment segment = getSegment(token);
+      long position = getPosition(token);
+      int length = readLength(segment, position);
       byte[] result = new byte[length];
-      file.readFully(result);
+      segment.read(ByteBuffer.wrap(result), position + 4);
       return result;
     } catch (IOException e) {
       throw new RuntimeException("Unable to read from byte cache", e);
@@ -116,9 +447,8 @@ public class DiskCache {
    */
   public <T> T readObject(long token, Class<T> type) {
     try {
-      byte[] bytes = readByteArray(token);
-      ByteArrayInputStream in = new ByteArrayInputStream(bytes);
-      return Util.readStreamAsObject(in, type);
+      // Streamed, so that large objects such as ASTs aren't also held as bytes
+      return Util.readStreamAsObject(openStream(token), type);
     } catch (ClassNotFoundException e) {
       throw new RuntimeException("Unexpected exception deserializing from disk cache", e);
     } catch (IOException e) {
@@ -144,30 +474,34 @@ public class DiskCache {
    *
    * @return a token to retrieve the data later
    */
-  public synchronized long transferFromStream(InputStream in) throws IOException {
+  public long transferFromStream(InputStream in) throws IOException {
     assert in != null;
+    int preferredSegment = getPreferredSegment();
+    int segmentIndex = preferredSegment;
+    long position;
+    while ((position = segments[segmentIndex].claim()) < 0) {
+      // Another stream is being written to this segment; try the next one.
+      segmentIndex = (segmentIndex + 1) % segments.length;
+      if (segmentIndex == preferredSegment) {
+        segments[segmentIndex].awaitRelease();
+      }
+    }
+
+    Segment segment = segments[segmentIndex];
+    long end = position + 4;
     byte[] buf = Util.takeThreadLocalBuf();
     try {
-      long position = moveToEndPosition();
-
-      // Placeholder, we don't know the length yet.
-      file.writeInt(-1);
-
-      // Transfer all the bytes.
-      int length = 0;
+      // Transfer all the bytes, then go back and fill in the length.
       int bytesRead;
       while ((bytesRead = in.read(buf)) != -1) {
-        file.write(buf, 0, bytesRead);
-        length += bytesRead;
+        segment.write(ByteBuffer.wrap(buf, 0, bytesRead), end);
+        end += bytesRead;
       }
-
-      // Now go back and fill in the length.
-      file.seek(position);
-      file.writeInt(length);
-      // Don't eagerly seek the end, the next operation might be a read.
-      atEnd = false;
-      return position;
+      segment.write(toLengthBuffer((int) (end - position - 4)), position);
+      return toToken(segmentIndex, position);
     } finally {
+      // On failure the partial data stays allocated but unreferenced.
+      segment.release(end);
       Util.releaseThreadLocalBuf(buf);
     }
   }
@@ -178,22 +512,19 @@ public class DiskCache {
    * @param token a previously returned token
    * @param out the stream to write into
    */
-  public synchronized void transferToStream(long token, OutputStream out) throws IOException {
+  public void transferToStream(long token, OutputStream out) throws IOException {
+    Segment segment = getSegment(token);
+    long position = getPosition(token);
+    int length = readLength(segment, position);
+    position += 4;
     byte[] buf = Util.takeThreadLocalBuf();
     try {
-      atEnd = false;
-      file.seek(token);
-      int length = file.readInt();
-      int bufLen = buf.length;
-      while (length > bufLen) {
-        int read = file.read(buf, 0, bufLen);
-        length -= read;
-        out.write(buf, 0, read);
-      }
       while (length > 0) {
-        int read = file.read(buf, 0, length);
-        length -= read;
-        out.write(buf, 0, read);
+        int chunkLength = Math.min(length, buf.length);
+        segment.read(ByteBuffer.wrap(buf, 0, chunkLength), position);
+        out.write(buf, 0, chunkLength);
+        position += chunkLength;
+        length -= chunkLength;
       }
     } finally {
       Util.releaseThreadLocalBuf(buf);
@@ -205,12 +536,24 @@ public class DiskCache {
    *
    * @return a token to retrieve the data later
    */
-  public synchronized long writeByteArray(byte[] bytes) {
+  public long writeByteArray(byte[] bytes) {
+    int preferredSegment = getPreferredSegment();
+    int segmentIndex = preferredSegment;
     try {
-      long position = moveToEndPosition();
-      file.writeInt(bytes.length);
-      file.write(bytes);
-      return position;
+      long position;
+      while ((position = segments[segmentIndex].allocate(bytes.length + 4)) < 0) {
+        // A stream is being written to this segment; try the next one.
+        segmentIndex = (segmentIndex + 1) % segments.length;
+        if (segmentIndex == preferredSegment) {
+          segments[segmentIndex].awaitRelease();
+        }
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 4);
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+      buffer.flip();
+      segments[segmentIndex].write(buffer, position);
+      return toToken(segmentIndex, position);
     } catch (IOException e) {
       throw new RuntimeException("Unable to write to byte cache", e);
     }
@@ -241,34 +584,48 @@ public class DiskCache {
   }
 
   @Override
-  protected synchronized void finalize() throws Throwable {
+  protected void finalize() throws Throwable {
     close();
   }
 
-  private void close() throws Throwable {
-    if (file != null) {
-      file.setLength(0);
-      file.close();
-      file = null;
+  private void close() throws IOException {
+    for (Segment segment : segments) {
+      if (segment != null) {
+        segment.close();
+      }
     }
   }
 
   /**
-   * Moves to the end of the file if necessary and returns the offset position.
-   * Caller must synchronize.
-   *
-   * @return the offset position of the end of the file
-   * @throws IOException
+   * Spreads writers from different threads across the segments.
    */
-  private long moveToEndPosition() throws IOException {
-    // Get an end pointer.
-    if (atEnd) {
-      return file.getFilePointer();
-    } else {
-      long position = file.length();
-      file.seek(position);
-      atEnd = true;
-      return position;
-    }
+  private int getPreferredSegment() {
+    return (int) (Thread.currentThread().getId() % segments.length);
+  }
+
+  private long getPosition(long token) {
+    return token >>> SEGMENT_BITS;
+  }
+
+  private Segment getSegment(long token) {
+    return segments[(int) (token & ((1 << SEGMENT_BITS) - 1))];
+  }
+
+  private int readLength(Segment segment, long position) throws IOException {
+    ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+    segment.read(lengthBuffer, position);
+    lengthBuffer.flip();
+    return lengthBuffer.getInt();
+  }
+
+  private ByteBuffer toLengthBuffer(int length) {
+    ByteBuffer buffer = ByteBuffer.allocate(4);
+    buffer.putInt(length);
+    buffer.flip();
+    return buffer;
+  }
+
+  private long toToken(int segmentIndex, long position) {
+    return (position << SEGMENT_BITS) | segmentIndex;
   }
-}
\ No newline at end of file
+}
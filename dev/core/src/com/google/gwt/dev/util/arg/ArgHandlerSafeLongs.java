@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util.arg;
+
+import com.google.gwt.util.tools.ArgHandlerFlag;
+
+/**
+ * Represents the longs of code annotated with {@code @SafeLong} as JavaScript numbers.
+ */
+public class ArgHandlerSafeLongs extends ArgHandlerFlag {
+
+  private final OptionSafeLongs option;
+
+  public ArgHandlerSafeLongs(OptionSafeLongs option) {
+    this.option = option;
+  }
+
+  @Override
+  public String getPurposeSnippet() {
+    return "Use JavaScript numbers for the longs of methods and classes annotated @SafeLong.";
+  }
+
+  @Override
+  public String getLabel() {
+    return "safeLongs";
+  }
+
+  @Override
+  public boolean setFlag(boolean value) {
+    option.setSafeLongsEnabled(value);
+    return true;
+  }
+
+  @Override
+  public boolean isExperimental() {
+    return true;
+  }
+
+  @Override
+  public boolean getDefaultValue() {
+    return option.isSafeLongsEnabled();
+  }
+}
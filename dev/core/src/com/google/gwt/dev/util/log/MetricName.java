@@ -26,10 +26,21 @@ import java.util.regex.Pattern;
  */
 public enum MetricName {
 
+  /**
+   * The time in milliseconds that a Super Dev Mode job spent compiling, once started.
+   */
+  COMPILE_MILLIS("CompileMillis"),
+
   /**
    * The number of types that UnifyAst considers to be part of the module being compiled.
    */
-  DECLARED_TYPES_IN_MODULE("DeclaredTypesInModule");
+  DECLARED_TYPES_IN_MODULE("DeclaredTypesInModule"),
+
+  /**
+   * The time in milliseconds that a Super Dev Mode job waited in the queue before it started
+   * compiling.
+   */
+  QUEUE_WAIT_MILLIS("QueueWaitMillis");
 
   // Note: this constraint is used in JobEvent which is a public API (for Super Dev Mode).
   // Allowing more characters in keys may break data collection.
@@ -52,6 +63,13 @@ public enum MetricName {
     this.key = key;
   }
 
+  /**
+   * Returns the string key that identifies this metric in output.
+   */
+  public String getKey() {
+    return key;
+  }
+
   /**
    * Adds the given amount to the counter.
    * @param logger the destination where the count will be logged.
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util.log.speedtracer;
+
+import com.google.gwt.dev.json.JsonArray;
+import com.google.gwt.dev.json.JsonObject;
+import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the events of a {@link SpeedTracerLogger}, along with the CPU time and the heap
+ * allocated by the thread that ran each of them, and writes them as a single JSON report and,
+ * optionally, in the Chrome trace event format that chrome://tracing and similar viewers open.
+ * <p>
+ * Besides the events themselves, the report sums up each event type (counting only the outermost
+ * of nested events of one type) and lists the permutations that were compiled in this process.
+ * Work that an event hands to other threads is measured by the events of those threads, not by
+ * the CPU time and allocation of the event itself.
+ * <p>
+ * Enable the report by setting the system property {@code gwt.perfreport} to the output file
+ * path, and {@code gwt.perfreport.trace} to the path of the Chrome trace file. The files are
+ * written when the JVM exits.
+ * <p>
+ * Since a process such as Super Dev Mode may compile many times before it exits, the phase sums
+ * and permutations are kept as events are added, but only the most recent events are kept in full,
+ * up to {@code gwt.perfreport.maxEvents} events counting nested ones (10000 by default). The
+ * report counts the events that were dropped.
+ */
+final class PerfReport {
+
+  private static final Logger log = Logger.getLogger(PerfReport.class.getName());
+
+  private static final int DEFAULT_MAX_EVENTS =
+      Integer.getInteger("gwt.perfreport.maxEvents", 10000);
+
+  private static final String PERMUTATION_EVENT_NAME =
+      CompilerEventType.JJS_COMPILE_PERMUTATION.getName();
+
+  /**
+   * Sums up the events of one type.
+   */
+  private static class Phase {
+    int count;
+    long allocatedBytes;
+    long cpuNanos;
+    long elapsedNanos;
+
+    JsonObject toJson() {
+      JsonObject json = JsonObject.create();
+      json.put("count", count);
+      json.put("wallMillis", toMillis(elapsedNanos));
+      if (cpuNanos >= 0) {
+        json.put("cpuMillis", toMillis(cpuNanos));
+      }
+      if (allocatedBytes >= 0) {
+        json.put("allocatedBytes", allocatedBytes);
+      }
+      return json;
+    }
+  }
+
+  /**
+   * Returns the number of events in the tree rooted at {@code event}.
+   */
+  private static int countEvents(Event event) {
+    int count = 1;
+    for (Event child : event.children) {
+      count += countEvents(child);
+    }
+    return count;
+  }
+
+  private static String getName(Event event) {
+    // Timeline marks have no type.
+    return event.getType() == null ? "Timeline" : event.getType().getName();
+  }
+
+  private static long sumIfKnown(long sum, long value) {
+    return sum < 0 || value < 0 ? -1 : sum + value;
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1000000.0d;
+  }
+
+  private static double toMicros(long nanos) {
+    return nanos / 1000.0d;
+  }
+
+  private static void write(JsonObject json, String fileName) {
+    try {
+      Writer writer = new BufferedWriter(new FileWriter(fileName));
+      try {
+        json.write(writer);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      log.log(Level.SEVERE, "Unable to write performance report '" + fileName + "'", e);
+    }
+  }
+
+  private final long baseTimeMillis;
+
+  private int droppedEventCount;
+
+  /**
+   * The most recent top level events, oldest first.
+   */
+  private final Deque<Event> events = new ArrayDeque<Event>();
+
+  private int eventCount;
+
+  /**
+   * {@code com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long)}, if available.
+   */
+  private final Method getThreadAllocatedBytesMethod;
+
+  private final int maxEvents;
+
+  private final List<JsonObject> permutations = Lists.newArrayList();
+
+  private final Map<String, Phase> phasesByName = Maps.newTreeMap();
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+  private final boolean threadCpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+
+  PerfReport(long baseTimeMillis) {
+    this(baseTimeMillis, DEFAULT_MAX_EVENTS);
+  }
+
+  /**
+   * @param maxEvents the number of events, counting nested ones, to keep in full
+   */
+  PerfReport(long baseTimeMillis, int maxEvents) {
+    this.baseTimeMillis = baseTimeMillis;
+    this.maxEvents = maxEvents;
+    Method getThreadAllocatedBytes = null;
+    try {
+      /*
+       * Find this method by reflection, since it's part of the Sun implementation of
+       * ThreadMXBean, which may not be available.
+       */
+      Class<?> sunThreadMXBean = Class.forName("com.sun.management.ThreadMXBean");
+      if (sunThreadMXBean.isInstance(threadMXBean)) {
+        getThreadAllocatedBytes =
+            sunThreadMXBean.getMethod("getThreadAllocatedBytes", long.class);
+      }
+    } catch (Exception e) {
+      // Allocations aren't reported.
+    }
+    getThreadAllocatedBytesMethod = getThreadAllocatedBytes;
+  }
+
+  /**
+   * Adds an event that has ended, along with its children, and drops the oldest events if more
+   * than the maximum are kept.
+   */
+  synchronized void add(Event event) {
+    sumPhases(event, Sets.<String>newHashSet());
+    events.addLast(event);
+    eventCount += countEvents(event);
+    while (eventCount > maxEvents && !events.isEmpty()) {
+      int count = countEvents(events.removeFirst());
+      eventCount -= count;
+      droppedEventCount += count;
+    }
+  }
+
+  /**
+   * Returns the bytes the current thread has allocated so far, or -1 if that is not known.
+   */
+  long currentThreadAllocatedBytes() {
+    if (getThreadAllocatedBytesMethod == null) {
+      return -1;
+    }
+    try {
+      return (Long) getThreadAllocatedBytesMethod.invoke(threadMXBean,
+          Thread.currentThread().getId());
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Returns the CPU time the current thread has used so far, or -1 if that is not known.
+   */
+  long currentThreadCpuNanos() {
+    return threadCpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1;
+  }
+
+  /**
+   * Returns the report as JSON.
+   */
+  synchronized JsonObject toJson() {
+    JsonObject phases = JsonObject.create();
+    for (Map.Entry<String, Phase> entry : phasesByName.entrySet()) {
+      phases.put(entry.getKey(), entry.getValue().toJson());
+    }
+
+    JsonArray permutationsJson = JsonArray.create();
+    for (JsonObject permutation : permutations) {
+      permutationsJson.add(permutation);
+    }
+
+    JsonArray eventsJson = JsonArray.create();
+    for (Event event : events) {
+      eventsJson.add(toJson(event));
+    }
+
+    JsonObject json = JsonObject.create();
+    json.put("baseTime", baseTimeMillis);
+    json.put("phases", phases);
+    json.put("permutations", permutationsJson);
+    json.put("events", eventsJson);
+    json.put("droppedEvents", droppedEventCount);
+    return json;
+  }
+
+  /**
+   * Returns the events in the Chrome trace event format, with a complete event for each event
+   * and an instant event for each timeline mark.
+   */
+  synchronized JsonObject toChromeTrace() {
+    JsonArray traceEvents = JsonArray.create();
+    Map<Long, String> threadNames = Maps.newTreeMap();
+    for (Event event : events) {
+      addTraceEvents(event, traceEvents, threadNames);
+    }
+    for (Map.Entry<Long, String> entry : threadNames.entrySet()) {
+      JsonObject args = JsonObject.create();
+      args.put("name", entry.getValue());
+      JsonObject threadName = JsonObject.create();
+      threadName.put("name", "thread_name");
+      threadName.put("ph", "M");
+      threadName.put("pid", 1);
+      threadName.put("tid", entry.getKey());
+      threadName.put("args", args);
+      traceEvents.add(threadName);
+    }
+
+    JsonObject json = JsonObject.create();
+    json.put("traceEvents", traceEvents);
+    json.put("displayTimeUnit", "ms");
+    return json;
+  }
+
+  /**
+   * Writes the report, and the Chrome trace if a file name is given for it.
+   */
+  void write(String reportFileName, String traceFileName) {
+    if (reportFileName != null) {
+      write(toJson(), reportFileName);
+    }
+    if (traceFileName != null) {
+      write(toChromeTrace(), traceFileName);
+    }
+  }
+
+  private void addTraceEvents(Event event, JsonArray traceEvents, Map<Long, String> threadNames) {
+    threadNames.put(event.threadId, event.threadName);
+    JsonObject args = toJsonData(event);
+    addResources(event, args);
+
+    JsonObject json = JsonObject.create();
+    json.put("name", getName(event));
+    json.put("cat", "gwt");
+    json.put("pid", 1);
+    json.put("tid", event.threadId);
+    json.put("ts", toMicros(event.getElapsedStartTimeNanos()));
+    if (event.getType() == null) {
+      json.put("ph", "i");
+      json.put("s", "t");
+    } else {
+      json.put("ph", "X");
+      json.put("dur", toMicros(event.getElapsedDurationNanos()));
+    }
+    json.put("args", args);
+    traceEvents.add(json);
+
+    for (Event child : event.children) {
+      addTraceEvents(child, traceEvents, threadNames);
+    }
+  }
+
+  private void addResources(Event event, JsonObject json) {
+    if (event.cpuNanos >= 0) {
+      json.put("cpuMillis", toMillis(event.cpuNanos));
+    }
+    if (event.allocatedBytes >= 0) {
+      json.put("allocatedBytes", event.allocatedBytes);
+    }
+  }
+
+  /**
+   * Adds an event to the sums of its type, unless it is nested in an event of the same type, and
+   * then does the same for its children.
+   */
+  private void sumPhases(Event event, Set<String> enclosingNames) {
+    if (event.getType() == null) {
+      return;
+    }
+    String name = getName(event);
+    boolean outermost = enclosingNames.add(name);
+    if (outermost) {
+      Phase phase = phasesByName.get(name);
+      if (phase == null) {
+        phase = new Phase();
+        phasesByName.put(name, phase);
+      }
+      phase.count++;
+      phase.elapsedNanos += event.getElapsedDurationNanos();
+      phase.cpuNanos = sumIfKnown(phase.cpuNanos, event.cpuNanos);
+      phase.allocatedBytes = sumIfKnown(phase.allocatedBytes, event.allocatedBytes);
+    }
+    if (name.equals(PERMUTATION_EVENT_NAME)) {
+      JsonObject permutation = toJsonData(event);
+      permutation.put("thread", event.threadName);
+      permutation.put("wallMillis", toMillis(event.getElapsedDurationNanos()));
+      addResources(event, permutation);
+      permutations.add(permutation);
+    }
+    for (Event child : event.children) {
+      sumPhases(child, enclosingNames);
+    }
+    if (outermost) {
+      enclosingNames.remove(name);
+    }
+  }
+
+  private JsonObject toJson(Event event) {
+    JsonObject json = JsonObject.create();
+    json.put("name", getName(event));
+    json.put("thread", event.threadName);
+    json.put("startMillis", toMillis(event.getElapsedStartTimeNanos()));
+    json.put("wallMillis", toMillis(event.getElapsedDurationNanos()));
+    addResources(event, json);
+    json.put("data", toJsonData(event));
+    JsonArray children = JsonArray.create();
+    for (Event child : event.children) {
+      children.add(toJson(child));
+    }
+    json.put("children", children);
+    return json;
+  }
+
+  private JsonObject toJsonData(Event event) {
+    JsonObject data = JsonObject.create();
+    for (int i = 0; i < event.data.size(); i += 2) {
+      data.put(event.data.get(i), event.data.get(i + 1));
+    }
+    return data;
+  }
+}
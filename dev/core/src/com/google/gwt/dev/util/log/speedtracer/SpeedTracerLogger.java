@@ -53,6 +53,10 @@ import java.util.logging.Logger;
  * the output file path.
  * </p>
  *
+ * <p>
+ * Events can also be collected into a {@link PerfReport}, by setting the
+ * system property {@code gwt.perfreport} to the report file path.
+ * </p>
  */
 public final class SpeedTracerLogger {
 
@@ -66,6 +70,15 @@ public final class SpeedTracerLogger {
   private static final String defaultFormatString =
     System.getProperty("gwt.speedtracerformat");
 
+  // Performance report file name (the report is kept if this or the trace file
+  // name is non-null)
+  private static final String perfReportFile =
+    System.getProperty("gwt.perfreport");
+
+  // Chrome trace file name for the performance report
+  private static final String perfReportTraceFile =
+    System.getProperty("gwt.perfreport.trace");
+
   // Use cumulative multi-threaded process cpu time instead of wall time
   private static final boolean logProcessCpuTime =
     getBooleanProperty("gwt.speedtracer.logProcessCpuTime");
@@ -115,6 +128,14 @@ public final class SpeedTracerLogger {
     long threadCpuDurationNanos;
     long threadCpuStartTimeNanos;
 
+    // Only measured for the performance report, -1 if not known.
+    long allocatedBytes = -1;
+    long allocatedStartBytes;
+    long cpuNanos = -1;
+    long cpuStartNanos;
+    long threadId;
+    String threadName;
+
     Event() {
       if (enabled) {
         if (logThreadCpuTime) {
@@ -259,6 +280,14 @@ public final class SpeedTracerLogger {
       assert (elapsedEndTimeNanos >= elapsedStartTimeNanos);
       elapsedDurationNanos = elapsedEndTimeNanos - elapsedStartTimeNanos;
 
+      if (perfReport != null) {
+        long cpuEndNanos = perfReport.currentThreadCpuNanos();
+        cpuNanos = cpuStartNanos < 0 || cpuEndNanos < 0 ? -1 : cpuEndNanos - cpuStartNanos;
+        long allocatedEndBytes = perfReport.currentThreadAllocatedBytes();
+        allocatedBytes = allocatedStartBytes < 0 || allocatedEndBytes < 0 ? -1
+            : allocatedEndBytes - allocatedStartBytes;
+      }
+
       // don't bother making expensive time keeping method calls unless
       // necessary
       if (logProcessCpuTime) {
@@ -284,6 +313,14 @@ public final class SpeedTracerLogger {
     private void recordStartTime() {
       elapsedStartTimeNanos = elapsedTimeKeeper.normalizedTimeNanos();
 
+      if (perfReport != null) {
+        Thread thread = Thread.currentThread();
+        threadId = thread.getId();
+        threadName = thread.getName();
+        cpuStartNanos = perfReport.currentThreadCpuNanos();
+        allocatedStartBytes = perfReport.currentThreadAllocatedBytes();
+      }
+
       // don't bother making expensive time keeping method calls unless
       // necessary
       if (logProcessCpuTime) {
@@ -679,6 +716,8 @@ public final class SpeedTracerLogger {
 
   private ThreadLocal<Stack<Event>> pendingEvents;
 
+  private final PerfReport perfReport;
+
   private CountDownLatch shutDownLatch;
 
   private Event shutDownSentinel;
@@ -712,6 +751,7 @@ public final class SpeedTracerLogger {
   SpeedTracerLogger(Writer writer, Format format) {
     enabled = true;
     fileLoggingEnabled = true;
+    perfReport = null;
     outputFormat = format;
     eventsToWrite = openLogWriter(writer, "");
     pendingEvents = initPendingEvents();
@@ -720,9 +760,24 @@ public final class SpeedTracerLogger {
     shutDownLatch = new CountDownLatch(1);
   }
 
+  /**
+   * Constructor intended for unit testing.
+   *
+   * @param perfReport the report to collect events into, instead of a log file.
+   */
+  SpeedTracerLogger(PerfReport perfReport) {
+    enabled = true;
+    fileLoggingEnabled = false;
+    this.perfReport = perfReport;
+    pendingEvents = initPendingEvents();
+  }
+
   private SpeedTracerLogger() {
     fileLoggingEnabled = logFile != null;
-    enabled = fileLoggingEnabled || DashboardNotifierFactory.areNotificationsEnabled();
+    perfReport = perfReportFile != null || perfReportTraceFile != null
+        ? openPerfReport() : null;
+    enabled = fileLoggingEnabled || perfReport != null
+        || DashboardNotifierFactory.areNotificationsEnabled();
 
     if (enabled) {
       if (fileLoggingEnabled) {
@@ -856,6 +911,10 @@ public final class SpeedTracerLogger {
         eventsToWrite.add(currentEvent);
       }
 
+      if (perfReport != null) {
+        perfReport.add(currentEvent);
+      }
+
       DashboardNotifierFactory.getNotifier().devModeEventEnd(currentEvent.getDevModeSession(),
           currentEvent.getType().getName(), currentEvent.getElapsedStartTimeNanos(),
           currentEvent.getElapsedDurationNanos());
@@ -923,6 +982,20 @@ public final class SpeedTracerLogger {
     };
   }
 
+  /**
+   * Creates the performance report, which is written when the JVM exits.
+   */
+  private PerfReport openPerfReport() {
+    final PerfReport report = new PerfReport(baseTimeMillis);
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        report.write(perfReportFile, perfReportTraceFile);
+      }
+    });
+    return report;
+  }
+
   private BlockingQueue<Event> openDefaultLogWriter() {
     Writer writer = null;
     if (enabled) {
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.client;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+
+/**
+ * Promises the compiler that every <code>long</code> value computed in the
+ * annotated method, or in the methods declared by the annotated class, stays
+ * between <code>-2<sup>53</sup></code> and <code>2<sup>53</sup></code>, the
+ * range in which a JavaScript number represents integers exactly. Timestamps
+ * in milliseconds and most identifiers fall in this range.
+ *
+ * <p>
+ * When compiled with <code>-XsafeLongs</code>, the local variables and the
+ * arithmetic of such methods use JavaScript numbers instead of the emulated
+ * <code>long</code> objects, which avoids an allocation for every operation.
+ * Values are converted to emulated longs only where they leave the method, for
+ * example when stored in a field or passed to another method. Without the
+ * flag, the annotation has no effect.
+ * </p>
+ * <p>
+ * The promise is not checked. A value outside of the range loses precision
+ * silently instead of overflowing the way a Java <code>long</code> does.
+ * </p>
+ */
+@Documented
+@Target({ElementType.CONSTRUCTOR, ElementType.METHOD, ElementType.TYPE})
+public @interface SafeLong {
+}
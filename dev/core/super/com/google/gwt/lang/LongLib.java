@@ -319,6 +319,38 @@ public class LongLib extends LongLibBase {
     return create(getL(a) | getL(b), getM(a) | getM(b), getH(a) | getH(b));
   }
 
+  /**
+   * Divides two longs that are represented as doubles because they are known to
+   * stay within 2^53, see {@link com.google.gwt.core.client.SafeLong}.
+   */
+  public static double safeDiv(double a, double b) {
+    if (b == 0) {
+      throw new ArithmeticException("divide by zero");
+    }
+    return safeFromDouble(a / b);
+  }
+
+  /**
+   * Converts a double to a long that is represented as a double, truncating
+   * toward zero like a Java cast.
+   */
+  public static double safeFromDouble(double value) {
+    if (Double.isNaN(value)) {
+      return 0;
+    }
+    return value < 0 ? Math.ceil(value) : Math.floor(value);
+  }
+
+  /**
+   * Computes the remainder of two longs that are represented as doubles.
+   */
+  public static double safeMod(double a, double b) {
+    if (b == 0) {
+      throw new ArithmeticException("divide by zero");
+    }
+    return a % b;
+  }
+
   public static LongEmul shl(LongEmul a, int n) {
     n &= 63;
 
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.dev.CompilePermsServer.ArgProcessor;
+import com.google.gwt.dev.CompilePermsServer.CompileServerOptionsImpl;
+
+/**
+ * Tests the argument processor of {@link CompilePermsServer}.
+ */
+public class CompilePermsServerArgProcessorTest extends ArgProcessorTestBase {
+
+  private final CompileServerOptionsImpl options = new CompileServerOptionsImpl();
+  private final ArgProcessor argProcessor = new ArgProcessor(options);
+
+  public void testDaemonIdleSeconds() {
+    assertProcessSuccess(argProcessor, args("-daemonIdleSeconds", "30"));
+    assertEquals(30, options.getDaemonIdleSeconds());
+  }
+
+  public void testNonPositiveDaemonIdleSecondsAreRejected() {
+    for (String seconds : new String[] {"0", "-5", "never"}) {
+      assertProcessFailure(argProcessor, "-daemonIdleSeconds",
+          args("-daemonIdleSeconds", seconds));
+    }
+    assertEquals(600, options.getDaemonIdleSeconds());
+  }
+
+  private static String[] args(String tag, String value) {
+    return new String[] {"-host", "localhost", "-port", "1234", "-cookie", "cookie", tag, value};
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.core.ext.Generator;
+import com.google.gwt.core.ext.GeneratorContext;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.linker.ArtifactSet;
+import com.google.gwt.core.ext.linker.GeneratedResource;
+import com.google.gwt.dev.cfg.ConditionWhenTypeIs;
+import com.google.gwt.dev.cfg.MockModuleDef;
+import com.google.gwt.dev.cfg.ModuleDef;
+import com.google.gwt.dev.cfg.PropertyPermutations;
+import com.google.gwt.dev.cfg.RuleGenerateWith;
+import com.google.gwt.dev.javac.CompilationState;
+import com.google.gwt.dev.javac.CompilationStateBuilder;
+import com.google.gwt.dev.javac.CompilationUnit;
+import com.google.gwt.dev.javac.CompiledClass;
+import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
+import com.google.gwt.dev.resource.Resource;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests that running generators ahead of time with
+ * {@link DistillerRebindPermutationOracle#prepareRebindAnswers} gives the same results as running
+ * them one at a time.
+ */
+public class DistillerRebindPermutationOracleTest extends TestCase {
+
+  /**
+   * Generates {@code test.<Name>Impl}.
+   */
+  public static class ImplGenerator extends Generator {
+    @Override
+    public String generate(TreeLogger logger, GeneratorContext context, String typeName) {
+      countRun(typeName);
+      String simpleName = getSimpleName(typeName) + "Impl";
+      PrintWriter pw = context.tryCreate(logger, "test", simpleName);
+      if (pw != null) {
+        pw.println("package test;");
+        pw.println("public class " + simpleName + " implements " + typeName + " {}");
+        context.commit(logger, pw);
+      }
+      return "test." + simpleName;
+    }
+  }
+
+  /**
+   * Generates {@code test.<Name>Impl}, extending {@code test.AImpl} if it already exists.
+   */
+  public static class DependentGenerator extends Generator {
+    @Override
+    public String generate(TreeLogger logger, GeneratorContext context, String typeName) {
+      countRun(typeName);
+      String simpleName = getSimpleName(typeName) + "Impl";
+      boolean extendsA = context.getTypeOracle().findType("test.AImpl") != null;
+      PrintWriter pw = context.tryCreate(logger, "test", simpleName);
+      if (pw != null) {
+        pw.println("package test;");
+        pw.println("public class " + simpleName + (extendsA ? " extends test.AImpl" : "")
+            + " implements " + typeName + " {}");
+        context.commit(logger, pw);
+      }
+      return "test." + simpleName;
+    }
+  }
+
+  /**
+   * Fails.
+   */
+  public static class FailingGenerator extends Generator {
+    @Override
+    public String generate(TreeLogger logger, GeneratorContext context, String typeName)
+        throws UnableToCompleteException {
+      countRun(typeName);
+      logger.log(TreeLogger.ERROR, "Failing on purpose");
+      throw new UnableToCompleteException();
+    }
+  }
+
+  /**
+   * Creates the resource {@code shared.txt} holding the name of the type if it doesn't exist
+   * yet. Takes a while for {@code test.A}, so that it finishes after the other generators.
+   */
+  public static class SharedResourceGenerator extends Generator {
+    @Override
+    public String generate(TreeLogger logger, GeneratorContext context, String typeName)
+        throws UnableToCompleteException {
+      countRun(typeName);
+      if (typeName.equals("test.A")) {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          throw new UnableToCompleteException();
+        }
+      }
+      OutputStream out = context.tryCreateResource(logger, "shared.txt");
+      if (out != null) {
+        try {
+          out.write(Util.getBytes(typeName));
+        } catch (IOException e) {
+          throw new UnableToCompleteException();
+        }
+        context.commitResource(logger, out);
+      }
+      return typeName;
+    }
+  }
+
+  /**
+   * What rebinding a list of types gave.
+   */
+  private static class Result {
+    final Map<String, String> answers = new TreeMap<String, String>();
+    final Map<String, String> generatedClassHashes = new TreeMap<String, String>();
+    final Map<String, String> resources = new TreeMap<String, String>();
+
+    @Override
+    public boolean equals(Object o) {
+      Result other = (Result) o;
+      return answers.equals(other.answers)
+          && generatedClassHashes.equals(other.generatedClassHashes)
+          && resources.equals(other.resources);
+    }
+
+    @Override
+    public int hashCode() {
+      return answers.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return answers + " " + generatedClassHashes.keySet() + " " + resources;
+    }
+  }
+
+  private static final Map<String, AtomicInteger> runsByTypeName =
+      new ConcurrentHashMap<String, AtomicInteger>();
+
+  private static void countRun(String typeName) {
+    runsByTypeName.putIfAbsent(typeName, new AtomicInteger());
+    runsByTypeName.get(typeName).incrementAndGet();
+  }
+
+  private static String getSimpleName(String typeName) {
+    return typeName.substring(typeName.lastIndexOf('.') + 1);
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    runsByTypeName.clear();
+  }
+
+  public void testParallelMatchesSerial() throws Exception {
+    Class<?>[] generators = {ImplGenerator.class, ImplGenerator.class, ImplGenerator.class};
+    Result serial = rebind(false, generators, "test.C", "test.A", "test.B");
+    Result parallel = rebind(true, generators, "test.C", "test.A", "test.B");
+    assertEquals(serial, parallel);
+    assertEquals("test.AImpl", parallel.answers.get("test.A"));
+    assertEquals(Sets.newHashSet("test.AImpl", "test.BImpl", "test.CImpl"),
+        parallel.generatedClassHashes.keySet());
+  }
+
+  public void testAnswersAreMemoized() throws Exception {
+    rebind(true, new Class<?>[] {ImplGenerator.class, ImplGenerator.class}, "test.A", "test.B");
+    assertEquals(1, runsByTypeName.get("test.A").get());
+    assertEquals(1, runsByTypeName.get("test.B").get());
+  }
+
+  public void testFailureIsReportedWhenAsked() throws Exception {
+    Result result = rebind(true,
+        new Class<?>[] {ImplGenerator.class, FailingGenerator.class}, "test.A", "test.B");
+    assertEquals("test.AImpl", result.answers.get("test.A"));
+    assertEquals("failed", result.answers.get("test.B"));
+    // Not run again when its answer is asked for.
+    assertEquals(1, runsByTypeName.get("test.B").get());
+  }
+
+  public void testGeneratorSeeingEarlierOutputFallsBackToSerial() throws Exception {
+    Class<?>[] generators = {ImplGenerator.class, DependentGenerator.class};
+    Result serial = rebind(false, generators, "test.A", "test.B");
+    assertTrue(serial.generatedClassHashes.containsKey("test.BImpl"));
+    runsByTypeName.clear();
+
+    Result parallel = rebind(true, generators, "test.A", "test.B");
+    assertEquals(serial, parallel);
+    // B ran in a fork without seeing AImpl, and once more afterwards.
+    assertEquals(1, runsByTypeName.get("test.A").get());
+    assertEquals(2, runsByTypeName.get("test.B").get());
+  }
+
+  public void testGeneratorNotSeeingLaterOutputIsKept() throws Exception {
+    Class<?>[] generators = {ImplGenerator.class, DependentGenerator.class};
+    // B is requested first, so it doesn't see AImpl run one at a time either.
+    Result serial = rebind(false, generators, "test.B", "test.A");
+    runsByTypeName.clear();
+
+    Result parallel = rebind(true, generators, "test.B", "test.A");
+    assertEquals(serial, parallel);
+    assertEquals(1, runsByTypeName.get("test.B").get());
+  }
+
+  public void testCommitOrderFollowsRequestOrder() throws Exception {
+    Class<?>[] generators = {SharedResourceGenerator.class, SharedResourceGenerator.class,
+        SharedResourceGenerator.class};
+    Result serial = rebind(false, generators, "test.A", "test.C", "test.B");
+    Result parallel = rebind(true, generators, "test.A", "test.C", "test.B");
+    // A finishes last, but was asked for first.
+    assertEquals("test.A", parallel.resources.get("shared.txt"));
+    assertEquals(serial, parallel);
+  }
+
+  /**
+   * Rebinds {@code test.A}, {@code test.B}, ... with the given generators, like UnifyAst does, and
+   * returns the answers and what was generated.
+   */
+  private Result rebind(boolean prepare, Class<?>[] generators, String... requestTypeNames)
+      throws Exception {
+    ModuleDef module = new MockModuleDef();
+    Set<Resource> resources = Sets.<Resource>newHashSet(JavaResourceBase.getStandardResources());
+    for (int i = 0; i < generators.length; i++) {
+      String typeName = "test." + (char) ('A' + i);
+      resources.add(JavaResourceBase.createMockJavaResource(typeName,
+          "package test;",
+          "public interface " + getSimpleName(typeName) + " {}"));
+      RuleGenerateWith rule =
+          new RuleGenerateWith(generators[i].asSubclass(Generator.class));
+      rule.getRootCondition().getConditions().add(new ConditionWhenTypeIs(typeName));
+      module.addRule(rule);
+    }
+    CompilerContext compilerContext = new CompilerContext.Builder().module(module).build();
+    CompilationState compilationState =
+        new CompilationStateBuilder().doBuildFrom(TreeLogger.NULL, compilerContext, resources);
+    ArtifactSet generatedArtifacts = new ArtifactSet();
+
+    System.setProperty(DistillerRebindPermutationOracle.GENERATOR_THREADS_PROPERTY,
+        prepare ? "4" : "1");
+    DistillerRebindPermutationOracle oracle;
+    try {
+      oracle = new DistillerRebindPermutationOracle(compilerContext, compilationState,
+          generatedArtifacts,
+          new PropertyPermutations(module.getProperties(), module.getActiveLinkerNames()));
+    } finally {
+      System.clearProperty(DistillerRebindPermutationOracle.GENERATOR_THREADS_PROPERTY);
+    }
+    assertEquals(prepare, oracle.canPrepareRebindAnswers());
+
+    if (prepare) {
+      oracle.prepareRebindAnswers(TreeLogger.NULL, Arrays.asList(requestTypeNames));
+    }
+    Result result = new Result();
+    for (String requestTypeName : requestTypeNames) {
+      try {
+        String[] answers = oracle.getAllPossibleRebindAnswers(TreeLogger.NULL, requestTypeName);
+        assertEquals(1, answers.length);
+        result.answers.put(requestTypeName, answers[0]);
+      } catch (UnableToCompleteException e) {
+        result.answers.put(requestTypeName, "failed");
+      }
+      oracle.getGeneratorContext().finish(TreeLogger.NULL);
+    }
+
+    for (CompilationUnit unit : compilationState.getCompilationUnits()) {
+      if (unit.isGenerated()) {
+        assertFalse(unit.isError());
+        StringBuilder bytes = new StringBuilder();
+        for (CompiledClass compiledClass : unit.getCompiledClasses()) {
+          bytes.append(Util.computeStrongName(compiledClass.getBytes()));
+        }
+        result.generatedClassHashes.put(unit.getTypeName(), bytes.toString());
+      }
+    }
+    for (GeneratedResource resource : generatedArtifacts.find(GeneratedResource.class)) {
+      result.resources.put(resource.getPartialPath(),
+          Util.readStreamAsString(resource.getContents(TreeLogger.NULL)));
+    }
+    return result;
+  }
+}
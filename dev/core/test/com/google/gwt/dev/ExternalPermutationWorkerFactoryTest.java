@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.io.Files;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileLock;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests how {@link ExternalPermutationWorkerFactory} leases worker daemons
+ * registered by {@link CompilePermsServer}.
+ */
+public class ExternalPermutationWorkerFactoryTest extends TestCase {
+
+  private File astFile;
+  private File daemonDir;
+  private ExecutorService executor;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    daemonDir = Files.createTempDir();
+    astFile = new File(daemonDir.getParentFile(), daemonDir.getName() + ".ser");
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    executor.shutdownNow();
+    Util.recursiveDelete(daemonDir, false);
+    super.tearDown();
+  }
+
+  public void testRegisterThenLease() throws Exception {
+    ServerSocket daemon = new ServerSocket(0, 0, InetAddress.getByName("localhost"));
+    try {
+      Future<String> receivedCookie = acceptOne(daemon);
+      File registration =
+          CompilePermsServer.register(daemonDir, daemon.getLocalPort(), "cafe");
+
+      List<PermutationWorker> workers = lease(2);
+      assertEquals(1, workers.size());
+      assertEquals("cafe", receivedCookie.get(10, TimeUnit.SECONDS));
+      assertTrue(registration.exists());
+
+      // The leased daemon is busy for other compiles until it is shut down.
+      assertTrue(lease(2).isEmpty());
+      workers.get(0).shutdown();
+    } finally {
+      daemon.close();
+    }
+  }
+
+  public void testStaleRegistrationsAreRemoved() throws Exception {
+    File malformed = write(CompilePermsServer.DAEMON_FILE_PREFIX + "1", "garbage");
+    ServerSocket closed = new ServerSocket(0, 0, InetAddress.getByName("localhost"));
+    closed.close();
+    File noDaemon = CompilePermsServer.register(daemonDir, closed.getLocalPort(), "cafe");
+
+    assertTrue(lease(2).isEmpty());
+    assertFalse(malformed.exists());
+    assertFalse(noDaemon.exists());
+  }
+
+  public void testLockedRegistrationIsSkipped() throws Exception {
+    File registration = write(CompilePermsServer.DAEMON_FILE_PREFIX + "1", "1 cafe");
+    RandomAccessFile file = new RandomAccessFile(registration, "rw");
+    try {
+      FileLock lock = file.getChannel().lock();
+      assertTrue(lease(2).isEmpty());
+      assertTrue(registration.exists());
+      lock.release();
+    } finally {
+      file.close();
+    }
+  }
+
+  public void testRegistrationInProgressIsIgnored() throws Exception {
+    File temp = File.createTempFile(CompilePermsServer.DAEMON_TEMP_FILE_PREFIX, ".tmp",
+        daemonDir);
+    File oldStyleTemp = write(CompilePermsServer.DAEMON_FILE_PREFIX + "123.tmp", "");
+
+    assertTrue(lease(2).isEmpty());
+    assertTrue(temp.exists());
+    assertTrue(oldStyleTemp.exists());
+  }
+
+  public void testRotateLog() throws Exception {
+    File log = new File(daemonDir, ExternalPermutationWorkerFactory.DAEMON_LOG_NAME);
+    RandomAccessFile file = new RandomAccessFile(log, "rw");
+    file.setLength(ExternalPermutationWorkerFactory.MAX_DAEMON_LOG_BYTES);
+    file.close();
+    ExternalPermutationWorkerFactory.rotateLog(log);
+    assertTrue(log.exists());
+
+    file = new RandomAccessFile(log, "rw");
+    file.setLength(ExternalPermutationWorkerFactory.MAX_DAEMON_LOG_BYTES + 1);
+    file.close();
+    ExternalPermutationWorkerFactory.rotateLog(log);
+    assertFalse(log.exists());
+    File previous = new File(daemonDir, log.getName() + ".1");
+    assertEquals(ExternalPermutationWorkerFactory.MAX_DAEMON_LOG_BYTES + 1, previous.length());
+  }
+
+  /**
+   * Accepts one connection like a worker daemon and returns the cookie that
+   * the compile sent.
+   */
+  private Future<String> acceptOne(final ServerSocket daemon) {
+    return executor.submit(new Callable<String>() {
+      @Override
+      public String call() throws IOException {
+        Socket s = daemon.accept();
+        ObjectOutputStream out = new ObjectOutputStream(s.getOutputStream());
+        out.flush();
+        ObjectInputStream in = new ObjectInputStream(s.getInputStream());
+        return in.readUTF();
+      }
+    });
+  }
+
+  private List<PermutationWorker> lease(int max) {
+    return ExternalPermutationWorkerFactory.leaseDaemons(TreeLogger.NULL, daemonDir, max,
+        astFile, "hash");
+  }
+
+  private File write(String name, String content) throws IOException {
+    File file = new File(daemonDir, name);
+    assertTrue(Util.writeStringAsFile(file, content));
+    return file;
+  }
+}
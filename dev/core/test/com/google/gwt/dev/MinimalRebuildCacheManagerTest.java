@@ -48,6 +48,63 @@ public class MinimalRebuildCacheManagerTest extends TestCase {
     assertTrue(emptyCache.hasSameContent(noSuchCache));
   }
 
+  public void testOptionsKeySeparatesCaches() throws InterruptedException {
+    File cacheDir = Files.createTempDir();
+
+    String moduleName = "com.google.FooModule";
+    Map<String, String> bindingProperties = Maps.<String, String> newHashMap();
+    MinimalRebuildCacheManager draftCacheManager =
+        new MinimalRebuildCacheManager(TreeLogger.NULL, cacheDir, "draft");
+
+    MinimalRebuildCache draftCache = draftCacheManager.getCache(moduleName, bindingProperties);
+    draftCache.setJsForType(TreeLogger.NULL, "Foo", "Some Js for Foo");
+    draftCacheManager.putCache(moduleName, bindingProperties, draftCache);
+    assertTrue(draftCacheManager.shutdown());
+
+    // A manager with the same key in the same folder finds the cache.
+    MinimalRebuildCacheManager reloadedDraftCacheManager =
+        new MinimalRebuildCacheManager(TreeLogger.NULL, cacheDir, "draft");
+    assertTrue(draftCache.hasSameContent(
+        reloadedDraftCacheManager.getCache(moduleName, bindingProperties)));
+
+    // A manager with a different key in the same folder does not.
+    MinimalRebuildCacheManager prettyCacheManager =
+        new MinimalRebuildCacheManager(TreeLogger.NULL, cacheDir, "pretty");
+    assertNull(prettyCacheManager.syncReadDiskCache(moduleName, bindingProperties));
+    assertTrue(new MinimalRebuildCache().hasSameContent(
+        prettyCacheManager.getCache(moduleName, bindingProperties)));
+  }
+
+  public void testWorkingDirectory() throws InterruptedException {
+    File cacheDir = Files.createTempDir();
+
+    String moduleName = "com.google.FooModule";
+    Map<String, String> bindingProperties = Maps.<String, String> newHashMap();
+    MinimalRebuildCache cache = new MinimalRebuildCache();
+    cache.setJsForType(TreeLogger.NULL, "Foo", "Some Js for Foo");
+
+    // Without an options key, caches of different working directories are separate.
+    MinimalRebuildCacheManager cacheManager =
+        new MinimalRebuildCacheManager(TreeLogger.NULL, cacheDir, "/checkout/one", "");
+    cacheManager.putCache(moduleName, bindingProperties, cache);
+    assertTrue(cacheManager.shutdown());
+    assertNull(new MinimalRebuildCacheManager(TreeLogger.NULL, cacheDir, "/checkout/two", "")
+        .syncReadDiskCache(moduleName, bindingProperties));
+
+    // Caches keyed by options are shared by all working directories.
+    cacheManager = new MinimalRebuildCacheManager(TreeLogger.NULL, cacheDir, "draft");
+    cacheManager.putCache(moduleName, bindingProperties, cache);
+    assertTrue(cacheManager.shutdown());
+    String userDir = System.getProperty("user.dir");
+    System.setProperty("user.dir", new File(userDir, "elsewhere").getPath());
+    try {
+      assertTrue(cache.hasSameContent(new MinimalRebuildCacheManager(TreeLogger.NULL, cacheDir,
+          "draft").syncReadDiskCache(moduleName, bindingProperties)));
+    } finally {
+      System.setProperty("user.dir", userDir);
+    }
+  }
+
   public void testReload() throws InterruptedException {
     File cacheDir = Files.createTempDir();
 
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.dev.PermutationWorkerFactory.HeapBudget;
+import com.google.gwt.dev.PermutationWorkerFactory.HeapBudget.FreeHeapProbe;
+import com.google.gwt.dev.jjs.UnifiedAst;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests how {@link PermutationWorkerFactory} sizes and admits in-process
+ * permutation compiles.
+ */
+public class PermutationWorkerFactoryTest extends TestCase {
+
+  private static final long MB = 1024 * 1024;
+
+  /**
+   * A free heap that the test sets.
+   */
+  private static class FakeFreeHeap implements FreeHeapProbe {
+    final AtomicLong freeBytes;
+
+    FakeFreeHeap(long freeBytes) {
+      this.freeBytes = new AtomicLong(freeBytes);
+    }
+
+    @Override
+    public long getFreeHeap() {
+      return freeBytes.get();
+    }
+  }
+
+  public void testMaxCompilesFromFreeHeap() {
+    assertEquals(3, new HeapBudget(100 * MB, new FakeFreeHeap(350 * MB)).getMaxCompiles());
+    assertEquals(1, new HeapBudget(100 * MB, new FakeFreeHeap(50 * MB)).getMaxCompiles());
+    assertEquals(Integer.MAX_VALUE, new HeapBudget(0, new FakeFreeHeap(50 * MB)).getMaxCompiles());
+  }
+
+  public void testFirstCompileIsAlwaysAdmitted() throws InterruptedException {
+    HeapBudget budget = new HeapBudget(100 * MB, new FakeFreeHeap(0));
+    budget.acquire();
+    budget.release();
+    budget.acquire();
+    budget.release();
+  }
+
+  public void testCompileWaitsForFreeHeap() throws InterruptedException {
+    FakeFreeHeap freeHeap = new FakeFreeHeap(300 * MB);
+    final HeapBudget budget = new HeapBudget(100 * MB, freeHeap);
+    budget.acquire();
+    freeHeap.freeBytes.set(50 * MB);
+
+    final CountDownLatch admitted = new CountDownLatch(1);
+    Thread second = new Thread() {
+      @Override
+      public void run() {
+        try {
+          budget.acquire();
+          admitted.countDown();
+        } catch (InterruptedException e) {
+          // The test fails by timing out.
+        }
+      }
+    };
+    second.start();
+    try {
+      assertFalse(admitted.await(300, TimeUnit.MILLISECONDS));
+
+      // Garbage collection freed enough heap; the waiting compile rechecks.
+      freeHeap.freeBytes.set(150 * MB);
+      assertTrue(admitted.await(10, TimeUnit.SECONDS));
+    } finally {
+      second.interrupt();
+    }
+  }
+
+  public void testCompilesAreCappedByInitialFreeHeap() throws InterruptedException {
+    FakeFreeHeap freeHeap = new FakeFreeHeap(200 * MB);
+    final HeapBudget budget = new HeapBudget(100 * MB, freeHeap);
+    budget.acquire();
+    budget.acquire();
+    freeHeap.freeBytes.set(1000 * MB);
+
+    final CountDownLatch admitted = new CountDownLatch(1);
+    Thread third = new Thread() {
+      @Override
+      public void run() {
+        try {
+          budget.acquire();
+          admitted.countDown();
+        } catch (InterruptedException e) {
+          // The test fails by timing out.
+        }
+      }
+    };
+    third.start();
+    try {
+      assertFalse(admitted.await(300, TimeUnit.MILLISECONDS));
+      budget.release();
+      assertTrue(admitted.await(10, TimeUnit.SECONDS));
+    } finally {
+      third.interrupt();
+    }
+  }
+
+  public void testFreeHeapIgnoresUnreachableGarbage() {
+    long freeBefore = HeapBudget.getFreeHeap();
+    long max = Runtime.getRuntime().maxMemory();
+    assertTrue(freeBefore > 0);
+    assertTrue(freeBefore <= max);
+
+    // Garbage allocated since the last collection isn't live.
+    System.gc();
+    long freeAfterGc = HeapBudget.getFreeHeap();
+    for (int i = 0; i < 64; i++) {
+      byte[] garbage = new byte[(int) MB];
+      garbage[0] = 1;
+    }
+    assertTrue(HeapBudget.getFreeHeap() >= freeAfterGc - 16 * MB);
+  }
+
+  public void testEstimatePermutationHeap() {
+    assertEquals(0, PermutationWorkerFactory.estimatePermutationHeap(-1));
+    assertEquals(0, PermutationWorkerFactory.estimatePermutationHeap(0));
+    assertEquals(10 * MB, PermutationWorkerFactory.estimatePermutationHeap(MB));
+  }
+
+  public void testEstimatePermutationHeapOverride() {
+    System.setProperty(PermutationWorkerFactory.PERMUTATION_HEAP_PROPERTY, "12345");
+    try {
+      assertEquals(12345, PermutationWorkerFactory.estimatePermutationHeap((UnifiedAst) null));
+    } finally {
+      System.clearProperty(PermutationWorkerFactory.PERMUTATION_HEAP_PROPERTY);
+    }
+  }
+
+  public void testAutoThreads() {
+    // One thread per processor when the heap is unknown or large enough.
+    assertEquals(24, ThreadedPermutationWorkerFactory.getAutoThreads(24, 0, 0));
+    assertEquals(24, ThreadedPermutationWorkerFactory.getAutoThreads(24, 100 * MB, 8000 * MB));
+    // Otherwise as many as the heap holds, but at least one.
+    assertEquals(5, ThreadedPermutationWorkerFactory.getAutoThreads(24, 100 * MB, 550 * MB));
+    assertEquals(1, ThreadedPermutationWorkerFactory.getAutoThreads(24, 100 * MB, 50 * MB));
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.CompilerContext;
+import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
+import com.google.gwt.dev.javac.testing.impl.MockResourceOracle;
+
+/**
+ * Compares compiling a synthetic module in one JDT batch against compiling it
+ * in parallel batches of packages, as chosen by
+ * {@value CompilationStateBuilder#COMPILE_THREADS_PROPERTY}.
+ * <p>
+ * Every class refers to classes in the next package through constants, fields,
+ * JSNI and inheritance, so no batch is independent of the others. Each round
+ * builds from a fresh {@link CompilationStateBuilder}, so nothing is reused
+ * from the unit cache. Run manually, on a machine with several cores:
+ *
+ * <pre>
+ * java com.google.gwt.dev.javac.CompilationStateBuilderBenchmark [packages] [classesPerPackage] [threads]
+ * </pre>
+ */
+public class CompilationStateBuilderBenchmark {
+
+  private static final int WARMUP_ROUNDS = 2;
+  private static final int MEASURED_ROUNDS = 3;
+
+  public static void main(String[] args) throws Exception {
+    int packageCount = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+    int classesPerPackage = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    String threads = args.length > 2 ? args[2] : "auto";
+
+    MockResourceOracle oracle = new MockResourceOracle(JavaResourceBase.getStandardResources());
+    for (int i = 0; i < packageCount; i++) {
+      for (int j = 0; j < classesPerPackage; j++) {
+        oracle.add(CompilationStateTest.createSyntheticUnit(i, j, packageCount));
+      }
+    }
+    System.out.println(oracle.getResources().size() + " units in " + packageCount
+        + " packages, " + Runtime.getRuntime().availableProcessors() + " processors");
+
+    for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; ++round) {
+      long singleNanos = measure(oracle, "1");
+      long parallelNanos = measure(oracle, threads);
+      if (round >= WARMUP_ROUNDS) {
+        System.out.println(String.format("single batch: %6d ms  parallel (%s): %6d ms  %.2fx",
+            singleNanos / 1000000, threads, parallelNanos / 1000000,
+            (double) singleNanos / parallelNanos));
+      }
+    }
+  }
+
+  private static long measure(MockResourceOracle oracle, String compileThreads)
+      throws Exception {
+    System.setProperty(CompilationStateBuilder.COMPILE_THREADS_PROPERTY, compileThreads);
+    try {
+      long start = System.nanoTime();
+      CompilationState state = new CompilationStateBuilder().doBuildFrom(TreeLogger.NULL,
+          new CompilerContext(), oracle.getResources());
+      long nanos = System.nanoTime() - start;
+      for (CompilationUnit unit : state.getCompilationUnits()) {
+        if (unit.isError()) {
+          throw new IllegalStateException(unit.getTypeName() + " has errors");
+        }
+      }
+      return nanos;
+    } finally {
+      System.clearProperty(CompilationStateBuilder.COMPILE_THREADS_PROPERTY);
+    }
+  }
+}
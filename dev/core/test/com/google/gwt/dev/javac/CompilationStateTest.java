@@ -15,6 +15,7 @@
  */
 package com.google.gwt.dev.javac;
 
+import com.google.gwt.dev.CompilerContext;
 import com.google.gwt.dev.MinimalRebuildCache;
 import com.google.gwt.dev.javac.Dependencies.Ref;
 import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
@@ -314,6 +315,58 @@ public class CompilationStateTest extends CompilationStateTestBase {
     assertEquals("aArg1", names[0]);
   }
 
+  /**
+   * Compiles a synthetic module with many cross-package references both in one batch and in
+   * several batches at once, which must give the same units.
+   */
+  public void testParallelCompile() throws Exception {
+    int packageCount = 6;
+    int classesPerPackage = 40;
+    for (int i = 0; i < packageCount; i++) {
+      for (int j = 0; j < classesPerPackage; j++) {
+        oracle.add(createSyntheticUnit(i, j, packageCount));
+      }
+    }
+    oracle.add(JavaResourceBase.createMockJavaResource("p0.Broken",
+        "package p0;",
+        "public class Broken {",
+        "  int g() { return p1.C0.missing(); }",
+        "}"));
+    rebuildCompilationState();
+    Map<String, List<String>> sequentialClasses = getCompiledClassNamesOfValidUnits(state);
+
+    System.setProperty(CompilationStateBuilder.COMPILE_THREADS_PROPERTY, "4");
+    try {
+      compilerContext = new CompilerContext();
+      state = new CompilationStateBuilder().doBuildFrom(createTreeLogger(), compilerContext,
+          oracle.getResources());
+    } finally {
+      System.clearProperty(CompilationStateBuilder.COMPILE_THREADS_PROPERTY);
+    }
+
+    validateCompilationState();
+    assertTrue(state.getCompilationUnitMap().get("p0.Broken").isError());
+    assertEquals(sequentialClasses, getCompiledClassNamesOfValidUnits(state));
+    assertEquals(oracle.getResources().size() - 1, sequentialClasses.size());
+  }
+
+  public void testPartitionByPackage() {
+    List<CompilationUnitBuilder> builders = Lists.create();
+    for (String typeName : new String[] {"a.A1", "a.A2", "a.A3", "b.B1", "b.B2", "c.C1", "d.D1"}) {
+      builders = Lists.add(builders, CompilationUnitBuilder.create(
+          JavaResourceBase.createMockJavaResource(typeName, "")));
+    }
+
+    List<List<CompilationUnitBuilder>> batches =
+        CompilationStateBuilder.partitionByPackage(builders, 2);
+    assertEquals(2, batches.size());
+    // The largest packages come first, each going to the smaller batch at the time.
+    assertEquals(Arrays.asList("a.A1", "a.A2", "a.A3", "d.D1"), getTypeNames(batches.get(0)));
+    assertEquals(Arrays.asList("b.B1", "b.B2", "c.C1"), getTypeNames(batches.get(1)));
+
+    assertEquals(4, CompilationStateBuilder.partitionByPackage(builders, 10).size());
+  }
+
   public void testSerializeCompilationUnit() throws Exception {
 
     MockJavaResource resource = new MockJavaResource("test.SerializationTest") {
@@ -416,6 +469,69 @@ public class CompilationStateTest extends CompilationStateTestBase {
     validateCompilationState();
   }
 
+  /**
+   * Creates a class that refers to the class of the same name in the next package in many ways,
+   * including through constants, JSNI and inheritance.
+   */
+  static MockJavaResource createSyntheticUnit(int packageIndex, int classIndex,
+      int packageCount) {
+    String next = "p" + ((packageIndex + 1) % packageCount) + ".C" + classIndex;
+    String superclass = packageIndex == 0 ? "" : " extends p" + (packageIndex - 1) + ".C"
+        + classIndex;
+    return JavaResourceBase.createMockJavaResource("p" + packageIndex + ".C" + classIndex,
+        "package p" + packageIndex + ";",
+        "public class C" + classIndex + superclass + " {",
+        "  public static final int K = " + (packageIndex * 1000 + classIndex) + ";",
+        "  static class Nested {",
+        "    int v = K;",
+        "  }",
+        "  public " + next + " next;",
+        "  public int f(int x) {",
+        "    switch (x) {",
+        "      case " + next + ".K:",
+        "        return new Nested().v;",
+        "      default:",
+        "        return Helper" + classIndex + ".h() + " + next + ".s() + next.f(x - 1);",
+        "    }",
+        "  }",
+        "  public static int s() {",
+        "    return K;",
+        "  }",
+        "  native int jsni() /*-{",
+        "    return @" + next + "::s()();",
+        "  }-*/;",
+        "}",
+        "class Helper" + classIndex + " {",
+        "  static int h() {",
+        "    return 1;",
+        "  }",
+        "}");
+  }
+
+  private static Map<String, List<String>> getCompiledClassNamesOfValidUnits(
+      CompilationState state) {
+    Map<String, List<String>> compiledClassNames = new HashMap<String, List<String>>();
+    for (CompilationUnit unit : state.getCompilationUnits()) {
+      if (unit.isError()) {
+        continue;
+      }
+      List<String> names = Lists.create();
+      for (CompiledClass compiledClass : unit.getCompiledClasses()) {
+        names = Lists.add(names, compiledClass.getInternalName());
+      }
+      compiledClassNames.put(unit.getTypeName(), Lists.sort(names, null));
+    }
+    return compiledClassNames;
+  }
+
+  private static List<String> getTypeNames(List<CompilationUnitBuilder> builders) {
+    List<String> typeNames = Lists.create();
+    for (CompilationUnitBuilder builder : builders) {
+      typeNames = Lists.add(typeNames, builder.getTypeName());
+    }
+    return typeNames;
+  }
+
   private void testCaching(MockJavaResource... resources) {
     Set<String> reusedTypes = new HashSet<String>();
     for (MockJavaResource resource : resources) {
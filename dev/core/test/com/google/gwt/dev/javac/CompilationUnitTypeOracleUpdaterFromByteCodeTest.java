@@ -36,6 +36,19 @@ public class CompilationUnitTypeOracleUpdaterFromByteCodeTest extends TypeOracle
 
   @Override
   protected synchronized void buildTypeOracle() throws TypeOracleException {
+    CompilationUnitTypeOracleUpdater typeOracleUpdater = createTypeOracleUpdater();
+    typeOracleUpdater.addNewTypesDontIndex(createTreeLogger(), getTypeDataList(),
+        new MethodArgNamesLookup());
+    typeOracleUpdater.indexTypes();
+    this.typeOracle = typeOracleUpdater.getTypeOracle();
+    checkTypes(typeOracle.getTypes());
+  }
+
+  protected CompilationUnitTypeOracleUpdater createTypeOracleUpdater() {
+    return new CompilationUnitTypeOracleUpdater(new TypeOracle());
+  }
+
+  protected Collection<TypeData> getTypeDataList() throws TypeOracleException {
     Collection<CompilationUnitTypeOracleUpdater.TypeData> typeDataList =
         new ArrayList<CompilationUnitTypeOracleUpdater.TypeData>();
     for (Resource resource : resources) {
@@ -51,12 +64,6 @@ public class CompilationUnitTypeOracleUpdaterFromByteCodeTest extends TypeOracle
         }
       }
     }
-    CompilationUnitTypeOracleUpdater typeOracleUpdater =
-        new CompilationUnitTypeOracleUpdater(new TypeOracle());
-    typeOracleUpdater.addNewTypesDontIndex(createTreeLogger(), typeDataList,
-        new MethodArgNamesLookup());
-    typeOracleUpdater.indexTypes();
-    this.typeOracle = typeOracleUpdater.getTypeOracle();
-    checkTypes(typeOracle.getTypes());
+    return typeDataList;
   }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.typeinfo.TypeOracleException;
+import com.google.gwt.dev.javac.typemodel.JClassType;
+import com.google.gwt.dev.javac.typemodel.JMethod;
+import com.google.gwt.dev.javac.typemodel.JTypeParameter;
+import com.google.gwt.dev.javac.typemodel.TypeOracle;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the type oracle tests against an updater that resolves members lazily.
+ */
+public class CompilationUnitTypeOracleUpdaterLazyFromByteCodeTest
+    extends CompilationUnitTypeOracleUpdaterFromByteCodeTest {
+
+  /**
+   * Records the enclosing type of every method it creates.
+   */
+  private static class MethodRecordingUpdater extends CompilationUnitTypeOracleUpdater {
+    private final List<String> methodOwners = new ArrayList<String>();
+
+    MethodRecordingUpdater() {
+      super(new TypeOracle(), true);
+    }
+
+    @Override
+    protected JMethod newMethod(JClassType type, String name,
+        Map<Class<? extends Annotation>, Annotation> declaredAnnotations,
+        JTypeParameter[] typeParams, boolean isDefaultMethod) {
+      methodOwners.add(type.getQualifiedSourceName());
+      return super.newMethod(type, name, declaredAnnotations, typeParams, isDefaultMethod);
+    }
+  }
+
+  public void testMembersResolvedOnFirstAccess() throws TypeOracleException {
+    addTestResource(CU_Object);
+    addTestResource(CU_Throwable);
+    addTestResource(CU_MethodsAndParams);
+    MethodRecordingUpdater typeOracleUpdater = new MethodRecordingUpdater();
+    typeOracleUpdater.addNewTypesDontIndex(createTreeLogger(), getTypeDataList(),
+        new MethodArgNamesLookup());
+    typeOracleUpdater.indexTypes();
+    typeOracle = typeOracleUpdater.getTypeOracle();
+
+    // Types and their hierarchy are available right away.
+    JClassType methods = (JClassType) typeOracle.findType(CU_MethodsAndParams.getTypeName());
+    JClassType object = (JClassType) typeOracle.findType(CU_Object.getTypeName());
+    assertSame(object, methods.getSuperclass());
+    assertTrue(typeOracleUpdater.methodOwners.isEmpty());
+
+    // Members are resolved for the type that is asked about, and only for it.
+    assertEquals(6, methods.getMethods().length);
+    assertEquals(6, typeOracleUpdater.methodOwners.size());
+    assertFalse(typeOracleUpdater.methodOwners.contains(CU_Object.getTypeName()));
+
+    // Asking again doesn't resolve them again.
+    assertEquals(6, methods.getMethods().length);
+    assertEquals(6, typeOracleUpdater.methodOwners.size());
+
+    // Inherited methods come from supertypes, which are resolved on demand too.
+    methods.getInheritableMethods();
+    assertTrue(typeOracleUpdater.methodOwners.contains(CU_Object.getTypeName()));
+    assertFalse(typeOracleUpdater.methodOwners.contains(CU_Throwable.getTypeName()));
+
+    CU_MethodsAndParams.check(methods);
+  }
+
+  @Override
+  protected CompilationUnitTypeOracleUpdater createTypeOracleUpdater() {
+    return new CompilationUnitTypeOracleUpdater(new TypeOracle(), true);
+  }
+}
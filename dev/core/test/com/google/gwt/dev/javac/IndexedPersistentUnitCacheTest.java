@@ -0,0 +1,212 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.util.Util;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Unit test for {@link IndexedPersistentUnitCache}.
+ */
+public class IndexedPersistentUnitCacheTest extends TestCase {
+
+  private TreeLogger logger;
+  private File parentDir;
+  private File unitCacheDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    logger = TreeLogger.NULL;
+    parentDir = File.createTempFile("indexedCacheTest", "");
+    assertTrue(parentDir.delete());
+    unitCacheDir = PersistentUnitCacheDir.chooseCacheDir(parentDir);
+    assertTrue(unitCacheDir.mkdirs());
+  }
+
+  @Override
+  protected void tearDown() {
+    Util.recursiveDelete(parentDir, false);
+  }
+
+  /**
+   * Units written in one session are found in the next one, but only deserialized when found.
+   */
+  public void testLazyLoading() throws UnableToCompleteException, InterruptedException,
+      ExecutionException {
+    IndexedPersistentUnitCache cache = new IndexedPersistentUnitCache(logger, parentDir);
+    MockCompilationUnit foo1 = new MockCompilationUnit("com.example.Foo", "Foo: source1");
+    MockCompilationUnit bar1 = new MockCompilationUnit("com.example.Bar", "Bar: source1");
+    cache.add(foo1);
+    cache.add(bar1);
+    assertSame(foo1, cache.find("com/example/Foo.java"));
+    cache.cleanup(logger);
+    cache.waitForCleanup();
+    cache.shutdown();
+    assertNumCacheFiles(1);
+
+    cache = new IndexedPersistentUnitCache(logger, parentDir);
+    assertEquals(0, cache.getLoadedUnitCount());
+
+    CompilationUnit result = cache.find(bar1.getContentId());
+    assertNotNull(result);
+    assertEquals("com.example.Bar", result.getTypeName());
+    assertEquals(1, cache.getLoadedUnitCount());
+
+    result = cache.find("com/example/Foo.java");
+    assertNotNull(result);
+    assertEquals(foo1.getContentId(), result.getContentId());
+    assertEquals(2, cache.getLoadedUnitCount());
+    assertSame(result, cache.find(foo1.getContentId()));
+    cache.shutdown();
+  }
+
+  /**
+   * A newer unit replaces the cached one, in memory and in the next session.
+   */
+  public void testReplaceUnit() throws UnableToCompleteException, InterruptedException,
+      ExecutionException {
+    IndexedPersistentUnitCache cache = new IndexedPersistentUnitCache(logger, parentDir);
+    MockCompilationUnit foo1 = new MockCompilationUnit("com.example.Foo", "Foo: source1");
+    cache.add(foo1);
+    cache.cleanup(logger);
+    cache.waitForCleanup();
+    cache.shutdown();
+
+    cache = new IndexedPersistentUnitCache(logger, parentDir);
+    MockCompilationUnit foo2 = new MockCompilationUnit("com.example.Foo", "Foo: source2");
+    cache.add(foo2);
+    assertNull(cache.find(foo1.getContentId()));
+    assertSame(foo2, cache.find("com/example/Foo.java"));
+    // Written on shutdown.
+    cache.shutdown();
+    assertNumCacheFiles(2);
+
+    cache = new IndexedPersistentUnitCache(logger, parentDir);
+    assertNull(cache.find(foo1.getContentId()));
+    CompilationUnit result = cache.find("com/example/Foo.java");
+    assertNotNull(result);
+    assertEquals(foo2.getContentId(), result.getContentId());
+    cache.shutdown();
+  }
+
+  /**
+   * Once there are enough cache files, the live units are compacted into one file.
+   */
+  public void testCompaction() throws UnableToCompleteException, InterruptedException,
+      ExecutionException {
+    IndexedPersistentUnitCache cache = new IndexedPersistentUnitCache(logger, parentDir);
+    MockCompilationUnit bar = new MockCompilationUnit("com.example.Bar", "Bar: source");
+    cache.add(bar);
+    MockCompilationUnit lastFoo = null;
+    for (int i = 1; i < IndexedPersistentUnitCache.CACHE_FILE_THRESHOLD; i++) {
+      lastFoo = new MockCompilationUnit("com.example.Foo", "Foo: source" + i);
+      cache.add(lastFoo);
+      cache.cleanup(logger);
+      cache.waitForCleanup();
+      assertNumCacheFiles(i);
+    }
+    cache.add(new MockCompilationUnit("com.example.Baz", "Baz: source"));
+    cache.cleanup(logger);
+    cache.waitForCleanup();
+    assertNumCacheFiles(1);
+    cache.shutdown();
+
+    cache = new IndexedPersistentUnitCache(logger, parentDir);
+    assertEquals(lastFoo.getContentId(), cache.find("com/example/Foo.java").getContentId());
+    assertEquals(bar.getContentId(), cache.find("com/example/Bar.java").getContentId());
+    assertNotNull(cache.find("com/example/Baz.java"));
+    assertEquals(3, cache.getLoadedUnitCount());
+    cache.shutdown();
+  }
+
+  /**
+   * Files that are not valid indexed cache files are deleted.
+   */
+  public void testCorruptFile() throws IOException, UnableToCompleteException,
+      InterruptedException, ExecutionException {
+    File badFile = new File(unitCacheDir,
+        IndexedPersistentUnitCache.CURRENT_VERSION_CACHE_FILE_PREFIX + "12345");
+    FileOutputStream out = new FileOutputStream(badFile);
+    out.write(new byte[] {1, 2, 3, 4, 5});
+    out.close();
+    assertNumCacheFiles(1);
+
+    IndexedPersistentUnitCache cache = new IndexedPersistentUnitCache(logger, parentDir);
+    assertNumCacheFiles(0);
+    assertNull(cache.find("com/example/Foo.java"));
+    cache.shutdown();
+  }
+
+  /**
+   * Files whose index has a negative entry length are deleted.
+   */
+  public void testNegativeEntryLength() throws IOException, UnableToCompleteException,
+      InterruptedException, ExecutionException {
+    IndexedPersistentUnitCache cache = new IndexedPersistentUnitCache(logger, parentDir);
+    MockCompilationUnit foo = new MockCompilationUnit("com.example.Foo", "Foo: source");
+    cache.add(foo);
+    cache.cleanup(logger);
+    cache.waitForCleanup();
+    cache.shutdown();
+    assertNumCacheFiles(1);
+
+    // The index ends with the length of the last entry.
+    File cacheFile = unitCacheDir.listFiles()[0];
+    RandomAccessFile out = new RandomAccessFile(cacheFile, "rw");
+    out.seek(out.length() - 4);
+    out.writeInt(-1);
+    out.close();
+    try {
+      IndexedUnitCacheFile.open(cacheFile);
+      fail("Expected IOException");
+    } catch (IOException expected) {
+    }
+
+    cache = new IndexedPersistentUnitCache(logger, parentDir);
+    assertNumCacheFiles(0);
+    assertNull(cache.find(foo.getContentId()));
+    cache.shutdown();
+  }
+
+  public void testClear() throws UnableToCompleteException, InterruptedException,
+      ExecutionException {
+    IndexedPersistentUnitCache cache = new IndexedPersistentUnitCache(logger, parentDir);
+    MockCompilationUnit foo = new MockCompilationUnit("com.example.Foo", "Foo: source");
+    cache.add(foo);
+    cache.cleanup(logger);
+    cache.waitForCleanup();
+    assertNumCacheFiles(1);
+
+    cache.clear();
+    assertNumCacheFiles(0);
+    assertNull(cache.find(foo.getContentId()));
+    cache.shutdown();
+  }
+
+  private void assertNumCacheFiles(int expected) {
+    assertEquals(expected, unitCacheDir.list().length);
+  }
+}
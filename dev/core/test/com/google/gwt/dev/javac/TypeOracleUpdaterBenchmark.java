@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.javac.CompilationUnitTypeOracleUpdater.TypeData;
+import com.google.gwt.dev.javac.typemodel.JClassType;
+import com.google.gwt.dev.javac.typemodel.TypeOracle;
+import com.google.gwt.dev.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Compares the time and retained heap of building a TypeOracle with members
+ * resolved eagerly against resolving them lazily, followed by a
+ * generator-like pass that looks at the methods of a small fraction of the
+ * types.
+ * <p>
+ * The types are read from the class files in a jar, by default the JRE's
+ * rt.jar. Some type oracle state, such as the array types of primitives, is
+ * held statically and keeps the last TypeOracle alive, so each mode is
+ * measured in a JVM of its own. Run manually, with enough heap for the whole
+ * jar:
+ *
+ * <pre>
+ * java -Xmx2g com.google.gwt.dev.javac.TypeOracleUpdaterBenchmark eager|lazy [jar] [queriedTypesPercent]
+ * </pre>
+ */
+public class TypeOracleUpdaterBenchmark {
+
+  /**
+   * The class files of one jar.
+   */
+  private static class ClassFile {
+    final byte[] bytes;
+    final String internalName;
+
+    ClassFile(String internalName, byte[] bytes) {
+      this.internalName = internalName;
+      this.bytes = bytes;
+    }
+  }
+
+  /**
+   * Uses package-private annotations that can't be proxied.
+   */
+  private static final String UNSUPPORTED_PACKAGE = "java/lang/invoke/";
+
+  private static final int WARMUP_ROUNDS = 1;
+  private static final int MEASURED_ROUNDS = 3;
+
+  public static void main(String[] args) throws Exception {
+    boolean lazy = args.length > 0 && args[0].equals("lazy");
+    File jar = new File(args.length > 1 ? args[1]
+        : System.getProperty("java.home") + "/lib/rt.jar");
+    int queriedPercent = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+    List<ClassFile> classFiles = readClassFiles(jar);
+    System.out.println(classFiles.size() + " classes from " + jar + ", querying "
+        + queriedPercent + "% of types");
+    long baselineHeap = usedHeap();
+    for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; ++round) {
+      String result = measure(classFiles, lazy, queriedPercent, baselineHeap);
+      if (round >= WARMUP_ROUNDS) {
+        System.out.println(result);
+      }
+    }
+  }
+
+  /**
+   * Builds and queries one TypeOracle. The heap it retains is measured against the heap in use
+   * before any TypeOracle was built, since the previous one is only released during the build.
+   */
+  private static String measure(List<ClassFile> classFiles, boolean lazy, int queriedPercent,
+      long baselineHeap) {
+    long start = System.nanoTime();
+    CompilationUnitTypeOracleUpdater updater = build(classFiles, lazy);
+    long buildNanos = System.nanoTime() - start;
+    long heapAfter = usedHeap();
+
+    start = System.nanoTime();
+    int methodCount = query(updater.getTypeOracle(), queriedPercent);
+    long queryNanos = System.nanoTime() - start;
+
+    return String.format("%-6s build: %6d ms  heap: %5d MB  query: %5d ms (%d methods)",
+        lazy ? "lazy" : "eager", buildNanos / 1000000, (heapAfter - baselineHeap) / (1024 * 1024),
+        queryNanos / 1000000, methodCount);
+  }
+
+  private static CompilationUnitTypeOracleUpdater build(List<ClassFile> classFiles,
+      boolean lazy) {
+    List<TypeData> typeDataList = new ArrayList<TypeData>();
+    for (ClassFile classFile : classFiles) {
+      String internalName = classFile.internalName;
+      int slash = internalName.lastIndexOf('/');
+      String packageName = slash < 0 ? "" : internalName.substring(0, slash).replace('/', '.');
+      typeDataList.add(new TypeData(packageName, internalName.replace('/', '.').replace('$', '.'),
+          internalName, internalName + ".class", classFile.bytes, 0L));
+    }
+    CompilationUnitTypeOracleUpdater updater =
+        new CompilationUnitTypeOracleUpdater(new TypeOracle(), lazy);
+    updater.addNewTypesDontIndex(TreeLogger.NULL, typeDataList, new MethodArgNamesLookup());
+    updater.indexTypes();
+    return updater;
+  }
+
+  /**
+   * Looks at the methods of every type in an evenly spread sample.
+   */
+  private static int query(TypeOracle typeOracle, int queriedPercent) {
+    int methodCount = 0;
+    JClassType[] types = typeOracle.getTypes();
+    int step = Math.max(1, 100 / Math.max(1, queriedPercent));
+    for (int i = 0; i < types.length; i += step) {
+      methodCount += types[i].getInheritableMethods().length;
+    }
+    return methodCount;
+  }
+
+  private static List<ClassFile> readClassFiles(File jar) throws IOException {
+    List<ClassFile> classFiles = new ArrayList<ClassFile>();
+    ZipFile zipFile = new ZipFile(jar);
+    try {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String name = entry.getName();
+        if (!name.endsWith(".class") || name.endsWith("package-info.class")
+            || name.startsWith(UNSUPPORTED_PACKAGE)) {
+          continue;
+        }
+        classFiles.add(new ClassFile(name.substring(0, name.length() - ".class".length()),
+            Util.readStreamAsBytes(zipFile.getInputStream(entry))));
+      }
+    } finally {
+      zipFile.close();
+    }
+    return classFiles;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; ++i) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -280,6 +280,9 @@ public class JavaAstConstructor {
           "package com.google.gwt.lang;",
           "public final class LongLib {",
           "  public static String toString(long a) { return \"\";}",
+          "  public static double safeDiv(double a, double b) { return 0; }",
+          "  public static double safeFromDouble(double a) { return 0; }",
+          "  public static double safeMod(double a, double b) { return 0; }",
           "}"
       );
     }
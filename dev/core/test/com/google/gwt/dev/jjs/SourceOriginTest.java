@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs;
+
+import com.google.gwt.dev.util.Util;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Tests for {@link SourceOrigin}.
+ */
+public class SourceOriginTest extends TestCase {
+
+  public void testDeserializedOriginsAreCanonicalized() throws Exception {
+    ArrayList<SourceOrigin> origins = new ArrayList<SourceOrigin>();
+    for (int i = 0; i < 1000; i++) {
+      origins.add(SourceOrigin.create(i, "Foo" + i % 10 + ".java"));
+      origins.add(SourceOrigin.create(i, i + 5, i, "Bar.java"));
+    }
+    origins.add(SourceOrigin.UNKNOWN);
+    byte[] bytes = serialize(origins);
+
+    ArrayList<?> first = deserialize(bytes);
+    ArrayList<?> second = deserialize(bytes);
+    assertEquals(origins, first);
+    Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    for (int i = 0; i < first.size(); i++) {
+      assertSame(first.get(i), second.get(i));
+      distinct.add(first.get(i));
+      distinct.add(second.get(i));
+    }
+    // The second copy of the origins costs no heap of its own.
+    assertEquals(origins.size(), distinct.size());
+    assertSame(SourceOrigin.UNKNOWN, first.get(first.size() - 1));
+  }
+
+  public void testCanonicalizationKeepsPositions() throws Exception {
+    SourceOrigin withPositions = SourceOrigin.create(3, 8, 1, "Foo.java");
+    SourceOrigin withoutPositions = SourceOrigin.create(1, "Foo.java");
+    ArrayList<SourceOrigin> origins = new ArrayList<SourceOrigin>();
+    origins.add(withPositions);
+    origins.add(withoutPositions);
+
+    ArrayList<?> copy = deserialize(serialize(origins));
+    SourceOrigin copiedWithPositions = (SourceOrigin) copy.get(0);
+    SourceOrigin copiedWithoutPositions = (SourceOrigin) copy.get(1);
+    assertNotSame(copiedWithPositions, copiedWithoutPositions);
+    assertEquals(3, copiedWithPositions.getStartPos());
+    assertEquals(8, copiedWithPositions.getEndPos());
+    assertEquals(-1, copiedWithoutPositions.getStartPos());
+  }
+
+  private static byte[] serialize(Object object) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Util.writeObjectToStream(out, object);
+    return out.toByteArray();
+  }
+
+  private static ArrayList<?> deserialize(byte[] bytes) throws Exception {
+    return Util.readStreamAsObject(new ByteArrayInputStream(bytes), ArrayList.class);
+  }
+}
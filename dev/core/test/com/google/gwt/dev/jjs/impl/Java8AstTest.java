@@ -19,11 +19,14 @@ import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
 import com.google.gwt.dev.javac.testing.impl.MockJavaResource;
 import com.google.gwt.dev.jjs.ast.JClassType;
 import com.google.gwt.dev.jjs.ast.JConstructor;
+import com.google.gwt.dev.jjs.ast.JDeclaredType;
 import com.google.gwt.dev.jjs.ast.JInterfaceType;
 import com.google.gwt.dev.jjs.ast.JMethod;
 import com.google.gwt.dev.jjs.ast.JMethodBody;
+import com.google.gwt.dev.jjs.ast.JMethodCall;
 import com.google.gwt.dev.jjs.ast.JPrimitiveType;
 import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.dev.jjs.ast.JReturnStatement;
 import com.google.gwt.dev.util.arg.SourceLevel;
 
 /**
@@ -260,7 +263,8 @@ public class Java8AstTest extends JJSTestBase {
     addSnippetClassDecl("public static Integer foo(int x, int y) { return x + y; }");
     String lambda = "new AcceptsLambda<Integer>().accept(EntryPoint::foo);";
     assertEqualBlock(
-        "(new AcceptsLambda()).accept(new Lambda$$foo__IILjava_lang_Integer_2$Type());",
+        "(new AcceptsLambda()).accept("
+            + "new EntryPoint$Lambda$$test_EntryPoint_foo__IILjava_lang_Integer_2$Type());",
         lambda
     );
     JProgram program = compileSnippet("void", lambda, false);
@@ -269,11 +273,12 @@ public class Java8AstTest extends JJSTestBase {
 
     // created by GwtAstBuilder
     JClassType lambdaInnerClass = (JClassType) getType(program,
-        "test.Lambda$$foo__IILjava_lang_Integer_2$Type");
+        "test.EntryPoint$Lambda$$test_EntryPoint_foo__IILjava_lang_Integer_2$Type");
     assertNotNull(lambdaInnerClass);
 
     // should have constructor taking this and x
-    JMethod ctor = findMethod(lambdaInnerClass, "Lambda$$foo__IILjava_lang_Integer_2$Type");
+    JMethod ctor = findMethod(lambdaInnerClass,
+        "EntryPoint$Lambda$$test_EntryPoint_foo__IILjava_lang_Integer_2$Type");
     assertTrue(ctor instanceof JConstructor);
     // no ctor args
     assertEquals(0, ctor.getParams().size());
@@ -295,7 +300,8 @@ public class Java8AstTest extends JJSTestBase {
     addSnippetClassDecl("public Integer foo(int x, int y) { return x + y; }");
     String lambda = "new AcceptsLambda<Integer>().accept(this::foo);";
     assertEqualBlock(
-        "(new AcceptsLambda()).accept(new Lambda$foo__IILjava_lang_Integer_2$Type(this));",
+        "(new AcceptsLambda()).accept("
+            + "new EntryPoint$Lambda$test_EntryPoint_foo__IILjava_lang_Integer_2$Type(this));",
         lambda
     );
     JProgram program = compileSnippet("void", lambda, false);
@@ -304,11 +310,12 @@ public class Java8AstTest extends JJSTestBase {
 
     // created by GwtAstBuilder
     JClassType lambdaInnerClass = (JClassType) getType(program,
-        "test.Lambda$foo__IILjava_lang_Integer_2$Type");
+        "test.EntryPoint$Lambda$test_EntryPoint_foo__IILjava_lang_Integer_2$Type");
     assertNotNull(lambdaInnerClass);
 
     // should have constructor taking this and x
-    JMethod ctor = findMethod(lambdaInnerClass, "Lambda$foo__IILjava_lang_Integer_2$Type");
+    JMethod ctor = findMethod(lambdaInnerClass,
+        "EntryPoint$Lambda$test_EntryPoint_foo__IILjava_lang_Integer_2$Type");
     assertTrue(ctor instanceof JConstructor);
     // instance capture
     assertEquals(1, ctor.getParams().size());
@@ -333,19 +340,20 @@ public class Java8AstTest extends JJSTestBase {
     String lambda = "new AcceptsLambda<String>().accept2(String::equalsIgnoreCase);";
     assertEqualBlock(
         "(new AcceptsLambda()).accept2("
-            + "new Lambda2$$equalsIgnoreCase__Ljava_lang_String_2Z$Type());",
+            + "new EntryPoint$Lambda2$$java_lang_String_equalsIgnoreCase"
+            + "__Ljava_lang_String_2Z$Type());",
         lambda
     );
     JProgram program = compileSnippet("void", lambda, false);
 
     // created by GwtAstBuilder
     JClassType lambdaInnerClass = (JClassType) getType(program,
-        "test.Lambda2$$equalsIgnoreCase__Ljava_lang_String_2Z$Type");
+        "test.EntryPoint$Lambda2$$java_lang_String_equalsIgnoreCase__Ljava_lang_String_2Z$Type");
     assertNotNull(lambdaInnerClass);
 
     // should have constructor taking this and x
     JMethod ctor = findMethod(lambdaInnerClass,
-        "Lambda2$$equalsIgnoreCase__Ljava_lang_String_2Z$Type");
+        "EntryPoint$Lambda2$$java_lang_String_equalsIgnoreCase__Ljava_lang_String_2Z$Type");
     assertTrue(ctor instanceof JConstructor);
     // no instance capture
     assertEquals(0, ctor.getParams().size());
@@ -366,17 +374,18 @@ public class Java8AstTest extends JJSTestBase {
   public void testCompileConstructorReferenceBinding() throws Exception {
     String lambda = "new AcceptsLambda<Pojo>().accept(Pojo::new);";
     assertEqualBlock(
-        "(new AcceptsLambda()).accept(new Lambda$$Pojo__IIV$Type());",
+        "(new AcceptsLambda()).accept(new EntryPoint$Lambda$$test_Pojo_Pojo__IIV$Type());",
         lambda
     );
     JProgram program = compileSnippet("void", lambda, false);
 
     // created by GwtAstBuilder
-    JClassType lambdaInnerClass = (JClassType) getType(program, "test.Lambda$$Pojo__IIV$Type");
+    JClassType lambdaInnerClass = (JClassType) getType(program,
+        "test.EntryPoint$Lambda$$test_Pojo_Pojo__IIV$Type");
     assertNotNull(lambdaInnerClass);
 
     // should have constructor taking this and x
-    JMethod ctor = findMethod(lambdaInnerClass, "Lambda$$Pojo__IIV$Type");
+    JMethod ctor = findMethod(lambdaInnerClass, "EntryPoint$Lambda$$test_Pojo_Pojo__IIV$Type");
     assertTrue(ctor instanceof JConstructor);
     // no instance capture
     assertEquals(0, ctor.getParams().size());
@@ -410,19 +419,21 @@ public class Java8AstTest extends JJSTestBase {
     String lambda = "new AcceptsLambda<Pojo2>().accept(Pojo2::new);";
     assertEqualBlock(
         "(new AcceptsLambda()).accept("
-            + "new Lambda$$EntryPoint$Pojo2__Ltest_EntryPoint_2IIV$Type(this));",
+            + "new EntryPoint$Lambda$$test_EntryPoint$Pojo2_EntryPoint$Pojo2"
+            + "__Ltest_EntryPoint_2IIV$Type(this));",
         lambda
     );
     JProgram program = compileSnippet("void", lambda, false);
 
     // created by GwtAstBuilder
     JClassType lambdaInnerClass = (JClassType) getType(program,
-        "test.Lambda$$EntryPoint$Pojo2__Ltest_EntryPoint_2IIV$Type");
+        "test.EntryPoint$Lambda$$test_EntryPoint$Pojo2_EntryPoint$Pojo2"
+            + "__Ltest_EntryPoint_2IIV$Type");
     assertNotNull(lambdaInnerClass);
 
     // should have constructor taking this and x
     JMethod ctor = findMethod(lambdaInnerClass,
-        "Lambda$$EntryPoint$Pojo2__Ltest_EntryPoint_2IIV$Type");
+        "EntryPoint$Lambda$$test_EntryPoint$Pojo2_EntryPoint$Pojo2__Ltest_EntryPoint_2IIV$Type");
     assertTrue(ctor instanceof JConstructor);
     // one instance capture
     assertEquals(1, ctor.getParams().size());
@@ -441,6 +452,95 @@ public class Java8AstTest extends JJSTestBase {
         formatSource(samMethod.toSource()));
   }
 
+  public void testMethodReferenceNamesDifferAcrossCompilationUnits() throws Exception {
+    addAll(JavaResourceBase.createMockJavaResource("test.OtherReference",
+        "package test;",
+        "public class OtherReference {",
+        "  public static boolean accept() {",
+        "    return new AcceptsLambda<String>().accept2(String::equalsIgnoreCase);",
+        "  }",
+        "}"
+    ));
+    JProgram program = compileSnippet("void",
+        "OtherReference.accept(); new AcceptsLambda<String>().accept2(String::equalsIgnoreCase);",
+        false);
+
+    // Both units refer to the same method through the same interface, each gets its own class.
+    String name = "Lambda2$$java_lang_String_equalsIgnoreCase__Ljava_lang_String_2Z$Type";
+    JClassType entryPointLambda = (JClassType) getType(program, "test.EntryPoint$" + name);
+    JClassType otherLambda = (JClassType) getType(program, "test.OtherReference$" + name);
+    assertNotNull(entryPointLambda);
+    assertNotNull(otherLambda);
+    assertNotSame(entryPointLambda, otherLambda);
+    assertEquals(1, countTypes(program, entryPointLambda.getName()));
+    assertEquals(1, countTypes(program, otherLambda.getName()));
+  }
+
+  public void testMethodReferenceToMethodOfInaccessibleClass() throws Exception {
+    addAll(JavaResourceBase.createMockJavaResource("other.AbstractBuilder",
+        "package other;",
+        "abstract class AbstractBuilder {",
+        "  public boolean matches(String a, String b) { return a == b; }",
+        "}"
+    ));
+    addAll(JavaResourceBase.createMockJavaResource("other.Builder",
+        "package other;",
+        "public final class Builder extends AbstractBuilder {",
+        "}"
+    ));
+    addSnippetImport("other.Builder");
+    addSnippetClassDecl("static Builder builder = new Builder();");
+    String lambda = "new AcceptsLambda<String>().accept2(builder::matches);";
+    JProgram program = compileSnippet("void", lambda, false);
+
+    // Like StringBuilder::toString, the reference is bound to the class declaring the method
+    // rather than to the public subclass JDT retargets it to.
+    JClassType lambdaInnerClass = (JClassType) getType(program,
+        "test.EntryPoint$Lambda2$other_AbstractBuilder_matches"
+            + "__Ljava_lang_String_2Ljava_lang_String_2Z$Type");
+    assertNotNull(lambdaInnerClass);
+    JMethod samMethod = findMethod(lambdaInnerClass, "run");
+    assertEquals(
+        "public final boolean run(Object arg0,Object arg1){"
+            + "return this.$$outer_0.matches(arg0,arg1);}",
+        formatSource(samMethod.toSource()));
+  }
+
+  public void testDefaultInterfaceMethodDiamond() throws Exception {
+    addAll(JavaResourceBase.createMockJavaResource("test.Top",
+        "package test;",
+        "public interface Top {",
+        "  default int method() { return 1; }",
+        "}"
+    ));
+    addAll(JavaResourceBase.createMockJavaResource("test.Left",
+        "package test;",
+        "public interface Left extends Top {",
+        "  default int method() { return 2; }",
+        "}"
+    ));
+    addAll(JavaResourceBase.createMockJavaResource("test.Right",
+        "package test;",
+        "public interface Right extends Top {",
+        "}"
+    ));
+    addAll(JavaResourceBase.createMockJavaResource("test.Diamond",
+        "package test;",
+        "public class Diamond implements Right, Left {",
+        "}"
+    ));
+    JProgram program = compileSnippet("int", "return new Diamond().method();", false);
+
+    // The most specific default, the one in Left, is inherited no matter the declaration order.
+    JClassType diamond = (JClassType) getType(program, "test.Diamond");
+    JMethod method = findMethod(diamond, "method");
+    assertNotNull(method);
+    JReturnStatement returnStatement =
+        (JReturnStatement) ((JMethodBody) method.getBody()).getBlock().getStatements().get(0);
+    JMethodCall call = (JMethodCall) returnStatement.getExpr();
+    assertEquals("test.Left", call.getTarget().getEnclosingType().getName());
+  }
+
   private static final MockJavaResource LAMBDA_METAFACTORY =
       JavaResourceBase.createMockJavaResource("java.lang.invoke.LambdaMetafactory",
           "package java.lang.invoke;",
@@ -469,4 +569,14 @@ public class Java8AstTest extends JJSTestBase {
     assertEquals("{return super();}",
         formatSource(defaultMethod.getBody().toSource()));
   }
+
+  private static int countTypes(JProgram program, String name) {
+    int count = 0;
+    for (JDeclaredType type : program.getDeclaredTypes()) {
+      if (type.getName().equals(name)) {
+        count++;
+      }
+    }
+    return count;
+  }
 }
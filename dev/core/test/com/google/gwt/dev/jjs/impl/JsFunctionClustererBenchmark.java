@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.core.ext.linker.StatementRanges;
+import com.google.gwt.dev.jjs.SourceOrigin;
+import com.google.gwt.dev.jjs.impl.JsFunctionClusterer.Strategy;
+import com.google.gwt.dev.js.JsParser;
+import com.google.gwt.dev.js.JsParserException;
+import com.google.gwt.dev.js.JsSourceGenerationVisitor;
+import com.google.gwt.dev.js.ast.JsArrayLiteral;
+import com.google.gwt.dev.js.ast.JsExprStmt;
+import com.google.gwt.dev.js.ast.JsExpression;
+import com.google.gwt.dev.js.ast.JsInvocation;
+import com.google.gwt.dev.js.ast.JsProgram;
+import com.google.gwt.dev.js.ast.JsStatement;
+import com.google.gwt.dev.js.ast.JsStringLiteral;
+import com.google.gwt.dev.util.DefaultTextOutput;
+import com.google.gwt.dev.util.Util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the time taken by the function clustering strategies and the gzipped size of the
+ * code they produce.
+ * <p>
+ * The code is read from compiled JavaScript, such as the obfuscated *.cache.js files of a
+ * permutation, which is parsed and printed again to recover its statements. Code that a linker
+ * wrapped in string literals, as in {@code module.onScriptDownloaded(["..."])}, is unwrapped.
+ * Run manually, with the compiler's resources on the class path:
+ *
+ * <pre>
+ * java com.google.gwt.dev.jjs.impl.JsFunctionClustererBenchmark file.js...
+ * </pre>
+ */
+public class JsFunctionClustererBenchmark {
+
+  private static final int WARMUP_ROUNDS = 2;
+  private static final int MEASURED_ROUNDS = 5;
+
+  public static void main(String[] args) throws Exception {
+    for (String fileName : args) {
+      File file = new File(fileName);
+      JsProgram program = parse(Util.readFileAsString(file));
+      String wrappedJs = getWrappedJs(program.getGlobalBlock().getStatements());
+      if (wrappedJs != null) {
+        program = parse(wrappedJs);
+      }
+      DefaultTextOutput out = new DefaultTextOutput(true);
+      JsSourceGenerationVisitor generator = new JsSourceGenerationVisitor(out);
+      generator.accept(program.getGlobalBlock());
+      String js = out.toString();
+      StatementRanges statementRanges = generator.getStatementRanges();
+
+      System.out.println(file.getName() + ": " + js.length() + " chars, "
+          + statementRanges.numStatements() + " statements, " + gzippedSize(js)
+          + " bytes gzipped unclustered");
+      for (Strategy strategy : Strategy.values()) {
+        System.out.println(measure(js, statementRanges, strategy));
+      }
+    }
+  }
+
+  /**
+   * Returns the code passed as string literals to the only statement, if it is a call.
+   */
+  private static String getWrappedJs(List<JsStatement> statements) {
+    if (statements.size() != 1 || !(statements.get(0) instanceof JsExprStmt)) {
+      return null;
+    }
+    JsExpression expression = ((JsExprStmt) statements.get(0)).getExpression();
+    if (!(expression instanceof JsInvocation)) {
+      return null;
+    }
+    List<JsExpression> arguments = ((JsInvocation) expression).getArguments();
+    if (arguments.size() != 1 || !(arguments.get(0) instanceof JsArrayLiteral)) {
+      return null;
+    }
+    StringBuilder js = new StringBuilder();
+    for (JsExpression element : ((JsArrayLiteral) arguments.get(0)).getExpressions()) {
+      if (!(element instanceof JsStringLiteral)) {
+        return null;
+      }
+      js.append(((JsStringLiteral) element).getValue());
+    }
+    return js.toString();
+  }
+
+  private static JsProgram parse(String js) throws IOException, JsParserException {
+    JsProgram program = new JsProgram();
+    JsParser.parseInto(SourceOrigin.UNKNOWN, program.getScope(), program.getGlobalBlock(),
+        new StringReader(js));
+    return program;
+  }
+
+  private static String measure(String js, StatementRanges statementRanges, Strategy strategy)
+      throws IOException {
+    long bestNanos = Long.MAX_VALUE;
+    String clusteredJs = null;
+    for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; ++round) {
+      long start = System.nanoTime();
+      JsFunctionClusterer clusterer = new JsFunctionClusterer(js, statementRanges, null, strategy);
+      clusterer.exec();
+      long nanos = System.nanoTime() - start;
+      if (round >= WARMUP_ROUNDS) {
+        bestNanos = Math.min(bestNanos, nanos);
+      }
+      clusteredJs = clusterer.getJs();
+    }
+    return String.format("  %-13s %6d ms  %8d bytes gzipped", strategy, bestNanos / 1000000,
+        gzippedSize(clusteredJs));
+  }
+
+  private static int gzippedSize(String js) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+    gzip.write(Util.getBytes(js));
+    gzip.close();
+    return bytes.size();
+  }
+}
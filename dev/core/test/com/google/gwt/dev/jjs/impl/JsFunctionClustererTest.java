@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.core.ext.linker.StatementRanges;
+import com.google.gwt.core.ext.linker.impl.StandardStatementRanges;
+import com.google.gwt.dev.jjs.impl.JsFunctionClusterer.Strategy;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link JsFunctionClusterer}.
+ */
+public class JsFunctionClustererTest extends TestCase {
+
+  private static final List<String> STATEMENTS = Arrays.asList(
+      "var a=1;",
+      "function b(c){return c.d+c.e+c.f+c.g}",
+      "function h(i,j){for(var k=0;k<i;k++){j.push(k*k)}return j}",
+      "var l=[];",
+      "function m(n){return n.d+n.e+n.f+n.g}",
+      "function o(p,q){for(var r=0;r<p;r++){q.push(r*r)}return q}",
+      "function s(){throw new Error('unreachable')}",
+      "l.push(b);");
+
+  public void testEditDistance() {
+    List<String> clustered = cluster(Strategy.EDIT_DISTANCE);
+    assertReordered(clustered);
+  }
+
+  public void testMinHash() {
+    List<String> clustered = cluster(Strategy.MIN_HASH);
+    assertReordered(clustered);
+    assertAdjacent(clustered, STATEMENTS.get(1), STATEMENTS.get(4));
+    assertAdjacent(clustered, STATEMENTS.get(2), STATEMENTS.get(5));
+  }
+
+  public void testMinHashIsDeterministic() {
+    assertEquals(cluster(Strategy.MIN_HASH), cluster(Strategy.MIN_HASH));
+  }
+
+  private static void assertAdjacent(List<String> statements, String first, String second) {
+    assertEquals(1, Math.abs(statements.indexOf(first) - statements.indexOf(second)));
+  }
+
+  /**
+   * Checks that the functions were moved to the front, followed by the other statements in
+   * their original order.
+   */
+  private static void assertReordered(List<String> clustered) {
+    List<String> sortedStatements = Lists.newArrayList(STATEMENTS);
+    Collections.sort(sortedStatements);
+    List<String> sortedClustered = Lists.newArrayList(clustered);
+    Collections.sort(sortedClustered);
+    assertEquals(sortedStatements, sortedClustered);
+
+    for (int i = 0; i < 5; i++) {
+      assertTrue(clustered.get(i).startsWith("function "));
+    }
+    assertEquals(Arrays.asList("var a=1;", "var l=[];", "l.push(b);"), clustered.subList(5, 8));
+  }
+
+  private static List<String> cluster(Strategy strategy) {
+    StringBuilder js = new StringBuilder();
+    ArrayList<Integer> starts = new ArrayList<Integer>();
+    ArrayList<Integer> ends = new ArrayList<Integer>();
+    for (String statement : STATEMENTS) {
+      starts.add(js.length());
+      js.append(statement);
+      ends.add(js.length());
+    }
+    JsFunctionClusterer clusterer = new JsFunctionClusterer(js.toString(),
+        new StandardStatementRanges(starts, ends), null, strategy);
+    clusterer.exec();
+
+    String clusteredJs = clusterer.getJs();
+    StatementRanges ranges = clusterer.getStatementRanges();
+    List<String> clustered = new ArrayList<String>();
+    for (int i = 0; i < ranges.numStatements(); i++) {
+      clustered.add(clusteredJs.substring(ranges.start(i), ranges.end(i)));
+    }
+    return clustered;
+  }
+}
@@ -13,16 +13,32 @@
  */
 package com.google.gwt.dev.jjs.impl;
 
+import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
+import com.google.gwt.dev.javac.testing.impl.MockJavaResource;
 import com.google.gwt.dev.jjs.ast.JMethod;
 import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.dev.util.arg.SourceLevel;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Test for {@link MethodInliner}.
  */
 public class MethodInlinerTest extends OptimizerTestBase {
+  private static final MockJavaResource LAMBDA_METAFACTORY =
+      JavaResourceBase.createMockJavaResource("java.lang.invoke.LambdaMetafactory",
+          "package java.lang.invoke;",
+          "public class LambdaMetafactory {",
+          "}");
+
+  private boolean runMakeCallsStatic;
+
   @Override
   protected void setUp() throws Exception {
     super.setUp();
+    runMakeCallsStatic = false;
   }
 
   public void testNoMethodCall() throws Exception {
@@ -153,13 +169,69 @@ public class MethodInlinerTest extends OptimizerTestBase {
         result.findMethod("fun2").toSource());
   }
 
+  public void testAtomicIntegerAccessors() throws Exception {
+    // Compiles the emulated AtomicInteger itself rather than a copy of its accessors.
+    sourceLevel = SourceLevel.JAVA8;
+    addAll(LAMBDA_METAFACTORY);
+    // The mock Number and Integer lack the methods that AtomicInteger overrides and calls.
+    sourceOracle.addOrReplace(JavaResourceBase.createMockJavaResource("java.lang.Number",
+        "package java.lang;",
+        "public class Number implements java.io.Serializable {",
+        "  public double doubleValue() { return 0; }",
+        "  public float floatValue() { return 0; }",
+        "  public int intValue() { return 0; }",
+        "  public long longValue() { return 0; }",
+        "}"));
+    sourceOracle.addOrReplace(JavaResourceBase.createMockJavaResource("java.lang.Integer",
+        "package java.lang;",
+        "public class Integer extends Number {",
+        "  private int value;",
+        "  public Integer(int value) { this.value = value; }",
+        "  public static Integer valueOf(int i) { return new Integer(i); }",
+        "  public static String toString(int i) { return \"\" + i; }",
+        "  public int intValue() { return value; }",
+        "}"));
+    addEmulatedSource("java.util.function.IntBinaryOperator");
+    addEmulatedSource("java.util.function.IntUnaryOperator");
+    addEmulatedSource("java.util.concurrent.atomic.AtomicInteger");
+    runMakeCallsStatic = true;
+    addSnippetImport("java.util.concurrent.atomic.AtomicInteger");
+    addSnippetClassDecl("static AtomicInteger counter = new AtomicInteger();");
+    addSnippetClassDecl("static int next() { return counter.incrementAndGet(); }");
+    addSnippetClassDecl("static int current() { return counter.get(); }");
+    Result result = optimize("int", "return next() + current();");
+    assertEquals("static int next(){\n" + "  return ++EntryPoint.counter.value;\n" + "}",
+        result.findMethod("next").toSource());
+    assertEquals("static int current(){\n" + "  return EntryPoint.counter.value;\n" + "}",
+        result.findMethod("current").toSource());
+  }
+
   @Override
   protected boolean optimizeMethod(JProgram program, JMethod method) {
     program.addEntryMethod(findMainMethod(program));
     boolean didChange = false;
+    if (runMakeCallsStatic) {
+      didChange = MakeCallsStatic.exec(program, false).didChange();
+    }
     while (MethodInliner.exec(program).didChange()) {
       didChange = true;
     }
     return didChange;
   }
+
+  /**
+   * Adds the source of a type emulated in gwt-user, which is on the test classpath.
+   */
+  private void addEmulatedSource(String typeName) throws IOException {
+    String path = "com/google/gwt/emul/" + typeName.replace('.', '/') + ".java";
+    InputStream in = getClass().getClassLoader().getResourceAsStream(path);
+    assertNotNull("Missing " + path, in);
+    final String source = Util.readStreamAsString(in);
+    sourceOracle.addOrReplace(new MockJavaResource(typeName) {
+      @Override
+      public CharSequence getContent() {
+        return source;
+      }
+    });
+  }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.jjs.Correlation.Axis;
+import com.google.gwt.dev.jjs.SourceInfo;
+import com.google.gwt.dev.jjs.ast.Context;
+import com.google.gwt.dev.jjs.ast.JBinaryOperation;
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.dev.jjs.ast.JStringLiteral;
+import com.google.gwt.dev.jjs.ast.JVisitor;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link ParallelMethodOptimizer}.
+ */
+public class ParallelMethodOptimizerTest extends JJSTestBase {
+
+  private ParallelMethodOptimizer parallelOptimizer;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    parallelOptimizer = new ParallelMethodOptimizer(4);
+    addSnippetClassDecl("static volatile boolean b;");
+    addSnippetClassDecl("static volatile int i;");
+    addSnippetClassDecl(
+        "static class A {",
+        "  A() { if (false) { i++; } }",
+        "  int f() { return true ? 1 : 2; }",
+        "}");
+    addSnippetClassDecl(
+        "static class B extends A {",
+        "  B() { super(); do { } while (false); }",
+        "  int g() { switch (1) { case 1: return 1; } return 0; }",
+        "}");
+    addSnippetClassDecl(
+        "static class C {",
+        "  static void make() { new B(); new A(); }",
+        "  static int h() { return false ? i : 3; }",
+        "}");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    parallelOptimizer.shutdown();
+    super.tearDown();
+  }
+
+  public void testDeadCodeElimination_sameResultAsSerial() throws Exception {
+    String code = "C.make(); int x = new B().g() + new A().f() + C.h(); if (b) { i = x; }";
+
+    JProgram serialProgram = compileSnippet("void", code);
+    OptimizerContext serialCtx = new FullOptimizerContext(serialProgram);
+    int serialMods = DeadCodeElimination.exec(serialProgram, serialCtx, null).getNumMods();
+
+    JProgram parallelProgram = compileSnippet("void", code);
+    OptimizerContext parallelCtx = new FullOptimizerContext(parallelProgram);
+    int parallelMods =
+        DeadCodeElimination.exec(parallelProgram, parallelCtx, parallelOptimizer).getNumMods();
+
+    assertTrue(serialMods > 0);
+    assertEquals(serialMods, parallelMods);
+    assertEquals(serialProgram.toSource(), parallelProgram.toSource());
+    assertEquals(getModifiedMethodNames(serialCtx), getModifiedMethodNames(parallelCtx));
+  }
+
+  public void testDeadCodeElimination_foldedStringDoesNotShareSourceInfo() throws Exception {
+    addSnippetClassDecl("static final int K = 1;");
+    JProgram program = compileSnippet("void", "String s = \"a\" + K;");
+    SourceInfoCorrelator.exec(program);
+    final List<SourceInfo> concatInfos = Lists.newArrayList();
+    new JVisitor() {
+      @Override
+      public void endVisit(JBinaryOperation x, Context ctx) {
+        concatInfos.add(x.getSourceInfo());
+      }
+    }.accept(findMainMethod(program));
+    assertEquals(1, concatInfos.size());
+    SourceInfo concatInfo = concatInfos.get(0);
+    assertNull(concatInfo.getCorrelation(Axis.LITERAL));
+
+    DeadCodeElimination.exec(program, new FullOptimizerContext(program), parallelOptimizer);
+
+    final List<JStringLiteral> literals = Lists.newArrayList();
+    new JVisitor() {
+      @Override
+      public void endVisit(JStringLiteral x, Context ctx) {
+        literals.add(x);
+      }
+    }.accept(findMainMethod(program));
+    assertEquals(1, literals.size());
+    assertEquals("a1", literals.get(0).getValue());
+    assertNotSame(concatInfo, literals.get(0).getSourceInfo());
+    assertNotNull(literals.get(0).getSourceInfo().getCorrelation(Axis.LITERAL));
+    // The folded literal's correlation must not be written into the shared source info.
+    assertNull(concatInfo.getCorrelation(Axis.LITERAL));
+  }
+
+  public void testModificationsReplayedInMethodOrder() throws UnableToCompleteException {
+    JProgram program = compileSnippet("void", "");
+    OptimizerContext optimizerCtx = new FullOptimizerContext(program);
+    int step = optimizerCtx.getOptimizationStep();
+    List<JMethod> methods = Lists.newArrayList(program.getDeclaredTypes().get(0).getMethods());
+    assertTrue(methods.size() > 1);
+
+    int numMods = parallelOptimizer.optimize(Lists.reverse(methods),
+        Collections.singleton(methods.get(0)),
+        new ParallelMethodOptimizer.MethodOptimization() {
+          @Override
+          public int optimize(JMethod method, OptimizerContext methodOptimizerCtx) {
+            methodOptimizerCtx.markModified(method);
+            return 1;
+          }
+        }, optimizerCtx);
+    optimizerCtx.incOptimizationStep();
+
+    assertEquals(methods.size(), numMods);
+    assertEquals(Lists.reverse(methods),
+        Lists.newArrayList(optimizerCtx.getModifiedMethodsSince(step)));
+  }
+
+  public void testStepsAdvancedByTasksReplayed() throws UnableToCompleteException {
+    ParallelMethodOptimizer.MethodOptimization optimization =
+        new ParallelMethodOptimizer.MethodOptimization() {
+          @Override
+          public int optimize(JMethod method, OptimizerContext methodOptimizerCtx) {
+            methodOptimizerCtx.markModified(method);
+            methodOptimizerCtx.setLastStepFor("test", methodOptimizerCtx.getOptimizationStep());
+            methodOptimizerCtx.incOptimizationStep();
+            methodOptimizerCtx.markModified(method);
+            return 1;
+          }
+        };
+
+    JProgram serialProgram = compileSnippet("void", "");
+    OptimizerContext serialCtx = new FullOptimizerContext(serialProgram);
+    int step = serialCtx.getOptimizationStep();
+    List<JMethod> serialMethods =
+        Lists.newArrayList(serialProgram.getDeclaredTypes().get(0).getMethods());
+    for (JMethod method : serialMethods) {
+      optimization.optimize(method, serialCtx);
+    }
+
+    JProgram parallelProgram = compileSnippet("void", "");
+    OptimizerContext parallelCtx = new FullOptimizerContext(parallelProgram);
+    List<JMethod> parallelMethods =
+        Lists.newArrayList(parallelProgram.getDeclaredTypes().get(0).getMethods());
+    parallelOptimizer.optimize(parallelMethods, Collections.singleton(parallelMethods.get(0)),
+        optimization, parallelCtx);
+
+    assertEquals(step + serialMethods.size(), parallelCtx.getOptimizationStep());
+    assertEquals(serialCtx.getOptimizationStep(), parallelCtx.getOptimizationStep());
+    assertEquals(serialCtx.getLastStepFor("test"), parallelCtx.getLastStepFor("test"));
+    for (int i = step; i <= serialCtx.getOptimizationStep(); i++) {
+      assertEquals(getModifiedMethodNames(serialCtx, i), getModifiedMethodNames(parallelCtx, i));
+    }
+  }
+
+  private static List<String> getModifiedMethodNames(OptimizerContext optimizerCtx) {
+    return getModifiedMethodNames(optimizerCtx, 0);
+  }
+
+  private static List<String> getModifiedMethodNames(OptimizerContext optimizerCtx,
+      int stepSince) {
+    List<String> names = Lists.newArrayList();
+    for (JMethod method : optimizerCtx.getModifiedMethodsSince(stepSince)) {
+      names.add(method.getEnclosingType().getName() + "." + method.getSignature());
+    }
+    return names;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.dev.jjs.ast.JProgram;
+
+/**
+ * Tests for class {@link SafeLongNormalizer}.
+ */
+public class SafeLongNormalizerTest extends OptimizerTestBase {
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    runDeadCodeElimination = false;
+  }
+
+  public void testArithmetic() throws Exception {
+    optimize("void", "long a = 3L; long b = a * 1000 + a - 1;").intoString(
+        "double a = 3.0;",
+        "double b = a * 1000 + a - 1;");
+  }
+
+  public void testCompoundAssignment() throws Exception {
+    optimize("void", "long a = 3L; int i = 2; a += i; a *= a; a -= 1L;").intoString(
+        "double a = 3.0;",
+        "int i = 2;",
+        "a += i;",
+        "a *= a;",
+        "a -= 1.0;");
+  }
+
+  public void testCompoundAssignmentToInt() throws Exception {
+    // A long operand wraps the int result and a double one saturates it.
+    optimize("void", "long a = 3L; int i = 2; i += a; i *= 2.5;").intoString(
+        "double a = 3.0;",
+        "int i = 2;",
+        "i += (long) a;",
+        "i *= 2.5;");
+  }
+
+  public void testDivisionAndRemainder() throws Exception {
+    optimize("void", "long a = 7L; long b = a / 2; a %= b; a /= 3;").intoString(
+        "double a = 7.0;",
+        "double b = LongLib.safeDiv(a, 2);",
+        "a = LongLib.safeMod(a, b);",
+        "a = LongLib.safeDiv(a, 3);");
+  }
+
+  public void testBitwiseFallsBackToLong() throws Exception {
+    optimize("void", "long a = 7L; long b = a & 3; a <<= 2; long c = ~a;").intoString(
+        "double a = 7.0;",
+        "double b = (double) ((long) a & 3L);",
+        "a = (double) ((long) a << 2);",
+        "double c = (double) ~((long) a);");
+  }
+
+  public void testNarrowing() throws Exception {
+    optimize("void", "long a = 7L; int i = (int) a; double d = a; float f = 2.5f; a = (long) f;")
+        .intoString(
+            "double a = 7.0;",
+            "int i = Cast.narrow_int(a);",
+            "double d = a;",
+            "float f = 2.5;",
+            "a = LongLib.safeFromDouble(f);");
+  }
+
+  public void testLongsLeavingTheMethod() throws Exception {
+    optimize("long", "long a = 7L; long[] array = {a, a + 1}; a = array[0]; return a + 1;")
+        .intoString(
+            "double a = 7.0;",
+            "long[] array = new long[] {(long) a, (long) (a + 1)};",
+            "a = (double) array[0];",
+            "return (long) (a + 1);");
+  }
+
+  public void testComparison() throws Exception {
+    optimize("void", "long a = 7L; boolean b = a < 8L && a != 2.5;").intoString(
+        "double a = 7.0;",
+        "boolean b = a < 8.0 && a != 2.5;");
+  }
+
+  public void testStringConcatenation() throws Exception {
+    optimize("void", "long a = 7L; String s = \"a\" + a;").intoString(
+        "double a = 7.0;",
+        "String s = \"a\" + a;");
+  }
+
+  public void testNotAnnotated() throws Exception {
+    addSnippetClassDecl("static long unannotated(long a) { return a * 2; }");
+    Result result = optimize("void", "long a = unannotated(3L);");
+    assertEquals("{\n  return a * 2;\n}",
+        result.findMethod("unannotated").getBody().toSource().trim());
+  }
+
+  @Override
+  protected boolean optimizeMethod(JProgram program, JMethod method) {
+    if (method.getName().equals(MAIN_METHOD_NAME)) {
+      method.setSafeLongs(true);
+    }
+    SafeLongNormalizer.exec(program);
+    return true;
+  }
+}
@@ -20,7 +20,11 @@ import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import com.google.gwt.thirdparty.guava.common.io.Files;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.net.URISyntaxException;
@@ -220,6 +224,43 @@ public class ClassPathEntryTest extends AbstractResourceOrientedTestBase {
     testAllCpe2FilesFound(getClassPathEntry2AsZip());
   }
 
+  public void testSavedZipFileIndex() throws URISyntaxException, IOException {
+    File indexDir = Files.createTempDir();
+    System.setProperty(ZipFileClassPathEntry.INDEX_DIR_PROPERTY, indexDir.getPath());
+    try {
+      // Index the jar from scratch, which saves its index.
+      ZipFileClassPathEntry.clearCache();
+      testAllCpe1FilesFound(getClassPathEntry1AsJar());
+      File[] indexFiles = indexDir.listFiles();
+      assertEquals(1, indexFiles.length);
+
+      // A new entry for the same jar reads the saved index instead.
+      ZipFileClassPathEntry.clearCache();
+      testAllCpe1FilesFound(getClassPathEntry1AsJar());
+      assertEquals(1, indexDir.listFiles().length);
+
+      // An index with an impossible entry count is ignored.
+      byte[] index = Files.toByteArray(indexFiles[0]);
+      for (int count : new int[] {-1, Integer.MAX_VALUE}) {
+        writeIndexWithCount(indexFiles[0], index, count);
+        ZipFileClassPathEntry.clearCache();
+        testAllCpe1FilesFound(getClassPathEntry1AsJar());
+      }
+
+      // A corrupt index is ignored.
+      Files.write(new byte[] {1, 2, 3}, indexFiles[0]);
+      ZipFileClassPathEntry.clearCache();
+      testAllCpe1FilesFound(getClassPathEntry1AsJar());
+    } finally {
+      System.clearProperty(ZipFileClassPathEntry.INDEX_DIR_PROPERTY);
+      ZipFileClassPathEntry.clearCache();
+      for (File file : indexDir.listFiles()) {
+        file.delete();
+      }
+      indexDir.delete();
+    }
+  }
+
   public void testPathPrefixSetChanges() throws IOException, URISyntaxException {
     ClassPathEntry cpe1jar = getClassPathEntry1AsJar();
     ClassPathEntry cpe1dir = getClassPathEntry1AsDirectory();
@@ -326,6 +367,25 @@ public class ClassPathEntryTest extends AbstractResourceOrientedTestBase {
     }
   }
 
+  /**
+   * Rewrites a saved zip file index with its header intact but a different
+   * entry count.
+   */
+  private static void writeIndexWithCount(File indexFile, byte[] index, int count)
+      throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+    int version = in.readInt();
+    String key = in.readUTF();
+    DataOutputStream out = new DataOutputStream(new FileOutputStream(indexFile));
+    try {
+      out.writeInt(version);
+      out.writeUTF(key);
+      out.writeInt(count);
+    } finally {
+      out.close();
+    }
+  }
+
   // NOTE: if this test fails, ensure that the source root containing this very
   // source file is *FIRST* on the classpath
   private void testAllCpe1FilesFound(ClassPathEntry cpe1) {
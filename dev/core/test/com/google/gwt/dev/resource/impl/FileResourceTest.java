@@ -66,6 +66,19 @@ public class FileResourceTest extends TestCase {
     }
   }
 
+  public void testLength() {
+    File f = createTempFile();
+
+    FileResource r = FileResource.of(f.getName(), f);
+    assertEquals("contents 1".length(), r.getLength());
+
+    // The length is that of the file now, even if the modification date doesn't change.
+    long lastModified = r.getLastModified();
+    Util.writeStringAsFile(f, "longer contents 1");
+    f.setLastModified(lastModified);
+    assertEquals("longer contents 1".length(), r.getLength());
+  }
+
   public void testInterning() throws Exception {
     File f = createTempFile();
 
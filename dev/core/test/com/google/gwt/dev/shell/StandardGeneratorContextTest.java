@@ -38,6 +38,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -96,6 +97,59 @@ public class StandardGeneratorContextTest extends TestCase {
     genCtx.setCurrentGenerator(Generator.class);
   }
 
+  public void testFork_joinKeepsFirstGeneratedResource()
+      throws UnableToCompleteException, IOException {
+    testTryCreateResource_normalCompletion("beforeFork");
+    StandardGeneratorContext first = genCtx.fork();
+    StandardGeneratorContext second = genCtx.fork();
+
+    // Forks see what was committed before they were made, but not each other's resources.
+    assertNull(first.tryCreateResource(mockLogger, "beforeFork"));
+    OutputStream firstShared = first.tryCreateResource(mockLogger, "shared");
+    OutputStream secondShared = second.tryCreateResource(mockLogger, "shared");
+    OutputStream firstOnly = first.tryCreateResource(mockLogger, "firstOnly");
+    OutputStream uncommitted = second.tryCreateResource(mockLogger, "uncommitted");
+    firstShared.write(new byte[] {1});
+    secondShared.write(new byte[] {2});
+    GeneratedResource firstSharedResource = first.commitResource(mockLogger, firstShared);
+    second.commitResource(mockLogger, secondShared);
+    first.commitResource(mockLogger, firstOnly);
+    assertEquals(1, artifactSet.size());
+
+    genCtx.join(mockLogger, first);
+    genCtx.join(mockLogger, second);
+    assertEquals(3, artifactSet.size());
+    for (GeneratedResource resource : artifactSet.find(GeneratedResource.class)) {
+      if (resource.getPartialPath().equals("shared")) {
+        assertSame(firstSharedResource, resource);
+      }
+    }
+    try {
+      uncommitted.write(new byte[] {3});
+      fail("Expected IOException for writing after the fork was joined");
+    } catch (IOException expected) {
+    }
+  }
+
+  public void testFork_joinKeepsFirstGeneratedUnit() {
+    StandardGeneratorContext first = genCtx.fork();
+    StandardGeneratorContext second = genCtx.fork();
+    PrintWriter firstWriter = first.tryCreate(mockLogger, "com.foo", "Shared");
+    PrintWriter secondWriter = second.tryCreate(mockLogger, "com.foo", "Shared");
+    assertNotNull(firstWriter);
+    assertNotNull(secondWriter);
+    firstWriter.println("// first");
+    secondWriter.println("// second");
+    second.commit(mockLogger, secondWriter);
+    first.commit(mockLogger, firstWriter);
+    assertFalse(genCtx.isDirty());
+
+    genCtx.join(mockLogger, first);
+    genCtx.join(mockLogger, second);
+    assertEquals(1, genCtx.getGeneratedUnitMap().size());
+    assertEquals("// first\n", genCtx.getGeneratedUnitMap().get("com.foo.Shared").getSource());
+  }
+
   public void testTryCreateResource_badFileName() {
     try {
       genCtx.tryCreateResource(mockLogger, null);
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the multi-threaded throughput of {@link DiskCache} against the
+ * previous implementation, which synchronized every access on a single
+ * {@link RandomAccessFile}.
+ * <p>
+ * Each thread writes a mix of small and large byte arrays and reads back
+ * earlier ones, roughly like permutation workers spilling and reloading ASTs.
+ * Run manually:
+ *
+ * <pre>
+ * java com.google.gwt.dev.util.DiskCacheBenchmark [threads] [operationsPerThread]
+ * </pre>
+ */
+public class DiskCacheBenchmark {
+
+  /**
+   * The operations under test.
+   */
+  private interface Cache {
+    byte[] readByteArray(long token);
+
+    long writeByteArray(byte[] bytes);
+  }
+
+  /**
+   * The previous implementation: a single file behind one lock.
+   */
+  private static class SynchronizedCache implements Cache {
+    private final RandomAccessFile file;
+
+    SynchronizedCache() throws IOException {
+      File temp = File.createTempFile("gwt", "byte-cache");
+      temp.deleteOnExit();
+      file = new RandomAccessFile(temp, "rw");
+      file.setLength(0);
+    }
+
+    @Override
+    public synchronized byte[] readByteArray(long token) {
+      try {
+        file.seek(token);
+        byte[] result = new byte[file.readInt()];
+        file.readFully(result);
+        return result;
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public synchronized long writeByteArray(byte[] bytes) {
+      try {
+        long position = file.length();
+        file.seek(position);
+        file.writeInt(bytes.length);
+        file.write(bytes);
+        return position;
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    void close() throws IOException {
+      file.setLength(0);
+      file.close();
+    }
+  }
+
+  private static final int WARMUP_ROUNDS = 2;
+  private static final int MEASURED_ROUNDS = 5;
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0 ? Integer.parseInt(args[0])
+        : Runtime.getRuntime().availableProcessors();
+    int operations = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+    System.out.println(threads + " threads, " + operations + " writes per thread");
+    for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; ++round) {
+      boolean warmup = round < WARMUP_ROUNDS;
+
+      SynchronizedCache baseline = new SynchronizedCache();
+      long baselineNanos = run(baseline, threads, operations);
+      baseline.close();
+
+      final DiskCache diskCache = new DiskCache();
+      long stripedNanos = run(new Cache() {
+        @Override
+        public byte[] readByteArray(long token) {
+          return diskCache.readByteArray(token);
+        }
+
+        @Override
+        public long writeByteArray(byte[] bytes) {
+          return diskCache.writeByteArray(bytes);
+        }
+      }, threads, operations);
+
+      if (!warmup) {
+        System.out.println(String.format("synchronized: %6d ms   striped: %6d ms",
+            baselineNanos / 1000000, stripedNanos / 1000000));
+      }
+    }
+  }
+
+  private static long run(final Cache cache, int threads, final int operations)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+      for (int t = 0; t < threads; ++t) {
+        final int seed = t;
+        tasks.add(new Callable<Integer>() {
+          @Override
+          public Integer call() {
+            long[] tokens = new long[operations];
+            int checksum = 0;
+            for (int i = 0; i < operations; ++i) {
+              // Mostly small entries with the occasional large one.
+              byte[] bytes = new byte[i % 50 == 0 ? 64 * 1024 : 256 + (i * seed) % 1024];
+              bytes[0] = (byte) i;
+              tokens[i] = cache.writeByteArray(bytes);
+              checksum += cache.readByteArray(tokens[i / 2])[0];
+            }
+            return checksum;
+          }
+        });
+      }
+      long start = System.nanoTime();
+      for (Future<Integer> result : executor.invokeAll(tasks)) {
+        result.get();
+      }
+      return System.nanoTime() - start;
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
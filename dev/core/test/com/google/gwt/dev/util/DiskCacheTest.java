@@ -17,7 +17,20 @@ package com.google.gwt.dev.util;
 
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Tests {@link DiskCache}.
@@ -76,4 +89,159 @@ public class DiskCacheTest extends TestCase {
           expected, actual);
     }
   }
+
+  public void testConcurrentWrites() throws Exception {
+    checkConcurrentWrites(new DiskCache(4, 0));
+  }
+
+  public void testConcurrentWritesMappedReads() throws Exception {
+    checkConcurrentWrites(new DiskCache(2, 4096));
+  }
+
+  public void testTransferStreams() throws IOException {
+    byte[] big = createBytes(100000, 7);
+    long bigToken = diskCache.transferFromStream(new ByteArrayInputStream(big));
+    long smallToken = diskCache.writeByteArray(new byte[] {1, 2, 3});
+    long emptyToken = diskCache.transferFromStream(new ByteArrayInputStream(new byte[0]));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    diskCache.transferToStream(bigToken, out);
+    assertTrue(Arrays.equals(big, out.toByteArray()));
+    assertTrue(Arrays.equals(new byte[] {1, 2, 3}, diskCache.readByteArray(smallToken)));
+    assertEquals(0, diskCache.readByteArray(emptyToken).length);
+  }
+
+  public void testOpenStream() throws Exception {
+    byte[] big = createBytes(200000, 3);
+    long bigToken = diskCache.writeByteArray(big);
+    long emptyToken = diskCache.writeByteArray(new byte[0]);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    InputStream in = diskCache.openStream(bigToken);
+    assertEquals(big[0] & 0xff, in.read());
+    out.write(big[0]);
+    assertEquals(10, in.skip(10));
+    out.write(big, 1, 10);
+    byte[] buf = new byte[777];
+    int read;
+    while ((read = in.read(buf)) != -1) {
+      out.write(buf, 0, read);
+    }
+    in.close();
+    assertTrue(Arrays.equals(big, out.toByteArray()));
+    assertEquals(-1, diskCache.openStream(emptyToken).read());
+
+    String[] object = new String[] {"a", "b"};
+    long objectToken = diskCache.writeObject(object);
+    assertTrue(Arrays.equals(object, diskCache.readObject(objectToken, String[].class)));
+  }
+
+  public void testWriteWaitsForStream() throws Exception {
+    final DiskCache cache = new DiskCache(1, 0);
+    final CountDownLatch streamStarted = new CountDownLatch(1);
+    final CountDownLatch finishStream = new CountDownLatch(1);
+    final InputStream in = new InputStream() {
+      private int count;
+
+      @Override
+      public int read() throws IOException {
+        if (count == 0) {
+          streamStarted.countDown();
+          try {
+            finishStream.await();
+          } catch (InterruptedException e) {
+            throw new IOException(e);
+          }
+        }
+        return count < 3 ? ++count : -1;
+      }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Long> streamToken = executor.submit(new Callable<Long>() {
+        @Override
+        public Long call() throws IOException {
+          return cache.transferFromStream(in);
+        }
+      });
+      streamStarted.await();
+      Future<Long> bytesToken = executor.submit(new Callable<Long>() {
+        @Override
+        public Long call() {
+          return cache.writeByteArray(new byte[] {4, 5});
+        }
+      });
+      try {
+        bytesToken.get(100, TimeUnit.MILLISECONDS);
+        fail("Write should wait for the stream in the only segment");
+      } catch (TimeoutException expected) {
+      }
+      finishStream.countDown();
+      assertTrue(Arrays.equals(new byte[] {1, 2, 3}, cache.readByteArray(streamToken.get())));
+      assertTrue(Arrays.equals(new byte[] {4, 5}, cache.readByteArray(bytesToken.get())));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testReadAfterClose() throws Throwable {
+    DiskCache cache = new DiskCache(2, 4096);
+    long token = cache.writeString("closed");
+    assertEquals("closed", cache.readString(token));
+    cache.finalize();
+    try {
+      cache.readString(token);
+      fail("Expected the closed cache to reject reads");
+    } catch (RuntimeException expected) {
+      assertTrue(expected.getCause() instanceof IOException);
+    }
+    // Closing is idempotent.
+    cache.finalize();
+  }
+
+  private void checkConcurrentWrites(final DiskCache cache) throws Exception {
+    final int threads = 8;
+    final int writesPerThread = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<long[]>> results = new ArrayList<Future<long[]>>();
+      for (int t = 0; t < threads; ++t) {
+        final int thread = t;
+        results.add(executor.submit(new Callable<long[]>() {
+          @Override
+          public long[] call() throws IOException {
+            long[] tokens = new long[writesPerThread];
+            for (int i = 0; i < writesPerThread; ++i) {
+              byte[] bytes = createBytes(i * 13, thread * writesPerThread + i);
+              tokens[i] = i % 5 == 0
+                  ? cache.transferFromStream(new ByteArrayInputStream(bytes))
+                  : cache.writeByteArray(bytes);
+              // Read back something written earlier while others are writing.
+              int j = i / 2;
+              assertTrue(Arrays.equals(createBytes(j * 13, thread * writesPerThread + j),
+                  cache.readByteArray(tokens[j])));
+            }
+            return tokens;
+          }
+        }));
+      }
+      for (int t = 0; t < threads; ++t) {
+        long[] tokens = results.get(t).get();
+        for (int i = 0; i < writesPerThread; ++i) {
+          assertTrue(Arrays.equals(createBytes(i * 13, t * writesPerThread + i),
+              cache.readByteArray(tokens[i])));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static byte[] createBytes(int length, int seed) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      bytes[i] = (byte) (seed * 17 + i * 31);
+    }
+    return bytes;
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util.log.speedtracer;
+
+import com.google.gwt.dev.json.JsonArray;
+import com.google.gwt.dev.json.JsonObject;
+import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the PerfReport class.
+ */
+public class PerfReportTest extends TestCase {
+
+  private PerfReport report;
+  private SpeedTracerLogger logger;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    report = new PerfReport(0);
+    logger = new SpeedTracerLogger(report);
+  }
+
+  public void testPhases() {
+    Event outer = logger.startImpl(null, CompilerEventType.OPTIMIZE);
+    Event inner = logger.startImpl(null, CompilerEventType.OPTIMIZE, "phase", "loop");
+    logger.endImpl(inner, "mods", "3");
+    Event optimizeJs = logger.startImpl(null, CompilerEventType.OPTIMIZE_JS);
+    logger.endImpl(optimizeJs);
+    logger.endImpl(outer);
+    Event again = logger.startImpl(null, CompilerEventType.OPTIMIZE);
+    logger.endImpl(again);
+
+    JsonObject json = report.toJson();
+    JsonObject phases = json.get("phases").asObject();
+    // The nested event of the same type is not counted again.
+    assertEquals(2, phases.get("Optimize").asObject().get("count").asNumber().getInteger());
+    assertEquals(1, phases.get("OptimizeJs").asObject().get("count").asNumber().getInteger());
+
+    JsonArray events = json.get("events").asArray();
+    assertEquals(2, events.getLength());
+    JsonObject first = events.get(0).asObject();
+    assertEquals(Thread.currentThread().getName(), first.get("thread").asString().getString());
+    JsonArray children = first.get("children").asArray();
+    assertEquals(2, children.getLength());
+    JsonObject data = children.get(0).asObject().get("data").asObject();
+    assertEquals("loop", data.get("phase").asString().getString());
+    assertEquals("3", data.get("mods").asString().getString());
+  }
+
+  public void testPermutations() {
+    Event permutation = logger.startImpl(null, CompilerEventType.JJS_COMPILE_PERMUTATION,
+        "name", "user.agent=safari", "id", "2");
+    logger.endImpl(permutation);
+
+    JsonArray permutations = report.toJson().get("permutations").asArray();
+    assertEquals(1, permutations.getLength());
+    JsonObject json = permutations.get(0).asObject();
+    assertEquals("2", json.get("id").asString().getString());
+    assertEquals("user.agent=safari", json.get("name").asString().getString());
+    assertNotNull(json.get("wallMillis").asNumber());
+  }
+
+  public void testOldestEventsAreDropped() {
+    report = new PerfReport(0, 3);
+    logger = new SpeedTracerLogger(report);
+    for (int i = 0; i < 3; i++) {
+      Event outer = logger.startImpl(null, CompilerEventType.JJS_COMPILE_PERMUTATION,
+          "id", String.valueOf(i));
+      Event inner = logger.startImpl(null, CompilerEventType.OPTIMIZE);
+      logger.endImpl(inner);
+      logger.endImpl(outer);
+    }
+
+    JsonObject json = report.toJson();
+    // Each permutation event has one child, so only the last one fits.
+    JsonArray events = json.get("events").asArray();
+    assertEquals(1, events.getLength());
+    assertEquals("2",
+        events.get(0).asObject().get("data").asObject().get("id").asString().getString());
+    assertEquals(4, json.get("droppedEvents").asNumber().getInteger());
+
+    // The sums still cover the dropped events.
+    JsonObject phases = json.get("phases").asObject();
+    assertEquals(3, phases.get("Optimize").asObject().get("count").asNumber().getInteger());
+    assertEquals(3, json.get("permutations").asArray().getLength());
+
+    // The two kept events and the name of their thread.
+    assertEquals(3, report.toChromeTrace().get("traceEvents").asArray().getLength());
+  }
+
+  public void testChromeTrace() {
+    Event outer = logger.startImpl(null, CompilerEventType.PRECOMPILE);
+    logger.markTimelineImpl("started");
+    logger.endImpl(outer);
+
+    JsonObject trace = report.toChromeTrace();
+    JsonArray traceEvents = trace.get("traceEvents").asArray();
+    assertEquals(3, traceEvents.getLength());
+
+    JsonObject complete = traceEvents.get(0).asObject();
+    assertEquals("X", complete.get("ph").asString().getString());
+    assertEquals(CompilerEventType.PRECOMPILE.getName(),
+        complete.get("name").asString().getString());
+    assertNotNull(complete.get("dur").asNumber());
+
+    JsonObject instant = traceEvents.get(1).asObject();
+    assertEquals("i", instant.get("ph").asString().getString());
+    assertEquals("started", instant.get("args").asObject().get("message").asString().getString());
+
+    JsonObject metadata = traceEvents.get(2).asObject();
+    assertEquals("M", metadata.get("ph").asString().getString());
+    assertEquals(Thread.currentThread().getName(),
+        metadata.get("args").asObject().get("name").asString().getString());
+  }
+}
@@ -72,6 +72,10 @@ public class LongLibJreTest extends TestCase {
     impl.testNegate();
   }
 
+  public void testSafeOperations() {
+    impl.testSafeOperations();
+  }
+
   public void testShift() {
     impl.testShift();
   }
@@ -341,6 +341,38 @@ public class LongLibTestBase extends TestCase {
     assertEquals(Const.MIN_VALUE, LongLib.neg(Const.MIN_VALUE));
   }
 
+  public void testSafeOperations() {
+    double[] values = {
+        0, 1, -1, 7, -7, 1000, -1000, 8193, -8193, 2147483648.0, -2147483649.0,
+        1420070400000.0, -1420070400000.0, 9007199254740991.0, -9007199254740991.0};
+    for (double a : values) {
+      LongEmul longA = LongLib.fromDouble(a);
+      for (double b : values) {
+        if (b == 0) {
+          continue;
+        }
+        LongEmul longB = LongLib.fromDouble(b);
+        assertEquals(LongLib.div(longA, longB), LongLib.fromDouble(LongLib.safeDiv(a, b)));
+        assertEquals(LongLib.mod(longA, longB), LongLib.fromDouble(LongLib.safeMod(a, b)));
+      }
+    }
+
+    try {
+      LongLib.safeDiv(1, 0);
+      fail("safeDiv by zero should throw");
+    } catch (ArithmeticException expected) {
+    }
+    try {
+      LongLib.safeMod(1, 0);
+      fail("safeMod by zero should throw");
+    } catch (ArithmeticException expected) {
+    }
+
+    assertEquals(LongLib.fromInt(2), LongLib.fromDouble(LongLib.safeFromDouble(2.9)));
+    assertEquals(LongLib.fromInt(-2), LongLib.fromDouble(LongLib.safeFromDouble(-2.9)));
+    assertEquals(LongLib.fromInt(0), LongLib.fromDouble(LongLib.safeFromDouble(Double.NaN)));
+  }
+
   public void testShift() {
     assertEquals(longFromBits(0xd048d115, 0x9d159c00), LongLib.shl(
         longFromBits(0x12341234, 0x45674567), 10));
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import java.util.Arrays;
+
+/**
+ * A growable vector of bits, stored 32 to an int. This is the pure Java
+ * implementation, backed by an int array; the client implementation is backed
+ * by an Int32Array.
+ */
+public class BitVector {
+
+  private static final int DEFAULT_CAPACITY = 64;
+
+  private static int wordIndex(int bitIndex) {
+    return bitIndex >>> 5;
+  }
+
+  private int[] words;
+
+  public BitVector() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a bit vector that can hold bits up to the given index without
+   * growing.
+   */
+  public BitVector(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Negative capacity: " + capacity);
+    }
+    words = new int[wordIndex(capacity + 31)];
+  }
+
+  /**
+   * Clears the bits that are not set in the other vector.
+   */
+  public void and(BitVector other) {
+    int common = Math.min(words.length, other.words.length);
+    for (int i = 0; i < common; i++) {
+      words[i] &= other.words[i];
+    }
+    Arrays.fill(words, common, words.length, 0);
+  }
+
+  /**
+   * Clears the bits that are set in the other vector.
+   */
+  public void andNot(BitVector other) {
+    int common = Math.min(words.length, other.words.length);
+    for (int i = 0; i < common; i++) {
+      words[i] &= ~other.words[i];
+    }
+  }
+
+  /**
+   * Returns the number of set bits.
+   */
+  public int cardinality() {
+    int count = 0;
+    for (int word : words) {
+      count += Integer.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Clears all bits.
+   */
+  public void clear() {
+    Arrays.fill(words, 0);
+  }
+
+  public void clear(int bitIndex) {
+    checkIndex(bitIndex);
+    int wordIndex = wordIndex(bitIndex);
+    if (wordIndex < words.length) {
+      words[wordIndex] &= ~(1 << bitIndex);
+    }
+  }
+
+  public void flip(int bitIndex) {
+    checkIndex(bitIndex);
+    ensureWords(wordIndex(bitIndex) + 1);
+    words[wordIndex(bitIndex)] ^= 1 << bitIndex;
+  }
+
+  public boolean get(int bitIndex) {
+    checkIndex(bitIndex);
+    int wordIndex = wordIndex(bitIndex);
+    return wordIndex < words.length && (words[wordIndex] & (1 << bitIndex)) != 0;
+  }
+
+  public boolean isEmpty() {
+    for (int word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index of the highest set bit plus one, or 0 if no bit is set.
+   */
+  public int length() {
+    for (int i = words.length - 1; i >= 0; i--) {
+      if (words[i] != 0) {
+        return i * 32 + 32 - Integer.numberOfLeadingZeros(words[i]);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the index of the first set bit at or after the given index, or -1
+   * if there is none.
+   */
+  public int nextSetBit(int fromIndex) {
+    checkIndex(fromIndex);
+    int wordIndex = wordIndex(fromIndex);
+    if (wordIndex >= words.length) {
+      return -1;
+    }
+    int word = words[wordIndex] & (-1 << fromIndex);
+    while (word == 0) {
+      if (++wordIndex == words.length) {
+        return -1;
+      }
+      word = words[wordIndex];
+    }
+    return wordIndex * 32 + Integer.numberOfTrailingZeros(word);
+  }
+
+  /**
+   * Sets the bits that are set in the other vector.
+   */
+  public void or(BitVector other) {
+    ensureWords(other.words.length);
+    for (int i = 0; i < other.words.length; i++) {
+      words[i] |= other.words[i];
+    }
+  }
+
+  public void set(int bitIndex) {
+    checkIndex(bitIndex);
+    ensureWords(wordIndex(bitIndex) + 1);
+    words[wordIndex(bitIndex)] |= 1 << bitIndex;
+  }
+
+  public void set(int bitIndex, boolean value) {
+    if (value) {
+      set(bitIndex);
+    } else {
+      clear(bitIndex);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = nextSetBit(0); i != -1; i = nextSetBit(i + 1)) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(i);
+    }
+    return sb.append('}').toString();
+  }
+
+  /**
+   * Flips the bits that are set in the other vector.
+   */
+  public void xor(BitVector other) {
+    ensureWords(other.words.length);
+    for (int i = 0; i < other.words.length; i++) {
+      words[i] ^= other.words[i];
+    }
+  }
+
+  private void checkIndex(int bitIndex) {
+    if (bitIndex < 0) {
+      throw new IndexOutOfBoundsException("Negative bit index: " + bitIndex);
+    }
+  }
+
+  private void ensureWords(int minLength) {
+    if (minLength > words.length) {
+      words = Arrays.copyOf(words, Math.max(minLength, words.length * 2));
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of doubles that stores its elements unboxed. This is the
+ * pure Java implementation, backed by a double array; the client
+ * implementation is backed by a Float64Array.
+ */
+public class DoubleArrayList {
+
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private double[] elements;
+
+  private int size;
+
+  public DoubleArrayList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public DoubleArrayList(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+    }
+    elements = new double[initialCapacity];
+  }
+
+  /**
+   * Appends a value to the end of the list.
+   */
+  public void add(double value) {
+    ensureCapacity(size + 1);
+    elements[size++] = value;
+  }
+
+  /**
+   * Inserts a value at the given position, shifting the following elements.
+   */
+  public void add(int index, double value) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    ensureCapacity(size + 1);
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = value;
+    size++;
+  }
+
+  /**
+   * Appends all of the given values to the end of the list.
+   */
+  public void addAll(double[] values) {
+    ensureCapacity(size + values.length);
+    System.arraycopy(values, 0, elements, size, values.length);
+    size += values.length;
+  }
+
+  /**
+   * Removes all elements. The capacity is kept.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  public boolean contains(double value) {
+    return indexOf(value) != -1;
+  }
+
+  /**
+   * Ensures that the list can hold at least the given number of elements
+   * without growing.
+   */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > elements.length) {
+      elements = Arrays.copyOf(elements, Math.max(minCapacity, elements.length * 2));
+    }
+  }
+
+  public double get(int index) {
+    checkIndex(index);
+    return elements[index];
+  }
+
+  /**
+   * Returns the index of the first occurrence of the value, or -1 if there is
+   * none. Values are compared with {@code ==}, so NaN is never found.
+   */
+  public int indexOf(double value) {
+    for (int i = 0; i < size; i++) {
+      if (elements[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes the element at the given position, shifting the following
+   * elements.
+   *
+   * @return the removed element
+   */
+  public double removeAt(int index) {
+    checkIndex(index);
+    double removed = elements[index];
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    size--;
+    return removed;
+  }
+
+  /**
+   * Replaces the element at the given position.
+   *
+   * @return the previous element
+   */
+  public double set(int index, double value) {
+    checkIndex(index);
+    double previous = elements[index];
+    elements[index] = value;
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Sorts the elements into ascending order.
+   */
+  public void sort() {
+    Arrays.sort(elements, 0, size);
+  }
+
+  /**
+   * Returns a copy of the elements.
+   */
+  public double[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(elements[i]);
+    }
+    return sb.append(']').toString();
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
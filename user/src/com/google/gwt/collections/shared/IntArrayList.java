@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of ints that stores its elements unboxed. This is the pure
+ * Java implementation, backed by an int array; the client implementation is
+ * backed by an Int32Array.
+ */
+public class IntArrayList {
+
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private int[] elements;
+
+  private int size;
+
+  public IntArrayList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public IntArrayList(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+    }
+    elements = new int[initialCapacity];
+  }
+
+  /**
+   * Appends a value to the end of the list.
+   */
+  public void add(int value) {
+    ensureCapacity(size + 1);
+    elements[size++] = value;
+  }
+
+  /**
+   * Inserts a value at the given position, shifting the following elements.
+   */
+  public void add(int index, int value) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    ensureCapacity(size + 1);
+    System.arraycopy(elements, index, elements, index + 1, size - index);
+    elements[index] = value;
+    size++;
+  }
+
+  /**
+   * Appends all of the given values to the end of the list.
+   */
+  public void addAll(int[] values) {
+    ensureCapacity(size + values.length);
+    System.arraycopy(values, 0, elements, size, values.length);
+    size += values.length;
+  }
+
+  /**
+   * Removes all elements. The capacity is kept.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  public boolean contains(int value) {
+    return indexOf(value) != -1;
+  }
+
+  /**
+   * Ensures that the list can hold at least the given number of elements
+   * without growing.
+   */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > elements.length) {
+      elements = Arrays.copyOf(elements, Math.max(minCapacity, elements.length * 2));
+    }
+  }
+
+  public int get(int index) {
+    checkIndex(index);
+    return elements[index];
+  }
+
+  /**
+   * Returns the index of the first occurrence of the value, or -1 if there is
+   * none.
+   */
+  public int indexOf(int value) {
+    for (int i = 0; i < size; i++) {
+      if (elements[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes the element at the given position, shifting the following
+   * elements.
+   *
+   * @return the removed element
+   */
+  public int removeAt(int index) {
+    checkIndex(index);
+    int removed = elements[index];
+    System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+    size--;
+    return removed;
+  }
+
+  /**
+   * Replaces the element at the given position.
+   *
+   * @return the previous element
+   */
+  public int set(int index, int value) {
+    checkIndex(index);
+    int previous = elements[index];
+    elements[index] = value;
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Sorts the elements into ascending order.
+   */
+  public void sort() {
+    Arrays.sort(elements, 0, size);
+  }
+
+  /**
+   * Returns a copy of the elements.
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(elements[i]);
+    }
+    return sb.append(']').toString();
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
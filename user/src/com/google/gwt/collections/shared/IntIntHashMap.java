@@ -0,0 +1,295 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from int keys to int values that stores both unboxed. This is the
+ * pure Java implementation, backed by int arrays; the client implementation is
+ * backed by Int32Arrays.
+ * <p>
+ * The map uses open addressing with linear probing. Empty slots are marked
+ * with the key 0, so a mapping for the key 0 is kept outside of the table.
+ * Methods that look up a value return 0 for missing keys unless a default
+ * value is given.
+ */
+public class IntIntHashMap {
+
+  private static final int MIN_CAPACITY = 8;
+
+  /**
+   * Spreads the bits of a key over the low bits used to index the table. This
+   * is Thomas Wang's 32 bit integer hash; it only uses shifts, additions and a
+   * small multiplication, which have the same results in JavaScript.
+   */
+  static int hash(int key) {
+    key = ~key + (key << 15);
+    key = key ^ (key >>> 12);
+    key = key + (key << 2);
+    key = key ^ (key >>> 4);
+    key = key * 2057;
+    return key ^ (key >>> 16);
+  }
+
+  private static int tableCapacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private boolean hasZeroKey;
+
+  private int[] keys;
+
+  private int mask;
+
+  private int size;
+
+  private int[] values;
+
+  private int zeroValue;
+
+  public IntIntHashMap() {
+    this(0);
+  }
+
+  /**
+   * Creates a map that can hold the given number of mappings without growing.
+   */
+  public IntIntHashMap(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Negative size: " + expectedSize);
+    }
+    allocate(tableCapacityFor(expectedSize));
+  }
+
+  /**
+   * Adds the delta to the value of the key, treating a missing key as 0.
+   *
+   * @return the new value
+   */
+  public int addTo(int key, int delta) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue += delta;
+      return zeroValue;
+    }
+    int slot = findSlot(key);
+    if (keys[slot] == key) {
+      values[slot] += delta;
+      return values[slot];
+    }
+    insert(slot, key, delta);
+    return delta;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(values, 0);
+    hasZeroKey = false;
+    zeroValue = 0;
+    size = 0;
+  }
+
+  public boolean containsKey(int key) {
+    if (key == 0) {
+      return hasZeroKey;
+    }
+    return keys[findSlot(key)] == key;
+  }
+
+  /**
+   * Returns the value of the key, or 0 if it is not in the map.
+   */
+  public int get(int key) {
+    return get(key, 0);
+  }
+
+  /**
+   * Returns the value of the key, or the default value if it is not in the
+   * map.
+   */
+  public int get(int key, int defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = findSlot(key);
+    return keys[slot] == key ? values[slot] : defaultValue;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the keys of the map, in the same order as {@link #values()}.
+   */
+  public int[] keys() {
+    int[] result = new int[size];
+    int i = 0;
+    if (hasZeroKey) {
+      result[i++] = 0;
+    }
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != 0) {
+        result[i++] = keys[slot];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Maps the key to the value.
+   *
+   * @return the previous value of the key, or 0 if it was not in the map
+   */
+  public int put(int key, int value) {
+    if (key == 0) {
+      int previous = zeroValue;
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue = value;
+      return previous;
+    }
+    int slot = findSlot(key);
+    if (keys[slot] == key) {
+      int previous = values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    insert(slot, key, value);
+    return 0;
+  }
+
+  /**
+   * Removes the mapping of the key.
+   *
+   * @return whether the key was in the map
+   */
+  public boolean remove(int key) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        return false;
+      }
+      hasZeroKey = false;
+      zeroValue = 0;
+      size--;
+      return true;
+    }
+    int gap = findSlot(key);
+    if (keys[gap] != key) {
+      return false;
+    }
+    // Shift back the following entries of the probe sequence that would no
+    // longer be reachable, instead of leaving a tombstone.
+    for (int slot = (gap + 1) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+      int home = hash(keys[slot]) & mask;
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        keys[gap] = keys[slot];
+        values[gap] = values[slot];
+        gap = slot;
+      }
+    }
+    keys[gap] = 0;
+    values[gap] = 0;
+    size--;
+    return true;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    int[] keys = keys();
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < keys.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(keys[i]).append('=').append(get(keys[i]));
+    }
+    return sb.append('}').toString();
+  }
+
+  /**
+   * Returns the values of the map, in the same order as {@link #keys()}.
+   */
+  public int[] values() {
+    int[] result = new int[size];
+    int i = 0;
+    if (hasZeroKey) {
+      result[i++] = zeroValue;
+    }
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != 0) {
+        result[i++] = values[slot];
+      }
+    }
+    return result;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Returns the slot holding the key, or the empty slot where it would be
+   * inserted.
+   */
+  private int findSlot(int key) {
+    int slot = hash(key) & mask;
+    while (keys[slot] != 0 && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void insert(int slot, int key, int value) {
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    int tableSize = hasZeroKey ? size - 1 : size;
+    if (tableSize * 2 > keys.length) {
+      rehash(keys.length * 2);
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      int key = oldKeys[i];
+      if (key != 0) {
+        int slot = findSlot(key);
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * A growable vector of bits, stored 32 to an int. This is the client
+ * implementation, backed by an Int32Array. It requires
+ * {@link TypedArrays#isSupported() typed array support}.
+ */
+public class BitVector {
+
+  private static final int DEFAULT_CAPACITY = 64;
+
+  private static int wordIndex(int bitIndex) {
+    return bitIndex >>> 5;
+  }
+
+  private Int32Array words;
+
+  public BitVector() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public BitVector(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Negative capacity: " + capacity);
+    }
+    words = TypedArrays.createInt32Array(wordIndex(capacity + 31));
+  }
+
+  public void and(BitVector other) {
+    int length = words.length();
+    int common = Math.min(length, other.words.length());
+    for (int i = 0; i < common; i++) {
+      words.set(i, words.get(i) & other.words.get(i));
+    }
+    for (int i = common; i < length; i++) {
+      words.set(i, 0);
+    }
+  }
+
+  public void andNot(BitVector other) {
+    int common = Math.min(words.length(), other.words.length());
+    for (int i = 0; i < common; i++) {
+      words.set(i, words.get(i) & ~other.words.get(i));
+    }
+  }
+
+  public int cardinality() {
+    int count = 0;
+    for (int i = 0, length = words.length(); i < length; i++) {
+      count += Integer.bitCount(words.get(i));
+    }
+    return count;
+  }
+
+  public void clear() {
+    words = TypedArrays.createInt32Array(words.length());
+  }
+
+  public void clear(int bitIndex) {
+    checkIndex(bitIndex);
+    int wordIndex = wordIndex(bitIndex);
+    if (wordIndex < words.length()) {
+      words.set(wordIndex, words.get(wordIndex) & ~(1 << bitIndex));
+    }
+  }
+
+  public void flip(int bitIndex) {
+    checkIndex(bitIndex);
+    int wordIndex = wordIndex(bitIndex);
+    ensureWords(wordIndex + 1);
+    words.set(wordIndex, words.get(wordIndex) ^ (1 << bitIndex));
+  }
+
+  public boolean get(int bitIndex) {
+    checkIndex(bitIndex);
+    int wordIndex = wordIndex(bitIndex);
+    return wordIndex < words.length() && (words.get(wordIndex) & (1 << bitIndex)) != 0;
+  }
+
+  public boolean isEmpty() {
+    for (int i = 0, length = words.length(); i < length; i++) {
+      if (words.get(i) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int length() {
+    for (int i = words.length() - 1; i >= 0; i--) {
+      int word = words.get(i);
+      if (word != 0) {
+        return i * 32 + 32 - Integer.numberOfLeadingZeros(word);
+      }
+    }
+    return 0;
+  }
+
+  public int nextSetBit(int fromIndex) {
+    checkIndex(fromIndex);
+    int wordIndex = wordIndex(fromIndex);
+    int length = words.length();
+    if (wordIndex >= length) {
+      return -1;
+    }
+    int word = words.get(wordIndex) & (-1 << fromIndex);
+    while (word == 0) {
+      if (++wordIndex == length) {
+        return -1;
+      }
+      word = words.get(wordIndex);
+    }
+    return wordIndex * 32 + Integer.numberOfTrailingZeros(word);
+  }
+
+  public void or(BitVector other) {
+    int otherLength = other.words.length();
+    ensureWords(otherLength);
+    for (int i = 0; i < otherLength; i++) {
+      words.set(i, words.get(i) | other.words.get(i));
+    }
+  }
+
+  public void set(int bitIndex) {
+    checkIndex(bitIndex);
+    int wordIndex = wordIndex(bitIndex);
+    ensureWords(wordIndex + 1);
+    words.set(wordIndex, words.get(wordIndex) | (1 << bitIndex));
+  }
+
+  public void set(int bitIndex, boolean value) {
+    if (value) {
+      set(bitIndex);
+    } else {
+      clear(bitIndex);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = nextSetBit(0); i != -1; i = nextSetBit(i + 1)) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(i);
+    }
+    return sb.append('}').toString();
+  }
+
+  public void xor(BitVector other) {
+    int otherLength = other.words.length();
+    ensureWords(otherLength);
+    for (int i = 0; i < otherLength; i++) {
+      words.set(i, words.get(i) ^ other.words.get(i));
+    }
+  }
+
+  private void checkIndex(int bitIndex) {
+    if (bitIndex < 0) {
+      throw new IndexOutOfBoundsException("Negative bit index: " + bitIndex);
+    }
+  }
+
+  private void ensureWords(int minLength) {
+    int length = words.length();
+    if (minLength > length) {
+      Int32Array newWords = TypedArrays.createInt32Array(Math.max(minLength, length * 2));
+      newWords.set(words);
+      words = newWords;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * A growable list of ints that stores its elements unboxed. This is the client
+ * implementation, backed by an Int32Array. It requires
+ * {@link TypedArrays#isSupported() typed array support}.
+ */
+public class IntArrayList {
+
+  private static final int DEFAULT_CAPACITY = 10;
+
+  private static native void sort(Int32Array array) /*-{
+    if (array.sort) {
+      array.sort();
+    } else {
+      Array.prototype.sort.call(array, function(a, b) { return a - b; });
+    }
+  }-*/;
+
+  private Int32Array elements;
+
+  private int size;
+
+  public IntArrayList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public IntArrayList(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+    }
+    elements = TypedArrays.createInt32Array(initialCapacity);
+  }
+
+  public void add(int value) {
+    ensureCapacity(size + 1);
+    elements.set(size++, value);
+  }
+
+  public void add(int index, int value) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    ensureCapacity(size + 1);
+    elements.set(elements.subarray(index, size), index + 1);
+    elements.set(index, value);
+    size++;
+  }
+
+  public void addAll(int[] values) {
+    ensureCapacity(size + values.length);
+    elements.set(values, size);
+    size += values.length;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  public boolean contains(int value) {
+    return indexOf(value) != -1;
+  }
+
+  public void ensureCapacity(int minCapacity) {
+    int capacity = elements.length();
+    if (minCapacity > capacity) {
+      Int32Array newElements =
+          TypedArrays.createInt32Array(Math.max(minCapacity, capacity * 2));
+      newElements.set(elements);
+      elements = newElements;
+    }
+  }
+
+  public int get(int index) {
+    checkIndex(index);
+    return elements.get(index);
+  }
+
+  public int indexOf(int value) {
+    for (int i = 0; i < size; i++) {
+      if (elements.get(i) == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int removeAt(int index) {
+    checkIndex(index);
+    int removed = elements.get(index);
+    elements.set(elements.subarray(index + 1, size), index);
+    size--;
+    return removed;
+  }
+
+  public int set(int index, int value) {
+    checkIndex(index);
+    int previous = elements.get(index);
+    elements.set(index, value);
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public void sort() {
+    sort(elements.subarray(0, size));
+  }
+
+  public int[] toArray() {
+    int[] result = new int[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = elements.get(i);
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(elements.get(i));
+    }
+    return sb.append(']').toString();
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
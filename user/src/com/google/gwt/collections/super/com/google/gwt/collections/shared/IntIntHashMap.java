@@ -0,0 +1,251 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import com.google.gwt.typedarrays.shared.Int32Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * A hash map from int keys to int values that stores both unboxed. This is the
+ * client implementation, backed by Int32Arrays. It requires
+ * {@link TypedArrays#isSupported() typed array support}.
+ */
+public class IntIntHashMap {
+
+  private static final int MIN_CAPACITY = 8;
+
+  static int hash(int key) {
+    key = ~key + (key << 15);
+    key = key ^ (key >>> 12);
+    key = key + (key << 2);
+    key = key ^ (key >>> 4);
+    key = key * 2057;
+    return key ^ (key >>> 16);
+  }
+
+  private static int tableCapacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private boolean hasZeroKey;
+
+  private Int32Array keys;
+
+  private int mask;
+
+  private int size;
+
+  private Int32Array values;
+
+  private int zeroValue;
+
+  public IntIntHashMap() {
+    this(0);
+  }
+
+  public IntIntHashMap(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Negative size: " + expectedSize);
+    }
+    allocate(tableCapacityFor(expectedSize));
+  }
+
+  public int addTo(int key, int delta) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue += delta;
+      return zeroValue;
+    }
+    int slot = findSlot(key);
+    if (keys.get(slot) == key) {
+      // The typed array wraps the sum around like int arithmetic does.
+      values.set(slot, values.get(slot) + delta);
+      return values.get(slot);
+    }
+    insert(slot, key, delta);
+    return delta;
+  }
+
+  public void clear() {
+    allocate(keys.length());
+    hasZeroKey = false;
+    zeroValue = 0;
+    size = 0;
+  }
+
+  public boolean containsKey(int key) {
+    if (key == 0) {
+      return hasZeroKey;
+    }
+    return keys.get(findSlot(key)) == key;
+  }
+
+  public int get(int key) {
+    return get(key, 0);
+  }
+
+  public int get(int key, int defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int slot = findSlot(key);
+    return keys.get(slot) == key ? values.get(slot) : defaultValue;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int[] keys() {
+    int[] result = new int[size];
+    int i = 0;
+    if (hasZeroKey) {
+      result[i++] = 0;
+    }
+    for (int slot = 0, capacity = keys.length(); slot < capacity; slot++) {
+      int key = keys.get(slot);
+      if (key != 0) {
+        result[i++] = key;
+      }
+    }
+    return result;
+  }
+
+  public int put(int key, int value) {
+    if (key == 0) {
+      int previous = zeroValue;
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroValue = value;
+      return previous;
+    }
+    int slot = findSlot(key);
+    if (keys.get(slot) == key) {
+      int previous = values.get(slot);
+      values.set(slot, value);
+      return previous;
+    }
+    insert(slot, key, value);
+    return 0;
+  }
+
+  public boolean remove(int key) {
+    if (key == 0) {
+      if (!hasZeroKey) {
+        return false;
+      }
+      hasZeroKey = false;
+      zeroValue = 0;
+      size--;
+      return true;
+    }
+    int gap = findSlot(key);
+    if (keys.get(gap) != key) {
+      return false;
+    }
+    for (int slot = (gap + 1) & mask; keys.get(slot) != 0; slot = (slot + 1) & mask) {
+      int home = hash(keys.get(slot)) & mask;
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        keys.set(gap, keys.get(slot));
+        values.set(gap, values.get(slot));
+        gap = slot;
+      }
+    }
+    keys.set(gap, 0);
+    values.set(gap, 0);
+    size--;
+    return true;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    int[] keys = keys();
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < keys.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(keys[i]).append('=').append(get(keys[i]));
+    }
+    return sb.append('}').toString();
+  }
+
+  public int[] values() {
+    int[] result = new int[size];
+    int i = 0;
+    if (hasZeroKey) {
+      result[i++] = zeroValue;
+    }
+    for (int slot = 0, capacity = keys.length(); slot < capacity; slot++) {
+      if (keys.get(slot) != 0) {
+        result[i++] = values.get(slot);
+      }
+    }
+    return result;
+  }
+
+  private void allocate(int capacity) {
+    keys = TypedArrays.createInt32Array(capacity);
+    values = TypedArrays.createInt32Array(capacity);
+    mask = capacity - 1;
+  }
+
+  private int findSlot(int key) {
+    int slot = hash(key) & mask;
+    int slotKey;
+    while ((slotKey = keys.get(slot)) != 0 && slotKey != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void insert(int slot, int key, int value) {
+    keys.set(slot, key);
+    values.set(slot, value);
+    size++;
+    int tableSize = hasZeroKey ? size - 1 : size;
+    if (tableSize * 2 > keys.length()) {
+      rehash(keys.length() * 2);
+    }
+  }
+
+  private void rehash(int capacity) {
+    Int32Array oldKeys = keys;
+    Int32Array oldValues = values;
+    allocate(capacity);
+    for (int i = 0, oldCapacity = oldKeys.length(); i < oldCapacity; i++) {
+      int key = oldKeys.get(i);
+      if (key != 0) {
+        int slot = findSlot(key);
+        keys.set(slot, key);
+        values.set(slot, oldValues.get(i));
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link SymbolCache} that holds the symbols of a bounded number of permutations. When a symbol
+ * is added for a permutation that isn't cached and the cache is full, all symbols of the least
+ * recently used permutation are dropped.
+ * <p>
+ * Optionally, the number of symbols kept per permutation can be bounded as well. Once a
+ * permutation reaches that limit, its symbols are dropped and the cache starts over for it, which
+ * is cheap since most stack traces only touch a few hot symbols.
+ * <p>
+ * This cache is meant to be used with {@link StackTraceDeobfuscator#setLazyLoad(boolean) lazy
+ * loading}, which only adds the symbols that were asked for.
+ */
+public class LruSymbolCache implements SymbolCache {
+
+  private final int maxStrongNames;
+  private final int maxSymbolsPerStrongName;
+  private final LinkedHashMap<String, HashMap<String, String>> symbolMaps;
+
+  /**
+   * Creates a cache holding the symbols of at most {@code maxStrongNames} permutations.
+   */
+  public LruSymbolCache(int maxStrongNames) {
+    this(maxStrongNames, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a cache holding at most {@code maxSymbolsPerStrongName} symbols for each of at most
+   * {@code maxStrongNames} permutations.
+   */
+  public LruSymbolCache(final int maxStrongNames, int maxSymbolsPerStrongName) {
+    if (maxStrongNames < 1) {
+      throw new IllegalArgumentException("maxStrongNames must be positive: " + maxStrongNames);
+    }
+    if (maxSymbolsPerStrongName < 1) {
+      throw new IllegalArgumentException(
+          "maxSymbolsPerStrongName must be positive: " + maxSymbolsPerStrongName);
+    }
+    this.maxStrongNames = maxStrongNames;
+    this.maxSymbolsPerStrongName = maxSymbolsPerStrongName;
+    symbolMaps = new LinkedHashMap<String, HashMap<String, String>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, HashMap<String, String>> eldest) {
+        return size() > maxStrongNames;
+      }
+    };
+  }
+
+  @Override
+  public synchronized Map<String, String> getAll(String strongName, Set<String> symbols) {
+    Map<String, String> toReturn = new HashMap<String, String>();
+    if (strongName == null || symbols.isEmpty()) {
+      return toReturn;
+    }
+    HashMap<String, String> existingMap = symbolMaps.get(strongName);
+    if (existingMap == null) {
+      return toReturn;
+    }
+    for (String symbol : symbols) {
+      String data = existingMap.get(symbol);
+      if (data != null) {
+        toReturn.put(symbol, data);
+      }
+    }
+    return toReturn;
+  }
+
+  /**
+   * Returns the maximum number of permutations whose symbols are cached.
+   */
+  public int getMaxStrongNames() {
+    return maxStrongNames;
+  }
+
+  @Override
+  public synchronized void putAll(String strongName, Map<String, String> symbolMap) {
+    if (strongName == null || symbolMap.size() == 0) {
+      return;
+    }
+    HashMap<String, String> existingMap = symbolMaps.get(strongName);
+    if (existingMap == null) {
+      existingMap = new HashMap<String, String>();
+      symbolMaps.put(strongName, existingMap);
+    }
+    if (existingMap.size() + symbolMap.size() > maxSymbolsPerStrongName) {
+      existingMap.clear();
+    }
+    for (Map.Entry<String, String> entry : symbolMap.entrySet()) {
+      if (existingMap.size() >= maxSymbolsPerStrongName) {
+        break;
+      }
+      existingMap.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Returns the number of permutations that currently have cached symbols.
+   */
+  public synchronized int size() {
+    return symbolMaps.size();
+  }
+}
@@ -26,12 +26,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -75,6 +79,13 @@ public abstract class StackTraceDeobfuscator {
       protected InputStream openInputStream(String fileName) throws IOException {
         return new FileInputStream(new File(symbolMapsDirectory, fileName));
       }
+
+      @Override
+      protected SymbolMapIndex openSymbolMapIndex(String permutationStrongName)
+          throws IOException {
+        return SymbolMapIndex.map(
+            new File(symbolMapsDirectory, permutationStrongName + SymbolMapIndex.FILE_SUFFIX));
+      }
     };
   }
 
@@ -90,26 +101,18 @@ public abstract class StackTraceDeobfuscator {
   }
 
   /**
-   * A cache that maps obfuscated symbols to arbitrary non-null string values. The cache can assume
-   * each (strongName, symbol) pair always maps to the same value (never goes invalid), but must
-   * treat data as an opaque string.
+   * The default {@link SymbolCache}, which never drops entries.
    */
-  private static class SymbolCache {
-    // TODO(srogoff): This SymbolCache implementation never drops old entries. If clients ever need
-    // to cap memory usage even with lazy loading, consider making SymbolCache an interface.
-    // This could allow clients to pass their own implementation to the StackTraceDeobfuscator
-    // constructor, backed by a Guava Cache or other entry-evicting mapping.
+  private static class UnboundedSymbolCache implements SymbolCache {
 
     private final ConcurrentHashMap<String, HashMap<String, String>> symbolMaps;
 
-    SymbolCache() {
+    UnboundedSymbolCache() {
       symbolMaps = new ConcurrentHashMap<String, HashMap<String, String>>();
     }
 
-    /**
-     * Adds some symbol data to the cache for the given strong name.
-     */
-    void putAll(String strongName, Map<String, String> symbolMap) {
+    @Override
+    public void putAll(String strongName, Map<String, String> symbolMap) {
       if (strongName == null || symbolMap.size() == 0) {
         return;
       }
@@ -120,12 +123,8 @@ public abstract class StackTraceDeobfuscator {
       }
     }
 
-    /**
-     * Returns the data for each of the specified symbols that's currently cached for the given
-     * strong name. There will be no entry for symbols that are not in the cache. If none of the
-     * symbols are cached, an empty Map is returned.
-     */
-    Map<String, String> getAll(String strongName, Set<String> symbols) {
+    @Override
+    public Map<String, String> getAll(String strongName, Set<String> symbols) {
       Map<String, String> toReturn = new HashMap<String, String>();
       if (strongName == null || !symbolMaps.containsKey(strongName) || symbols.isEmpty()) {
         return toReturn;
@@ -142,15 +141,60 @@ public abstract class StackTraceDeobfuscator {
     }
   }
 
+  /**
+   * The default maximum number of permutations whose symbol map indexes, or their absence, are
+   * remembered.
+   */
+  private static final int DEFAULT_MAX_SYMBOL_MAP_INDEXES = 100;
+
   private static final Pattern JsniRefPattern = Pattern.compile("@?([^:]+)::([^(]+)(\\((.*)\\))?");
   private static final Pattern fragmentIdPattern = Pattern.compile(".*(\\d+)\\.js");
   private static final int LINE_NUMBER_UNKNOWN = -1;
   private static final String SYMBOL_DATA_UNKNOWN = "";
 
-  private final Map<String, SourceMapping> sourceMaps = new HashMap<String, SourceMapping>();
-  private final SymbolCache symbolCache = new SymbolCache();
+  private final Map<String, SourceMapping> sourceMaps =
+      new ConcurrentHashMap<String, SourceMapping>();
+  private volatile SymbolCache symbolCache = new UnboundedSymbolCache();
+  private volatile int maxSymbolMapIndexes = DEFAULT_MAX_SYMBOL_MAP_INDEXES;
+  private final Map<String, SymbolMapIndex> symbolIndexes =
+      Collections.synchronizedMap(this.<SymbolMapIndex>createLruMap());
+  /**
+   * When each strong name without a usable index was last probed, per {@link System#nanoTime()}.
+   */
+  private final Map<String, Long> missingIndexProbeTimes =
+      Collections.synchronizedMap(this.<Long>createLruMap());
+  private volatile long missingIndexRetryNanos = TimeUnit.MINUTES.toNanos(1);
   private boolean lazyLoad = false;
 
+  /**
+   * Sets how long a missing or unreadable symbol map index is remembered before it is looked for
+   * again, for example after the application was redeployed. Defaults to one minute; with 0 the
+   * index is looked for on every lookup of symbols that aren't cached.
+   */
+  public void setMissingIndexRetryMillis(long millis) {
+    this.missingIndexRetryNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  /**
+   * Sets the maximum number of permutations whose symbol map indexes are kept open, and the maximum
+   * number of permutations remembered as having no index. The least recently used entries are
+   * dropped beyond that. Defaults to {@value #DEFAULT_MAX_SYMBOL_MAP_INDEXES}; setting an
+   * {@link LruSymbolCache} applies its limit here as well.
+   */
+  public void setMaxSymbolMapIndexes(int maxSymbolMapIndexes) {
+    if (maxSymbolMapIndexes < 1) {
+      throw new IllegalArgumentException(
+          "maxSymbolMapIndexes must be positive: " + maxSymbolMapIndexes);
+    }
+    this.maxSymbolMapIndexes = maxSymbolMapIndexes;
+    synchronized (symbolIndexes) {
+      trimToSize(symbolIndexes);
+    }
+    synchronized (missingIndexProbeTimes) {
+      trimToSize(missingIndexProbeTimes);
+    }
+  }
+
   /**
    * If set to {@code true}, only symbols requested to be deobfuscated are cached and the rest is
    * discarded. This provides a large memory savings at the expense of occasional extra disk reads.
@@ -160,6 +204,21 @@ public abstract class StackTraceDeobfuscator {
     this.lazyLoad = lazyLoad;
   }
 
+  /**
+   * Replaces the cache that holds the symbols loaded so far. By default, symbols are never dropped;
+   * use an {@link LruSymbolCache} together with {@link #setLazyLoad lazy loading} to cap memory
+   * usage when deobfuscating traces from many permutations.
+   */
+  public void setSymbolCache(SymbolCache symbolCache) {
+    if (symbolCache == null) {
+      throw new NullPointerException("symbolCache");
+    }
+    this.symbolCache = symbolCache;
+    if (symbolCache instanceof LruSymbolCache) {
+      setMaxSymbolMapIndexes(((LruSymbolCache) symbolCache).getMaxStrongNames());
+    }
+  }
+
   /**
    * Replaces the stack traces in the given Throwable and its causes with deobfuscated stack traces
    * wherever possible.
@@ -174,6 +233,32 @@ public abstract class StackTraceDeobfuscator {
     }
   }
 
+  /**
+   * Replaces the stack traces in each of the given Throwables and their causes with deobfuscated
+   * stack traces wherever possible. All throwables must come from the same permutation. The
+   * symbols of all the stack traces are looked up together, so the symbol map is read at most
+   * once for the whole batch rather than once per throwable.
+   *
+   * @param throwables the Throwables that need their stack traces to be deobfuscated
+   * @param strongName the GWT permutation strong name
+   */
+  public final void deobfuscateStackTraces(Iterable<? extends Throwable> throwables,
+      String strongName) {
+    Set<String> requiredSymbols = new HashSet<String>();
+    for (Throwable throwable : throwables) {
+      for (Throwable t = throwable; t != null; t = t.getCause()) {
+        for (StackTraceElement ste : t.getStackTrace()) {
+          requiredSymbols.add(ste.getMethodName());
+        }
+      }
+    }
+    loadSymbolMap(strongName, requiredSymbols);
+
+    for (Throwable throwable : throwables) {
+      deobfuscateStackTrace(throwable, strongName);
+    }
+  }
+
   /**
    * Convenience method which resymbolizes an entire stack trace to extent possible.
    *
@@ -338,6 +423,21 @@ public abstract class StackTraceDeobfuscator {
     return openInputStream(permutationStrongName + ".symbolMap");
   }
 
+  /**
+   * Opens the binary symbol map index for the given permutation strong name. This implementation,
+   * which subclasses may override, reads the <code><i>permutation-strong-name</i>.symbolIndex</code>
+   * file into memory; {@link #fromFileSystem} memory-maps it instead. The index is only written by
+   * the compiler if the <code>compiler.symbolMapIndex</code> configuration property is set.
+   *
+   * @param permutationStrongName the GWT permutation strong name
+   * @return the index
+   * @exception IOException if there is no index or it can't be read, in which case the text symbol
+   *              map is used
+   */
+  protected SymbolMapIndex openSymbolMapIndex(String permutationStrongName) throws IOException {
+    return SymbolMapIndex.read(openInputStream(permutationStrongName + SymbolMapIndex.FILE_SUFFIX));
+  }
+
   /**
    * Opens a new {@link InputStream} for a symbol or source map file.
    *
@@ -372,6 +472,31 @@ public abstract class StackTraceDeobfuscator {
     return symbolMap.get(symbol);
   }
 
+  /**
+   * Creates an access-ordered map that drops its least recently used entries beyond
+   * {@link #maxSymbolMapIndexes}.
+   */
+  private <V> Map<String, V> createLruMap() {
+    return new LinkedHashMap<String, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > maxSymbolMapIndexes;
+      }
+    };
+  }
+
+  /**
+   * Drops the least recently used entries of a map made by {@link #createLruMap()} until it fits
+   * {@link #maxSymbolMapIndexes}. The caller must hold the map's lock.
+   */
+  private void trimToSize(Map<String, ?> lruMap) {
+    Iterator<String> it = lruMap.keySet().iterator();
+    while (lruMap.size() > maxSymbolMapIndexes) {
+      it.next();
+      it.remove();
+    }
+  }
+
   /**
    * Returns a symbol map for the given strong name containing symbol data for
    * all of the given required symbols. First checks the symbol cache, then
@@ -385,6 +510,23 @@ public abstract class StackTraceDeobfuscator {
       return toReturn;
     }
 
+    SymbolMapIndex index = getSymbolMapIndex(strongName);
+    if (index != null) {
+      try {
+        toReturn = new HashMap<String, String>();
+        for (String symbol : requiredSymbols) {
+          String symbolData = index.get(symbol);
+          toReturn.put(symbol, symbolData == null ? SYMBOL_DATA_UNKNOWN : symbolData);
+        }
+        symbolCache.putAll(strongName, toReturn);
+        return toReturn;
+      } catch (IOException e) {
+        // The index is corrupt; stop using it and fall back to the text symbol map.
+        symbolIndexes.remove(strongName);
+        missingIndexProbeTimes.put(strongName, System.nanoTime());
+      }
+    }
+
     Set<String> symbolsLeftToFind = new HashSet<String>(requiredSymbols);
     toReturn = new HashMap<String, String>();
     String line;
@@ -422,6 +564,36 @@ public abstract class StackTraceDeobfuscator {
     return toReturn;
   }
 
+  /**
+   * Returns the symbol map index for the given strong name, or null if there is none. An opened
+   * index is kept; a missing one is only looked for again once the retry interval has passed.
+   */
+  private SymbolMapIndex getSymbolMapIndex(String strongName) {
+    if (strongName == null) {
+      return null;
+    }
+    SymbolMapIndex index = symbolIndexes.get(strongName);
+    if (index != null) {
+      return index;
+    }
+    Long probeTime = missingIndexProbeTimes.get(strongName);
+    if (probeTime != null && System.nanoTime() - probeTime < missingIndexRetryNanos) {
+      return null;
+    }
+    try {
+      index = openSymbolMapIndex(strongName);
+    } catch (IOException e) {
+      // Fall back to the text symbol map.
+    }
+    if (index == null) {
+      missingIndexProbeTimes.put(strongName, System.nanoTime());
+    } else {
+      missingIndexProbeTimes.remove(strongName);
+      symbolIndexes.put(strongName, index);
+    }
+    return index;
+  }
+
   /**
    * Extracts the declaring class and method name from a JSNI ref, or null if the information cannot
    * be extracted.
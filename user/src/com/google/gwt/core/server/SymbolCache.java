@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A cache used by {@link StackTraceDeobfuscator} that maps obfuscated symbols to arbitrary non-null
+ * string values. The cache can assume each (strongName, symbol) pair always maps to the same value
+ * (never goes invalid), but must treat data as an opaque string. Implementations may drop entries
+ * at any time and must be thread-safe.
+ *
+ * @see LruSymbolCache
+ */
+public interface SymbolCache {
+
+  /**
+   * Returns the data for each of the specified symbols that's currently cached for the given
+   * strong name. There will be no entry for symbols that are not in the cache. If none of the
+   * symbols are cached, an empty Map is returned.
+   */
+  Map<String, String> getAll(String strongName, Set<String> symbols);
+
+  /**
+   * Adds some symbol data to the cache for the given strong name.
+   */
+  void putAll(String strongName, Map<String, String> symbolMap);
+}
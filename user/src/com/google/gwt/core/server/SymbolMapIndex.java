@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.core.linker.SymbolMapsLinker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A read-only view of a <code><i>permutation-strong-name</i>.symbolIndex</code> file, the binary
+ * form of a symbol map written by {@code com.google.gwt.core.linker.SymbolMapsLinker} when the
+ * <code>compiler.symbolMapIndex</code> configuration property is {@code true}.
+ * <p>
+ * Symbols are sorted, so a lookup is a binary search over the file rather than a scan of the text
+ * symbol map, and nothing but the requested entry is decoded. A file opened with
+ * {@link #map(File)} is memory-mapped and doesn't occupy the heap.
+ * <p>
+ * The format, with all integers big-endian:
+ *
+ * <pre>
+ * int magic ({@value #MAGIC})
+ * int version ({@value #VERSION})
+ * int count
+ * int[count] offsets of the entries, in order of their symbols
+ * entries: int symbolLength, UTF-8 symbol, int dataLength, UTF-8 data
+ * </pre>
+ *
+ * The data of an entry is what follows the symbol in the text symbol map. Offsets and lengths are
+ * checked against the size of the file as they are read, so a truncated or corrupt index makes a
+ * lookup fail with an {@link IOException} rather than return garbage.
+ */
+public final class SymbolMapIndex {
+
+  /**
+   * The suffix appended to the permutation strong name to form the index file name.
+   */
+  public static final String FILE_SUFFIX = SymbolMapsLinker.INDEX_STRONG_NAME_SUFFIX;
+
+  /*
+   * The format constants are defined by the linker that writes the index. They are compile-time
+   * constants, so the servlet jar doesn't need the linker at runtime.
+   */
+  static final int MAGIC = SymbolMapsLinker.INDEX_MAGIC;
+
+  static final int VERSION = SymbolMapsLinker.INDEX_VERSION;
+
+  private static final int HEADER_SIZE = 12;
+
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  /**
+   * Memory-maps an index file.
+   */
+  public static SymbolMapIndex map(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      // The mapping stays valid after the channel is closed.
+      return new SymbolMapIndex(
+          raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Reads an index into the heap and closes the stream.
+   */
+  public static SymbolMapIndex read(InputStream in) throws IOException {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buf = new byte[8192];
+      int n;
+      while ((n = in.read(buf)) != -1) {
+        out.write(buf, 0, n);
+      }
+      return new SymbolMapIndex(ByteBuffer.wrap(out.toByteArray()));
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Only read with absolute gets, so lookups are thread-safe.
+   */
+  private final ByteBuffer buffer;
+  private final int count;
+
+  private SymbolMapIndex(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a symbol map index");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported symbol map index version " + buffer.getInt(4));
+    }
+    count = buffer.getInt(8);
+    if (count < 0 || HEADER_SIZE + 4L * count > buffer.limit()) {
+      throw new IOException("Corrupt symbol map index");
+    }
+  }
+
+  /**
+   * Returns the data for a symbol, or {@code null} if the symbol isn't in the index.
+   *
+   * @throws IOException if the entries read by the lookup are corrupt
+   */
+  public String get(String symbol) throws IOException {
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int offset = buffer.getInt(HEADER_SIZE + 4 * mid);
+      int cmp = readString(offset).compareTo(symbol);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return readString(offset + 4L + readInt(offset));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of symbols in the index.
+   */
+  public int size() {
+    return count;
+  }
+
+  private int readInt(long offset) throws IOException {
+    if (offset < HEADER_SIZE || offset + 4 > buffer.limit()) {
+      throw new IOException("Corrupt symbol map index: offset " + offset + " out of bounds");
+    }
+    return buffer.getInt((int) offset);
+  }
+
+  private String readString(long offset) throws IOException {
+    int length = readInt(offset);
+    if (length < 0 || offset + 4 + length > buffer.limit()) {
+      throw new IOException("Corrupt symbol map index: string of length " + length + " at "
+          + offset + " out of bounds");
+    }
+    byte[] bytes = new byte[length];
+    int start = (int) offset + 4;
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(start + i);
+    }
+    return new String(bytes, UTF8);
+  }
+}
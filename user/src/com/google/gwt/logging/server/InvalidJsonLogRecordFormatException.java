@@ -29,4 +29,12 @@ public class InvalidJsonLogRecordFormatException extends Exception {
     super("Error parsing JSON string", cause);
   }
 
+  /**
+   * Constructs an InvalidJsonLogRecordFormatException for well-formed JSON
+   * that isn't acceptable.
+   */
+  public InvalidJsonLogRecordFormatException(String message) {
+    super(message);
+  }
+
 }
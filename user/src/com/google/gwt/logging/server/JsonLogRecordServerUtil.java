@@ -16,10 +16,13 @@
 
 package com.google.gwt.logging.server;
 
+import com.google.gwt.logging.server.RemoteLoggingServiceUtil.SerializedLogRecord;
 import com.google.gwt.thirdparty.json.JSONArray;
 import com.google.gwt.thirdparty.json.JSONException;
 import com.google.gwt.thirdparty.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
@@ -51,6 +54,38 @@ public class JsonLogRecordServerUtil {
     }
   }
 
+  /**
+   * Splits a JSON array of log records into records that can be logged with
+   * {@link RemoteLoggingServiceUtil#logOnServer(java.util.Collection,
+   * com.google.gwt.core.server.StackTraceDeobfuscator, String,
+   * java.util.concurrent.ExecutorService)}. All records are attributed to
+   * {@code strongName}; a record may repeat it in a {@code strongName}
+   * property, but may not name another permutation. The records themselves are
+   * only parsed when they are logged, so a malformed record doesn't fail the
+   * batch.
+   *
+   * @throws InvalidJsonLogRecordFormatException if the batch isn't an array of
+   *         objects, or a record names another permutation
+   */
+  public static List<SerializedLogRecord> logRecordsFromJsonBatch(String jsonString,
+      String strongName) throws InvalidJsonLogRecordFormatException {
+    try {
+      JSONArray batch = new JSONArray(jsonString);
+      List<SerializedLogRecord> records = new ArrayList<SerializedLogRecord>(batch.length());
+      for (int i = 0; i < batch.length(); i++) {
+        JSONObject lro = batch.getJSONObject(i);
+        if (lro.has("strongName") && !lro.getString("strongName").equals(strongName)) {
+          throw new InvalidJsonLogRecordFormatException(
+              "Log record " + i + " is from another permutation");
+        }
+        records.add(new SerializedLogRecord(lro.toString(), strongName));
+      }
+      return records;
+    } catch (JSONException e) {
+      throw new InvalidJsonLogRecordFormatException(e);
+    }
+  }
+
   private static class JsonLogRecordThrowable extends Throwable {
 
     private static Throwable fromJsonString(String jsonString) throws JSONException {
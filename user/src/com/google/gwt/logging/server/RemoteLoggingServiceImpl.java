@@ -17,24 +17,62 @@
 package com.google.gwt.logging.server;
 
 import com.google.gwt.core.server.StackTraceDeobfuscator;
+import com.google.gwt.logging.server.RemoteLoggingServiceUtil.BatchResult;
 import com.google.gwt.logging.server.RemoteLoggingServiceUtil.RemoteLoggingException;
+import com.google.gwt.logging.server.RemoteLoggingServiceUtil.SerializedLogRecord;
 import com.google.gwt.logging.shared.RemoteLoggingService;
+import com.google.gwt.user.client.rpc.RpcRequestBuilder;
+import com.google.gwt.user.server.rpc.RPCServletUtils;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * Server-side code for the remote log handler.
+ * <p>
+ * Besides GWT RPC calls, the servlet accepts batches of log records posted as a
+ * JSON array with the {@value #JSON_BATCH_CONTENT_TYPE} content type, see
+ * {@link JsonLogRecordServerUtil#logRecordsFromJsonBatch(String, String)}.
+ * Like GWT RPC calls, such a batch must carry the strong name of the
+ * permutation it came from in the {@value RpcRequestBuilder#STRONG_NAME_HEADER}
+ * header, which guards against XSRF; all records of the batch are attributed
+ * to that permutation. The response is a JSON object with the number of records
+ * that were {@code logged} and that {@code failed} to be parsed.
  */
 public class RemoteLoggingServiceImpl extends RemoteServiceServlet implements RemoteLoggingService {
 
+  /**
+   * The content type of a batch of log records posted as JSON.
+   */
+  public static final String JSON_BATCH_CONTENT_TYPE = "application/json";
+
   private static Logger logger = Logger.getLogger(RemoteServiceServlet.class.getName());
 
+  /**
+   * The form of a permutation strong name. Anything else is rejected before it
+   * is used to look up symbol maps.
+   */
+  private static final Pattern STRONG_NAME_PATTERN = Pattern.compile("[0-9A-F]{32}");
+
   // No deobfuscator by default
   private StackTraceDeobfuscator deobfuscator = null;
   private String loggerNameOverride = null;
+  // Batches are processed by the calling thread by default
+  private ExecutorService batchExecutor = null;
+  private final AtomicLong batchRecordCount = new AtomicLong();
+  private final AtomicLong batchNanos = new AtomicLong();
 
   /**
    * Logs a Log Record which has been serialized using GWT RPC on the server.
@@ -52,6 +90,97 @@ public class RemoteLoggingServiceImpl extends RemoteServiceServlet implements Re
     return null;
   }
   
+  /**
+   * Logs a batch of log records serialized as JSON, such as records forwarded
+   * in bulk by a log collector. Records from the same permutation are
+   * deobfuscated together, and different permutations are processed in parallel
+   * if an executor was set with {@link #setBatchExecutor(ExecutorService)}.
+   *
+   * @return the result of the batch, or null if the batch failed
+   */
+  public BatchResult logOnServer(Collection<SerializedLogRecord> records) {
+    try {
+      BatchResult result = RemoteLoggingServiceUtil.logOnServer(
+          records, deobfuscator, loggerNameOverride, batchExecutor);
+      long totalRecords = batchRecordCount.addAndGet(
+          result.getLoggedCount() + result.getFailedCount());
+      long totalNanos = batchNanos.addAndGet(result.getElapsedNanos());
+      if (logger.isLoggable(Level.FINE)) {
+        logger.fine("Remote logging batch: " + result + "; " + totalRecords
+            + " records in " + totalNanos / 1000000 + " ms since startup");
+      }
+      return result;
+    } catch (RemoteLoggingException e) {
+      logger.log(Level.SEVERE, "Remote logging failed", e);
+      return null;
+    }
+  }
+
+  /**
+   * Logs a batch of log records posted as JSON, and passes all other requests
+   * on to GWT RPC.
+   */
+  @Override
+  protected void service(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    String contentType = request.getContentType();
+    if (!"POST".equals(request.getMethod()) || contentType == null
+        || !contentType.toLowerCase(Locale.ROOT).startsWith(JSON_BATCH_CONTENT_TYPE)) {
+      super.service(request, response);
+      return;
+    }
+
+    // Check for a possible XSRF situation, as checkPermutationStrongName does for RPC calls
+    String strongName = request.getHeader(RpcRequestBuilder.STRONG_NAME_HEADER);
+    if (strongName == null || !STRONG_NAME_PATTERN.matcher(strongName).matches()) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN,
+          "Missing or invalid " + RpcRequestBuilder.STRONG_NAME_HEADER + " header");
+      return;
+    }
+
+    BatchResult result;
+    try {
+      String batch = RPCServletUtils.readContent(request, JSON_BATCH_CONTENT_TYPE, null);
+      result = logOnServer(JsonLogRecordServerUtil.logRecordsFromJsonBatch(batch, strongName));
+    } catch (InvalidJsonLogRecordFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid batch of log records");
+      return;
+    }
+    if (result == null) {
+      response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+          "Remote logging failed, check stack trace for details.");
+      return;
+    }
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(JSON_BATCH_CONTENT_TYPE);
+    response.setCharacterEncoding(RPCServletUtils.CHARSET_UTF8_NAME);
+    response.getWriter().write("{\"logged\":" + result.getLoggedCount() + ",\"failed\":"
+        + result.getFailedCount() + "}");
+  }
+
+  /**
+   * Returns the total number of records received in batches.
+   */
+  public long getBatchRecordCount() {
+    return batchRecordCount.get();
+  }
+
+  /**
+   * Returns the total time spent processing batches, in nanoseconds.
+   */
+  public long getBatchNanos() {
+    return batchNanos.get();
+  }
+
+  /**
+   * Sets the executor used to process the permutations of a batch in parallel.
+   * The executor is not shut down by this service. By default, batches are
+   * processed by the calling thread.
+   */
+  public void setBatchExecutor(ExecutorService executor) {
+    batchExecutor = executor;
+  }
+
   /**
    * By default, messages are logged to a logger that has the same name as
    * the logger that created them on the client. If you want to log all messages
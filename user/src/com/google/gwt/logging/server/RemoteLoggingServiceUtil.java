@@ -18,6 +18,15 @@ package com.google.gwt.logging.server;
 
 import com.google.gwt.core.server.StackTraceDeobfuscator;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
@@ -39,6 +48,92 @@ public class RemoteLoggingServiceUtil {
     }
   }
 
+  /**
+   * A log record serialized as JSON by the client, together with the strong name of the
+   * permutation that sent it.
+   */
+  public static class SerializedLogRecord {
+    private final String json;
+    private final String strongName;
+
+    /**
+     * @param json the log record, as produced by the client-side
+     *        {@code JsonLogRecordClientUtil}
+     * @param strongName Permutation name (used for deobfuscation and may be null,
+     *        which will only cause deobfuscation to fail)
+     */
+    public SerializedLogRecord(String json, String strongName) {
+      this.json = json;
+      this.strongName = strongName;
+    }
+
+    public String getJson() {
+      return json;
+    }
+
+    public String getStrongName() {
+      return strongName;
+    }
+  }
+
+  /**
+   * The outcome of logging a batch of records.
+   */
+  public static class BatchResult {
+    private final long elapsedNanos;
+    private final int failedCount;
+    private final int groupCount;
+    private final int loggedCount;
+
+    BatchResult(int loggedCount, int failedCount, int groupCount, long elapsedNanos) {
+      this.loggedCount = loggedCount;
+      this.failedCount = failedCount;
+      this.groupCount = groupCount;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the time it took to deobfuscate and log the batch, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Returns the number of records that couldn't be deserialized.
+     */
+    public int getFailedCount() {
+      return failedCount;
+    }
+
+    /**
+     * Returns the number of distinct permutations the records came from.
+     */
+    public int getGroupCount() {
+      return groupCount;
+    }
+
+    /**
+     * Returns the number of records that were logged.
+     */
+    public int getLoggedCount() {
+      return loggedCount;
+    }
+
+    /**
+     * Returns the number of records processed per second, including failed ones.
+     */
+    public double getRecordsPerSecond() {
+      return elapsedNanos == 0 ? 0 : (loggedCount + failedCount) * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "logged " + loggedCount + " records (" + failedCount + " failed) from "
+          + groupCount + " permutations in " + elapsedNanos / 1000000 + " ms";
+    }
+  }
+
   /**
    * Logs a message on the server.
    *
@@ -82,4 +177,106 @@ public class RemoteLoggingServiceUtil {
       throw new RemoteLoggingException("Failed to deserialize JSON", e);
     }
   }
+
+  /**
+   * Logs a batch of messages on the server. Records are grouped by permutation, and the stack
+   * traces of each group are deobfuscated together, so each symbol map is consulted once per
+   * batch rather than once per record. Records that can't be deserialized are counted as failed
+   * and don't prevent the others from being logged.
+   *
+   * @param records the records to log
+   * @param deobfuscator used for deobfuscation. May be null, which will only
+   *        cause deobfuscation to fail.
+   * @param loggerNameOverride logger name for messages logged on server. May be
+   *        null, in which case, messages will be logged to a logger
+   *        corresponding to the client-side logger which triggered them.
+   * @param executor runs the groups in parallel. May be null, in which case
+   *        the groups are processed one after the other by the calling thread.
+   * @throws RemoteLoggingException if a group couldn't be processed
+   */
+  public static BatchResult logOnServer(Collection<SerializedLogRecord> records,
+      final StackTraceDeobfuscator deobfuscator, final String loggerNameOverride,
+      ExecutorService executor) throws RemoteLoggingException {
+    long start = System.nanoTime();
+    Map<String, List<String>> jsonByStrongName = new LinkedHashMap<String, List<String>>();
+    for (SerializedLogRecord record : records) {
+      List<String> group = jsonByStrongName.get(record.getStrongName());
+      if (group == null) {
+        group = new ArrayList<String>();
+        jsonByStrongName.put(record.getStrongName(), group);
+      }
+      group.add(record.getJson());
+    }
+
+    List<Callable<int[]>> tasks = new ArrayList<Callable<int[]>>();
+    for (final Map.Entry<String, List<String>> group : jsonByStrongName.entrySet()) {
+      tasks.add(new Callable<int[]>() {
+        @Override
+        public int[] call() {
+          return logGroupOnServer(group.getValue(), group.getKey(), deobfuscator,
+              loggerNameOverride);
+        }
+      });
+    }
+
+    int logged = 0;
+    int failed = 0;
+    try {
+      if (executor == null) {
+        for (Callable<int[]> task : tasks) {
+          int[] counts = task.call();
+          logged += counts[0];
+          failed += counts[1];
+        }
+      } else {
+        for (Future<int[]> future : executor.invokeAll(tasks)) {
+          int[] counts = future.get();
+          logged += counts[0];
+          failed += counts[1];
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RemoteLoggingException("Interrupted while logging a batch", e);
+    } catch (ExecutionException e) {
+      throw new RemoteLoggingException("Failed to log a batch", e.getCause());
+    } catch (Exception e) {
+      // Do not leak any exception other than RemoteLoggingException.
+      throw new RemoteLoggingException("Failed to log a batch", e);
+    }
+    return new BatchResult(logged, failed, jsonByStrongName.size(), System.nanoTime() - start);
+  }
+
+  /**
+   * Logs the records of one permutation and returns the number of logged and
+   * failed records.
+   */
+  private static int[] logGroupOnServer(List<String> serializedLogRecordsJson, String strongName,
+      StackTraceDeobfuscator deobfuscator, String loggerNameOverride) {
+    List<LogRecord> logRecords = new ArrayList<LogRecord>(serializedLogRecordsJson.size());
+    for (String json : serializedLogRecordsJson) {
+      try {
+        logRecords.add(JsonLogRecordServerUtil.logRecordFromJson(json));
+      } catch (Exception e) {
+        // Counted as failed.
+      }
+    }
+
+    if (deobfuscator != null && strongName != null) {
+      List<Throwable> thrown = new ArrayList<Throwable>();
+      for (LogRecord lr : logRecords) {
+        if (lr.getThrown() != null) {
+          thrown.add(lr.getThrown());
+        }
+      }
+      deobfuscator.deobfuscateStackTraces(thrown, strongName);
+    }
+
+    for (LogRecord lr : logRecords) {
+      String loggerName = loggerNameOverride == null ? lr.getLoggerName() :
+        loggerNameOverride;
+      Logger.getLogger(loggerName).log(lr);
+    }
+    return new int[] {logRecords.size(), serializedLogRecordsJson.size() - logRecords.size()};
+  }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.precompress.linker;
+
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.util.tools.shared.StringUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * An on-disk cache of compressed artifacts, keyed by the encoding and a hash
+ * of the uncompressed content. It can be shared by any number of processes,
+ * such as consecutive compiles and Super Dev Mode: entries are written to a
+ * temporary file first and then renamed into place, so readers never see a
+ * partially written entry.
+ * <p>
+ * Entries are never invalidated, since the key covers everything the output
+ * depends on. The cache directory may be deleted at any time; the last
+ * modification time of an entry is updated whenever it is used, so stale
+ * entries can be found by age.
+ */
+class PrecompressCache {
+
+  /**
+   * Returns the hash of the rest of {@code in} that entries are keyed by.
+   * Doesn't close {@code in}.
+   */
+  static String computeContentHash(InputStream in) throws IOException {
+    MessageDigest md5;
+    try {
+      md5 = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("Error initializing MD5", e);
+    }
+    byte[] buf = new byte[PrecompressEncoding.BUF_SIZE];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      md5.update(buf, 0, n);
+    }
+    return StringUtils.toHexString(md5.digest());
+  }
+
+  private final File dir;
+
+  PrecompressCache(File dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Returns the cached output of {@code encoding} for the content with the
+   * given hash, or null if there is none.
+   */
+  byte[] get(PrecompressEncoding encoding, String contentHash) {
+    File file = getFile(encoding, contentHash);
+    if (!file.isFile()) {
+      return null;
+    }
+    byte[] compressed = Util.readFileAsBytes(file);
+    if (compressed != null) {
+      file.setLastModified(System.currentTimeMillis());
+    }
+    return compressed;
+  }
+
+  /**
+   * Stores the output of {@code encoding} for the content with the given hash.
+   * Failures are ignored, since the cache is only an optimization.
+   */
+  void put(PrecompressEncoding encoding, String contentHash, byte[] compressed) {
+    File file = getFile(encoding, contentHash);
+    File parent = file.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+      return;
+    }
+    File temp = null;
+    try {
+      temp = File.createTempFile(file.getName(), ".tmp", parent);
+      FileOutputStream out = new FileOutputStream(temp);
+      try {
+        out.write(compressed);
+      } finally {
+        out.close();
+      }
+      // Another process may have written the same entry; either copy is fine.
+      if (temp.renameTo(file)) {
+        temp = null;
+      }
+    } catch (IOException e) {
+      // Leave the entry out.
+    } finally {
+      if (temp != null) {
+        temp.delete();
+      }
+    }
+  }
+
+  private File getFile(PrecompressEncoding encoding, String contentHash) {
+    return new File(new File(new File(dir, encoding.getName()), contentHash.substring(0, 2)),
+        contentHash + encoding.getExtension());
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.precompress.linker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A content encoding that {@link PrecompressLinker} can produce. Each encoding
+ * writes its output next to the original artifact, with its own file
+ * extension.
+ * <p>
+ * Implementations must be thread-safe, and must produce the same output for
+ * the same input, since outputs are cached by content.
+ */
+public abstract class PrecompressEncoding {
+
+  /**
+   * Buffer size to use when streaming data through an encoding.
+   */
+  protected static final int BUF_SIZE = 10000;
+
+  /**
+   * The <code>gzip</code> content encoding, written with the extension
+   * <code>.gz</code>.
+   */
+  public static final PrecompressEncoding GZIP = new PrecompressEncoding("gzip", ".gz") {
+    @Override
+    public void compress(InputStream in, OutputStream out) throws IOException {
+      GZIPOutputStream gzip = new GZIPOutputStream(out) {
+          {
+            def.setLevel(Deflater.BEST_COMPRESSION);
+          }
+      };
+      byte[] buf = new byte[BUF_SIZE];
+      int n;
+      while ((n = in.read(buf)) != -1) {
+        gzip.write(buf, 0, n);
+      }
+      gzip.close();
+    }
+  };
+
+  /**
+   * The <code>deflate</code> content encoding, a zlib stream as defined for
+   * HTTP, written with the extension <code>.deflate</code>.
+   */
+  public static final PrecompressEncoding DEFLATE =
+      new PrecompressEncoding("deflate", ".deflate") {
+        @Override
+        public void compress(InputStream in, OutputStream out) throws IOException {
+          Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+          DeflaterOutputStream zlib = new DeflaterOutputStream(out, deflater, BUF_SIZE);
+          try {
+            byte[] buf = new byte[BUF_SIZE];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+              zlib.write(buf, 0, n);
+            }
+            zlib.close();
+          } finally {
+            deflater.end();
+          }
+        }
+      };
+
+  private final String extension;
+  private final String name;
+
+  /**
+   * @param name the name of the encoding, as used in the
+   *          <code>precompress.encodings</code> configuration property and in
+   *          the HTTP <code>Content-Encoding</code> header
+   * @param extension the extension appended to the path of compressed
+   *          artifacts, including the leading dot
+   */
+  protected PrecompressEncoding(String name, String extension) {
+    this.name = name;
+    this.extension = extension;
+  }
+
+  /**
+   * Compresses the rest of {@code in} into {@code out}, without holding all of
+   * either in memory, and closes {@code out}. Doesn't close {@code in}.
+   */
+  public abstract void compress(InputStream in, OutputStream out) throws IOException;
+
+  public String getExtension() {
+    return extension;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
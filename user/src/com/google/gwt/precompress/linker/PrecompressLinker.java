@@ -26,16 +26,23 @@ import com.google.gwt.core.ext.linker.EmittedArtifact.Visibility;
 import com.google.gwt.core.ext.linker.LinkerOrder;
 import com.google.gwt.core.ext.linker.LinkerOrder.Order;
 import com.google.gwt.core.ext.linker.Shardable;
+import com.google.gwt.core.ext.linker.SyntheticArtifact;
 import com.google.gwt.dev.util.collect.HashSet;
 import com.google.gwt.util.regexfilter.RegexFilter;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.zip.Deflater;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * <p>
@@ -56,6 +63,17 @@ import java.util.zip.GZIPOutputStream;
  * are left in the artifact set. If the configuration property
  * <code>precompress.leave.originals</code> is set to <code>false</code>,
  * however, then the uncompressed version is removed.
+ *
+ * <p>
+ * By default, artifacts are compressed with gzip. Other encodings can be listed
+ * in the configuration property <code>precompress.encodings</code>; see
+ * {@link #createEncoding(String)}. Artifacts are compressed in parallel.
+ *
+ * <p>
+ * If the configuration property <code>precompress.cache.dir</code> (or else the
+ * system property <code>gwt.precompress.cacheDir</code>) names a directory,
+ * compressed outputs are cached there by content and reused by later links,
+ * including those of other compiles and Super Dev Mode.
  */
 @Shardable
 @LinkerOrder(Order.POST)
@@ -78,10 +96,108 @@ public class PrecompressLinker extends AbstractLinker {
   }
 
   /**
-   * Buffer size to use when streaming data from artifacts and through
-   * {@link GZIPOutputStream}.
+   * Counts the bytes read through it.
+   */
+  private static class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+  }
+
+  /**
+   * The compression of one artifact with one encoding. The artifact is
+   * streamed through the encoding when the task runs, so only the compressed
+   * output of the running tasks is held in memory.
+   */
+  private class CompressionTask implements Callable<SyntheticArtifact> {
+    private final PrecompressCache cache;
+    private final PrecompressEncoding encoding;
+    private final TreeLogger logger;
+    private final EmittedArtifact original;
+    private long compressedLength;
+    private boolean fromCache;
+    private long originalLength;
+
+    CompressionTask(TreeLogger logger, EmittedArtifact original, PrecompressEncoding encoding,
+        PrecompressCache cache) {
+      this.logger = logger;
+      this.original = original;
+      this.encoding = encoding;
+      this.cache = cache;
+    }
+
+    /**
+     * Returns the compressed artifact, or null if compressing doesn't make the
+     * artifact smaller.
+     */
+    @Override
+    public SyntheticArtifact call() throws IOException, UnableToCompleteException {
+      byte[] compressed = null;
+      String contentHash = null;
+      if (cache != null) {
+        CountingInputStream in = new CountingInputStream(original.getContents(logger));
+        try {
+          contentHash = PrecompressCache.computeContentHash(in);
+        } finally {
+          in.close();
+        }
+        originalLength = in.count;
+        compressed = cache.get(encoding, contentHash);
+        fromCache = compressed != null;
+      }
+      if (compressed == null) {
+        CountingInputStream in = new CountingInputStream(original.getContents(logger));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+          encoding.compress(in, out);
+        } finally {
+          in.close();
+        }
+        originalLength = in.count;
+        compressed = out.toByteArray();
+        if (cache != null) {
+          cache.put(encoding, contentHash, compressed);
+        }
+      }
+      if (compressed.length >= originalLength) {
+        compressedLength = originalLength;
+        return null;
+      }
+      compressedLength = compressed.length;
+      return emitBytes(logger, compressed, original.getPartialPath() + encoding.getExtension());
+    }
+  }
+
+  /**
+   * Java system property naming a directory to cache compressed artifacts in,
+   * used if the <code>precompress.cache.dir</code> configuration property is
+   * not set.
    */
-  private static final int BUF_SIZE = 10000;
+  private static final String CACHE_DIR_SYSTEM_PROPERTY = "gwt.precompress.cacheDir";
+
+  private static final String PROP_CACHE_DIR = "precompress.cache.dir";
+
+  private static final String PROP_ENCODINGS = "precompress.encodings";
 
   private static final String PROP_LEAVE_ORIGINALS = "precompress.leave.originals";
 
@@ -91,10 +207,9 @@ public class PrecompressLinker extends AbstractLinker {
       TreeLogger logger,
       Iterable<com.google.gwt.core.ext.linker.ConfigurationProperty> properties,
       String propName) throws UnableToCompleteException {
-    for (ConfigurationProperty prop : properties) {
-      if (prop.getName().equals(propName)) {
-        return prop;
-      }
+    ConfigurationProperty prop = findOptionalProperty(properties, propName);
+    if (prop != null) {
+      return prop;
     }
 
     logger.log(TreeLogger.ERROR, "Could not find configuration property "
@@ -102,6 +217,17 @@ public class PrecompressLinker extends AbstractLinker {
     throw new UnableToCompleteException();
   }
 
+  private static ConfigurationProperty findOptionalProperty(
+      Iterable<com.google.gwt.core.ext.linker.ConfigurationProperty> properties,
+      String propName) {
+    for (ConfigurationProperty prop : properties) {
+      if (prop.getName().equals(propName)) {
+        return prop;
+      }
+    }
+    return null;
+  }
+
   @Override
   public String getDescription() {
     return "PrecompressLinker";
@@ -111,6 +237,7 @@ public class PrecompressLinker extends AbstractLinker {
   public ArtifactSet link(TreeLogger logger, LinkerContext context,
       ArtifactSet artifacts, boolean onePermutation)
       throws UnableToCompleteException {
+    long start = System.nanoTime();
     ConfigurationProperty leaveOriginalsProp = findProperty(logger,
         context.getConfigurationProperties(), PROP_LEAVE_ORIGINALS);
     boolean leaveOriginals = Boolean.valueOf(leaveOriginalsProp.getValues().get(
@@ -120,67 +247,164 @@ public class PrecompressLinker extends AbstractLinker {
         TreeLogger.TRACE, "Analyzing the path patterns"), findProperty(logger,
         context.getConfigurationProperties(), PROP_PATH_REGEXES).getValues());
 
+    List<PrecompressEncoding> encodings = getEncodings(logger,
+        context.getConfigurationProperties());
+    PrecompressCache cache = getCache(context.getConfigurationProperties());
+
     // Record the list of all paths for later lookup
     Set<String> allPaths = new HashSet<String>();
     for (EmittedArtifact art : artifacts.find(EmittedArtifact.class)) {
       allPaths.add(art.getPartialPath());
     }
 
-    try {
-      // Buffer for streaming data to be compressed
-      byte[] buf = new byte[BUF_SIZE];
+    List<CompressionTask> tasks = new ArrayList<CompressionTask>();
+    for (EmittedArtifact art : artifacts.find(EmittedArtifact.class)) {
+      if (art.getVisibility() != Visibility.Public) {
+        // only compress things that will be served to the client
+        continue;
+      }
+      if (isCompressed(art.getPartialPath(), encodings)) {
+        // Already a compressed artifact
+        continue;
+      }
+      if (!filter.isIncluded(logger.branch(TreeLogger.TRACE,
+          "Checking the path patterns"), art.getPartialPath())) {
+        continue;
+      }
 
-      ArtifactSet updated = new ArtifactSet(artifacts);
-      for (EmittedArtifact art : artifacts.find(EmittedArtifact.class)) {
-        if (art.getVisibility() != Visibility.Public) {
-          // only compress things that will be served to the client
-          continue;
-        }
-        if (art.getPartialPath().endsWith(".gz")) {
-          // Already a compressed artifact
-          continue;
-        }
-        if (allPaths.contains(art.getPartialPath() + ".gz")) {
+      for (PrecompressEncoding encoding : encodings) {
+        if (allPaths.contains(art.getPartialPath() + encoding.getExtension())) {
           // It's already been compressed
           continue;
         }
-        if (!filter.isIncluded(logger.branch(TreeLogger.TRACE,
-            "Checking the path patterns"), art.getPartialPath())) {
-          continue;
+        tasks.add(new CompressionTask(logger.branch(TreeLogger.TRACE,
+            "Compressing " + art.getPartialPath()), art, encoding, cache));
+      }
+    }
+
+    List<SyntheticArtifact> results = compressAll(logger, tasks);
+
+    ArtifactSet updated = new ArtifactSet(artifacts);
+    long originalBytes = 0;
+    long compressedBytes = 0;
+    int cacheHits = 0;
+    for (int i = 0; i < tasks.size(); i++) {
+      CompressionTask task = tasks.get(i);
+      SyntheticArtifact compressed = results.get(i);
+      originalBytes += task.originalLength;
+      compressedBytes += task.compressedLength;
+      if (task.fromCache) {
+        cacheHits++;
+      }
+      if (compressed != null) {
+        updated.add(compressed);
+        if (!leaveOriginals) {
+          updated.remove(task.original);
         }
+      }
+    }
+
+    if (!tasks.isEmpty() && logger.isLoggable(TreeLogger.DEBUG)) {
+      logger.log(TreeLogger.DEBUG, "Precompressed " + tasks.size() + " outputs ("
+          + cacheHits + " from cache) with " + encodings + ": " + originalBytes
+          + " bytes compressed to " + compressedBytes + " bytes in "
+          + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+    return updated;
+  }
 
-        TreeLogger compressBranch = logger.branch(TreeLogger.TRACE,
-            "Compressing " + art.getPartialPath());
-
-        InputStream originalBytes = art.getContents(compressBranch);
-        ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream();
-        GZIPOutputStream gzip = new GZIPOutputStream(compressedBytes) {
-            {
-              def.setLevel(Deflater.BEST_COMPRESSION);
-            }
-        };
-
-        int originalLength = 0;
-        int n;
-        while ((n = originalBytes.read(buf)) > 0) {
-          originalLength += n;
-          gzip.write(buf, 0, n);
+  /**
+   * Returns the encoding with the given name, or null if there is none.
+   * <code>gzip</code> and <code>deflate</code> are built in; override to add
+   * others, such as an encoding backed by a Brotli library.
+   */
+  protected PrecompressEncoding createEncoding(String name) {
+    if (PrecompressEncoding.GZIP.getName().equals(name)) {
+      return PrecompressEncoding.GZIP;
+    }
+    if (PrecompressEncoding.DEFLATE.getName().equals(name)) {
+      return PrecompressEncoding.DEFLATE;
+    }
+    return null;
+  }
+
+  /**
+   * Runs the tasks, in parallel if there is more than one, and returns their
+   * results in the same order.
+   */
+  private List<SyntheticArtifact> compressAll(TreeLogger logger, List<CompressionTask> tasks)
+      throws UnableToCompleteException {
+    List<SyntheticArtifact> results = new ArrayList<SyntheticArtifact>(tasks.size());
+    int threads = Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+    try {
+      if (threads <= 1) {
+        for (CompressionTask task : tasks) {
+          results.add(task.call());
         }
-        gzip.close();
-
-        byte[] compressed = compressedBytes.toByteArray();
-        if (compressed.length < originalLength) {
-          updated.add(emitBytes(compressBranch, compressed,
-              art.getPartialPath() + ".gz"));
-          if (!leaveOriginals) {
-            updated.remove(art);
-          }
+        return results;
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      try {
+        for (Future<SyntheticArtifact> result : executor.invokeAll(tasks)) {
+          results.add(result.get());
         }
+      } finally {
+        executor.shutdownNow();
       }
-      return updated;
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.log(TreeLogger.ERROR, "Interrupted while compressing", e);
+      throw new UnableToCompleteException();
+    } catch (ExecutionException e) {
+      logger.log(TreeLogger.ERROR, "Unexpected exception", e.getCause());
+      throw new UnableToCompleteException();
     } catch (IOException e) {
       logger.log(TreeLogger.ERROR, "Unexpected exception", e);
       throw new UnableToCompleteException();
     }
   }
+
+  private PrecompressCache getCache(Iterable<ConfigurationProperty> properties) {
+    ConfigurationProperty cacheDirProp = findOptionalProperty(properties, PROP_CACHE_DIR);
+    String cacheDir = cacheDirProp == null || cacheDirProp.getValues().isEmpty()
+        ? null : cacheDirProp.getValues().get(0);
+    if (cacheDir == null || cacheDir.isEmpty()) {
+      cacheDir = System.getProperty(CACHE_DIR_SYSTEM_PROPERTY);
+    }
+    if (cacheDir == null || cacheDir.isEmpty()) {
+      return null;
+    }
+    return new PrecompressCache(new File(cacheDir));
+  }
+
+  private List<PrecompressEncoding> getEncodings(TreeLogger logger,
+      Iterable<ConfigurationProperty> properties) throws UnableToCompleteException {
+    ConfigurationProperty encodingsProp = findOptionalProperty(properties, PROP_ENCODINGS);
+    List<PrecompressEncoding> encodings = new ArrayList<PrecompressEncoding>();
+    if (encodingsProp == null || encodingsProp.getValues().isEmpty()) {
+      encodings.add(PrecompressEncoding.GZIP);
+      return encodings;
+    }
+    for (String name : encodingsProp.getValues()) {
+      PrecompressEncoding encoding = createEncoding(name.trim());
+      if (encoding == null) {
+        logger.log(TreeLogger.ERROR, "Unknown value for " + PROP_ENCODINGS + ": " + name);
+        throw new UnableToCompleteException();
+      }
+      if (!encodings.contains(encoding)) {
+        encodings.add(encoding);
+      }
+    }
+    return encodings;
+  }
+
+  private boolean isCompressed(String path, List<PrecompressEncoding> encodings) {
+    for (PrecompressEncoding encoding : encodings) {
+      if (path.endsWith(encoding.getExtension())) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.client.rpc.core.java.util.concurrent;
+
+import com.google.gwt.user.client.rpc.CustomFieldSerializer;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+import com.google.gwt.user.client.rpc.core.java.util.Collection_CustomFieldSerializerBase;
+
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Custom field serializer for {@link java.util.concurrent.CopyOnWriteArrayList}.
+ * The elements are read into a temporary list and added at once, so that the
+ * list is not copied once per element.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public final class CopyOnWriteArrayList_CustomFieldSerializer extends
+    CustomFieldSerializer<CopyOnWriteArrayList> {
+
+  public static void deserialize(SerializationStreamReader streamReader,
+      CopyOnWriteArrayList instance) throws SerializationException {
+    ArrayList elements = new ArrayList();
+    Collection_CustomFieldSerializerBase.deserialize(streamReader, elements);
+    instance.addAll(elements);
+  }
+
+  public static void serialize(SerializationStreamWriter streamWriter,
+      CopyOnWriteArrayList instance) throws SerializationException {
+    Collection_CustomFieldSerializerBase.serialize(streamWriter, instance);
+  }
+
+  @Override
+  public void deserializeInstance(SerializationStreamReader streamReader,
+      CopyOnWriteArrayList instance) throws SerializationException {
+    deserialize(streamReader, instance);
+  }
+
+  @Override
+  public void serializeInstance(SerializationStreamWriter streamWriter,
+      CopyOnWriteArrayList instance) throws SerializationException {
+    serialize(streamWriter, instance);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc;
+
+import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Describes an outgoing RPC response that has been serialized but not yet
+ * encoded as a string. It can be written straight to a {@link Writer} without
+ * building the encoded payload as a string first.
+ */
+public final class RPCResponse {
+
+  /**
+   * The serialized response.
+   */
+  private final ServerSerializationStreamWriter stream;
+
+  /**
+   * Whether the response holds an exception thrown by the service method.
+   */
+  private final boolean wasThrown;
+
+  RPCResponse(ServerSerializationStreamWriter stream, boolean wasThrown) {
+    this.stream = stream;
+    this.wasThrown = wasThrown;
+  }
+
+  /**
+   * Returns an estimate of the number of characters in the encoded response.
+   */
+  public int getEstimatedLength() {
+    return stream.getEstimatedLength() + 4;
+  }
+
+  /**
+   * Returns <code>true</code> if the response holds an exception thrown by
+   * the service method.
+   */
+  public boolean isFailure() {
+    return wasThrown;
+  }
+
+  /**
+   * Returns the encoded response, as returned by
+   * {@link RPC#invokeAndEncodeResponse(Object, java.lang.reflect.Method, Object[])}.
+   */
+  @Override
+  public String toString() {
+    return getPrefix() + stream.toString();
+  }
+
+  /**
+   * Writes the encoded response.
+   *
+   * @param out the writer to write to; it is not flushed or closed
+   * @throws IOException if writing fails
+   */
+  public void writeTo(Writer out) throws IOException {
+    out.write(getPrefix());
+    stream.writeTo(out);
+  }
+
+  private String getPrefix() {
+    return wasThrown ? "//EX" : "//OK";
+  }
+}
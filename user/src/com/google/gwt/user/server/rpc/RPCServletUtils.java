@@ -16,9 +16,13 @@
 package com.google.gwt.user.server.rpc;
 
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.util.Locale;
@@ -118,6 +122,18 @@ public class RPCServletUtils {
     return (content.length() * 2) > UNCOMPRESSED_BYTE_SIZE_LIMIT;
   }
 
+  /**
+   * Returns <code>true</code> if the response's estimated UTF-8 byte length
+   * exceeds 256 bytes.
+   *
+   * @param response the response that will be written
+   * @return <code>true</code> if the response's estimated UTF-8 byte length
+   *         exceeds 256 bytes
+   */
+  public static boolean exceedsUncompressedContentLengthLimit(RPCResponse response) {
+    return (response.getEstimatedLength() * 2) > UNCOMPRESSED_BYTE_SIZE_LIMIT;
+  }
+
   /**
    * Get the Charset for a named character set. Caches Charsets to work around
    * a concurrency bottleneck in FastCharsetProvider.
@@ -377,6 +393,46 @@ public class RPCServletUtils {
     response.getOutputStream().write(responseBytes);
   }
 
+  /**
+   * Write an RPC response into the {@link HttpServletResponse} as it is
+   * encoded, without building the encoded payload as a string or byte array. If
+   * <code>gzipResponse</code> is <code>true</code>, the response content is
+   * gzipped as it is written.
+   * <p>
+   * Since the length isn't known up front, no Content-Length header is set.
+   *
+   * @param servletContext servlet context for this response
+   * @param response response instance
+   * @param rpcResponse the RPC response to write
+   * @param gzipResponse if <code>true</code> the response content will be gzip
+   *          encoded
+   * @throws IOException if writing to the response's output stream fails
+   */
+  public static void writeResponse(ServletContext servletContext,
+      HttpServletResponse response, RPCResponse rpcResponse, boolean gzipResponse)
+      throws IOException {
+    response.setContentType(CONTENT_TYPE_APPLICATION_JSON_UTF8);
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setHeader(CONTENT_DISPOSITION, ATTACHMENT);
+    if (gzipResponse) {
+      setGzipEncodingHeader(response);
+    }
+
+    OutputStream output = response.getOutputStream();
+    GZIPOutputStream gzipOutputStream = null;
+    if (gzipResponse) {
+      gzipOutputStream = new GZIPOutputStream(output, BUFFER_SIZE);
+      output = gzipOutputStream;
+    }
+    Writer writer = new BufferedWriter(new OutputStreamWriter(output, CHARSET_UTF8),
+        BUFFER_SIZE);
+    rpcResponse.writeTo(writer);
+    writer.flush();
+    if (gzipOutputStream != null) {
+      gzipOutputStream.finish();
+    }
+  }
+
   /**
    * Called when the servlet itself has a problem, rather than the invoked
    * third-party method. It writes a simple 500 message back to the client.
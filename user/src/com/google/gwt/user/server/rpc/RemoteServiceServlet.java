@@ -23,11 +23,10 @@ import com.google.gwt.user.client.rpc.SerializationException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.ParseException;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -121,14 +120,44 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     return serializationPolicy;
   }
 
+  /**
+   * Returns whether a servlet class overrides any of the methods that load
+   * serialization policies.
+   */
+  private static boolean hasCustomPolicyLoading(Class<?> servletClass) {
+    return CUSTOM_POLICY_LOADING.get(servletClass);
+  }
+
+  /**
+   * The system property that enables {@link #shouldWriteResponseDirectly() writing
+   * responses directly}.
+   */
+  public static final String WRITE_RESPONSES_DIRECTLY_PROPERTY = "gwt.rpc.writeResponsesDirectly";
+
+  private static final boolean WRITE_RESPONSES_DIRECTLY =
+      Boolean.getBoolean(WRITE_RESPONSES_DIRECTLY_PROPERTY);
+
   private static final SerializationPolicyClient CODE_SERVER_CLIENT =
       new SerializationPolicyClient(5000, 5000);
 
   /**
-   * A cache of moduleBaseURL and serialization policy strong name to
-   * {@link SerializationPolicy}.
+   * Whether a servlet class overrides any of the methods that load serialization policies.
    */
-  private final Map<String, SerializationPolicy> serializationPolicyCache = new HashMap<String, SerializationPolicy>();
+  private static final ClassValue<Boolean> CUSTOM_POLICY_LOADING = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> servletClass) {
+      for (Class<?> c = servletClass; c != RemoteServiceServlet.class; c = c.getSuperclass()) {
+        for (Method method : c.getDeclaredMethods()) {
+          String name = method.getName();
+          if (name.equals("doGetSerializationPolicy") || name.equals("getCodeServerPolicyUrl")
+              || name.equals("loadPolicyFromCodeServer")) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  };
 
   /**
    * The implementation of the service.
@@ -142,6 +171,12 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
    */
   private int codeServerPort = 0;
 
+  /**
+   * The registry of a servlet that overrides how policies are loaded, since its
+   * policies may depend on its own state; {@code null} for other servlets.
+   */
+  private final SerializationPolicyRegistry ownPolicyRegistry;
+
   /**
    * The default constructor used by service implementations that
    * extend this class.  The servlet will delegate AJAX requests to
@@ -149,6 +184,7 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
    */
   public RemoteServiceServlet() {
     this.delegate = this;
+    this.ownPolicyRegistry = createOwnPolicyRegistry();
   }
 
   /**
@@ -158,6 +194,7 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
    */
   public RemoteServiceServlet(Object delegate) {
     this.delegate = delegate;
+    this.ownPolicyRegistry = createOwnPolicyRegistry();
   }
 
   /**
@@ -222,42 +259,98 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
   }
 
   @Override
-  public final SerializationPolicy getSerializationPolicy(String moduleBaseURL,
-      String strongName) {
-
-    SerializationPolicy serializationPolicy = getCachedSerializationPolicy(
-        moduleBaseURL, strongName);
-    if (serializationPolicy != null) {
-      return serializationPolicy;
-    }
+  public final SerializationPolicy getSerializationPolicy(final String moduleBaseURL,
+      final String strongName) {
+    final HttpServletRequest request = getThreadLocalRequest();
+    // Servlets that load policies the default way share their servlet context's
+    // policies, unless they download them from different code servers; others
+    // have a registry of their own.
+    Object scope = getServletConfig() == null ? this : getServletContext();
+    return getSerializationPolicyRegistry().get(scope, codeServerPort, moduleBaseURL, strongName,
+        new SerializationPolicyRegistry.Loader() {
+          @Override
+          public SerializationPolicy load() {
+            return loadSerializationPolicyOrDefault(request, moduleBaseURL, strongName);
+          }
+        });
+  }
 
-    serializationPolicy = doGetSerializationPolicy(getThreadLocalRequest(),
-        moduleBaseURL, strongName);
+  /**
+   * Process a call originating from the given request, like
+   * {@link #processCall(String)}, but return the response without encoding it
+   * as a string. Only called if {@link #shouldWriteResponseDirectly()} returns
+   * <code>true</code>.
+   * <p>
+   * Subclasses that override {@link #processCall(String)} to handle the
+   * payload themselves should override this method too.
+   * </p>
+   * This is public so that it can be unit tested easily without HTTP.
+   *
+   * @param payload the UTF-8 request payload
+   * @return a response which encodes either the method's return, a checked
+   *         exception thrown by the method, or an
+   *         {@link IncompatibleRemoteServiceException}
+   * @throws SerializationException if we cannot serialize the response
+   * @throws UnexpectedException if the invocation throws a checked exception
+   *           that is not declared in the service method's signature
+   * @throws RuntimeException if the service method throws an unchecked
+   *           exception (the exception will be the one thrown by the service)
+   */
+  public RPCResponse processCallForResponse(String payload) throws SerializationException {
+    // First, check for possible XSRF situation
+    checkPermutationStrongName();
 
-    // Try SuperDevMode, if configured.
-    if (serializationPolicy == null) {
-      String url = getCodeServerPolicyUrl(strongName);
-      if (url != null) {
-        serializationPolicy = loadPolicyFromCodeServer(url);
-      }
+    RPCRequest rpcRequest;
+    try {
+      rpcRequest = RPC.decodeRequest(payload, delegate.getClass(), this);
+    } catch (IncompatibleRemoteServiceException ex) {
+      log(
+          "An IncompatibleRemoteServiceException was thrown while processing this call.",
+          ex);
+      return RPC.prepareResponseForFailedRequest(null, ex);
     }
+    return processCallForResponse(rpcRequest);
+  }
 
-    if (serializationPolicy == null) {
-      // Failed to get the requested serialization policy; use the default
+  /**
+   * Process an already decoded RPC request, like
+   * {@link #processCall(RPCRequest)}, but return the response without encoding
+   * it as a string. Uses
+   * {@link RPC#invokeAndPrepareResponse(Object, java.lang.reflect.Method, Object[], SerializationPolicy, int)}
+   * to do the actual work.
+   * <p>
+   * Subclasses that override {@link #processCall(RPCRequest)} should override
+   * this method too.
+   * </p>
+   * This is public so that it can be unit tested easily without HTTP.
+   *
+   * @param rpcRequest the already decoded RPC request
+   * @return a response which encodes either the method's return, a checked
+   *         exception thrown by the method, or an
+   *         {@link IncompatibleRemoteServiceException}
+   * @throws SerializationException if we cannot serialize the response
+   * @throws UnexpectedException if the invocation throws a checked exception
+   *           that is not declared in the service method's signature
+   * @throws RuntimeException if the service method throws an unchecked
+   *           exception (the exception will be the one thrown by the service)
+   */
+  public RPCResponse processCallForResponse(RPCRequest rpcRequest)
+      throws SerializationException {
+    try {
+      onAfterRequestDeserialized(rpcRequest);
+      return RPC.invokeAndPrepareResponse(delegate, rpcRequest.getMethod(),
+          rpcRequest.getParameters(), rpcRequest.getSerializationPolicy(),
+          rpcRequest.getFlags());
+    } catch (IncompatibleRemoteServiceException ex) {
       log(
-          "WARNING: Failed to get the SerializationPolicy '"
-              + strongName
-              + "' for module '"
-              + moduleBaseURL
-              + "'; a legacy, 1.3.3 compatible, serialization policy will be used.  You may experience SerializationExceptions as a result.");
-      serializationPolicy = RPC.getDefaultSerializationPolicy();
+          "An IncompatibleRemoteServiceException was thrown while processing this call.",
+          ex);
+      return RPC.prepareResponseForFailedRequest(rpcRequest, ex);
+    } catch (RpcTokenException tokenException) {
+      log("An RpcTokenException was thrown while processing this call.",
+          tokenException);
+      return RPC.prepareResponseForFailedRequest(rpcRequest, tokenException);
     }
-
-    // This could cache null or an actual instance. Either way we will not
-    // attempt to lookup the policy again.
-    putCachedSerializationPolicy(moduleBaseURL, strongName, serializationPolicy);
-
-    return serializationPolicy;
   }
 
   /**
@@ -367,6 +460,17 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     //
     onBeforeRequestDeserialized(requestPayload);
 
+    if (shouldWriteResponseDirectly()) {
+      // Invoke the core dispatching logic and write the serialized result
+      // directly to the response.
+      //
+      RPCResponse rpcResponse = processCallForResponse(requestPayload);
+      boolean gzipEncode = RPCServletUtils.acceptsGzipEncoding(request)
+          && RPCServletUtils.exceedsUncompressedContentLengthLimit(rpcResponse);
+      RPCServletUtils.writeResponse(getServletContext(), response, rpcResponse, gzipEncode);
+      return;
+    }
+
     // Invoke the core dispatching logic, which returns the serialized
     // result.
     //
@@ -402,7 +506,9 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
   /**
    * Loads the {@link SerializationPolicy} for given module base URL and strong name.
    * Returns the policy if successful or null if not found. Due to caching, this method
-   * will only be called once for each combination of moduleBaseURL and strongName.</p>
+   * will only be called once for each combination of moduleBaseURL and strongName
+   * within the servlet context, until the policy is evicted from the
+   * {@link #getSerializationPolicyRegistry() registry}.</p>
    *
    * <p>The default implementation loads serialization policies stored as servlet resources
    * in the same ServletContext as this servlet.
@@ -420,6 +526,23 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     return RemoteServiceServlet.loadSerializationPolicy(this, request, moduleBaseURL, strongName);
   }
 
+  /**
+   * Returns the registry that caches this servlet's serialization policies.
+   *
+   * <p>By default, servlets that load policies the default way share
+   * {@link SerializationPolicyRegistry#getShared()}, and so share policies with other
+   * servlets in the same ServletContext that use the same Super Dev Mode code server port.
+   * A servlet whose class overrides how policies are loaded has a registry of its own.
+   * Override this method to use a different registry.
+   */
+  protected SerializationPolicyRegistry getSerializationPolicyRegistry() {
+    return ownPolicyRegistry != null ? ownPolicyRegistry : SerializationPolicyRegistry.getShared();
+  }
+
+  private SerializationPolicyRegistry createOwnPolicyRegistry() {
+    return hasCustomPolicyLoading(getClass()) ? new SerializationPolicyRegistry() : null;
+  }
+
   /**
    * Returns a URL for fetching a serialization policy from a Super Dev Mode code server.
    *
@@ -464,6 +587,26 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     return CODE_SERVER_CLIENT.loadPolicy(url, adapter);
   }
 
+  /**
+   * Determines whether the serialized response is encoded directly into the
+   * servlet output stream, instead of being built as a string and a byte array
+   * first. This keeps large responses from being copied several times over.
+   * The serialized tokens are still held in memory until the response has been
+   * written, because the wire format lists them in reverse order.
+   * <p>
+   * When writing directly, {@link #processCallForResponse(String)} is called
+   * instead of {@link #processCall(String)}, and neither
+   * {@link #onAfterResponseSerialized(String)} nor
+   * {@link #shouldCompressResponse} is called; responses are compressed if
+   * the client accepts it and they are longer than 256 bytes.
+   * <p>
+   * This implementation returns <code>true</code> if the system property
+   * {@value #WRITE_RESPONSES_DIRECTLY_PROPERTY} is set to <code>true</code>.
+   */
+  protected boolean shouldWriteResponseDirectly() {
+    return WRITE_RESPONSES_DIRECTLY;
+  }
+
   /**
    * Override this method to examine the serialized response that will be
    * returned to the client. The default implementation does nothing and need
@@ -505,19 +648,35 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     return RPCServletUtils.exceedsUncompressedContentLengthLimit(responsePayload);
   }
 
-  private SerializationPolicy getCachedSerializationPolicy(
+  /**
+   * Loads the serialization policy on a cache miss, falling back to the code
+   * server and then to the default policy.
+   */
+  private SerializationPolicy loadSerializationPolicyOrDefault(HttpServletRequest request,
       String moduleBaseURL, String strongName) {
-    synchronized (serializationPolicyCache) {
-      return serializationPolicyCache.get(moduleBaseURL + strongName);
+    SerializationPolicy serializationPolicy = doGetSerializationPolicy(request,
+        moduleBaseURL, strongName);
+
+    // Try SuperDevMode, if configured.
+    if (serializationPolicy == null) {
+      String url = getCodeServerPolicyUrl(strongName);
+      if (url != null) {
+        serializationPolicy = loadPolicyFromCodeServer(url);
+      }
     }
-  }
 
-  private void putCachedSerializationPolicy(String moduleBaseURL,
-      String strongName, SerializationPolicy serializationPolicy) {
-    synchronized (serializationPolicyCache) {
-      serializationPolicyCache.put(moduleBaseURL + strongName,
-          serializationPolicy);
+    if (serializationPolicy == null) {
+      // Failed to get the requested serialization policy; use the default
+      log(
+          "WARNING: Failed to get the SerializationPolicy '"
+              + strongName
+              + "' for module '"
+              + moduleBaseURL
+              + "'; a legacy, 1.3.3 compatible, serialization policy will be used.  You may experience SerializationExceptions as a result.");
+      serializationPolicy = RPC.getDefaultSerializationPolicy();
     }
+
+    return serializationPolicy;
   }
 
   private void writeResponse(HttpServletRequest request,
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread-safe cache of {@link SerializationPolicy} instances keyed
+ * by scope, loading configuration, module base URL and strong name.
+ * <p>
+ * Lookups of cached policies don't take any lock. Each policy is loaded at
+ * most once: concurrent requests for a policy that is being loaded wait for the
+ * first load to finish. If a load fails, nothing is cached and the next
+ * request tries again. Once the registry holds more than its maximum number of
+ * policies, the least recently used ones are evicted.
+ * <p>
+ * Scopes are compared by identity and only weakly referenced, so the policies
+ * of a scope that is no longer used, such as the
+ * {@link javax.servlet.ServletContext} of an undeployed web application, are
+ * dropped once the scope is garbage collected. Configurations are compared with
+ * {@link Object#equals}, so that callers in the same scope that would load
+ * different policies, such as servlets downloading policies from different
+ * code servers, don't share them.
+ * <p>
+ * By default, {@link RemoteServiceServlet}s that load policies the default way
+ * share the registry returned by {@link #getShared()}, scoped by their
+ * {@link javax.servlet.ServletContext} and keyed by their code server port.
+ * The size of registries created without an explicit maximum can be set with
+ * the system property {@value #MAX_SIZE_PROPERTY}.
+ */
+public class SerializationPolicyRegistry {
+
+  /**
+   * Loads a policy that is not in the registry.
+   */
+  public interface Loader {
+    /**
+     * Returns the policy, or {@code null} if there is none; {@code null} is
+     * cached like any other result.
+     */
+    SerializationPolicy load();
+  }
+
+  private static final class Entry {
+    private final FutureTask<SerializationPolicy> task;
+
+    /**
+     * The value of {@link SerializationPolicyRegistry#clock} when the entry
+     * was last used.
+     */
+    private volatile long lastAccess;
+
+    Entry(final Loader loader) {
+      task = new FutureTask<SerializationPolicy>(new Callable<SerializationPolicy>() {
+        @Override
+        public SerializationPolicy call() {
+          return loader.load();
+        }
+      });
+    }
+  }
+
+  /**
+   * Weakly references its scope. Once the scope is collected the key is only
+   * equal to itself, and is removed from the registry when it is dequeued.
+   */
+  private static final class Key extends WeakReference<Object> {
+    private final Object configuration;
+    private final int hashCode;
+    private final boolean hasScope;
+    private final String moduleBaseURL;
+    private final String strongName;
+
+    Key(Object scope, Object configuration, String moduleBaseURL, String strongName,
+        ReferenceQueue<Object> queue) {
+      super(scope, queue);
+      this.configuration = configuration;
+      this.hasScope = scope != null;
+      this.moduleBaseURL = moduleBaseURL;
+      this.strongName = strongName;
+      int result = System.identityHashCode(scope);
+      result = 31 * result + (configuration == null ? 0 : configuration.hashCode());
+      result = 31 * result + (moduleBaseURL == null ? 0 : moduleBaseURL.hashCode());
+      this.hashCode = 31 * result + (strongName == null ? 0 : strongName.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      Object scope = get();
+      return hasScope == other.hasScope && (!hasScope || scope != null)
+          && scope == other.get() && equal(configuration, other.configuration)
+          && equal(moduleBaseURL, other.moduleBaseURL)
+          && equal(strongName, other.strongName);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    private static boolean equal(Object a, Object b) {
+      return a == null ? b == null : a.equals(b);
+    }
+  }
+
+  public static final String MAX_SIZE_PROPERTY = "gwt.rpc.serializationPolicyCacheSize";
+
+  private static final int DEFAULT_MAX_SIZE = 1000;
+
+  private static final SerializationPolicyRegistry SHARED = new SerializationPolicyRegistry();
+
+  /**
+   * A logical clock used to order entries by last access.
+   */
+  private final AtomicLong clock = new AtomicLong();
+  private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+  private final AtomicLong evictionCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong loadTimeNanos = new AtomicLong();
+  private final int maxSize;
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Receives the keys whose scope was garbage collected.
+   */
+  private final ReferenceQueue<Object> staleKeys = new ReferenceQueue<Object>();
+
+  /**
+   * Returns the registry shared by the servlets in this class loader that load
+   * policies the default way.
+   */
+  public static SerializationPolicyRegistry getShared() {
+    return SHARED;
+  }
+
+  /**
+   * Creates a registry holding at most {@value #MAX_SIZE_PROPERTY} policies,
+   * or 1000 if that system property is not set.
+   */
+  public SerializationPolicyRegistry() {
+    this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+  }
+
+  /**
+   * Creates a registry holding at most {@code maxSize} policies.
+   */
+  public SerializationPolicyRegistry(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Removes all policies. The statistics are not reset.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Returns the policy for the given scope, module base URL and strong name,
+   * calling {@code loader} if it isn't in the registry yet. Equivalent to
+   * {@code get(scope, null, moduleBaseURL, strongName, loader)}.
+   */
+  public SerializationPolicy get(Object scope, String moduleBaseURL, String strongName,
+      Loader loader) {
+    return get(scope, null, moduleBaseURL, strongName, loader);
+  }
+
+  /**
+   * Returns the policy for the given scope, configuration, module base URL and
+   * strong name, calling {@code loader} if it isn't in the registry yet.
+   * Exceptions thrown by the loader are rethrown to all callers waiting for
+   * that load.
+   *
+   * @param scope the context the policy is loaded in, such as the
+   *          {@link javax.servlet.ServletContext} of the calling servlet;
+   *          compared by identity and not kept reachable by the registry
+   * @param configuration the settings of the caller that affect which policy
+   *          {@code loader} loads, or {@code null}; compared with
+   *          {@link Object#equals} and kept reachable while the policy is
+   *          cached
+   * @param moduleBaseURL as specified in the incoming payload
+   * @param strongName a strong name that uniquely identifies a serialization
+   *          policy file
+   * @param loader loads the policy if it isn't cached
+   */
+  public SerializationPolicy get(Object scope, Object configuration, String moduleBaseURL,
+      String strongName, Loader loader) {
+    expungeStaleKeys();
+    Key key = new Key(scope, configuration, moduleBaseURL, strongName, null);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      // Only keys that are stored are registered with the queue.
+      key = new Key(scope, configuration, moduleBaseURL, strongName, staleKeys);
+      Entry newEntry = new Entry(loader);
+      entry = entries.putIfAbsent(key, newEntry);
+      if (entry == null) {
+        entry = newEntry;
+        missCount.incrementAndGet();
+        entry.lastAccess = clock.incrementAndGet();
+        long start = System.nanoTime();
+        entry.task.run();
+        loadTimeNanos.addAndGet(System.nanoTime() - start);
+        evictIfNeeded(key);
+        return getResult(key, entry);
+      }
+    }
+    hitCount.incrementAndGet();
+    entry.lastAccess = clock.incrementAndGet();
+    return getResult(key, entry);
+  }
+
+  /**
+   * Returns the number of policies that were evicted to stay within the
+   * maximum size.
+   */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /**
+   * Returns the number of lookups that found a cached or loading policy.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * Returns the number of lookups that had to load a policy.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns the total time spent loading policies, in nanoseconds.
+   */
+  public long getTotalLoadTimeNanos() {
+    return loadTimeNanos.get();
+  }
+
+  /**
+   * Returns the number of policies currently in the registry.
+   */
+  public int size() {
+    expungeStaleKeys();
+    return entries.size();
+  }
+
+  @Override
+  public String toString() {
+    return "SerializationPolicyRegistry[size=" + size() + ", hits=" + getHitCount()
+        + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount()
+        + ", loadTimeMs=" + getTotalLoadTimeNanos() / 1000000 + "]";
+  }
+
+  /**
+   * Evicts least recently used entries, other than the one that was just
+   * added, until the registry is within its maximum size. Only called after a
+   * load, so the linear scan doesn't affect cache hits.
+   */
+  private void evictIfNeeded(Key added) {
+    while (entries.size() > maxSize) {
+      Map.Entry<Key, Entry> oldest = null;
+      for (Map.Entry<Key, Entry> candidate : entries.entrySet()) {
+        if (!candidate.getKey().equals(added) && (oldest == null
+            || candidate.getValue().lastAccess < oldest.getValue().lastAccess)) {
+          oldest = candidate;
+        }
+      }
+      if (oldest == null) {
+        return;
+      }
+      if (entries.remove(oldest.getKey(), oldest.getValue())) {
+        evictionCount.incrementAndGet();
+      }
+    }
+  }
+
+  private void expungeStaleKeys() {
+    Reference<?> key;
+    while ((key = staleKeys.poll()) != null) {
+      entries.remove(key);
+    }
+  }
+
+  private SerializationPolicy getResult(Key key, Entry entry) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return entry.task.get();
+        } catch (InterruptedException e) {
+          // Another thread is loading the policy; keep waiting for it.
+          interrupted = true;
+        } catch (ExecutionException e) {
+          // Don't cache failures.
+          entries.remove(key, entry);
+          Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new RuntimeException(cause);
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
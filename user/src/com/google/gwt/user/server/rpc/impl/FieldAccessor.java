@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes one serializable field. Everything the RPC streams need to
+ * know about the field is computed once, when the accessor is created, rather
+ * than for every object that is serialized.
+ * <p>
+ * There are two implementations: one that uses {@link Field#get} and
+ * {@link Field#set}, and one that uses {@link MethodHandle}s adapted to
+ * {@code (Object)Object} and {@code (Object, Object)void}, which avoids the
+ * reflective access checks. Both behave the same way; in particular, setting a
+ * value of the wrong type throws an {@link IllegalArgumentException}.
+ * <p>
+ * For internal use only.
+ */
+public abstract class FieldAccessor {
+
+  /**
+   * Accesses the field through {@link MethodHandle}s.
+   */
+  private static class MethodHandleFieldAccessor extends FieldAccessor {
+    private static final MethodType GETTER_TYPE =
+        MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE =
+        MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    MethodHandleFieldAccessor(Field field) throws IllegalAccessException {
+      super(field);
+      field.setAccessible(true);
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+      setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+    }
+
+    @Override
+    public Object get(Object instance) {
+      try {
+        return (Object) getter.invokeExact(instance);
+      } catch (ClassCastException e) {
+        IllegalArgumentException iae = new IllegalArgumentException("Can not get field "
+            + getField().getDeclaringClass().getName() + "." + getName() + " from "
+            + instance.getClass().getName());
+        iae.initCause(e);
+        throw iae;
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+      try {
+        setter.invokeExact(instance, value);
+      } catch (ClassCastException e) {
+        throw newIllegalArgumentException(value, e);
+      } catch (NullPointerException e) {
+        if (instance == null) {
+          throw e;
+        }
+        // Null assigned to a primitive field.
+        throw newIllegalArgumentException(value, e);
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    private IllegalArgumentException newIllegalArgumentException(Object value,
+        RuntimeException cause) {
+      IllegalArgumentException e = new IllegalArgumentException("Can not set "
+          + getType().getName() + " field " + getField().getDeclaringClass().getName() + "."
+          + getName() + " to " + (value == null ? "null value" : value.getClass().getName()));
+      e.initCause(cause);
+      return e;
+    }
+  }
+
+  /**
+   * Accesses the field through reflection.
+   */
+  private static class ReflectiveFieldAccessor extends FieldAccessor {
+    ReflectiveFieldAccessor(Field field) {
+      super(field);
+      boolean needsAccessOverride = (!field.isAccessible()
+          && !Modifier.isPublic(field.getModifiers()))
+          || Modifier.isFinal(field.getModifiers());
+      if (needsAccessOverride) {
+        // Override access restrictions
+        field.setAccessible(true);
+      }
+    }
+
+    @Override
+    public Object get(Object instance) throws IllegalAccessException {
+      return getField().get(instance);
+    }
+
+    @Override
+    public void set(Object instance, Object value) throws IllegalAccessException {
+      getField().set(instance, value);
+    }
+  }
+
+  /**
+   * Creates an accessor for a field.
+   *
+   * @param field the field to access
+   * @param useMethodHandles whether to access the field through
+   *          {@link MethodHandle}s rather than reflection
+   */
+  public static FieldAccessor create(Field field, boolean useMethodHandles) {
+    if (useMethodHandles) {
+      try {
+        return new MethodHandleFieldAccessor(field);
+      } catch (IllegalAccessException e) {
+        // Fall back to reflection, which reports access problems when used.
+      } catch (SecurityException e) {
+        // Likewise.
+      }
+    }
+    return new ReflectiveFieldAccessor(field);
+  }
+
+  private final Field field;
+  private final Type genericType;
+  private final String name;
+  private final Class<?> type;
+
+  private FieldAccessor(Field field) {
+    this.field = field;
+    this.genericType = field.getGenericType();
+    this.name = field.getName();
+    this.type = field.getType();
+  }
+
+  /**
+   * Returns the value of the field in {@code instance}.
+   *
+   * @throws IllegalAccessException if the field can't be accessed
+   * @throws IllegalArgumentException if {@code instance} doesn't have the field
+   */
+  public abstract Object get(Object instance) throws IllegalAccessException;
+
+  public Field getField() {
+    return field;
+  }
+
+  public Type getGenericType() {
+    return genericType;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * Sets the field in {@code instance} to {@code value}, unboxing it if the
+   * field has a primitive type.
+   *
+   * @throws IllegalAccessException if the field can't be accessed
+   * @throws IllegalArgumentException if {@code value} can't be assigned to the
+   *           field
+   */
+  public abstract void set(Object instance, Object value) throws IllegalAccessException;
+}
@@ -27,6 +27,7 @@ import com.google.gwt.user.server.rpc.ServerCustomFieldSerializer;
 
 import java.io.UnsupportedEncodingException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.Modifier;
@@ -74,6 +75,38 @@ public class SerializabilityUtil {
   private static final Map<Class<?>, Field[]> classSerializableFieldsCache =
       new ConcurrentHashMap<Class<?>, Field[]>();
 
+  /**
+   * Like {@link #classSerializableFieldsCache}, for policies that serialize
+   * final fields.
+   */
+  private static final Map<Class<?>, Field[]> classSerializableFinalFieldsCache =
+      new ConcurrentHashMap<Class<?>, Field[]>();
+
+  /**
+   * A cache of the accessors for the serializable fields of classes, in the
+   * same order as {@link #classSerializableFieldsCache}. Cleared when the
+   * field access mode changes.
+   */
+  private static final Map<Class<?>, FieldAccessor[]> classFieldAccessorsCache =
+      new ConcurrentHashMap<Class<?>, FieldAccessor[]>();
+
+  /**
+   * Like {@link #classFieldAccessorsCache}, for policies that serialize final
+   * fields.
+   */
+  private static final Map<Class<?>, FieldAccessor[]> classFinalFieldAccessorsCache =
+      new ConcurrentHashMap<Class<?>, FieldAccessor[]>();
+
+  /**
+   * The system property that selects {@link MethodHandle}-based field access
+   * when set to <code>true</code>.
+   */
+  public static final String METHOD_HANDLE_FIELD_ACCESS_PROPERTY =
+      "gwt.rpc.methodHandleFieldAccess";
+
+  private static volatile boolean useMethodHandleFieldAccess =
+      Boolean.getBoolean(METHOD_HANDLE_FIELD_ACCESS_PROPERTY);
+
   /**
    * A permanent cache of all which classes onto custom field serializers. This
    * is safe to do because a Class is guaranteed not to change within the
@@ -186,7 +219,9 @@ public class SerializabilityUtil {
   }
 
   private static Field[] applyFieldSerializationPolicy(Class<?> clazz, boolean includeFinalFields) {
-    Field[] serializableFields = classSerializableFieldsCache.get(clazz);
+    Map<Class<?>, Field[]> cache =
+        includeFinalFields ? classSerializableFinalFieldsCache : classSerializableFieldsCache;
+    Field[] serializableFields = cache.get(clazz);
     if (serializableFields == null) {
       ArrayList<Field> fieldList = new ArrayList<Field>();
       Field[] fields = clazz.getDeclaredFields();
@@ -200,11 +235,34 @@ public class SerializabilityUtil {
       // sort the fields by name
       Arrays.sort(serializableFields, 0, serializableFields.length, FIELD_COMPARATOR);
 
-      classSerializableFieldsCache.put(clazz, serializableFields);
+      cache.put(clazz, serializableFields);
     }
     return serializableFields;
   }
 
+  /**
+   * Returns accessors for the fields returned by
+   * {@link #applyFieldSerializationPolicy(Class, SerializationPolicy)}, in the
+   * same order. The accessors use {@link MethodHandle}s if the system property
+   * {@value #METHOD_HANDLE_FIELD_ACCESS_PROPERTY} is <code>true</code>, and
+   * reflection otherwise.
+   */
+  public static FieldAccessor[] getFieldAccessors(Class<?> clazz, SerializationPolicy policy) {
+    boolean includeFinalFields = policy.shouldSerializeFinalFields();
+    Map<Class<?>, FieldAccessor[]> cache =
+        includeFinalFields ? classFinalFieldAccessorsCache : classFieldAccessorsCache;
+    FieldAccessor[] accessors = cache.get(clazz);
+    if (accessors == null) {
+      Field[] fields = applyFieldSerializationPolicy(clazz, includeFinalFields);
+      accessors = new FieldAccessor[fields.length];
+      for (int i = 0; i < fields.length; i++) {
+        accessors[i] = FieldAccessor.create(fields[i], useMethodHandleFieldAccess);
+      }
+      cache.put(clazz, accessors);
+    }
+    return accessors;
+  }
+
   public static SerializedInstanceReference decodeSerializedInstanceReference(
       String encodedSerializedInstanceReference) {
     final String[] components =
@@ -485,6 +543,16 @@ public class SerializabilityUtil {
     return false;
   }
 
+  /**
+   * Switches between {@link MethodHandle}-based and reflective field access.
+   * Visible for tests and benchmarks.
+   */
+  static void setMethodHandleFieldAccess(boolean enabled) {
+    useMethodHandleFieldAccess = enabled;
+    classFieldAccessorsCache.clear();
+    classFinalFieldAccessorsCache.clear();
+  }
+
   static boolean isNotStaticOrTransient(Field field) {
     int fieldModifiers = field.getModifiers();
     return !Modifier.isStatic(fieldModifiers)
@@ -35,7 +35,6 @@ import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
@@ -821,18 +820,17 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
       setters = getSetters(instanceClass);
     }
 
-    Field[] serializableFields = SerializabilityUtil.applyFieldSerializationPolicy(instanceClass,
+    FieldAccessor[] accessors = SerializabilityUtil.getFieldAccessors(instanceClass,
         serializationPolicy);
-    for (Field declField : serializableFields) {
-      assert (declField != null);
-      if ((clientFieldNames != null) && !clientFieldNames.contains(declField.getName())) {
+    for (FieldAccessor accessor : accessors) {
+      String fieldName = accessor.getName();
+      if ((clientFieldNames != null) && !clientFieldNames.contains(fieldName)) {
         continue;
       }
 
-      Type declGenericType = declField.getGenericType();
-      Object value = deserializeValue(declField.getType(), declGenericType, resolvedTypes);
+      Object value = deserializeValue(accessor.getType(), accessor.getGenericType(),
+          resolvedTypes);
 
-      String fieldName = declField.getName();
       Method setter;
       /*
        * If setters is non-null and there is a setter method for the given
@@ -844,16 +842,7 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
       if ((setters != null) && ((setter = setters.get(fieldName)) != null)) {
         setter.invoke(instance, value);
       } else {
-        boolean isAccessible = declField.isAccessible();
-        boolean needsAccessOverride = (!isAccessible
-            && !Modifier.isPublic(declField.getModifiers()))
-            || Modifier.isFinal(declField.getModifiers());
-        if (needsAccessOverride) {
-          // Override access restrictions
-          declField.setAccessible(true);
-        }
-
-        declField.set(instance, value);
+        accessor.set(instance, value);
       }
     }
 
@@ -24,10 +24,11 @@ import com.google.gwt.user.server.rpc.SerializationPolicy;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
@@ -100,6 +101,61 @@ public final class ServerSerializationStreamWriter extends
     }
   }
 
+  /**
+   * Writes the same output as {@link LengthConstrainedArray} directly to a
+   * {@link Writer}, without buffering the array.
+   */
+  private static class LengthConstrainedArrayWriter {
+    private int count = 0;
+    private boolean needsComma = false;
+    private final Writer out;
+    private int total = 0;
+
+    LengthConstrainedArrayWriter(Writer out) throws IOException {
+      this.out = out;
+      out.write('[');
+    }
+
+    void addToken(String token) throws IOException {
+      beginToken();
+      out.write(String.valueOf(token));
+    }
+
+    void addToken(int i) throws IOException {
+      addToken(String.valueOf(i));
+    }
+
+    /**
+     * Starts a token that the caller writes to the underlying writer itself.
+     */
+    void beginToken() throws IOException {
+      total++;
+      if (count++ == LengthConstrainedArray.MAXIMUM_ARRAY_LENGTH) {
+        if (total == LengthConstrainedArray.MAXIMUM_ARRAY_LENGTH + 1) {
+          out.write(LengthConstrainedArray.PRELUDE);
+        } else {
+          out.write("],[");
+        }
+        count = 0;
+        needsComma = false;
+      }
+
+      if (needsComma) {
+        out.write(',');
+      } else {
+        needsComma = true;
+      }
+    }
+
+    void close() throws IOException {
+      if (total > LengthConstrainedArray.MAXIMUM_ARRAY_LENGTH) {
+        out.write(LengthConstrainedArray.POSTLUDE);
+      } else {
+        out.write(']');
+      }
+    }
+  }
+
   /**
    * Enumeration used to provided typed instance writers.
    */
@@ -601,12 +657,39 @@ public final class ServerSerializationStreamWriter extends
     // We take a guess at how big to make to buffer to avoid numerous resizes.
     //
     int capacityGuess = 2 * tokenListCharCount + 2 * tokenList.size();
-    LengthConstrainedArray stream = new LengthConstrainedArray(capacityGuess);
+    StringWriter out = new StringWriter(capacityGuess);
+    try {
+      writeTo(out);
+    } catch (IOException e) {
+      throw new RuntimeException("Unexpected IOException from StringWriter", e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Returns an estimate of the number of characters {@link #writeTo(Writer)}
+   * will write, not counting escape sequences.
+   */
+  public int getEstimatedLength() {
+    int length = tokenListCharCount + tokenList.size();
+    for (String s : getStringTable()) {
+      length += s.length() + 3;
+    }
+    return length;
+  }
+
+  /**
+   * Writes the same JavaScript array as {@link #toString()} to a
+   * {@link Writer}. Apart from the string table entries, which are escaped one
+   * at a time, nothing is buffered beyond the tokens already held by this
+   * stream.
+   */
+  public void writeTo(Writer out) throws IOException {
+    LengthConstrainedArrayWriter stream = new LengthConstrainedArrayWriter(out);
     writePayload(stream);
-    writeStringTable(stream);
+    writeStringTable(stream, out);
     writeHeader(stream);
-
-    return stream.toString();
+    stream.close();
   }
   
   @Override
@@ -738,24 +821,18 @@ public final class ServerSerializationStreamWriter extends
     }
     
     // Write the client-visible field data
-    for (Field declField : serializableFields) {
-      if ((clientFieldNames != null) && !clientFieldNames.contains(declField.getName())) {
+    FieldAccessor[] accessors = SerializabilityUtil.getFieldAccessors(instanceClass,
+        serializationPolicy);
+    for (FieldAccessor accessor : accessors) {
+      if ((clientFieldNames != null) && !clientFieldNames.contains(accessor.getName())) {
         // Skip server-only fields
         continue;
       }
 
-      boolean isAccessible = declField.isAccessible();
-      boolean needsAccessOverride = !isAccessible
-          && !Modifier.isPublic(declField.getModifiers());
-      if (needsAccessOverride) {
-        // Override the access restrictions
-        declField.setAccessible(true);
-      }
-
       Object value;
       try {
-        value = declField.get(instance);
-        serializeValue(value, declField.getType());
+        value = accessor.get(instance);
+        serializeValue(value, accessor.getType());
 
       } catch (IllegalArgumentException e) {
         throw new SerializationException(e);
@@ -832,23 +909,26 @@ public final class ServerSerializationStreamWriter extends
    * Notice that the field are written in reverse order that the client can just
    * pop items out of the stream.
    */
-  private void writeHeader(LengthConstrainedArray stream) {
+  private void writeHeader(LengthConstrainedArrayWriter stream) throws IOException {
     stream.addToken(getFlags());
     stream.addToken(getVersion());
   }
 
-  private void writePayload(LengthConstrainedArray stream) {
+  private void writePayload(LengthConstrainedArrayWriter stream) throws IOException {
     ListIterator<String> tokenIterator = tokenList.listIterator(tokenList.size());
     while (tokenIterator.hasPrevious()) {
       stream.addToken(tokenIterator.previous());
     }
   }
 
-  private void writeStringTable(LengthConstrainedArray stream) {
-    LengthConstrainedArray tableStream = new LengthConstrainedArray();
+  private void writeStringTable(LengthConstrainedArrayWriter stream, Writer out)
+      throws IOException {
+    // The string table is a single token holding a nested array.
+    stream.beginToken();
+    LengthConstrainedArrayWriter tableStream = new LengthConstrainedArrayWriter(out);
     for (String s : getStringTable()) {
       tableStream.addToken(escapeStringSplitNodes(s));
     }
-    stream.addToken(tableStream.toString());
+    tableStream.close();
   }
 }
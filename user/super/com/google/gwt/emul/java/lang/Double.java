@@ -253,10 +253,22 @@ public final class Double extends Number implements Comparable<Double> {
     return negative ? -d : d;
   }
 
+  public static double max(double a, double b) {
+    return Math.max(a, b);
+  }
+
+  public static double min(double a, double b) {
+    return Math.min(a, b);
+  }
+
   public static double parseDouble(String s) throws NumberFormatException {
     return __parseAndValidateDouble(s);
   }
 
+  public static double sum(double a, double b) {
+    return a + b;
+  }
+
   public static String toString(double b) {
     return String.valueOf(b);
   }
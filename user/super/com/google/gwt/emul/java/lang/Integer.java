@@ -98,6 +98,14 @@ public final class Integer extends Number implements Comparable<Integer> {
     return i & -i;
   }
 
+  public static int max(int a, int b) {
+    return Math.max(a, b);
+  }
+
+  public static int min(int a, int b) {
+    return Math.min(a, b);
+  }
+
   public static int numberOfLeadingZeros(int i) {
     // Based on Henry S. Warren, Jr: "Hacker's Delight", p. 80.
     if (i < 0) {
@@ -197,6 +205,10 @@ public final class Integer extends Number implements Comparable<Integer> {
     }
   }
 
+  public static int sum(int a, int b) {
+    return a + b;
+  }
+
   public static String toBinaryString(int value) {
     return toUnsignedRadixString(value, 2);
   }
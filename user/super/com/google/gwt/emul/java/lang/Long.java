@@ -74,6 +74,14 @@ public final class Long extends Number implements Comparable<Long> {
     return i & -i;
   }
 
+  public static long max(long a, long b) {
+    return Math.max(a, b);
+  }
+
+  public static long min(long a, long b) {
+    return Math.min(a, b);
+  }
+
   public static int numberOfLeadingZeros(long i) {
     int high = (int) (i >> 32);
     if (high != 0) {
@@ -145,6 +153,10 @@ public final class Long extends Number implements Comparable<Long> {
     }
   }
 
+  public static long sum(long a, long b) {
+    return a + b;
+  }
+
   public static String toBinaryString(long value) {
     return toPowerOfTwoUnsignedString(value, 1);
   }
@@ -233,7 +233,7 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
    * hashCode.
    */
   private V getHashValue(Object key) {
-    return getEntryValueOrNull(hashCodeMap.getEntry(key));
+    return hashCodeMap.get(key);
   }
 
   /**
@@ -250,7 +250,7 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
    * <code>hashCode</code>.
    */
   private boolean hasHashValue(Object key) {
-    return hashCodeMap.getEntry(key) != null;
+    return hashCodeMap.containsKey(key);
   }
 
   /**
@@ -17,12 +17,14 @@ package java.util;
 
 import static com.google.gwt.core.shared.impl.InternalPreconditions.checkArgument;
 import static com.google.gwt.core.shared.impl.InternalPreconditions.checkElementIndex;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
 import static com.google.gwt.core.shared.impl.InternalPreconditions.checkPositionIndex;
 import static com.google.gwt.core.shared.impl.InternalPreconditions.checkPositionIndexes;
 
 import com.google.gwt.lang.Array;
 
 import java.io.Serializable;
+import java.util.function.Consumer;
 
 /**
  * Resizeable array implementation of the List interface. <a
@@ -45,6 +47,62 @@ import java.io.Serializable;
 public class ArrayList<E> extends AbstractList<E> implements List<E>,
     Cloneable, RandomAccess, Serializable {
 
+  /**
+   * A spliterator that binds to the backing array when it is first traversed or sized, so that a
+   * stream sees the elements added after its creation, as in the JRE.
+   */
+  private final class ArrayListSpliterator implements Spliterator<E> {
+    private E[] elements;
+    private int index;
+    private int limit;
+
+    @Override
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+
+    @Override
+    public long estimateSize() {
+      bind();
+      return limit - index;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> consumer) {
+      checkNotNull(consumer);
+      bind();
+      E[] elements = this.elements;
+      int i = index;
+      index = limit;
+      for (; i < limit; i++) {
+        consumer.accept(elements[i]);
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> consumer) {
+      checkNotNull(consumer);
+      bind();
+      if (index < limit) {
+        consumer.accept(elements[index++]);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+      return null;
+    }
+
+    private void bind() {
+      if (elements == null) {
+        elements = array;
+        limit = elements.length;
+      }
+    }
+  }
+
   private static native void splice(Object[] array, int index, int deleteCount) /*-{
     array.splice(index, deleteCount);
   }-*/;
@@ -186,6 +244,15 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>,
     return array.length;
   }
 
+  /*
+   * Traverses the backing array in a single loop, which is what streams over an ArrayList push
+   * their elements through.
+   */
+  @Override
+  public Spliterator<E> spliterator() {
+    return new ArrayListSpliterator();
+  }
+
   @Override
   public Object[] toArray() {
     return Array.cloneSubrange(array, 0, array.length);
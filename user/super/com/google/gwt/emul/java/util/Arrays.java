@@ -28,6 +28,11 @@ import com.google.gwt.core.client.UnsafeNativeLong;
 import com.google.gwt.lang.Array;
 
 import java.io.Serializable;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility methods related to native arrays. <a
@@ -1070,6 +1075,74 @@ public class Arrays {
     mergeSort(x, fromIndex, toIndex, c);
   }
 
+  public static Spliterator.OfDouble spliterator(double[] array) {
+    return spliterator(array, 0, array.length);
+  }
+
+  public static Spliterator.OfDouble spliterator(double[] array, int fromIndex, int toIndex) {
+    return Spliterators.spliterator(array, fromIndex, toIndex,
+        Spliterator.ORDERED | Spliterator.IMMUTABLE);
+  }
+
+  public static Spliterator.OfInt spliterator(int[] array) {
+    return spliterator(array, 0, array.length);
+  }
+
+  public static Spliterator.OfInt spliterator(int[] array, int fromIndex, int toIndex) {
+    return Spliterators.spliterator(array, fromIndex, toIndex,
+        Spliterator.ORDERED | Spliterator.IMMUTABLE);
+  }
+
+  public static Spliterator.OfLong spliterator(long[] array) {
+    return spliterator(array, 0, array.length);
+  }
+
+  public static Spliterator.OfLong spliterator(long[] array, int fromIndex, int toIndex) {
+    return Spliterators.spliterator(array, fromIndex, toIndex,
+        Spliterator.ORDERED | Spliterator.IMMUTABLE);
+  }
+
+  public static <T> Spliterator<T> spliterator(T[] array) {
+    return spliterator(array, 0, array.length);
+  }
+
+  public static <T> Spliterator<T> spliterator(T[] array, int fromIndex, int toIndex) {
+    return Spliterators.spliterator(array, fromIndex, toIndex,
+        Spliterator.ORDERED | Spliterator.IMMUTABLE);
+  }
+
+  public static DoubleStream stream(double[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static DoubleStream stream(double[] array, int fromIndex, int toIndex) {
+    return StreamSupport.doubleStream(spliterator(array, fromIndex, toIndex), false);
+  }
+
+  public static IntStream stream(int[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static IntStream stream(int[] array, int fromIndex, int toIndex) {
+    return StreamSupport.intStream(spliterator(array, fromIndex, toIndex), false);
+  }
+
+  public static LongStream stream(long[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static LongStream stream(long[] array, int fromIndex, int toIndex) {
+    return StreamSupport.longStream(spliterator(array, fromIndex, toIndex), false);
+  }
+
+  public static <T> Stream<T> stream(T[] array) {
+    return stream(array, 0, array.length);
+  }
+
+  public static <T> Stream<T> stream(T[] array, int fromIndex, int toIndex) {
+    return StreamSupport.stream(spliterator(array, fromIndex, toIndex), false);
+  }
+
   public static String toString(boolean[] a) {
     if (a == null) {
       return "null";
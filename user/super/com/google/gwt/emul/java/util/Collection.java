@@ -17,6 +17,8 @@ package java.util;
 
 import java.util.function.Predicate;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * General-purpose interface for storing collections of objects. <a
@@ -70,19 +72,18 @@ public interface Collection<E> extends Iterable<E> {
     return modified;
   }
 
-//  TODO implement Spliterator and Stream
-//  default Spliterator<E> spliterator() {
-//      return Spliterators.spliterator(this, 0);
-//  }
-//
-//  default Stream<E> stream() {
-//      return StreamSupport.stream(spliterator(), false);
-//  }
-//
-//  default Stream<E> parallelStream() {
-//      return StreamSupport.stream(spliterator(), true);
-//  }
-  
+  default Spliterator<E> spliterator() {
+    return Spliterators.spliterator(this, 0);
+  }
+
+  default Stream<E> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  default Stream<E> parallelStream() {
+    return StreamSupport.stream(spliterator(), true);
+  }
+
   default void forEach(Consumer<E> c) {
     for (E e : this) {
       c.accept(e);
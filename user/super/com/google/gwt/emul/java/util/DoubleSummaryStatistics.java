@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/DoubleSummaryStatistics.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * Like the JRE, the sum is compensated for the rounding errors of the additions (Kahan
+ * summation).
+ */
+public class DoubleSummaryStatistics implements DoubleConsumer {
+
+  private long count;
+  private double max = Double.NEGATIVE_INFINITY;
+  private double min = Double.POSITIVE_INFINITY;
+
+  /**
+   * The uncompensated sum, which is returned if the compensated one is NaN, as it is when one of
+   * the values is infinite.
+   */
+  private double naiveSum;
+
+  private double sum;
+  private double sumError;
+
+  @Override
+  public void accept(double value) {
+    count++;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    naiveSum += value;
+    addToSum(value);
+  }
+
+  public void combine(DoubleSummaryStatistics other) {
+    count += other.count;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    naiveSum += other.naiveSum;
+    addToSum(other.sum);
+    addToSum(-other.sumError);
+  }
+
+  public final double getAverage() {
+    return count > 0 ? getSum() / count : 0.0;
+  }
+
+  public final long getCount() {
+    return count;
+  }
+
+  public final double getMax() {
+    return max;
+  }
+
+  public final double getMin() {
+    return min;
+  }
+
+  public final double getSum() {
+    double compensatedSum = sum - sumError;
+    if (Double.isNaN(compensatedSum) && Double.isInfinite(naiveSum)) {
+      return naiveSum;
+    }
+    return compensatedSum;
+  }
+
+  @Override
+  public String toString() {
+    return "DoubleSummaryStatistics{count=" + count + ", sum=" + getSum() + ", min=" + min
+        + ", average=" + getAverage() + ", max=" + max + "}";
+  }
+
+  private void addToSum(double value) {
+    double compensatedValue = value - sumError;
+    double newSum = sum + compensatedValue;
+    sumError = (newSum - sum) - compensatedValue;
+    sum = newSum;
+  }
+}
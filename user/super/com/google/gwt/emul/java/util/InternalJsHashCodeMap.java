@@ -141,6 +141,14 @@ class InternalJsHashCodeMap<K, V> {
     return null;
   }
 
+  public V get(Object key) {
+    return AbstractMap.getEntryValueOrNull(getEntry(key));
+  }
+
+  public boolean containsKey(Object key) {
+    return getEntry(key) != null;
+  }
+
   public Map.Entry<K, V> getEntry(Object key) {
     for (Entry<K, V> entry : getChainOrEmpty(hash(key))) {
       if (host.equals(key, entry.getKey())) {
@@ -57,6 +57,17 @@ class InternalJsMapFactory {
     }
   }
 
+  /**
+   * A {@code InternalJsMapFactory} that returns open addressing hash code maps, see
+   * {@link InternalOpenAddressingHashCodeMap}. String maps are still chosen by capability check.
+   */
+  static class OpenAddressingJsMapFactory extends BackwardCompatibleJsMapFactory {
+    @Override
+    public <K, V> InternalJsHashCodeMap<K, V> createJsHashCodeMap() {
+      return new InternalOpenAddressingHashCodeMap<K, V>();
+    }
+  }
+
   /**
    * A replacement factory that chooses best JS map implementation based on capability check.
    */
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkElement;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkState;
+
+import com.google.gwt.core.client.JavaScriptObject;
+
+import java.util.Map.Entry;
+
+/**
+ * A hash code map that stores keys, values and hash codes in parallel arrays and resolves
+ * collisions by linear probing, instead of keeping an array of entries per hash code in a JS
+ * object. Lookups then neither allocate nor convert the hash code to a property name. Selected by
+ * setting the {@code jre.hashCodeMap} property to {@code openaddressing}.
+ * <p>
+ * Implementation notes:
+ * <p>
+ * A null key is stored as {@link #NULL_KEY}. Removed slots are marked with {@link #REMOVED} rather
+ * than backfilled, so that removing through an iterator never moves an entry the iterator has
+ * already passed. The table is rebuilt once live and removed slots fill half of it.
+ */
+class InternalOpenAddressingHashCodeMap<K, V> extends InternalJsHashCodeMap<K, V> {
+
+  /**
+   * An entry that reads and writes its slot directly as long as the table has not been rebuilt or
+   * the slot reused, and looks its key up again otherwise. Once the key is removed from the map,
+   * the entry keeps the last value it saw.
+   */
+  private final class SlotEntry extends AbstractMapEntry<K, V> {
+    private final Object[] entryKeys;
+    private final Object key;
+    private final int slot;
+    private V value;
+
+    SlotEntry(int slot) {
+      this.entryKeys = keys;
+      this.key = keys[slot];
+      this.slot = slot;
+      this.value = (V) values[slot];
+    }
+
+    @Override
+    public K getKey() {
+      return unmaskNull(key);
+    }
+
+    @Override
+    public V getValue() {
+      int index = currentSlot();
+      if (index >= 0) {
+        value = (V) values[index];
+      }
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      V previous = getValue();
+      int index = currentSlot();
+      if (index >= 0) {
+        values[index] = value;
+      }
+      this.value = value;
+      return previous;
+    }
+
+    private int currentSlot() {
+      if (entryKeys == keys && keys[slot] == key) {
+        return slot;
+      }
+      int index = findSlot(key, hash(key));
+      return keys[index] == null ? -1 : index;
+    }
+  }
+
+  private static final int MIN_CAPACITY = 16;
+
+  private static final Object NULL_KEY = new Object();
+
+  private static final Object REMOVED = new Object();
+
+  /**
+   * Scrambles the bits of a hash code so that keys with regular hash codes, such as consecutive
+   * or aligned integers, spread over the table.
+   */
+  private static int mix(int hashCode) {
+    hashCode = ~hashCode + (hashCode << 15);
+    hashCode = hashCode ^ (hashCode >>> 12);
+    hashCode = hashCode + (hashCode << 2);
+    hashCode = hashCode ^ (hashCode >>> 4);
+    hashCode = hashCode * 2057;
+    return hashCode ^ (hashCode >>> 16);
+  }
+
+  private static Object maskNull(Object key) {
+    return key == null ? NULL_KEY : key;
+  }
+
+  private static <K> K unmaskNull(Object key) {
+    return key == NULL_KEY ? null : (K) key;
+  }
+
+  private int[] hashes;
+
+  private Object[] keys;
+
+  private int mask;
+
+  private int removed;
+
+  private int size;
+
+  private Object[] values;
+
+  InternalOpenAddressingHashCodeMap() {
+    allocate(MIN_CAPACITY);
+  }
+
+  @Override
+  JavaScriptObject createMap() {
+    // The backing JS object of the super class is not used.
+    return null;
+  }
+
+  @Override
+  public V put(K key, V value) {
+    Object maskedKey = maskNull(key);
+    int hash = hash(maskedKey);
+    int slot = findSlot(maskedKey, hash);
+    if (keys[slot] != null) {
+      V previous = (V) values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    insert(maskedKey, hash, value);
+    host.elementAdded();
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    Object maskedKey = maskNull(key);
+    int slot = findSlot(maskedKey, hash(maskedKey));
+    if (keys[slot] == null) {
+      return null;
+    }
+    V previous = (V) values[slot];
+    removeSlot(slot);
+    host.elementRemoved();
+    return previous;
+  }
+
+  @Override
+  public V get(Object key) {
+    Object maskedKey = maskNull(key);
+    int slot = findSlot(maskedKey, hash(maskedKey));
+    return keys[slot] == null ? null : (V) values[slot];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    Object maskedKey = maskNull(key);
+    return keys[findSlot(maskedKey, hash(maskedKey))] != null;
+  }
+
+  @Override
+  public Entry<K, V> getEntry(Object key) {
+    Object maskedKey = maskNull(key);
+    int slot = findSlot(maskedKey, hash(maskedKey));
+    return keys[slot] == null ? null : new SlotEntry(slot);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (isLive(keys[slot]) && host.equals(value, values[slot])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Iterator<Entry<K, V>> entries() {
+    return new Iterator<Entry<K, V>>() {
+      // A rebuild can only be triggered by an insertion, which the host reports as a concurrent
+      // modification, so the iterator can hold on to the arrays it started with.
+      final Object[] iteratedKeys = keys;
+      int next = nextLiveSlot(iteratedKeys, 0);
+      int last = -1;
+
+      @Override
+      public boolean hasNext() {
+        return next < iteratedKeys.length;
+      }
+
+      @Override
+      public Entry<K, V> next() {
+        checkElement(hasNext());
+
+        last = next;
+        next = nextLiveSlot(iteratedKeys, next + 1);
+        return new SlotEntry(last);
+      }
+
+      @Override
+      public void remove() {
+        checkState(last != -1);
+
+        InternalOpenAddressingHashCodeMap.this.remove(unmaskNull(iteratedKeys[last]));
+        last = -1;
+      }
+    };
+  }
+
+  private void allocate(int capacity) {
+    hashes = new int[capacity];
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+    removed = 0;
+  }
+
+  /**
+   * Returns the slot holding {@code maskedKey}, or the empty slot that ends its probe sequence if
+   * the key is not in the map.
+   */
+  private int findSlot(Object maskedKey, int hash) {
+    for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      Object slotKey = keys[slot];
+      if (slotKey == null) {
+        return slot;
+      }
+      if (slotKey == maskedKey
+          || (slotKey != REMOVED && hashes[slot] == hash && host.equals(maskedKey, slotKey))) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the hash code of a key in the form stored in the map, see
+   * {@link AbstractHashMap#getHashCode(Object)}.
+   */
+  private int hash(Object maskedKey) {
+    return maskedKey == NULL_KEY ? 0 : host.getHashCode(maskedKey);
+  }
+
+  /**
+   * Stores a key known to be absent, reusing the first removed slot of its probe sequence.
+   */
+  private void insert(Object maskedKey, int hash, V value) {
+    int slot = mix(hash) & mask;
+    while (isLive(keys[slot])) {
+      slot = (slot + 1) & mask;
+    }
+    if (keys[slot] == REMOVED) {
+      removed--;
+    }
+    hashes[slot] = hash;
+    keys[slot] = maskedKey;
+    values[slot] = value;
+    size++;
+    if ((size + removed) * 2 > keys.length) {
+      rehash(size * 4 > keys.length ? keys.length * 2 : keys.length);
+    }
+  }
+
+  private boolean isLive(Object slotKey) {
+    return slotKey != null && slotKey != REMOVED;
+  }
+
+  private int nextLiveSlot(Object[] slotKeys, int slot) {
+    while (slot < slotKeys.length && !isLive(slotKeys[slot])) {
+      slot++;
+    }
+    return slot;
+  }
+
+  private void rehash(int capacity) {
+    int[] oldHashes = hashes;
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (isLive(oldKeys[i])) {
+        int slot = mix(oldHashes[i]) & mask;
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        hashes[slot] = oldHashes[i];
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void removeSlot(int slot) {
+    keys[slot] = REMOVED;
+    values[slot] = null;
+    size--;
+    removed++;
+  }
+}
@@ -80,10 +80,11 @@ public interface List<E> extends Collection<E> {
   default void sort(Comparator<? super E> comp) {
     Collections.sort(this, comp);
   }
-//  TODO implement Spliterator
-//  default Spliterator<E> spliterator() {
-//    return Spliterators.spliterator(this, Spliterator.ORDERED);
-//  }
+
+  @Override
+  default Spliterator<E> spliterator() {
+    return Spliterators.spliterator(this, Spliterator.ORDERED);
+  }
 
   List<E> subList(int fromIndex, int toIndex);
 
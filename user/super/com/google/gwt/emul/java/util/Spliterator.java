@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterator.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * Streams never run in parallel in JavaScript, so the spliterators of the emulated JRE don't
+ * split: {@link #trySplit()} returns {@code null}.
+ *
+ * @param <T> element type
+ */
+public interface Spliterator<T> {
+
+  int DISTINCT = 0x00000001;
+
+  int SORTED = 0x00000004;
+
+  int ORDERED = 0x00000010;
+
+  int SIZED = 0x00000040;
+
+  int NONNULL = 0x00000100;
+
+  int IMMUTABLE = 0x00000400;
+
+  int CONCURRENT = 0x00001000;
+
+  int SUBSIZED = 0x00004000;
+
+  int characteristics();
+
+  long estimateSize();
+
+  default void forEachRemaining(Consumer<? super T> consumer) {
+    checkNotNull(consumer);
+    while (tryAdvance(consumer)) {
+    }
+  }
+
+  default Comparator<? super T> getComparator() {
+    throw new IllegalStateException();
+  }
+
+  default long getExactSizeIfKnown() {
+    return hasCharacteristics(SIZED) ? estimateSize() : -1L;
+  }
+
+  default boolean hasCharacteristics(int characteristics) {
+    return (characteristics() & characteristics) == characteristics;
+  }
+
+  boolean tryAdvance(Consumer<? super T> consumer);
+
+  Spliterator<T> trySplit();
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterator.OfPrimitive.html">the
+   * official Java API doc</a> for details.
+   *
+   * @param <T> boxed element type
+   * @param <C> consumer type
+   * @param <S> spliterator type
+   */
+  interface OfPrimitive<T, C, S extends OfPrimitive<T, C, S>> extends Spliterator<T> {
+
+    default void forEachRemaining(C consumer) {
+      checkNotNull(consumer);
+      while (tryAdvance(consumer)) {
+      }
+    }
+
+    boolean tryAdvance(C consumer);
+
+    @Override
+    S trySplit();
+  }
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterator.OfInt.html">the
+   * official Java API doc</a> for details.
+   */
+  interface OfInt extends OfPrimitive<Integer, IntConsumer, OfInt> {
+
+    @Override
+    default void forEachRemaining(Consumer<? super Integer> consumer) {
+      if (consumer instanceof IntConsumer) {
+        forEachRemaining((IntConsumer) consumer);
+      } else {
+        checkNotNull(consumer);
+        forEachRemaining((IntConsumer) consumer::accept);
+      }
+    }
+
+    @Override
+    boolean tryAdvance(IntConsumer consumer);
+
+    @Override
+    default boolean tryAdvance(Consumer<? super Integer> consumer) {
+      if (consumer instanceof IntConsumer) {
+        return tryAdvance((IntConsumer) consumer);
+      }
+      checkNotNull(consumer);
+      return tryAdvance((IntConsumer) consumer::accept);
+    }
+  }
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterator.OfLong.html">the
+   * official Java API doc</a> for details.
+   */
+  interface OfLong extends OfPrimitive<Long, LongConsumer, OfLong> {
+
+    @Override
+    default void forEachRemaining(Consumer<? super Long> consumer) {
+      if (consumer instanceof LongConsumer) {
+        forEachRemaining((LongConsumer) consumer);
+      } else {
+        checkNotNull(consumer);
+        forEachRemaining((LongConsumer) consumer::accept);
+      }
+    }
+
+    @Override
+    boolean tryAdvance(LongConsumer consumer);
+
+    @Override
+    default boolean tryAdvance(Consumer<? super Long> consumer) {
+      if (consumer instanceof LongConsumer) {
+        return tryAdvance((LongConsumer) consumer);
+      }
+      checkNotNull(consumer);
+      return tryAdvance((LongConsumer) consumer::accept);
+    }
+  }
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterator.OfDouble.html">the
+   * official Java API doc</a> for details.
+   */
+  interface OfDouble extends OfPrimitive<Double, DoubleConsumer, OfDouble> {
+
+    @Override
+    default void forEachRemaining(Consumer<? super Double> consumer) {
+      if (consumer instanceof DoubleConsumer) {
+        forEachRemaining((DoubleConsumer) consumer);
+      } else {
+        checkNotNull(consumer);
+        forEachRemaining((DoubleConsumer) consumer::accept);
+      }
+    }
+
+    @Override
+    boolean tryAdvance(DoubleConsumer consumer);
+
+    @Override
+    default boolean tryAdvance(Consumer<? super Double> consumer) {
+      if (consumer instanceof DoubleConsumer) {
+        return tryAdvance((DoubleConsumer) consumer);
+      }
+      checkNotNull(consumer);
+      return tryAdvance((DoubleConsumer) consumer::accept);
+    }
+  }
+}
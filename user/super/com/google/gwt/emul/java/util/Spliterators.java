@@ -0,0 +1,666 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkCriticalPositionIndexes;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkElement;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterators.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * The array spliterators traverse their array in a single loop in {@code forEachRemaining}, which
+ * is how streams over arrays and array lists push their elements through a pipeline.
+ */
+public final class Spliterators {
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterators.AbstractSpliterator.html">the
+   * official Java API doc</a> for details.
+   *
+   * @param <T> element type
+   */
+  public abstract static class AbstractSpliterator<T> extends BaseSpliterator<Spliterator<T>>
+      implements Spliterator<T> {
+
+    protected AbstractSpliterator(long size, int characteristics) {
+      super(size, characteristics);
+    }
+  }
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterators.AbstractIntSpliterator.html">the
+   * official Java API doc</a> for details.
+   */
+  public abstract static class AbstractIntSpliterator extends BaseSpliterator<Spliterator.OfInt>
+      implements Spliterator.OfInt {
+
+    protected AbstractIntSpliterator(long size, int characteristics) {
+      super(size, characteristics);
+    }
+  }
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterators.AbstractLongSpliterator.html">the
+   * official Java API doc</a> for details.
+   */
+  public abstract static class AbstractLongSpliterator extends BaseSpliterator<Spliterator.OfLong>
+      implements Spliterator.OfLong {
+
+    protected AbstractLongSpliterator(long size, int characteristics) {
+      super(size, characteristics);
+    }
+  }
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/Spliterators.AbstractDoubleSpliterator.html">the
+   * official Java API doc</a> for details.
+   */
+  public abstract static class AbstractDoubleSpliterator
+      extends BaseSpliterator<Spliterator.OfDouble> implements Spliterator.OfDouble {
+
+    protected AbstractDoubleSpliterator(long size, int characteristics) {
+      super(size, characteristics);
+    }
+  }
+
+  /**
+   * The size and characteristics of a spliterator that doesn't split.
+   */
+  private abstract static class BaseSpliterator<S extends Spliterator<?>> {
+    private final int characteristics;
+    private final long sizeEstimate;
+
+    BaseSpliterator(long size, int characteristics) {
+      this.sizeEstimate = size;
+      this.characteristics = (characteristics & Spliterator.SIZED) != 0
+          ? characteristics | Spliterator.SUBSIZED : characteristics;
+    }
+
+    public int characteristics() {
+      return characteristics;
+    }
+
+    public long estimateSize() {
+      return sizeEstimate;
+    }
+
+    public S trySplit() {
+      return null;
+    }
+  }
+
+  private static final class ArraySpliterator<T> extends AbstractSpliterator<T> {
+    private final Object[] array;
+    private int index;
+    private final int limit;
+
+    ArraySpliterator(Object[] array, int fromIndex, int toIndex, int characteristics) {
+      super(toIndex - fromIndex, characteristics | SIZED | SUBSIZED);
+      this.array = array;
+      this.index = fromIndex;
+      this.limit = toIndex;
+    }
+
+    @Override
+    public long estimateSize() {
+      return limit - index;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachRemaining(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      int i = index;
+      index = limit;
+      for (; i < limit; i++) {
+        consumer.accept((T) array[i]);
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean tryAdvance(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      if (index < limit) {
+        consumer.accept((T) array[index++]);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static final class IntArraySpliterator extends AbstractIntSpliterator {
+    private final int[] array;
+    private int index;
+    private final int limit;
+
+    IntArraySpliterator(int[] array, int fromIndex, int toIndex, int characteristics) {
+      super(toIndex - fromIndex, characteristics | SIZED | SUBSIZED);
+      this.array = array;
+      this.index = fromIndex;
+      this.limit = toIndex;
+    }
+
+    @Override
+    public long estimateSize() {
+      return limit - index;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer consumer) {
+      checkNotNull(consumer);
+      int i = index;
+      index = limit;
+      for (; i < limit; i++) {
+        consumer.accept(array[i]);
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer consumer) {
+      checkNotNull(consumer);
+      if (index < limit) {
+        consumer.accept(array[index++]);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static final class LongArraySpliterator extends AbstractLongSpliterator {
+    private final long[] array;
+    private int index;
+    private final int limit;
+
+    LongArraySpliterator(long[] array, int fromIndex, int toIndex, int characteristics) {
+      super(toIndex - fromIndex, characteristics | SIZED | SUBSIZED);
+      this.array = array;
+      this.index = fromIndex;
+      this.limit = toIndex;
+    }
+
+    @Override
+    public long estimateSize() {
+      return limit - index;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer consumer) {
+      checkNotNull(consumer);
+      int i = index;
+      index = limit;
+      for (; i < limit; i++) {
+        consumer.accept(array[i]);
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer consumer) {
+      checkNotNull(consumer);
+      if (index < limit) {
+        consumer.accept(array[index++]);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static final class DoubleArraySpliterator extends AbstractDoubleSpliterator {
+    private final double[] array;
+    private int index;
+    private final int limit;
+
+    DoubleArraySpliterator(double[] array, int fromIndex, int toIndex, int characteristics) {
+      super(toIndex - fromIndex, characteristics | SIZED | SUBSIZED);
+      this.array = array;
+      this.index = fromIndex;
+      this.limit = toIndex;
+    }
+
+    @Override
+    public long estimateSize() {
+      return limit - index;
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer consumer) {
+      checkNotNull(consumer);
+      int i = index;
+      index = limit;
+      for (; i < limit; i++) {
+        consumer.accept(array[i]);
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer consumer) {
+      checkNotNull(consumer);
+      if (index < limit) {
+        consumer.accept(array[index++]);
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Traverses a collection through its iterator, which is only created once the traversal starts.
+   */
+  private static final class IteratorSpliterator<T> implements Spliterator<T> {
+    private final int characteristics;
+    private final Collection<? extends T> collection;
+    private Iterator<? extends T> iterator;
+    private long sizeEstimate;
+
+    IteratorSpliterator(Collection<? extends T> collection, int characteristics) {
+      this.collection = collection;
+      this.characteristics = sizedCharacteristics(characteristics);
+    }
+
+    IteratorSpliterator(Iterator<? extends T> iterator, long size, int characteristics) {
+      this.collection = null;
+      this.iterator = iterator;
+      this.sizeEstimate = size;
+      this.characteristics = size == Long.MAX_VALUE
+          ? characteristics & ~(SIZED | SUBSIZED) : sizedCharacteristics(characteristics);
+    }
+
+    @Override
+    public int characteristics() {
+      return characteristics;
+    }
+
+    @Override
+    public long estimateSize() {
+      initIterator();
+      return sizeEstimate;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      initIterator();
+      iterator.forEachRemaining(consumer);
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+      if (hasCharacteristics(SORTED)) {
+        return null;
+      }
+      throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      initIterator();
+      if (iterator.hasNext()) {
+        consumer.accept(iterator.next());
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      return null;
+    }
+
+    private void initIterator() {
+      if (iterator == null) {
+        iterator = collection.iterator();
+        sizeEstimate = collection.size();
+      }
+    }
+  }
+
+  private static final class IntIteratorSpliterator extends AbstractIntSpliterator {
+    private final PrimitiveIterator.OfInt iterator;
+
+    IntIteratorSpliterator(PrimitiveIterator.OfInt iterator, long size, int characteristics) {
+      super(size, size == Long.MAX_VALUE
+          ? characteristics & ~(SIZED | SUBSIZED) : sizedCharacteristics(characteristics));
+      this.iterator = checkNotNull(iterator);
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer consumer) {
+      iterator.forEachRemaining(consumer);
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer consumer) {
+      checkNotNull(consumer);
+      if (iterator.hasNext()) {
+        consumer.accept(iterator.nextInt());
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static final class LongIteratorSpliterator extends AbstractLongSpliterator {
+    private final PrimitiveIterator.OfLong iterator;
+
+    LongIteratorSpliterator(PrimitiveIterator.OfLong iterator, long size, int characteristics) {
+      super(size, size == Long.MAX_VALUE
+          ? characteristics & ~(SIZED | SUBSIZED) : sizedCharacteristics(characteristics));
+      this.iterator = checkNotNull(iterator);
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer consumer) {
+      iterator.forEachRemaining(consumer);
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer consumer) {
+      checkNotNull(consumer);
+      if (iterator.hasNext()) {
+        consumer.accept(iterator.nextLong());
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static final class DoubleIteratorSpliterator extends AbstractDoubleSpliterator {
+    private final PrimitiveIterator.OfDouble iterator;
+
+    DoubleIteratorSpliterator(PrimitiveIterator.OfDouble iterator, long size,
+        int characteristics) {
+      super(size, size == Long.MAX_VALUE
+          ? characteristics & ~(SIZED | SUBSIZED) : sizedCharacteristics(characteristics));
+      this.iterator = checkNotNull(iterator);
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer consumer) {
+      iterator.forEachRemaining(consumer);
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer consumer) {
+      checkNotNull(consumer);
+      if (iterator.hasNext()) {
+        consumer.accept(iterator.nextDouble());
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Iterates over the elements of a spliterator, advancing it one element ahead of the iterator.
+   */
+  private static final class SpliteratorIterator<T> implements Iterator<T>, Consumer<T> {
+    private T nextElement;
+    private final Spliterator<? extends T> spliterator;
+    private boolean valueReady;
+
+    SpliteratorIterator(Spliterator<? extends T> spliterator) {
+      this.spliterator = checkNotNull(spliterator);
+    }
+
+    @Override
+    public void accept(T element) {
+      valueReady = true;
+      nextElement = element;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return valueReady || spliterator.tryAdvance(this);
+    }
+
+    @Override
+    public T next() {
+      checkElement(hasNext());
+      valueReady = false;
+      T element = nextElement;
+      nextElement = null;
+      return element;
+    }
+  }
+
+  private static final class IntSpliteratorIterator implements PrimitiveIterator.OfInt,
+      IntConsumer {
+    private int nextElement;
+    private final Spliterator.OfInt spliterator;
+    private boolean valueReady;
+
+    IntSpliteratorIterator(Spliterator.OfInt spliterator) {
+      this.spliterator = checkNotNull(spliterator);
+    }
+
+    @Override
+    public void accept(int element) {
+      valueReady = true;
+      nextElement = element;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return valueReady || spliterator.tryAdvance((IntConsumer) this);
+    }
+
+    @Override
+    public int nextInt() {
+      checkElement(hasNext());
+      valueReady = false;
+      return nextElement;
+    }
+  }
+
+  private static final class LongSpliteratorIterator implements PrimitiveIterator.OfLong,
+      LongConsumer {
+    private long nextElement;
+    private final Spliterator.OfLong spliterator;
+    private boolean valueReady;
+
+    LongSpliteratorIterator(Spliterator.OfLong spliterator) {
+      this.spliterator = checkNotNull(spliterator);
+    }
+
+    @Override
+    public void accept(long element) {
+      valueReady = true;
+      nextElement = element;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return valueReady || spliterator.tryAdvance((LongConsumer) this);
+    }
+
+    @Override
+    public long nextLong() {
+      checkElement(hasNext());
+      valueReady = false;
+      return nextElement;
+    }
+  }
+
+  private static final class DoubleSpliteratorIterator implements PrimitiveIterator.OfDouble,
+      DoubleConsumer {
+    private double nextElement;
+    private final Spliterator.OfDouble spliterator;
+    private boolean valueReady;
+
+    DoubleSpliteratorIterator(Spliterator.OfDouble spliterator) {
+      this.spliterator = checkNotNull(spliterator);
+    }
+
+    @Override
+    public void accept(double element) {
+      valueReady = true;
+      nextElement = element;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return valueReady || spliterator.tryAdvance((DoubleConsumer) this);
+    }
+
+    @Override
+    public double nextDouble() {
+      checkElement(hasNext());
+      valueReady = false;
+      return nextElement;
+    }
+  }
+
+  public static <T> Spliterator<T> emptySpliterator() {
+    return new ArraySpliterator<T>(new Object[0], 0, 0, 0);
+  }
+
+  public static Spliterator.OfDouble emptyDoubleSpliterator() {
+    return new DoubleArraySpliterator(new double[0], 0, 0, 0);
+  }
+
+  public static Spliterator.OfInt emptyIntSpliterator() {
+    return new IntArraySpliterator(new int[0], 0, 0, 0);
+  }
+
+  public static Spliterator.OfLong emptyLongSpliterator() {
+    return new LongArraySpliterator(new long[0], 0, 0, 0);
+  }
+
+  public static <T> Iterator<T> iterator(Spliterator<? extends T> spliterator) {
+    return new SpliteratorIterator<T>(spliterator);
+  }
+
+  public static PrimitiveIterator.OfDouble iterator(Spliterator.OfDouble spliterator) {
+    return new DoubleSpliteratorIterator(spliterator);
+  }
+
+  public static PrimitiveIterator.OfInt iterator(Spliterator.OfInt spliterator) {
+    return new IntSpliteratorIterator(spliterator);
+  }
+
+  public static PrimitiveIterator.OfLong iterator(Spliterator.OfLong spliterator) {
+    return new LongSpliteratorIterator(spliterator);
+  }
+
+  public static <T> Spliterator<T> spliterator(Collection<? extends T> collection,
+      int characteristics) {
+    return new IteratorSpliterator<T>(checkNotNull(collection), characteristics);
+  }
+
+  public static <T> Spliterator<T> spliterator(Iterator<? extends T> iterator, long size,
+      int characteristics) {
+    return new IteratorSpliterator<T>(checkNotNull(iterator), size, characteristics);
+  }
+
+  public static <T> Spliterator<T> spliterator(Object[] array, int characteristics) {
+    return new ArraySpliterator<T>(array, 0, array.length, characteristics);
+  }
+
+  public static <T> Spliterator<T> spliterator(Object[] array, int fromIndex, int toIndex,
+      int characteristics) {
+    checkCriticalPositionIndexes(fromIndex, toIndex, array.length);
+    return new ArraySpliterator<T>(array, fromIndex, toIndex, characteristics);
+  }
+
+  public static Spliterator.OfDouble spliterator(double[] array, int characteristics) {
+    return new DoubleArraySpliterator(array, 0, array.length, characteristics);
+  }
+
+  public static Spliterator.OfDouble spliterator(double[] array, int fromIndex, int toIndex,
+      int characteristics) {
+    checkCriticalPositionIndexes(fromIndex, toIndex, array.length);
+    return new DoubleArraySpliterator(array, fromIndex, toIndex, characteristics);
+  }
+
+  public static Spliterator.OfInt spliterator(int[] array, int characteristics) {
+    return new IntArraySpliterator(array, 0, array.length, characteristics);
+  }
+
+  public static Spliterator.OfInt spliterator(int[] array, int fromIndex, int toIndex,
+      int characteristics) {
+    checkCriticalPositionIndexes(fromIndex, toIndex, array.length);
+    return new IntArraySpliterator(array, fromIndex, toIndex, characteristics);
+  }
+
+  public static Spliterator.OfLong spliterator(long[] array, int characteristics) {
+    return new LongArraySpliterator(array, 0, array.length, characteristics);
+  }
+
+  public static Spliterator.OfLong spliterator(long[] array, int fromIndex, int toIndex,
+      int characteristics) {
+    checkCriticalPositionIndexes(fromIndex, toIndex, array.length);
+    return new LongArraySpliterator(array, fromIndex, toIndex, characteristics);
+  }
+
+  public static Spliterator.OfDouble spliterator(PrimitiveIterator.OfDouble iterator, long size,
+      int characteristics) {
+    return new DoubleIteratorSpliterator(iterator, size, characteristics);
+  }
+
+  public static Spliterator.OfInt spliterator(PrimitiveIterator.OfInt iterator, long size,
+      int characteristics) {
+    return new IntIteratorSpliterator(iterator, size, characteristics);
+  }
+
+  public static Spliterator.OfLong spliterator(PrimitiveIterator.OfLong iterator, long size,
+      int characteristics) {
+    return new LongIteratorSpliterator(iterator, size, characteristics);
+  }
+
+  public static <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator,
+      int characteristics) {
+    return new IteratorSpliterator<T>(checkNotNull(iterator), Long.MAX_VALUE, characteristics);
+  }
+
+  public static Spliterator.OfDouble spliteratorUnknownSize(PrimitiveIterator.OfDouble iterator,
+      int characteristics) {
+    return new DoubleIteratorSpliterator(iterator, Long.MAX_VALUE, characteristics);
+  }
+
+  public static Spliterator.OfInt spliteratorUnknownSize(PrimitiveIterator.OfInt iterator,
+      int characteristics) {
+    return new IntIteratorSpliterator(iterator, Long.MAX_VALUE, characteristics);
+  }
+
+  public static Spliterator.OfLong spliteratorUnknownSize(PrimitiveIterator.OfLong iterator,
+      int characteristics) {
+    return new LongIteratorSpliterator(iterator, Long.MAX_VALUE, characteristics);
+  }
+
+  /**
+   * Returns the characteristics of a spliterator of known size, unless it is concurrent.
+   */
+  private static int sizedCharacteristics(int characteristics) {
+    return (characteristics & Spliterator.CONCURRENT) == 0
+        ? characteristics | Spliterator.SIZED | Spliterator.SUBSIZED : characteristics;
+  }
+
+  private Spliterators() {
+  }
+}
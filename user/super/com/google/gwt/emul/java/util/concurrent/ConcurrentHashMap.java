@@ -0,0 +1,298 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkElement;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkState;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link HashMap} that tolerates modification during iteration and rejects
+ * <code>null</code> keys and values, like the JRE's ConcurrentHashMap. There is
+ * no concurrency in JavaScript, so no locking is needed; the map is a thin
+ * wrapper around a regular HashMap. See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ConcurrentHashMap.html">the
+ * official Java API doc</a> for details.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ConcurrentHashMap<K, V> extends AbstractMap<K, V> implements
+    ConcurrentMap<K, V>, Serializable {
+
+  /**
+   * Iterates over a snapshot of the keys taken when the iterator is created.
+   * Keys removed from the map afterwards are skipped, and the current value of
+   * each key is read when it is reached, so the iteration is weakly consistent
+   * and never throws ConcurrentModificationException.
+   */
+  private final class EntrySetIterator implements Iterator<Entry<K, V>> {
+    private final Object[] keys = backingMap.keySet().toArray();
+    private int index;
+    private Entry<K, V> next;
+    private Entry<K, V> last;
+
+    public EntrySetIterator() {
+      advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<K, V> next() {
+      checkElement(hasNext());
+      last = next;
+      advance();
+      return last;
+    }
+
+    @Override
+    public void remove() {
+      checkState(last != null);
+      backingMap.remove(last.getKey());
+      last = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void advance() {
+      next = null;
+      while (index < keys.length) {
+        K key = (K) keys[index++];
+        V value = backingMap.get(key);
+        if (value != null) {
+          next = new MapEntry(key, value);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * An entry that writes {@link #setValue(Object)} through to the map.
+   */
+  private final class MapEntry extends SimpleEntry<K, V> {
+
+    public MapEntry(K key, V value) {
+      super(key, value);
+    }
+
+    @Override
+    public V setValue(V value) {
+      put(getKey(), value);
+      return super.setValue(value);
+    }
+  }
+
+  private final transient Map<K, V> backingMap;
+
+  /**
+   * Ensures that RPC will consider type parameter K to be exposed. It will be
+   * pruned by dead code elimination.
+   */
+  @SuppressWarnings("unused")
+  private K exposeKey;
+
+  /**
+   * Ensures that RPC will consider type parameter V to be exposed. It will be
+   * pruned by dead code elimination.
+   */
+  @SuppressWarnings("unused")
+  private V exposeValue;
+
+  public ConcurrentHashMap() {
+    backingMap = new HashMap<K, V>();
+  }
+
+  public ConcurrentHashMap(int initialCapacity) {
+    this(initialCapacity, 0.75f);
+  }
+
+  public ConcurrentHashMap(int initialCapacity, float loadFactor) {
+    backingMap = new HashMap<K, V>(initialCapacity, loadFactor);
+  }
+
+  /**
+   * The concurrency level is ignored.
+   */
+  @SuppressWarnings("unused")
+  public ConcurrentHashMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+    this(initialCapacity, loadFactor);
+  }
+
+  public ConcurrentHashMap(Map<? extends K, ? extends V> t) {
+    this();
+    putAll(t);
+  }
+
+  @Override
+  public void clear() {
+    backingMap.clear();
+  }
+
+  /**
+   * Legacy method, equivalent to {@link #containsValue(Object)}.
+   */
+  public boolean contains(Object value) {
+    return containsValue(value);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return backingMap.containsKey(checkNotNull(key));
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    return backingMap.containsValue(checkNotNull(value));
+  }
+
+  public Enumeration<V> elements() {
+    return Collections.enumeration(values());
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public void clear() {
+        ConcurrentHashMap.this.clear();
+      }
+
+      @Override
+      public boolean contains(Object o) {
+        if (!(o instanceof Map.Entry)) {
+          return false;
+        }
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        Object value = backingMap.get(entry.getKey());
+        return value != null && value.equals(entry.getValue());
+      }
+
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new EntrySetIterator();
+      }
+
+      @Override
+      public boolean remove(Object o) {
+        if (!(o instanceof Map.Entry)) {
+          return false;
+        }
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        return ConcurrentHashMap.this.remove(entry.getKey(), entry.getValue());
+      }
+
+      @Override
+      public int size() {
+        return ConcurrentHashMap.this.size();
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o == this || backingMap.equals(o);
+  }
+
+  @Override
+  public V get(Object key) {
+    return backingMap.get(checkNotNull(key));
+  }
+
+  @Override
+  public int hashCode() {
+    return backingMap.hashCode();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return backingMap.isEmpty();
+  }
+
+  public Enumeration<K> keys() {
+    return Collections.enumeration(keySet());
+  }
+
+  @Override
+  public V put(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    return backingMap.put(key, value);
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    V existing = backingMap.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    return backingMap.put(key, value);
+  }
+
+  @Override
+  public V remove(Object key) {
+    return backingMap.remove(checkNotNull(key));
+  }
+
+  @Override
+  public boolean remove(Object key, Object value) {
+    checkNotNull(key);
+    if (value == null || !value.equals(backingMap.get(key))) {
+      return false;
+    }
+    backingMap.remove(key);
+    return true;
+  }
+
+  @Override
+  public V replace(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    return backingMap.containsKey(key) ? backingMap.put(key, value) : null;
+  }
+
+  @Override
+  public boolean replace(K key, V oldValue, V newValue) {
+    checkNotNull(key);
+    checkNotNull(oldValue);
+    checkNotNull(newValue);
+    if (!oldValue.equals(backingMap.get(key))) {
+      return false;
+    }
+    backingMap.put(key, newValue);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return backingMap.size();
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkElement;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkPositionIndex;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A list whose iterators traverse a snapshot of the list taken when they were
+ * created. See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CopyOnWriteArrayList.html">the
+ * official Java API doc</a> for details.
+ *
+ * <p>
+ * Since there is only one thread, the backing {@link ArrayList} is only copied
+ * when it is modified while a snapshot of it may still be in use. A list that
+ * is modified without being iterated in between performs like an ArrayList.
+ * </p>
+ *
+ * @param <E> the element type.
+ */
+public class CopyOnWriteArrayList<E> extends AbstractList<E> implements List<E>,
+    RandomAccess, Cloneable, Serializable {
+
+  /**
+   * A read only iterator over a snapshot of the list.
+   */
+  private static final class SnapshotIterator<E> implements ListIterator<E> {
+    private final List<E> snapshot;
+    private int cursor;
+
+    public SnapshotIterator(List<E> snapshot, int index) {
+      this.snapshot = snapshot;
+      this.cursor = index;
+    }
+
+    @Override
+    public void add(E o) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor < snapshot.size();
+    }
+
+    @Override
+    public boolean hasPrevious() {
+      return cursor > 0;
+    }
+
+    @Override
+    public E next() {
+      checkElement(hasNext());
+      return snapshot.get(cursor++);
+    }
+
+    @Override
+    public int nextIndex() {
+      return cursor;
+    }
+
+    @Override
+    public E previous() {
+      checkElement(hasPrevious());
+      return snapshot.get(--cursor);
+    }
+
+    @Override
+    public int previousIndex() {
+      return cursor - 1;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(E o) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private transient ArrayList<E> arrayList;
+
+  /**
+   * Whether {@link #arrayList} may be referenced by an iterator, a spliterator
+   * or a clone, in which case it must be copied before it is modified.
+   */
+  private transient boolean shared;
+
+  /**
+   * Ensures that RPC will consider type parameter E to be exposed. It will be
+   * pruned by dead code elimination.
+   */
+  @SuppressWarnings("unused")
+  private E exposeElement;
+
+  public CopyOnWriteArrayList() {
+    arrayList = new ArrayList<E>();
+  }
+
+  public CopyOnWriteArrayList(Collection<? extends E> c) {
+    arrayList = new ArrayList<E>(c);
+  }
+
+  public CopyOnWriteArrayList(E[] toCopyIn) {
+    arrayList = new ArrayList<E>(Arrays.asList(toCopyIn));
+  }
+
+  @Override
+  public boolean add(E o) {
+    return writableList().add(o);
+  }
+
+  @Override
+  public void add(int index, E o) {
+    writableList().add(index, o);
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> c) {
+    return writableList().addAll(c);
+  }
+
+  @Override
+  public boolean addAll(int index, Collection<? extends E> c) {
+    return writableList().addAll(index, c);
+  }
+
+  public int addAllAbsent(Collection<? extends E> c) {
+    int added = 0;
+    for (E e : c) {
+      if (addIfAbsent(e)) {
+        added++;
+      }
+    }
+    return added;
+  }
+
+  public boolean addIfAbsent(E o) {
+    return !arrayList.contains(o) && add(o);
+  }
+
+  @Override
+  public void clear() {
+    arrayList = new ArrayList<E>();
+    shared = false;
+  }
+
+  public Object clone() {
+    CopyOnWriteArrayList<E> clone = new CopyOnWriteArrayList<E>();
+    clone.arrayList = arrayList;
+    clone.shared = shared = true;
+    return clone;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return arrayList.contains(o);
+  }
+
+  @Override
+  public boolean containsAll(Collection<?> c) {
+    return arrayList.containsAll(c);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o == this || arrayList.equals(o);
+  }
+
+  @Override
+  public E get(int index) {
+    return arrayList.get(index);
+  }
+
+  @Override
+  public int hashCode() {
+    return arrayList.hashCode();
+  }
+
+  @Override
+  public int indexOf(Object o) {
+    return arrayList.indexOf(o);
+  }
+
+  public int indexOf(E o, int index) {
+    for (int size = arrayList.size(); index < size; index++) {
+      if (Objects.equals(o, arrayList.get(index))) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return arrayList.isEmpty();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return listIterator(0);
+  }
+
+  @Override
+  public int lastIndexOf(Object o) {
+    return arrayList.lastIndexOf(o);
+  }
+
+  public int lastIndexOf(E o, int index) {
+    for (; index >= 0; index--) {
+      if (Objects.equals(o, arrayList.get(index))) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public ListIterator<E> listIterator() {
+    return listIterator(0);
+  }
+
+  @Override
+  public ListIterator<E> listIterator(int index) {
+    checkPositionIndex(index, arrayList.size());
+    return new SnapshotIterator<E>(snapshot(), index);
+  }
+
+  @Override
+  public E remove(int index) {
+    return writableList().remove(index);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    int index = arrayList.indexOf(o);
+    if (index == -1) {
+      return false;
+    }
+    writableList().remove(index);
+    return true;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    return writableList().removeAll(c);
+  }
+
+  @Override
+  public boolean removeIf(Predicate<? super E> filter) {
+    return writableList().removeIf(filter);
+  }
+
+  @Override
+  public void replaceAll(UnaryOperator<E> operator) {
+    writableList().replaceAll(operator);
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    return writableList().retainAll(c);
+  }
+
+  @Override
+  public E set(int index, E o) {
+    return writableList().set(index, o);
+  }
+
+  @Override
+  public int size() {
+    return arrayList.size();
+  }
+
+  @Override
+  public void sort(Comparator<? super E> c) {
+    writableList().sort(c);
+  }
+
+  @Override
+  public Spliterator<E> spliterator() {
+    return snapshot().spliterator();
+  }
+
+  @Override
+  public Object[] toArray() {
+    return arrayList.toArray();
+  }
+
+  @Override
+  public <T> T[] toArray(T[] a) {
+    return arrayList.toArray(a);
+  }
+
+  @Override
+  public String toString() {
+    return arrayList.toString();
+  }
+
+  /**
+   * Returns the backing list, which must no longer be modified.
+   */
+  private ArrayList<E> snapshot() {
+    shared = true;
+    return arrayList;
+  }
+
+  /**
+   * Returns the backing list, copying it first if a snapshot of it may still
+   * be in use.
+   */
+  private ArrayList<E> writableList() {
+    if (shared) {
+      arrayList = new ArrayList<E>(arrayList);
+      shared = false;
+    }
+    return arrayList;
+  }
+}
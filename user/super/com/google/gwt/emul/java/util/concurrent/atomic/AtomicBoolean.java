@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+
+/**
+ * GWT emulation of AtomicBoolean. See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/AtomicBoolean.html">the
+ * official Java API doc</a> for details.
+ */
+public class AtomicBoolean implements Serializable {
+
+  private boolean value;
+
+  public AtomicBoolean() {
+  }
+
+  public AtomicBoolean(boolean initialValue) {
+    value = initialValue;
+  }
+
+  public final boolean compareAndSet(boolean expect, boolean update) {
+    if (value == expect) {
+      value = update;
+      return true;
+    }
+    return false;
+  }
+
+  public final boolean get() {
+    return value;
+  }
+
+  public final boolean getAndSet(boolean newValue) {
+    boolean previous = value;
+    value = newValue;
+    return previous;
+  }
+
+  public final void lazySet(boolean newValue) {
+    value = newValue;
+  }
+
+  public final void set(boolean newValue) {
+    value = newValue;
+  }
+
+  @Override
+  public String toString() {
+    return Boolean.toString(value);
+  }
+
+  public boolean weakCompareAndSet(boolean expect, boolean update) {
+    return compareAndSet(expect, update);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * GWT emulation of AtomicInteger. JavaScript is single threaded, so every
+ * operation is a plain read or write of the field, which the compiler can
+ * inline at the call site. See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/AtomicInteger.html">the
+ * official Java API doc</a> for details.
+ */
+public class AtomicInteger extends Number implements Serializable {
+
+  private int value;
+
+  public AtomicInteger() {
+  }
+
+  public AtomicInteger(int initialValue) {
+    value = initialValue;
+  }
+
+  public final int accumulateAndGet(int x, IntBinaryOperator accumulatorFunction) {
+    value = accumulatorFunction.applyAsInt(value, x);
+    return value;
+  }
+
+  public final int addAndGet(int delta) {
+    value += delta;
+    return value;
+  }
+
+  public final boolean compareAndSet(int expect, int update) {
+    if (value == expect) {
+      value = update;
+      return true;
+    }
+    return false;
+  }
+
+  public final int decrementAndGet() {
+    return --value;
+  }
+
+  @Override
+  public double doubleValue() {
+    return value;
+  }
+
+  @Override
+  public float floatValue() {
+    return value;
+  }
+
+  public final int get() {
+    return value;
+  }
+
+  public final int getAndAccumulate(int x, IntBinaryOperator accumulatorFunction) {
+    int previous = value;
+    value = accumulatorFunction.applyAsInt(previous, x);
+    return previous;
+  }
+
+  public final int getAndAdd(int delta) {
+    int previous = value;
+    value += delta;
+    return previous;
+  }
+
+  public final int getAndDecrement() {
+    return value--;
+  }
+
+  public final int getAndIncrement() {
+    return value++;
+  }
+
+  public final int getAndSet(int newValue) {
+    int previous = value;
+    value = newValue;
+    return previous;
+  }
+
+  public final int getAndUpdate(IntUnaryOperator updateFunction) {
+    int previous = value;
+    value = updateFunction.applyAsInt(previous);
+    return previous;
+  }
+
+  public final int incrementAndGet() {
+    return ++value;
+  }
+
+  @Override
+  public int intValue() {
+    return value;
+  }
+
+  public final void lazySet(int newValue) {
+    value = newValue;
+  }
+
+  @Override
+  public long longValue() {
+    return value;
+  }
+
+  public final void set(int newValue) {
+    value = newValue;
+  }
+
+  @Override
+  public String toString() {
+    return Integer.toString(value);
+  }
+
+  public final int updateAndGet(IntUnaryOperator updateFunction) {
+    value = updateFunction.applyAsInt(value);
+    return value;
+  }
+
+  public final boolean weakCompareAndSet(int expect, int update) {
+    return compareAndSet(expect, update);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * GWT emulation of AtomicLong, backed by a plain long field. See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/AtomicLong.html">the
+ * official Java API doc</a> for details.
+ */
+public class AtomicLong extends Number implements Serializable {
+
+  private long value;
+
+  public AtomicLong() {
+  }
+
+  public AtomicLong(long initialValue) {
+    value = initialValue;
+  }
+
+  public final long accumulateAndGet(long x, LongBinaryOperator accumulatorFunction) {
+    value = accumulatorFunction.applyAsLong(value, x);
+    return value;
+  }
+
+  public final long addAndGet(long delta) {
+    value += delta;
+    return value;
+  }
+
+  public final boolean compareAndSet(long expect, long update) {
+    if (value == expect) {
+      value = update;
+      return true;
+    }
+    return false;
+  }
+
+  public final long decrementAndGet() {
+    return --value;
+  }
+
+  @Override
+  public double doubleValue() {
+    return value;
+  }
+
+  @Override
+  public float floatValue() {
+    return value;
+  }
+
+  public final long get() {
+    return value;
+  }
+
+  public final long getAndAccumulate(long x, LongBinaryOperator accumulatorFunction) {
+    long previous = value;
+    value = accumulatorFunction.applyAsLong(previous, x);
+    return previous;
+  }
+
+  public final long getAndAdd(long delta) {
+    long previous = value;
+    value += delta;
+    return previous;
+  }
+
+  public final long getAndDecrement() {
+    return value--;
+  }
+
+  public final long getAndIncrement() {
+    return value++;
+  }
+
+  public final long getAndSet(long newValue) {
+    long previous = value;
+    value = newValue;
+    return previous;
+  }
+
+  public final long getAndUpdate(LongUnaryOperator updateFunction) {
+    long previous = value;
+    value = updateFunction.applyAsLong(previous);
+    return previous;
+  }
+
+  public final long incrementAndGet() {
+    return ++value;
+  }
+
+  @Override
+  public int intValue() {
+    return (int) value;
+  }
+
+  public final void lazySet(long newValue) {
+    value = newValue;
+  }
+
+  @Override
+  public long longValue() {
+    return value;
+  }
+
+  public final void set(long newValue) {
+    value = newValue;
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(value);
+  }
+
+  public final long updateAndGet(LongUnaryOperator updateFunction) {
+    value = updateFunction.applyAsLong(value);
+    return value;
+  }
+
+  public final boolean weakCompareAndSet(long expect, long update) {
+    return compareAndSet(expect, update);
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent.atomic;
+
+import java.io.Serializable;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * GWT emulation of AtomicReference. See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/AtomicReference.html">the
+ * official Java API doc</a> for details.
+ *
+ * @param <V> type of the referenced object
+ */
+public class AtomicReference<V> implements Serializable {
+
+  private V value;
+
+  public AtomicReference() {
+    // Assigned explicitly so that the field is null rather than undefined.
+    this(null);
+  }
+
+  public AtomicReference(V initialValue) {
+    value = initialValue;
+  }
+
+  public final V accumulateAndGet(V x, BinaryOperator<V> accumulatorFunction) {
+    value = accumulatorFunction.apply(value, x);
+    return value;
+  }
+
+  public final boolean compareAndSet(V expect, V update) {
+    // Like the JRE, compares references rather than calling equals().
+    if (value == expect) {
+      value = update;
+      return true;
+    }
+    return false;
+  }
+
+  public final V get() {
+    return value;
+  }
+
+  public final V getAndAccumulate(V x, BinaryOperator<V> accumulatorFunction) {
+    V previous = value;
+    value = accumulatorFunction.apply(previous, x);
+    return previous;
+  }
+
+  public final V getAndSet(V newValue) {
+    V previous = value;
+    value = newValue;
+    return previous;
+  }
+
+  public final V getAndUpdate(UnaryOperator<V> updateFunction) {
+    V previous = value;
+    value = updateFunction.apply(previous);
+    return previous;
+  }
+
+  public final void lazySet(V newValue) {
+    value = newValue;
+  }
+
+  public final void set(V newValue) {
+    value = newValue;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(value);
+  }
+
+  public final V updateAndGet(UnaryOperator<V> updateFunction) {
+    value = updateFunction.apply(value);
+    return value;
+  }
+
+  public final boolean weakCompareAndSet(V expect, V update) {
+    return compareAndSet(expect, update);
+  }
+}
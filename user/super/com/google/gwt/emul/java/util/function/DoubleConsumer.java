@@ -0,0 +1,15 @@
+package java.util.function;
+
+@FunctionalInterface
+public interface DoubleConsumer {
+
+  void accept(double value);
+
+  default DoubleConsumer andThen(DoubleConsumer after) {
+    assert after != null;
+    return (double t) -> {
+      DoubleConsumer.this.accept(t);
+      after.accept(t);
+    };
+  }
+}
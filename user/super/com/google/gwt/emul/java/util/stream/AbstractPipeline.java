@@ -0,0 +1,288 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkState;
+
+import java.util.Spliterator;
+import java.util.function.Supplier;
+
+/**
+ * A stage of a stream pipeline: either its source or an intermediate operation.
+ * <p>
+ * Nothing runs until a terminal operation is applied to the last stage. The terminal operation
+ * then wraps its sink in the sink of each stage before it, back to the source, and the source's
+ * spliterator pushes its elements through that chain in a single loop. Stages never hold
+ * intermediate collections, except for the stateful ones that have to see all elements, such as
+ * {@code sorted()}.
+ *
+ * @param <T> type of the elements that flow out of this stage
+ * @param <S> stream type
+ */
+abstract class AbstractPipeline<T, S extends BaseStream<T, S>> implements BaseStream<T, S> {
+
+  private static final String LINKED_OR_CONSUMED =
+      "stream has already been operated upon or closed";
+
+  /**
+   * Returns a handler that runs both handlers, even if the first one throws.
+   */
+  static Runnable composeCloseHandlers(Runnable first, Runnable second) {
+    return () -> {
+      try {
+        first.run();
+      } catch (Throwable e) {
+        try {
+          second.run();
+        } catch (Throwable suppressed) {
+          e.addSuppressed(suppressed);
+        }
+        throw e;
+      }
+      second.run();
+    };
+  }
+
+  /**
+   * Pushes the elements of a {@code flatMap} result into the sink of the {@code flatMap} stage,
+   * and closes the result.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static void flatten(BaseStream<?, ?> stream, Sink<?> downstream) {
+    if (stream == null) {
+      return;
+    }
+    if (stream instanceof AbstractPipeline) {
+      ((AbstractPipeline) stream).flattenInto(downstream);
+      return;
+    }
+    try {
+      Spliterator spliterator = stream.sequential().spliterator();
+      while (!downstream.cancellationRequested() && spliterator.tryAdvance(downstream)) {
+      }
+    } finally {
+      stream.close();
+    }
+  }
+
+  private final AbstractPipeline<?, ?> previousStage;
+
+  /**
+   * Whether this stage or one before it may stop the traversal of the source early.
+   */
+  private final boolean shortCircuit;
+
+  private final AbstractPipeline<?, ?> sourceStage;
+
+  private boolean linkedOrConsumed;
+
+  // The following fields are only used in the source stage.
+
+  private Runnable closeHandler;
+
+  private boolean parallel;
+
+  private Spliterator<?> sourceSpliterator;
+
+  private Supplier<? extends Spliterator<?>> sourceSupplier;
+
+  /**
+   * Creates the source stage of a pipeline.
+   */
+  AbstractPipeline(Spliterator<?> sourceSpliterator, boolean parallel) {
+    this.previousStage = null;
+    this.shortCircuit = false;
+    this.sourceStage = this;
+    this.sourceSpliterator = checkNotNull(sourceSpliterator);
+    this.parallel = parallel;
+  }
+
+  /**
+   * Creates the source stage of a pipeline, which gets its spliterator once a terminal operation
+   * runs.
+   */
+  AbstractPipeline(Supplier<? extends Spliterator<?>> sourceSupplier, boolean parallel) {
+    this.previousStage = null;
+    this.shortCircuit = false;
+    this.sourceStage = this;
+    this.sourceSupplier = checkNotNull(sourceSupplier);
+    this.parallel = parallel;
+  }
+
+  /**
+   * Creates an intermediate stage.
+   *
+   * @param shortCircuit whether the sink of this stage may request the cancellation of the
+   *     traversal, as {@code limit()} does
+   */
+  AbstractPipeline(AbstractPipeline<?, ?> previousStage, boolean shortCircuit) {
+    checkState(!previousStage.linkedOrConsumed, LINKED_OR_CONSUMED);
+    previousStage.linkedOrConsumed = true;
+    this.previousStage = previousStage;
+    this.shortCircuit = shortCircuit || previousStage.shortCircuit;
+    this.sourceStage = previousStage.sourceStage;
+  }
+
+  @Override
+  public void close() {
+    linkedOrConsumed = true;
+    sourceStage.sourceSpliterator = null;
+    sourceStage.sourceSupplier = null;
+    Runnable handler = sourceStage.closeHandler;
+    if (handler != null) {
+      sourceStage.closeHandler = null;
+      handler.run();
+    }
+  }
+
+  @Override
+  public boolean isParallel() {
+    return sourceStage.parallel;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public S onClose(Runnable closeHandler) {
+    checkNotNull(closeHandler);
+    checkState(!linkedOrConsumed, LINKED_OR_CONSUMED);
+    Runnable existingHandler = sourceStage.closeHandler;
+    sourceStage.closeHandler = existingHandler == null ? closeHandler
+        : composeCloseHandlers(existingHandler, closeHandler);
+    return (S) this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public S parallel() {
+    sourceStage.parallel = true;
+    return (S) this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public S sequential() {
+    sourceStage.parallel = false;
+    return (S) this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public S unordered() {
+    return (S) this;
+  }
+
+  /**
+   * Marks this stage as consumed and takes the spliterator of the source.
+   */
+  final Spliterator<?> consumeSourceSpliterator() {
+    checkState(!linkedOrConsumed, LINKED_OR_CONSUMED);
+    linkedOrConsumed = true;
+    Spliterator<?> spliterator = sourceStage.sourceSpliterator;
+    if (spliterator != null) {
+      sourceStage.sourceSpliterator = null;
+    } else {
+      checkState(sourceStage.sourceSupplier != null, LINKED_OR_CONSUMED);
+      spliterator = sourceStage.sourceSupplier.get();
+      sourceStage.sourceSupplier = null;
+    }
+    return spliterator;
+  }
+
+  /**
+   * Pushes the elements of the source's spliterator through a wrapped sink, bracketed by
+   * {@link Sink#begin} and {@link Sink#end}. Called on the source stage, which knows how to push
+   * the elements of its shape.
+   */
+  final void copyInto(Sink<?> wrappedSink, Spliterator<?> spliterator, boolean cancellable) {
+    wrappedSink.begin(spliterator.getExactSizeIfKnown());
+    if (cancellable) {
+      while (!wrappedSink.cancellationRequested() && tryAdvance(spliterator, wrappedSink)) {
+      }
+    } else {
+      forEachRemaining(spliterator, wrappedSink);
+    }
+    wrappedSink.end();
+  }
+
+  /**
+   * Runs the pipeline that ends in this stage, pushing its output into the given sink.
+   *
+   * @param cancellable whether the sink may request the cancellation of the traversal
+   */
+  final <R extends Sink<T>> R evaluate(R sink, boolean cancellable) {
+    Spliterator<?> spliterator = consumeSourceSpliterator();
+    sourceStage.copyInto(wrapSink(sink), spliterator, cancellable || shortCircuit);
+    return sink;
+  }
+
+  /**
+   * Pushes the output of this stream into the sink of a {@code flatMap} stage, and closes the
+   * stream. The traversal stops as soon as the sink requests its cancellation.
+   */
+  final void flattenInto(Sink<T> downstream) {
+    try {
+      Spliterator<?> spliterator = consumeSourceSpliterator();
+      sourceStage.copyInto(wrapSink(forwardingSink(downstream)), spliterator, true);
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Pushes all the elements of a spliterator of this stage's shape to a sink.
+   */
+  abstract void forEachRemaining(Spliterator<?> spliterator, Sink<?> sink);
+
+  /**
+   * Returns a sink that forwards the elements and cancellation requests of a {@code flatMap}
+   * result to the sink of the {@code flatMap} stage, but not the calls to {@link Sink#begin} and
+   * {@link Sink#end}.
+   */
+  abstract Sink<T> forwardingSink(Sink<T> downstream);
+
+  final AbstractPipeline<?, ?> getSourceStage() {
+    return sourceStage;
+  }
+
+  final boolean isShortCircuit() {
+    return shortCircuit;
+  }
+
+  /**
+   * Wraps the sink that receives the output of this stage in the sink that receives its input.
+   * Never called on the source stage.
+   */
+  abstract Sink<?> opWrapSink(Sink<T> sink);
+
+  /**
+   * Pushes the next element of a spliterator of this stage's shape to a sink, if there is one.
+   */
+  abstract boolean tryAdvance(Spliterator<?> spliterator, Sink<?> sink);
+
+  /**
+   * Wraps a sink that receives the output of this stage in the sinks of all stages back to the
+   * source.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  final Sink<?> wrapSink(Sink<T> sink) {
+    Sink wrappedSink = sink;
+    for (AbstractPipeline stage = this; stage != sourceStage; stage = stage.previousStage) {
+      wrappedSink = stage.opWrapSink(wrappedSink);
+    }
+    return wrappedSink;
+  }
+}
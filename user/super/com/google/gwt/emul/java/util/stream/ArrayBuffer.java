@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Growable arrays of primitive values, which collect the elements of primitive streams without
+ * boxing them. They are sinks, so they can end a pipeline directly.
+ */
+final class ArrayBuffer {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Returns the capacity to allocate for a number of elements announced by {@link Sink#begin}.
+   */
+  private static int initialCapacity(long size) {
+    return size >= 0 && size < Integer.MAX_VALUE ? (int) size : INITIAL_CAPACITY;
+  }
+
+  /**
+   * A growable array of int values.
+   */
+  static final class OfInt implements Sink.OfInt {
+    private int[] array = new int[0];
+    private int size;
+
+    @Override
+    public void accept(int value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, Math.max(INITIAL_CAPACITY, size * 2));
+      }
+      array[size++] = value;
+    }
+
+    @Override
+    public void begin(long size) {
+      array = new int[initialCapacity(size)];
+      this.size = 0;
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    int get(int index) {
+      return array[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    void sort() {
+      Arrays.sort(array, 0, size);
+    }
+
+    Spliterator.OfInt spliterator() {
+      return Spliterators.spliterator(array, 0, size, Spliterator.ORDERED);
+    }
+
+    int[] toArray() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  /**
+   * A growable array of long values.
+   */
+  static final class OfLong implements Sink.OfLong {
+    private long[] array = new long[0];
+    private int size;
+
+    @Override
+    public void accept(long value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, Math.max(INITIAL_CAPACITY, size * 2));
+      }
+      array[size++] = value;
+    }
+
+    @Override
+    public void begin(long size) {
+      array = new long[initialCapacity(size)];
+      this.size = 0;
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    long get(int index) {
+      return array[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    void sort() {
+      Arrays.sort(array, 0, size);
+    }
+
+    Spliterator.OfLong spliterator() {
+      return Spliterators.spliterator(array, 0, size, Spliterator.ORDERED);
+    }
+
+    long[] toArray() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  /**
+   * A growable array of double values.
+   */
+  static final class OfDouble implements Sink.OfDouble {
+    private double[] array = new double[0];
+    private int size;
+
+    @Override
+    public void accept(double value) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, Math.max(INITIAL_CAPACITY, size * 2));
+      }
+      array[size++] = value;
+    }
+
+    @Override
+    public void begin(long size) {
+      array = new double[initialCapacity(size)];
+      this.size = 0;
+    }
+
+    void clear() {
+      size = 0;
+    }
+
+    double get(int index) {
+      return array[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    void sort() {
+      Arrays.sort(array, 0, size);
+    }
+
+    Spliterator.OfDouble spliterator() {
+      return Spliterators.spliterator(array, 0, size, Spliterator.ORDERED);
+    }
+
+    double[] toArray() {
+      return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+  }
+
+  private ArrayBuffer() {
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/BaseStream.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * Streams always run sequentially in JavaScript; {@link #parallel()} only sets the flag that
+ * {@link #isParallel()} returns.
+ *
+ * @param <T> element type
+ * @param <S> stream type
+ */
+public interface BaseStream<T, S extends BaseStream<T, S>> extends AutoCloseable {
+
+  @Override
+  void close();
+
+  boolean isParallel();
+
+  Iterator<T> iterator();
+
+  S onClose(Runnable closeHandler);
+
+  S parallel();
+
+  S sequential();
+
+  Spliterator<T> spliterator();
+
+  S unordered();
+}
@@ -0,0 +1,488 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/Collectors.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * Streams always run sequentially in JavaScript, so the concurrent collectors aren't emulated.
+ */
+public final class Collectors {
+
+  /**
+   * A collector made of the given functions.
+   *
+   * @param <T> type of the collected elements
+   * @param <A> type of the mutable result container
+   * @param <R> type of the result
+   */
+  static final class CollectorImpl<T, A, R> implements Collector<T, A, R> {
+    private final BiConsumer<A, T> accumulator;
+    private final Set<Characteristics> characteristics;
+    private final BinaryOperator<A> combiner;
+    private final Function<A, R> finisher;
+    private final Supplier<A> supplier;
+
+    CollectorImpl(Supplier<A> supplier, BiConsumer<A, T> accumulator, BinaryOperator<A> combiner,
+        Function<A, R> finisher, Set<Characteristics> characteristics) {
+      this.supplier = supplier;
+      this.accumulator = accumulator;
+      this.combiner = combiner;
+      this.finisher = finisher;
+      this.characteristics = characteristics;
+    }
+
+    @Override
+    public BiConsumer<A, T> accumulator() {
+      return accumulator;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+      return characteristics;
+    }
+
+    @Override
+    public BinaryOperator<A> combiner() {
+      return combiner;
+    }
+
+    @Override
+    public Function<A, R> finisher() {
+      return finisher;
+    }
+
+    @Override
+    public Supplier<A> supplier() {
+      return supplier;
+    }
+  }
+
+  /**
+   * The container of {@code joining}, which tells an empty result from one empty element.
+   */
+  private static final class Joiner {
+    private final StringBuilder builder = new StringBuilder();
+    private final CharSequence delimiter;
+    private boolean empty = true;
+
+    Joiner(CharSequence delimiter) {
+      this.delimiter = delimiter;
+    }
+
+    void add(CharSequence element) {
+      if (empty) {
+        empty = false;
+      } else {
+        builder.append(delimiter);
+      }
+      builder.append(element);
+    }
+
+    Joiner merge(Joiner other) {
+      if (!other.empty) {
+        add(other.builder);
+      }
+      return this;
+    }
+  }
+
+  /**
+   * The container of {@code partitioningBy}.
+   *
+   * @param <A> type of the downstream containers
+   */
+  private static final class Partition<A> {
+    private final A forFalse;
+    private final A forTrue;
+
+    Partition(A forFalse, A forTrue) {
+      this.forFalse = forFalse;
+      this.forTrue = forTrue;
+    }
+  }
+
+  private static final Set<Collector.Characteristics> IDENTITY_FINISH =
+      Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.IDENTITY_FINISH));
+
+  private static final Set<Collector.Characteristics> NONE =
+      Collections.unmodifiableSet(EnumSet.noneOf(Collector.Characteristics.class));
+
+  private static final Set<Collector.Characteristics> UNORDERED_IDENTITY_FINISH =
+      Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.IDENTITY_FINISH,
+          Collector.Characteristics.UNORDERED));
+
+  public static <T> Collector<T, ?, Double> averagingDouble(ToDoubleFunction<? super T> mapper) {
+    return collectingAndThen(summarizingDouble(mapper), DoubleSummaryStatistics::getAverage);
+  }
+
+  public static <T> Collector<T, ?, Double> averagingInt(ToIntFunction<? super T> mapper) {
+    return collectingAndThen(summarizingInt(mapper), IntSummaryStatistics::getAverage);
+  }
+
+  public static <T> Collector<T, ?, Double> averagingLong(ToLongFunction<? super T> mapper) {
+    return collectingAndThen(summarizingLong(mapper), LongSummaryStatistics::getAverage);
+  }
+
+  public static <T, A, R, RR> Collector<T, A, RR> collectingAndThen(
+      Collector<T, A, R> downstream, Function<R, RR> finisher) {
+    checkNotNull(finisher);
+    Set<Collector.Characteristics> characteristics = downstream.characteristics();
+    if (characteristics.contains(Collector.Characteristics.IDENTITY_FINISH)) {
+      EnumSet<Collector.Characteristics> copy = EnumSet.noneOf(Collector.Characteristics.class);
+      copy.addAll(characteristics);
+      copy.remove(Collector.Characteristics.IDENTITY_FINISH);
+      characteristics = Collections.unmodifiableSet(copy);
+    }
+    Function<A, R> downstreamFinisher = downstream.finisher();
+    return new CollectorImpl<T, A, RR>(downstream.supplier(), downstream.accumulator(),
+        downstream.combiner(), container -> finisher.apply(downstreamFinisher.apply(container)),
+        characteristics);
+  }
+
+  public static <T> Collector<T, ?, Long> counting() {
+    return reducing(0L, e -> 1L, Long::sum);
+  }
+
+  public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingBy(
+      Function<? super T, ? extends K> classifier) {
+    return groupingBy(classifier, toList());
+  }
+
+  public static <T, K, A, D> Collector<T, ?, Map<K, D>> groupingBy(
+      Function<? super T, ? extends K> classifier, Collector<? super T, A, D> downstream) {
+    return groupingBy(classifier, HashMap::new, downstream);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T, K, D, A, M extends Map<K, D>> Collector<T, ?, M> groupingBy(
+      Function<? super T, ? extends K> classifier, Supplier<M> mapFactory,
+      Collector<? super T, A, D> downstream) {
+    checkNotNull(classifier);
+    checkNotNull(mapFactory);
+    Supplier<A> downstreamSupplier = downstream.supplier();
+    BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+    BinaryOperator<A> downstreamCombiner = downstream.combiner();
+    BiConsumer<Map<K, A>, T> accumulator = (map, t) -> {
+      K key = classifier.apply(t);
+      checkNotNull(key, "element cannot be mapped to a null key");
+      A container = map.get(key);
+      if (container == null) {
+        container = downstreamSupplier.get();
+        map.put(key, container);
+      }
+      downstreamAccumulator.accept(container, t);
+    };
+    BinaryOperator<Map<K, A>> combiner = (left, right) -> {
+      for (Map.Entry<K, A> entry : right.entrySet()) {
+        left.merge(entry.getKey(), entry.getValue(), downstreamCombiner);
+      }
+      return left;
+    };
+    Supplier<Map<K, A>> supplier = (Supplier<Map<K, A>>) mapFactory;
+    if (downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)) {
+      return new CollectorImpl<T, Map<K, A>, M>(supplier, accumulator, combiner,
+          map -> (M) map, IDENTITY_FINISH);
+    }
+    Function<A, D> downstreamFinisher = downstream.finisher();
+    return new CollectorImpl<T, Map<K, A>, M>(supplier, accumulator, combiner, map -> {
+      for (Map.Entry<K, A> entry : map.entrySet()) {
+        entry.setValue((A) downstreamFinisher.apply(entry.getValue()));
+      }
+      return (M) map;
+    }, NONE);
+  }
+
+  public static Collector<CharSequence, ?, String> joining() {
+    return new CollectorImpl<CharSequence, StringBuilder, String>(StringBuilder::new,
+        StringBuilder::append, StringBuilder::append, StringBuilder::toString, NONE);
+  }
+
+  public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+    return joining(delimiter, "", "");
+  }
+
+  public static Collector<CharSequence, ?, String> joining(CharSequence delimiter,
+      CharSequence prefix, CharSequence suffix) {
+    checkNotNull(delimiter);
+    checkNotNull(prefix);
+    checkNotNull(suffix);
+    return new CollectorImpl<CharSequence, Joiner, String>(() -> new Joiner(delimiter),
+        Joiner::add, Joiner::merge, joiner -> prefix + joiner.builder.toString() + suffix, NONE);
+  }
+
+  public static <T, U, A, R> Collector<T, ?, R> mapping(Function<? super T, ? extends U> mapper,
+      Collector<? super U, A, R> downstream) {
+    checkNotNull(mapper);
+    BiConsumer<A, ? super U> downstreamAccumulator = downstream.accumulator();
+    return new CollectorImpl<T, A, R>(downstream.supplier(),
+        (container, t) -> downstreamAccumulator.accept(container, mapper.apply(t)),
+        downstream.combiner(), downstream.finisher(), downstream.characteristics());
+  }
+
+  public static <T> Collector<T, ?, Optional<T>> maxBy(Comparator<? super T> comparator) {
+    return reducing(BinaryOperator.maxBy(comparator));
+  }
+
+  public static <T> Collector<T, ?, Optional<T>> minBy(Comparator<? super T> comparator) {
+    return reducing(BinaryOperator.minBy(comparator));
+  }
+
+  public static <T> Collector<T, ?, Map<Boolean, List<T>>> partitioningBy(
+      Predicate<? super T> predicate) {
+    return partitioningBy(predicate, toList());
+  }
+
+  public static <T, D, A> Collector<T, ?, Map<Boolean, D>> partitioningBy(
+      Predicate<? super T> predicate, Collector<? super T, A, D> downstream) {
+    checkNotNull(predicate);
+    Supplier<A> downstreamSupplier = downstream.supplier();
+    BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+    BinaryOperator<A> downstreamCombiner = downstream.combiner();
+    Function<A, D> downstreamFinisher = downstream.finisher();
+    return new CollectorImpl<T, Partition<A>, Map<Boolean, D>>(
+        () -> new Partition<A>(downstreamSupplier.get(), downstreamSupplier.get()),
+        (partition, t) -> downstreamAccumulator.accept(
+            predicate.test(t) ? partition.forTrue : partition.forFalse, t),
+        (left, right) -> new Partition<A>(
+            downstreamCombiner.apply(left.forFalse, right.forFalse),
+            downstreamCombiner.apply(left.forTrue, right.forTrue)),
+        partition -> {
+          Map<Boolean, D> map = new HashMap<Boolean, D>();
+          map.put(false, downstreamFinisher.apply(partition.forFalse));
+          map.put(true, downstreamFinisher.apply(partition.forTrue));
+          return map;
+        }, NONE);
+  }
+
+  public static <T> Collector<T, ?, Optional<T>> reducing(BinaryOperator<T> op) {
+    checkNotNull(op);
+    // The container holds whether an element was seen, and the reduction of the elements.
+    return new CollectorImpl<T, Object[], Optional<T>>(() -> new Object[] {false, null},
+        (container, t) -> {
+          container[1] = (Boolean) container[0] ? op.apply(castElement(container[1]), t) : t;
+          container[0] = true;
+        }, (left, right) -> {
+          if ((Boolean) right[0]) {
+            left[1] = (Boolean) left[0]
+                ? op.apply(castElement(left[1]), castElement(right[1])) : right[1];
+            left[0] = true;
+          }
+          return left;
+        }, container -> Optional.ofNullable(castElement(container[1])), NONE);
+  }
+
+  public static <T> Collector<T, ?, T> reducing(T identity, BinaryOperator<T> op) {
+    return reducing(identity, Function.<T>identity(), op);
+  }
+
+  public static <T, U> Collector<T, ?, U> reducing(U identity,
+      Function<? super T, ? extends U> mapper, BinaryOperator<U> op) {
+    checkNotNull(mapper);
+    checkNotNull(op);
+    return new CollectorImpl<T, Object[], U>(() -> new Object[] {identity},
+        (container, t) -> container[0] = op.apply(castElement(container[0]), mapper.apply(t)),
+        (left, right) -> {
+          left[0] = op.apply(castElement(left[0]), castElement(right[0]));
+          return left;
+        }, container -> castElement(container[0]), NONE);
+  }
+
+  public static <T> Collector<T, ?, DoubleSummaryStatistics> summarizingDouble(
+      ToDoubleFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, DoubleSummaryStatistics, DoubleSummaryStatistics>(
+        DoubleSummaryStatistics::new,
+        (statistics, t) -> statistics.accept(mapper.applyAsDouble(t)),
+        (left, right) -> {
+          left.combine(right);
+          return left;
+        }, Function.<DoubleSummaryStatistics>identity(), IDENTITY_FINISH);
+  }
+
+  public static <T> Collector<T, ?, IntSummaryStatistics> summarizingInt(
+      ToIntFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, IntSummaryStatistics, IntSummaryStatistics>(
+        IntSummaryStatistics::new,
+        (statistics, t) -> statistics.accept(mapper.applyAsInt(t)),
+        (left, right) -> {
+          left.combine(right);
+          return left;
+        }, Function.<IntSummaryStatistics>identity(), IDENTITY_FINISH);
+  }
+
+  public static <T> Collector<T, ?, LongSummaryStatistics> summarizingLong(
+      ToLongFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, LongSummaryStatistics, LongSummaryStatistics>(
+        LongSummaryStatistics::new,
+        (statistics, t) -> statistics.accept(mapper.applyAsLong(t)),
+        (left, right) -> {
+          left.combine(right);
+          return left;
+        }, Function.<LongSummaryStatistics>identity(), IDENTITY_FINISH);
+  }
+
+  public static <T> Collector<T, ?, Double> summingDouble(ToDoubleFunction<? super T> mapper) {
+    return collectingAndThen(summarizingDouble(mapper), DoubleSummaryStatistics::getSum);
+  }
+
+  public static <T> Collector<T, ?, Integer> summingInt(ToIntFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, int[], Integer>(() -> new int[1],
+        (container, t) -> container[0] += mapper.applyAsInt(t),
+        (left, right) -> {
+          left[0] += right[0];
+          return left;
+        }, container -> container[0], NONE);
+  }
+
+  public static <T> Collector<T, ?, Long> summingLong(ToLongFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new CollectorImpl<T, long[], Long>(() -> new long[1],
+        (container, t) -> container[0] += mapper.applyAsLong(t),
+        (left, right) -> {
+          left[0] += right[0];
+          return left;
+        }, container -> container[0], NONE);
+  }
+
+  public static <T, C extends Collection<T>> Collector<T, ?, C> toCollection(
+      Supplier<C> collectionFactory) {
+    checkNotNull(collectionFactory);
+    return new CollectorImpl<T, C, C>(collectionFactory, Collection::add, (left, right) -> {
+      left.addAll(right);
+      return left;
+    }, Function.<C>identity(), IDENTITY_FINISH);
+  }
+
+  public static <T> Collector<T, ?, List<T>> toList() {
+    return new CollectorImpl<T, List<T>, List<T>>(ArrayList::new, List::add, (left, right) -> {
+      left.addAll(right);
+      return left;
+    }, Function.<List<T>>identity(), IDENTITY_FINISH);
+  }
+
+  public static <T, K, U> Collector<T, ?, Map<K, U>> toMap(
+      Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends U> valueMapper) {
+    checkNotNull(keyMapper);
+    checkNotNull(valueMapper);
+    BiConsumer<Map<K, U>, T> accumulator = (map, t) -> {
+      K key = keyMapper.apply(t);
+      U value = checkNotNull(valueMapper.apply(t));
+      U existingValue = map.putIfAbsent(key, value);
+      if (existingValue != null) {
+        throw duplicateKey(key, existingValue, value);
+      }
+    };
+    BinaryOperator<Map<K, U>> combiner = (left, right) -> {
+      for (Map.Entry<K, U> entry : right.entrySet()) {
+        U existingValue = left.putIfAbsent(entry.getKey(), entry.getValue());
+        if (existingValue != null) {
+          throw duplicateKey(entry.getKey(), existingValue, entry.getValue());
+        }
+      }
+      return left;
+    };
+    return new CollectorImpl<T, Map<K, U>, Map<K, U>>(HashMap::new, accumulator, combiner,
+        Function.<Map<K, U>>identity(), IDENTITY_FINISH);
+  }
+
+  public static <T, K, U> Collector<T, ?, Map<K, U>> toMap(
+      Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends U> valueMapper,
+      BinaryOperator<U> mergeFunction) {
+    return toMap(keyMapper, valueMapper, mergeFunction, HashMap::new);
+  }
+
+  public static <T, K, U, M extends Map<K, U>> Collector<T, ?, M> toMap(
+      Function<? super T, ? extends K> keyMapper, Function<? super T, ? extends U> valueMapper,
+      BinaryOperator<U> mergeFunction, Supplier<M> mapFactory) {
+    checkNotNull(keyMapper);
+    checkNotNull(valueMapper);
+    checkNotNull(mergeFunction);
+    checkNotNull(mapFactory);
+    return new CollectorImpl<T, M, M>(mapFactory,
+        (map, t) -> map.merge(keyMapper.apply(t), valueMapper.apply(t), mergeFunction),
+        (left, right) -> {
+          for (Map.Entry<K, U> entry : right.entrySet()) {
+            left.merge(entry.getKey(), entry.getValue(), mergeFunction);
+          }
+          return left;
+        }, Function.<M>identity(), IDENTITY_FINISH);
+  }
+
+  public static <T> Collector<T, ?, Set<T>> toSet() {
+    return new CollectorImpl<T, Set<T>, Set<T>>(HashSet::new, Set::add, (left, right) -> {
+      left.addAll(right);
+      return left;
+    }, Function.<Set<T>>identity(), UNORDERED_IDENTITY_FINISH);
+  }
+
+  /**
+   * Returns the characteristics given to {@link Collector#of}, as an unmodifiable set.
+   */
+  static Set<Collector.Characteristics> characteristicSet(
+      Collector.Characteristics... characteristics) {
+    if (characteristics.length == 0) {
+      return NONE;
+    }
+    Set<Collector.Characteristics> set = EnumSet.noneOf(Collector.Characteristics.class);
+    Collections.addAll(set, characteristics);
+    return Collections.unmodifiableSet(set);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T castElement(Object element) {
+    return (T) element;
+  }
+
+  private static IllegalStateException duplicateKey(Object key, Object existingValue,
+      Object value) {
+    return new IllegalStateException("Duplicate key " + key + " (attempted merging values "
+        + existingValue + " and " + value + ")");
+  }
+
+  private Collectors() {
+  }
+}
@@ -0,0 +1,627 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkArgument;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.HashSet;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A stage of a pipeline of double values. The values flow through the pipeline unboxed.
+ */
+abstract class DoublePipeline extends AbstractPipeline<Double, DoubleStream>
+    implements DoubleStream {
+
+  /**
+   * The sink of {@code count}.
+   */
+  private static final class CountingSink implements Sink.OfDouble {
+    private double count;
+
+    @Override
+    public void accept(double value) {
+      count++;
+    }
+
+    long get() {
+      return (long) count;
+    }
+  }
+
+  /**
+   * The sink of {@code findFirst} and {@code findAny}.
+   */
+  private static final class FindSink implements Sink.OfDouble {
+    private boolean found;
+    private double value;
+
+    @Override
+    public void accept(double value) {
+      if (!found) {
+        found = true;
+        this.value = value;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return found;
+    }
+  }
+
+  /**
+   * The source stage of a pipeline of double values.
+   */
+  static final class Head extends DoublePipeline {
+    Head(Spliterator.OfDouble spliterator, boolean parallel) {
+      super(spliterator, parallel);
+    }
+
+    Head(Supplier<? extends Spliterator.OfDouble> supplier, boolean parallel) {
+      super(supplier, parallel);
+    }
+
+    @Override
+    Sink<?> opWrapSink(Sink<Double> sink) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * The sink of {@code allMatch}, {@code anyMatch} and {@code noneMatch}, which stops at the
+   * first value for which the predicate returns {@code stopOn}.
+   */
+  private static final class MatchSink implements Sink.OfDouble {
+    private final DoublePredicate predicate;
+    private boolean stopped;
+    private final boolean stopOn;
+
+    MatchSink(DoublePredicate predicate, boolean stopOn) {
+      this.predicate = predicate;
+      this.stopOn = stopOn;
+    }
+
+    @Override
+    public void accept(double value) {
+      if (!stopped && predicate.test(value) == stopOn) {
+        stopped = true;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return stopped;
+    }
+  }
+
+  /**
+   * The sink of {@code reduce} and of the terminal operations built on it.
+   */
+  private static final class ReducingSink implements Sink.OfDouble {
+    private boolean empty;
+    private final DoubleBinaryOperator op;
+    private double result;
+
+    ReducingSink(DoubleBinaryOperator op) {
+      this.empty = true;
+      this.op = op;
+    }
+
+    ReducingSink(double identity, DoubleBinaryOperator op) {
+      this.result = identity;
+      this.op = op;
+    }
+
+    @Override
+    public void accept(double value) {
+      if (empty) {
+        empty = false;
+        result = value;
+      } else {
+        result = op.applyAsDouble(result, value);
+      }
+    }
+
+    OptionalDouble get() {
+      return empty ? OptionalDouble.empty() : OptionalDouble.of(result);
+    }
+  }
+
+  /**
+   * The sink of {@code sum} and {@code average}. Like the JRE, it compensates for the rounding
+   * errors of the additions (Kahan summation).
+   */
+  private static final class SummingSink implements Sink.OfDouble {
+    private double count;
+
+    /**
+     * The uncompensated sum, which is returned if the compensated one is NaN, as it is when one of
+     * the values is infinite.
+     */
+    private double naiveSum;
+
+    private double sum;
+    private double sumError;
+
+    @Override
+    public void accept(double value) {
+      count++;
+      naiveSum += value;
+      double compensatedValue = value - sumError;
+      double newSum = sum + compensatedValue;
+      sumError = (newSum - sum) - compensatedValue;
+      sum = newSum;
+    }
+
+    double getSum() {
+      double compensatedSum = sum - sumError;
+      if (Double.isNaN(compensatedSum) && Double.isInfinite(naiveSum)) {
+        return naiveSum;
+      }
+      return compensatedSum;
+    }
+  }
+
+  DoublePipeline(AbstractPipeline<?, ?> previousStage) {
+    super(previousStage, false);
+  }
+
+  DoublePipeline(AbstractPipeline<?, ?> previousStage, boolean shortCircuit) {
+    super(previousStage, shortCircuit);
+  }
+
+  DoublePipeline(Spliterator.OfDouble spliterator, boolean parallel) {
+    super(spliterator, parallel);
+  }
+
+  DoublePipeline(Supplier<? extends Spliterator.OfDouble> supplier, boolean parallel) {
+    super(supplier, parallel);
+  }
+
+  @Override
+  public boolean allMatch(DoublePredicate predicate) {
+    return !match(predicate, false);
+  }
+
+  @Override
+  public boolean anyMatch(DoublePredicate predicate) {
+    return match(predicate, true);
+  }
+
+  @Override
+  public OptionalDouble average() {
+    SummingSink sink = evaluate(new SummingSink(), false);
+    return sink.count > 0 ? OptionalDouble.of(sink.getSum() / sink.count)
+        : OptionalDouble.empty();
+  }
+
+  @Override
+  public Stream<Double> boxed() {
+    return mapToObj(Double::valueOf);
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    R container = supplier.get();
+    evaluate((Sink.OfDouble) value -> accumulator.accept(container, value), false);
+    return container;
+  }
+
+  @Override
+  public long count() {
+    if (this == getSourceStage()) {
+      Spliterator<?> spliterator = consumeSourceSpliterator();
+      long size = spliterator.getExactSizeIfKnown();
+      if (size >= 0) {
+        return size;
+      }
+      CountingSink sink = new CountingSink();
+      copyInto(sink, spliterator, false);
+      return sink.get();
+    }
+    return evaluate(new CountingSink(), false).get();
+  }
+
+  @Override
+  public DoubleStream distinct() {
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          private HashSet<Double> seen;
+
+          @Override
+          public void begin(long size) {
+            seen = new HashSet<Double>();
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(double value) {
+            if (seen.add(value)) {
+              downstream.accept(value);
+            }
+          }
+
+          @Override
+          public void end() {
+            seen = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream filter(DoublePredicate predicate) {
+    checkNotNull(predicate);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(double value) {
+            if (predicate.test(value)) {
+              downstream.accept(value);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalDouble findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public OptionalDouble findFirst() {
+    FindSink sink = evaluate(new FindSink(), true);
+    return sink.found ? OptionalDouble.of(sink.value) : OptionalDouble.empty();
+  }
+
+  @Override
+  public DoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper) {
+    checkNotNull(mapper);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(double value) {
+            flatten(mapper.apply(value), downstream);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public void forEach(DoubleConsumer action) {
+    checkNotNull(action);
+    evaluate((Sink.OfDouble) action::accept, false);
+  }
+
+  @Override
+  public void forEachOrdered(DoubleConsumer action) {
+    forEach(action);
+  }
+
+  @Override
+  public PrimitiveIterator.OfDouble iterator() {
+    return Spliterators.iterator(spliterator());
+  }
+
+  @Override
+  public DoubleStream limit(long maxSize) {
+    checkArgument(maxSize >= 0, "maxSize < 0: %s", maxSize);
+    return new DoublePipeline(this, true) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          private double remaining = maxSize;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.min(size, maxSize) : -1);
+          }
+
+          @Override
+          public void accept(double value) {
+            if (remaining > 0) {
+              remaining--;
+              downstream.accept(value);
+            }
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            return remaining == 0 || downstream.cancellationRequested();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream map(DoubleUnaryOperator mapper) {
+    checkNotNull(mapper);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          @Override
+          public void accept(double value) {
+            downstream.accept(mapper.applyAsDouble(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public IntStream mapToInt(DoubleToIntFunction mapper) {
+    checkNotNull(mapper);
+    return new IntPipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedDouble<Integer>(sink) {
+          @Override
+          public void accept(double value) {
+            downstream.accept(mapper.applyAsInt(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream mapToLong(DoubleToLongFunction mapper) {
+    checkNotNull(mapper);
+    return new LongPipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedDouble<Long>(sink) {
+          @Override
+          public void accept(double value) {
+            downstream.accept(mapper.applyAsLong(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper) {
+    checkNotNull(mapper);
+    return new ReferencePipeline<U>(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<U> sink) {
+        return new Sink.ChainedDouble<U>(sink) {
+          @Override
+          public void accept(double value) {
+            downstream.accept(mapper.apply(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalDouble max() {
+    return reduce(Math::max);
+  }
+
+  @Override
+  public OptionalDouble min() {
+    return reduce(Math::min);
+  }
+
+  @Override
+  public boolean noneMatch(DoublePredicate predicate) {
+    return !match(predicate, true);
+  }
+
+  @Override
+  public DoubleStream peek(DoubleConsumer action) {
+    checkNotNull(action);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          @Override
+          public void accept(double value) {
+            action.accept(value);
+            downstream.accept(value);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalDouble reduce(DoubleBinaryOperator op) {
+    checkNotNull(op);
+    return evaluate(new ReducingSink(op), false).get();
+  }
+
+  @Override
+  public double reduce(double identity, DoubleBinaryOperator op) {
+    checkNotNull(op);
+    return evaluate(new ReducingSink(identity, op), false).result;
+  }
+
+  @Override
+  public DoubleStream skip(long n) {
+    checkArgument(n >= 0, "n < 0: %s", n);
+    if (n == 0) {
+      return this;
+    }
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          private double remaining = n;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.max(0, size - n) : -1);
+          }
+
+          @Override
+          public void accept(double value) {
+            if (remaining > 0) {
+              remaining--;
+            } else {
+              downstream.accept(value);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream sorted() {
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Double> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedDouble<Double>(sink) {
+          private boolean cancellable;
+          private ArrayBuffer.OfDouble elements;
+
+          @Override
+          public void begin(long size) {
+            elements = new ArrayBuffer.OfDouble();
+            elements.begin(size);
+          }
+
+          @Override
+          public void accept(double value) {
+            elements.accept(value);
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            // Sorting needs every value, but the stages after it may still short-circuit.
+            cancellable = true;
+            return false;
+          }
+
+          @Override
+          public void end() {
+            elements.sort();
+            int size = elements.size();
+            downstream.begin(size);
+            for (int i = 0; i < size; i++) {
+              if (cancellable && downstream.cancellationRequested()) {
+                break;
+              }
+              downstream.accept(elements.get(i));
+            }
+            elements = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Spliterator.OfDouble spliterator() {
+    if (this == getSourceStage()) {
+      return (Spliterator.OfDouble) consumeSourceSpliterator();
+    }
+    return new StreamSpliterators.DoubleWrappingSpliterator(this);
+  }
+
+  @Override
+  public double sum() {
+    return evaluate(new SummingSink(), false).getSum();
+  }
+
+  @Override
+  public DoubleSummaryStatistics summaryStatistics() {
+    DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+    evaluate((Sink.OfDouble) statistics::accept, false);
+    return statistics;
+  }
+
+  @Override
+  public double[] toArray() {
+    return evaluate(new ArrayBuffer.OfDouble(), false).toArray();
+  }
+
+  @Override
+  final void forEachRemaining(Spliterator<?> spliterator, Sink<?> sink) {
+    ((Spliterator.OfDouble) spliterator).forEachRemaining((DoubleConsumer) sink);
+  }
+
+  @Override
+  final Sink<Double> forwardingSink(Sink<Double> downstream) {
+    return new Sink.OfDouble() {
+      @Override
+      public void accept(double value) {
+        downstream.accept(value);
+      }
+
+      @Override
+      public boolean cancellationRequested() {
+        return downstream.cancellationRequested();
+      }
+    };
+  }
+
+  @Override
+  final boolean tryAdvance(Spliterator<?> spliterator, Sink<?> sink) {
+    return ((Spliterator.OfDouble) spliterator).tryAdvance((DoubleConsumer) sink);
+  }
+
+  private boolean match(DoublePredicate predicate, boolean stopOn) {
+    checkNotNull(predicate);
+    return evaluate(new MatchSink(predicate, stopOn), true).stopped;
+  }
+}
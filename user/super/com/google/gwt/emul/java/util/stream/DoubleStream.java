@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/DoubleStream.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * The values are passed between the stages of the pipeline unboxed.
+ */
+public interface DoubleStream extends BaseStream<Double, DoubleStream> {
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/DoubleStream.Builder.html">the
+   * official Java API doc</a> for details.
+   */
+  interface Builder extends DoubleConsumer {
+    @Override
+    void accept(double t);
+
+    default DoubleStream.Builder add(double t) {
+      accept(t);
+      return this;
+    }
+
+    DoubleStream build();
+  }
+
+  static DoubleStream.Builder builder() {
+    return new Streams.DoubleBuilder();
+  }
+
+  static DoubleStream concat(DoubleStream a, DoubleStream b) {
+    checkNotNull(a);
+    checkNotNull(b);
+    return StreamSupport.doubleStream(
+        new Streams.DoubleConcatSpliterator(a.spliterator(), b.spliterator()),
+        a.isParallel() || b.isParallel()).onClose(Streams.composedClose(a, b));
+  }
+
+  static DoubleStream empty() {
+    return StreamSupport.doubleStream(Spliterators.emptyDoubleSpliterator(), false);
+  }
+
+  static DoubleStream generate(DoubleSupplier s) {
+    checkNotNull(s);
+    return StreamSupport.doubleStream(new Spliterators.AbstractDoubleSpliterator(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE) {
+      @Override
+      public boolean tryAdvance(DoubleConsumer consumer) {
+        consumer.accept(s.getAsDouble());
+        return true;
+      }
+    }, false);
+  }
+
+  static DoubleStream iterate(double seed, DoubleUnaryOperator f) {
+    checkNotNull(f);
+    return StreamSupport.doubleStream(new Spliterators.AbstractDoubleSpliterator(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE | Spliterator.ORDERED) {
+      private boolean started;
+      private double next;
+
+      @Override
+      public boolean tryAdvance(DoubleConsumer consumer) {
+        next = started ? f.applyAsDouble(next) : seed;
+        started = true;
+        consumer.accept(next);
+        return true;
+      }
+    }, false);
+  }
+
+  static DoubleStream of(double t) {
+    return of(new double[] {t});
+  }
+
+  static DoubleStream of(double... values) {
+    return StreamSupport.doubleStream(Spliterators.spliterator(values,
+        Spliterator.IMMUTABLE | Spliterator.ORDERED), false);
+  }
+
+  boolean allMatch(DoublePredicate predicate);
+
+  boolean anyMatch(DoublePredicate predicate);
+
+  OptionalDouble average();
+
+  Stream<Double> boxed();
+
+  <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+  long count();
+
+  DoubleStream distinct();
+
+  DoubleStream filter(DoublePredicate predicate);
+
+  OptionalDouble findAny();
+
+  OptionalDouble findFirst();
+
+  DoubleStream flatMap(DoubleFunction<? extends DoubleStream> mapper);
+
+  void forEach(DoubleConsumer action);
+
+  void forEachOrdered(DoubleConsumer action);
+
+  @Override
+  PrimitiveIterator.OfDouble iterator();
+
+  DoubleStream limit(long maxSize);
+
+  DoubleStream map(DoubleUnaryOperator mapper);
+
+  IntStream mapToInt(DoubleToIntFunction mapper);
+
+  LongStream mapToLong(DoubleToLongFunction mapper);
+
+  <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper);
+
+  OptionalDouble max();
+
+  OptionalDouble min();
+
+  boolean noneMatch(DoublePredicate predicate);
+
+  @Override
+  DoubleStream parallel();
+
+  DoubleStream peek(DoubleConsumer action);
+
+  OptionalDouble reduce(DoubleBinaryOperator op);
+
+  double reduce(double identity, DoubleBinaryOperator op);
+
+  @Override
+  DoubleStream sequential();
+
+  DoubleStream skip(long n);
+
+  DoubleStream sorted();
+
+  @Override
+  Spliterator.OfDouble spliterator();
+
+  double sum();
+
+  DoubleSummaryStatistics summaryStatistics();
+
+  double[] toArray();
+}
@@ -0,0 +1,651 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkArgument;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A stage of a pipeline of int values. The values flow through the pipeline unboxed.
+ */
+abstract class IntPipeline extends AbstractPipeline<Integer, IntStream> implements IntStream {
+
+  /**
+   * The sink of {@code average}, which sums in a double: doubles are exact up to 2^53 and, unlike
+   * longs, native in JavaScript.
+   */
+  private static final class AveragingSink implements Sink.OfInt {
+    private double count;
+    private double sum;
+
+    @Override
+    public void accept(int value) {
+      count++;
+      sum += value;
+    }
+
+    OptionalDouble get() {
+      return count > 0 ? OptionalDouble.of(sum / count) : OptionalDouble.empty();
+    }
+  }
+
+  /**
+   * The sink of {@code count}.
+   */
+  private static final class CountingSink implements Sink.OfInt {
+    private double count;
+
+    @Override
+    public void accept(int value) {
+      count++;
+    }
+
+    long get() {
+      return (long) count;
+    }
+  }
+
+  /**
+   * The sink of {@code findFirst} and {@code findAny}.
+   */
+  private static final class FindSink implements Sink.OfInt {
+    private boolean found;
+    private int value;
+
+    @Override
+    public void accept(int value) {
+      if (!found) {
+        found = true;
+        this.value = value;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return found;
+    }
+  }
+
+  /**
+   * The source stage of a pipeline of int values.
+   */
+  static final class Head extends IntPipeline {
+    Head(Spliterator.OfInt spliterator, boolean parallel) {
+      super(spliterator, parallel);
+    }
+
+    Head(Supplier<? extends Spliterator.OfInt> supplier, boolean parallel) {
+      super(supplier, parallel);
+    }
+
+    @Override
+    Sink<?> opWrapSink(Sink<Integer> sink) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * The sink of {@code allMatch}, {@code anyMatch} and {@code noneMatch}, which stops at the
+   * first value for which the predicate returns {@code stopOn}.
+   */
+  private static final class MatchSink implements Sink.OfInt {
+    private final IntPredicate predicate;
+    private boolean stopped;
+    private final boolean stopOn;
+
+    MatchSink(IntPredicate predicate, boolean stopOn) {
+      this.predicate = predicate;
+      this.stopOn = stopOn;
+    }
+
+    @Override
+    public void accept(int value) {
+      if (!stopped && predicate.test(value) == stopOn) {
+        stopped = true;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return stopped;
+    }
+  }
+
+  /**
+   * The sink of {@code reduce} and of the terminal operations built on it.
+   */
+  private static final class ReducingSink implements Sink.OfInt {
+    private boolean empty;
+    private final IntBinaryOperator op;
+    private int result;
+
+    ReducingSink(IntBinaryOperator op) {
+      this.empty = true;
+      this.op = op;
+    }
+
+    ReducingSink(int identity, IntBinaryOperator op) {
+      this.result = identity;
+      this.op = op;
+    }
+
+    @Override
+    public void accept(int value) {
+      if (empty) {
+        empty = false;
+        result = value;
+      } else {
+        result = op.applyAsInt(result, value);
+      }
+    }
+
+    OptionalInt get() {
+      return empty ? OptionalInt.empty() : OptionalInt.of(result);
+    }
+  }
+
+  /**
+   * The sink of {@code sum}.
+   */
+  private static final class SummingSink implements Sink.OfInt {
+    private int sum;
+
+    @Override
+    public void accept(int value) {
+      sum += value;
+    }
+  }
+
+  IntPipeline(AbstractPipeline<?, ?> previousStage) {
+    super(previousStage, false);
+  }
+
+  IntPipeline(AbstractPipeline<?, ?> previousStage, boolean shortCircuit) {
+    super(previousStage, shortCircuit);
+  }
+
+  IntPipeline(Spliterator.OfInt spliterator, boolean parallel) {
+    super(spliterator, parallel);
+  }
+
+  IntPipeline(Supplier<? extends Spliterator.OfInt> supplier, boolean parallel) {
+    super(supplier, parallel);
+  }
+
+  @Override
+  public boolean allMatch(IntPredicate predicate) {
+    return !match(predicate, false);
+  }
+
+  @Override
+  public boolean anyMatch(IntPredicate predicate) {
+    return match(predicate, true);
+  }
+
+  @Override
+  public DoubleStream asDoubleStream() {
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedInt<Double>(sink) {
+          @Override
+          public void accept(int value) {
+            downstream.accept((double) value);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream asLongStream() {
+    return new LongPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedInt<Long>(sink) {
+          @Override
+          public void accept(int value) {
+            downstream.accept((long) value);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalDouble average() {
+    return evaluate(new AveragingSink(), false).get();
+  }
+
+  @Override
+  public Stream<Integer> boxed() {
+    return mapToObj(Integer::valueOf);
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    R container = supplier.get();
+    evaluate((Sink.OfInt) value -> accumulator.accept(container, value), false);
+    return container;
+  }
+
+  @Override
+  public long count() {
+    if (this == getSourceStage()) {
+      Spliterator<?> spliterator = consumeSourceSpliterator();
+      long size = spliterator.getExactSizeIfKnown();
+      if (size >= 0) {
+        return size;
+      }
+      CountingSink sink = new CountingSink();
+      copyInto(sink, spliterator, false);
+      return sink.get();
+    }
+    return evaluate(new CountingSink(), false).get();
+  }
+
+  @Override
+  public IntStream distinct() {
+    return new IntPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          private HashSet<Integer> seen;
+
+          @Override
+          public void begin(long size) {
+            seen = new HashSet<Integer>();
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(int value) {
+            if (seen.add(value)) {
+              downstream.accept(value);
+            }
+          }
+
+          @Override
+          public void end() {
+            seen = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public IntStream filter(IntPredicate predicate) {
+    checkNotNull(predicate);
+    return new IntPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(int value) {
+            if (predicate.test(value)) {
+              downstream.accept(value);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalInt findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public OptionalInt findFirst() {
+    FindSink sink = evaluate(new FindSink(), true);
+    return sink.found ? OptionalInt.of(sink.value) : OptionalInt.empty();
+  }
+
+  @Override
+  public IntStream flatMap(IntFunction<? extends IntStream> mapper) {
+    checkNotNull(mapper);
+    return new IntPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(int value) {
+            flatten(mapper.apply(value), downstream);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public void forEach(IntConsumer action) {
+    checkNotNull(action);
+    evaluate((Sink.OfInt) action::accept, false);
+  }
+
+  @Override
+  public void forEachOrdered(IntConsumer action) {
+    forEach(action);
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt iterator() {
+    return Spliterators.iterator(spliterator());
+  }
+
+  @Override
+  public IntStream limit(long maxSize) {
+    checkArgument(maxSize >= 0, "maxSize < 0: %s", maxSize);
+    return new IntPipeline(this, true) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          private double remaining = maxSize;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.min(size, maxSize) : -1);
+          }
+
+          @Override
+          public void accept(int value) {
+            if (remaining > 0) {
+              remaining--;
+              downstream.accept(value);
+            }
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            return remaining == 0 || downstream.cancellationRequested();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public IntStream map(IntUnaryOperator mapper) {
+    checkNotNull(mapper);
+    return new IntPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          @Override
+          public void accept(int value) {
+            downstream.accept(mapper.applyAsInt(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream mapToDouble(IntToDoubleFunction mapper) {
+    checkNotNull(mapper);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedInt<Double>(sink) {
+          @Override
+          public void accept(int value) {
+            downstream.accept(mapper.applyAsDouble(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream mapToLong(IntToLongFunction mapper) {
+    checkNotNull(mapper);
+    return new LongPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedInt<Long>(sink) {
+          @Override
+          public void accept(int value) {
+            downstream.accept(mapper.applyAsLong(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public <U> Stream<U> mapToObj(IntFunction<? extends U> mapper) {
+    checkNotNull(mapper);
+    return new ReferencePipeline<U>(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<U> sink) {
+        return new Sink.ChainedInt<U>(sink) {
+          @Override
+          public void accept(int value) {
+            downstream.accept(mapper.apply(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalInt max() {
+    return reduce(Math::max);
+  }
+
+  @Override
+  public OptionalInt min() {
+    return reduce(Math::min);
+  }
+
+  @Override
+  public boolean noneMatch(IntPredicate predicate) {
+    return !match(predicate, true);
+  }
+
+  @Override
+  public IntStream peek(IntConsumer action) {
+    checkNotNull(action);
+    return new IntPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          @Override
+          public void accept(int value) {
+            action.accept(value);
+            downstream.accept(value);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalInt reduce(IntBinaryOperator op) {
+    checkNotNull(op);
+    return evaluate(new ReducingSink(op), false).get();
+  }
+
+  @Override
+  public int reduce(int identity, IntBinaryOperator op) {
+    checkNotNull(op);
+    return evaluate(new ReducingSink(identity, op), false).result;
+  }
+
+  @Override
+  public IntStream skip(long n) {
+    checkArgument(n >= 0, "n < 0: %s", n);
+    if (n == 0) {
+      return this;
+    }
+    return new IntPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          private double remaining = n;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.max(0, size - n) : -1);
+          }
+
+          @Override
+          public void accept(int value) {
+            if (remaining > 0) {
+              remaining--;
+            } else {
+              downstream.accept(value);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public IntStream sorted() {
+    return new IntPipeline(this) {
+      @Override
+      Sink<Integer> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedInt<Integer>(sink) {
+          private boolean cancellable;
+          private ArrayBuffer.OfInt elements;
+
+          @Override
+          public void begin(long size) {
+            elements = new ArrayBuffer.OfInt();
+            elements.begin(size);
+          }
+
+          @Override
+          public void accept(int value) {
+            elements.accept(value);
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            // Sorting needs every value, but the stages after it may still short-circuit.
+            cancellable = true;
+            return false;
+          }
+
+          @Override
+          public void end() {
+            elements.sort();
+            int size = elements.size();
+            downstream.begin(size);
+            for (int i = 0; i < size; i++) {
+              if (cancellable && downstream.cancellationRequested()) {
+                break;
+              }
+              downstream.accept(elements.get(i));
+            }
+            elements = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Spliterator.OfInt spliterator() {
+    if (this == getSourceStage()) {
+      return (Spliterator.OfInt) consumeSourceSpliterator();
+    }
+    return new StreamSpliterators.IntWrappingSpliterator(this);
+  }
+
+  @Override
+  public int sum() {
+    return evaluate(new SummingSink(), false).sum;
+  }
+
+  @Override
+  public IntSummaryStatistics summaryStatistics() {
+    IntSummaryStatistics statistics = new IntSummaryStatistics();
+    evaluate((Sink.OfInt) statistics::accept, false);
+    return statistics;
+  }
+
+  @Override
+  public int[] toArray() {
+    return evaluate(new ArrayBuffer.OfInt(), false).toArray();
+  }
+
+  @Override
+  final void forEachRemaining(Spliterator<?> spliterator, Sink<?> sink) {
+    ((Spliterator.OfInt) spliterator).forEachRemaining((IntConsumer) sink);
+  }
+
+  @Override
+  final Sink<Integer> forwardingSink(Sink<Integer> downstream) {
+    return new Sink.OfInt() {
+      @Override
+      public void accept(int value) {
+        downstream.accept(value);
+      }
+
+      @Override
+      public boolean cancellationRequested() {
+        return downstream.cancellationRequested();
+      }
+    };
+  }
+
+  @Override
+  final boolean tryAdvance(Spliterator<?> spliterator, Sink<?> sink) {
+    return ((Spliterator.OfInt) spliterator).tryAdvance((IntConsumer) sink);
+  }
+
+  private boolean match(IntPredicate predicate, boolean stopOn) {
+    checkNotNull(predicate);
+    return evaluate(new MatchSink(predicate, stopOn), true).stopped;
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.IntSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/IntStream.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * The values are passed between the stages of the pipeline unboxed.
+ */
+public interface IntStream extends BaseStream<Integer, IntStream> {
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/IntStream.Builder.html">the
+   * official Java API doc</a> for details.
+   */
+  interface Builder extends IntConsumer {
+    @Override
+    void accept(int t);
+
+    default IntStream.Builder add(int t) {
+      accept(t);
+      return this;
+    }
+
+    IntStream build();
+  }
+
+  static IntStream.Builder builder() {
+    return new Streams.IntBuilder();
+  }
+
+  static IntStream concat(IntStream a, IntStream b) {
+    checkNotNull(a);
+    checkNotNull(b);
+    return StreamSupport.intStream(
+        new Streams.IntConcatSpliterator(a.spliterator(), b.spliterator()),
+        a.isParallel() || b.isParallel()).onClose(Streams.composedClose(a, b));
+  }
+
+  static IntStream empty() {
+    return StreamSupport.intStream(Spliterators.emptyIntSpliterator(), false);
+  }
+
+  static IntStream generate(IntSupplier s) {
+    checkNotNull(s);
+    return StreamSupport.intStream(new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(IntConsumer consumer) {
+        consumer.accept(s.getAsInt());
+        return true;
+      }
+    }, false);
+  }
+
+  static IntStream iterate(int seed, IntUnaryOperator f) {
+    checkNotNull(f);
+    return StreamSupport.intStream(new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED) {
+      private boolean started;
+      private int next;
+
+      @Override
+      public boolean tryAdvance(IntConsumer consumer) {
+        next = started ? f.applyAsInt(next) : seed;
+        started = true;
+        consumer.accept(next);
+        return true;
+      }
+    }, false);
+  }
+
+  static IntStream of(int t) {
+    return of(new int[] {t});
+  }
+
+  static IntStream of(int... values) {
+    return StreamSupport.intStream(Spliterators.spliterator(values,
+        Spliterator.IMMUTABLE | Spliterator.ORDERED), false);
+  }
+
+  static IntStream range(int startInclusive, int endExclusive) {
+    if (startInclusive >= endExclusive) {
+      return empty();
+    }
+    return StreamSupport.intStream(
+        new Streams.IntRangeSpliterator(startInclusive, endExclusive, false), false);
+  }
+
+  static IntStream rangeClosed(int startInclusive, int endInclusive) {
+    if (startInclusive > endInclusive) {
+      return empty();
+    }
+    return StreamSupport.intStream(
+        new Streams.IntRangeSpliterator(startInclusive, endInclusive, true), false);
+  }
+
+  boolean allMatch(IntPredicate predicate);
+
+  boolean anyMatch(IntPredicate predicate);
+
+  DoubleStream asDoubleStream();
+
+  LongStream asLongStream();
+
+  OptionalDouble average();
+
+  Stream<Integer> boxed();
+
+  <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+  long count();
+
+  IntStream distinct();
+
+  IntStream filter(IntPredicate predicate);
+
+  OptionalInt findAny();
+
+  OptionalInt findFirst();
+
+  IntStream flatMap(IntFunction<? extends IntStream> mapper);
+
+  void forEach(IntConsumer action);
+
+  void forEachOrdered(IntConsumer action);
+
+  @Override
+  PrimitiveIterator.OfInt iterator();
+
+  IntStream limit(long maxSize);
+
+  IntStream map(IntUnaryOperator mapper);
+
+  DoubleStream mapToDouble(IntToDoubleFunction mapper);
+
+  LongStream mapToLong(IntToLongFunction mapper);
+
+  <U> Stream<U> mapToObj(IntFunction<? extends U> mapper);
+
+  OptionalInt max();
+
+  OptionalInt min();
+
+  boolean noneMatch(IntPredicate predicate);
+
+  @Override
+  IntStream parallel();
+
+  IntStream peek(IntConsumer action);
+
+  OptionalInt reduce(IntBinaryOperator op);
+
+  int reduce(int identity, IntBinaryOperator op);
+
+  @Override
+  IntStream sequential();
+
+  IntStream skip(long n);
+
+  IntStream sorted();
+
+  @Override
+  Spliterator.OfInt spliterator();
+
+  int sum();
+
+  IntSummaryStatistics summaryStatistics();
+
+  int[] toArray();
+}
@@ -0,0 +1,635 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkArgument;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.HashSet;
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A stage of a pipeline of long values. The values flow through the pipeline unboxed.
+ */
+abstract class LongPipeline extends AbstractPipeline<Long, LongStream> implements LongStream {
+
+  /**
+   * The sink of {@code average}.
+   */
+  private static final class AveragingSink implements Sink.OfLong {
+    private double count;
+    private long sum;
+
+    @Override
+    public void accept(long value) {
+      count++;
+      sum += value;
+    }
+
+    OptionalDouble get() {
+      return count > 0 ? OptionalDouble.of((double) sum / count) : OptionalDouble.empty();
+    }
+  }
+
+  /**
+   * The sink of {@code count}.
+   */
+  private static final class CountingSink implements Sink.OfLong {
+    private double count;
+
+    @Override
+    public void accept(long value) {
+      count++;
+    }
+
+    long get() {
+      return (long) count;
+    }
+  }
+
+  /**
+   * The sink of {@code findFirst} and {@code findAny}.
+   */
+  private static final class FindSink implements Sink.OfLong {
+    private boolean found;
+    private long value;
+
+    @Override
+    public void accept(long value) {
+      if (!found) {
+        found = true;
+        this.value = value;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return found;
+    }
+  }
+
+  /**
+   * The source stage of a pipeline of long values.
+   */
+  static final class Head extends LongPipeline {
+    Head(Spliterator.OfLong spliterator, boolean parallel) {
+      super(spliterator, parallel);
+    }
+
+    Head(Supplier<? extends Spliterator.OfLong> supplier, boolean parallel) {
+      super(supplier, parallel);
+    }
+
+    @Override
+    Sink<?> opWrapSink(Sink<Long> sink) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * The sink of {@code allMatch}, {@code anyMatch} and {@code noneMatch}, which stops at the
+   * first value for which the predicate returns {@code stopOn}.
+   */
+  private static final class MatchSink implements Sink.OfLong {
+    private final LongPredicate predicate;
+    private boolean stopped;
+    private final boolean stopOn;
+
+    MatchSink(LongPredicate predicate, boolean stopOn) {
+      this.predicate = predicate;
+      this.stopOn = stopOn;
+    }
+
+    @Override
+    public void accept(long value) {
+      if (!stopped && predicate.test(value) == stopOn) {
+        stopped = true;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return stopped;
+    }
+  }
+
+  /**
+   * The sink of {@code reduce} and of the terminal operations built on it.
+   */
+  private static final class ReducingSink implements Sink.OfLong {
+    private boolean empty;
+    private final LongBinaryOperator op;
+    private long result;
+
+    ReducingSink(LongBinaryOperator op) {
+      this.empty = true;
+      this.op = op;
+    }
+
+    ReducingSink(long identity, LongBinaryOperator op) {
+      this.result = identity;
+      this.op = op;
+    }
+
+    @Override
+    public void accept(long value) {
+      if (empty) {
+        empty = false;
+        result = value;
+      } else {
+        result = op.applyAsLong(result, value);
+      }
+    }
+
+    OptionalLong get() {
+      return empty ? OptionalLong.empty() : OptionalLong.of(result);
+    }
+  }
+
+  /**
+   * The sink of {@code sum}.
+   */
+  private static final class SummingSink implements Sink.OfLong {
+    private long sum;
+
+    @Override
+    public void accept(long value) {
+      sum += value;
+    }
+  }
+
+  LongPipeline(AbstractPipeline<?, ?> previousStage) {
+    super(previousStage, false);
+  }
+
+  LongPipeline(AbstractPipeline<?, ?> previousStage, boolean shortCircuit) {
+    super(previousStage, shortCircuit);
+  }
+
+  LongPipeline(Spliterator.OfLong spliterator, boolean parallel) {
+    super(spliterator, parallel);
+  }
+
+  LongPipeline(Supplier<? extends Spliterator.OfLong> supplier, boolean parallel) {
+    super(supplier, parallel);
+  }
+
+  @Override
+  public boolean allMatch(LongPredicate predicate) {
+    return !match(predicate, false);
+  }
+
+  @Override
+  public boolean anyMatch(LongPredicate predicate) {
+    return match(predicate, true);
+  }
+
+  @Override
+  public DoubleStream asDoubleStream() {
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedLong<Double>(sink) {
+          @Override
+          public void accept(long value) {
+            downstream.accept((double) value);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalDouble average() {
+    return evaluate(new AveragingSink(), false).get();
+  }
+
+  @Override
+  public Stream<Long> boxed() {
+    return mapToObj(Long::valueOf);
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    R container = supplier.get();
+    evaluate((Sink.OfLong) value -> accumulator.accept(container, value), false);
+    return container;
+  }
+
+  @Override
+  public long count() {
+    if (this == getSourceStage()) {
+      Spliterator<?> spliterator = consumeSourceSpliterator();
+      long size = spliterator.getExactSizeIfKnown();
+      if (size >= 0) {
+        return size;
+      }
+      CountingSink sink = new CountingSink();
+      copyInto(sink, spliterator, false);
+      return sink.get();
+    }
+    return evaluate(new CountingSink(), false).get();
+  }
+
+  @Override
+  public LongStream distinct() {
+    return new LongPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          private HashSet<Long> seen;
+
+          @Override
+          public void begin(long size) {
+            seen = new HashSet<Long>();
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(long value) {
+            if (seen.add(value)) {
+              downstream.accept(value);
+            }
+          }
+
+          @Override
+          public void end() {
+            seen = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream filter(LongPredicate predicate) {
+    checkNotNull(predicate);
+    return new LongPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(long value) {
+            if (predicate.test(value)) {
+              downstream.accept(value);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalLong findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public OptionalLong findFirst() {
+    FindSink sink = evaluate(new FindSink(), true);
+    return sink.found ? OptionalLong.of(sink.value) : OptionalLong.empty();
+  }
+
+  @Override
+  public LongStream flatMap(LongFunction<? extends LongStream> mapper) {
+    checkNotNull(mapper);
+    return new LongPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(long value) {
+            flatten(mapper.apply(value), downstream);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public void forEach(LongConsumer action) {
+    checkNotNull(action);
+    evaluate((Sink.OfLong) action::accept, false);
+  }
+
+  @Override
+  public void forEachOrdered(LongConsumer action) {
+    forEach(action);
+  }
+
+  @Override
+  public PrimitiveIterator.OfLong iterator() {
+    return Spliterators.iterator(spliterator());
+  }
+
+  @Override
+  public LongStream limit(long maxSize) {
+    checkArgument(maxSize >= 0, "maxSize < 0: %s", maxSize);
+    return new LongPipeline(this, true) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          private double remaining = maxSize;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.min(size, maxSize) : -1);
+          }
+
+          @Override
+          public void accept(long value) {
+            if (remaining > 0) {
+              remaining--;
+              downstream.accept(value);
+            }
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            return remaining == 0 || downstream.cancellationRequested();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream map(LongUnaryOperator mapper) {
+    checkNotNull(mapper);
+    return new LongPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          @Override
+          public void accept(long value) {
+            downstream.accept(mapper.applyAsLong(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream mapToDouble(LongToDoubleFunction mapper) {
+    checkNotNull(mapper);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedLong<Double>(sink) {
+          @Override
+          public void accept(long value) {
+            downstream.accept(mapper.applyAsDouble(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public IntStream mapToInt(LongToIntFunction mapper) {
+    checkNotNull(mapper);
+    return new IntPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedLong<Integer>(sink) {
+          @Override
+          public void accept(long value) {
+            downstream.accept(mapper.applyAsInt(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public <U> Stream<U> mapToObj(LongFunction<? extends U> mapper) {
+    checkNotNull(mapper);
+    return new ReferencePipeline<U>(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<U> sink) {
+        return new Sink.ChainedLong<U>(sink) {
+          @Override
+          public void accept(long value) {
+            downstream.accept(mapper.apply(value));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalLong max() {
+    return reduce(Math::max);
+  }
+
+  @Override
+  public OptionalLong min() {
+    return reduce(Math::min);
+  }
+
+  @Override
+  public boolean noneMatch(LongPredicate predicate) {
+    return !match(predicate, true);
+  }
+
+  @Override
+  public LongStream peek(LongConsumer action) {
+    checkNotNull(action);
+    return new LongPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          @Override
+          public void accept(long value) {
+            action.accept(value);
+            downstream.accept(value);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public OptionalLong reduce(LongBinaryOperator op) {
+    checkNotNull(op);
+    return evaluate(new ReducingSink(op), false).get();
+  }
+
+  @Override
+  public long reduce(long identity, LongBinaryOperator op) {
+    checkNotNull(op);
+    return evaluate(new ReducingSink(identity, op), false).result;
+  }
+
+  @Override
+  public LongStream skip(long n) {
+    checkArgument(n >= 0, "n < 0: %s", n);
+    if (n == 0) {
+      return this;
+    }
+    return new LongPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          private double remaining = n;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.max(0, size - n) : -1);
+          }
+
+          @Override
+          public void accept(long value) {
+            if (remaining > 0) {
+              remaining--;
+            } else {
+              downstream.accept(value);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream sorted() {
+    return new LongPipeline(this) {
+      @Override
+      Sink<Long> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedLong<Long>(sink) {
+          private boolean cancellable;
+          private ArrayBuffer.OfLong elements;
+
+          @Override
+          public void begin(long size) {
+            elements = new ArrayBuffer.OfLong();
+            elements.begin(size);
+          }
+
+          @Override
+          public void accept(long value) {
+            elements.accept(value);
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            // Sorting needs every value, but the stages after it may still short-circuit.
+            cancellable = true;
+            return false;
+          }
+
+          @Override
+          public void end() {
+            elements.sort();
+            int size = elements.size();
+            downstream.begin(size);
+            for (int i = 0; i < size; i++) {
+              if (cancellable && downstream.cancellationRequested()) {
+                break;
+              }
+              downstream.accept(elements.get(i));
+            }
+            elements = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Spliterator.OfLong spliterator() {
+    if (this == getSourceStage()) {
+      return (Spliterator.OfLong) consumeSourceSpliterator();
+    }
+    return new StreamSpliterators.LongWrappingSpliterator(this);
+  }
+
+  @Override
+  public long sum() {
+    return evaluate(new SummingSink(), false).sum;
+  }
+
+  @Override
+  public LongSummaryStatistics summaryStatistics() {
+    LongSummaryStatistics statistics = new LongSummaryStatistics();
+    evaluate((Sink.OfLong) statistics::accept, false);
+    return statistics;
+  }
+
+  @Override
+  public long[] toArray() {
+    return evaluate(new ArrayBuffer.OfLong(), false).toArray();
+  }
+
+  @Override
+  final void forEachRemaining(Spliterator<?> spliterator, Sink<?> sink) {
+    ((Spliterator.OfLong) spliterator).forEachRemaining((LongConsumer) sink);
+  }
+
+  @Override
+  final Sink<Long> forwardingSink(Sink<Long> downstream) {
+    return new Sink.OfLong() {
+      @Override
+      public void accept(long value) {
+        downstream.accept(value);
+      }
+
+      @Override
+      public boolean cancellationRequested() {
+        return downstream.cancellationRequested();
+      }
+    };
+  }
+
+  @Override
+  final boolean tryAdvance(Spliterator<?> spliterator, Sink<?> sink) {
+    return ((Spliterator.OfLong) spliterator).tryAdvance((LongConsumer) sink);
+  }
+
+  private boolean match(LongPredicate predicate, boolean stopOn) {
+    checkNotNull(predicate);
+    return evaluate(new MatchSink(predicate, stopOn), true).stopped;
+  }
+}
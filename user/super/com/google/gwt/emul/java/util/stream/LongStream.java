@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/LongStream.html">the
+ * official Java API doc</a> for details.
+ * <p>
+ * The values are passed between the stages of the pipeline unboxed.
+ */
+public interface LongStream extends BaseStream<Long, LongStream> {
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/LongStream.Builder.html">the
+   * official Java API doc</a> for details.
+   */
+  interface Builder extends LongConsumer {
+    @Override
+    void accept(long t);
+
+    default LongStream.Builder add(long t) {
+      accept(t);
+      return this;
+    }
+
+    LongStream build();
+  }
+
+  static LongStream.Builder builder() {
+    return new Streams.LongBuilder();
+  }
+
+  static LongStream concat(LongStream a, LongStream b) {
+    checkNotNull(a);
+    checkNotNull(b);
+    return StreamSupport.longStream(
+        new Streams.LongConcatSpliterator(a.spliterator(), b.spliterator()),
+        a.isParallel() || b.isParallel()).onClose(Streams.composedClose(a, b));
+  }
+
+  static LongStream empty() {
+    return StreamSupport.longStream(Spliterators.emptyLongSpliterator(), false);
+  }
+
+  static LongStream generate(LongSupplier s) {
+    checkNotNull(s);
+    return StreamSupport.longStream(new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(LongConsumer consumer) {
+        consumer.accept(s.getAsLong());
+        return true;
+      }
+    }, false);
+  }
+
+  static LongStream iterate(long seed, LongUnaryOperator f) {
+    checkNotNull(f);
+    return StreamSupport.longStream(new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED) {
+      private boolean started;
+      private long next;
+
+      @Override
+      public boolean tryAdvance(LongConsumer consumer) {
+        next = started ? f.applyAsLong(next) : seed;
+        started = true;
+        consumer.accept(next);
+        return true;
+      }
+    }, false);
+  }
+
+  static LongStream of(long t) {
+    return of(new long[] {t});
+  }
+
+  static LongStream of(long... values) {
+    return StreamSupport.longStream(Spliterators.spliterator(values,
+        Spliterator.IMMUTABLE | Spliterator.ORDERED), false);
+  }
+
+  static LongStream range(long startInclusive, long endExclusive) {
+    if (startInclusive >= endExclusive) {
+      return empty();
+    }
+    return StreamSupport.longStream(
+        new Streams.LongRangeSpliterator(startInclusive, endExclusive, false), false);
+  }
+
+  static LongStream rangeClosed(long startInclusive, long endInclusive) {
+    if (startInclusive > endInclusive) {
+      return empty();
+    }
+    return StreamSupport.longStream(
+        new Streams.LongRangeSpliterator(startInclusive, endInclusive, true), false);
+  }
+
+  boolean allMatch(LongPredicate predicate);
+
+  boolean anyMatch(LongPredicate predicate);
+
+  DoubleStream asDoubleStream();
+
+  OptionalDouble average();
+
+  Stream<Long> boxed();
+
+  <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner);
+
+  long count();
+
+  LongStream distinct();
+
+  LongStream filter(LongPredicate predicate);
+
+  OptionalLong findAny();
+
+  OptionalLong findFirst();
+
+  LongStream flatMap(LongFunction<? extends LongStream> mapper);
+
+  void forEach(LongConsumer action);
+
+  void forEachOrdered(LongConsumer action);
+
+  @Override
+  PrimitiveIterator.OfLong iterator();
+
+  LongStream limit(long maxSize);
+
+  LongStream map(LongUnaryOperator mapper);
+
+  DoubleStream mapToDouble(LongToDoubleFunction mapper);
+
+  IntStream mapToInt(LongToIntFunction mapper);
+
+  <U> Stream<U> mapToObj(LongFunction<? extends U> mapper);
+
+  OptionalLong max();
+
+  OptionalLong min();
+
+  boolean noneMatch(LongPredicate predicate);
+
+  @Override
+  LongStream parallel();
+
+  LongStream peek(LongConsumer action);
+
+  OptionalLong reduce(LongBinaryOperator op);
+
+  long reduce(long identity, LongBinaryOperator op);
+
+  @Override
+  LongStream sequential();
+
+  LongStream skip(long n);
+
+  LongStream sorted();
+
+  @Override
+  Spliterator.OfLong spliterator();
+
+  long sum();
+
+  LongSummaryStatistics summaryStatistics();
+
+  long[] toArray();
+}
@@ -0,0 +1,693 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkArgument;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A stage of a pipeline of objects.
+ *
+ * @param <T> type of the elements that flow out of this stage
+ */
+abstract class ReferencePipeline<T> extends AbstractPipeline<T, Stream<T>> implements Stream<T> {
+
+  /**
+   * The sink of {@code count}, which counts in a double: doubles are exact up to 2^53 and, unlike
+   * longs, native in JavaScript.
+   */
+  private static final class CountingSink<T> implements Sink<T> {
+    private double count;
+
+    @Override
+    public void accept(T t) {
+      count++;
+    }
+
+    long get() {
+      return (long) count;
+    }
+  }
+
+  /**
+   * The sink of {@code findFirst} and {@code findAny}.
+   */
+  private static final class FindSink<T> implements Sink<T> {
+    private boolean found;
+    private T value;
+
+    @Override
+    public void accept(T t) {
+      if (!found) {
+        found = true;
+        value = t;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return found;
+    }
+  }
+
+  /**
+   * The sink of the three-argument {@code reduce}.
+   */
+  private static final class FoldingSink<T, U> implements Sink<T> {
+    private final BiFunction<U, ? super T, U> accumulator;
+    private U result;
+
+    FoldingSink(U identity, BiFunction<U, ? super T, U> accumulator) {
+      this.result = identity;
+      this.accumulator = accumulator;
+    }
+
+    @Override
+    public void accept(T t) {
+      result = accumulator.apply(result, t);
+    }
+  }
+
+  /**
+   * The source stage of a pipeline of objects.
+   *
+   * @param <T> element type
+   */
+  static final class Head<T> extends ReferencePipeline<T> {
+    Head(Spliterator<?> spliterator, boolean parallel) {
+      super(spliterator, parallel);
+    }
+
+    Head(Supplier<? extends Spliterator<?>> supplier, boolean parallel) {
+      super(supplier, parallel);
+    }
+
+    @Override
+    Sink<?> opWrapSink(Sink<T> sink) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * The sink of {@code allMatch}, {@code anyMatch} and {@code noneMatch}, which stops at the
+   * first element for which the predicate returns {@code stopOn}.
+   */
+  private static final class MatchSink<T> implements Sink<T> {
+    private final Predicate<? super T> predicate;
+    private boolean stopped;
+    private final boolean stopOn;
+
+    MatchSink(Predicate<? super T> predicate, boolean stopOn) {
+      this.predicate = predicate;
+      this.stopOn = stopOn;
+    }
+
+    @Override
+    public void accept(T t) {
+      if (!stopped && predicate.test(t) == stopOn) {
+        stopped = true;
+      }
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return stopped;
+    }
+  }
+
+  /**
+   * The sink of {@code reduce} and of the terminal operations built on it.
+   */
+  private static final class ReducingSink<T> implements Sink<T> {
+    private final BinaryOperator<T> accumulator;
+    private boolean empty = true;
+    private T result;
+
+    ReducingSink(BinaryOperator<T> accumulator) {
+      this.accumulator = accumulator;
+    }
+
+    @Override
+    public void accept(T t) {
+      if (empty) {
+        empty = false;
+        result = t;
+      } else {
+        result = accumulator.apply(result, t);
+      }
+    }
+
+    Optional<T> get() {
+      return empty ? Optional.<T>empty() : Optional.of(result);
+    }
+  }
+
+  ReferencePipeline(AbstractPipeline<?, ?> previousStage) {
+    super(previousStage, false);
+  }
+
+  ReferencePipeline(AbstractPipeline<?, ?> previousStage, boolean shortCircuit) {
+    super(previousStage, shortCircuit);
+  }
+
+  ReferencePipeline(Spliterator<?> spliterator, boolean parallel) {
+    super(spliterator, parallel);
+  }
+
+  ReferencePipeline(Supplier<? extends Spliterator<?>> supplier, boolean parallel) {
+    super(supplier, parallel);
+  }
+
+  @Override
+  public boolean allMatch(Predicate<? super T> predicate) {
+    return !match(predicate, false);
+  }
+
+  @Override
+  public boolean anyMatch(Predicate<? super T> predicate) {
+    return match(predicate, true);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <R, A> R collect(Collector<? super T, A, R> collector) {
+    A container = collector.supplier().get();
+    BiConsumer<A, ? super T> accumulator = collector.accumulator();
+    evaluate((Sink<T>) t -> accumulator.accept(container, t), false);
+    return collector.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)
+        ? (R) container : collector.finisher().apply(container);
+  }
+
+  @Override
+  public <R> R collect(Supplier<R> supplier, BiConsumer<R, ? super T> accumulator,
+      BiConsumer<R, R> combiner) {
+    checkNotNull(accumulator);
+    R container = supplier.get();
+    evaluate((Sink<T>) t -> accumulator.accept(container, t), false);
+    return container;
+  }
+
+  @Override
+  public long count() {
+    if (this == getSourceStage()) {
+      Spliterator<?> spliterator = consumeSourceSpliterator();
+      long size = spliterator.getExactSizeIfKnown();
+      if (size >= 0) {
+        return size;
+      }
+      CountingSink<T> sink = new CountingSink<T>();
+      copyInto(sink, spliterator, false);
+      return sink.get();
+    }
+    return evaluate(new CountingSink<T>(), false).get();
+  }
+
+  @Override
+  public Stream<T> distinct() {
+    return new ReferencePipeline<T>(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<T> sink) {
+        return new Sink.ChainedReference<T, T>(sink) {
+          private HashSet<T> seen;
+
+          @Override
+          public void begin(long size) {
+            seen = new HashSet<T>();
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(T t) {
+            if (seen.add(t)) {
+              downstream.accept(t);
+            }
+          }
+
+          @Override
+          public void end() {
+            seen = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Stream<T> filter(Predicate<? super T> predicate) {
+    checkNotNull(predicate);
+    return new ReferencePipeline<T>(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<T> sink) {
+        return new Sink.ChainedReference<T, T>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(T t) {
+            if (predicate.test(t)) {
+              downstream.accept(t);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Optional<T> findAny() {
+    return findFirst();
+  }
+
+  @Override
+  public Optional<T> findFirst() {
+    FindSink<T> sink = evaluate(new FindSink<T>(), true);
+    return sink.found ? Optional.of(sink.value) : Optional.<T>empty();
+  }
+
+  @Override
+  public <R> Stream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper) {
+    checkNotNull(mapper);
+    return new ReferencePipeline<R>(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<R> sink) {
+        return new Sink.ChainedReference<T, R>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(T t) {
+            flatten(mapper.apply(t), downstream);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper) {
+    checkNotNull(mapper);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedReference<T, Double>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(T t) {
+            flatten(mapper.apply(t), downstream);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
+    checkNotNull(mapper);
+    return new IntPipeline(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedReference<T, Integer>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(T t) {
+            flatten(mapper.apply(t), downstream);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream flatMapToLong(Function<? super T, ? extends LongStream> mapper) {
+    checkNotNull(mapper);
+    return new LongPipeline(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedReference<T, Long>(sink) {
+          @Override
+          public void begin(long size) {
+            downstream.begin(-1);
+          }
+
+          @Override
+          public void accept(T t) {
+            flatten(mapper.apply(t), downstream);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public void forEach(Consumer<? super T> action) {
+    checkNotNull(action);
+    evaluate((Sink<T>) action::accept, false);
+  }
+
+  @Override
+  public void forEachOrdered(Consumer<? super T> action) {
+    forEach(action);
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return Spliterators.iterator(spliterator());
+  }
+
+  @Override
+  public Stream<T> limit(long maxSize) {
+    checkArgument(maxSize >= 0, "maxSize < 0: %s", maxSize);
+    return new ReferencePipeline<T>(this, true) {
+      @Override
+      Sink<T> opWrapSink(Sink<T> sink) {
+        return new Sink.ChainedReference<T, T>(sink) {
+          private double remaining = maxSize;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.min(size, maxSize) : -1);
+          }
+
+          @Override
+          public void accept(T t) {
+            if (remaining > 0) {
+              remaining--;
+              downstream.accept(t);
+            }
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            return remaining == 0 || downstream.cancellationRequested();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public <R> Stream<R> map(Function<? super T, ? extends R> mapper) {
+    checkNotNull(mapper);
+    return new ReferencePipeline<R>(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<R> sink) {
+        return new Sink.ChainedReference<T, R>(sink) {
+          @Override
+          public void accept(T t) {
+            downstream.accept(mapper.apply(t));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new DoublePipeline(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<Double> sink) {
+        return new Sink.ChainedReference<T, Double>(sink) {
+          @Override
+          public void accept(T t) {
+            downstream.accept(mapper.applyAsDouble(t));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public IntStream mapToInt(ToIntFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new IntPipeline(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<Integer> sink) {
+        return new Sink.ChainedReference<T, Integer>(sink) {
+          @Override
+          public void accept(T t) {
+            downstream.accept(mapper.applyAsInt(t));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public LongStream mapToLong(ToLongFunction<? super T> mapper) {
+    checkNotNull(mapper);
+    return new LongPipeline(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<Long> sink) {
+        return new Sink.ChainedReference<T, Long>(sink) {
+          @Override
+          public void accept(T t) {
+            downstream.accept(mapper.applyAsLong(t));
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Optional<T> max(Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    return reduce((a, b) -> comparator.compare(a, b) >= 0 ? a : b);
+  }
+
+  @Override
+  public Optional<T> min(Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    return reduce((a, b) -> comparator.compare(a, b) <= 0 ? a : b);
+  }
+
+  @Override
+  public boolean noneMatch(Predicate<? super T> predicate) {
+    return !match(predicate, true);
+  }
+
+  @Override
+  public Stream<T> peek(Consumer<? super T> action) {
+    checkNotNull(action);
+    return new ReferencePipeline<T>(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<T> sink) {
+        return new Sink.ChainedReference<T, T>(sink) {
+          @Override
+          public void accept(T t) {
+            action.accept(t);
+            downstream.accept(t);
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Optional<T> reduce(BinaryOperator<T> accumulator) {
+    checkNotNull(accumulator);
+    return evaluate(new ReducingSink<T>(accumulator), false).get();
+  }
+
+  @Override
+  public T reduce(T identity, BinaryOperator<T> accumulator) {
+    return reduce(identity, accumulator, accumulator);
+  }
+
+  @Override
+  public <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator,
+      BinaryOperator<U> combiner) {
+    checkNotNull(accumulator);
+    FoldingSink<T, U> sink = evaluate(new FoldingSink<T, U>(identity, accumulator), false);
+    return sink.result;
+  }
+
+  @Override
+  public Stream<T> skip(long n) {
+    checkArgument(n >= 0, "n < 0: %s", n);
+    if (n == 0) {
+      return this;
+    }
+    return new ReferencePipeline<T>(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<T> sink) {
+        return new Sink.ChainedReference<T, T>(sink) {
+          private double remaining = n;
+
+          @Override
+          public void begin(long size) {
+            downstream.begin(size >= 0 ? Math.max(0, size - n) : -1);
+          }
+
+          @Override
+          public void accept(T t) {
+            if (remaining > 0) {
+              remaining--;
+            } else {
+              downstream.accept(t);
+            }
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Stream<T> sorted() {
+    return sorted((a, b) -> ((Comparable<Object>) a).compareTo(b));
+  }
+
+  @Override
+  public Stream<T> sorted(Comparator<? super T> comparator) {
+    checkNotNull(comparator);
+    return new ReferencePipeline<T>(this) {
+      @Override
+      Sink<T> opWrapSink(Sink<T> sink) {
+        return new Sink.ChainedReference<T, T>(sink) {
+          private boolean cancellable;
+          private ArrayList<T> elements;
+
+          @Override
+          public void begin(long size) {
+            elements = new ArrayList<T>();
+          }
+
+          @Override
+          public void accept(T t) {
+            elements.add(t);
+          }
+
+          @Override
+          public boolean cancellationRequested() {
+            // Sorting needs every element, but the stages after it may still short-circuit.
+            cancellable = true;
+            return false;
+          }
+
+          @Override
+          public void end() {
+            Collections.sort(elements, comparator);
+            int size = elements.size();
+            downstream.begin(size);
+            for (int i = 0; i < size; i++) {
+              if (cancellable && downstream.cancellationRequested()) {
+                break;
+              }
+              downstream.accept(elements.get(i));
+            }
+            elements = null;
+            downstream.end();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  public Spliterator<T> spliterator() {
+    if (this == getSourceStage()) {
+      @SuppressWarnings("unchecked")
+      Spliterator<T> spliterator = (Spliterator<T>) consumeSourceSpliterator();
+      return spliterator;
+    }
+    return new StreamSpliterators.WrappingSpliterator<T>(this);
+  }
+
+  @Override
+  public Object[] toArray() {
+    ArrayList<T> elements = new ArrayList<T>();
+    evaluate((Sink<T>) elements::add, false);
+    return elements.toArray();
+  }
+
+  @Override
+  public <A> A[] toArray(IntFunction<A[]> generator) {
+    checkNotNull(generator);
+    ArrayList<T> elements = new ArrayList<T>();
+    evaluate((Sink<T>) elements::add, false);
+    A[] array = generator.apply(elements.size());
+    checkState(array.length == elements.size(), "Begin size " + elements.size()
+        + " is not equal to fixed size " + array.length);
+    return elements.toArray(array);
+  }
+
+  @Override
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  final void forEachRemaining(Spliterator<?> spliterator, Sink<?> sink) {
+    ((Spliterator) spliterator).forEachRemaining(sink);
+  }
+
+  @Override
+  final Sink<T> forwardingSink(Sink<T> downstream) {
+    return new Sink<T>() {
+      @Override
+      public void accept(T t) {
+        downstream.accept(t);
+      }
+
+      @Override
+      public boolean cancellationRequested() {
+        return downstream.cancellationRequested();
+      }
+    };
+  }
+
+  @Override
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  final boolean tryAdvance(Spliterator<?> spliterator, Sink<?> sink) {
+    return ((Spliterator) spliterator).tryAdvance(sink);
+  }
+
+  private boolean match(Predicate<? super T> predicate, boolean stopOn) {
+    checkNotNull(predicate);
+    return evaluate(new MatchSink<T>(predicate, stopOn), true).stopped;
+  }
+}
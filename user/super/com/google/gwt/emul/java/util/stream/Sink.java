@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Receives the elements that flow out of a stage of a stream pipeline.
+ * <p>
+ * When a terminal operation runs, the sink of each stage is wrapped in the sink of the stage
+ * before it, so the source pushes every element through the whole pipeline in one call chain.
+ * {@link #begin} and {@link #end} bracket the elements, which lets stateful stages such as
+ * {@code sorted()} buffer them, and {@link #cancellationRequested} lets short-circuiting stages
+ * stop the source early.
+ * <p>
+ * The sinks of primitive streams take unboxed values through {@code accept(int)},
+ * {@code accept(long)} or {@code accept(double)}.
+ *
+ * @param <T> element type
+ */
+interface Sink<T> extends Consumer<T> {
+
+  /**
+   * Signals that elements are about to be pushed.
+   *
+   * @param size the number of elements, or -1 if it is not known
+   */
+  default void begin(long size) {
+  }
+
+  /**
+   * Returns whether this sink won't accept any more elements.
+   */
+  default boolean cancellationRequested() {
+    return false;
+  }
+
+  /**
+   * Signals that all elements have been pushed.
+   */
+  default void end() {
+  }
+
+  default void accept(double value) {
+    throw new IllegalStateException("double value pushed to a " + getClass().getName());
+  }
+
+  default void accept(int value) {
+    throw new IllegalStateException("int value pushed to a " + getClass().getName());
+  }
+
+  default void accept(long value) {
+    throw new IllegalStateException("long value pushed to a " + getClass().getName());
+  }
+
+  /**
+   * A sink of int values.
+   */
+  interface OfInt extends Sink<Integer>, IntConsumer {
+    @Override
+    void accept(int value);
+
+    @Override
+    default void accept(Integer value) {
+      accept(value.intValue());
+    }
+  }
+
+  /**
+   * A sink of long values.
+   */
+  interface OfLong extends Sink<Long>, LongConsumer {
+    @Override
+    void accept(long value);
+
+    @Override
+    default void accept(Long value) {
+      accept(value.longValue());
+    }
+  }
+
+  /**
+   * A sink of double values.
+   */
+  interface OfDouble extends Sink<Double>, DoubleConsumer {
+    @Override
+    void accept(double value);
+
+    @Override
+    default void accept(Double value) {
+      accept(value.doubleValue());
+    }
+  }
+
+  /**
+   * A sink of objects that forwards to the sink of the next stage.
+   *
+   * @param <T> element type
+   * @param <R> element type of the next stage
+   */
+  abstract class ChainedReference<T, R> implements Sink<T> {
+    protected final Sink<? super R> downstream;
+
+    ChainedReference(Sink<? super R> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void begin(long size) {
+      downstream.begin(size);
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return downstream.cancellationRequested();
+    }
+
+    @Override
+    public void end() {
+      downstream.end();
+    }
+  }
+
+  /**
+   * A sink of int values that forwards to the sink of the next stage.
+   *
+   * @param <R> element type of the next stage
+   */
+  abstract class ChainedInt<R> implements Sink.OfInt {
+    protected final Sink<? super R> downstream;
+
+    ChainedInt(Sink<? super R> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void begin(long size) {
+      downstream.begin(size);
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return downstream.cancellationRequested();
+    }
+
+    @Override
+    public void end() {
+      downstream.end();
+    }
+  }
+
+  /**
+   * A sink of long values that forwards to the sink of the next stage.
+   *
+   * @param <R> element type of the next stage
+   */
+  abstract class ChainedLong<R> implements Sink.OfLong {
+    protected final Sink<? super R> downstream;
+
+    ChainedLong(Sink<? super R> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void begin(long size) {
+      downstream.begin(size);
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return downstream.cancellationRequested();
+    }
+
+    @Override
+    public void end() {
+      downstream.end();
+    }
+  }
+
+  /**
+   * A sink of double values that forwards to the sink of the next stage.
+   *
+   * @param <R> element type of the next stage
+   */
+  abstract class ChainedDouble<R> implements Sink.OfDouble {
+    protected final Sink<? super R> downstream;
+
+    ChainedDouble(Sink<? super R> downstream) {
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void begin(long size) {
+      downstream.begin(size);
+    }
+
+    @Override
+    public boolean cancellationRequested() {
+      return downstream.cancellationRequested();
+    }
+
+    @Override
+    public void end() {
+      downstream.end();
+    }
+  }
+}
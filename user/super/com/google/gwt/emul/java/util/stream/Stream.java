@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * See <a
+ * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/Stream.html">the
+ * official Java API doc</a> for details.
+ *
+ * @param <T> element type
+ */
+public interface Stream<T> extends BaseStream<T, Stream<T>> {
+
+  /**
+   * See <a
+   * href="https://docs.oracle.com/javase/8/docs/api/java/util/stream/Stream.Builder.html">the
+   * official Java API doc</a> for details.
+   *
+   * @param <T> element type
+   */
+  interface Builder<T> extends Consumer<T> {
+    @Override
+    void accept(T t);
+
+    default Stream.Builder<T> add(T t) {
+      accept(t);
+      return this;
+    }
+
+    Stream<T> build();
+  }
+
+  static <T> Stream.Builder<T> builder() {
+    return new Streams.ReferenceBuilder<T>();
+  }
+
+  static <T> Stream<T> concat(Stream<? extends T> a, Stream<? extends T> b) {
+    checkNotNull(a);
+    checkNotNull(b);
+    @SuppressWarnings("unchecked")
+    Spliterator<T> spliterator = new Streams.ConcatSpliterator<T>(
+        (Spliterator<T>) a.spliterator(), (Spliterator<T>) b.spliterator());
+    return StreamSupport.stream(spliterator, a.isParallel() || b.isParallel())
+        .onClose(Streams.composedClose(a, b));
+  }
+
+  static <T> Stream<T> empty() {
+    return StreamSupport.stream(Spliterators.<T>emptySpliterator(), false);
+  }
+
+  static <T> Stream<T> generate(Supplier<T> s) {
+    checkNotNull(s);
+    return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE) {
+      @Override
+      public boolean tryAdvance(Consumer<? super T> consumer) {
+        consumer.accept(s.get());
+        return true;
+      }
+    }, false);
+  }
+
+  static <T> Stream<T> iterate(T seed, UnaryOperator<T> f) {
+    checkNotNull(f);
+    return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+        Spliterator.IMMUTABLE | Spliterator.ORDERED) {
+      private boolean started;
+      private T next;
+
+      @Override
+      public boolean tryAdvance(Consumer<? super T> consumer) {
+        next = started ? f.apply(next) : seed;
+        started = true;
+        consumer.accept(next);
+        return true;
+      }
+    }, false);
+  }
+
+  static <T> Stream<T> of(T t) {
+    return StreamSupport.stream(Spliterators.<T>spliterator(new Object[] {t},
+        Spliterator.IMMUTABLE | Spliterator.ORDERED), false);
+  }
+
+  static <T> Stream<T> of(T... values) {
+    return StreamSupport.stream(Spliterators.<T>spliterator(values,
+        Spliterator.IMMUTABLE | Spliterator.ORDERED), false);
+  }
+
+  boolean allMatch(Predicate<? super T> predicate);
+
+  boolean anyMatch(Predicate<? super T> predicate);
+
+  <R, A> R collect(Collector<? super T, A, R> collector);
+
+  <R> R collect(Supplier<R> supplier, BiConsumer<R, ? super T> accumulator,
+      BiConsumer<R, R> combiner);
+
+  long count();
+
+  Stream<T> distinct();
+
+  Stream<T> filter(Predicate<? super T> predicate);
+
+  Optional<T> findAny();
+
+  Optional<T> findFirst();
+
+  <R> Stream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper);
+
+  DoubleStream flatMapToDouble(Function<? super T, ? extends DoubleStream> mapper);
+
+  IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper);
+
+  LongStream flatMapToLong(Function<? super T, ? extends LongStream> mapper);
+
+  void forEach(Consumer<? super T> action);
+
+  void forEachOrdered(Consumer<? super T> action);
+
+  Stream<T> limit(long maxSize);
+
+  <R> Stream<R> map(Function<? super T, ? extends R> mapper);
+
+  DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper);
+
+  IntStream mapToInt(ToIntFunction<? super T> mapper);
+
+  LongStream mapToLong(ToLongFunction<? super T> mapper);
+
+  Optional<T> max(Comparator<? super T> comparator);
+
+  Optional<T> min(Comparator<? super T> comparator);
+
+  boolean noneMatch(Predicate<? super T> predicate);
+
+  Stream<T> peek(Consumer<? super T> action);
+
+  Optional<T> reduce(BinaryOperator<T> accumulator);
+
+  T reduce(T identity, BinaryOperator<T> accumulator);
+
+  <U> U reduce(U identity, BiFunction<U, ? super T, U> accumulator, BinaryOperator<U> combiner);
+
+  Stream<T> skip(long n);
+
+  Stream<T> sorted();
+
+  Stream<T> sorted(Comparator<? super T> comparator);
+
+  Object[] toArray();
+
+  <A> A[] toArray(IntFunction<A[]> generator);
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Spliterators over the output of a pipeline, which back {@code iterator()} and
+ * {@code spliterator()} on streams that aren't just a source.
+ * <p>
+ * Pulling one element at a time doesn't fit the push model of the pipeline, so these advance the
+ * source one element at a time and buffer whatever comes out of the last stage. A full traversal
+ * with {@code forEachRemaining} that starts before any element was pulled skips the buffer and
+ * runs the pipeline directly.
+ */
+final class StreamSpliterators {
+
+  /**
+   * The pull traversal shared by the spliterators of all shapes.
+   *
+   * @param <T> element type
+   * @param <S> spliterator type
+   */
+  private abstract static class AbstractWrappingSpliterator<T, S extends Spliterator<T>> {
+    private boolean finished;
+    int next;
+    private final AbstractPipeline<T, ?> pipeline;
+    private final Spliterator<?> source;
+    private boolean started;
+    private Sink<?> wrappedSink;
+
+    AbstractWrappingSpliterator(AbstractPipeline<T, ?> pipeline) {
+      this.pipeline = pipeline;
+      this.source = pipeline.consumeSourceSpliterator();
+    }
+
+    public int characteristics() {
+      return Spliterator.ORDERED;
+    }
+
+    public long estimateSize() {
+      return finished && next == bufferSize() ? 0 : Long.MAX_VALUE;
+    }
+
+    public S trySplit() {
+      return null;
+    }
+
+    abstract Sink<T> buffer();
+
+    abstract int bufferSize();
+
+    abstract void clearBuffer();
+
+    /**
+     * Advances the source until the buffer holds an element that wasn't returned yet, and returns
+     * whether there is one.
+     */
+    final boolean fill() {
+      if (!started) {
+        started = true;
+        wrappedSink = pipeline.wrapSink(buffer());
+        wrappedSink.begin(source.getExactSizeIfKnown());
+      }
+      while (next == bufferSize()) {
+        if (finished) {
+          return false;
+        }
+        clearBuffer();
+        next = 0;
+        if (wrappedSink.cancellationRequested()
+            || !pipeline.getSourceStage().tryAdvance(source, wrappedSink)) {
+          finished = true;
+          // Stateful stages such as sorted() push their elements only now.
+          wrappedSink.end();
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Pushes all the elements to a sink, either directly from the source if the traversal didn't
+     * start yet, or by draining the buffer.
+     *
+     * @return whether the elements were pushed directly
+     */
+    final boolean pushAll(Sink<T> sink) {
+      if (started) {
+        return false;
+      }
+      started = true;
+      finished = true;
+      pipeline.getSourceStage().copyInto(pipeline.wrapSink(sink), source,
+          pipeline.isShortCircuit());
+      return true;
+    }
+  }
+
+  /**
+   * A spliterator over the output of an object pipeline.
+   *
+   * @param <T> element type
+   */
+  static final class WrappingSpliterator<T>
+      extends AbstractWrappingSpliterator<T, Spliterator<T>> implements Spliterator<T> {
+    private final ArrayList<T> buffer = new ArrayList<T>();
+
+    WrappingSpliterator(AbstractPipeline<T, ?> pipeline) {
+      super(pipeline);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      if (!pushAll(consumer::accept)) {
+        while (tryAdvance(consumer)) {
+        }
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> consumer) {
+      checkNotNull(consumer);
+      if (!fill()) {
+        return false;
+      }
+      consumer.accept(buffer.get(next++));
+      return true;
+    }
+
+    @Override
+    Sink<T> buffer() {
+      return buffer::add;
+    }
+
+    @Override
+    int bufferSize() {
+      return buffer.size();
+    }
+
+    @Override
+    void clearBuffer() {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * A spliterator over the output of an int pipeline.
+   */
+  static final class IntWrappingSpliterator
+      extends AbstractWrappingSpliterator<Integer, Spliterator.OfInt>
+      implements Spliterator.OfInt {
+    private final ArrayBuffer.OfInt buffer = new ArrayBuffer.OfInt();
+
+    IntWrappingSpliterator(AbstractPipeline<Integer, ?> pipeline) {
+      super(pipeline);
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer consumer) {
+      checkNotNull(consumer);
+      if (!pushAll((Sink.OfInt) consumer::accept)) {
+        while (tryAdvance(consumer)) {
+        }
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer consumer) {
+      checkNotNull(consumer);
+      if (!fill()) {
+        return false;
+      }
+      consumer.accept(buffer.get(next++));
+      return true;
+    }
+
+    @Override
+    Sink<Integer> buffer() {
+      return buffer;
+    }
+
+    @Override
+    int bufferSize() {
+      return buffer.size();
+    }
+
+    @Override
+    void clearBuffer() {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * A spliterator over the output of a long pipeline.
+   */
+  static final class LongWrappingSpliterator
+      extends AbstractWrappingSpliterator<Long, Spliterator.OfLong>
+      implements Spliterator.OfLong {
+    private final ArrayBuffer.OfLong buffer = new ArrayBuffer.OfLong();
+
+    LongWrappingSpliterator(AbstractPipeline<Long, ?> pipeline) {
+      super(pipeline);
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer consumer) {
+      checkNotNull(consumer);
+      if (!pushAll((Sink.OfLong) consumer::accept)) {
+        while (tryAdvance(consumer)) {
+        }
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer consumer) {
+      checkNotNull(consumer);
+      if (!fill()) {
+        return false;
+      }
+      consumer.accept(buffer.get(next++));
+      return true;
+    }
+
+    @Override
+    Sink<Long> buffer() {
+      return buffer;
+    }
+
+    @Override
+    int bufferSize() {
+      return buffer.size();
+    }
+
+    @Override
+    void clearBuffer() {
+      buffer.clear();
+    }
+  }
+
+  /**
+   * A spliterator over the output of a double pipeline.
+   */
+  static final class DoubleWrappingSpliterator
+      extends AbstractWrappingSpliterator<Double, Spliterator.OfDouble>
+      implements Spliterator.OfDouble {
+    private final ArrayBuffer.OfDouble buffer = new ArrayBuffer.OfDouble();
+
+    DoubleWrappingSpliterator(AbstractPipeline<Double, ?> pipeline) {
+      super(pipeline);
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer consumer) {
+      checkNotNull(consumer);
+      if (!pushAll((Sink.OfDouble) consumer::accept)) {
+        while (tryAdvance(consumer)) {
+        }
+      }
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer consumer) {
+      checkNotNull(consumer);
+      if (!fill()) {
+        return false;
+      }
+      consumer.accept(buffer.get(next++));
+      return true;
+    }
+
+    @Override
+    Sink<Double> buffer() {
+      return buffer;
+    }
+
+    @Override
+    int bufferSize() {
+      return buffer.size();
+    }
+
+    @Override
+    void clearBuffer() {
+      buffer.clear();
+    }
+  }
+
+  private StreamSpliterators() {
+  }
+}
@@ -0,0 +1,497 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.stream;
+
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkNotNull;
+import static com.google.gwt.core.shared.impl.InternalPreconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * The stream builders and spliterators behind the static factories of the stream interfaces.
+ */
+final class Streams {
+
+  private static final String BUILT = "stream has already been built";
+
+  /**
+   * The characteristics of a range of numbers.
+   */
+  private static final int RANGE_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED
+      | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL
+      | Spliterator.DISTINCT | Spliterator.SORTED;
+
+  /**
+   * A builder of object streams.
+   *
+   * @param <T> element type
+   */
+  static final class ReferenceBuilder<T> implements Stream.Builder<T> {
+    private ArrayList<T> elements = new ArrayList<T>();
+
+    @Override
+    public void accept(T t) {
+      checkState(elements != null, BUILT);
+      elements.add(t);
+    }
+
+    @Override
+    public Stream<T> build() {
+      checkState(elements != null, BUILT);
+      Spliterator<T> spliterator = Spliterators.spliterator(elements, Spliterator.ORDERED);
+      elements = null;
+      return StreamSupport.stream(spliterator, false);
+    }
+  }
+
+  /**
+   * A builder of int streams.
+   */
+  static final class IntBuilder implements IntStream.Builder {
+    private ArrayBuffer.OfInt elements = new ArrayBuffer.OfInt();
+
+    @Override
+    public void accept(int t) {
+      checkState(elements != null, BUILT);
+      elements.accept(t);
+    }
+
+    @Override
+    public IntStream build() {
+      checkState(elements != null, BUILT);
+      Spliterator.OfInt spliterator = elements.spliterator();
+      elements = null;
+      return StreamSupport.intStream(spliterator, false);
+    }
+  }
+
+  /**
+   * A builder of long streams.
+   */
+  static final class LongBuilder implements LongStream.Builder {
+    private ArrayBuffer.OfLong elements = new ArrayBuffer.OfLong();
+
+    @Override
+    public void accept(long t) {
+      checkState(elements != null, BUILT);
+      elements.accept(t);
+    }
+
+    @Override
+    public LongStream build() {
+      checkState(elements != null, BUILT);
+      Spliterator.OfLong spliterator = elements.spliterator();
+      elements = null;
+      return StreamSupport.longStream(spliterator, false);
+    }
+  }
+
+  /**
+   * A builder of double streams.
+   */
+  static final class DoubleBuilder implements DoubleStream.Builder {
+    private ArrayBuffer.OfDouble elements = new ArrayBuffer.OfDouble();
+
+    @Override
+    public void accept(double t) {
+      checkState(elements != null, BUILT);
+      elements.accept(t);
+    }
+
+    @Override
+    public DoubleStream build() {
+      checkState(elements != null, BUILT);
+      Spliterator.OfDouble spliterator = elements.spliterator();
+      elements = null;
+      return StreamSupport.doubleStream(spliterator, false);
+    }
+  }
+
+  /**
+   * The spliterator of the concatenation of two object streams.
+   *
+   * @param <T> element type
+   */
+  static final class ConcatSpliterator<T> implements Spliterator<T> {
+    private final Spliterator<? extends T> first;
+    private boolean inFirst = true;
+    private final Spliterator<? extends T> second;
+
+    ConcatSpliterator(Spliterator<? extends T> first, Spliterator<? extends T> second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public int characteristics() {
+      return concatCharacteristics(first, second);
+    }
+
+    @Override
+    public long estimateSize() {
+      return concatSize(inFirst ? first : null, second);
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> consumer) {
+      if (inFirst) {
+        inFirst = false;
+        first.forEachRemaining(consumer);
+      }
+      second.forEachRemaining(consumer);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> consumer) {
+      if (inFirst) {
+        if (first.tryAdvance(consumer)) {
+          return true;
+        }
+        inFirst = false;
+      }
+      return second.tryAdvance(consumer);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      return null;
+    }
+  }
+
+  /**
+   * The spliterator of the concatenation of two int streams.
+   */
+  static final class IntConcatSpliterator implements Spliterator.OfInt {
+    private final Spliterator.OfInt first;
+    private boolean inFirst = true;
+    private final Spliterator.OfInt second;
+
+    IntConcatSpliterator(Spliterator.OfInt first, Spliterator.OfInt second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public int characteristics() {
+      return concatCharacteristics(first, second);
+    }
+
+    @Override
+    public long estimateSize() {
+      return concatSize(inFirst ? first : null, second);
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer consumer) {
+      if (inFirst) {
+        inFirst = false;
+        first.forEachRemaining(consumer);
+      }
+      second.forEachRemaining(consumer);
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer consumer) {
+      if (inFirst) {
+        if (first.tryAdvance(consumer)) {
+          return true;
+        }
+        inFirst = false;
+      }
+      return second.tryAdvance(consumer);
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+      return null;
+    }
+  }
+
+  /**
+   * The spliterator of the concatenation of two long streams.
+   */
+  static final class LongConcatSpliterator implements Spliterator.OfLong {
+    private final Spliterator.OfLong first;
+    private boolean inFirst = true;
+    private final Spliterator.OfLong second;
+
+    LongConcatSpliterator(Spliterator.OfLong first, Spliterator.OfLong second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public int characteristics() {
+      return concatCharacteristics(first, second);
+    }
+
+    @Override
+    public long estimateSize() {
+      return concatSize(inFirst ? first : null, second);
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer consumer) {
+      if (inFirst) {
+        inFirst = false;
+        first.forEachRemaining(consumer);
+      }
+      second.forEachRemaining(consumer);
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer consumer) {
+      if (inFirst) {
+        if (first.tryAdvance(consumer)) {
+          return true;
+        }
+        inFirst = false;
+      }
+      return second.tryAdvance(consumer);
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+      return null;
+    }
+  }
+
+  /**
+   * The spliterator of the concatenation of two double streams.
+   */
+  static final class DoubleConcatSpliterator implements Spliterator.OfDouble {
+    private final Spliterator.OfDouble first;
+    private boolean inFirst = true;
+    private final Spliterator.OfDouble second;
+
+    DoubleConcatSpliterator(Spliterator.OfDouble first, Spliterator.OfDouble second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public int characteristics() {
+      return concatCharacteristics(first, second);
+    }
+
+    @Override
+    public long estimateSize() {
+      return concatSize(inFirst ? first : null, second);
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer consumer) {
+      if (inFirst) {
+        inFirst = false;
+        first.forEachRemaining(consumer);
+      }
+      second.forEachRemaining(consumer);
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer consumer) {
+      if (inFirst) {
+        if (first.tryAdvance(consumer)) {
+          return true;
+        }
+        inFirst = false;
+      }
+      return second.tryAdvance(consumer);
+    }
+
+    @Override
+    public Spliterator.OfDouble trySplit() {
+      return null;
+    }
+  }
+
+  /**
+   * The spliterator of a non-empty range of int values.
+   */
+  static final class IntRangeSpliterator implements Spliterator.OfInt {
+    private boolean exhausted;
+    private final int last;
+    private int next;
+
+    IntRangeSpliterator(int first, int end, boolean endInclusive) {
+      this.next = first;
+      this.last = endInclusive ? end : end - 1;
+    }
+
+    @Override
+    public int characteristics() {
+      return RANGE_CHARACTERISTICS;
+    }
+
+    @Override
+    public long estimateSize() {
+      return exhausted ? 0 : (long) last - next + 1;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer consumer) {
+      checkNotNull(consumer);
+      if (exhausted) {
+        return;
+      }
+      exhausted = true;
+      // Compares before incrementing, which keeps a range that ends at MAX_VALUE from overflowing.
+      int last = this.last;
+      for (int i = next; ; i++) {
+        consumer.accept(i);
+        if (i == last) {
+          break;
+        }
+      }
+    }
+
+    @Override
+    public Comparator<? super Integer> getComparator() {
+      return null;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer consumer) {
+      checkNotNull(consumer);
+      if (exhausted) {
+        return false;
+      }
+      int value = next;
+      if (value == last) {
+        exhausted = true;
+      } else {
+        next++;
+      }
+      consumer.accept(value);
+      return true;
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+      return null;
+    }
+  }
+
+  /**
+   * The spliterator of a non-empty range of long values.
+   */
+  static final class LongRangeSpliterator implements Spliterator.OfLong {
+    private boolean exhausted;
+    private final long last;
+    private long next;
+
+    LongRangeSpliterator(long first, long end, boolean endInclusive) {
+      this.next = first;
+      this.last = endInclusive ? end : end - 1;
+    }
+
+    @Override
+    public int characteristics() {
+      // A range of more than Long.MAX_VALUE elements doesn't know its size.
+      return last - next + 1 > 0 ? RANGE_CHARACTERISTICS
+          : RANGE_CHARACTERISTICS & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+    }
+
+    @Override
+    public long estimateSize() {
+      if (exhausted) {
+        return 0;
+      }
+      long size = last - next + 1;
+      return size > 0 ? size : Long.MAX_VALUE;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer consumer) {
+      checkNotNull(consumer);
+      if (exhausted) {
+        return;
+      }
+      exhausted = true;
+      // Compares before incrementing, which keeps a range that ends at MAX_VALUE from overflowing.
+      long last = this.last;
+      for (long i = next; ; i++) {
+        consumer.accept(i);
+        if (i == last) {
+          break;
+        }
+      }
+    }
+
+    @Override
+    public Comparator<? super Long> getComparator() {
+      return null;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer consumer) {
+      checkNotNull(consumer);
+      if (exhausted) {
+        return false;
+      }
+      long value = next;
+      if (value == last) {
+        exhausted = true;
+      } else {
+        next++;
+      }
+      consumer.accept(value);
+      return true;
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a close handler that closes both streams, even if closing the first one throws.
+   */
+  static Runnable composedClose(BaseStream<?, ?> a, BaseStream<?, ?> b) {
+    return AbstractPipeline.composeCloseHandlers(a::close, b::close);
+  }
+
+  private static int concatCharacteristics(Spliterator<?> first, Spliterator<?> second) {
+    int characteristics = first.characteristics() & second.characteristics()
+        & ~(Spliterator.DISTINCT | Spliterator.SORTED);
+    if (first.estimateSize() + second.estimateSize() < 0) {
+      characteristics &= ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+    }
+    return characteristics;
+  }
+
+  /**
+   * Returns the remaining size of a concatenation, once its first part may have been exhausted.
+   */
+  private static long concatSize(Spliterator<?> first, Spliterator<?> second) {
+    if (first == null) {
+      return second.estimateSize();
+    }
+    long size = first.estimateSize() + second.estimateSize();
+    return size < 0 ? Long.MAX_VALUE : size;
+  }
+
+  private Streams() {
+  }
+}
@@ -423,8 +423,68 @@ public class Java8Test extends GWTTestCase {
     assertEquals(44, new DualImplementorBoth().redeclaredAsAbstract());
   }
 
+  public void testDefaultInterfaceMethodPolymorphicDispatch() {
+    DefaultInterface x = new DefaultInterfaceImplVirtualUpRef();
+    assertEquals(99, x.method2());
+    x = new DefaultInterfaceImpl();
+    assertEquals(42, x.method2());
+  }
+
   public void testDefaultMethodReference() {
     DefaultInterfaceImplVirtualUpRef x = new DefaultInterfaceImplVirtualUpRef();
     assertEquals(30, (int) new AcceptsLambda<Integer>().accept(x::addInts));
   }
+
+  interface DiamondTop {
+    default int diamond() {
+      return 1;
+    }
+  }
+
+  interface DiamondLeft extends DiamondTop {
+    default int diamond() {
+      return 2;
+    }
+  }
+
+  interface DiamondRight extends DiamondTop {
+  }
+
+  static class Diamond implements DiamondRight, DiamondLeft {
+  }
+
+  public void testDefaultInterfaceMethodDiamond() {
+    assertEquals(2, new Diamond().diamond());
+    DiamondTop top = new Diamond();
+    assertEquals(2, top.diamond());
+  }
+
+  interface BuilderToString {
+    String apply(StringBuilder builder);
+  }
+
+  public void testInheritedMethodReference() {
+    BuilderToString toString = StringBuilder::toString;
+    assertEquals("abc", toString.apply(new StringBuilder("abc")));
+    StringBuilder builder = new StringBuilder("def");
+    Lambda<Integer> length = (a, b) -> builder.length() + a + b;
+    assertEquals(33, (int) length.run(10, 20));
+  }
+
+  public void testLambdaStoredInArray() {
+    Lambda<Integer>[] lambdas = new Lambda[2];
+    lambdas[0] = (a, b) -> a + b;
+    lambdas[1] = (a, b) -> a * b;
+    assertEquals(30, (int) lambdas[0].run(10, 20));
+    assertEquals(200, (int) lambdas[1].run(10, 20));
+
+    Object[] objects = lambdas;
+    objects[0] = (Lambda<Integer>) (a, b) -> a - b;
+    assertEquals(-10, (int) lambdas[0].run(10, 20));
+    try {
+      objects[1] = "not a lambda";
+      fail("Expected ArrayStoreException");
+    } catch (ArrayStoreException expected) {
+    }
+  }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+
+/**
+ * Tests {@link Optional} and its primitive specializations.
+ */
+public class OptionalTest extends EmulJava8TestBase {
+
+  public void testEmpty() {
+    Optional<String> empty = Optional.empty();
+    assertFalse(empty.isPresent());
+    assertEquals("other", empty.orElse("other"));
+    assertEquals("other", empty.orElseGet(() -> "other"));
+    assertFalse(empty.map(String::length).isPresent());
+    try {
+      empty.get();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+    try {
+      empty.orElseThrow(IllegalStateException::new);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testPresent() {
+    Optional<String> present = Optional.of("value");
+    assertTrue(present.isPresent());
+    assertEquals("value", present.get());
+    assertEquals("value", present.orElse("other"));
+    assertEquals("value", present.orElseThrow(IllegalStateException::new));
+    String[] seen = new String[1];
+    present.ifPresent(value -> seen[0] = value);
+    assertEquals("value", seen[0]);
+  }
+
+  public void testOfNullable() {
+    assertFalse(Optional.ofNullable(null).isPresent());
+    assertEquals(Optional.of("value"), Optional.ofNullable("value"));
+    try {
+      Optional.of(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testFilterMapFlatMap() {
+    Optional<String> present = Optional.of("value");
+    assertEquals(Optional.of(5), present.map(String::length));
+    assertFalse(present.map(value -> null).isPresent());
+    assertFalse(present.filter(String::isEmpty).isPresent());
+    assertEquals(present, present.filter(value -> value.startsWith("v")));
+    assertEquals(Optional.of("VALUE"), present.flatMap(value -> Optional.of(value.toUpperCase())));
+    assertFalse(present.flatMap(value -> Optional.empty()).isPresent());
+  }
+
+  public void testEqualsHashCodeToString() {
+    assertEquals(Optional.of("a"), Optional.of("a"));
+    assertFalse(Optional.of("a").equals(Optional.of("b")));
+    assertEquals(Optional.empty(), Optional.ofNullable(null));
+    assertEquals("a".hashCode(), Optional.of("a").hashCode());
+    assertEquals(0, Optional.empty().hashCode());
+    assertEquals("Optional[a]", Optional.of("a").toString());
+    assertEquals("Optional.empty", Optional.empty().toString());
+  }
+
+  public void testOptionalInt() {
+    assertEquals(3, OptionalInt.of(3).getAsInt());
+    assertEquals(3, OptionalInt.of(3).orElse(4));
+    assertEquals(4, OptionalInt.empty().orElse(4));
+    assertEquals(4, OptionalInt.empty().orElseGet(() -> 4));
+    assertEquals(OptionalInt.of(3), OptionalInt.of(3));
+    assertFalse(OptionalInt.of(3).equals(OptionalInt.empty()));
+    assertEquals("OptionalInt[3]", OptionalInt.of(3).toString());
+    assertEquals("OptionalInt.empty", OptionalInt.empty().toString());
+    int[] seen = new int[1];
+    OptionalInt.of(3).ifPresent(value -> seen[0] = value);
+    OptionalInt.empty().ifPresent(value -> seen[0] = -1);
+    assertEquals(3, seen[0]);
+    try {
+      OptionalInt.empty().getAsInt();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+  }
+
+  public void testOptionalLong() {
+    assertEquals(Long.MAX_VALUE, OptionalLong.of(Long.MAX_VALUE).getAsLong());
+    assertEquals(4L, OptionalLong.empty().orElse(4L));
+    assertEquals(4L, OptionalLong.empty().orElseGet(() -> 4L));
+    assertEquals(OptionalLong.of(3L), OptionalLong.of(3L));
+    assertEquals("OptionalLong[3]", OptionalLong.of(3L).toString());
+    try {
+      OptionalLong.empty().orElseThrow(IllegalStateException::new);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testOptionalDouble() {
+    assertEquals(2.5, OptionalDouble.of(2.5).getAsDouble());
+    assertEquals(4.0, OptionalDouble.empty().orElse(4.0));
+    assertEquals(OptionalDouble.of(2.5), OptionalDouble.of(2.5));
+    assertEquals(OptionalDouble.of(Double.NaN), OptionalDouble.of(Double.NaN));
+    assertFalse(OptionalDouble.empty().isPresent());
+    try {
+      OptionalDouble.empty().getAsDouble();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+  }
+}
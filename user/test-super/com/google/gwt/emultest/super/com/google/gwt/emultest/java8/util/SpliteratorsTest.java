@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Tests {@link Spliterators} and {@link PrimitiveIterator}.
+ */
+public class SpliteratorsTest extends EmulJava8TestBase {
+
+  public void testArraySpliterator() {
+    Spliterator<String> spliterator =
+        Spliterators.spliterator(new Object[] {"a", "b", "c", "d"}, 1, 3, Spliterator.ORDERED);
+    assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+    assertEquals(2, spliterator.estimateSize());
+    assertEquals(2, spliterator.getExactSizeIfKnown());
+
+    List<String> seen = new ArrayList<>();
+    assertTrue(spliterator.tryAdvance(seen::add));
+    assertEquals(1, spliterator.estimateSize());
+    spliterator.forEachRemaining(seen::add);
+    assertFalse(spliterator.tryAdvance(seen::add));
+    assertEquals(Arrays.asList("b", "c"), seen);
+  }
+
+  public void testPrimitiveArraySpliterators() {
+    Spliterator.OfInt ints = Spliterators.spliterator(new int[] {1, 2, 3}, 0);
+    int[] intSum = new int[1];
+    assertTrue(ints.tryAdvance((int value) -> intSum[0] += value));
+    ints.forEachRemaining((int value) -> intSum[0] += value * 10);
+    assertEquals(51, intSum[0]);
+
+    Spliterator.OfLong longs = Spliterators.spliterator(new long[] {1L, Long.MAX_VALUE}, 1, 2, 0);
+    long[] longValue = new long[1];
+    longs.forEachRemaining((long value) -> longValue[0] = value);
+    assertEquals(Long.MAX_VALUE, longValue[0]);
+
+    Spliterator.OfDouble doubles = Spliterators.spliterator(new double[] {0.5, 1.5}, 0);
+    assertEquals(2, doubles.estimateSize());
+    double[] doubleSum = new double[1];
+    doubles.forEachRemaining((double value) -> doubleSum[0] += value);
+    assertEquals(2.0, doubleSum[0]);
+  }
+
+  public void testBoxingConsumer() {
+    Spliterator.OfInt ints = Spliterators.spliterator(new int[] {1, 2}, 0);
+    List<Integer> seen = new ArrayList<>();
+    ints.forEachRemaining((Integer value) -> seen.add(value));
+    assertEquals(Arrays.asList(1, 2), seen);
+  }
+
+  public void testEmptySpliterators() {
+    assertFalse(Spliterators.emptySpliterator().tryAdvance(value -> fail()));
+    assertEquals(0, Spliterators.emptyIntSpliterator().estimateSize());
+    assertFalse(Spliterators.emptyLongSpliterator().tryAdvance((long value) -> fail()));
+    assertFalse(Spliterators.emptyDoubleSpliterator().tryAdvance((double value) -> fail()));
+  }
+
+  public void testCollectionSpliterator() {
+    List<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+    Spliterator<String> spliterator = Spliterators.spliterator(list, Spliterator.ORDERED);
+    // The iterator is created lazily, so changes before the first traversal are seen.
+    list.add("c");
+    assertEquals(3, spliterator.estimateSize());
+    List<String> seen = new ArrayList<>();
+    spliterator.forEachRemaining(seen::add);
+    assertEquals(Arrays.asList("a", "b", "c"), seen);
+  }
+
+  public void testIteratorSpliteratorUnknownSize() {
+    Iterator<String> iterator = Arrays.asList("a", "b").iterator();
+    Spliterator<String> spliterator =
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.SIZED);
+    assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+    assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+    assertEquals(-1, spliterator.getExactSizeIfKnown());
+    List<String> seen = new ArrayList<>();
+    spliterator.forEachRemaining(seen::add);
+    assertEquals(Arrays.asList("a", "b"), seen);
+  }
+
+  public void testSpliteratorToIterator() {
+    Iterator<Object> iterator =
+        Spliterators.iterator(Spliterators.spliterator(new Object[] {"a", "b"}, 0));
+    assertTrue(iterator.hasNext());
+    assertTrue(iterator.hasNext());
+    assertEquals("a", iterator.next());
+    assertEquals("b", iterator.next());
+    assertFalse(iterator.hasNext());
+    try {
+      iterator.next();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+  }
+
+  public void testPrimitiveIterators() {
+    PrimitiveIterator.OfInt ints =
+        Spliterators.iterator(Spliterators.spliterator(new int[] {1, 2, 3}, 0));
+    assertEquals(1, ints.nextInt());
+    assertEquals(Integer.valueOf(2), ints.next());
+    int[] last = new int[1];
+    ints.forEachRemaining((int value) -> last[0] = value);
+    assertEquals(3, last[0]);
+    assertFalse(ints.hasNext());
+
+    PrimitiveIterator.OfLong longs =
+        Spliterators.iterator(Spliterators.spliterator(new long[] {Long.MIN_VALUE}, 0));
+    assertEquals(Long.MIN_VALUE, longs.nextLong());
+    try {
+      longs.nextLong();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+
+    PrimitiveIterator.OfDouble doubles =
+        Spliterators.iterator(Spliterators.spliterator(new double[] {0.5, 1.5}, 0));
+    List<Double> seen = new ArrayList<>();
+    doubles.forEachRemaining((Double value) -> seen.add(value));
+    assertEquals(Arrays.asList(0.5, 1.5), seen);
+  }
+
+  public void testPrimitiveIteratorSpliterator() {
+    PrimitiveIterator.OfInt iterator = new PrimitiveIterator.OfInt() {
+      int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < 3;
+      }
+
+      @Override
+      public int nextInt() {
+        return next++;
+      }
+    };
+    Spliterator.OfInt spliterator = Spliterators.spliterator(iterator, 3, 0);
+    assertEquals(3, spliterator.getExactSizeIfKnown());
+    int[] sum = new int[1];
+    spliterator.forEachRemaining((int value) -> sum[0] += value);
+    assertEquals(3, sum[0]);
+  }
+}
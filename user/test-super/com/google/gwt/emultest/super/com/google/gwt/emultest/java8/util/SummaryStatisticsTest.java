@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+
+/**
+ * Tests {@link IntSummaryStatistics}, {@link LongSummaryStatistics} and
+ * {@link DoubleSummaryStatistics}.
+ */
+public class SummaryStatisticsTest extends EmulJava8TestBase {
+
+  public void testIntEmpty() {
+    IntSummaryStatistics stats = new IntSummaryStatistics();
+    assertEquals(0, stats.getCount());
+    assertEquals(0, stats.getSum());
+    assertEquals(0.0, stats.getAverage());
+    assertEquals(Integer.MAX_VALUE, stats.getMin());
+    assertEquals(Integer.MIN_VALUE, stats.getMax());
+  }
+
+  public void testInt() {
+    IntSummaryStatistics stats = new IntSummaryStatistics();
+    stats.accept(Integer.MAX_VALUE);
+    stats.accept(Integer.MAX_VALUE);
+    stats.accept(-4);
+    assertEquals(3, stats.getCount());
+    // The sum is a long, so it does not overflow.
+    assertEquals(2L * Integer.MAX_VALUE - 4, stats.getSum());
+    assertEquals(-4, stats.getMin());
+    assertEquals(Integer.MAX_VALUE, stats.getMax());
+    assertEquals((2.0 * Integer.MAX_VALUE - 4) / 3, stats.getAverage(), 1e-6);
+  }
+
+  public void testIntCombine() {
+    IntSummaryStatistics first = new IntSummaryStatistics();
+    first.accept(1);
+    first.accept(2);
+    IntSummaryStatistics second = new IntSummaryStatistics();
+    second.accept(10);
+    first.combine(second);
+    first.combine(new IntSummaryStatistics());
+    assertEquals(3, first.getCount());
+    assertEquals(13, first.getSum());
+    assertEquals(1, first.getMin());
+    assertEquals(10, first.getMax());
+    assertEquals(13 / 3.0, first.getAverage());
+  }
+
+  public void testLong() {
+    LongSummaryStatistics stats = new LongSummaryStatistics();
+    assertEquals(Long.MAX_VALUE, stats.getMin());
+    assertEquals(Long.MIN_VALUE, stats.getMax());
+    stats.accept(1);
+    stats.accept(Long.MAX_VALUE - 1);
+    stats.accept(-3L);
+    assertEquals(3, stats.getCount());
+    assertEquals(Long.MAX_VALUE - 3, stats.getSum());
+    assertEquals(-3L, stats.getMin());
+    assertEquals(Long.MAX_VALUE - 1, stats.getMax());
+
+    LongSummaryStatistics other = new LongSummaryStatistics();
+    other.accept(Long.MIN_VALUE);
+    stats.combine(other);
+    assertEquals(4, stats.getCount());
+    assertEquals(Long.MIN_VALUE, stats.getMin());
+    assertEquals(-4L, stats.getSum());
+    assertEquals(-1.0, stats.getAverage());
+  }
+
+  public void testDoubleEmpty() {
+    DoubleSummaryStatistics stats = new DoubleSummaryStatistics();
+    assertEquals(0.0, stats.getSum());
+    assertEquals(0.0, stats.getAverage());
+    assertEquals(Double.POSITIVE_INFINITY, stats.getMin());
+    assertEquals(Double.NEGATIVE_INFINITY, stats.getMax());
+  }
+
+  public void testDouble() {
+    DoubleSummaryStatistics stats = new DoubleSummaryStatistics();
+    stats.accept(0.5);
+    stats.accept(-1.5);
+    stats.accept(4.0);
+    assertEquals(3, stats.getCount());
+    assertEquals(3.0, stats.getSum());
+    assertEquals(1.0, stats.getAverage());
+    assertEquals(-1.5, stats.getMin());
+    assertEquals(4.0, stats.getMax());
+  }
+
+  public void testDoubleCompensatedSum() {
+    DoubleSummaryStatistics stats = new DoubleSummaryStatistics();
+    stats.accept(1.0);
+    for (int i = 0; i < 10; i++) {
+      stats.accept(1e-16);
+    }
+    // Plain summation would lose every one of the small values.
+    assertEquals(1.000000000000001, stats.getSum(), 1e-16);
+
+    DoubleSummaryStatistics other = new DoubleSummaryStatistics();
+    other.accept(-1.0);
+    stats.combine(other);
+    assertEquals(1e-15, stats.getSum(), 2e-16);
+  }
+
+  public void testDoubleSpecialValues() {
+    DoubleSummaryStatistics stats = new DoubleSummaryStatistics();
+    stats.accept(Double.POSITIVE_INFINITY);
+    stats.accept(1.0);
+    assertEquals(Double.POSITIVE_INFINITY, stats.getSum());
+    stats.accept(Double.NEGATIVE_INFINITY);
+    assertTrue(Double.isNaN(stats.getSum()));
+
+    stats = new DoubleSummaryStatistics();
+    stats.accept(Double.NaN);
+    stats.accept(1.0);
+    assertTrue(Double.isNaN(stats.getSum()));
+    assertTrue(Double.isNaN(stats.getAverage()));
+  }
+}
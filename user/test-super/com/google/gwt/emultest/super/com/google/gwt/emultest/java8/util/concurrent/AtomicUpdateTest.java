@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.concurrent;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests the update and accumulate methods of the atomic classes.
+ */
+public class AtomicUpdateTest extends EmulJava8TestBase {
+
+  public void testAtomicInteger() {
+    AtomicInteger value = new AtomicInteger(3);
+    assertEquals(3, value.getAndUpdate(v -> v * 2));
+    assertEquals(7, value.updateAndGet(v -> v + 1));
+    assertEquals(7, value.getAndAccumulate(3, Math::max));
+    assertEquals(10, value.accumulateAndGet(3, (a, b) -> a + b));
+  }
+
+  public void testAtomicLong() {
+    AtomicLong value = new AtomicLong(1L << 40);
+    assertEquals(1L << 40, value.getAndUpdate(v -> v * 2));
+    assertEquals((1L << 41) + 1, value.updateAndGet(v -> v + 1));
+    assertEquals(5L, value.accumulateAndGet(5L, Math::min));
+  }
+
+  public void testAtomicReference() {
+    AtomicReference<String> value = new AtomicReference<>("a");
+    assertEquals("a", value.getAndUpdate(s -> s + "b"));
+    assertEquals("abc", value.updateAndGet(s -> s + "c"));
+    assertEquals("abcd", value.accumulateAndGet("d", String::concat));
+    assertEquals("abcd", value.getAndAccumulate("e", (a, b) -> b));
+    assertEquals("e", value.get());
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.concurrent;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Tests the Java 8 methods of {@link ConcurrentHashMap}.
+ */
+public class ConcurrentHashMapTest extends EmulJava8TestBase {
+
+  public void testComputeIfAbsent() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<>();
+    assertEquals(Integer.valueOf(1), map.computeIfAbsent("a", String::length));
+    assertEquals(Integer.valueOf(1), map.computeIfAbsent("a", k -> 2));
+    assertNull(map.computeIfAbsent("b", k -> null));
+    assertFalse(map.containsKey("b"));
+  }
+
+  public void testMerge() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<>();
+    for (String word : new String[] {"a", "b", "a"}) {
+      map.merge(word, 1, Integer::sum);
+    }
+    assertEquals(Integer.valueOf(2), map.get("a"));
+    assertEquals(Integer.valueOf(1), map.get("b"));
+  }
+
+  public void testForEachWhileModifying() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<>();
+    map.put("a", 1);
+    map.put("b", 2);
+    map.forEach((k, v) -> map.remove(k));
+    assertTrue(map.isEmpty());
+  }
+
+  public void testStream() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<>();
+    map.put("a", 1);
+    map.put("b", 2);
+    assertEquals(Integer.valueOf(3),
+        map.values().stream().collect(Collectors.summingInt(v -> v)));
+  }
+}
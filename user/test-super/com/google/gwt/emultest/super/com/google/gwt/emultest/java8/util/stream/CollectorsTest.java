@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.stream;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests {@link Collectors}.
+ */
+public class CollectorsTest extends EmulJava8TestBase {
+
+  private static List<String> words() {
+    return new ArrayList<>(Arrays.asList("delta", "alpha", "charlie", "bravo", "alpha"));
+  }
+
+  public void testToSet() {
+    assertEquals(new HashSet<>(Arrays.asList("alpha", "bravo", "charlie", "delta")),
+        words().stream().collect(Collectors.toSet()));
+  }
+
+  public void testToCollection() {
+    assertEquals("[alpha, bravo, charlie, delta]",
+        words().stream().collect(Collectors.toCollection(TreeSet::new)).toString());
+  }
+
+  public void testJoining() {
+    assertEquals("ab", Stream.of("a", "b").collect(Collectors.joining()));
+    assertEquals("[a, b]", Stream.of("a", "b").collect(Collectors.joining(", ", "[", "]")));
+    assertEquals("[]", Stream.<String>empty().collect(Collectors.joining(", ", "[", "]")));
+  }
+
+  public void testCounting() {
+    assertEquals(Long.valueOf(5), words().stream().collect(Collectors.counting()));
+  }
+
+  public void testSummingAndAveraging() {
+    assertEquals(Integer.valueOf(27),
+        words().stream().collect(Collectors.summingInt(String::length)));
+    assertEquals(5.4, words().stream().collect(Collectors.averagingInt(String::length)), 1e-9);
+  }
+
+  public void testGroupingBy() {
+    Map<Integer, List<String>> byLength =
+        words().stream().collect(Collectors.groupingBy(String::length));
+    assertEquals(Arrays.asList("delta", "alpha", "bravo", "alpha"), byLength.get(5));
+    assertEquals(Arrays.asList("charlie"), byLength.get(7));
+  }
+
+  public void testGroupingByDownstream() {
+    Map<Integer, Long> counts = words().stream()
+        .collect(Collectors.groupingBy(String::length, TreeMap::new, Collectors.counting()));
+    assertEquals("{5=4, 7=1}", counts.toString());
+  }
+
+  public void testPartitioningBy() {
+    Map<Boolean, List<String>> parts =
+        words().stream().collect(Collectors.partitioningBy(w -> w.startsWith("a")));
+    assertEquals(Arrays.asList("alpha", "alpha"), parts.get(true));
+    assertEquals(3, parts.get(false).size());
+  }
+
+  public void testToMap() {
+    Map<String, Integer> lengths =
+        Stream.of("a", "bb").collect(Collectors.toMap(w -> w, String::length));
+    assertEquals(Integer.valueOf(2), lengths.get("bb"));
+  }
+
+  public void testToMapDuplicateKey() {
+    try {
+      words().stream().collect(Collectors.toMap(w -> w, String::length));
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testToMapMerge() {
+    Map<String, Integer> counts = words().stream()
+        .collect(Collectors.toMap(w -> w, w -> 1, Integer::sum, TreeMap::new));
+    assertEquals("{alpha=2, bravo=1, charlie=1, delta=1}", counts.toString());
+  }
+
+  public void testCollectingAndThen() {
+    int size = words().stream()
+        .collect(Collectors.collectingAndThen(Collectors.toList(), List::size));
+    assertEquals(5, size);
+  }
+
+  public void testMapping() {
+    List<Integer> lengths = Stream.of("delta", "alpha")
+        .collect(Collectors.mapping(String::length, Collectors.toList()));
+    assertEquals(Arrays.asList(5, 5), lengths);
+  }
+
+  public void testMinByMaxBy() {
+    assertEquals("alpha",
+        words().stream().collect(Collectors.minBy(String::compareTo)).get());
+    assertEquals("delta",
+        words().stream().collect(Collectors.maxBy(String::compareTo)).get());
+  }
+
+  public void testReducing() {
+    assertEquals(Integer.valueOf(27),
+        words().stream().collect(Collectors.reducing(0, String::length, Integer::sum)));
+  }
+
+  public void testSummarizing() {
+    assertEquals(7, words().stream().collect(Collectors.summarizingInt(String::length)).getMax());
+  }
+}
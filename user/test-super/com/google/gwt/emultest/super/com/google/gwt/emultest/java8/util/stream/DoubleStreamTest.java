@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.stream;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.PrimitiveIterator;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+
+/**
+ * Tests {@link DoubleStream}.
+ */
+public class DoubleStreamTest extends EmulJava8TestBase {
+
+  public void testFilterMapSum() {
+    double sum = DoubleStream.of(0.5, 1.5, 2.5, 3.5).filter(d -> d > 1).map(d -> d * 2).sum();
+    assertEquals(15.0, sum);
+  }
+
+  public void testEmptyOptionals() {
+    assertFalse(DoubleStream.empty().max().isPresent());
+    assertFalse(DoubleStream.empty().min().isPresent());
+    assertFalse(DoubleStream.empty().average().isPresent());
+    assertFalse(DoubleStream.empty().findFirst().isPresent());
+    assertFalse(DoubleStream.empty().reduce(Double::sum).isPresent());
+    assertEquals(0.0, DoubleStream.empty().sum());
+  }
+
+  public void testMinMax() {
+    assertEquals(-2.5, DoubleStream.of(1, -2.5, 0).min().getAsDouble());
+    assertEquals(1.0, DoubleStream.of(1, -2.5, 0).max().getAsDouble());
+    assertTrue(Double.isNaN(DoubleStream.of(1, Double.NaN).max().getAsDouble()));
+  }
+
+  public void testSpecialValues() {
+    assertEquals(Double.POSITIVE_INFINITY, DoubleStream.of(1, Double.POSITIVE_INFINITY).sum());
+    assertTrue(Double.isNaN(
+        DoubleStream.of(Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY).sum()));
+    assertTrue(Double.isNaN(DoubleStream.of(1, Double.NaN).average().getAsDouble()));
+  }
+
+  public void testSortedDistinct() {
+    double[] result = DoubleStream.of(2.5, -1.5, 2.5, 0.5).distinct().sorted().toArray();
+    assertEquals("[-1.5, 0.5, 2.5]", Arrays.toString(result));
+  }
+
+  public void testIterateGenerateLimitSkip() {
+    assertEquals("[0.25, 0.125]",
+        Arrays.toString(DoubleStream.iterate(1, d -> d / 2).skip(2).limit(2).toArray()));
+    assertEquals(3, DoubleStream.generate(() -> 0.5).limit(3).count());
+  }
+
+  public void testMatch() {
+    assertTrue(DoubleStream.of(0.5, 1.5).anyMatch(d -> d > 1));
+    assertFalse(DoubleStream.of(0.5, 1.5).allMatch(d -> d > 1));
+    assertTrue(DoubleStream.of(0.5, 1.5).noneMatch(Double::isNaN));
+  }
+
+  public void testConversions() {
+    assertEquals("[1, -1, 2]",
+        Arrays.toString(DoubleStream.of(1.9, -1.9, 2.5).mapToInt(d -> (int) d).toArray()));
+    assertEquals(Long.MAX_VALUE,
+        DoubleStream.of(Double.MAX_VALUE).mapToLong(d -> (long) d).findFirst().getAsLong());
+    assertEquals(Arrays.asList(0.5, 1.5),
+        DoubleStream.of(0.5, 1.5).boxed().collect(Collectors.toList()));
+    assertEquals("0.5;1.5",
+        DoubleStream.of(0.5, 1.5).mapToObj(Double::toString).collect(Collectors.joining(";")));
+  }
+
+  public void testFlatMapConcatReduce() {
+    double product = DoubleStream.concat(DoubleStream.of(2), DoubleStream.of(3))
+        .flatMap(d -> DoubleStream.of(d, 0.5))
+        .reduce(1, (a, b) -> a * b);
+    assertEquals(1.5, product);
+  }
+
+  public void testSummaryStatistics() {
+    DoubleSummaryStatistics stats = DoubleStream.of(0.5, 1.5, -1).summaryStatistics();
+    assertEquals(3, stats.getCount());
+    assertEquals(1.0, stats.getSum());
+    assertEquals(-1.0, stats.getMin());
+    assertEquals(1.5, stats.getMax());
+    assertEquals(1.0 / 3, stats.getAverage(), 1e-15);
+  }
+
+  public void testBuilder() {
+    DoubleStream.Builder builder = DoubleStream.builder();
+    builder.add(0.5).add(1);
+    builder.accept(1.5);
+    assertEquals(3.0, builder.build().sum());
+  }
+
+  public void testIterator() {
+    PrimitiveIterator.OfDouble iterator = DoubleStream.of(0.5, 1.5).iterator();
+    assertEquals(0.5, iterator.nextDouble());
+    assertEquals(Double.valueOf(1.5), iterator.next());
+    assertFalse(iterator.hasNext());
+  }
+}
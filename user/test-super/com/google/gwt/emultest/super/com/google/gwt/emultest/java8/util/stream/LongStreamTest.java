@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.stream;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.Arrays;
+import java.util.LongSummaryStatistics;
+import java.util.PrimitiveIterator;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Tests {@link LongStream}.
+ */
+public class LongStreamTest extends EmulJava8TestBase {
+
+  public void testRange() {
+    assertEquals("[3, 4, 5]", Arrays.toString(LongStream.range(3, 6).toArray()));
+    assertEquals("[3, 4, 5, 6]", Arrays.toString(LongStream.rangeClosed(3, 6).toArray()));
+    assertEquals(0, LongStream.range(6, 3).count());
+    assertEquals(1, LongStream.rangeClosed(Long.MAX_VALUE, Long.MAX_VALUE).count());
+    // Ranges beyond the int range are not truncated.
+    assertEquals(3, LongStream.range(Integer.MAX_VALUE - 1L, Integer.MAX_VALUE + 2L).count());
+  }
+
+  public void testFilterMapSum() {
+    long sum = LongStream.rangeClosed(1, 10).filter(l -> l % 2 == 0).map(l -> l * l).sum();
+    assertEquals(220, sum);
+  }
+
+  public void testLargeValues() {
+    assertEquals(Long.MAX_VALUE, LongStream.of(Long.MAX_VALUE - 1, 1).sum());
+    // Overflow wraps around like in Java.
+    assertEquals(Long.MIN_VALUE, LongStream.of(Long.MAX_VALUE, 1).sum());
+    assertEquals(Long.MIN_VALUE, LongStream.of(3, Long.MIN_VALUE, 0).min().getAsLong());
+  }
+
+  public void testEmptyOptionals() {
+    assertFalse(LongStream.empty().max().isPresent());
+    assertFalse(LongStream.empty().min().isPresent());
+    assertFalse(LongStream.empty().average().isPresent());
+    assertFalse(LongStream.empty().findFirst().isPresent());
+    assertFalse(LongStream.empty().reduce(Long::sum).isPresent());
+    assertEquals(7, LongStream.empty().reduce(7, Long::sum));
+  }
+
+  public void testAverage() {
+    assertEquals(2.5, LongStream.of(1, 2, 3, 4).average().getAsDouble());
+  }
+
+  public void testIterateGenerateLimit() {
+    assertEquals("[1, 3, 9, 27]",
+        Arrays.toString(LongStream.iterate(1, l -> l * 3).limit(4).toArray()));
+    assertEquals(4, LongStream.generate(() -> 2L).limit(2).sum());
+  }
+
+  public void testSkipSortedDistinct() {
+    long[] result = LongStream.of(5, 1, 3, 1, 5, 2).distinct().sorted().skip(1).toArray();
+    assertEquals("[2, 3, 5]", Arrays.toString(result));
+  }
+
+  public void testMatch() {
+    assertTrue(LongStream.of(1, 2, 3).anyMatch(l -> l == 2));
+    assertFalse(LongStream.of(1, 2, 3).allMatch(l -> l < 3));
+    assertTrue(LongStream.empty().allMatch(l -> false));
+    assertTrue(LongStream.of(1, 2, 3).noneMatch(l -> l > 3));
+  }
+
+  public void testConversions() {
+    assertEquals(1.5, LongStream.of(1, 2).asDoubleStream().average().getAsDouble());
+    assertEquals(6, LongStream.of(1, 2, 3).mapToInt(l -> (int) l).sum());
+    assertEquals(Arrays.asList(1L, 2L), LongStream.of(1, 2).boxed().collect(Collectors.toList()));
+    assertEquals("1-2", LongStream.of(1, 2).mapToObj(Long::toString)
+        .collect(Collectors.joining("-")));
+    assertEquals(3.0, LongStream.of(1, 2).mapToDouble(l -> l * 1.0).sum());
+  }
+
+  public void testFlatMapConcat() {
+    long[] result = LongStream.concat(LongStream.of(1), LongStream.of(2, 3))
+        .flatMap(l -> LongStream.of(l, -l))
+        .toArray();
+    assertEquals("[1, -1, 2, -2, 3, -3]", Arrays.toString(result));
+  }
+
+  public void testSummaryStatistics() {
+    LongSummaryStatistics stats = LongStream.rangeClosed(1, 4).summaryStatistics();
+    assertEquals(4, stats.getCount());
+    assertEquals(10, stats.getSum());
+    assertEquals(1, stats.getMin());
+    assertEquals(4, stats.getMax());
+  }
+
+  public void testBuilder() {
+    LongStream.Builder builder = LongStream.builder();
+    builder.accept(1);
+    builder.add(2).add(3);
+    assertEquals(6, builder.build().sum());
+  }
+
+  public void testIterator() {
+    PrimitiveIterator.OfLong iterator = LongStream.of(1, 2).iterator();
+    assertEquals(1, iterator.nextLong());
+    assertEquals(Long.valueOf(2), iterator.next());
+    assertFalse(iterator.hasNext());
+  }
+
+  public void testPeekForEach() {
+    long[] peeked = new long[1];
+    long[] consumed = new long[1];
+    LongStream.of(1, 2, 3).peek(l -> peeked[0] += l).forEach(l -> consumed[0] += l * 10);
+    assertEquals(6, peeked[0]);
+    assertEquals(60, consumed[0]);
+  }
+}
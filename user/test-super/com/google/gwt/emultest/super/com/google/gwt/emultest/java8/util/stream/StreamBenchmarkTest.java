@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.stream;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Times stream pipelines against the equivalent hand written loops in compiled code and logs
+ * both, so that runs can be compared across changes to the emulation. Only the results are
+ * checked; the timings depend too much on the browser to assert on.
+ */
+public class StreamBenchmarkTest extends EmulJava8TestBase {
+
+  private static final Logger logger = Logger.getLogger(StreamBenchmarkTest.class.getName());
+
+  private static final int SIZE = 10000;
+
+  private static final int ROUNDS = 20;
+
+  private static int[] ints() {
+    return IntStream.range(0, SIZE).toArray();
+  }
+
+  private static List<Integer> boxedInts() {
+    List<Integer> list = new ArrayList<>(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      list.add(i);
+    }
+    return list;
+  }
+
+  private static List<String> words() {
+    List<String> list = new ArrayList<>(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      list.add(Integer.toString(i));
+    }
+    return list;
+  }
+
+  /**
+   * Runs both implementations {@link #ROUNDS} times, checks that they agree and logs how long
+   * each took per round.
+   */
+  private static void compareToLoop(String name, IntSupplier stream, IntSupplier loop) {
+    int expected = loop.getAsInt();
+    assertEquals(name, expected, stream.getAsInt());
+
+    Duration loopDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      expected ^= loop.getAsInt();
+    }
+    double loopMillis = loopDuration.elapsedMillis();
+
+    int actual = expected;
+    Duration streamDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      actual ^= stream.getAsInt();
+    }
+    double streamMillis = streamDuration.elapsedMillis();
+
+    assertEquals(name, expected, actual);
+    logger.info(name + ", " + SIZE + " elements: stream " + streamMillis / ROUNDS + "ms, loop "
+        + loopMillis / ROUNDS + "ms");
+  }
+
+  private static int sumOfEvenSquaresLoop(int[] values) {
+    int sum = 0;
+    for (int value : values) {
+      if (value % 2 == 0) {
+        sum += value * value;
+      }
+    }
+    return sum;
+  }
+
+  private static int sumOfEvenSquaresStream(int[] values) {
+    return Arrays.stream(values).filter(v -> v % 2 == 0).map(v -> v * v).sum();
+  }
+
+  private static int maxOfMultiplesLoop(List<Integer> values) {
+    int max = Integer.MIN_VALUE;
+    for (Integer value : values) {
+      if (value % 7 == 0) {
+        max = Math.max(max, value);
+      }
+    }
+    return max;
+  }
+
+  private static int maxOfMultiplesStream(List<Integer> values) {
+    return values.stream().filter(v -> v % 7 == 0).mapToInt(Integer::intValue).max().getAsInt();
+  }
+
+  private static int countLongWordsLoop(List<String> words) {
+    int count = 0;
+    for (String word : words) {
+      if (word.length() > 3 && word.charAt(0) != '9') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static int countLongWordsStream(List<String> words) {
+    return (int) words.stream().filter(w -> w.length() > 3).filter(w -> w.charAt(0) != '9')
+        .count();
+  }
+
+  private static int collectLengthsLoop(List<String> words) {
+    List<Integer> lengths = new ArrayList<>();
+    for (String word : words) {
+      lengths.add(word.length());
+    }
+    return lengths.size() + lengths.get(lengths.size() - 1);
+  }
+
+  private static int collectLengthsStream(List<String> words) {
+    List<Integer> lengths = words.stream().map(String::length).collect(Collectors.toList());
+    return lengths.size() + lengths.get(lengths.size() - 1);
+  }
+
+  public void testIntArrayFilterMapSum() {
+    int[] values = ints();
+    compareToLoop("filter/map/sum",
+        () -> sumOfEvenSquaresStream(values), () -> sumOfEvenSquaresLoop(values));
+  }
+
+  public void testBoxedListFilterMax() {
+    List<Integer> values = boxedInts();
+    compareToLoop("filter/mapToInt/max",
+        () -> maxOfMultiplesStream(values), () -> maxOfMultiplesLoop(values));
+  }
+
+  public void testListFilterCount() {
+    List<String> words = words();
+    compareToLoop("filter/filter/count",
+        () -> countLongWordsStream(words), () -> countLongWordsLoop(words));
+  }
+
+  public void testListMapCollect() {
+    List<String> words = words();
+    compareToLoop("map/collect",
+        () -> collectLengthsStream(words), () -> collectLengthsLoop(words));
+  }
+}
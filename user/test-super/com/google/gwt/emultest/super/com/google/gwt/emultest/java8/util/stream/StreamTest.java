@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.stream;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Tests {@link Stream} and its primitive specializations.
+ */
+public class StreamTest extends EmulJava8TestBase {
+
+  private static List<String> words() {
+    return new ArrayList<>(Arrays.asList("delta", "alpha", "charlie", "bravo", "alpha"));
+  }
+
+  public void testFilterMapCollect() {
+    List<String> result = words().stream()
+        .filter(w -> w.length() == 5)
+        .map(String::toUpperCase)
+        .collect(Collectors.toList());
+    assertEquals(Arrays.asList("DELTA", "ALPHA", "BRAVO", "ALPHA"), result);
+  }
+
+  public void testSortedDistinct() {
+    List<String> result = words().stream().distinct().sorted().collect(Collectors.toList());
+    assertEquals(Arrays.asList("alpha", "bravo", "charlie", "delta"), result);
+  }
+
+  public void testSortedWithComparator() {
+    List<String> result = words().stream()
+        .sorted((a, b) -> a.length() - b.length())
+        .collect(Collectors.toList());
+    assertEquals("charlie", result.get(result.size() - 1));
+  }
+
+  public void testSkipLimit() {
+    List<String> result = words().stream().skip(1).limit(2).collect(Collectors.toList());
+    assertEquals(Arrays.asList("alpha", "charlie"), result);
+  }
+
+  public void testLimitShortCircuitsInfiniteStream() {
+    List<Integer> result = Stream.iterate(1, i -> i * 2).limit(5).collect(Collectors.toList());
+    assertEquals(Arrays.asList(1, 2, 4, 8, 16), result);
+  }
+
+  public void testGenerate() {
+    assertEquals(3, Stream.generate(() -> "x").limit(3).count());
+  }
+
+  public void testFlatMap() {
+    List<Integer> result = Stream.of(Arrays.asList(1, 2), Arrays.asList(3))
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+    assertEquals(Arrays.asList(1, 2, 3), result);
+  }
+
+  public void testReduce() {
+    assertEquals("deltaalpha", Stream.of("delta", "alpha").reduce("", String::concat));
+    assertEquals(Optional.of(6), Stream.of(1, 2, 3).reduce(Integer::sum));
+    assertFalse(Stream.<Integer>empty().reduce(Integer::sum).isPresent());
+  }
+
+  public void testMatch() {
+    assertTrue(words().stream().anyMatch(w -> w.startsWith("c")));
+    assertFalse(words().stream().allMatch(w -> w.length() == 5));
+    assertTrue(words().stream().noneMatch(String::isEmpty));
+  }
+
+  public void testFindFirst() {
+    assertEquals("charlie", words().stream().filter(w -> w.length() > 5).findFirst().get());
+    assertFalse(words().stream().filter(String::isEmpty).findFirst().isPresent());
+  }
+
+  public void testMinMax() {
+    assertEquals("alpha", words().stream().min(String::compareTo).get());
+    assertEquals("delta", words().stream().max(String::compareTo).get());
+  }
+
+  public void testPeekIsLazy() {
+    List<String> seen = new ArrayList<>();
+    Stream<String> stream = words().stream().peek(seen::add);
+    assertTrue(seen.isEmpty());
+    stream.findFirst();
+    assertEquals(Arrays.asList("delta"), seen);
+  }
+
+  public void testToArray() {
+    String[] result = words().stream().limit(2).toArray(String[]::new);
+    assertEquals(2, result.length);
+    assertEquals("alpha", result[1]);
+  }
+
+  public void testConcat() {
+    assertEquals(Arrays.asList("a", "b", "c"),
+        Stream.concat(Stream.of("a"), Stream.of("b", "c")).collect(Collectors.toList()));
+  }
+
+  public void testStreamCanOnlyBeConsumedOnce() {
+    Stream<String> stream = words().stream();
+    stream.count();
+    try {
+      stream.count();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testOnClose() {
+    int[] closed = new int[1];
+    Stream<String> stream = words().stream().onClose(() -> closed[0]++);
+    stream.close();
+    stream.close();
+    assertEquals(1, closed[0]);
+  }
+
+  public void testIntRange() {
+    assertEquals(45, IntStream.range(0, 10).sum());
+    assertEquals(55, IntStream.rangeClosed(0, 10).sum());
+    assertEquals(0, IntStream.range(5, 5).count());
+  }
+
+  public void testIntFilterMap() {
+    int[] result = IntStream.range(0, 10).filter(i -> i % 3 == 0).map(i -> i * i).toArray();
+    assertEquals("[0, 9, 36, 81]", Arrays.toString(result));
+  }
+
+  public void testIntSummaryStatistics() {
+    IntSummaryStatistics stats = words().stream().mapToInt(String::length).summaryStatistics();
+    assertEquals(5, stats.getCount());
+    assertEquals(27, stats.getSum());
+    assertEquals(5, stats.getMin());
+    assertEquals(7, stats.getMax());
+  }
+
+  public void testIntAverageAndEmptyOptionals() {
+    assertEquals(4.5, IntStream.range(0, 10).average().getAsDouble());
+    assertFalse(IntStream.empty().average().isPresent());
+    assertFalse(IntStream.empty().max().isPresent());
+  }
+
+  public void testIntSortedDistinct() {
+    assertEquals("[1, 2, 3]", Arrays.toString(IntStream.of(3, 1, 2, 3, 1).distinct().sorted()
+        .toArray()));
+  }
+
+  public void testBoxed() {
+    List<Integer> result = IntStream.range(0, 3).boxed().collect(Collectors.toList());
+    assertEquals(Arrays.asList(0, 1, 2), result);
+  }
+
+  public void testArraysStream() {
+    assertEquals(6, Arrays.stream(new int[] {1, 2, 3}).sum());
+    assertEquals(5, Arrays.stream(new int[] {1, 2, 3, 4}, 1, 3).sum());
+    assertEquals(2, Arrays.stream(new String[] {"a", "b"}).count());
+  }
+
+  public void testLongStream() {
+    assertEquals(5050L, LongStream.rangeClosed(1, 100).sum());
+    assertEquals(Long.MAX_VALUE, LongStream.of(1L, Long.MAX_VALUE).max().getAsLong());
+  }
+
+  public void testDoubleStream() {
+    assertEquals(2.5, DoubleStream.of(1, 2, 3, 4).average().getAsDouble());
+    assertEquals(4.5, IntStream.range(0, 3).asDoubleStream().map(d -> d + 0.5).sum(), 1e-9);
+  }
+
+  public void testMapToObj() {
+    String result = IntStream.range(0, 3).mapToObj(Integer::toString)
+        .collect(Collectors.joining(","));
+    assertEquals("0,1,2", result);
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.client;
+
+import com.google.gwt.collections.shared.DoubleArrayList;
+import com.google.gwt.collections.shared.IntArrayList;
+import com.google.gwt.collections.shared.IntIntHashMap;
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Times the typed array backed collections against the emulated collections of boxed values in
+ * compiled code and logs both, along with the heap they retain where the browser reports it.
+ * Only the contents are checked; the numbers depend too much on the browser to assert on.
+ */
+public class PrimitiveCollectionsBenchmarkTest extends GWTTestCase {
+
+  private static final Logger logger =
+      Logger.getLogger(PrimitiveCollectionsBenchmarkTest.class.getName());
+
+  private static final int SIZE = 100000;
+
+  private static final int ROUNDS = 10;
+
+  /**
+   * Returns the size of the used heap in bytes, or -1 if the browser does not report it.
+   */
+  private static native double usedHeapSize() /*-{
+    var performance = $wnd.performance;
+    if (performance && performance.memory && performance.memory.usedJSHeapSize) {
+      return performance.memory.usedJSHeapSize;
+    }
+    return -1;
+  }-*/;
+
+  private static int xor(IntArrayList list) {
+    int xor = 0;
+    for (int i = 0, size = list.size(); i < size; i++) {
+      xor ^= list.get(i);
+    }
+    return xor;
+  }
+
+  private static int xor(List<Integer> list) {
+    int xor = 0;
+    for (int i = 0, size = list.size(); i < size; i++) {
+      xor ^= list.get(i);
+    }
+    return xor;
+  }
+
+  private static double sum(DoubleArrayList list) {
+    double sum = 0;
+    for (int i = 0, size = list.size(); i < size; i++) {
+      sum += list.get(i);
+    }
+    return sum;
+  }
+
+  private static double sum(List<Double> list) {
+    double sum = 0;
+    for (int i = 0, size = list.size(); i < size; i++) {
+      sum += list.get(i);
+    }
+    return sum;
+  }
+
+  private static int xorOfValues(IntIntHashMap map) {
+    int xor = 0;
+    for (int i = 0; i < SIZE; i++) {
+      xor ^= map.get(i * 7);
+    }
+    return xor;
+  }
+
+  private static int xorOfValues(Map<Integer, Integer> map) {
+    int xor = 0;
+    for (int i = 0; i < SIZE; i++) {
+      xor ^= map.get(i * 7);
+    }
+    return xor;
+  }
+
+  private static void logTimes(String name, double primitiveMillis, double boxedMillis) {
+    logger.info(name + ", " + SIZE + " elements: primitive " + primitiveMillis + "ms, boxed "
+        + boxedMillis + "ms");
+  }
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.collections.CollectionsTest";
+  }
+
+  public void testIntArrayListIteration() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntArrayList primitive = new IntArrayList();
+    List<Integer> boxed = new ArrayList<Integer>();
+    for (int i = 0; i < SIZE; i++) {
+      primitive.add(i);
+      boxed.add(i);
+    }
+    int expected = xor(boxed);
+    assertEquals(expected, xor(primitive));
+
+    Duration boxedDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, xor(boxed));
+    }
+    double boxedMillis = boxedDuration.elapsedMillis();
+
+    Duration primitiveDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, xor(primitive));
+    }
+    logTimes("IntArrayList.get", primitiveDuration.elapsedMillis() / ROUNDS,
+        boxedMillis / ROUNDS);
+  }
+
+  public void testDoubleArrayListIteration() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    DoubleArrayList primitive = new DoubleArrayList();
+    List<Double> boxed = new ArrayList<Double>();
+    for (int i = 0; i < SIZE; i++) {
+      primitive.add(i * 0.5);
+      boxed.add(i * 0.5);
+    }
+    double expected = sum(boxed);
+    assertEquals(expected, sum(primitive));
+
+    Duration boxedDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, sum(boxed));
+    }
+    double boxedMillis = boxedDuration.elapsedMillis();
+
+    Duration primitiveDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, sum(primitive));
+    }
+    logTimes("DoubleArrayList.get", primitiveDuration.elapsedMillis() / ROUNDS,
+        boxedMillis / ROUNDS);
+  }
+
+  public void testIntIntHashMapLookup() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    Duration primitiveFill = new Duration();
+    IntIntHashMap primitive = new IntIntHashMap();
+    for (int i = 0; i < SIZE; i++) {
+      primitive.put(i * 7, i);
+    }
+    double primitiveFillMillis = primitiveFill.elapsedMillis();
+
+    Duration boxedFill = new Duration();
+    Map<Integer, Integer> boxed = new HashMap<Integer, Integer>();
+    for (int i = 0; i < SIZE; i++) {
+      boxed.put(i * 7, i);
+    }
+    logTimes("IntIntHashMap.put", primitiveFillMillis, boxedFill.elapsedMillis());
+
+    int expected = xorOfValues(boxed);
+    assertEquals(expected, xorOfValues(primitive));
+
+    Duration boxedDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, xorOfValues(boxed));
+    }
+    double boxedMillis = boxedDuration.elapsedMillis();
+
+    Duration primitiveDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, xorOfValues(primitive));
+    }
+    logTimes("IntIntHashMap.get", primitiveDuration.elapsedMillis() / ROUNDS,
+        boxedMillis / ROUNDS);
+  }
+
+  /**
+   * Only runs in browsers that expose {@code performance.memory}. A garbage collection between
+   * two readings shows up as a negative delta.
+   */
+  public void testMemory() {
+    if (!TypedArrays.isSupported() || usedHeapSize() < 0) {
+      return;
+    }
+    double before = usedHeapSize();
+    List<Integer> boxed = new ArrayList<Integer>();
+    for (int i = 0; i < SIZE; i++) {
+      boxed.add(i * 31);
+    }
+    double boxedBytes = usedHeapSize() - before;
+
+    before = usedHeapSize();
+    IntArrayList primitive = new IntArrayList();
+    for (int i = 0; i < SIZE; i++) {
+      primitive.add(i * 31);
+    }
+    double primitiveBytes = usedHeapSize() - before;
+
+    assertEquals(boxed.size(), primitive.size());
+    logger.info("IntArrayList, " + SIZE + " elements: primitive " + primitiveBytes
+        + " bytes, boxed " + boxedBytes + " bytes");
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * Test {@link BitVector} implementations.
+ */
+public class BitVectorTest extends GWTTestCase {
+
+  private static BitVector bits(int... indexes) {
+    BitVector bits = new BitVector(0);
+    for (int index : indexes) {
+      bits.set(index);
+    }
+    return bits;
+  }
+
+  public void testLogicalOperations() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    BitVector bits = bits(1, 2, 40, 100);
+    bits.and(bits(2, 40, 41));
+    assertEquals("{2, 40}", bits.toString());
+    bits.or(bits(3, 200));
+    assertEquals("{2, 3, 40, 200}", bits.toString());
+    bits.xor(bits(3, 4));
+    assertEquals("{2, 4, 40, 200}", bits.toString());
+    bits.andNot(bits(40, 200, 300));
+    assertEquals("{2, 4}", bits.toString());
+  }
+
+  public void testNextSetBit() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    BitVector bits = bits(0, 31, 32, 95);
+    assertEquals(0, bits.nextSetBit(0));
+    assertEquals(31, bits.nextSetBit(1));
+    assertEquals(32, bits.nextSetBit(32));
+    assertEquals(95, bits.nextSetBit(33));
+    assertEquals(-1, bits.nextSetBit(96));
+    assertEquals(-1, bits.nextSetBit(1000));
+  }
+
+  public void testSetGetClear() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    BitVector bits = new BitVector();
+    assertTrue(bits.isEmpty());
+    assertFalse(bits.get(1000));
+    bits.set(0);
+    bits.set(31);
+    bits.set(1000);
+    bits.set(5, true);
+    bits.flip(6);
+    assertTrue(bits.get(31));
+    assertTrue(bits.get(1000));
+    assertFalse(bits.get(32));
+    assertEquals(5, bits.cardinality());
+    assertEquals(1001, bits.length());
+    bits.clear(1000);
+    bits.set(6, false);
+    bits.flip(0);
+    assertEquals(32, bits.length());
+    assertEquals("{5, 31}", bits.toString());
+    bits.clear();
+    assertTrue(bits.isEmpty());
+    assertEquals(0, bits.length());
+  }
+
+  public void testNegativeIndex() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    try {
+      new BitVector().set(-1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  @Override
+  public String getModuleName() {
+    // returns null for a pure Java test
+    return null;
+  }
+}
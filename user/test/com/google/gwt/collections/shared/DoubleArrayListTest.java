@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * Test {@link DoubleArrayList} implementations.
+ */
+public class DoubleArrayListTest extends GWTTestCase {
+
+  public void testAddAndGet() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    DoubleArrayList list = new DoubleArrayList(1);
+    for (int i = 0; i < 100; i++) {
+      list.add(i / 4.0);
+    }
+    assertEquals(100, list.size());
+    assertEquals(24.75, list.get(99), 0);
+    assertEquals(10, list.indexOf(2.5));
+    assertFalse(list.contains(Double.NaN));
+  }
+
+  public void testInsertAndRemove() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    DoubleArrayList list = new DoubleArrayList(2);
+    list.addAll(new double[] {0.5, 2.5});
+    list.add(1, 1.5);
+    assertEquals("[0.5, 1.5, 2.5]", list.toString());
+    assertEquals(0.5, list.removeAt(0), 0);
+    assertEquals(2.5, list.set(1, Double.MAX_VALUE), 0);
+    assertEquals(Double.MAX_VALUE, list.toArray()[1], 0);
+  }
+
+  public void testSort() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    DoubleArrayList list = new DoubleArrayList();
+    list.addAll(new double[] {3.5, -1.25, 10.5, 0.5});
+    list.sort();
+    assertEquals("[-1.25, 0.5, 3.5, 10.5]", list.toString());
+  }
+
+  @Override
+  public String getModuleName() {
+    // returns null for a pure Java test
+    return null;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+import java.util.Arrays;
+
+/**
+ * Test {@link IntArrayList} implementations.
+ */
+public class IntArrayListTest extends GWTTestCase {
+
+  public void testAddAndGet() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntArrayList list = new IntArrayList(1);
+    assertTrue(list.isEmpty());
+    for (int i = 0; i < 100; i++) {
+      list.add(i * 3);
+    }
+    assertEquals(100, list.size());
+    assertEquals(0, list.get(0));
+    assertEquals(297, list.get(99));
+    assertEquals(33, list.indexOf(99));
+    assertFalse(list.contains(100));
+  }
+
+  public void testBounds() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntArrayList list = new IntArrayList();
+    list.add(1);
+    try {
+      list.get(1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      list.set(-1, 0);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      list.add(2, 0);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testExtremeValues() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntArrayList list = new IntArrayList();
+    list.add(Integer.MIN_VALUE);
+    list.add(Integer.MAX_VALUE);
+    assertEquals(Integer.MIN_VALUE, list.get(0));
+    assertEquals(Integer.MAX_VALUE, list.get(1));
+  }
+
+  public void testInsertAndRemove() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntArrayList list = new IntArrayList(2);
+    list.addAll(new int[] {1, 2, 4});
+    list.add(2, 3);
+    list.add(0, 0);
+    assertEquals("[0, 1, 2, 3, 4]", list.toString());
+    assertEquals(2, list.removeAt(2));
+    assertEquals(4, list.removeAt(3));
+    assertEquals("[0, 1, 3]", list.toString());
+    assertEquals(3, list.set(2, 5));
+    assertTrue(Arrays.equals(new int[] {0, 1, 5}, list.toArray()));
+    list.clear();
+    assertEquals(0, list.size());
+    assertEquals("[]", list.toString());
+  }
+
+  public void testSort() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntArrayList list = new IntArrayList(10);
+    list.addAll(new int[] {10, -3, 2, 100, 7});
+    list.sort();
+    assertEquals("[-3, 2, 7, 10, 100]", list.toString());
+  }
+
+  @Override
+  public String getModuleName() {
+    // returns null for a pure Java test
+    return null;
+  }
+}
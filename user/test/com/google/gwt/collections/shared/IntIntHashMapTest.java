@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.collections.shared;
+
+import com.google.gwt.junit.client.GWTTestCase;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test {@link IntIntHashMap} implementations.
+ */
+public class IntIntHashMapTest extends GWTTestCase {
+
+  public void testAddTo() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntIntHashMap map = new IntIntHashMap();
+    assertEquals(2, map.addTo(7, 2));
+    assertEquals(5, map.addTo(7, 3));
+    assertEquals(-1, map.addTo(0, -1));
+    assertEquals(2, map.size());
+  }
+
+  public void testAgainstHashMap() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntIntHashMap map = new IntIntHashMap();
+    Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+    int seed = 17;
+    for (int i = 0; i < 5000; i++) {
+      // Xorshift, which only uses operations that are exact in JavaScript.
+      seed ^= seed << 13;
+      seed ^= seed >>> 17;
+      seed ^= seed << 5;
+      int key = (seed >>> 16) % 512 - 256;
+      if (i % 3 == 0) {
+        assertEquals(expected.remove(key) != null, map.remove(key));
+      } else {
+        Integer previous = expected.put(key, i);
+        assertEquals(previous == null ? 0 : previous.intValue(), map.put(key, i));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (int key = -300; key < 300; key++) {
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+      int expectedValue = expected.containsKey(key) ? expected.get(key) : -1;
+      assertEquals(expectedValue, map.get(key, -1));
+    }
+  }
+
+  public void testGrowth() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntIntHashMap map = new IntIntHashMap();
+    for (int i = 0; i < 10000; i++) {
+      map.put(i * 16, i);
+    }
+    assertEquals(10000, map.size());
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(i, map.get(i * 16));
+    }
+    assertFalse(map.containsKey(8));
+  }
+
+  public void testKeysAndValues() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntIntHashMap map = new IntIntHashMap(4);
+    map.put(3, 30);
+    map.put(0, 0);
+    map.put(-5, -50);
+    int[] keys = map.keys();
+    int[] values = map.values();
+    assertEquals(3, keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(keys[i] * 10, values[i]);
+    }
+    Arrays.sort(keys);
+    assertTrue(Arrays.equals(new int[] {-5, 0, 3}, keys));
+  }
+
+  public void testPutGetRemove() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntIntHashMap map = new IntIntHashMap();
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.put(1, 10));
+    assertEquals(10, map.put(1, 11));
+    assertEquals(0, map.put(Integer.MIN_VALUE, 12));
+    assertEquals(11, map.get(1));
+    assertEquals(12, map.get(Integer.MIN_VALUE));
+    assertEquals(0, map.get(2));
+    assertEquals(-1, map.get(2, -1));
+    assertTrue(map.remove(1));
+    assertFalse(map.remove(1));
+    assertFalse(map.containsKey(1));
+    assertEquals(1, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(Integer.MIN_VALUE));
+  }
+
+  public void testZeroKey() {
+    if (!TypedArrays.isSupported()) {
+      return;
+    }
+    IntIntHashMap map = new IntIntHashMap();
+    assertFalse(map.containsKey(0));
+    assertEquals(7, map.get(0, 7));
+    map.put(0, 5);
+    assertTrue(map.containsKey(0));
+    assertEquals(5, map.get(0));
+    assertEquals("{0=5}", map.toString());
+    assertTrue(map.remove(0));
+    assertTrue(map.isEmpty());
+  }
+
+  @Override
+  public String getModuleName() {
+    // returns null for a pure Java test
+    return null;
+  }
+}
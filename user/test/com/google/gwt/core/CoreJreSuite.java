@@ -17,6 +17,7 @@ package com.google.gwt.core;
 
 import com.google.gwt.core.client.impl.AsyncFragmentLoaderTest;
 import com.google.gwt.core.client.testing.StubSchedulerTest;
+import com.google.gwt.core.server.StackTraceDeobfuscatorTest;
 import com.google.gwt.dev.StrictModeTest;
 import com.google.gwt.lang.RuntimePropertyRegistryTest;
 
@@ -31,6 +32,7 @@ public class CoreJreSuite {
     TestSuite suite = new TestSuite("All core tests");
     suite.addTestSuite(AsyncFragmentLoaderTest.class);
     suite.addTestSuite(RuntimePropertyRegistryTest.class);
+    suite.addTestSuite(StackTraceDeobfuscatorTest.class);
     suite.addTestSuite(StrictModeTest.class);
     suite.addTestSuite(StubSchedulerTest.class);
     return suite;
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.linker.ArtifactSet;
+import com.google.gwt.core.ext.linker.CompilationResult;
+import com.google.gwt.core.ext.linker.EmittedArtifact;
+import com.google.gwt.core.ext.linker.SelectionProperty;
+import com.google.gwt.core.ext.linker.SoftPermutation;
+import com.google.gwt.core.ext.linker.SymbolData;
+import com.google.gwt.core.ext.linker.impl.StandardSymbolData;
+import com.google.gwt.core.linker.SymbolMapsLinker;
+import com.google.gwt.dev.util.Util;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Tests {@link StackTraceDeobfuscator} with text symbol maps, symbol map indexes and bounded
+ * symbol caches.
+ */
+public class StackTraceDeobfuscatorTest extends TestCase {
+
+  /**
+   * Exposes the symbol map writers of {@link SymbolMapsLinker}.
+   */
+  private static class TestSymbolMapsLinker extends SymbolMapsLinker {
+    byte[] writeIndex(CompilationResult result) throws UnableToCompleteException, IOException {
+      ArtifactSet artifacts = new ArtifactSet();
+      doEmitSymbolMapIndex(TreeLogger.NULL, artifacts, result);
+      EmittedArtifact artifact = artifacts.find(EmittedArtifact.class).first();
+      assertEquals(STRONG_NAME + INDEX_STRONG_NAME_SUFFIX, artifact.getPartialPath());
+      return Util.readStreamAsBytes(artifact.getContents(TreeLogger.NULL));
+    }
+
+    void writeSymbolMap(CompilationResult result, PrintWriter pw)
+        throws UnableToCompleteException {
+      doWriteSymbolMap(TreeLogger.NULL, result, pw);
+    }
+  }
+
+  private static class TestCompilationResult extends CompilationResult {
+    private final SymbolData[] symbols;
+
+    TestCompilationResult(SymbolData... symbols) {
+      super(SymbolMapsLinker.class);
+      this.symbols = symbols;
+    }
+
+    @Override
+    public String[] getJavaScript() {
+      return new String[0];
+    }
+
+    @Override
+    public int getPermutationId() {
+      return 0;
+    }
+
+    @Override
+    public SortedSet<SortedMap<SelectionProperty, String>> getPropertyMap() {
+      return new TreeSet<SortedMap<SelectionProperty, String>>();
+    }
+
+    @Override
+    public SoftPermutation[] getSoftPermutations() {
+      return new SoftPermutation[0];
+    }
+
+    @Override
+    public String getStrongName() {
+      return STRONG_NAME;
+    }
+
+    @Override
+    public SymbolData[] getSymbolMap() {
+      return symbols;
+    }
+  }
+
+  private static final String OTHER_STRONG_NAME = "0123456789ABCDEF";
+
+  private static final String STRONG_NAME = "ABCDEF0123456789";
+
+  private static StandardSymbolData member(String symbolName, String className, String member,
+      int line) {
+    StandardSymbolData data = StandardSymbolData.forMember(className, member, "()V",
+        "file:/src/" + className.replace('.', '/') + ".java", line);
+    data.setSymbolName(symbolName);
+    data.setFragmentNumber(0);
+    return data;
+  }
+
+  private File symbolMapsDir;
+
+  private CompilationResult result;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    symbolMapsDir = File.createTempFile("symbolMaps", "");
+    assertTrue(symbolMapsDir.delete());
+    assertTrue(symbolMapsDir.mkdirs());
+    result = new TestCompilationResult(
+        member("a", "com.example.Foo", "run", 10),
+        member("bB", "com.example.Bar", "call", 20),
+        member("Zc", "com.example.Baz", "apply", 30));
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Util.recursiveDelete(symbolMapsDir, false);
+    super.tearDown();
+  }
+
+  public void testIndexLookups() throws Exception {
+    SymbolMapIndex index = SymbolMapIndex.read(
+        new ByteArrayInputStream(new TestSymbolMapsLinker().writeIndex(result)));
+    assertEquals(3, index.size());
+    assertEquals("com.example.Bar::call()V,com.example.Bar,call,file:/src/com/example/Bar.java,"
+        + "20,0", index.get("bB"));
+    assertNotNull(index.get("a"));
+    assertNotNull(index.get("Zc"));
+    assertNull(index.get("b"));
+    assertNull(index.get(""));
+    assertNull(index.get("zz"));
+  }
+
+  public void testIndexMatchesSymbolMap() throws Exception {
+    writeSymbolMap();
+    StackTraceDeobfuscator fromText = StackTraceDeobfuscator.fromFileSystem(
+        symbolMapsDir.getPath());
+    StackTraceElement[] expected = fromText.resymbolize(createTrace(), STRONG_NAME);
+    assertEquals("com.example.Bar", expected[1].getClassName());
+    assertEquals("call", expected[1].getMethodName());
+    assertEquals("Bar.java", expected[1].getFileName());
+
+    // Without the text symbol map, the index must be used.
+    writeIndex();
+    assertTrue(new File(symbolMapsDir, STRONG_NAME + SymbolMapsLinker.STRONG_NAME_SUFFIX)
+        .delete());
+    StackTraceDeobfuscator fromIndex = StackTraceDeobfuscator.fromFileSystem(
+        symbolMapsDir.getPath());
+    assertEquals(Arrays.asList(expected),
+        Arrays.asList(fromIndex.resymbolize(createTrace(), STRONG_NAME)));
+  }
+
+  public void testCorruptIndexFallsBackToSymbolMap() throws Exception {
+    writeSymbolMap();
+    FileOutputStream out = new FileOutputStream(
+        new File(symbolMapsDir, STRONG_NAME + SymbolMapIndex.FILE_SUFFIX));
+    out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+    out.close();
+
+    StackTraceDeobfuscator deobfuscator = StackTraceDeobfuscator.fromFileSystem(
+        symbolMapsDir.getPath());
+    StackTraceElement[] trace = deobfuscator.resymbolize(createTrace(), STRONG_NAME);
+    assertEquals("com.example.Foo", trace[0].getClassName());
+  }
+
+  public void testIndexOutOfBoundsOffsets() throws Exception {
+    byte[] bytes = new TestSymbolMapsLinker().writeIndex(result);
+    // Point the first entry past the end of the file.
+    ByteBuffer.wrap(bytes).putInt(12, bytes.length);
+    SymbolMapIndex index = SymbolMapIndex.read(new ByteArrayInputStream(bytes));
+    try {
+      index.get("Zc");
+      fail("Expected IOException");
+    } catch (IOException expected) {
+    }
+
+    // Make the first symbol longer than the file.
+    bytes = new TestSymbolMapsLinker().writeIndex(result);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    buffer.putInt(buffer.getInt(12), Integer.MAX_VALUE);
+    index = SymbolMapIndex.read(new ByteArrayInputStream(bytes));
+    try {
+      index.get("Zc");
+      fail("Expected IOException");
+    } catch (IOException expected) {
+    }
+  }
+
+  public void testIndexWithCorruptEntriesFallsBackToSymbolMap() throws Exception {
+    writeSymbolMap();
+    byte[] bytes = new TestSymbolMapsLinker().writeIndex(result);
+    // Every entry points past the end of the file.
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    for (int i = 0; i < 3; i++) {
+      buffer.putInt(12 + 4 * i, -1);
+    }
+    FileOutputStream out = new FileOutputStream(
+        new File(symbolMapsDir, STRONG_NAME + SymbolMapIndex.FILE_SUFFIX));
+    out.write(bytes);
+    out.close();
+
+    StackTraceDeobfuscator deobfuscator = StackTraceDeobfuscator.fromFileSystem(
+        symbolMapsDir.getPath());
+    StackTraceElement[] trace = deobfuscator.resymbolize(createTrace(), STRONG_NAME);
+    assertEquals("com.example.Foo", trace[0].getClassName());
+    assertEquals("com.example.Bar", trace[1].getClassName());
+  }
+
+  public void testMissingIndexIsLookedForAgain() throws Exception {
+    writeSymbolMap();
+    StackTraceDeobfuscator remembersMiss = StackTraceDeobfuscator.fromFileSystem(
+        symbolMapsDir.getPath());
+    StackTraceDeobfuscator retries = StackTraceDeobfuscator.fromFileSystem(
+        symbolMapsDir.getPath());
+    retries.setMissingIndexRetryMillis(0);
+    for (StackTraceDeobfuscator deobfuscator : Arrays.asList(remembersMiss, retries)) {
+      deobfuscator.setLazyLoad(true);
+      deobfuscator.resymbolize(createTrace(), STRONG_NAME);
+    }
+
+    // Redeploy with only an index, and look up a symbol that isn't cached.
+    writeIndex();
+    assertTrue(new File(symbolMapsDir, STRONG_NAME + SymbolMapsLinker.STRONG_NAME_SUFFIX)
+        .delete());
+    StackTraceElement[] trace = {
+        new StackTraceElement("Unknown", "Zc", "ABCDEF0123456789.cache.js", -1)};
+    assertEquals("Unknown", remembersMiss.resymbolize(trace, STRONG_NAME)[0].getClassName());
+    assertEquals("com.example.Baz", retries.resymbolize(trace, STRONG_NAME)[0].getClassName());
+  }
+
+  public void testSymbolMapIndexesAreBounded() throws Exception {
+    writeIndex();
+    Files.copy(new File(symbolMapsDir, STRONG_NAME + SymbolMapIndex.FILE_SUFFIX).toPath(),
+        new File(symbolMapsDir, OTHER_STRONG_NAME + SymbolMapIndex.FILE_SUFFIX).toPath());
+    final int[] opened = new int[1];
+    StackTraceDeobfuscator deobfuscator = new StackTraceDeobfuscator() {
+      @Override
+      protected InputStream openInputStream(String fileName) throws IOException {
+        return new FileInputStream(new File(symbolMapsDir, fileName));
+      }
+
+      @Override
+      protected SymbolMapIndex openSymbolMapIndex(String permutationStrongName)
+          throws IOException {
+        opened[0]++;
+        return super.openSymbolMapIndex(permutationStrongName);
+      }
+    };
+    deobfuscator.setSymbolCache(new LruSymbolCache(1));
+
+    // Each lookup is of a symbol that isn't cached, so it needs the index.
+    deobfuscator.resymbolize(createTrace("a"), STRONG_NAME);
+    deobfuscator.resymbolize(createTrace("a"), OTHER_STRONG_NAME);
+    assertEquals(2, opened[0]);
+    StackTraceElement[] trace = deobfuscator.resymbolize(createTrace("bB"), STRONG_NAME);
+    assertEquals("com.example.Bar", trace[0].getClassName());
+    assertEquals(3, opened[0]);
+
+    // With room for both, the indexes stay open.
+    deobfuscator.setMaxSymbolMapIndexes(2);
+    deobfuscator.resymbolize(createTrace("Zc"), OTHER_STRONG_NAME);
+    deobfuscator.resymbolize(createTrace("Zc"), STRONG_NAME);
+    assertEquals(4, opened[0]);
+  }
+
+  public void testLruSymbolCacheEvictsStrongNames() {
+    LruSymbolCache cache = new LruSymbolCache(2);
+    cache.putAll("one", Collections.singletonMap("a", "1"));
+    cache.putAll("two", Collections.singletonMap("a", "2"));
+    // Touch "one" so that "two" is the least recently used.
+    assertEquals("1", cache.getAll("one", Collections.singleton("a")).get("a"));
+    cache.putAll("three", Collections.singletonMap("a", "3"));
+
+    assertEquals(2, cache.size());
+    assertEquals("1", cache.getAll("one", Collections.singleton("a")).get("a"));
+    assertTrue(cache.getAll("two", Collections.singleton("a")).isEmpty());
+    assertEquals("3", cache.getAll("three", Collections.singleton("a")).get("a"));
+  }
+
+  public void testLruSymbolCacheBoundsSymbols() {
+    LruSymbolCache cache = new LruSymbolCache(1, 2);
+    Map<String, String> symbols = new HashMap<String, String>();
+    symbols.put("a", "1");
+    symbols.put("b", "2");
+    cache.putAll("one", symbols);
+    cache.putAll("one", Collections.singletonMap("c", "3"));
+
+    Map<String, String> cached =
+        cache.getAll("one", new HashSet<String>(Arrays.asList("a", "b", "c")));
+    assertEquals(Collections.singletonMap("c", "3"), cached);
+  }
+
+  public void testSymbolCacheIsUsed() throws Exception {
+    writeSymbolMap();
+    StackTraceDeobfuscator deobfuscator = StackTraceDeobfuscator.fromFileSystem(
+        symbolMapsDir.getPath());
+    LruSymbolCache cache = new LruSymbolCache(1);
+    deobfuscator.setSymbolCache(cache);
+    deobfuscator.setLazyLoad(true);
+    deobfuscator.resymbolize(createTrace(), STRONG_NAME);
+
+    Map<String, String> cached =
+        cache.getAll(STRONG_NAME, new HashSet<String>(Arrays.asList("a", "bB", "Zc")));
+    assertEquals(new HashSet<String>(Arrays.asList("a", "bB")), cached.keySet());
+  }
+
+  private StackTraceElement[] createTrace() {
+    return new StackTraceElement[] {
+        new StackTraceElement("Unknown", "a", "ABCDEF0123456789.cache.js", -1),
+        new StackTraceElement("Unknown", "bB", "ABCDEF0123456789.cache.js", -1)};
+  }
+
+  private StackTraceElement[] createTrace(String symbol) {
+    return new StackTraceElement[] {
+        new StackTraceElement("Unknown", symbol, "ABCDEF0123456789.cache.js", -1)};
+  }
+
+  private void writeIndex() throws Exception {
+    FileOutputStream out = new FileOutputStream(
+        new File(symbolMapsDir, STRONG_NAME + SymbolMapIndex.FILE_SUFFIX));
+    out.write(new TestSymbolMapsLinker().writeIndex(result));
+    out.close();
+  }
+
+  private void writeSymbolMap() throws Exception {
+    PrintWriter pw = new PrintWriter(
+        new File(symbolMapsDir, STRONG_NAME + SymbolMapsLinker.STRONG_NAME_SUFFIX));
+    new TestSymbolMapsLinker().writeSymbolMap(result, pw);
+    pw.close();
+  }
+}
@@ -121,6 +121,18 @@ public class Java8Test extends GWTTestCase {
   public void testDefaultInterfaceMethodMultiple() {
   }
 
+  public void testDefaultInterfaceMethodPolymorphicDispatch() {
+  }
+
   public void testDefaultMethodReference() {
   }
+
+  public void testDefaultInterfaceMethodDiamond() {
+  }
+
+  public void testInheritedMethodReference() {
+  }
+
+  public void testLambdaStoredInArray() {
+  }
 }
\ No newline at end of file
@@ -22,9 +22,12 @@ import com.google.gwt.emultest.java.util.ComparatorTest;
 import com.google.gwt.emultest.java.util.DateTest;
 import com.google.gwt.emultest.java.util.EnumMapTest;
 import com.google.gwt.emultest.java.util.EnumSetTest;
+import com.google.gwt.emultest.java.util.HashMapOpenAddressingTest;
 import com.google.gwt.emultest.java.util.HashMapSmokeTest;
 import com.google.gwt.emultest.java.util.HashMapTest;
+import com.google.gwt.emultest.java.util.HashSetOpenAddressingTest;
 import com.google.gwt.emultest.java.util.HashSetTest;
+import com.google.gwt.emultest.java.util.IdentityHashMapOpenAddressingTest;
 import com.google.gwt.emultest.java.util.IdentityHashMapTest;
 import com.google.gwt.emultest.java.util.LinkedHashMapTest;
 import com.google.gwt.emultest.java.util.LinkedHashSetTest;
@@ -34,6 +37,12 @@ import com.google.gwt.emultest.java.util.PriorityQueueTest;
 import com.google.gwt.emultest.java.util.RandomTest;
 import com.google.gwt.emultest.java.util.StackTest;
 import com.google.gwt.emultest.java.util.VectorTest;
+import com.google.gwt.emultest.java.util.concurrent.ConcurrentHashMapTest;
+import com.google.gwt.emultest.java.util.concurrent.CopyOnWriteArrayListTest;
+import com.google.gwt.emultest.java.util.concurrent.atomic.AtomicBooleanTest;
+import com.google.gwt.emultest.java.util.concurrent.atomic.AtomicIntegerTest;
+import com.google.gwt.emultest.java.util.concurrent.atomic.AtomicLongTest;
+import com.google.gwt.emultest.java.util.concurrent.atomic.AtomicReferenceTest;
 import com.google.gwt.junit.tools.GWTTestSuite;
 
 import junit.framework.Test;
@@ -54,9 +63,12 @@ public class CollectionsSuite {
     suite.addTestSuite(DateTest.class);
     suite.addTestSuite(EnumMapTest.class);
     suite.addTestSuite(EnumSetTest.class);
+    suite.addTestSuite(HashMapOpenAddressingTest.class);
     suite.addTestSuite(HashMapSmokeTest.class);
     suite.addTestSuite(HashMapTest.class);
+    suite.addTestSuite(HashSetOpenAddressingTest.class);
     suite.addTestSuite(HashSetTest.class);
+    suite.addTestSuite(IdentityHashMapOpenAddressingTest.class);
     suite.addTestSuite(IdentityHashMapTest.class);
     suite.addTestSuite(LinkedHashMapTest.class);
     suite.addTestSuite(LinkedHashSetTest.class);
@@ -68,6 +80,14 @@ public class CollectionsSuite {
     suite.addTestSuite(VectorTest.class);
     suite.addTest(TreeMapSuiteSub.suite());
     suite.addTest(TreeSetSuiteSub.suite());
+
+    //-- java.util.concurrent
+    suite.addTestSuite(AtomicBooleanTest.class);
+    suite.addTestSuite(AtomicIntegerTest.class);
+    suite.addTestSuite(AtomicLongTest.class);
+    suite.addTestSuite(AtomicReferenceTest.class);
+    suite.addTestSuite(ConcurrentHashMapTest.class);
+    suite.addTestSuite(CopyOnWriteArrayListTest.class);
     // $JUnit-END$
 
     return suite;
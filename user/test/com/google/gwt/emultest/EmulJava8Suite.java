@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest;
+
+import com.google.gwt.emultest.java8.util.OptionalTest;
+import com.google.gwt.emultest.java8.util.SpliteratorsTest;
+import com.google.gwt.emultest.java8.util.SummaryStatisticsTest;
+import com.google.gwt.emultest.java8.util.concurrent.AtomicUpdateTest;
+import com.google.gwt.emultest.java8.util.concurrent.ConcurrentHashMapTest;
+import com.google.gwt.emultest.java8.util.stream.CollectorsTest;
+import com.google.gwt.emultest.java8.util.stream.DoubleStreamTest;
+import com.google.gwt.emultest.java8.util.stream.LongStreamTest;
+import com.google.gwt.emultest.java8.util.stream.StreamTest;
+import com.google.gwt.junit.tools.GWTTestSuite;
+
+import junit.framework.Test;
+
+/**
+ * Test Java 8 JRE emulations.
+ */
+public class EmulJava8Suite {
+
+  public static Test suite() {
+    GWTTestSuite suite = new GWTTestSuite("Tests for com.google.gwt.emul.java8");
+
+    // $JUnit-BEGIN$
+    //-- java.util
+    suite.addTestSuite(OptionalTest.class);
+    suite.addTestSuite(SpliteratorsTest.class);
+    suite.addTestSuite(SummaryStatisticsTest.class);
+
+    //-- java.util.concurrent
+    suite.addTestSuite(AtomicUpdateTest.class);
+    suite.addTestSuite(ConcurrentHashMapTest.class);
+
+    //-- java.util.stream
+    suite.addTestSuite(CollectorsTest.class);
+    suite.addTestSuite(DoubleStreamTest.class);
+    suite.addTestSuite(LongStreamTest.class);
+    suite.addTestSuite(StreamTest.class);
+    // $JUnit-END$
+
+    return suite;
+  }
+}
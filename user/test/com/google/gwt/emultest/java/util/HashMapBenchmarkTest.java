@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java.util;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.junit.client.GWTTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Measures put, get and iteration on large maps whose keys are not Strings, which is where the
+ * hash code map implementations differ; see the {@code jre.hashCodeMap} property. The timings are
+ * logged so that runs with different implementations can be compared.
+ */
+public class HashMapBenchmarkTest extends GWTTestCase {
+
+  private static final Logger logger = Logger.getLogger(HashMapBenchmarkTest.class.getName());
+
+  /**
+   * A value object key with a hash code that is not the identity of the object.
+   */
+  private static final class Point {
+    private final int x;
+    private final int y;
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Point)) {
+        return false;
+      }
+      Point point = (Point) other;
+      return x == point.x && y == point.y;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * x + y;
+    }
+  }
+
+  private static final int SIZE = 100000;
+
+  private static final int LARGE_SIZE = 1000000;
+
+  private static final int ROUNDS = 5;
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.emultest.EmulSuite";
+  }
+
+  public void testIntegerKeys() {
+    Object[] keys = new Object[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      keys[i] = i * 7;
+    }
+    benchmark("Integer", keys, ROUNDS);
+  }
+
+  public void testLongKeys() {
+    Object[] keys = new Object[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      keys[i] = 1420070400000L + i * 1000L;
+    }
+    benchmark("Long", keys, ROUNDS);
+  }
+
+  public void testValueObjectKeys() {
+    Object[] keys = new Object[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      keys[i] = new Point(i % 1000, i / 1000);
+    }
+    benchmark("Point", keys, ROUNDS);
+  }
+
+  public void testLargeMap() {
+    Object[] keys = new Object[LARGE_SIZE];
+    for (int i = 0; i < LARGE_SIZE; i++) {
+      keys[i] = i;
+    }
+    benchmark("Integer, large", keys, 1);
+  }
+
+  /**
+   * Fills a map from the keys, each mapped to its index, then looks every key up and iterates
+   * over the entries, checking the results and logging the time each step took.
+   */
+  private void benchmark(String name, Object[] keys, int rounds) {
+    double putMillis = 0;
+    double getMillis = 0;
+    double iterateMillis = 0;
+    for (int round = 0; round < rounds; round++) {
+      Duration duration = new Duration();
+      Map<Object, Integer> map = new HashMap<Object, Integer>();
+      for (int i = 0; i < keys.length; i++) {
+        map.put(keys[i], i);
+      }
+      putMillis += duration.elapsedMillis();
+      assertEquals(keys.length, map.size());
+
+      duration = new Duration();
+      int xor = 0;
+      for (int i = 0; i < keys.length; i++) {
+        xor ^= map.get(keys[i]);
+      }
+      getMillis += duration.elapsedMillis();
+
+      duration = new Duration();
+      int entryXor = 0;
+      for (Map.Entry<Object, Integer> entry : map.entrySet()) {
+        entryXor ^= entry.getValue();
+      }
+      iterateMillis += duration.elapsedMillis();
+      assertEquals(xor, entryXor);
+    }
+    logger.info(getModuleName() + " " + name + " keys, " + keys.length + " entries: put "
+        + putMillis / rounds + "ms, get " + getMillis / rounds + "ms, iterate "
+        + iterateMillis / rounds + "ms");
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java.util.concurrent;
+
+import org.apache.commons.collections.TestMap;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tests <code>ConcurrentHashMap</code>.
+ */
+public class ConcurrentHashMapTest extends TestMap {
+
+  public void testEntrySetValueWritesThrough() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<String, Integer>();
+    map.put("a", 1);
+    Entry<String, Integer> entry = map.entrySet().iterator().next();
+    assertEquals(Integer.valueOf(1), entry.setValue(2));
+    assertEquals(Integer.valueOf(2), map.get("a"));
+  }
+
+  public void testModificationDuringIteration() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<String, Integer>();
+    map.put("a", 1);
+    map.put("b", 2);
+    map.put("c", 3);
+    int visited = 0;
+    for (String key : map.keySet()) {
+      visited++;
+      map.remove(key);
+      map.put(key + key, 0);
+    }
+    assertEquals(3, visited);
+    assertEquals(3, map.size());
+    assertFalse(map.containsKey("a"));
+    assertTrue(map.containsKey("aa"));
+  }
+
+  public void testNullsRejected() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<String, Integer>();
+    try {
+      map.put(null, 1);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      map.put("a", null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      map.get(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testPutIfAbsent() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<String, Integer>();
+    assertNull(map.putIfAbsent("a", 1));
+    assertEquals(Integer.valueOf(1), map.putIfAbsent("a", 2));
+    assertEquals(Integer.valueOf(1), map.get("a"));
+  }
+
+  public void testRemoveKeyValue() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<String, Integer>();
+    map.put("a", 1);
+    assertFalse(map.remove("a", 2));
+    assertFalse(map.remove("a", null));
+    assertTrue(map.remove("a", 1));
+    assertTrue(map.isEmpty());
+  }
+
+  public void testReplace() {
+    ConcurrentMap<String, Integer> map = new ConcurrentHashMap<String, Integer>();
+    assertNull(map.replace("a", 1));
+    assertFalse(map.containsKey("a"));
+    map.put("a", 1);
+    assertEquals(Integer.valueOf(1), map.replace("a", 2));
+    assertFalse(map.replace("a", 1, 3));
+    assertTrue(map.replace("a", 2, 3));
+    assertEquals(Integer.valueOf(3), map.get("a"));
+  }
+
+  /**
+   * Overridden because the inherited test stores null values.
+   */
+  @Override
+  public void testSpecialKeysValues() {
+    String[] keys = {"toString", "constructor", "__proto__", "", "null"};
+    ConcurrentMap<String, Object> map = new ConcurrentHashMap<String, Object>();
+    for (String key : keys) {
+      assertFalse(key, map.containsKey(key));
+      assertNull(key, map.get(key));
+      map.put(key, key + "Value");
+    }
+    assertEquals(keys.length, map.size());
+    for (String key : keys) {
+      assertEquals(key + "Value", map.remove(key));
+    }
+    assertTrue(map.isEmpty());
+  }
+
+  @Override
+  protected boolean isFailFastExpected() {
+    return false;
+  }
+
+  @SuppressWarnings("rawtypes")
+  @Override
+  protected Map makeEmptyMap() {
+    return new ConcurrentHashMap();
+  }
+
+  @Override
+  protected boolean useNullKey() {
+    return false;
+  }
+
+  @Override
+  protected boolean useNullValue() {
+    return false;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java.util.concurrent;
+
+import com.google.gwt.emultest.java.util.EmulTestBase;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests <code>CopyOnWriteArrayList</code>.
+ */
+public class CopyOnWriteArrayListTest extends EmulTestBase {
+
+  public void testAddIfAbsent() {
+    CopyOnWriteArrayList<String> list = new CopyOnWriteArrayList<String>();
+    assertTrue(list.addIfAbsent("a"));
+    assertFalse(list.addIfAbsent("a"));
+    assertEquals(2, list.addAllAbsent(Arrays.asList("a", "b", "c", "b")));
+    assertEquals(new Object[] {"a", "b", "c"}, list);
+  }
+
+  public void testBasicOperations() {
+    List<String> list = new CopyOnWriteArrayList<String>(new String[] {"a", "b", "c"});
+    list.add(1, "x");
+    assertEquals("b", list.set(2, "y"));
+    assertEquals("a", list.remove(0));
+    assertTrue(list.remove("c"));
+    assertEquals(new Object[] {"x", "y"}, list);
+    assertEquals(Arrays.asList("x", "y"), list);
+    assertEquals(Arrays.asList("x", "y").hashCode(), list.hashCode());
+    assertEquals("[x, y]", list.toString());
+    list.clear();
+    assertTrue(list.isEmpty());
+  }
+
+  public void testClone() {
+    CopyOnWriteArrayList<String> list = new CopyOnWriteArrayList<String>(Arrays.asList("a"));
+    @SuppressWarnings("unchecked")
+    List<String> clone = (List<String>) list.clone();
+    list.add("b");
+    clone.add("c");
+    assertEquals(new Object[] {"a", "b"}, list);
+    assertEquals(new Object[] {"a", "c"}, clone);
+  }
+
+  public void testIndexOfFrom() {
+    CopyOnWriteArrayList<String> list =
+        new CopyOnWriteArrayList<String>(Arrays.asList("a", "b", "a", "b"));
+    assertEquals(2, list.indexOf("a", 1));
+    assertEquals(-1, list.indexOf("a", 3));
+    assertEquals(1, list.lastIndexOf("b", 2));
+    assertEquals(-1, list.lastIndexOf("b", 0));
+  }
+
+  public void testIteratorIsReadOnly() {
+    List<String> list = new CopyOnWriteArrayList<String>(Arrays.asList("a"));
+    ListIterator<String> it = list.listIterator();
+    it.next();
+    try {
+      it.remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      it.set("b");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      it.add("b");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  public void testIteratorIsSnapshot() {
+    List<String> list = new CopyOnWriteArrayList<String>(Arrays.asList("a", "b"));
+    Iterator<String> it = list.iterator();
+    list.add("c");
+    list.remove("a");
+    list.set(0, "x");
+    assertEquals("a", it.next());
+    assertEquals("b", it.next());
+    assertFalse(it.hasNext());
+    assertEquals(new Object[] {"x", "c"}, list);
+  }
+
+  public void testModificationDuringIteration() {
+    List<String> list = new CopyOnWriteArrayList<String>(Arrays.asList("a", "b", "c"));
+    int visited = 0;
+    for (String s : list) {
+      visited++;
+      list.remove(s);
+      list.add(s + s);
+    }
+    assertEquals(3, visited);
+    assertEquals(new Object[] {"aa", "bb", "cc"}, list);
+  }
+
+  public void testSubList() {
+    List<String> list = new CopyOnWriteArrayList<String>(Arrays.asList("a", "b", "c", "d"));
+    list.subList(1, 3).clear();
+    assertEquals(new Object[] {"a", "d"}, list);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java.util.concurrent.atomic;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests <code>AtomicBoolean</code>.
+ */
+public class AtomicBooleanTest extends GWTTestCase {
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.emultest.EmulSuite";
+  }
+
+  public void testCompareAndSet() {
+    AtomicBoolean value = new AtomicBoolean();
+    assertFalse(value.compareAndSet(true, false));
+    assertFalse(value.get());
+    assertTrue(value.compareAndSet(false, true));
+    assertTrue(value.get());
+    assertFalse(value.weakCompareAndSet(false, false));
+    assertTrue(value.weakCompareAndSet(true, false));
+    assertFalse(value.get());
+  }
+
+  public void testGetAndSet() {
+    AtomicBoolean value = new AtomicBoolean(true);
+    assertTrue(value.get());
+    assertTrue(value.getAndSet(false));
+    assertFalse(value.getAndSet(false));
+    value.set(true);
+    assertTrue(value.get());
+    value.lazySet(false);
+    assertFalse(value.get());
+    assertEquals("false", value.toString());
+  }
+}
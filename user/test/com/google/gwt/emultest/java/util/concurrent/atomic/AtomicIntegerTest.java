@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java.util.concurrent.atomic;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests <code>AtomicInteger</code>.
+ */
+public class AtomicIntegerTest extends GWTTestCase {
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.emultest.EmulSuite";
+  }
+
+  public void testArithmetic() {
+    AtomicInteger value = new AtomicInteger(5);
+    assertEquals(5, value.getAndIncrement());
+    assertEquals(7, value.incrementAndGet());
+    assertEquals(7, value.getAndDecrement());
+    assertEquals(5, value.decrementAndGet());
+    assertEquals(5, value.getAndAdd(10));
+    assertEquals(12, value.addAndGet(-3));
+    assertEquals(12, value.get());
+  }
+
+  public void testCompareAndSet() {
+    AtomicInteger value = new AtomicInteger();
+    assertFalse(value.compareAndSet(1, 2));
+    assertTrue(value.compareAndSet(0, 2));
+    assertEquals(2, value.getAndSet(3));
+    value.lazySet(4);
+    assertTrue(value.weakCompareAndSet(4, 5));
+    assertEquals(5, value.get());
+  }
+
+  public void testNumber() {
+    AtomicInteger value = new AtomicInteger(-3);
+    assertEquals(-3, value.intValue());
+    assertEquals(-3L, value.longValue());
+    assertEquals(-3.0, value.doubleValue());
+    assertEquals("-3", value.toString());
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java.util.concurrent.atomic;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests <code>AtomicLong</code>.
+ */
+public class AtomicLongTest extends GWTTestCase {
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.emultest.EmulSuite";
+  }
+
+  public void testArithmetic() {
+    AtomicLong value = new AtomicLong(Long.MAX_VALUE - 1);
+    assertEquals(Long.MAX_VALUE - 1, value.getAndIncrement());
+    assertEquals(Long.MIN_VALUE, value.incrementAndGet());
+    assertEquals(Long.MAX_VALUE, value.decrementAndGet());
+    assertEquals(Long.MAX_VALUE, value.getAndAdd(-10));
+    assertEquals(Long.MAX_VALUE - 5, value.addAndGet(5));
+  }
+
+  public void testCompareAndSet() {
+    AtomicLong value = new AtomicLong();
+    assertFalse(value.compareAndSet(1L, 2L));
+    assertTrue(value.compareAndSet(0L, 1L << 40));
+    assertEquals(1L << 40, value.getAndSet(3L));
+    assertEquals(3L, value.get());
+    assertEquals("3", value.toString());
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java.util.concurrent.atomic;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests <code>AtomicReference</code> and <code>AtomicBoolean</code>.
+ */
+public class AtomicReferenceTest extends GWTTestCase {
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.emultest.EmulSuite";
+  }
+
+  public void testAtomicBoolean() {
+    AtomicBoolean value = new AtomicBoolean();
+    assertFalse(value.get());
+    assertFalse(value.compareAndSet(true, false));
+    assertTrue(value.compareAndSet(false, true));
+    assertTrue(value.getAndSet(false));
+    assertEquals("false", value.toString());
+  }
+
+  public void testCompareAndSetUsesIdentity() {
+    List<String> initial = new ArrayList<String>();
+    AtomicReference<List<String>> value = new AtomicReference<List<String>>(initial);
+    assertFalse(value.compareAndSet(new ArrayList<String>(), null));
+    assertTrue(value.compareAndSet(initial, null));
+    assertNull(value.getAndSet(initial));
+    assertSame(initial, value.get());
+    assertEquals("[]", value.toString());
+  }
+
+  public void testNullByDefault() {
+    AtomicReference<Object> value = new AtomicReference<Object>();
+    assertNull(value.get());
+    assertEquals("null", value.toString());
+    assertTrue(value.compareAndSet(null, "a"));
+  }
+}
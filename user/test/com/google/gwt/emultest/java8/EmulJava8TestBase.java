@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8;
+
+import com.google.gwt.dev.util.arg.SourceLevel;
+import com.google.gwt.junit.DoNotRunWith;
+import com.google.gwt.junit.JUnitShell;
+import com.google.gwt.junit.Platform;
+import com.google.gwt.junit.client.GWTTestCase;
+
+/**
+ * Dummy base class for Java 8 emulation tests. The tests are super sourced so that GWT can be
+ * compiled by Java 7, and only run if -sourceLevel 8 (or greater) is enabled.
+ *
+ * NOTE: Subclasses must have the same test methods as their supersourced variants.
+ */
+@DoNotRunWith(Platform.Devel)
+public abstract class EmulJava8TestBase extends GWTTestCase {
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.emultest.EmulJava8Suite";
+  }
+
+  @Override
+  public void runTest() throws Throwable {
+    if (JUnitShell.getCompilerOptions().getSourceLevel()
+        .compareTo(SourceLevel.JAVA8) >= 0 && System.getProperty("java.version").startsWith("1.8")) {
+      super.runTest();
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.emultest.java8.util.concurrent;
+
+import com.google.gwt.emultest.java8.EmulJava8TestBase;
+
+/**
+ * Dummy test case. AtomicUpdateTest is super sourced so that GWT can be compiled by Java 7.
+ *
+ * NOTE: Make sure this class has the same test methods of its supersourced variant.
+ */
+public class AtomicUpdateTest extends EmulJava8TestBase {
+
+  public void testAtomicInteger() {
+  }
+
+  public void testAtomicLong() {
+  }
+
+  public void testAtomicReference() {
+  }
+}
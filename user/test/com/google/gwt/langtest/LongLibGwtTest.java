@@ -74,6 +74,10 @@ public class LongLibGwtTest extends GWTTestCase {
     impl.testNegate();
   }
 
+  public void testSafeOperations() {
+    impl.testSafeOperations();
+  }
+
   public void testShift() {
     impl.testShift();
   }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.langtest;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.SafeLong;
+import com.google.gwt.junit.client.GWTTestCase;
+
+import java.util.logging.Logger;
+
+/**
+ * Times timestamp arithmetic in methods annotated with {@link SafeLong} against the same
+ * arithmetic on emulated longs and logs both. The results must agree whether or not the module is
+ * compiled with {@code -XsafeLongs}; the timings only differ when it is.
+ */
+public class SafeLongBenchmarkTest extends GWTTestCase {
+
+  private static final Logger logger = Logger.getLogger(SafeLongBenchmarkTest.class.getName());
+
+  private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+  private static final long HOUR_MILLIS = 60L * 60 * 1000;
+
+  /**
+   * 2015-01-01T00:00:00Z.
+   */
+  private static final long START_MILLIS = 1420070400000L;
+
+  private static final int SIZE = 20000;
+
+  private static final int ROUNDS = 10;
+
+  /**
+   * Returns whether {@code long} arithmetic in {@link SafeLong} methods was compiled to
+   * JavaScript numbers, which is only observable by the missing wrap around at 64 bits.
+   */
+  @SafeLong
+  private static boolean isRewritten() {
+    long max = Long.MAX_VALUE;
+    return max + 1 > 0;
+  }
+
+  private static long[] timestamps() {
+    long[] timestamps = new long[SIZE];
+    long time = START_MILLIS;
+    for (int i = 0; i < SIZE; i++) {
+      time += (i * 7919) % 100000;
+      timestamps[i] = time;
+    }
+    return timestamps;
+  }
+
+  private static long checksum(long[] timestamps) {
+    long checksum = 0;
+    for (int i = 1; i < timestamps.length; i++) {
+      long elapsed = timestamps[i] - timestamps[i - 1];
+      long day = (timestamps[i] - START_MILLIS) / DAY_MILLIS;
+      long hour = timestamps[i] % DAY_MILLIS / HOUR_MILLIS;
+      checksum += elapsed * 3 + day * 24 + hour;
+    }
+    return checksum;
+  }
+
+  @SafeLong
+  private static long safeChecksum(long[] timestamps) {
+    long checksum = 0;
+    for (int i = 1; i < timestamps.length; i++) {
+      long elapsed = timestamps[i] - timestamps[i - 1];
+      long day = (timestamps[i] - START_MILLIS) / DAY_MILLIS;
+      long hour = timestamps[i] % DAY_MILLIS / HOUR_MILLIS;
+      checksum += elapsed * 3 + day * 24 + hour;
+    }
+    return checksum;
+  }
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.langtest.LongLibGwtTest";
+  }
+
+  public void testChecksum() {
+    long[] timestamps = timestamps();
+    long expected = checksum(timestamps);
+    assertEquals(expected, safeChecksum(timestamps));
+
+    Duration emulatedDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, checksum(timestamps));
+    }
+    double emulatedMillis = emulatedDuration.elapsedMillis();
+
+    Duration safeDuration = new Duration();
+    for (int i = 0; i < ROUNDS; i++) {
+      assertEquals(expected, safeChecksum(timestamps));
+    }
+    double safeMillis = safeDuration.elapsedMillis();
+
+    logger.info("checksum, " + SIZE + " timestamps, rewritten " + isRewritten() + ": safe "
+        + safeMillis / ROUNDS + "ms, emulated " + emulatedMillis / ROUNDS + "ms");
+  }
+}
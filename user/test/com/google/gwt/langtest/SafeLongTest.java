@@ -0,0 +1,381 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.langtest;
+
+import com.google.gwt.core.client.SafeLong;
+import com.google.gwt.junit.client.GWTTestCase;
+
+/**
+ * Tests long arithmetic in methods annotated with {@link SafeLong}. The expected values were
+ * computed with normal Java longs, so the results must agree whether or not the module is compiled
+ * with {@code -XsafeLongs}. The values stay within 2^53 as the annotation requires.
+ */
+public class SafeLongTest extends GWTTestCase {
+
+  private static final long DAY_MILLIS = 86400000L;
+
+  private static final long HOUR_MILLIS = 3600000L;
+
+  /**
+   * 2015-01-01T00:00:00Z.
+   */
+  private static final long START_MILLIS = 1420070400000L;
+
+  private static final long MAX_SAFE = 9007199254740991L;
+
+  private static long lastMillis;
+
+  @SafeLong
+  private static long add(long a, long b) {
+    return a + b;
+  }
+
+  @SafeLong
+  private static long and(long a, long b) {
+    return a & b;
+  }
+
+  @SafeLong
+  private static long div(long a, long b) {
+    return a / b;
+  }
+
+  @SafeLong
+  private static long fromDouble(double value) {
+    return (long) value;
+  }
+
+  @SafeLong
+  private static long fromFloat(float value) {
+    return (long) value;
+  }
+
+  @SafeLong
+  private static boolean lessThan(long a, long b) {
+    return a < b;
+  }
+
+  @SafeLong
+  private static long mod(long a, long b) {
+    return a % b;
+  }
+
+  @SafeLong
+  private static long mul(long a, long b) {
+    return a * b;
+  }
+
+  @SafeLong
+  private static long neg(long a) {
+    return -a;
+  }
+
+  @SafeLong
+  private static long not(long a) {
+    return ~a;
+  }
+
+  @SafeLong
+  private static long or(long a, long b) {
+    return a | b;
+  }
+
+  @SafeLong
+  private static long shl(long a, int n) {
+    return a << n;
+  }
+
+  @SafeLong
+  private static long shr(long a, int n) {
+    return a >> n;
+  }
+
+  @SafeLong
+  private static long sub(long a, long b) {
+    return a - b;
+  }
+
+  @SafeLong
+  private static byte toByte(long a) {
+    return (byte) a;
+  }
+
+  @SafeLong
+  private static char toChar(long a) {
+    return (char) a;
+  }
+
+  @SafeLong
+  private static double toDouble(long a) {
+    return a;
+  }
+
+  @SafeLong
+  private static float toFloat(long a) {
+    return a;
+  }
+
+  @SafeLong
+  private static int toInt(long a) {
+    return (int) a;
+  }
+
+  @SafeLong
+  private static short toShort(long a) {
+    return (short) a;
+  }
+
+  @SafeLong
+  private static long ushr(long a, int n) {
+    return a >>> n;
+  }
+
+  @SafeLong
+  private static long xor(long a, long b) {
+    return a ^ b;
+  }
+
+  @SafeLong
+  private static long[] compoundAssignments(long start) {
+    long[] results = new long[11];
+    long a = start;
+    a += DAY_MILLIS;
+    results[0] = a;
+    a -= start;
+    results[1] = a;
+    a *= 1000;
+    results[2] = a;
+    a /= 7;
+    results[3] = a;
+    a %= 1000000;
+    results[4] = a;
+    a <<= 20;
+    results[5] = a;
+    a >>= 3;
+    results[6] = a;
+    a >>>= 1;
+    results[7] = a;
+    a &= 0xFFFFFFFFL;
+    results[8] = a;
+    a |= 1L << 40;
+    results[9] = a;
+    a ^= 0xFFL;
+    results[10] = a;
+    return results;
+  }
+
+  @SafeLong
+  private static long[] floatingCompoundAssignments(long start) {
+    long[] results = new long[5];
+    long a = start;
+    a += 2.7;
+    results[0] = a;
+    a *= 1.5f;
+    results[1] = a;
+    a -= 0.5;
+    results[2] = a;
+    a /= 0.5;
+    results[3] = a;
+    a = -start;
+    a += 0.5;
+    results[4] = a;
+    return results;
+  }
+
+  @SafeLong
+  private static int countDays(long start, long end) {
+    int days = 0;
+    for (long day = start - start % DAY_MILLIS; day < end; day += DAY_MILLIS) {
+      days++;
+    }
+    return days;
+  }
+
+  @SafeLong
+  private static long[] increments(long start) {
+    long a = start;
+    long postIncrement = a++;
+    long preIncrement = ++a;
+    long postDecrement = a--;
+    long preDecrement = --a;
+    return new long[] {postIncrement, preIncrement, postDecrement, preDecrement, a};
+  }
+
+  @SafeLong
+  private static int intCompoundAssignments(int days) {
+    long a = START_MILLIS;
+    int i = days;
+    a += i;
+    a -= DAY_MILLIS;
+    i += a;
+    return i;
+  }
+
+  @SafeLong
+  private static long storeAndLoad(long millis) {
+    lastMillis = millis + 1;
+    long[] array = {lastMillis, millis * 2};
+    return array[0] + array[1] + add(millis, 1);
+  }
+
+  @Override
+  public String getModuleName() {
+    return "com.google.gwt.langtest.LongLibGwtTest";
+  }
+
+  public void testAdditive() {
+    assertEquals(1420156800000L, add(START_MILLIS, DAY_MILLIS));
+    assertEquals(1419984000000L, sub(START_MILLIS, DAY_MILLIS));
+    assertEquals(4294967296L, add(2147483647L, 2147483649L));
+    assertEquals(-4294967296L, sub(-2147483648L, 2147483648L));
+    assertEquals(MAX_SAFE, add(MAX_SAFE - 1, 1));
+    assertEquals(-MAX_SAFE, sub(-4503599627370496L, 4503599627370495L));
+    assertEquals(0, add(MAX_SAFE, -MAX_SAFE));
+    assertEquals(-START_MILLIS, neg(START_MILLIS));
+    assertEquals(MAX_SAFE, neg(-MAX_SAFE));
+  }
+
+  public void testBitOps() {
+    assertEquals(13283328, and(START_MILLIS, 0xFFFFFF));
+    assertEquals(1099511627783L, or(1L << 40, 7));
+    assertEquals(-1420070400001L, xor(START_MILLIS, -1L));
+    assertEquals(-1420070400001L, not(START_MILLIS));
+    assertEquals(START_MILLIS, not(not(START_MILLIS)));
+  }
+
+  public void testComparisons() {
+    assertTrue(lessThan(START_MILLIS, START_MILLIS + 1));
+    assertFalse(lessThan(START_MILLIS, START_MILLIS));
+    assertTrue(lessThan(-START_MILLIS, 2147483647L));
+    assertTrue(lessThan(-MAX_SAFE, MAX_SAFE));
+    assertFalse(lessThan(4294967296L, 4294967295L));
+  }
+
+  public void testCompoundAssignment() {
+    long[] results = compoundAssignments(START_MILLIS);
+    assertEquals(1420156800000L, results[0]);
+    assertEquals(86400000L, results[1]);
+    assertEquals(86400000000L, results[2]);
+    assertEquals(12342857142L, results[3]);
+    assertEquals(857142L, results[4]);
+    assertEquals(898778529792L, results[5]);
+    assertEquals(112347316224L, results[6]);
+    assertEquals(56173658112L, results[7]);
+    assertEquals(339083264L, results[8]);
+    assertEquals(1099850711040L, results[9]);
+    assertEquals(1099850711295L, results[10]);
+  }
+
+  public void testCompoundAssignmentInt() {
+    // The int is widened for the long operations and the sum is narrowed by wrapping.
+    assertEquals((int) (START_MILLIS + 2 * 3 - DAY_MILLIS), intCompoundAssignments(3));
+  }
+
+  public void testCompoundAssignmentFloating() {
+    // The result of a compound assignment to a long is truncated towards zero.
+    long[] results = floatingCompoundAssignments(5);
+    assertEquals(7, results[0]);
+    assertEquals(10, results[1]);
+    assertEquals(9, results[2]);
+    assertEquals(18, results[3]);
+    assertEquals(-4, results[4]);
+  }
+
+  public void testCountDays() {
+    long end = START_MILLIS + 1000 * DAY_MILLIS + HOUR_MILLIS;
+    assertEquals(1001, countDays(START_MILLIS, end));
+    assertEquals(1001, countDays(-START_MILLIS, -START_MILLIS + 1000 * DAY_MILLIS + 1));
+    assertEquals(16436, countDays(-START_MILLIS - 1, 0));
+  }
+
+  public void testDiv() {
+    assertEquals(16436, div(START_MILLIS, DAY_MILLIS));
+    assertEquals(-16436, div(-START_MILLIS - 12345, DAY_MILLIS));
+    assertEquals(-16436, div(START_MILLIS, -DAY_MILLIS));
+    assertEquals(9007172233L, div(MAX_SAFE, 1000003));
+    assertEquals(-9007172233L, div(-MAX_SAFE, 1000003));
+    assertEquals(0, div(-7, 8));
+    try {
+      // Uses the result, so that the call is not removed as side effect free.
+      long result = div(START_MILLIS, 0);
+      fail("Division by zero should throw, got " + result);
+    } catch (ArithmeticException expected) {
+    }
+  }
+
+  public void testIncrements() {
+    long[] results = increments(START_MILLIS);
+    assertEquals(START_MILLIS, results[0]);
+    assertEquals(START_MILLIS + 2, results[1]);
+    assertEquals(START_MILLIS + 2, results[2]);
+    assertEquals(START_MILLIS, results[3]);
+    assertEquals(START_MILLIS, results[4]);
+  }
+
+  public void testMod() {
+    assertEquals(0, mod(START_MILLIS, DAY_MILLIS));
+    assertEquals(-12345, mod(-START_MILLIS - 12345, DAY_MILLIS));
+    assertEquals(12345, mod(START_MILLIS + 12345, -DAY_MILLIS));
+    assertEquals(224292, mod(MAX_SAFE, 1000003));
+    assertEquals(-224292, mod(-MAX_SAFE, 1000003));
+    try {
+      // Uses the result, so that the call is not removed as side effect free.
+      long result = mod(START_MILLIS, 0);
+      fail("Remainder by zero should throw, got " + result);
+    } catch (ArithmeticException expected) {
+    }
+  }
+
+  public void testMultiplicative() {
+    assertEquals(4260211200000L, mul(START_MILLIS, 3));
+    assertEquals(-4260211200000L, mul(START_MILLIS, -3));
+    assertEquals(9007199136250225L, mul(94906265L, 94906265L));
+    assertEquals(0, mul(MAX_SAFE, 0));
+  }
+
+  public void testNarrowing() {
+    assertEquals(1, toInt(4294967297L));
+    assertEquals(2147483647, toInt(-2147483649L));
+    assertEquals(-1563774976, toInt(START_MILLIS));
+    assertEquals(-20480, toShort(START_MILLIS));
+    assertEquals(-1, toByte(-START_MILLIS - 1));
+    assertEquals(45055, toChar(START_MILLIS + 65535));
+    assertEquals(1.42007040001E12, toDouble(START_MILLIS + 10));
+    assertEquals(1.09951163E12f, toFloat(1L << 40));
+
+    assertEquals(2, fromDouble(2.9));
+    assertEquals(-2, fromDouble(-2.9));
+    assertEquals(0, fromDouble(Double.NaN));
+    assertEquals(START_MILLIS + 9, fromDouble(1.42007040000999E12));
+    assertEquals(999999986991104L, fromFloat(1.0e15f));
+    assertEquals(-999999986991104L, fromFloat(-1.0e15f));
+  }
+
+  public void testShift() {
+    assertEquals(1L << 40, shl(1, 40));
+    assertEquals(898778529792L, shl(857142, 20));
+    assertEquals(-1386787500, shr(-START_MILLIS, 10));
+    assertEquals(17592184690131L, ushr(-START_MILLIS, 20));
+    assertEquals(4503599627370495L, ushr(-1, 12));
+    // Only the low six bits of the distance are used.
+    assertEquals(2, shl(1, 65));
+  }
+
+  public void testStoreAndLoad() {
+    assertEquals(4 * START_MILLIS + 2, storeAndLoad(START_MILLIS));
+    assertEquals(START_MILLIS + 1, lastMillis);
+  }
+}
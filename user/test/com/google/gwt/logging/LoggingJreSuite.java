@@ -15,6 +15,9 @@
  */
 package com.google.gwt.logging;
 
+import com.google.gwt.logging.server.RemoteLoggingServiceImplTest;
+import com.google.gwt.logging.server.RemoteLoggingServiceUtilTest;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -26,6 +29,8 @@ public class LoggingJreSuite {
   public static Test suite() {
     TestSuite suite = new TestSuite("Non-browser tests for com.google.gwt.logging");
     suite.addTestSuite(LogConfigurationJreTest.class);
+    suite.addTestSuite(RemoteLoggingServiceImplTest.class);
+    suite.addTestSuite(RemoteLoggingServiceUtilTest.class);
     return suite;
   }
 }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.logging.server;
+
+import com.google.gwt.user.client.rpc.RpcRequestBuilder;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Tests posting batches of JSON log records to {@link RemoteLoggingServiceImpl}.
+ */
+public class RemoteLoggingServiceImplTest extends TestCase {
+
+  private static final String LOGGER_NAME = RemoteLoggingServiceImplTest.class.getName();
+
+  private static final String STRONG_NAME = "0123456789ABCDEF0123456789ABCDEF";
+
+  /**
+   * Records the status, headers and body written to a response.
+   */
+  private static class ResponseRecorder implements InvocationHandler {
+    final Map<String, Object> calls = new HashMap<String, Object>();
+    final StringWriter body = new StringWriter();
+    final PrintWriter writer = new PrintWriter(body);
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (method.getName().equals("getWriter")) {
+        return writer;
+      }
+      calls.put(method.getName(), args == null ? null : args[0]);
+      return null;
+    }
+  }
+
+  private static HttpServletRequest post(final String contentType, final String strongName,
+      String body) throws IOException {
+    final ByteArrayInputStream in = new ByteArrayInputStream(body.getBytes("UTF-8"));
+    final ServletInputStream servletIn = new ServletInputStream() {
+      @Override
+      public int read() {
+        return in.read();
+      }
+    };
+    return (HttpServletRequest) Proxy.newProxyInstance(
+        RemoteLoggingServiceImplTest.class.getClassLoader(),
+        new Class<?>[] {HttpServletRequest.class}, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            String name = method.getName();
+            if (name.equals("getMethod")) {
+              return "POST";
+            } else if (name.equals("getContentType")) {
+              return contentType;
+            } else if (name.equals("getInputStream")) {
+              return servletIn;
+            } else if (name.equals("getHeader")
+                && RpcRequestBuilder.STRONG_NAME_HEADER.equals(args[0])) {
+              return strongName;
+            }
+            return null;
+          }
+        });
+  }
+
+  private static String json(String msg) {
+    return "{\"level\":\"INFO\",\"loggerName\":\"client\",\"msg\":\"" + msg + "\","
+        + "\"timestamp\":\"1\",\"thrown\":{}}";
+  }
+
+  private final List<LogRecord> logged = Collections.synchronizedList(new ArrayList<LogRecord>());
+
+  private final Handler handler = new Handler() {
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+      logged.add(record);
+    }
+  };
+
+  private final RemoteLoggingServiceImpl service = new RemoteLoggingServiceImpl();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    Logger logger = Logger.getLogger(LOGGER_NAME);
+    logger.setUseParentHandlers(false);
+    logger.addHandler(handler);
+    service.setLoggerNameOverride(LOGGER_NAME);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Logger.getLogger(LOGGER_NAME).removeHandler(handler);
+    super.tearDown();
+  }
+
+  public void testPostJsonBatch() throws Exception {
+    String batch = "[" + json("first") + "," + json("second") + ",\"not a record\"]";
+    ResponseRecorder response = new ResponseRecorder();
+    service.service(post("application/json", STRONG_NAME, batch), response(response));
+    assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.calls.get("sendError"));
+    assertTrue(logged.isEmpty());
+
+    batch = "[" + json("first") + ","
+        + "{\"strongName\":\"" + STRONG_NAME + "\"," + json("second").substring(1)
+        + ",{\"msg\":\"bad\"}]";
+    response = new ResponseRecorder();
+    service.service(post("application/json; charset=utf-8", STRONG_NAME, batch),
+        response(response));
+    response.writer.flush();
+
+    assertEquals(HttpServletResponse.SC_OK, response.calls.get("setStatus"));
+    assertEquals("application/json", response.calls.get("setContentType"));
+    assertEquals("{\"logged\":2,\"failed\":1}", response.body.toString());
+    assertEquals(2, logged.size());
+    assertEquals(3, service.getBatchRecordCount());
+    List<String> messages = new ArrayList<String>();
+    for (LogRecord lr : logged) {
+      messages.add(lr.getMessage());
+    }
+    Collections.sort(messages);
+    assertEquals("[first, second]", messages.toString());
+  }
+
+  public void testPostJsonBatchRequiresStrongNameHeader() throws Exception {
+    String batch = "[" + json("first") + "]";
+    for (String strongName : new String[] {null, "", "../../WEB-INF/web.xml",
+        STRONG_NAME.toLowerCase(Locale.ROOT), STRONG_NAME + "0"}) {
+      ResponseRecorder response = new ResponseRecorder();
+      service.service(post("application/json", strongName, batch), response(response));
+      assertEquals(strongName, HttpServletResponse.SC_FORBIDDEN, response.calls.get("sendError"));
+    }
+    assertTrue(logged.isEmpty());
+    assertEquals(0, service.getBatchRecordCount());
+  }
+
+  public void testPostJsonBatchRejectsOtherPermutations() throws Exception {
+    String batch = "[" + json("first") + ","
+        + "{\"strongName\":\"../../WEB-INF/web.xml\"," + json("second").substring(1) + "]";
+    ResponseRecorder response = new ResponseRecorder();
+    service.service(post("application/json", STRONG_NAME, batch), response(response));
+    assertEquals(HttpServletResponse.SC_BAD_REQUEST, response.calls.get("sendError"));
+    assertTrue(logged.isEmpty());
+    assertEquals(0, service.getBatchRecordCount());
+  }
+
+  private HttpServletResponse response(ResponseRecorder recorder) {
+    return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {HttpServletResponse.class}, recorder);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.logging.server;
+
+import com.google.gwt.core.server.StackTraceDeobfuscator;
+import com.google.gwt.logging.server.RemoteLoggingServiceUtil.BatchResult;
+import com.google.gwt.logging.server.RemoteLoggingServiceUtil.SerializedLogRecord;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Tests batch logging in {@link RemoteLoggingServiceUtil}.
+ */
+public class RemoteLoggingServiceUtilTest extends TestCase {
+
+  private static final String LOGGER_NAME = RemoteLoggingServiceUtilTest.class.getName();
+
+  /**
+   * Serves a one-line symbol map for any permutation and counts how often each is read.
+   */
+  private static class CountingDeobfuscator extends StackTraceDeobfuscator {
+    final Map<String, AtomicInteger> symbolMapReads = new ConcurrentHashMap<String, AtomicInteger>();
+
+    @Override
+    protected InputStream openInputStream(String fileName) throws IOException {
+      if (!fileName.endsWith(".symbolMap")) {
+        throw new IOException("Missing: " + fileName);
+      }
+      String strongName = fileName.substring(0, fileName.indexOf('.'));
+      AtomicInteger reads = symbolMapReads.get(strongName);
+      if (reads == null) {
+        symbolMapReads.put(strongName, reads = new AtomicInteger());
+      }
+      reads.incrementAndGet();
+      String line = "xy,com.example.Foo::run()V,com.example.Foo,run,"
+          + "file:/src/com/example/Foo.java,42,0\n";
+      return new ByteArrayInputStream(line.getBytes("UTF-8"));
+    }
+  }
+
+  private static String json(String msg, boolean thrown) {
+    String throwable = thrown ? "{\"type\":\"java.lang.RuntimeException\",\"message\":\"boom\","
+        + "\"stackTrace\":[{\"className\":\"Unknown\",\"fileName\":\"x.js\","
+        + "\"methodName\":\"xy\",\"lineNumber\":\"-1\"}],\"cause\":{}}" : "{}";
+    return "{\"level\":\"SEVERE\",\"loggerName\":\"client\",\"msg\":\"" + msg + "\","
+        + "\"timestamp\":\"1\",\"thrown\":" + throwable + "}";
+  }
+
+  private final List<LogRecord> logged = Collections.synchronizedList(new ArrayList<LogRecord>());
+
+  private final Handler handler = new Handler() {
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+      logged.add(record);
+    }
+  };
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    Logger logger = Logger.getLogger(LOGGER_NAME);
+    logger.setUseParentHandlers(false);
+    logger.addHandler(handler);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    Logger.getLogger(LOGGER_NAME).removeHandler(handler);
+    super.tearDown();
+  }
+
+  public void testBatchIsGroupedByPermutation() throws Exception {
+    checkBatch(null);
+  }
+
+  public void testBatchInParallel() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      checkBatch(executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void checkBatch(ExecutorService executor) throws Exception {
+    List<SerializedLogRecord> records = new ArrayList<SerializedLogRecord>();
+    for (int i = 0; i < 10; i++) {
+      records.add(new SerializedLogRecord(json("a" + i, true), "PERM_A"));
+      records.add(new SerializedLogRecord(json("b" + i, i % 2 == 0), "PERM_B"));
+    }
+    records.add(new SerializedLogRecord("not json", "PERM_A"));
+    records.add(new SerializedLogRecord(json("no permutation", true), null));
+
+    CountingDeobfuscator deobfuscator = new CountingDeobfuscator();
+    BatchResult result = RemoteLoggingServiceUtil.logOnServer(records, deobfuscator,
+        LOGGER_NAME, executor);
+
+    assertEquals(21, result.getLoggedCount());
+    assertEquals(1, result.getFailedCount());
+    assertEquals(3, result.getGroupCount());
+    assertEquals(21, logged.size());
+    assertEquals(1, deobfuscator.symbolMapReads.get("PERM_A").get());
+    assertEquals(1, deobfuscator.symbolMapReads.get("PERM_B").get());
+
+    for (LogRecord lr : logged) {
+      if (lr.getThrown() == null) {
+        continue;
+      }
+      StackTraceElement ste = lr.getThrown().getStackTrace()[0];
+      if (lr.getMessage().equals("no permutation")) {
+        assertEquals("Unknown", ste.getClassName());
+      } else {
+        assertEquals("com.example.Foo", ste.getClassName());
+        assertEquals("run", ste.getMethodName());
+        assertEquals(42, ste.getLineNumber());
+      }
+    }
+  }
+}
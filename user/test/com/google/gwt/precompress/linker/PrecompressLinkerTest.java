@@ -24,21 +24,27 @@ import com.google.gwt.core.ext.linker.EmittedArtifact;
 import com.google.gwt.core.ext.linker.EmittedArtifact.Visibility;
 import com.google.gwt.core.ext.linker.SelectionProperty;
 import com.google.gwt.core.ext.linker.SyntheticArtifact;
+import com.google.gwt.dev.util.Util;
 
 import junit.framework.TestCase;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Tests {@link PrecompressLinker}.
@@ -84,8 +90,10 @@ public class PrecompressLinkerTest extends TestCase {
   private class MockLinkerContext implements LinkerContext {
     @Override
     public SortedSet<ConfigurationProperty> getConfigurationProperties() {
-      return new TreeSet<ConfigurationProperty>(Arrays.asList(
+      TreeSet<ConfigurationProperty> props = new TreeSet<ConfigurationProperty>(Arrays.asList(
           propLeaveOriginals, propPathRegexes));
+      props.addAll(extraProps);
+      return props;
     }
 
     @Override
@@ -173,6 +181,19 @@ public class PrecompressLinkerTest extends TestCase {
     return baos.toByteArray();
   }
 
+  private static byte[] inflate(byte[] compressed) throws IOException {
+    InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(
+        compressed));
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] buf = new byte[10000];
+    int n;
+    while ((n = in.read(buf)) > 0) {
+      baos.write(buf, 0, n);
+    }
+
+    return baos.toByteArray();
+  }
+
   private static SyntheticArtifact emit(String path, byte[] content) {
     return new SyntheticArtifact(PrecompressLinker.class, path, content);
   }
@@ -229,6 +250,7 @@ public class PrecompressLinkerTest extends TestCase {
 
   private ArtifactSet artifacts;
   private LinkerContext context = new MockLinkerContext();
+  private List<ConfigurationProperty> extraProps = new ArrayList<ConfigurationProperty>();
 
   private MockConfigurationProperty propLeaveOriginals;
 
@@ -257,6 +279,130 @@ public class PrecompressLinkerTest extends TestCase {
         uncompressibleGz);
   }
 
+  /**
+   * Test that compressed outputs are cached by content and reused.
+   */
+  public void testCache() throws UnableToCompleteException, IOException {
+    File cacheDir = File.createTempFile("precompress", "cache");
+    assertTrue(cacheDir.delete());
+    try {
+      MockConfigurationProperty propCacheDir = new MockConfigurationProperty(
+          "precompress.cache.dir", false);
+      propCacheDir.setValue(cacheDir.getPath());
+      extraProps.add(propCacheDir);
+
+      byte[] expected = contents(findArtifact(linkArtifacts(), "foo.js.gz"));
+      String hash = PrecompressCache.computeContentHash(
+          new ByteArrayInputStream(fooFileContents().getBytes("UTF-8")));
+      File entry = new File(cacheDir, "gzip/" + hash.substring(0, 2) + "/" + hash + ".gz");
+      assertEqualBytes(expected, Util.readFileAsBytes(entry));
+
+      // Replace the cached entry; the next link must use it unchanged.
+      byte[] replacement = compress(("//\n" + fooFileContents()).getBytes("UTF-8"));
+      Util.writeBytesToFile(TreeLogger.NULL, entry, replacement);
+      EmittedArtifact fooGz = findArtifact(linkArtifacts(), "foo.js.gz");
+      assertEqualBytes(replacement, contents(fooGz));
+      assertFalse(Arrays.equals(expected, replacement));
+    } finally {
+      Util.recursiveDelete(cacheDir, false);
+    }
+  }
+
+  /**
+   * Test that encodings added by subclasses are produced.
+   */
+  public void testCustomEncoding() throws UnableToCompleteException, IOException {
+    MockConfigurationProperty propEncodings = new MockConfigurationProperty(
+        "precompress.encodings", true);
+    propEncodings.values.add("gzip");
+    propEncodings.values.add("x-fast-deflate");
+    extraProps.add(propEncodings);
+    final PrecompressEncoding fastDeflate =
+        new PrecompressEncoding("x-fast-deflate", ".fdeflate") {
+          @Override
+          public void compress(InputStream in, OutputStream out) throws IOException {
+            DeflaterOutputStream deflater =
+                new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED));
+            Util.copyNoClose(in, deflater);
+            deflater.close();
+          }
+        };
+    ArtifactSet updated = new PrecompressLinker() {
+      @Override
+      protected PrecompressEncoding createEncoding(String name) {
+        return fastDeflate.getName().equals(name) ? fastDeflate : super.createEncoding(name);
+      }
+    }.link(TreeLogger.NULL, context, artifacts, true);
+
+    EmittedArtifact foo = findArtifact(updated, "foo.js");
+    assertNotNull(findArtifact(updated, "foo.js.gz"));
+    EmittedArtifact fooDeflate = findArtifact(updated, "foo.js.fdeflate");
+    assertNotNull(fooDeflate);
+    assertEqualBytes(contents(foo), inflate(contents(fooDeflate)));
+    assertNull(findArtifact(updated, "bar.js.fdeflate"));
+  }
+
+  /**
+   * Test that the built-in deflate encoding is produced alongside gzip, and
+   * that outputs of either encoding aren't compressed again.
+   */
+  public void testDeflateEncoding() throws UnableToCompleteException, IOException {
+    MockConfigurationProperty propEncodings = new MockConfigurationProperty(
+        "precompress.encodings", true);
+    propEncodings.values.add("gzip");
+    propEncodings.values.add("deflate");
+    extraProps.add(propEncodings);
+    propPathRegexes.values.add(".*");
+    ArtifactSet updated = linkArtifacts();
+
+    EmittedArtifact foo = findArtifact(updated, "foo.js");
+    assertEqualBytes(contents(foo), decompress(contents(findArtifact(updated, "foo.js.gz"))));
+    assertEqualBytes(contents(foo),
+        inflate(contents(findArtifact(updated, "foo.js.deflate"))));
+
+    // Artifacts that already have the extension of an encoding aren't compressed again, even if
+    // compressing them would make them smaller.
+    ArtifactSet relinked = new ArtifactSet(updated);
+    relinked.add(emit("baz.js.deflate", fooFileContents()));
+    relinked = new PrecompressLinker().link(TreeLogger.NULL, context, relinked, true);
+    assertEquals(updated.size() + 1, relinked.size());
+    assertNull(findArtifact(relinked, "baz.js.deflate.gz"));
+    assertNull(findArtifact(relinked, "baz.js.deflate.deflate"));
+  }
+
+  /**
+   * Test that many artifacts, which are compressed in parallel, each get the
+   * right output.
+   */
+  public void testManyArtifacts() throws UnableToCompleteException, IOException {
+    ArtifactSet many = new ArtifactSet();
+    for (int i = 0; i < 50; i++) {
+      many.add(emit("file" + i + ".js", i + fooFileContents()));
+    }
+    many.freeze();
+    ArtifactSet updated = new PrecompressLinker().link(TreeLogger.NULL, context, many, true);
+    for (int i = 0; i < 50; i++) {
+      EmittedArtifact original = findArtifact(updated, "file" + i + ".js");
+      EmittedArtifact gz = findArtifact(updated, "file" + i + ".js.gz");
+      assertEqualBytes(contents(original), decompress(contents(gz)));
+    }
+  }
+
+  /**
+   * Test that an unknown encoding is an error.
+   */
+  public void testUnknownEncoding() {
+    MockConfigurationProperty propEncodings = new MockConfigurationProperty(
+        "precompress.encodings", true);
+    propEncodings.values.add("nonesuch");
+    extraProps.add(propEncodings);
+    try {
+      linkArtifacts();
+      fail("Expected UnableToCompleteException");
+    } catch (UnableToCompleteException expected) {
+    }
+  }
+
   /**
    * Test that the blacklist takes effect.
    */
@@ -18,6 +18,9 @@ package com.google.gwt.user.client.rpc;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArraysAsList;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapKey;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapValue;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeCopyOnWriteArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyKey;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptySet;
@@ -56,6 +59,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Tests collections across RPC.
@@ -219,6 +224,49 @@ public class CollectionsTest extends RpcTestBase {
     });
   }
 
+  public void testConcurrentHashMap() {
+    CollectionsTestServiceAsync service = getServiceAsync();
+    final ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue>
+        expected = TestSetFactory.createConcurrentHashMap();
+    delayTestFinishForRpc();
+    service.echo(expected, new AsyncCallback<ConcurrentHashMap<MarkerTypeConcurrentHashMapKey,
+        MarkerTypeConcurrentHashMapValue>>() {
+      @Override
+      public void onFailure(Throwable caught) {
+        TestSetValidator.rethrowException(caught);
+      }
+
+      @Override
+      public void onSuccess(ConcurrentHashMap<MarkerTypeConcurrentHashMapKey,
+          MarkerTypeConcurrentHashMapValue> result) {
+        assertNotNull(result);
+        assertTrue(TestSetValidator.isValid(expected, result));
+        finishTest();
+      }
+    });
+  }
+
+  public void testCopyOnWriteArrayList() {
+    CollectionsTestServiceAsync service = getServiceAsync();
+    final CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> expected =
+        TestSetFactory.createCopyOnWriteArrayList();
+    delayTestFinishForRpc();
+    service.echo(expected,
+        new AsyncCallback<CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList>>() {
+          @Override
+          public void onFailure(Throwable caught) {
+            TestSetValidator.rethrowException(caught);
+          }
+
+          @Override
+          public void onSuccess(CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> result) {
+            assertNotNull(result);
+            assertTrue(TestSetValidator.isValid(expected, result));
+            finishTest();
+          }
+        });
+  }
+
   public void testDateArray() {
     CollectionsTestServiceAsync service = getServiceAsync();
     final Date[] expected = TestSetFactory.createDateArray();
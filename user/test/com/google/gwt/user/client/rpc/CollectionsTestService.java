@@ -17,6 +17,9 @@ package com.google.gwt.user.client.rpc;
 
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArraysAsList;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapKey;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapValue;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeCopyOnWriteArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyKey;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptySet;
@@ -54,6 +57,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The Remote Service for testing GWT RPC for Collections.
@@ -100,6 +105,14 @@ public interface CollectionsTestService extends RemoteService {
 
   Character[] echo(Character[] value) throws CollectionsTestServiceException;
 
+  ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue> echo(
+      ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue> value)
+      throws CollectionsTestServiceException;
+
+  CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> echo(
+      CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> value)
+      throws CollectionsTestServiceException;
+
   Date[] echo(Date[] date) throws CollectionsTestServiceException;
 
   double[] echo(double[] value) throws CollectionsTestServiceException;
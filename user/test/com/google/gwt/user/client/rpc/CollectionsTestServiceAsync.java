@@ -17,6 +17,9 @@ package com.google.gwt.user.client.rpc;
 
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArraysAsList;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapKey;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapValue;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeCopyOnWriteArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyKey;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptySet;
@@ -54,6 +57,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The Remote Service Async class for GWT RPC Collections testing.
@@ -86,6 +91,14 @@ public interface CollectionsTestServiceAsync {
 
   void echo(Character[] value, AsyncCallback<Character[]> callback);
 
+  void echo(
+      ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue> value,
+      AsyncCallback<ConcurrentHashMap<MarkerTypeConcurrentHashMapKey,
+          MarkerTypeConcurrentHashMapValue>> callback);
+
+  void echo(CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> value,
+      AsyncCallback<CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList>> callback);
+
   void echo(Date[] date, AsyncCallback<Date[]> callback);
 
   void echo(double[] value, AsyncCallback<double[]> callback);
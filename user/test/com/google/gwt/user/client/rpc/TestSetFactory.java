@@ -37,6 +37,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Creates test collections.
@@ -107,6 +109,51 @@ public class TestSetFactory {
     }
   }
 
+  /**
+   * A single-use marker type to independently check type parameter exposure in
+   * various collections.
+   */
+  public static final class MarkerTypeConcurrentHashMapKey extends MarkerBase {
+
+    public MarkerTypeConcurrentHashMapKey(String value) {
+      super(value);
+    }
+
+    MarkerTypeConcurrentHashMapKey() {
+      super(null);
+    }
+  }
+
+  /**
+   * A single-use marker type to independently check type parameter exposure in
+   * various collections.
+   */
+  public static final class MarkerTypeConcurrentHashMapValue extends MarkerBase {
+
+    public MarkerTypeConcurrentHashMapValue(String value) {
+      super(value);
+    }
+
+    MarkerTypeConcurrentHashMapValue() {
+      super(null);
+    }
+  }
+
+  /**
+   * A single-use marker type to independently check type parameter exposure in
+   * various collections.
+   */
+  public static final class MarkerTypeCopyOnWriteArrayList extends MarkerBase {
+
+    public MarkerTypeCopyOnWriteArrayList(String value) {
+      super(value);
+    }
+
+    MarkerTypeCopyOnWriteArrayList() {
+      super(null);
+    }
+  }
+
   /**
    * A single-use marker type to independently check type parameter exposure in
    * various empty collections.
@@ -541,6 +588,29 @@ public class TestSetFactory {
     return new SerializableGraphWithCFS();
   }
 
+  public static ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue>
+      createConcurrentHashMap() {
+    ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue> map =
+        new ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue>();
+    map.put(new MarkerTypeConcurrentHashMapKey("foo"),
+        new MarkerTypeConcurrentHashMapValue("foo"));
+    map.put(new MarkerTypeConcurrentHashMapKey("bar"),
+        new MarkerTypeConcurrentHashMapValue("bar"));
+    map.put(new MarkerTypeConcurrentHashMapKey("baz"),
+        new MarkerTypeConcurrentHashMapValue("baz"));
+    return map;
+  }
+
+  public static CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> createCopyOnWriteArrayList() {
+    CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> list =
+        new CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList>();
+    list.add(new MarkerTypeCopyOnWriteArrayList("foo"));
+    list.add(new MarkerTypeCopyOnWriteArrayList("bar"));
+    list.add(new MarkerTypeCopyOnWriteArrayList("baz"));
+    list.add(new MarkerTypeCopyOnWriteArrayList("foo"));
+    return list;
+  }
+
   @SuppressWarnings("deprecation")
   public static Date[] createDateArray() {
     return new Date[]{new Date(1992 - 1900, 9, 18), new Date(1997 - 1900, 6, 6)};
@@ -54,6 +54,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Misnamed set of static validation methods used by various collection class
@@ -316,6 +318,24 @@ public class TestSetValidator {
     return reference.equals(list);
   }
 
+  public static boolean isValid(ConcurrentHashMap<?, ?> expected,
+      ConcurrentHashMap<?, ?> actual) {
+    if (actual == null) {
+      return false;
+    }
+
+    return expected.equals(actual);
+  }
+
+  public static boolean isValid(CopyOnWriteArrayList<?> expected,
+      CopyOnWriteArrayList<?> actual) {
+    if (actual == null) {
+      return false;
+    }
+
+    return expected.equals(actual);
+  }
+
   public static boolean isValid(List<MarkerTypeEmptyList> list) {
     return list != null && list.size() == 0;
   }
@@ -19,6 +19,9 @@ import com.google.gwt.user.client.rpc.CollectionsTestService;
 import com.google.gwt.user.client.rpc.TestSetFactory;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeArraysAsList;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapKey;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeConcurrentHashMapValue;
+import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeCopyOnWriteArrayList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyKey;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptyList;
 import com.google.gwt.user.client.rpc.TestSetFactory.MarkerTypeEmptySet;
@@ -58,6 +61,8 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * TODO: document me.
@@ -148,6 +153,34 @@ public class CollectionsTestServiceImpl extends RemoteServiceServlet implements
     return actual;
   }
 
+  @Override
+  public ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue> echo(
+      ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue> actual)
+      throws CollectionsTestServiceException {
+    ConcurrentHashMap<MarkerTypeConcurrentHashMapKey, MarkerTypeConcurrentHashMapValue> expected =
+        TestSetFactory.createConcurrentHashMap();
+    if (!TestSetValidator.isValid(expected, actual)) {
+      throw new CollectionsTestServiceException("expected: "
+          + expected.toString() + " actual: " + actual.toString());
+    }
+
+    return actual;
+  }
+
+  @Override
+  public CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> echo(
+      CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> actual)
+      throws CollectionsTestServiceException {
+    CopyOnWriteArrayList<MarkerTypeCopyOnWriteArrayList> expected =
+        TestSetFactory.createCopyOnWriteArrayList();
+    if (!TestSetValidator.isValid(expected, actual)) {
+      throw new CollectionsTestServiceException("expected: "
+          + expected.toString() + " actual: " + actual.toString());
+    }
+
+    return actual;
+  }
+
   @Override
   public Date[] echo(Date[] actual) throws CollectionsTestServiceException {
     Date[] expected = TestSetFactory.createDateArray();
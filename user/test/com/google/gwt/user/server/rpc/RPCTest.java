@@ -30,6 +30,7 @@ import com.google.gwt.user.server.rpc.impl.TypeNameObfuscator;
 import junit.framework.TestCase;
 
 import java.io.Serializable;
+import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.util.Set;
 
@@ -849,6 +850,48 @@ public class RPCTest extends TestCase {
     }, A_method1, null);
   }
 
+  /**
+   * Tests that {@link RPC#invokeAndPrepareResponse} writes the same payload as
+   * {@link RPC#invokeAndEncodeResponse}.
+   */
+  public void testInvokeAndPrepareResponse() throws Exception {
+    A service = new A() {
+      @Override
+      public void method1() throws SerializableException {
+        throw new SerializableException("failed");
+      }
+
+      @Override
+      public int method2() {
+        return 42;
+      }
+
+      @Override
+      public int method3(int val) {
+        return val;
+      }
+    };
+    SerializationPolicy policy = RPC.getDefaultSerializationPolicy();
+    int flags = AbstractSerializationStream.DEFAULT_FLAGS;
+
+    RPCResponse response = RPC.invokeAndPrepareResponse(service, A.class.getMethod("method2"),
+        null, policy, flags);
+    assertFalse(response.isFailure());
+    StringWriter out = new StringWriter();
+    response.writeTo(out);
+    assertEquals(RPC.invokeAndEncodeResponse(service, A.class.getMethod("method2"), null,
+        policy, flags), out.toString());
+    assertTrue(out.toString().startsWith("//OK"));
+
+    response = RPC.invokeAndPrepareResponse(service, A.class.getMethod("method1"), null,
+        policy, flags);
+    assertTrue(response.isFailure());
+    out = new StringWriter();
+    response.writeTo(out);
+    assertEquals(response.toString(), out.toString());
+    assertTrue(out.toString().startsWith("//EX"));
+  }
+
   public void testSerializationStreamDequote() throws SerializationException {
     ServerSerializationStreamReader reader = new ServerSerializationStreamReader(
         null, null);
@@ -30,6 +30,7 @@ import java.util.Enumeration;
 import java.util.EventListener;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterRegistration;
@@ -43,12 +44,11 @@ import javax.servlet.ServletRegistration;
 import javax.servlet.SessionCookieConfig;
 import javax.servlet.SessionTrackingMode;
 import javax.servlet.descriptor.JspConfigDescriptor;
+import javax.servlet.http.HttpServletRequest;
 
 /**
  * Test some of the failure modes associated with
  * {@link RemoteServiceServlet#doGetSerializationPolicy(HttpServletRequest, String, String)}.
- * 
- * TODO: test caching of policies?
  */
 public class RemoteServiceServletTest extends TestCase {
 
@@ -403,6 +403,104 @@ public class RemoteServiceServletTest extends TestCase {
     assertNotValidDeserialize(serializationPolicy, Baz.class);
   }
 
+  /**
+   * Servlets in the same context share cached policies, unless they load them
+   * differently, in which case not even instances of the same class share them.
+   */
+  public void testGetSerializationPolicy_SharedBetweenServlets()
+      throws ServletException, SerializationException {
+    String resourceHash = "SHARED" + System.nanoTime();
+    AtomicInteger loads = new AtomicInteger();
+    MockServletContext mockContext = createPolicyContext(resourceHash, loads);
+    MockHttpServletRequestContextPath mockRequest = new MockHttpServletRequestContextPath();
+    mockRequest.contextPath = "/MyModule";
+
+    RemoteServiceServlet first = new RemoteServiceServlet();
+    RemoteServiceServlet second = new RemoteServiceServlet();
+    class CustomServlet extends RemoteServiceServlet {
+      @Override
+      protected SerializationPolicy doGetSerializationPolicy(HttpServletRequest request,
+          String moduleBaseURL, String strongName) {
+        return super.doGetSerializationPolicy(request, moduleBaseURL, strongName);
+      }
+    }
+    RemoteServiceServlet custom = new CustomServlet();
+    RemoteServiceServlet otherCustom = new CustomServlet();
+    SerializationPolicy[] policies = new SerializationPolicy[4];
+    RemoteServiceServlet[] servlets = {first, second, custom, otherCustom};
+    for (int i = 0; i < servlets.length; i++) {
+      servlets[i].init(new MockServletConfig(mockContext));
+      servlets[i].getThreadLocalRequest();
+      servlets[i].perThreadRequest.set(mockRequest);
+      policies[i] = servlets[i].getSerializationPolicy("http://www.google.com/MyModule", resourceHash);
+    }
+
+    assertSame(policies[0], policies[1]);
+    assertNotSame(policies[0], policies[2]);
+    assertNotSame(policies[2], policies[3]);
+    assertSame(policies[2], custom.getSerializationPolicy("http://www.google.com/MyModule",
+        resourceHash));
+    assertEquals(3, loads.get());
+    assertValidDeserialize(policies[0], Foo.class);
+  }
+
+  /**
+   * Servlets in the same context that download policies from different code
+   * servers don't share cached policies.
+   */
+  public void testGetSerializationPolicy_NotSharedAcrossCodeServerPorts()
+      throws ServletException {
+    String resourceHash = "PORTS" + System.nanoTime();
+    AtomicInteger loads = new AtomicInteger();
+    MockServletContext mockContext = createPolicyContext(resourceHash, loads);
+    MockHttpServletRequestContextPath mockRequest = new MockHttpServletRequestContextPath();
+    mockRequest.contextPath = "/MyModule";
+
+    RemoteServiceServlet withoutCodeServer = new RemoteServiceServlet();
+    withoutCodeServer.init(new MockServletConfig(mockContext));
+    RemoteServiceServlet withCodeServer = new RemoteServiceServlet();
+    System.setProperty("gwt.codeserver.port", "9876");
+    try {
+      withCodeServer.init(new MockServletConfig(mockContext));
+    } finally {
+      System.clearProperty("gwt.codeserver.port");
+    }
+    withoutCodeServer.getThreadLocalRequest();
+    withoutCodeServer.perThreadRequest.set(mockRequest);
+    withCodeServer.getThreadLocalRequest();
+    withCodeServer.perThreadRequest.set(mockRequest);
+
+    SerializationPolicy policy =
+        withoutCodeServer.getSerializationPolicy("http://www.google.com/MyModule", resourceHash);
+    assertNotSame(policy,
+        withCodeServer.getSerializationPolicy("http://www.google.com/MyModule", resourceHash));
+    assertEquals(2, loads.get());
+  }
+
+  /**
+   * Returns a context whose only resource is the policy with the given strong
+   * name, counting the times it is opened.
+   */
+  private MockServletContext createPolicyContext(String strongName,
+      final AtomicInteger loads) {
+    final String resourcePath = SerializationPolicyLoader.getSerializationPolicyFileName(
+        strongName);
+    return new MockServletContext() {
+      public InputStream getResourceAsStream(String resource) {
+        if (resourcePath.equals(resource)) {
+          loads.incrementAndGet();
+          try {
+            return new ByteArrayInputStream((Foo.class.getName() + ",true\n").getBytes(
+                SerializationPolicyLoader.SERIALIZATION_POLICY_FILE_ENCODING));
+          } catch (UnsupportedEncodingException e) {
+            return null;
+          }
+        }
+        return null;
+      }
+    };
+  }
+
   private void assertDeserializeFields(SerializationPolicy policy,
       Class<?> clazz) {
     assertTrue(policy.shouldDeserializeFields(clazz));
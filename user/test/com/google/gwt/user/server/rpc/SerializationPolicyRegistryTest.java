@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc;
+
+import junit.framework.TestCase;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link SerializationPolicyRegistry}.
+ */
+public class SerializationPolicyRegistryTest extends TestCase {
+
+  private static class CountingLoader implements SerializationPolicyRegistry.Loader {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Override
+    public SerializationPolicy load() {
+      loads.incrementAndGet();
+      return RPC.getDefaultSerializationPolicy();
+    }
+  }
+
+  public void testCaching() {
+    SerializationPolicyRegistry registry = new SerializationPolicyRegistry(10);
+    CountingLoader loader = new CountingLoader();
+    Object scope = new Object();
+
+    SerializationPolicy policy = registry.get(scope, "http://host/module/", "ABC", loader);
+    assertSame(policy, registry.get(scope, "http://host/module/", "ABC", loader));
+    assertEquals(1, loader.loads.get());
+
+    // Each of scope, configuration, module base URL and strong name is part of the key.
+    registry.get(new Object(), "http://host/module/", "ABC", loader);
+    registry.get(scope, 9876, "http://host/module/", "ABC", loader);
+    registry.get(scope, "http://host/other/", "ABC", loader);
+    registry.get(scope, "http://host/module/", "DEF", loader);
+    registry.get(scope, null, "ABC", loader);
+    assertEquals(6, loader.loads.get());
+
+    // Configurations are compared by equality.
+    registry.get(scope, new Integer(9876), "http://host/module/", "ABC", loader);
+    assertEquals(6, loader.loads.get());
+
+    assertEquals(6, registry.size());
+    assertEquals(2, registry.getHitCount());
+    assertEquals(6, registry.getMissCount());
+    assertTrue(registry.getTotalLoadTimeNanos() >= 0);
+  }
+
+  public void testScopesAreComparedByIdentity() {
+    SerializationPolicyRegistry registry = new SerializationPolicyRegistry(10);
+    CountingLoader loader = new CountingLoader();
+
+    registry.get(new ArrayList<String>(), "url", "A", loader);
+    registry.get(new ArrayList<String>(), "url", "A", loader);
+    assertEquals(2, loader.loads.get());
+  }
+
+  public void testCollectedScopesAreDropped() throws InterruptedException {
+    SerializationPolicyRegistry registry = new SerializationPolicyRegistry(10);
+    CountingLoader loader = new CountingLoader();
+    Object scope = new Object();
+    WeakReference<Object> scopeRef = new WeakReference<Object>(scope);
+    registry.get(scope, "url", "A", loader);
+    registry.get(null, "url", "A", loader);
+    assertEquals(2, registry.size());
+
+    scope = null;
+    for (int i = 0; i < 50 && (scopeRef.get() != null || registry.size() > 1); i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertNull(scopeRef.get());
+    assertEquals(1, registry.size());
+    registry.get(null, "url", "A", loader);
+    assertEquals(2, loader.loads.get());
+  }
+
+  public void testEvictsLeastRecentlyUsed() {
+    SerializationPolicyRegistry registry = new SerializationPolicyRegistry(2);
+    CountingLoader loader = new CountingLoader();
+    Object scope = new Object();
+
+    registry.get(scope, "url", "A", loader);
+    registry.get(scope, "url", "B", loader);
+    registry.get(scope, "url", "A", loader);
+    registry.get(scope, "url", "C", loader);
+    assertEquals(2, registry.size());
+    assertEquals(1, registry.getEvictionCount());
+    assertEquals(3, loader.loads.get());
+
+    // B was evicted, A was not.
+    registry.get(scope, "url", "A", loader);
+    assertEquals(3, loader.loads.get());
+    registry.get(scope, "url", "B", loader);
+    assertEquals(4, loader.loads.get());
+  }
+
+  public void testFailedLoadIsNotCached() {
+    SerializationPolicyRegistry registry = new SerializationPolicyRegistry(10);
+    try {
+      registry.get(null, "url", "A", new SerializationPolicyRegistry.Loader() {
+        @Override
+        public SerializationPolicy load() {
+          throw new IllegalStateException("expected");
+        }
+      });
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+    }
+    assertEquals(0, registry.size());
+
+    CountingLoader loader = new CountingLoader();
+    assertNotNull(registry.get(null, "url", "A", loader));
+    assertEquals(1, loader.loads.get());
+  }
+
+  public void testLoadsOnceUnderConcurrency() throws Exception {
+    final SerializationPolicyRegistry registry = new SerializationPolicyRegistry(10);
+    final CountDownLatch loading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger loads = new AtomicInteger();
+    final SerializationPolicyRegistry.Loader slowLoader = new SerializationPolicyRegistry.Loader() {
+      @Override
+      public SerializationPolicy load() {
+        loads.incrementAndGet();
+        loading.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        return RPC.getDefaultSerializationPolicy();
+      }
+    };
+
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<SerializationPolicy>> results = new ArrayList<Future<SerializationPolicy>>();
+      for (int i = 0; i < threads; ++i) {
+        results.add(executor.submit(new Callable<SerializationPolicy>() {
+          @Override
+          public SerializationPolicy call() {
+            return registry.get(null, "url", "A", slowLoader);
+          }
+        }));
+      }
+      loading.await();
+      release.countDown();
+      for (Future<SerializationPolicy> result : results) {
+        assertSame(RPC.getDefaultSerializationPolicy(), result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, loads.get());
+    assertEquals(threads - 1, registry.getHitCount());
+  }
+}
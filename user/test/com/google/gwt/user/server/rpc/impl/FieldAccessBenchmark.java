@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc.impl;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+
+/**
+ * Measures how many objects per second the server-side RPC streams can process
+ * with reflective and with {@link java.lang.invoke.MethodHandle}-based field
+ * access.
+ * <p>
+ * Serialization is measured end to end on a typical DTO graph. Deserialization
+ * requires a client-encoded payload, so for the read side the field writes the
+ * reader performs are measured on their own. Run manually:
+ *
+ * <pre>
+ * java com.google.gwt.user.server.rpc.impl.FieldAccessBenchmark [customers]
+ * </pre>
+ */
+public class FieldAccessBenchmark {
+
+  @SuppressWarnings("unused")
+  private static class Address implements IsSerializable {
+    private String city;
+    private String street;
+    private int zip;
+  }
+
+  @SuppressWarnings("unused")
+  private static class Customer implements IsSerializable {
+    private Address address;
+    private boolean active;
+    private double balance;
+    private long id;
+    private String name;
+    private Order[] orders;
+  }
+
+  @SuppressWarnings("unused")
+  private static class Order implements IsSerializable {
+    private int quantity;
+    private long orderId;
+    private double price;
+    private String sku;
+  }
+
+  private static final int ROUNDS = 5;
+
+  private static final int WARMUP_ROUNDS = 3;
+
+  public static void main(String[] args) throws Exception {
+    int customers = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    Customer[] graph = createGraph(customers);
+    int objectCount = customers * 5 + 1;
+
+    try {
+      for (boolean methodHandles : new boolean[] {false, true, false, true}) {
+        SerializabilityUtil.setMethodHandleFieldAccess(methodHandles);
+        String mode = methodHandles ? "method handles" : "reflection    ";
+        long serializeNanos = Long.MAX_VALUE;
+        long setNanos = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+          long serialize = timeSerialize(graph);
+          long set = timeFieldWrites(graph);
+          if (round >= WARMUP_ROUNDS) {
+            serializeNanos = Math.min(serializeNanos, serialize);
+            setNanos = Math.min(setNanos, set);
+          }
+        }
+        System.out.println(String.format("%s  serialize: %,12d objects/s   field writes: %,12d"
+            + " objects/s", mode, objectCount * 1000000000L / serializeNanos,
+            objectCount * 1000000000L / setNanos));
+      }
+    } finally {
+      SerializabilityUtil.setMethodHandleFieldAccess(
+          Boolean.getBoolean(SerializabilityUtil.METHOD_HANDLE_FIELD_ACCESS_PROPERTY));
+    }
+  }
+
+  private static Customer[] createGraph(int customers) {
+    Customer[] graph = new Customer[customers];
+    for (int i = 0; i < customers; i++) {
+      Customer customer = new Customer();
+      customer.id = i;
+      customer.name = "customer" + i;
+      customer.active = i % 2 == 0;
+      customer.balance = i * 1.5;
+      customer.address = new Address();
+      customer.address.city = "city" + (i % 100);
+      customer.address.street = "street" + i;
+      customer.address.zip = 10000 + i;
+      customer.orders = new Order[3];
+      for (int j = 0; j < 3; j++) {
+        Order order = new Order();
+        order.orderId = i * 10L + j;
+        order.sku = "sku" + (j * 7 + i % 13);
+        order.quantity = j + 1;
+        order.price = j * 9.99;
+        customer.orders[j] = order;
+      }
+      graph[i] = customer;
+    }
+    return graph;
+  }
+
+  /**
+   * Writes every field of every object in the graph, as the reader does.
+   */
+  private static long timeFieldWrites(Customer[] graph) throws IllegalAccessException {
+    SerializationPolicy policy = LegacySerializationPolicy.getInstance();
+    FieldAccessor[] customerFields = SerializabilityUtil.getFieldAccessors(Customer.class, policy);
+    FieldAccessor[] addressFields = SerializabilityUtil.getFieldAccessors(Address.class, policy);
+    FieldAccessor[] orderFields = SerializabilityUtil.getFieldAccessors(Order.class, policy);
+    long start = System.nanoTime();
+    for (Customer customer : graph) {
+      copyFields(customerFields, customer);
+      copyFields(addressFields, customer.address);
+      for (Order order : customer.orders) {
+        copyFields(orderFields, order);
+      }
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static void copyFields(FieldAccessor[] accessors, Object instance)
+      throws IllegalAccessException {
+    for (FieldAccessor accessor : accessors) {
+      accessor.set(instance, accessor.get(instance));
+    }
+  }
+
+  private static long timeSerialize(Customer[] graph) throws SerializationException {
+    long start = System.nanoTime();
+    ServerSerializationStreamWriter writer =
+        new ServerSerializationStreamWriter(LegacySerializationPolicy.getInstance());
+    writer.prepareToWrite();
+    writer.writeObject(graph);
+    long nanos = System.nanoTime() - start;
+    if (writer.getEstimatedLength() == 0) {
+      throw new AssertionError();
+    }
+    return nanos;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.user.server.rpc.impl;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link FieldAccessor}, with and without method handles.
+ */
+public class FieldAccessorTest extends TestCase {
+
+  @SuppressWarnings("unused")
+  private static class Dto implements IsSerializable {
+    private final String id = "id";
+    private int count;
+    private List<String> names;
+  }
+
+  /**
+   * A policy that accepts every type and serializes final fields.
+   */
+  private static class FinalFieldsPolicy extends SerializationPolicy {
+    @Override
+    public boolean shouldDeserializeFields(Class<?> clazz) {
+      return true;
+    }
+
+    @Override
+    public boolean shouldSerializeFields(Class<?> clazz) {
+      return true;
+    }
+
+    @Override
+    public boolean shouldSerializeFinalFields() {
+      return true;
+    }
+
+    @Override
+    public void validateDeserialize(Class<?> clazz) throws SerializationException {
+    }
+
+    @Override
+    public void validateSerialize(Class<?> clazz) throws SerializationException {
+    }
+  }
+
+  public void testAccessorsFollowFinalFieldPolicy() {
+    // Look up the policy without final fields first, so that a cache keyed only by class would
+    // hand its accessors to the other policy too.
+    assertEquals("[count, names]", getFieldNames(LegacySerializationPolicy.getInstance()));
+    assertEquals("[count, id, names]", getFieldNames(new FinalFieldsPolicy()));
+    assertEquals("[count, names]", getFieldNames(LegacySerializationPolicy.getInstance()));
+  }
+
+  public void testMethodHandleAccess() throws Exception {
+    checkAccess(true);
+  }
+
+  public void testReflectiveAccess() throws Exception {
+    checkAccess(false);
+  }
+
+  public void testStreamWriterOutputDoesNotDependOnAccessMode() throws Exception {
+    Dto dto = new Dto();
+    dto.count = 7;
+    try {
+      SerializabilityUtil.setMethodHandleFieldAccess(false);
+      String reflective = serialize(dto);
+      SerializabilityUtil.setMethodHandleFieldAccess(true);
+      assertEquals(reflective, serialize(dto));
+    } finally {
+      SerializabilityUtil.setMethodHandleFieldAccess(
+          Boolean.getBoolean(SerializabilityUtil.METHOD_HANDLE_FIELD_ACCESS_PROPERTY));
+    }
+  }
+
+  private void checkAccess(boolean useMethodHandles) throws Exception {
+    Dto dto = new Dto();
+    FieldAccessor count = FieldAccessor.create(Dto.class.getDeclaredField("count"),
+        useMethodHandles);
+    FieldAccessor id = FieldAccessor.create(Dto.class.getDeclaredField("id"), useMethodHandles);
+    FieldAccessor names = FieldAccessor.create(Dto.class.getDeclaredField("names"),
+        useMethodHandles);
+
+    assertEquals("count", count.getName());
+    assertEquals(int.class, count.getType());
+    assertEquals(List.class, names.getType());
+    assertEquals(Dto.class.getDeclaredField("names").getGenericType(), names.getGenericType());
+
+    count.set(dto, 42);
+    assertEquals(42, count.get(dto));
+    id.set(dto, "changed");
+    assertEquals("changed", id.get(dto));
+
+    try {
+      count.set(dto, "not an int");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      count.set(dto, null);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      names.set(dto, "not a list");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      count.get("not a Dto");
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static String getFieldNames(SerializationPolicy policy) {
+    FieldAccessor[] accessors = SerializabilityUtil.getFieldAccessors(Dto.class, policy);
+    String[] names = new String[accessors.length];
+    for (int i = 0; i < accessors.length; i++) {
+      names[i] = accessors[i].getName();
+    }
+    return Arrays.toString(names);
+  }
+
+  private static String serialize(Object instance) throws Exception {
+    ServerSerializationStreamWriter writer =
+        new ServerSerializationStreamWriter(LegacySerializationPolicy.getInstance());
+    writer.prepareToWrite();
+    writer.writeObject(instance);
+    return writer.toString();
+  }
+}
@@ -16,8 +16,13 @@
 
 package com.google.gwt.user.server.rpc.impl;
 
+import com.google.gwt.user.client.rpc.SerializationException;
+
 import junit.framework.TestCase;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 /**
  * Tests {@link ServerSerializationStreamWriter}.
  */
@@ -114,4 +119,34 @@ public class ServerSerializationStreamWriterTest extends TestCase {
         escaped);
   }
 
+
+  public void testWriteTo() throws IOException, SerializationException {
+    assertWriteToMatchesToString(10);
+  }
+
+  public void testWriteTo_lengthConstrained() throws IOException, SerializationException {
+    // Enough tokens and strings to split both the payload and the string
+    // table into several arrays.
+    assertWriteToMatchesToString(
+        2 * ServerSerializationStreamWriter.LengthConstrainedArray.MAXIMUM_ARRAY_LENGTH + 10);
+  }
+
+  private void assertWriteToMatchesToString(int tokenCount)
+      throws IOException, SerializationException {
+    ServerSerializationStreamWriter writer =
+        new ServerSerializationStreamWriter(LegacySerializationPolicy.getInstance());
+    writer.prepareToWrite();
+    for (int i = 0; i < tokenCount; i++) {
+      writer.writeInt(i);
+      writer.writeString("string\"" + i);
+    }
+    writer.writeLong(Long.MAX_VALUE);
+
+    StringWriter out = new StringWriter();
+    writer.writeTo(out);
+    String expected = writer.toString();
+    assertEquals(expected, out.toString());
+    assertTrue(writer.getEstimatedLength() <= expected.length());
+    assertTrue(writer.getEstimatedLength() > expected.length() / 2);
+  }
 }